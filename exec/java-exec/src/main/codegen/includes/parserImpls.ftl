@@ -304,6 +304,28 @@ SqlNode SqlRefreshMetadata() :
     }
 }
 
+/**
+ * Parse analyze table statement.
+ * ANALYZE TABLE tblname COMPUTE STATISTICS [ (column1, column2, ...) ]
+ */
+SqlNode SqlAnalyzeTable() :
+{
+    SqlParserPos pos;
+    SqlIdentifier tblName;
+    SqlNodeList fieldList;
+}
+{
+    <ANALYZE> { pos = getPos(); }
+    <TABLE>
+    tblName = CompoundIdentifier()
+    <COMPUTE>
+    <STATISTICS>
+    fieldList = ParseOptionalFieldList("Statistics")
+    {
+        return new SqlAnalyzeTable(pos, tblName, fieldList);
+    }
+}
+
 /**
 * Parses statement
 *   DESCRIBE { SCHEMA | DATABASE } name
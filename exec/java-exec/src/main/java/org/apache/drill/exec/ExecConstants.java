@@ -58,6 +58,8 @@ public final class ExecConstants {
   public static final String USE_IP_ADDRESS = "drill.exec.rpc.use.ip";
   public static final String CLIENT_RPC_THREADS = "drill.exec.rpc.user.client.threads";
   public static final String BIT_SERVER_RPC_THREADS = "drill.exec.rpc.bit.server.threads";
+  // Hand the batches sent between fragments of the same Drillbit directly to the receivers (bypassing the network)
+  public static final String BIT_LOCAL_EXCHANGE_ENABLED = "drill.exec.rpc.bit.local_exchange";
   public static final String USER_SERVER_RPC_THREADS = "drill.exec.rpc.user.server.threads";
   public static final String FRAG_RUNNER_RPC_TIMEOUT = "drill.exec.rpc.fragrunner.timeout";
   public static final PositiveLongValidator FRAG_RUNNER_RPC_TIMEOUT_VALIDATOR = new PositiveLongValidator(FRAG_RUNNER_RPC_TIMEOUT, Long.MAX_VALUE);
@@ -102,6 +104,10 @@ public final class ExecConstants {
   // External Sort Runtime options
 
   public static final BooleanValidator EXTERNAL_SORT_DISABLE_MANAGED_OPTION = new BooleanValidator("exec.sort.disable_managed");
+  public static final String EXTERNAL_SORT_NORMALIZED_KEYS_KEY = "exec.sort.normalized_keys.enabled";
+  public static final BooleanValidator EXTERNAL_SORT_NORMALIZED_KEYS_VALIDATOR = new BooleanValidator(EXTERNAL_SORT_NORMALIZED_KEYS_KEY);
+  public static final String EXTERNAL_SORT_NORMALIZED_KEYS_PREFIX_KEY = "exec.sort.normalized_keys.prefix_width";
+  public static final LongValidator EXTERNAL_SORT_NORMALIZED_KEYS_PREFIX_VALIDATOR = new RangeLongValidator(EXTERNAL_SORT_NORMALIZED_KEYS_PREFIX_KEY, 1, 256);
 
   // Hash Aggregate Options
   public static final String HASHAGG_NUM_PARTITIONS_KEY = "exec.hashagg.num_partitions";
@@ -122,6 +128,53 @@ public final class ExecConstants {
   public static final String HASHAGG_SPILL_FILESYSTEM = "drill.exec.hashagg.spill.fs";
   public static final String HASHAGG_FALLBACK_ENABLED_KEY = "drill.exec.hashagg.fallback.enabled";
   public static final BooleanValidator HASHAGG_FALLBACK_ENABLED_VALIDATOR = new BooleanValidator(HASHAGG_FALLBACK_ENABLED_KEY);
+  // The 1st phase of a two phase aggregation stops grouping (and passes each row through as its own group) once
+  // it has seen min_rows rows and the number of groups is at least "ratio" of the number of rows
+  public static final String HASHAGG_PASS_THROUGH_ENABLED_KEY = "exec.hashagg.phase1_pass_through.enabled";
+  public static final BooleanValidator HASHAGG_PASS_THROUGH_ENABLED_VALIDATOR = new BooleanValidator(HASHAGG_PASS_THROUGH_ENABLED_KEY);
+  public static final String HASHAGG_PASS_THROUGH_MIN_ROWS_KEY = "exec.hashagg.phase1_pass_through.min_rows";
+  public static final LongValidator HASHAGG_PASS_THROUGH_MIN_ROWS_VALIDATOR = new RangeLongValidator(HASHAGG_PASS_THROUGH_MIN_ROWS_KEY, 1, Integer.MAX_VALUE);
+  public static final String HASHAGG_PASS_THROUGH_RATIO_KEY = "exec.hashagg.phase1_pass_through.ratio";
+  public static final DoubleValidator HASHAGG_PASS_THROUGH_RATIO_VALIDATOR = new RangeDoubleValidator(HASHAGG_PASS_THROUGH_RATIO_KEY, 0.0, 1.0);
+
+  // Hash Join Options
+  public static final String HASHJOIN_NUM_PARTITIONS_KEY = "exec.hashjoin.num_partitions";
+  public static final LongValidator HASHJOIN_NUM_PARTITIONS_VALIDATOR = new RangeLongValidator(HASHJOIN_NUM_PARTITIONS_KEY, 1, 128); // 1 means - no spilling
+  public static final String HASHJOIN_MAX_MEMORY_KEY = "exec.hashjoin.mem_limit";
+  public static final LongValidator HASHJOIN_MAX_MEMORY_VALIDATOR = new RangeLongValidator(HASHJOIN_MAX_MEMORY_KEY, 0, Integer.MAX_VALUE);
+  // Number of rows in each of the batches the build (and spilled probe) rows are copied into, inside every partition.
+  // Smaller batches waste less memory per partition, larger ones reduce the per batch overhead.
+  public static final String HASHJOIN_NUM_ROWS_IN_BATCH_KEY = "exec.hashjoin.num_rows_in_batch";
+  public static final LongValidator HASHJOIN_NUM_ROWS_IN_BATCH_VALIDATOR = new RangeLongValidator(HASHJOIN_NUM_ROWS_IN_BATCH_KEY, 1, 65535);
+  // Runtime filter: A Bloom filter over the build side keys, used to drop rather than spill probe rows that can not match,
+  // and (merged over all the build fragments) to drop them at the probe side scans, ahead of the exchange
+  public static final String HASHJOIN_ENABLE_RUNTIME_FILTER_KEY = "exec.hashjoin.enable.runtime_filter";
+  public static final BooleanValidator HASHJOIN_ENABLE_RUNTIME_FILTER_VALIDATOR = new BooleanValidator(HASHJOIN_ENABLE_RUNTIME_FILTER_KEY);
+  public static final String HASHJOIN_BLOOM_FILTER_MAX_SIZE_KEY = "exec.hashjoin.bloom_filter.max.size";
+  public static final LongValidator HASHJOIN_BLOOM_FILTER_MAX_SIZE_VALIDATOR = new RangeLongValidator(HASHJOIN_BLOOM_FILTER_MAX_SIZE_KEY, 32, 1 << 30);
+  // Most time (ms) a probe side scan fragment waits for the merged runtime filter, before passing its rows unfiltered
+  public static final String HASHJOIN_RUNTIME_FILTER_MAX_WAITING_TIME_KEY = "exec.hashjoin.runtime_filter.max.waiting.time";
+  public static final LongValidator HASHJOIN_RUNTIME_FILTER_MAX_WAITING_TIME_VALIDATOR = new RangeLongValidator(HASHJOIN_RUNTIME_FILTER_MAX_WAITING_TIME_KEY, 0, Integer.MAX_VALUE);
+
+  public static final String HASHJOIN_SPILL_DIRS = "drill.exec.hashjoin.spill.directories";
+  public static final String HASHJOIN_SPILL_FILESYSTEM = "drill.exec.hashjoin.spill.fs";
+
+  // Hash Table Options (used by both the Hash Aggregate and the Hash Join)
+  // Use the open addressing hash table (linear probing over one contiguous slot array) instead of the chained one
+  public static final String HASHTABLE_USE_OPEN_ADDRESSING_KEY = "exec.hashtable.use_open_addressing";
+  public static final BooleanValidator HASHTABLE_USE_OPEN_ADDRESSING_VALIDATOR = new BooleanValidator(HASHTABLE_USE_OPEN_ADDRESSING_KEY);
+
+  // Compression of the record batches sent by the partition and broadcast senders to other Drillbits;
+  // "adaptive" compresses only while it pays off (i.e., the batches shrink enough)
+  public static final String DATA_COMPRESSION_KEY = "exec.data.compression";
+  public static final OptionValidator DATA_COMPRESSION_VALIDATOR = new EnumeratedStringValidator(DATA_COMPRESSION_KEY,
+      "off", "on", "adaptive");
+
+  // Credit-based flow control between fragments: the number of batches a receiving fragment accepts in flight
+  // from each sender. The credit is granted in the acks, which are then sent once the batch is consumed.
+  // 0 keeps acking batches on arrival while the buffer is below drill.exec.buffer.size batches per sender.
+  public static final String DATA_CREDITS_PER_SENDER_KEY = "exec.data.credits_per_sender";
+  public static final RangeLongValidator DATA_CREDITS_PER_SENDER_VALIDATOR = new RangeLongValidator(DATA_CREDITS_PER_SENDER_KEY, 0, 1024);
 
   public static final String SSL_PROVIDER = "drill.exec.ssl.provider"; // valid values are "JDK", "OPENSSL" // default JDK
   public static final String SSL_PROTOCOL = "drill.exec.ssl.protocol"; // valid values are SSL, SSLV2, SSLV3, TLS, TLSV1, TLSv1.1, TLSv1.2(default)
@@ -153,6 +206,7 @@ public final class ExecConstants {
   public static final String HTTP_SESSION_MEMORY_RESERVATION = "drill.exec.http.session.memory.reservation";
   public static final String HTTP_SESSION_MEMORY_MAXIMUM = "drill.exec.http.session.memory.maximum";
   public static final String HTTP_SESSION_MAX_IDLE_SECS = "drill.exec.http.session_max_idle_secs";
+  public static final String HTTP_STREAM_MAX_QUEUED_BATCHES = "drill.exec.http.stream.max_queued_batches";
   public static final String HTTP_KEYSTORE_PATH = SSL_KEYSTORE_PATH;
   public static final String HTTP_KEYSTORE_PASSWORD = SSL_KEYSTORE_PASSWORD;
   public static final String HTTP_TRUSTSTORE_PATH = SSL_TRUSTSTORE_PATH;
@@ -225,6 +279,21 @@ public final class ExecConstants {
    */
   public static final String DEFAULT_TEMPORARY_WORKSPACE = "drill.exec.default_temporary_workspace";
 
+  /**
+   * Maximum number of entries of the query plan cache.
+   */
+  public static final String PLAN_CACHE_MAX_ENTRIES = "drill.exec.plan_cache.max_entries";
+
+  /**
+   * Fragment scheduler, which limits the number of fragments running at the same time on the Drillbit and
+   * shares the run slots between the queries in time slices.
+   * See {@link org.apache.drill.exec.work.fragment.FragmentScheduler}.
+   */
+  public static final String FRAGMENT_SCHEDULER_ENABLED = "drill.exec.scheduler.enabled";
+  public static final String FRAGMENT_SCHEDULER_SLOTS = "drill.exec.scheduler.slots";
+  public static final String FRAGMENT_SCHEDULER_SLICE_MS = "drill.exec.scheduler.slice_ms";
+  public static final String FRAGMENT_SCHEDULER_MAX_WAIT_MS = "drill.exec.scheduler.max_wait_ms";
+
   public static final String OUTPUT_FORMAT_OPTION = "store.format";
   public static final OptionValidator OUTPUT_FORMAT_VALIDATOR = new StringValidator(OUTPUT_FORMAT_OPTION);
   public static final String PARQUET_BLOCK_SIZE = "store.parquet.block-size";
@@ -287,6 +356,19 @@ public final class ExecConstants {
   public static final String PARQUET_PAGEREADER_USE_FADVISE = "store.parquet.reader.pagereader.usefadvise";
   public static final OptionValidator PARQUET_PAGEREADER_USE_FADVISE_VALIDATOR = new  BooleanValidator(PARQUET_PAGEREADER_USE_FADVISE);
 
+  // Read the columns of a pushed filter first and skip the other columns of batches in which no row can match
+  // (whole batches only, and only in row groups whose projected columns are all fixed-width)
+  public static final String PARQUET_READER_LATE_MATERIALIZATION = "store.parquet.reader.late_materialization";
+  public static final OptionValidator PARQUET_READER_LATE_MATERIALIZATION_VALIDATOR = new BooleanValidator(PARQUET_READER_LATE_MATERIALIZATION);
+
+  // Skip the rows of the data pages of the columns of a pushed filter whose statistics show that no row can match
+  public static final String PARQUET_READER_PAGE_PRUNING = "store.parquet.reader.page_pruning";
+  public static final OptionValidator PARQUET_READER_PAGE_PRUNING_VALIDATOR = new BooleanValidator(PARQUET_READER_PAGE_PRUNING);
+
+  // Decode RLE/bit-packed definition levels and dictionary ids of Parquet pages a batch at a time
+  public static final String PARQUET_READER_BATCH_DECODING = "store.parquet.reader.batch_decoding";
+  public static final OptionValidator PARQUET_READER_BATCH_DECODING_VALIDATOR = new BooleanValidator(PARQUET_READER_BATCH_DECODING);
+
   public static final OptionValidator COMPILE_SCALAR_REPLACEMENT = new BooleanValidator("exec.compile.scalar_replacement");
 
   public static final String JSON_ALL_TEXT_MODE = "store.json.all_text_mode";
@@ -298,6 +380,9 @@ public final class ExecConstants {
   public static final BooleanValidator JSON_SKIP_MALFORMED_RECORDS_VALIDATOR = new BooleanValidator(JSON_READER_SKIP_INVALID_RECORDS_FLAG);
   public static final String JSON_READER_PRINT_INVALID_RECORDS_LINE_NOS_FLAG = "store.json.reader.print_skipped_invalid_record_number";
   public static final BooleanValidator JSON_READER_PRINT_INVALID_RECORDS_LINE_NOS_FLAG_VALIDATOR = new BooleanValidator(JSON_READER_PRINT_INVALID_RECORDS_LINE_NOS_FLAG);
+  // Split uncompressed JSON files at block boundaries, valid only for files with one record per line.
+  public static final String JSON_READER_SPLIT_NDJSON = "store.json.reader.split_ndjson";
+  public static final BooleanValidator JSON_READER_SPLIT_NDJSON_VALIDATOR = new BooleanValidator(JSON_READER_SPLIT_NDJSON);
   public static final DoubleValidator TEXT_ESTIMATED_ROW_SIZE = new RangeDoubleValidator("store.text.estimated_row_size_bytes", 1, Long.MAX_VALUE);
 
   /**
@@ -499,6 +584,16 @@ public final class ExecConstants {
 
   public static final DoubleValidator QUEUE_MEMORY_RESERVE = new RangeDoubleValidator("exec.queue.memory_reserve_ratio", 0, 1.0);
 
+  // Named queue to run the query on when the memory-based queue is enabled,
+  // empty for the first queue in drill.exec.queue.memory.queues.
+  public static final String QUEUE_NAME_KEY = "exec.queue.name";
+  public static final StringValidator QUEUE_NAME = new StringValidator(QUEUE_NAME_KEY);
+
+  // Priority of the query for the fragment scheduler, a query with priority 10 gets twice as much
+  // run time as a query with the default priority 5 when both compete for the run slots.
+  public static final String QUERY_PRIORITY_KEY = "exec.query.priority";
+  public static final LongValidator QUERY_PRIORITY = new RangeLongValidator(QUERY_PRIORITY_KEY, 1, 10);
+
   public static final String ENABLE_VERBOSE_ERRORS_KEY = "exec.errors.verbose";
   public static final OptionValidator ENABLE_VERBOSE_ERRORS = new BooleanValidator(ENABLE_VERBOSE_ERRORS_KEY);
 
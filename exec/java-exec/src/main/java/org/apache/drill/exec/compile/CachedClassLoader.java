@@ -19,6 +19,7 @@ package org.apache.drill.exec.compile;
 
 import java.net.URL;
 import java.net.URLClassLoader;
+import java.util.Collections;
 import java.util.Map;
 import java.util.concurrent.ConcurrentMap;
 
@@ -43,6 +44,13 @@ public class CachedClassLoader extends URLClassLoader {
 
   private ConcurrentMap<String, Class<?>> cache = Maps.newConcurrentMap();
 
+  /**
+   * Byte codes of the generated classes, kept so that they can be saved
+   * to the {@link PersistentCodeCache}.
+   */
+
+  private ConcurrentMap<String, byte[]> classBytes = Maps.newConcurrentMap();
+
   public CachedClassLoader() {
     super(new URL[0], Thread.currentThread().getContextClassLoader());
   }
@@ -50,6 +58,7 @@ public class CachedClassLoader extends URLClassLoader {
   public void addClass(String fqcn, byte[] byteCodes) {
     Class<?> newClass = defineClass(fqcn, byteCodes, 0, byteCodes.length);
     cache.put(fqcn, newClass);
+    classBytes.put(fqcn, byteCodes);
   }
 
   @Override
@@ -61,6 +70,13 @@ public class CachedClassLoader extends URLClassLoader {
     return super.findClass(className);
   }
 
+  /**
+   * @return the byte codes of the classes added so far, keyed by (dotted) class name
+   */
+  public Map<String, byte[]> getByteCode() {
+    return Collections.unmodifiableMap(classBytes);
+  }
+
   public void addClasses(Map<String, byte[]> results) {
     for (Map.Entry<String, byte[]> result : results.entrySet()) {
       addClass(result.getKey(), result.getValue());
@@ -123,10 +123,17 @@ public class CodeCompiler {
   private final CodeGenCompiler codeGenCompiler;
   private final boolean useCache;
 
+  /**
+   * Second level (on disk) cache, or null if disabled.
+   */
+
+  private final PersistentCodeCache persistentCache;
+
   // Metrics
 
   private int classGenCount;
   private int cacheMissCount;
+  private int persistentCacheHitCount;
 
   /**
    * Google Guava loading cache that defers creating a cache
@@ -145,6 +152,7 @@ public class CodeCompiler {
     cache = CacheBuilder.newBuilder()
         .maximumSize(config.getInt(MAX_LOADING_CACHE_SIZE_CONFIG))
         .build(new Loader());
+    persistentCache = useCache ? PersistentCodeCache.create(config) : null;
     preferPlainJava = config.getBoolean(PREFER_POJ_CONFIG);
     logger.info(String.format("Plain java code generation preferred: %b", preferPlainJava));
   }
@@ -215,7 +223,8 @@ public class CodeCompiler {
 
   /**
    * Called when the requested class does not exist in the cache and should
-   * be compiled using the preferred code generation technique.
+   * be compiled using the preferred code generation technique. The persistent
+   * cache, if enabled, is checked first, and updated after compiling.
    *
    * @param cg the code generator for the class
    * @return a cache entry for the class. The entry holds the class and the
@@ -226,6 +235,16 @@ public class CodeCompiler {
 
   private GeneratedClassEntry makeClass(final CodeGenerator<?> cg) throws Exception {
     cacheMissCount++;
+    if (persistentCache != null) {
+      Class<?> clazz = persistentCache.get(cg);
+      if (clazz != null) {
+        persistentCacheHitCount++;
+        return new GeneratedClassEntry(clazz);
+      }
+      clazz = codeGenCompiler.compile(cg);
+      persistentCache.put(cg, clazz);
+      return new GeneratedClassEntry(clazz);
+    }
     return new GeneratedClassEntry(codeGenCompiler.compile(cg));
   }
 
@@ -261,7 +280,7 @@ public class CodeCompiler {
     if (classGenCount > 0) {
       hitRate = (int) Math.round((classGenCount - cacheMissCount) * 100.0 / classGenCount);
     }
-    logger.info(String.format("Stats: code gen count: %d, cache miss count: %d, hit rate: %d%%",
-                classGenCount, cacheMissCount, hitRate));
+    logger.info(String.format("Stats: code gen count: %d, cache miss count: %d, hit rate: %d%%, persistent cache hit count: %d",
+                classGenCount, cacheMissCount, hitRate, persistentCacheHitCount));
   }
 }
@@ -0,0 +1,289 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.drill.exec.compile;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Map;
+import java.util.UUID;
+
+import org.apache.drill.common.config.DrillConfig;
+import org.apache.drill.common.util.DrillVersionInfo;
+import org.apache.drill.exec.expr.CodeGenerator;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FSDataInputStream;
+import org.apache.hadoop.fs.FSDataOutputStream;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+
+import com.google.common.collect.Maps;
+import com.google.common.io.BaseEncoding;
+
+/**
+ * Second level cache of generated classes, kept in a directory (of the local
+ * file system or of a DFS) so that it survives Drillbit restarts and can be
+ * shared by all the Drillbits of a cluster. Consulted by the {@link CodeCompiler}
+ * when a class is not in its in-memory cache, before compiling the class.
+ * <p>
+ * Each entry is a file holding the final byte codes (after compilation and,
+ * for the byte-code manipulation mechanism, merging with the template) of a
+ * generated class and of its inner classes. The file name is a hash of the
+ * (generified) generated source, the code generation mechanism, the template's
+ * byte codes and the Drill version, so that entries created by a different
+ * Drill build are never used.
+ * <p>
+ * Entries are written to a temporary file, then renamed, so that concurrent
+ * readers (possibly on other Drillbits) never see a partial entry. Any failure
+ * to read or write an entry is logged and ignored: the class is just compiled.
+ * Entries are never removed by Drill; the directory can be deleted at any time
+ * while no Drillbit uses it.
+ */
+
+public class PersistentCodeCache {
+  private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(PersistentCodeCache.class);
+
+  public static final String PERSISTENT_CACHE_BASE = CodeCompiler.COMPILE_BASE + ".persistent_cache";
+
+  /**
+   * Enables the persistent cache of generated classes.
+   */
+
+  public static final String ENABLED_CONFIG = PERSISTENT_CACHE_BASE + ".enabled";
+
+  /**
+   * File system holding the cache (e.g. "file:///" or "hdfs://namenode:8020/").
+   */
+
+  public static final String FS_CONFIG = PERSISTENT_CACHE_BASE + ".fs";
+
+  /**
+   * Directory holding the cache.
+   */
+
+  public static final String DIRECTORY_CONFIG = PERSISTENT_CACHE_BASE + ".directory";
+
+  private static final String FILE_SUFFIX = ".class";
+
+  // Identifies the format of the cache files (changed whenever the format changes)
+  private static final int MAGIC = 0xDC0DE001;
+
+  private final FileSystem fs;
+  private final Path dir;
+  private final ByteCodeLoader byteCodeLoader = new ByteCodeLoader();
+
+  public PersistentCodeCache(FileSystem fs, Path dir) {
+    this.fs = fs;
+    this.dir = dir;
+  }
+
+  /**
+   * Create the persistent cache defined by the Drill config.
+   *
+   * @param config the Drill config
+   * @return the persistent cache, or null if disabled (or if the cache
+   * directory can not be used)
+   */
+
+  public static PersistentCodeCache create(DrillConfig config) {
+    if (! config.getBoolean(ENABLED_CONFIG)) {
+      return null;
+    }
+    final Path dir = new Path(config.getString(DIRECTORY_CONFIG));
+    try {
+      final Configuration conf = new Configuration();
+      conf.set(FileSystem.FS_DEFAULT_NAME_KEY, config.getString(FS_CONFIG));
+      final FileSystem fs = FileSystem.get(conf);
+      fs.mkdirs(dir);
+      logger.info("Persistent code cache: {}", fs.makeQualified(dir));
+      return new PersistentCodeCache(fs, dir);
+    } catch (IOException e) {
+      logger.warn("Unable to use the persistent code cache directory {}; the cache is disabled", dir, e);
+      return null;
+    }
+  }
+
+  /**
+   * Look up the class generated by the given code generator.
+   *
+   * @param cg the code generator (that has generated its code)
+   * @return the class, loaded into a new class loader; or null if not in the cache
+   */
+
+  public Class<?> get(CodeGenerator<?> cg) {
+    final Path path;
+    try {
+      path = getPath(cg);
+    } catch (Exception e) {
+      logger.warn("Unable to compute the persistent code cache key of {}", cg.getClassName(), e);
+      return null;
+    }
+    final String className;
+    final Map<String, byte[]> classes = Maps.newHashMap();
+    try (FSDataInputStream in = fs.open(path)) {
+      className = read(in, classes);
+    } catch (FileNotFoundException e) {
+      return null;
+    } catch (IOException e) {
+      logger.warn("Unable to read the persistent code cache entry {}", path, e);
+      return null;
+    }
+    try {
+      final Class<?> clazz = new PersistedClassLoader(classes).loadClass(className);
+      if (cg.getDefinition().getExternalInterface().isAssignableFrom(clazz)) {
+        logger.trace("Class {} found in persistent code cache as {}", cg.getClassName(), className);
+        return clazz;
+      }
+      logger.warn("Persistent code cache entry {} does not implement {}", path,
+          cg.getDefinition().getExternalInterface().getName());
+    } catch (ClassNotFoundException | LinkageError e) {
+      logger.warn("Unable to load the persistent code cache entry {}", path, e);
+    }
+    return null;
+  }
+
+  /**
+   * Save a class compiled by the {@link CodeCompiler}. Classes not loaded by
+   * one of the code compiler class loaders are ignored.
+   *
+   * @param cg the code generator of the class
+   * @param clazz the compiled class
+   */
+
+  public void put(CodeGenerator<?> cg, Class<?> clazz) {
+    final Map<String, byte[]> classes;
+    final ClassLoader classLoader = clazz.getClassLoader();
+    if (classLoader instanceof QueryClassLoader) {
+      classes = ((QueryClassLoader) classLoader).getInjectedByteCode();
+    } else if (classLoader instanceof CachedClassLoader) {
+      classes = ((CachedClassLoader) classLoader).getByteCode();
+    } else {
+      return;
+    }
+    Path tmpPath = null;
+    try {
+      final Path path = getPath(cg);
+      if (fs.exists(path)) {
+        return;
+      }
+      tmpPath = new Path(dir, UUID.randomUUID() + ".tmp");
+      try (FSDataOutputStream out = fs.create(tmpPath, false)) {
+        write(out, clazz.getName(), classes);
+      }
+      if (! fs.rename(tmpPath, path)) {
+        // most likely already saved by another Drillbit
+        fs.delete(tmpPath, false);
+      }
+      logger.trace("Class {} saved to persistent code cache", cg.getClassName());
+    } catch (Exception e) {
+      logger.warn("Unable to save class {} to the persistent code cache", cg.getClassName(), e);
+      if (tmpPath != null) {
+        try {
+          fs.delete(tmpPath, false);
+        } catch (IOException e1) {
+          // ignore
+        }
+      }
+    }
+  }
+
+  private Path getPath(CodeGenerator<?> cg) throws Exception {
+    final MessageDigest digest = getDigest();
+    update(digest, DrillVersionInfo.getVersion());
+    update(digest, System.getProperty("java.specification.version"));
+    update(digest, cg.isPlainJava() ? "plain" : "merged");
+    final ClassTransformer.ClassNames template = new ClassTransformer.ClassNames(cg.getDefinition().getTemplateClassName());
+    digest.update(byteCodeLoader.getClassByteCodeFromPath(template.clazz));
+    update(digest, cg.getGenerifiedCode());
+    return new Path(dir, BaseEncoding.base16().lowerCase().encode(digest.digest()) + FILE_SUFFIX);
+  }
+
+  private static MessageDigest getDigest() {
+    try {
+      return MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      // every Java platform supports SHA-256
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private static void update(MessageDigest digest, String value) {
+    final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+    digest.update((byte) (bytes.length >>> 24));
+    digest.update((byte) (bytes.length >>> 16));
+    digest.update((byte) (bytes.length >>> 8));
+    digest.update((byte) bytes.length);
+    digest.update(bytes);
+  }
+
+  private static void write(DataOutputStream out, String className, Map<String, byte[]> classes) throws IOException {
+    out.writeInt(MAGIC);
+    out.writeUTF(className);
+    out.writeInt(classes.size());
+    for (Map.Entry<String, byte[]> entry : classes.entrySet()) {
+      out.writeUTF(entry.getKey());
+      out.writeInt(entry.getValue().length);
+      out.write(entry.getValue());
+    }
+  }
+
+  private static String read(DataInputStream in, Map<String, byte[]> classes) throws IOException {
+    if (in.readInt() != MAGIC) {
+      throw new IOException("Not a persistent code cache entry");
+    }
+    final String className = in.readUTF();
+    final int count = in.readInt();
+    for (int i = 0; i < count; i++) {
+      final String name = in.readUTF();
+      final byte[] bytes = new byte[in.readInt()];
+      in.readFully(bytes);
+      classes.put(name, bytes);
+    }
+    return className;
+  }
+
+  /**
+   * Class loader for the classes read from the cache. As with the
+   * {@link QueryClassLoader}, classes are defined when first needed, so that
+   * a class is always defined after the classes it depends on.
+   */
+
+  private static class PersistedClassLoader extends URLClassLoader {
+    private final Map<String, byte[]> classes;
+
+    public PersistedClassLoader(Map<String, byte[]> classes) {
+      super(new URL[0], Thread.currentThread().getContextClassLoader());
+      this.classes = classes;
+    }
+
+    @Override
+    protected Class<?> findClass(String className) throws ClassNotFoundException {
+      final byte[] bytes = classes.get(className);
+      if (bytes != null) {
+        return defineClass(className, bytes, 0, bytes.length);
+      }
+      return super.findClass(className);
+    }
+  }
+}
@@ -206,6 +206,14 @@ public class CodeGenerator<T> {
     return generatedCode;
   }
 
+  /**
+   * @return the generated code, with the generated class name replaced by a
+   * generic one (identical code generated for different classes is identical)
+   */
+  public String getGenerifiedCode() {
+    return generifiedCode;
+  }
+
   public TemplateClassDefinition<T> getDefinition() {
     return definition;
   }
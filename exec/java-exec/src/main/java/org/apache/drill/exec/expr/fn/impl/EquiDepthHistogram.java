@@ -0,0 +1,96 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.drill.exec.expr.fn.impl;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Builds an equi-depth histogram of a numeric column: the boundaries of buckets holding
+ * (about) the same number of values each.
+ * <p>
+ * The boundaries are the quantiles of a uniform sample of the values (reservoir sampling, of a
+ * fixed size), except for the first and last boundaries which are the exact minimum and maximum.
+ * The histogram is rendered as a JSON array of the {@code numBuckets + 1} boundaries, so it can be
+ * returned by an aggregate function and stored as a VARCHAR.
+ * <p>
+ * Used by the statistics aggregate functions (see {@link StatisticsAggrFunctions}).
+ */
+public class EquiDepthHistogram {
+  public static final int DEFAULT_NUM_BUCKETS = 10;
+
+  public static final int DEFAULT_SAMPLE_SIZE = 10_000;
+
+  private final double[] sample;
+  // fixed seed, so the statistics of a given table are reproducible
+  private final Random random = new Random(0);
+  private long count;
+  private double min = Double.POSITIVE_INFINITY;
+  private double max = Double.NEGATIVE_INFINITY;
+
+  public EquiDepthHistogram() {
+    this(DEFAULT_SAMPLE_SIZE);
+  }
+
+  public EquiDepthHistogram(int sampleSize) {
+    sample = new double[sampleSize];
+  }
+
+  public void offer(double value) {
+    if (Double.isNaN(value)) {
+      return;
+    }
+    min = Math.min(min, value);
+    max = Math.max(max, value);
+    if (count < sample.length) {
+      sample[(int) count] = value;
+    } else {
+      final long index = (long) (random.nextDouble() * (count + 1));
+      if (index < sample.length) {
+        sample[(int) index] = value;
+      }
+    }
+    count++;
+  }
+
+  /**
+   * @return the number of (non NaN) values offered
+   */
+  public long getCount() {
+    return count;
+  }
+
+  /**
+   * @param numBuckets the number of buckets
+   * @return the bucket boundaries as a JSON array, or null if no value was offered
+   */
+  public String toJson(int numBuckets) {
+    if (count == 0) {
+      return null;
+    }
+    final int sampleSize = (int) Math.min(count, sample.length);
+    final double[] sorted = Arrays.copyOf(sample, sampleSize);
+    Arrays.sort(sorted);
+
+    final StringBuilder json = new StringBuilder("[").append(min);
+    for (int i = 1; i < numBuckets; i++) {
+      json.append(',').append(sorted[(int) ((long) i * (sampleSize - 1) / numBuckets)]);
+    }
+    return json.append(',').append(max).append(']').toString();
+  }
+}
@@ -0,0 +1,97 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.drill.exec.expr.fn.impl;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * HyperLogLog sketch, estimating the number of distinct values (NDV) of a column in fixed memory.
+ * <p>
+ * The sketch is fed with 64 bit hash values of the column values (see {@link XXHash}): The top
+ * {@code precision} bits of the hash value select one of {@code 2^precision} registers, and each register
+ * keeps the longest run of leading zeros (+ 1) seen in the remaining bits. The estimate is the normalized
+ * harmonic mean of the registers, corrected with linear counting for small cardinalities. The relative
+ * standard error is about {@code 1.04 / sqrt(2^precision)}, i.e. under 1% for the default precision.
+ * <p>
+ * Used by the statistics aggregate functions (see {@link StatisticsAggrFunctions}).
+ */
+public class HyperLogLog {
+  public static final int DEFAULT_PRECISION = 14;
+
+  private final int precision;
+  private final byte[] registers;
+
+  public HyperLogLog() {
+    this(DEFAULT_PRECISION);
+  }
+
+  /**
+   * @param precision the number of hash bits used to select a register (4 to 18)
+   */
+  public HyperLogLog(int precision) {
+    Preconditions.checkArgument(precision >= 4 && precision <= 18, "Illegal HyperLogLog precision: %s", precision);
+    this.precision = precision;
+    registers = new byte[1 << precision];
+  }
+
+  public void offer(long hash64) {
+    final int index = (int) (hash64 >>> (Long.SIZE - precision));
+    // the remaining bits, with a sentinel bit so the rank is bounded
+    final long rest = (hash64 << precision) | (1L << (precision - 1));
+    final byte rank = (byte) (Long.numberOfLeadingZeros(rest) + 1);
+    if (rank > registers[index]) {
+      registers[index] = rank;
+    }
+  }
+
+  /**
+   * Merge another sketch (of the same precision) into this one; the result estimates
+   * the number of distinct values offered to either of the two sketches.
+   *
+   * @param other the other sketch
+   */
+  public void merge(HyperLogLog other) {
+    Preconditions.checkArgument(precision == other.precision,
+        "Can not merge HyperLogLog sketches of different precisions: %s and %s", precision, other.precision);
+    for (int i = 0; i < registers.length; i++) {
+      registers[i] = (byte) Math.max(registers[i], other.registers[i]);
+    }
+  }
+
+  /**
+   * @return the estimated number of distinct values
+   */
+  public long cardinality() {
+    final int m = registers.length;
+    double sum = 0;
+    int zeros = 0;
+    for (byte register : registers) {
+      sum += Math.scalb(1.0, -register);
+      if (register == 0) {
+        zeros++;
+      }
+    }
+    final double alpha = 0.7213 / (1 + 1.079 / m);
+    double estimate = alpha * m * m / sum;
+    if (estimate <= 2.5 * m && zeros > 0) {
+      // small range correction
+      estimate = m * Math.log((double) m / zeros);
+    }
+    return Math.round(estimate);
+  }
+}
@@ -0,0 +1,342 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.drill.exec.expr.fn.impl;
+
+import io.netty.buffer.DrillBuf;
+
+import javax.inject.Inject;
+
+import org.apache.drill.exec.expr.DrillAggFunc;
+import org.apache.drill.exec.expr.annotations.FunctionTemplate;
+import org.apache.drill.exec.expr.annotations.Output;
+import org.apache.drill.exec.expr.annotations.Param;
+import org.apache.drill.exec.expr.annotations.Workspace;
+import org.apache.drill.exec.expr.holders.BigIntHolder;
+import org.apache.drill.exec.expr.holders.NullableBigIntHolder;
+import org.apache.drill.exec.expr.holders.NullableDateHolder;
+import org.apache.drill.exec.expr.holders.NullableFloat4Holder;
+import org.apache.drill.exec.expr.holders.NullableFloat8Holder;
+import org.apache.drill.exec.expr.holders.NullableIntHolder;
+import org.apache.drill.exec.expr.holders.NullableTimeStampHolder;
+import org.apache.drill.exec.expr.holders.NullableVarBinaryHolder;
+import org.apache.drill.exec.expr.holders.NullableVarCharHolder;
+import org.apache.drill.exec.expr.holders.ObjectHolder;
+
+/**
+ * Aggregate functions computing the column statistics collected by ANALYZE TABLE:
+ * <ul>
+ *   <li>{@code hll_ndv(column)} - the (estimated) number of distinct non null values, using a {@link HyperLogLog} sketch</li>
+ *   <li>{@code equi_depth_histogram(column)} - the boundaries of an {@link EquiDepthHistogram}, as a JSON array
+ *   (numeric columns)</li>
+ * </ul>
+ */
+@SuppressWarnings("unused")
+public class StatisticsAggrFunctions {
+  static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(StatisticsAggrFunctions.class);
+
+  @FunctionTemplate(name = "hll_ndv", scope = FunctionTemplate.FunctionScope.POINT_AGGREGATE)
+  public static class VarCharNdv implements DrillAggFunc {
+
+    @Param NullableVarCharHolder in;
+    @Workspace ObjectHolder hll;
+    @Output BigIntHolder out;
+
+    public void setup() {
+      hll = new ObjectHolder();
+      hll.obj = new org.apache.drill.exec.expr.fn.impl.HyperLogLog();
+    }
+
+    @Override
+    public void add() {
+      if (in.isSet == 1) {
+        ((org.apache.drill.exec.expr.fn.impl.HyperLogLog) hll.obj).offer(
+            org.apache.drill.exec.expr.fn.impl.XXHash.hash64(in.start, in.end, in.buffer, 0));
+      }
+    }
+
+    @Override
+    public void output() {
+      out.value = ((org.apache.drill.exec.expr.fn.impl.HyperLogLog) hll.obj).cardinality();
+    }
+
+    @Override
+    public void reset() {
+      hll.obj = new org.apache.drill.exec.expr.fn.impl.HyperLogLog();
+    }
+  }
+
+  @FunctionTemplate(name = "hll_ndv", scope = FunctionTemplate.FunctionScope.POINT_AGGREGATE)
+  public static class VarBinaryNdv implements DrillAggFunc {
+
+    @Param NullableVarBinaryHolder in;
+    @Workspace ObjectHolder hll;
+    @Output BigIntHolder out;
+
+    public void setup() {
+      hll = new ObjectHolder();
+      hll.obj = new org.apache.drill.exec.expr.fn.impl.HyperLogLog();
+    }
+
+    @Override
+    public void add() {
+      if (in.isSet == 1) {
+        ((org.apache.drill.exec.expr.fn.impl.HyperLogLog) hll.obj).offer(
+            org.apache.drill.exec.expr.fn.impl.XXHash.hash64(in.start, in.end, in.buffer, 0));
+      }
+    }
+
+    @Override
+    public void output() {
+      out.value = ((org.apache.drill.exec.expr.fn.impl.HyperLogLog) hll.obj).cardinality();
+    }
+
+    @Override
+    public void reset() {
+      hll.obj = new org.apache.drill.exec.expr.fn.impl.HyperLogLog();
+    }
+  }
+
+  @FunctionTemplate(name = "hll_ndv", scope = FunctionTemplate.FunctionScope.POINT_AGGREGATE)
+  public static class IntNdv implements DrillAggFunc {
+
+    @Param NullableIntHolder in;
+    @Workspace ObjectHolder hll;
+    @Output BigIntHolder out;
+
+    public void setup() {
+      hll = new ObjectHolder();
+      hll.obj = new org.apache.drill.exec.expr.fn.impl.HyperLogLog();
+    }
+
+    @Override
+    public void add() {
+      if (in.isSet == 1) {
+        ((org.apache.drill.exec.expr.fn.impl.HyperLogLog) hll.obj).offer(
+            org.apache.drill.exec.expr.fn.impl.XXHash.hash64Internal(in.value, 0));
+      }
+    }
+
+    @Override
+    public void output() {
+      out.value = ((org.apache.drill.exec.expr.fn.impl.HyperLogLog) hll.obj).cardinality();
+    }
+
+    @Override
+    public void reset() {
+      hll.obj = new org.apache.drill.exec.expr.fn.impl.HyperLogLog();
+    }
+  }
+
+  @FunctionTemplate(name = "hll_ndv", scope = FunctionTemplate.FunctionScope.POINT_AGGREGATE)
+  public static class BigIntNdv implements DrillAggFunc {
+
+    @Param NullableBigIntHolder in;
+    @Workspace ObjectHolder hll;
+    @Output BigIntHolder out;
+
+    public void setup() {
+      hll = new ObjectHolder();
+      hll.obj = new org.apache.drill.exec.expr.fn.impl.HyperLogLog();
+    }
+
+    @Override
+    public void add() {
+      if (in.isSet == 1) {
+        ((org.apache.drill.exec.expr.fn.impl.HyperLogLog) hll.obj).offer(
+            org.apache.drill.exec.expr.fn.impl.XXHash.hash64Internal(in.value, 0));
+      }
+    }
+
+    @Override
+    public void output() {
+      out.value = ((org.apache.drill.exec.expr.fn.impl.HyperLogLog) hll.obj).cardinality();
+    }
+
+    @Override
+    public void reset() {
+      hll.obj = new org.apache.drill.exec.expr.fn.impl.HyperLogLog();
+    }
+  }
+
+  @FunctionTemplate(name = "hll_ndv", scope = FunctionTemplate.FunctionScope.POINT_AGGREGATE)
+  public static class Float4Ndv implements DrillAggFunc {
+
+    @Param NullableFloat4Holder in;
+    @Workspace ObjectHolder hll;
+    @Output BigIntHolder out;
+
+    public void setup() {
+      hll = new ObjectHolder();
+      hll.obj = new org.apache.drill.exec.expr.fn.impl.HyperLogLog();
+    }
+
+    @Override
+    public void add() {
+      if (in.isSet == 1) {
+        ((org.apache.drill.exec.expr.fn.impl.HyperLogLog) hll.obj).offer(
+            org.apache.drill.exec.expr.fn.impl.XXHash.hash64((double) in.value, 0));
+      }
+    }
+
+    @Override
+    public void output() {
+      out.value = ((org.apache.drill.exec.expr.fn.impl.HyperLogLog) hll.obj).cardinality();
+    }
+
+    @Override
+    public void reset() {
+      hll.obj = new org.apache.drill.exec.expr.fn.impl.HyperLogLog();
+    }
+  }
+
+  @FunctionTemplate(name = "hll_ndv", scope = FunctionTemplate.FunctionScope.POINT_AGGREGATE)
+  public static class Float8Ndv implements DrillAggFunc {
+
+    @Param NullableFloat8Holder in;
+    @Workspace ObjectHolder hll;
+    @Output BigIntHolder out;
+
+    public void setup() {
+      hll = new ObjectHolder();
+      hll.obj = new org.apache.drill.exec.expr.fn.impl.HyperLogLog();
+    }
+
+    @Override
+    public void add() {
+      if (in.isSet == 1) {
+        ((org.apache.drill.exec.expr.fn.impl.HyperLogLog) hll.obj).offer(
+            org.apache.drill.exec.expr.fn.impl.XXHash.hash64(in.value, 0));
+      }
+    }
+
+    @Override
+    public void output() {
+      out.value = ((org.apache.drill.exec.expr.fn.impl.HyperLogLog) hll.obj).cardinality();
+    }
+
+    @Override
+    public void reset() {
+      hll.obj = new org.apache.drill.exec.expr.fn.impl.HyperLogLog();
+    }
+  }
+
+  @FunctionTemplate(name = "hll_ndv", scope = FunctionTemplate.FunctionScope.POINT_AGGREGATE)
+  public static class DateNdv implements DrillAggFunc {
+
+    @Param NullableDateHolder in;
+    @Workspace ObjectHolder hll;
+    @Output BigIntHolder out;
+
+    public void setup() {
+      hll = new ObjectHolder();
+      hll.obj = new org.apache.drill.exec.expr.fn.impl.HyperLogLog();
+    }
+
+    @Override
+    public void add() {
+      if (in.isSet == 1) {
+        ((org.apache.drill.exec.expr.fn.impl.HyperLogLog) hll.obj).offer(
+            org.apache.drill.exec.expr.fn.impl.XXHash.hash64Internal(in.value, 0));
+      }
+    }
+
+    @Override
+    public void output() {
+      out.value = ((org.apache.drill.exec.expr.fn.impl.HyperLogLog) hll.obj).cardinality();
+    }
+
+    @Override
+    public void reset() {
+      hll.obj = new org.apache.drill.exec.expr.fn.impl.HyperLogLog();
+    }
+  }
+
+  @FunctionTemplate(name = "hll_ndv", scope = FunctionTemplate.FunctionScope.POINT_AGGREGATE)
+  public static class TimeStampNdv implements DrillAggFunc {
+
+    @Param NullableTimeStampHolder in;
+    @Workspace ObjectHolder hll;
+    @Output BigIntHolder out;
+
+    public void setup() {
+      hll = new ObjectHolder();
+      hll.obj = new org.apache.drill.exec.expr.fn.impl.HyperLogLog();
+    }
+
+    @Override
+    public void add() {
+      if (in.isSet == 1) {
+        ((org.apache.drill.exec.expr.fn.impl.HyperLogLog) hll.obj).offer(
+            org.apache.drill.exec.expr.fn.impl.XXHash.hash64Internal(in.value, 0));
+      }
+    }
+
+    @Override
+    public void output() {
+      out.value = ((org.apache.drill.exec.expr.fn.impl.HyperLogLog) hll.obj).cardinality();
+    }
+
+    @Override
+    public void reset() {
+      hll.obj = new org.apache.drill.exec.expr.fn.impl.HyperLogLog();
+    }
+  }
+
+  @FunctionTemplate(name = "equi_depth_histogram", scope = FunctionTemplate.FunctionScope.POINT_AGGREGATE)
+  public static class Float8EquiDepthHistogram implements DrillAggFunc {
+
+    @Param NullableFloat8Holder in;
+    @Workspace ObjectHolder histogram;
+    @Inject DrillBuf buf;
+    @Output NullableVarCharHolder out;
+
+    public void setup() {
+      histogram = new ObjectHolder();
+      histogram.obj = new org.apache.drill.exec.expr.fn.impl.EquiDepthHistogram();
+    }
+
+    @Override
+    public void add() {
+      if (in.isSet == 1) {
+        ((org.apache.drill.exec.expr.fn.impl.EquiDepthHistogram) histogram.obj).offer(in.value);
+      }
+    }
+
+    @Override
+    public void output() {
+      String json = ((org.apache.drill.exec.expr.fn.impl.EquiDepthHistogram) histogram.obj).toJson(
+          org.apache.drill.exec.expr.fn.impl.EquiDepthHistogram.DEFAULT_NUM_BUCKETS);
+      if (json == null) {
+        out.isSet = 0;
+      } else {
+        byte[] bytes = json.getBytes(java.nio.charset.StandardCharsets.UTF_8);
+        buf = buf.reallocIfNeeded(bytes.length);
+        buf.setBytes(0, bytes);
+        out.isSet = 1;
+        out.start = 0;
+        out.end = bytes.length;
+        out.buffer = buf;
+      }
+    }
+
+    @Override
+    public void reset() {
+      histogram.obj = new org.apache.drill.exec.expr.fn.impl.EquiDepthHistogram();
+    }
+  }
+}
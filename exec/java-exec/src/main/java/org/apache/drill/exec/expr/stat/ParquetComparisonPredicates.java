@@ -99,6 +99,12 @@ public class ParquetComparisonPredicates {
         return true;
       }
 
+      // binary values can only be compared for equality
+      if (ParquetPredicatesHelper.hasBinaryStats(leftStat, rightStat) &&
+          !(ParquetPredicatesHelper.isSingleValue(leftStat) && ParquetPredicatesHelper.isSingleValue(rightStat))) {
+        return false;
+      }
+
       // can drop when left's max < right's min, or right's max < left's min
       if ( ( leftStat.genericGetMax().compareTo(rightStat.genericGetMin()) < 0
             || rightStat.genericGetMax().compareTo(leftStat.genericGetMin()) < 0)) {
@@ -140,6 +146,11 @@ public class ParquetComparisonPredicates {
         return true;
       }
 
+      // binary values can only be compared for equality
+      if (ParquetPredicatesHelper.hasBinaryStats(leftStat, rightStat)) {
+        return false;
+      }
+
       // can drop when left's max <= right's min.
       if ( leftStat.genericGetMax().compareTo(rightStat.genericGetMin()) <= 0 ) {
         return true;
@@ -175,6 +186,11 @@ public class ParquetComparisonPredicates {
         return true;
       }
 
+      // binary values can only be compared for equality
+      if (ParquetPredicatesHelper.hasBinaryStats(leftStat, rightStat)) {
+        return false;
+      }
+
       // can drop when left's max < right's min.
       if ( leftStat.genericGetMax().compareTo(rightStat.genericGetMin()) < 0 ) {
         return true;
@@ -210,6 +226,11 @@ public class ParquetComparisonPredicates {
         return true;
       }
 
+      // binary values can only be compared for equality
+      if (ParquetPredicatesHelper.hasBinaryStats(leftStat, rightStat)) {
+        return false;
+      }
+
       // can drop when right's max <= left's min.
       if ( rightStat.genericGetMax().compareTo(leftStat.genericGetMin()) <= 0 ) {
         return true;
@@ -245,6 +266,11 @@ public class ParquetComparisonPredicates {
         return true;
       }
 
+      // binary values can only be compared for equality
+      if (ParquetPredicatesHelper.hasBinaryStats(leftStat, rightStat)) {
+        return false;
+      }
+
       // can drop when right's max < left's min.
       if ( rightStat.genericGetMax().compareTo(leftStat.genericGetMin()) < 0 ) {
         return true;
@@ -280,6 +306,12 @@ public class ParquetComparisonPredicates {
         return true;
       }
 
+      // binary values can only be compared for equality
+      if (ParquetPredicatesHelper.hasBinaryStats(leftStat, rightStat) &&
+          !(ParquetPredicatesHelper.isSingleValue(leftStat) && ParquetPredicatesHelper.isSingleValue(rightStat))) {
+        return false;
+      }
+
       // can drop when there is only one unique value.
       if ( leftStat.genericGetMin().compareTo(leftStat.genericGetMax()) == 0 &&
            rightStat.genericGetMin().compareTo(rightStat.genericGetMax()) ==0 &&
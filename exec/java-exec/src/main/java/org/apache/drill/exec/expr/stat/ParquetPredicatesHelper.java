@@ -17,6 +17,7 @@
  */
 package org.apache.drill.exec.expr.stat;
 
+import org.apache.parquet.column.statistics.BinaryStatistics;
 import org.apache.parquet.column.statistics.Statistics;
 
 /**
@@ -56,4 +57,26 @@ public class ParquetPredicatesHelper {
     return stat.getNumNulls() > 0;
   }
 
+  /**
+   * Checks whether either side of a comparison has binary (string) statistics. The order of
+   * binary values in the parquet statistics is not guaranteed to match the order Drill uses
+   * for strings, and the metadata has no min/max for binary columns, so binary statistics are
+   * only used to decide the equality of single values.
+   *
+   * @param leftStat statistics of the left side
+   * @param rightStat statistics of the right side
+   * @return True if either side has binary statistics
+   */
+  public static boolean hasBinaryStats(Statistics leftStat, Statistics rightStat) {
+    return leftStat instanceof BinaryStatistics || rightStat instanceof BinaryStatistics;
+  }
+
+  /**
+   * @param stat statistics object
+   * @return True if all the non null values are the same (single) value
+   */
+  public static boolean isSingleValue(Statistics stat) {
+    return stat.hasNonNullValue() && stat.genericGetMin().equals(stat.genericGetMax());
+  }
+
 }
@@ -39,6 +39,7 @@ import org.apache.drill.exec.expr.holders.TimeStampHolder;
 import org.apache.drill.exec.expr.holders.ValueHolder;
 import org.apache.drill.exec.store.parquet.stat.ColumnStatistics;
 import org.apache.drill.exec.vector.ValueHolderHelper;
+import org.apache.parquet.column.statistics.BinaryStatistics;
 import org.apache.parquet.column.statistics.BooleanStatistics;
 import org.apache.parquet.column.statistics.DoubleStatistics;
 import org.apache.parquet.column.statistics.FloatStatistics;
@@ -48,6 +49,7 @@ import org.apache.parquet.column.statistics.Statistics;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
@@ -58,10 +60,17 @@ public class RangeExprEvaluator extends AbstractExprVisitor<Statistics, Void, Ru
 
   private final Map<SchemaPath, ColumnStatistics> columnStatMap;
   private final long rowCount;
+  // string constants are only compared with the (single value) statistics of dictionary values
+  private final boolean stringConstants;
 
   public RangeExprEvaluator(final Map<SchemaPath, ColumnStatistics> columnStatMap, long rowCount) {
+    this(columnStatMap, rowCount, false);
+  }
+
+  public RangeExprEvaluator(final Map<SchemaPath, ColumnStatistics> columnStatMap, long rowCount, boolean stringConstants) {
     this.columnStatMap = columnStatMap;
     this.rowCount = rowCount;
+    this.stringConstants = stringConstants;
   }
 
   public long getRowCount() {
@@ -131,6 +140,17 @@ public class RangeExprEvaluator extends AbstractExprVisitor<Statistics, Void, Ru
     return getStatistics(milliSeconds);
   }
 
+  @Override
+  public Statistics visitQuotedStringConstant(ValueExpressions.QuotedString expr, Void value) throws RuntimeException {
+    if (!stringConstants) {
+      return null;
+    }
+    final BinaryStatistics binaryStatistics = new BinaryStatistics();
+    final byte[] bytes = expr.getString().getBytes(StandardCharsets.UTF_8);
+    binaryStatistics.setMinMaxFromBytes(bytes, bytes);
+    return binaryStatistics;
+  }
+
   @Override
   public Statistics visitFunctionHolderExpression(FunctionHolderExpression holderExpr, Void value) throws RuntimeException {
     FuncHolder funcHolder = holderExpr.getHolder();
@@ -0,0 +1,514 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.drill.exec.expr.stat;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.drill.common.expression.FunctionHolderExpression;
+import org.apache.drill.common.expression.LogicalExpression;
+import org.apache.drill.common.expression.SchemaPath;
+import org.apache.drill.common.expression.TypedFieldExpr;
+import org.apache.drill.common.expression.ValueExpressions;
+import org.apache.drill.common.types.TypeProtos.MinorType;
+import org.apache.drill.exec.vector.BaseDataValueVector;
+import org.apache.drill.exec.vector.NullableVector;
+import org.apache.drill.exec.vector.ValueVector;
+
+/**
+ * Evaluates a {@link ParquetFilterPredicate} row by row against value vectors holding a batch of
+ * the columns it refers to, so that a reader can find out whether any row of the batch may satisfy
+ * the predicate before it reads the other columns.
+ * <p>
+ * Like {@link ParquetFilterPredicate#canDrop(RangeExprEvaluator)}, the evaluation is conservative:
+ * a row is dropped only when the predicate is known to be false or null for it. Comparisons between
+ * numeric, date, time or timestamp columns and constants, widening casts of those columns and
+ * IS [NOT] NULL are evaluated. Other conjuncts are left out, and an OR with such a branch is left
+ * out as a whole.
+ */
+public class RowFilterEvaluator {
+
+  private final RowPredicate predicate;
+  private final Set<SchemaPath> columns = new HashSet<>();
+
+  private RowFilterEvaluator(RowPredicate predicate) {
+    this.predicate = predicate;
+    predicate.addColumns(columns);
+  }
+
+  /**
+   * @param predicate the predicate to evaluate
+   * @param vectors the vectors of the columns available for the evaluation
+   * @return an evaluator of the parts of the predicate that can be evaluated against the given
+   * vectors, or null if there are none
+   */
+  public static RowFilterEvaluator create(ParquetFilterPredicate predicate, Map<SchemaPath, ValueVector> vectors) {
+    RowPredicate rowPredicate = new Builder(vectors).predicate((LogicalExpression) predicate);
+    return rowPredicate == null ? null : new RowFilterEvaluator(rowPredicate);
+  }
+
+  /**
+   * @return the columns whose vectors the evaluation reads
+   */
+  public Set<SchemaPath> getColumns() {
+    return columns;
+  }
+
+  /**
+   * @param rowCount the number of rows in the vectors
+   * @return true if none of the rows may satisfy the predicate
+   */
+  public boolean canDrop(int rowCount) {
+    for (int row = 0; row < rowCount; row++) {
+      if (!predicate.canDrop(row)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private interface RowPredicate {
+    boolean canDrop(int row);
+
+    void addColumns(Set<SchemaPath> columns);
+  }
+
+  private static class AndPredicate implements RowPredicate {
+    private final RowPredicate[] children;
+
+    AndPredicate(List<RowPredicate> children) {
+      this.children = children.toArray(new RowPredicate[children.size()]);
+    }
+
+    @Override
+    public boolean canDrop(int row) {
+      for (RowPredicate child : children) {
+        if (child.canDrop(row)) {
+          return true;
+        }
+      }
+      return false;
+    }
+
+    @Override
+    public void addColumns(Set<SchemaPath> columns) {
+      for (RowPredicate child : children) {
+        child.addColumns(columns);
+      }
+    }
+  }
+
+  private static class OrPredicate implements RowPredicate {
+    private final RowPredicate[] children;
+
+    OrPredicate(List<RowPredicate> children) {
+      this.children = children.toArray(new RowPredicate[children.size()]);
+    }
+
+    @Override
+    public boolean canDrop(int row) {
+      for (RowPredicate child : children) {
+        if (!child.canDrop(row)) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    @Override
+    public void addColumns(Set<SchemaPath> columns) {
+      for (RowPredicate child : children) {
+        child.addColumns(columns);
+      }
+    }
+  }
+
+  private static class IsNullPredicate implements RowPredicate {
+    private final Operand operand;
+    private final boolean isNull;
+
+    IsNullPredicate(Operand operand, boolean isNull) {
+      this.operand = operand;
+      this.isNull = isNull;
+    }
+
+    @Override
+    public boolean canDrop(int row) {
+      return operand.isNull(row) != isNull;
+    }
+
+    @Override
+    public void addColumns(Set<SchemaPath> columns) {
+      operand.addColumns(columns);
+    }
+  }
+
+  private enum Comparison {
+    EQ, NE, LT, LE, GT, GE;
+
+    boolean holds(int compare) {
+      switch (this) {
+      case EQ:
+        return compare == 0;
+      case NE:
+        return compare != 0;
+      case LT:
+        return compare < 0;
+      case LE:
+        return compare <= 0;
+      case GT:
+        return compare > 0;
+      default:
+        return compare >= 0;
+      }
+    }
+  }
+
+  private static class ComparisonPredicate implements RowPredicate {
+    private final Comparison comparison;
+    private final Operand left;
+    private final Operand right;
+    private final boolean floatingPoint;
+
+    ComparisonPredicate(Comparison comparison, Operand left, Operand right) {
+      this.comparison = comparison;
+      this.left = left;
+      this.right = right;
+      this.floatingPoint = left.isFloatingPoint() || right.isFloatingPoint();
+    }
+
+    @Override
+    public boolean canDrop(int row) {
+      if (left.isNull(row) || right.isNull(row)) {
+        // the comparison is null, which a filter treats as false
+        return true;
+      }
+      int compare;
+      if (floatingPoint) {
+        double l = left.getDouble(row);
+        double r = right.getDouble(row);
+        if (Double.isNaN(l) || Double.isNaN(r)) {
+          // leave the ordering of NaN to the filter itself
+          return false;
+        }
+        compare = l < r ? -1 : (l > r ? 1 : 0);
+      } else {
+        compare = Long.compare(left.getLong(row), right.getLong(row));
+      }
+      return !comparison.holds(compare);
+    }
+
+    @Override
+    public void addColumns(Set<SchemaPath> columns) {
+      left.addColumns(columns);
+      right.addColumns(columns);
+    }
+  }
+
+  /**
+   * A value of one of the types listed in {@link Builder#isNumeric(MinorType)} and
+   * {@link Builder#isTemporal(MinorType)}. Temporal values, as well as integers, are
+   * read through {@link #getLong(int)}.
+   */
+  private abstract static class Operand {
+    final MinorType type;
+
+    Operand(MinorType type) {
+      this.type = type;
+    }
+
+    boolean isFloatingPoint() {
+      return type == MinorType.FLOAT4 || type == MinorType.FLOAT8;
+    }
+
+    abstract boolean isNull(int row);
+
+    abstract long getLong(int row);
+
+    abstract double getDouble(int row);
+
+    void addColumns(Set<SchemaPath> columns) {
+    }
+  }
+
+  private static class ConstantOperand extends Operand {
+    private final long longValue;
+    private final double doubleValue;
+
+    ConstantOperand(MinorType type, long value) {
+      super(type);
+      this.longValue = value;
+      this.doubleValue = value;
+    }
+
+    ConstantOperand(MinorType type, double value) {
+      super(type);
+      this.longValue = (long) value;
+      this.doubleValue = value;
+    }
+
+    @Override
+    boolean isNull(int row) {
+      return false;
+    }
+
+    @Override
+    long getLong(int row) {
+      return longValue;
+    }
+
+    @Override
+    double getDouble(int row) {
+      return doubleValue;
+    }
+  }
+
+  /**
+   * Reads the values straight from the data buffer of the (values) vector, which the reader
+   * may replace from one batch to the next.
+   */
+  private static class ColumnOperand extends Operand {
+    private final SchemaPath path;
+    private final ValueVector vector;
+    private final BaseDataValueVector values;
+
+    ColumnOperand(SchemaPath path, MinorType type, ValueVector vector) {
+      super(type);
+      this.path = path;
+      this.vector = vector;
+      this.values = (BaseDataValueVector) (vector instanceof NullableVector
+          ? ((NullableVector) vector).getValuesVector() : vector);
+    }
+
+    @Override
+    boolean isNull(int row) {
+      return vector.getAccessor().isNull(row);
+    }
+
+    @Override
+    long getLong(int row) {
+      switch (type) {
+      case INT:
+      case TIME:
+        return values.getBuffer().getInt(row * 4);
+      default:
+        return values.getBuffer().getLong(row * 8);
+      }
+    }
+
+    @Override
+    double getDouble(int row) {
+      switch (type) {
+      case FLOAT4:
+        return values.getBuffer().getFloat(row * 4);
+      case FLOAT8:
+        return values.getBuffer().getDouble(row * 8);
+      default:
+        return getLong(row);
+      }
+    }
+
+    @Override
+    void addColumns(Set<SchemaPath> columns) {
+      columns.add(path);
+    }
+  }
+
+  /**
+   * A cast that does not change the outcome of comparisons of the value it converts.
+   */
+  private static class WideningCastOperand extends Operand {
+    private final Operand input;
+
+    WideningCastOperand(MinorType type, Operand input) {
+      super(type);
+      this.input = input;
+    }
+
+    @Override
+    boolean isNull(int row) {
+      return input.isNull(row);
+    }
+
+    @Override
+    long getLong(int row) {
+      return input.getLong(row);
+    }
+
+    @Override
+    double getDouble(int row) {
+      double value = input.getDouble(row);
+      return type == MinorType.FLOAT4 ? (float) value : value;
+    }
+
+    @Override
+    void addColumns(Set<SchemaPath> columns) {
+      input.addColumns(columns);
+    }
+  }
+
+  private static class Builder {
+    private final Map<SchemaPath, ValueVector> vectors;
+
+    Builder(Map<SchemaPath, ValueVector> vectors) {
+      this.vectors = vectors;
+    }
+
+    RowPredicate predicate(LogicalExpression expr) {
+      if (expr instanceof ParquetBooleanPredicates.AndPredicate) {
+        List<RowPredicate> children = new ArrayList<>();
+        for (LogicalExpression child : (ParquetBooleanPredicates.AndPredicate) expr) {
+          RowPredicate predicate = predicate(child);
+          if (predicate != null) {
+            children.add(predicate);
+          }
+        }
+        if (children.isEmpty()) {
+          return null;
+        }
+        return children.size() == 1 ? children.get(0) : new AndPredicate(children);
+      } else if (expr instanceof ParquetBooleanPredicates.OrPredicate) {
+        List<RowPredicate> children = new ArrayList<>();
+        for (LogicalExpression child : (ParquetBooleanPredicates.OrPredicate) expr) {
+          RowPredicate predicate = predicate(child);
+          if (predicate == null) {
+            return null;
+          }
+          children.add(predicate);
+        }
+        return new OrPredicate(children);
+      } else if (expr instanceof ParquetComparisonPredicates.ParquetCompPredicate) {
+        return comparison((ParquetComparisonPredicates.ParquetCompPredicate) expr);
+      } else if (expr instanceof ParquetIsPredicates.IsNullPredicate) {
+        Operand operand = operand(((ParquetIsPredicates.IsNullPredicate) expr).expr);
+        return operand == null ? null : new IsNullPredicate(operand, true);
+      } else if (expr instanceof ParquetIsPredicates.IsNotNullPredicate) {
+        Operand operand = operand(((ParquetIsPredicates.IsNotNullPredicate) expr).expr);
+        return operand == null ? null : new IsNullPredicate(operand, false);
+      }
+      return null;
+    }
+
+    private RowPredicate comparison(ParquetComparisonPredicates.ParquetCompPredicate expr) {
+      Comparison comparison;
+      if (expr instanceof ParquetComparisonPredicates.EqualPredicate) {
+        comparison = Comparison.EQ;
+      } else if (expr instanceof ParquetComparisonPredicates.NEPredicate) {
+        comparison = Comparison.NE;
+      } else if (expr instanceof ParquetComparisonPredicates.LTPredicate) {
+        comparison = Comparison.LT;
+      } else if (expr instanceof ParquetComparisonPredicates.LEPredicate) {
+        comparison = Comparison.LE;
+      } else if (expr instanceof ParquetComparisonPredicates.GTPredicate) {
+        comparison = Comparison.GT;
+      } else if (expr instanceof ParquetComparisonPredicates.GEPredicate) {
+        comparison = Comparison.GE;
+      } else {
+        return null;
+      }
+      Operand left = operand(expr.left);
+      Operand right = operand(expr.right);
+      if (left == null || right == null) {
+        return null;
+      }
+      boolean comparable = isNumeric(left.type) ? isNumeric(right.type) : left.type == right.type;
+      return comparable ? new ComparisonPredicate(comparison, left, right) : null;
+    }
+
+    private Operand operand(LogicalExpression expr) {
+      if (expr instanceof TypedFieldExpr) {
+        SchemaPath path = ((TypedFieldExpr) expr).getPath();
+        ValueVector vector = vectors.get(path);
+        if (vector == null) {
+          return null;
+        }
+        MinorType type = vector.getField().getType().getMinorType();
+        return isNumeric(type) || isTemporal(type) ? new ColumnOperand(path, type, vector) : null;
+      } else if (expr instanceof ValueExpressions.IntExpression) {
+        return new ConstantOperand(MinorType.INT, ((ValueExpressions.IntExpression) expr).getInt());
+      } else if (expr instanceof ValueExpressions.LongExpression) {
+        return new ConstantOperand(MinorType.BIGINT, ((ValueExpressions.LongExpression) expr).getLong());
+      } else if (expr instanceof ValueExpressions.FloatExpression) {
+        return new ConstantOperand(MinorType.FLOAT4, ((ValueExpressions.FloatExpression) expr).getFloat());
+      } else if (expr instanceof ValueExpressions.DoubleExpression) {
+        return new ConstantOperand(MinorType.FLOAT8, ((ValueExpressions.DoubleExpression) expr).getDouble());
+      } else if (expr instanceof ValueExpressions.DateExpression) {
+        return new ConstantOperand(MinorType.DATE, ((ValueExpressions.DateExpression) expr).getDate());
+      } else if (expr instanceof ValueExpressions.TimeExpression) {
+        return new ConstantOperand(MinorType.TIME, ((ValueExpressions.TimeExpression) expr).getTime());
+      } else if (expr instanceof ValueExpressions.TimeStampExpression) {
+        return new ConstantOperand(MinorType.TIMESTAMP, ((ValueExpressions.TimeStampExpression) expr).getTimeStamp());
+      } else if (expr instanceof FunctionHolderExpression) {
+        FunctionHolderExpression function = (FunctionHolderExpression) expr;
+        if (function.args.size() != 1) {
+          return null;
+        }
+        MinorType type = function.getMajorType().getMinorType();
+        Operand input = operand(function.args.get(0));
+        if (input == null || !function.getName().equalsIgnoreCase("cast" + type.name()) || !isWidening(input.type, type)) {
+          return null;
+        }
+        return new WideningCastOperand(type, input);
+      }
+      return null;
+    }
+
+    private static boolean isWidening(MinorType from, MinorType to) {
+      switch (to) {
+      case INT:
+        return from == MinorType.INT;
+      case BIGINT:
+        return from == MinorType.INT || from == MinorType.BIGINT;
+      case FLOAT4:
+        return from == MinorType.INT || from == MinorType.BIGINT || from == MinorType.FLOAT4;
+      case FLOAT8:
+        return isNumeric(from);
+      case TIMESTAMP:
+        return from == MinorType.DATE || from == MinorType.TIMESTAMP;
+      default:
+        return from == to && isTemporal(from);
+      }
+    }
+
+    private static boolean isNumeric(MinorType type) {
+      switch (type) {
+      case INT:
+      case BIGINT:
+      case FLOAT4:
+      case FLOAT8:
+        return true;
+      default:
+        return false;
+      }
+    }
+
+    private static boolean isTemporal(MinorType type) {
+      switch (type) {
+      case DATE:
+      case TIME:
+      case TIMESTAMP:
+        return true;
+      default:
+        return false;
+      }
+    }
+  }
+}
@@ -32,16 +32,54 @@ public class AccountingDataTunnel {
   private final DataTunnel tunnel;
   private final SendingAccountor sendingAccountor;
   private final RpcOutcomeListener<Ack> statusHandler;
+  private final FragmentContext.ExecutorState executorState;
 
-  public AccountingDataTunnel(DataTunnel tunnel, SendingAccountor sendingAccountor, RpcOutcomeListener<Ack> statusHandler) {
+  public AccountingDataTunnel(DataTunnel tunnel, SendingAccountor sendingAccountor,
+      RpcOutcomeListener<Ack> statusHandler, FragmentContext.ExecutorState executorState) {
     this.tunnel = tunnel;
     this.sendingAccountor = sendingAccountor;
     this.statusHandler = statusHandler;
+    this.executorState = executorState;
   }
 
   public void sendRecordBatch(FragmentWritableBatch batch) {
     sendingAccountor.increment();
-    tunnel.sendRecordBatch(statusHandler, batch);
+    boolean blocking = false;
+    for (int receivingMinorFragmentId : batch.getHeader().getReceivingMinorFragmentIdList()) {
+      blocking |= !tunnel.hasCredit(receivingMinorFragmentId);
+    }
+    if (!blocking) {
+      tunnel.sendRecordBatch(statusHandler, batch);
+      return;
+    }
+    // sending waits for the acks of the receivers, let other fragments run meanwhile
+    executorState.beginBlocking();
+    try {
+      tunnel.sendRecordBatch(statusHandler, batch);
+    } finally {
+      executorState.endBlocking();
+    }
+  }
+
+  /**
+   * See {@link DataTunnel#hasCredit(int)}.
+   */
+  public boolean hasCredit(int receivingMinorFragmentId) {
+    return tunnel.hasCredit(receivingMinorFragmentId);
+  }
+
+  /**
+   * See {@link DataTunnel#grantsCredit(int)}.
+   */
+  public boolean grantsCredit(int receivingMinorFragmentId) {
+    return tunnel.grantsCredit(receivingMinorFragmentId);
+  }
+
+  /**
+   * See {@link DataTunnel#isCompressionSupported()}.
+   */
+  public boolean isCompressionSupported() {
+    return tunnel.isCompressionSupported();
   }
 
   /**
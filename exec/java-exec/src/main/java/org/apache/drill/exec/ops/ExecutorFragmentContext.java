@@ -26,6 +26,7 @@ import org.apache.drill.exec.rpc.control.WorkEventBus;
 import org.apache.drill.exec.rpc.user.UserServer;
 import org.apache.drill.exec.server.QueryProfileStoreContext;
 import org.apache.drill.exec.work.batch.IncomingBuffers;
+import org.apache.drill.exec.work.filter.RuntimeFilterSink;
 
 import java.util.Collection;
 import java.util.Map;
@@ -63,4 +64,9 @@ public interface ExecutorFragmentContext extends RootFragmentContext {
   Set<Map.Entry<UserServer.BitToUserConnection, UserServer.BitToUserConnectionConfig>> getUserConnections();
 
   boolean isUserAuthenticationEnabled();
+
+  /**
+   * @return the runtime filters received by this fragment
+   */
+  RuntimeFilterSink getRuntimeFilterSink();
 }
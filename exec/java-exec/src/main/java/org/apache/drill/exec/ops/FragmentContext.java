@@ -183,5 +183,20 @@ public interface FragmentContext extends UdfUtilities, AutoCloseable {
     @VisibleForTesting
     @Deprecated
     Throwable getFailureCause();
+
+    /**
+     * Informs the executor that the fragment is going to block waiting for incoming batches or for the downstream
+     * receivers, so the executor may run other fragments meanwhile. Must be followed by {@link #endBlocking()}.
+     * May be called from any thread working for the fragment, the calls of several threads nest.
+     */
+    default void beginBlocking() {
+    }
+
+    /**
+     * Informs the executor that the fragment continues after {@link #beginBlocking()}.
+     * May wait until the executor lets the fragment run.
+     */
+    default void endBlocking() {
+    }
   }
 }
@@ -60,6 +60,7 @@ import org.apache.drill.exec.store.SchemaConfig;
 import org.apache.drill.exec.testing.ExecutionControls;
 import org.apache.drill.exec.util.ImpersonationUtil;
 import org.apache.drill.exec.work.batch.IncomingBuffers;
+import org.apache.drill.exec.work.filter.RuntimeFilterSink;
 
 import com.google.common.base.Function;
 import com.google.common.base.Preconditions;
@@ -111,6 +112,7 @@ public class FragmentContextImpl extends BaseFragmentContext implements Executor
   private IncomingBuffers buffers;
   private final OptionManager fragmentOptions;
   private final BufferManager bufferManager;
+  private final RuntimeFilterSink runtimeFilterSink;
   private ExecutorState executorState;
   private final ExecutionControls executionControls;
 
@@ -204,6 +206,7 @@ public class FragmentContextImpl extends BaseFragmentContext implements Executor
 
     stats = new FragmentStats(allocator, fragment.getAssignment());
     bufferManager = new BufferManagerImpl(this.allocator);
+    runtimeFilterSink = new RuntimeFilterSink(this.allocator);
     constantValueHolderCache = Maps.newHashMap();
   }
 
@@ -392,7 +395,8 @@ public class FragmentContextImpl extends BaseFragmentContext implements Executor
   public AccountingDataTunnel getDataTunnel(final DrillbitEndpoint endpoint) {
     AccountingDataTunnel tunnel = tunnels.get(endpoint);
     if (tunnel == null) {
-      tunnel = new AccountingDataTunnel(context.getDataConnectionsPool().getTunnel(endpoint), sendingAccountor, statusHandler);
+      tunnel = new AccountingDataTunnel(context.getDataConnectionsPool().getTunnel(endpoint), sendingAccountor,
+          statusHandler, executorState);
       tunnels.put(endpoint, tunnel);
     }
     return tunnel;
@@ -454,6 +458,7 @@ public class FragmentContextImpl extends BaseFragmentContext implements Executor
       suppressingClose(opContext);
     }
 
+    suppressingClose(runtimeFilterSink);
     suppressingClose(bufferManager);
     suppressingClose(buffers);
     suppressingClose(allocator);
@@ -505,6 +510,11 @@ public class FragmentContextImpl extends BaseFragmentContext implements Executor
     return context.getWorkBus();
   }
 
+  @Override
+  public RuntimeFilterSink getRuntimeFilterSink() {
+    return runtimeFilterSink;
+  }
+
   public boolean isBuffersDone() {
     Preconditions.checkState(this.buffers != null, "Incoming Buffers is not set in this fragment context");
     return buffers.isDone();
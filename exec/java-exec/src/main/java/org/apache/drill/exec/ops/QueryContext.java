@@ -33,6 +33,7 @@ import org.apache.drill.exec.expr.holders.ValueHolder;
 import org.apache.drill.exec.memory.BufferAllocator;
 import org.apache.drill.exec.planner.physical.PlannerSettings;
 import org.apache.drill.exec.planner.sql.DrillOperatorTable;
+import org.apache.drill.exec.planner.sql.QueryPlanCache;
 import org.apache.drill.exec.proto.BitControl.QueryContextInformation;
 import org.apache.drill.exec.proto.CoordinationProtos.DrillbitEndpoint;
 import org.apache.drill.exec.proto.UserBitShared.QueryId;
@@ -83,6 +84,10 @@ public class QueryContext implements AutoCloseable, OptimizerRulesContext, Schem
    */
   private boolean closed = false;
   private DrillOperatorTable table;
+  /** Run by the Foreman once the query has completed successfully */
+  private final List<AutoCloseable> completionActions = Lists.newArrayList();
+  /** Run by the Foreman once the query has ended, whether it succeeded, failed or was cancelled */
+  private final List<AutoCloseable> cleanupActions = Lists.newArrayList();
 
   public QueryContext(final UserSession session, final DrillbitContext drillbitContext, QueryId queryId) {
     this.drillbitContext = drillbitContext;
@@ -209,6 +214,10 @@ public class QueryContext implements AutoCloseable, OptimizerRulesContext, Schem
     return drillbitContext.getLpPersistence();
   }
 
+  public QueryPlanCache getPlanCache() {
+    return drillbitContext.getPlanCache();
+  }
+
   public Collection<DrillbitEndpoint> getActiveEndpoints() {
     return drillbitContext.getBits();
   }
@@ -299,6 +308,36 @@ public class QueryContext implements AutoCloseable, OptimizerRulesContext, Schem
     return valueHolder;
   }
 
+  /**
+   * Adds an action the Foreman runs once the query has completed successfully, before the
+   * result is sent to the client, e.g. to move the output of the query in place. The query
+   * fails if the action throws.
+   *
+   * @param action action run by {@link AutoCloseable#close()}
+   */
+  public void addCompletionAction(AutoCloseable action) {
+    completionActions.add(action);
+  }
+
+  public List<AutoCloseable> getCompletionActions() {
+    return completionActions;
+  }
+
+  /**
+   * Adds an action the Foreman runs once the query has ended, after the completion actions,
+   * whatever the outcome of the query, e.g. to remove what a failed query left behind.
+   * Failures of the action are logged and do not change the outcome of the query.
+   *
+   * @param action action run by {@link AutoCloseable#close()}
+   */
+  public void addCleanupAction(AutoCloseable action) {
+    cleanupActions.add(action);
+  }
+
+  public List<AutoCloseable> getCleanupActions() {
+    return cleanupActions;
+  }
+
   @Override
   public void close() throws Exception {
     try {
@@ -18,6 +18,7 @@
 package org.apache.drill.exec.physical.config;
 
 import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.annotation.JsonTypeName;
 import com.google.common.base.Preconditions;
@@ -34,18 +35,33 @@ import java.util.List;
 public class HashJoinPOP extends AbstractJoinPop {
     static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(HashJoinPOP.class);
 
+    // Id of the runtime filter this join builds for the probe side scans (see RuntimeFilterPOP); 0 if none
+    private final int runtimeFilterId;
+
+    public HashJoinPOP(PhysicalOperator left, PhysicalOperator right, List<JoinCondition> conditions,
+                       JoinRelType joinType) {
+        this(left, right, conditions, joinType, 0);
+    }
+
     @JsonCreator
     public HashJoinPOP(@JsonProperty("left") PhysicalOperator left, @JsonProperty("right") PhysicalOperator right,
                        @JsonProperty("conditions") List<JoinCondition> conditions,
-                       @JsonProperty("joinType") JoinRelType joinType) {
+                       @JsonProperty("joinType") JoinRelType joinType,
+                       @JsonProperty("runtimeFilterId") int runtimeFilterId) {
         super(left, right, joinType, null, conditions);
         Preconditions.checkArgument(joinType != null, "Join type is missing for HashJoin Pop");
+        this.runtimeFilterId = runtimeFilterId;
     }
 
     @Override
     public PhysicalOperator getNewWithChildren(List<PhysicalOperator> children) {
         Preconditions.checkArgument(children.size() == 2);
-        return new HashJoinPOP(children.get(0), children.get(1), conditions, joinType);
+        return new HashJoinPOP(children.get(0), children.get(1), conditions, joinType, runtimeFilterId);
+    }
+
+    @JsonInclude(JsonInclude.Include.NON_DEFAULT)
+    public int getRuntimeFilterId() {
+        return runtimeFilterId;
     }
 
     public HashJoinPOP flipIfRight() {
@@ -64,4 +80,11 @@ public class HashJoinPOP extends AbstractJoinPop {
     public int getOperatorType() {
         return CoreOperatorType.HASH_JOIN_VALUE;
     }
+
+    /**
+     * The Hash Join operator supports spilling
+     * @return true
+     */
+    @Override
+    public boolean isBufferedOperator() { return true; }
 }
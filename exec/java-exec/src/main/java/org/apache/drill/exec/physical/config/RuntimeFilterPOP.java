@@ -0,0 +1,81 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.drill.exec.physical.config;
+
+import java.util.List;
+
+import org.apache.drill.common.expression.SchemaPath;
+import org.apache.drill.exec.physical.base.AbstractSingle;
+import org.apache.drill.exec.physical.base.PhysicalOperator;
+import org.apache.drill.exec.physical.base.PhysicalVisitor;
+import org.apache.drill.exec.proto.UserBitShared.CoreOperatorType;
+import org.apache.drill.exec.record.BatchSchema.SelectionVectorMode;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonTypeName;
+
+/**
+ * Drops the rows of a probe side scan whose join keys are not in the runtime filter built by the
+ * hash join (in another major fragment) with the same filter id; see {@link HashJoinPOP#getRuntimeFilterId()}.
+ */
+@JsonTypeName("runtime-filter")
+public class RuntimeFilterPOP extends AbstractSingle {
+
+  static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(RuntimeFilterPOP.class);
+
+  private final int filterId;
+  // The probe side join keys, in the order of the join conditions
+  private final List<SchemaPath> probeFields;
+
+  @JsonCreator
+  public RuntimeFilterPOP(@JsonProperty("child") PhysicalOperator child, @JsonProperty("filterId") int filterId,
+                          @JsonProperty("probeFields") List<SchemaPath> probeFields) {
+    super(child);
+    this.filterId = filterId;
+    this.probeFields = probeFields;
+  }
+
+  public int getFilterId() {
+    return filterId;
+  }
+
+  public List<SchemaPath> getProbeFields() {
+    return probeFields;
+  }
+
+  @Override
+  public <T, X, E extends Throwable> T accept(PhysicalVisitor<T, X, E> physicalVisitor, X value) throws E {
+    return physicalVisitor.visitOp(this, value);
+  }
+
+  @Override
+  protected PhysicalOperator getNewWithChild(PhysicalOperator child) {
+    return new RuntimeFilterPOP(child, filterId, probeFields);
+  }
+
+  @Override
+  public SelectionVectorMode getSVMode() {
+    return SelectionVectorMode.TWO_BYTE;
+  }
+
+  @Override
+  public int getOperatorType() {
+    return CoreOperatorType.RUNTIME_FILTER_VALUE;
+  }
+}
@@ -124,6 +124,14 @@ public abstract class HashAggTemplate implements HashAggregator {
   private long minBatchesPerPartition; // for tuning - num partitions and spill decision
   private long plannedBatches = 0; // account for planned, but not yet allocated batches
 
+  // 1st phase "pass through": when grouping hardly reduces the number of rows, stop looking up the keys and
+  // make each row its own group (the 2nd phase does the real grouping anyway)
+  private boolean checkPassThrough = false; // still need to decide whether to pass through
+  private long passThroughMinRows; // decide after this many rows
+  private double passThroughRatio; // pass through when #groups >= ratio * #rows
+  private boolean passThrough = false;
+  private long rowsPassedThrough = 0;
+
   private int underlyingIndex = 0;
   private int currentIndex = 0;
   private IterOutcome outcome;
@@ -184,7 +192,11 @@ public abstract class HashAggTemplate implements HashAggregator {
                       // then later re-read. So, disk I/O is twice this amount.
                       // For first phase aggr -- this is an estimate of the amount of data
                       // returned early (analogous to a spill in the 2nd phase).
-    SPILL_CYCLE       // 0 - no spill, 1 - spill, 2 - SECONDARY, 3 - TERTIARY
+    SPILL_CYCLE,      // 0 - no spill, 1 - spill, 2 - SECONDARY, 3 - TERTIARY
+    NUM_LOOKUPS,      // Number of hash table lookups
+    TOTAL_PROBE_LENGTH, // Number of hash table entries visited by all the lookups
+    MAX_PROBE_LENGTH,  // Most hash table entries visited by a single lookup
+    PASS_THROUGH_ROWS // 1st phase: Number of rows passed through without grouping
     ;
 
     // duplicate for hash ag
@@ -326,6 +338,10 @@ public abstract class HashAggTemplate implements HashAggregator {
     is1stPhase = isTwoPhase && ! is2ndPhase ;
     canSpill = isTwoPhase; // single phase can not spill
 
+    checkPassThrough = is1stPhase && context.getOptions().getOption(ExecConstants.HASHAGG_PASS_THROUGH_ENABLED_VALIDATOR);
+    passThroughMinRows = context.getOptions().getOption(ExecConstants.HASHAGG_PASS_THROUGH_MIN_ROWS_VALIDATOR);
+    passThroughRatio = context.getOptions().getOption(ExecConstants.HASHAGG_PASS_THROUGH_RATIO_VALIDATOR);
+
     // Typically for testing - force a spill after a partition has more than so many batches
     minBatchesPerPartition = context.getOptions().getOption(ExecConstants.HASHAGG_MIN_BATCHES_PER_PARTITION_VALIDATOR);
 
@@ -606,6 +622,10 @@ public abstract class HashAggTemplate implements HashAggregator {
         logger.debug("Processed {} records", underlyingIndex);
       }
 
+      if ( checkPassThrough && numGroupedRecords >= passThroughMinRows ) {
+        decidePassThrough();
+      }
+
       // Cleanup the previous batch since we are done processing it.
       for (VectorWrapper<?> v : incoming) {
         v.getValueVector().clear();
@@ -687,6 +707,23 @@ public abstract class HashAggTemplate implements HashAggregator {
     }
   }
 
+  /**
+   *  Decide (once) whether the 1st phase should stop grouping: when almost every row seen so far
+   *  started a new group, the hash table only costs memory (and early returns) without reducing
+   *  the data sent to the 2nd phase.
+   */
+  private void decidePassThrough() {
+    checkPassThrough = false;
+    long numGroups = rowsReturnedEarly;
+    for (int i = 0; i < numPartitions; i++) {
+      numGroups += htables[i].size();
+    }
+    if ( numGroups >= passThroughRatio * numGroupedRecords ) {
+      passThrough = true;
+      logger.debug("1st phase: {} groups out of {} rows; passing the remaining rows through", numGroups, numGroupedRecords);
+    }
+  }
+
   /**
    *   Use reserved values memory (if available) to try and preemp an OOM
    */
@@ -1121,7 +1158,7 @@ public abstract class HashAggTemplate implements HashAggregator {
     rowsInPartition += numPendingOutput ;
     if ( ! handlingSpills ) { rowsNotSpilled += numPendingOutput; }
     else { rowsSpilledReturned += numPendingOutput; }
-    if ( earlyOutput ) { rowsReturnedEarly += numPendingOutput; }
+    if ( earlyOutput && ! passThrough ) { rowsReturnedEarly += numPendingOutput; } // not due to memory pressure
 
     allocateOutgoing(numPendingOutput);
 
@@ -1257,12 +1294,15 @@ public abstract class HashAggTemplate implements HashAggregator {
     */
     // The hash code is computed once, then its lower bits are used to determine the
     // partition to use, and the higher bits determine the location in the hash table.
-    int hashCode;
-    try {
-      // htables[0].updateBatches();
-      hashCode = htables[0].getHashCode(incomingRowIdx);
-    } catch (SchemaChangeException e) {
-      throw new UnsupportedOperationException("Unexpected schema change", e);
+    // (When passing through, there is no lookup; all the rows go to the first partition.)
+    int hashCode = 0;
+    if ( ! passThrough ) {
+      try {
+        // htables[0].updateBatches();
+        hashCode = htables[0].getHashCode(incomingRowIdx);
+      } catch (SchemaChangeException e) {
+        throw new UnsupportedOperationException("Unexpected schema change", e);
+      }
     }
 
     // right shift hash code for secondary (or tertiary...) spilling
@@ -1289,7 +1329,8 @@ public abstract class HashAggTemplate implements HashAggregator {
     // ==========================================
     try {
 
-      putStatus = htables[currentPartition].put(incomingRowIdx, htIdxHolder, hashCode);
+      putStatus = passThrough ? htables[currentPartition].append(incomingRowIdx, htIdxHolder) :
+          htables[currentPartition].put(incomingRowIdx, htIdxHolder, hashCode);
 
     } catch (RetryAfterSpillException re) {
       if ( ! canSpill ) { throw new OutOfMemoryException(getOOMErrorMsg("Can not spill")); }
@@ -1365,6 +1406,16 @@ public abstract class HashAggTemplate implements HashAggregator {
       numGroupedRecords++;
     }
 
+    // When passing through, return the partition as soon as its last batch is full
+    if ( passThrough ) {
+      rowsPassedThrough++;
+      if ( putStatus == HashTable.PutStatus.KEY_ADDED_LAST ) {
+        earlyOutput = true;
+        earlyPartition = currentPartition;
+        return;
+      }
+    }
+
     // ===================================================================================
     // If the last batch just became full, or other "memory growing" events happened, then
     // this is the time to check the memory limits !!
@@ -1485,8 +1536,12 @@ public abstract class HashAggTemplate implements HashAggregator {
     this.stats.setLongStat(Metric.NUM_ENTRIES, htStats.numEntries);
     this.stats.setLongStat(Metric.NUM_RESIZING, htStats.numResizing);
     this.stats.setLongStat(Metric.RESIZING_TIME_MS, htStats.resizingTime);
+    this.stats.setLongStat(Metric.NUM_LOOKUPS, htStats.numLookups);
+    this.stats.setLongStat(Metric.TOTAL_PROBE_LENGTH, htStats.probeLength);
+    this.stats.setLongStat(Metric.MAX_PROBE_LENGTH, htStats.maxProbeLength);
     this.stats.setLongStat(Metric.NUM_PARTITIONS, numPartitions);
     this.stats.setLongStat(Metric.SPILL_CYCLE, cycleNum); // Put 0 in case no spill
+    this.stats.setLongStat(Metric.PASS_THROUGH_ROWS, rowsPassedThrough);
     if ( is2ndPhase ) {
       this.stats.setLongStat(Metric.SPILLED_PARTITIONS, numSpilled);
     }
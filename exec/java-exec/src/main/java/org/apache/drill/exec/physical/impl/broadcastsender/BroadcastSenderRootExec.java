@@ -19,6 +19,7 @@ package org.apache.drill.exec.physical.impl.broadcastsender;
 
 import java.util.List;
 
+import org.apache.drill.exec.ExecConstants;
 import org.apache.drill.exec.exception.OutOfMemoryException;
 import org.apache.drill.exec.ops.AccountingDataTunnel;
 import org.apache.drill.exec.ops.MetricDef;
@@ -31,6 +32,9 @@ import org.apache.drill.exec.proto.ExecProtos;
 import org.apache.drill.exec.record.FragmentWritableBatch;
 import org.apache.drill.exec.record.RecordBatch;
 import org.apache.drill.exec.record.WritableBatch;
+import org.apache.drill.exec.rpc.data.BatchCompressor;
+
+import io.netty.buffer.DrillBuf;
 
 import com.google.common.collect.ArrayListMultimap;
 
@@ -47,10 +51,13 @@ public class BroadcastSenderRootExec extends BaseRootExec {
   private final ExecProtos.FragmentHandle handle;
   private volatile boolean ok;
   private final RecordBatch incoming;
+  private final BatchCompressor compressor;
 
   public enum Metric implements MetricDef {
     N_RECEIVERS,
-    BYTES_SENT;
+    BYTES_SENT,
+    BYTES_BEFORE_COMPRESSION,
+    BYTES_AFTER_COMPRESSION;
     @Override
     public int metricId() {
       return ordinal();
@@ -88,6 +95,21 @@ public class BroadcastSenderRootExec extends BaseRootExec {
       tunnels[i] = context.getDataTunnel(ep);
       i++;
     }
+    compressor = new BatchCompressor(oContext.getAllocator(),
+        BatchCompressor.Mode.fromOption(context.getOptions().getString(ExecConstants.DATA_COMPRESSION_KEY)),
+        stats, Metric.BYTES_BEFORE_COMPRESSION, Metric.BYTES_AFTER_COMPRESSION);
+  }
+
+  /**
+   * @return true if all the receiving Drillbits accept compressed batches (so a batch is compressed only once)
+   */
+  private boolean isCompressionSupported() {
+    for (AccountingDataTunnel tunnel : tunnels) {
+      if (!tunnel.isCompressionSupported()) {
+        return false;
+      }
+    }
+    return true;
   }
 
   @Override
@@ -118,7 +140,16 @@ public class BroadcastSenderRootExec extends BaseRootExec {
       case OK_NEW_SCHEMA:
       case OK:
         WritableBatch writableBatch = incoming.getWritableBatch().transfer(oContext.getAllocator());
-        if (tunnels.length > 1) {
+        DrillBuf compressedBody = null;
+        if (compressor.isEnabled() && isCompressionSupported()) {
+          compressedBody = compressor.compressBody(writableBatch.getBuffers());
+        }
+        if (compressedBody != null) {
+          writableBatch.clear();
+          if (tunnels.length > 1) {
+            compressedBody.retain(tunnels.length - 1);
+          }
+        } else if (tunnels.length > 1) {
           writableBatch.retainBuffers(tunnels.length - 1);
         }
         for (int i = 0; i < tunnels.length; ++i) {
@@ -130,6 +161,9 @@ public class BroadcastSenderRootExec extends BaseRootExec {
               config.getOppositeMajorFragmentId(),
               receivingMinorFragments[i],
               writableBatch);
+          if (compressedBody != null) {
+            batch = batch.withCompressedBody(compressedBody);
+          }
           updateStats(batch);
           stats.startWait();
           try {
@@ -28,6 +28,9 @@ public interface HashTable {
   TemplateClassDefinition<HashTable> TEMPLATE_DEFINITION =
       new TemplateClassDefinition<>(HashTable.class, HashTableTemplate.class);
 
+  TemplateClassDefinition<HashTable> OPEN_ADDRESSING_TEMPLATE_DEFINITION =
+      new TemplateClassDefinition<>(HashTable.class, OpenAddressingHashTableTemplate.class);
+
   /**
    * The maximum capacity of the hash table (in terms of number of buckets).
    */
@@ -51,12 +54,34 @@ public interface HashTable {
 
   void updateBatches() throws SchemaChangeException;
 
+  /**
+   * Point the hash table at new incoming build and probe batches (e.g. a spilled partition
+   * being read back), keeping the entries already inserted.
+   */
+  void updateIncoming(RecordBatch newIncomingBuild, RecordBatch newIncomingProbe) throws SchemaChangeException;
+
   int getHashCode(int incomingRowIdx) throws SchemaChangeException;
 
+  int getProbeHashCode(int incomingRowIdx) throws SchemaChangeException;
+
   PutStatus put(int incomingRowIdx, IndexPointer htIdxHolder, int hashCode) throws SchemaChangeException, RetryAfterSpillException;
 
+  /**
+   * Add the key of the given row as a new entry, without looking for it first. The entry is not indexed
+   * (so {@link #put(int, IndexPointer, int)} and the lookups never find it, and {@link #size()} does not
+   * count it), but it is output by {@link #outputKeys(int, VectorContainer, int, int, int)} like any other.
+   * Used when every row should become its own group (e.g. a first phase aggregation passing its input through).
+   */
+  PutStatus append(int incomingRowIdx, IndexPointer htIdxHolder) throws SchemaChangeException, RetryAfterSpillException;
+
   int containsKey(int incomingRowIdx, boolean isProbe) throws SchemaChangeException;
 
+  /**
+   * Same as {@link #containsKey(int, boolean)} for the probe side, when the caller has already
+   * computed the hash code (by calling {@link #getProbeHashCode(int)}).
+   */
+  int probeForKey(int incomingRowIdx, int hashCode) throws SchemaChangeException;
+
   void getStats(HashTableStats stats);
 
   int size();
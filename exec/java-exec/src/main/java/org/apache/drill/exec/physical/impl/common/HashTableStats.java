@@ -23,6 +23,9 @@ public class HashTableStats {
   public int numEntries;
   public int numResizing;
   public int resizingTime;
+  public long numLookups;     // number of key lookups (including those done by put())
+  public long probeLength;    // total number of entries visited by all the lookups
+  public int maxProbeLength;  // most entries visited by a single lookup
 
   public HashTableStats() {
   }
@@ -32,6 +35,9 @@ public class HashTableStats {
     this.numEntries += newStats.numEntries ;
     this.numResizing += newStats.numResizing ;
     this.resizingTime += newStats.resizingTime ;
+    this.numLookups += newStats.numLookups ;
+    this.probeLength += newStats.probeLength ;
+    this.maxProbeLength = Math.max(this.maxProbeLength, newStats.maxProbeLength);
   }
 }
 
@@ -101,6 +101,13 @@ public abstract class HashTableTemplate implements HashTable {
 
   private int maxVarcharSize = 8; // for varchar allocation
 
+  // Probe length statistics: number of lookups, and chain entries visited by these lookups
+  private long numLookups = 0;
+
+  private long probeLength = 0;
+
+  private int maxProbeLength = 0;
+
   // This class encapsulates the links, keys and values for up to BATCH_SIZE
   // *unique* records. Thus, suppose there are N incoming record batches, each
   // of size BATCH_SIZE..but they have M unique keys altogether, the number of
@@ -506,6 +513,13 @@ public abstract class HashTableTemplate implements HashTable {
     }
   }
 
+  @Override
+  public void updateIncoming(RecordBatch newIncomingBuild, RecordBatch newIncomingProbe) throws SchemaChangeException {
+    incomingBuild = newIncomingBuild;
+    incomingProbe = newIncomingProbe;
+    updateBatches();
+  }
+
   public int numBuckets() {
     return startIndices.getAccessor().getValueCount();
   }
@@ -526,6 +540,9 @@ public abstract class HashTableTemplate implements HashTable {
     stats.numEntries = numEntries;
     stats.numResizing = numResizing;
     stats.resizingTime = resizingTime;
+    stats.numLookups = numLookups;
+    stats.probeLength = probeLength;
+    stats.maxProbeLength = maxProbeLength;
   }
 
   @Override
@@ -576,6 +593,11 @@ public abstract class HashTableTemplate implements HashTable {
     return getHashBuild(incomingRowIdx, 0);
   }
 
+  @Override
+  public int getProbeHashCode(int incomingRowIdx) throws SchemaChangeException {
+    return getHashProbe(incomingRowIdx, 0);
+  }
+
   /** put() uses the hash code (from gethashCode() above) to insert the key(s) from the incoming
    * row into the hash table. The code selects the bucket in the startIndices, then the keys are
    * placed into the chained list - by storing the key values into a batch, and updating its
@@ -596,6 +618,7 @@ public abstract class HashTableTemplate implements HashTable {
     int currentIdx;
     BatchHolder lastEntryBatch = null;
     int lastEntryIdxWithinBatch = EMPTY_SLOT;
+    int chainLength = 0;
 
     // if startIdx is non-empty, follow the hash chain links until we find a matching
     // key or reach the end of the chain (and remember the last link there)
@@ -606,12 +629,15 @@ public abstract class HashTableTemplate implements HashTable {
       // remember the current link, which would be the last when the next link is empty
       lastEntryBatch = batchHolders.get((currentIdxHolder.value >>> 16) & HashTable.BATCH_MASK);
       lastEntryIdxWithinBatch = currentIdxHolder.value & BATCH_MASK;
+      chainLength++;
 
       if (lastEntryBatch.isKeyMatch(incomingRowIdx, currentIdxHolder, false)) {
+        updateProbeStats(chainLength);
         htIdxHolder.value = currentIdxHolder.value;
         return PutStatus.KEY_PRESENT;
       }
     }
+    updateProbeStats(chainLength);
 
     // no match was found, so insert a new entry
     currentIdx = freeIndex++;
@@ -659,23 +685,66 @@ public abstract class HashTableTemplate implements HashTable {
         PutStatus.KEY_ADDED;     // otherwise
   }
 
+  @Override
+  public PutStatus append(int incomingRowIdx, IndexPointer htIdxHolder) throws SchemaChangeException, RetryAfterSpillException {
+    int currentIdx = freeIndex++;
+    boolean addedBatch = false;
+    try {  // ADD A BATCH
+      addedBatch = addBatchIfNeeded(currentIdx);
+    } catch (OutOfMemoryException OOME) {
+      retryAfterOOM( currentIdx < batchHolders.size() * BATCH_SIZE );
+    }
+
+    try { // INSERT ENTRY (not linked into any hash chain)
+      BatchHolder bh = batchHolders.get((currentIdx >>> 16) & BATCH_MASK);
+      bh.insertEntry(incomingRowIdx, currentIdx, 0, null, EMPTY_SLOT);
+    } catch (OutOfMemoryException OOME) { retryAfterOOM( addedBatch ); }
+
+    htIdxHolder.value = currentIdx;
+    return  addedBatch ? PutStatus.NEW_BATCH_ADDED :
+        ( freeIndex + 1 > batchHolders.size() * BATCH_SIZE ) ?
+        PutStatus.KEY_ADDED_LAST : // the last key in the batch
+        PutStatus.KEY_ADDED;     // otherwise
+  }
+
   // Return -1 if key is not found in the hash table. Otherwise, return the global index of the key
   @Override
   public int containsKey(int incomingRowIdx, boolean isProbe) throws SchemaChangeException {
     int seedValue = 0;
     int hash = isProbe ? getHashProbe(incomingRowIdx, seedValue) : getHashBuild(incomingRowIdx, seedValue);
-    int bucketIndex = getBucketIndex(hash, numBuckets());
+    return findKey(incomingRowIdx, hash, isProbe);
+  }
+
+  @Override
+  public int probeForKey(int incomingRowIdx, int hashCode) throws SchemaChangeException {
+    return findKey(incomingRowIdx, hashCode, true);
+  }
+
+  private int findKey(int incomingRowIdx, int hashCode, boolean isProbe) throws SchemaChangeException {
+    int bucketIndex = getBucketIndex(hashCode, numBuckets());
+    int chainLength = 0;
 
     for ( currentIdxHolder.value = startIndices.getAccessor().get(bucketIndex);
           currentIdxHolder.value != EMPTY_SLOT; ) {
       BatchHolder bh = batchHolders.get((currentIdxHolder.value >>> 16) & BATCH_MASK);
+      chainLength++;
       if (bh.isKeyMatch(incomingRowIdx, currentIdxHolder, isProbe)) {
+        updateProbeStats(chainLength);
         return currentIdxHolder.value;
       }
     }
+    updateProbeStats(chainLength);
     return -1;
   }
 
+  private void updateProbeStats(int chainLength) {
+    numLookups++;
+    probeLength += chainLength;
+    if (chainLength > maxProbeLength) {
+      maxProbeLength = chainLength;
+    }
+  }
+
   // Add a new BatchHolder to the list of batch holders if needed. This is based on the supplied
   // currentIdx; since each BatchHolder can hold up to BATCH_SIZE entries, if the currentIdx exceeds
   // the capacity, we will add a new BatchHolder. Return true if a new batch was added.
@@ -0,0 +1,762 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.drill.exec.physical.impl.common;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import javax.inject.Named;
+
+import io.netty.buffer.DrillBuf;
+import org.apache.drill.common.exceptions.RetryAfterSpillException;
+import org.apache.drill.common.expression.LogicalExpression;
+import org.apache.drill.common.expression.SchemaPath;
+import org.apache.drill.common.logical.data.NamedExpression;
+import org.apache.drill.common.types.TypeProtos.DataMode;
+import org.apache.drill.common.types.TypeProtos.MajorType;
+import org.apache.drill.exec.compile.sig.RuntimeOverridden;
+import org.apache.drill.exec.exception.OutOfMemoryException;
+import org.apache.drill.exec.exception.SchemaChangeException;
+import org.apache.drill.exec.expr.TypeHelper;
+import org.apache.drill.exec.memory.BufferAllocator;
+import org.apache.drill.exec.record.RecordBatch;
+import org.apache.drill.exec.record.TransferPair;
+import org.apache.drill.exec.record.TypedFieldId;
+import org.apache.drill.exec.record.VectorContainer;
+import org.apache.drill.exec.record.VectorWrapper;
+import org.apache.drill.exec.vector.BaseDataValueVector;
+import org.apache.drill.exec.vector.FixedWidthVector;
+import org.apache.drill.exec.vector.ValueVector;
+import org.apache.drill.exec.vector.VariableWidthVector;
+
+/**
+ * An open addressing alternative to {@link HashTableTemplate}.
+ * <p>
+ * The keys are still stored in {@link BatchHolder}s (so the global index of an entry, and
+ * {@link #outputKeys(int, VectorContainer, int, int, int)} work exactly as in the chained hash table),
+ * but instead of the "start indices" array plus the per batch "links" and "hash values" vectors,
+ * all the metadata lives in one contiguous buffer of slots. Each slot holds the hash value and the
+ * global index of an entry; collisions are resolved by linear probing, using the "Robin Hood" scheme
+ * (an entry farther from its home slot takes over the slot of an entry closer to its own home), which
+ * keeps the probe sequences short and allows a lookup of an absent key to stop early.
+ * <p>
+ * A lookup compares the hash values in the slots first, and only calls the (generated) key comparison
+ * when these match. When there is a single key of type INT, BIGINT or DATE (not nullable, and of the same
+ * type on the build and the probe sides) the key is stored inline in the slot as well, so no generated
+ * code (and no batch holder) is touched at all by a lookup.
+ */
+public abstract class OpenAddressingHashTableTemplate implements HashTable {
+
+  private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(OpenAddressingHashTableTemplate.class);
+
+  private static final int EMPTY_SLOT = -1;
+
+  // The layout of a slot: the global index of the entry, its hash value, and (optional) the inline key
+  private static final int INDEX_OFFSET = 0;
+  private static final int HASH_OFFSET = 4;
+  private static final int KEY_OFFSET = 8;
+  private static final int SLOT_WIDTH = 8;
+  private static final int SLOT_WIDTH_WITH_KEY = 16;
+
+  // The probe sequences get too long when the table is nearly full
+  private static final float MAX_LOAD_FACTOR = 0.9f;
+
+  // The slots buffer; its capacity (number of slots) is a power of 2
+  private DrillBuf slots;
+
+  private int slotWidth;
+
+  private int capacity;
+
+  // Original capacity of the hash table (needed when re-initializing)
+  private int originalCapacity;
+
+  // The largest capacity, such that the slots buffer does not exceed MAXIMUM_CAPACITY bytes
+  private int maxCapacity;
+
+  private float loadFactor;
+
+  // Threshold after which we rehash; It must be the capacity * loadFactor
+  private int threshold;
+
+  // Array of batch holders..each batch holder can hold up to BATCH_SIZE entries
+  private ArrayList<BatchHolder> batchHolders;
+
+  // Actual number of entries in the hash table
+  private int numEntries = 0;
+
+  // current available (free) slot globally across all batch holders
+  private int freeIndex = 0;
+
+  private BufferAllocator allocator;
+
+  // The incoming build side record batch
+  private RecordBatch incomingBuild;
+
+  // The incoming probe side record batch (may be null)
+  private RecordBatch incomingProbe;
+
+  // The outgoing record batch
+  private RecordBatch outgoing;
+
+  // Hash table configuration parameters
+  private HashTableConfig htConfig;
+
+  // The original container from which others may be cloned
+  private VectorContainer htContainerOrig;
+
+  private int numResizing = 0;
+
+  private int resizingTime = 0;
+
+  private int maxVarcharSize = 8; // for varchar allocation
+
+  // The width (bytes) of the single key stored inline in the slots (4 or 8), or 0 when keys are not inline
+  private int inlineKeyWidth;
+
+  private TypedFieldId inlineBuildKeyId;
+
+  private TypedFieldId inlineProbeKeyId;
+
+  private BaseDataValueVector inlineBuildKey;
+
+  private BaseDataValueVector inlineProbeKey;
+
+  // Probe length statistics: number of lookups, and slots visited by these lookups
+  private long numLookups = 0;
+
+  private long probeLength = 0;
+
+  private int maxProbeLength = 0;
+
+  // This class encapsulates the keys for up to BATCH_SIZE *unique* records. The metadata
+  // (hash values, and the links between entries) is kept in the slots instead.
+  public class BatchHolder {
+
+    // Container of vectors to hold type-specific keys
+    private VectorContainer htContainer;
+
+    private int maxOccupiedIdx = -1;
+
+    private int batchIndex = 0;
+
+    public BatchHolder(int idx) {
+
+      this.batchIndex = idx;
+
+      htContainer = new VectorContainer();
+      boolean success = false;
+      try {
+        for (VectorWrapper<?> w : htContainerOrig) {
+          ValueVector vv = TypeHelper.getNewVector(w.getField(), allocator);
+          htContainer.add(vv); // add to container before actual allocation (to allow clearing in case of an OOM)
+
+          if (vv instanceof FixedWidthVector) {
+            ((FixedWidthVector) vv).allocateNew(BATCH_SIZE);
+          } else if (vv instanceof VariableWidthVector) {
+            ((VariableWidthVector) vv).allocateNew(maxVarcharSize * BATCH_SIZE, BATCH_SIZE);
+          } else {
+            vv.allocateNew();
+          }
+        }
+        success = true;
+      } finally {
+        if (!success) {
+          htContainer.clear();
+        }
+      }
+    }
+
+    protected void setup() throws SchemaChangeException {
+      setupInterior(incomingBuild, incomingProbe, outgoing, htContainer);
+    }
+
+    private boolean isKeyMatch(int incomingRowIdx, int idxWithinBatch, boolean isProbe) throws SchemaChangeException {
+      return isProbe ? isKeyMatchInternalProbe(incomingRowIdx, idxWithinBatch) :
+          isKeyMatchInternalBuild(incomingRowIdx, idxWithinBatch);
+    }
+
+    // Insert a new <key1, key2...keyN> entry coming from the incoming batch into the hash table
+    // container at the specified index
+    private void insertEntry(int incomingRowIdx, int idxWithinBatch) throws SchemaChangeException {
+      setValue(incomingRowIdx, idxWithinBatch);
+      // setValue may OOM when doubling of one of the VarChar Key Value Vectors
+      // This would be caught and retried later (setValue() is idempotent)
+
+      maxOccupiedIdx = Math.max(maxOccupiedIdx, idxWithinBatch);
+    }
+
+    private boolean outputKeys(VectorContainer outContainer, int outStartIndex, int numRecords, int numExpectedRecords) {
+
+      // set the value count for htContainer's value vectors before the transfer ..
+      setValueCount();
+
+      Iterator<VectorWrapper<?>> outgoingIter = outContainer.iterator();
+
+      for (VectorWrapper<?> sourceWrapper : htContainer) {
+        @SuppressWarnings("resource")
+        ValueVector sourceVV = sourceWrapper.getValueVector();
+        @SuppressWarnings("resource")
+        ValueVector targetVV = outgoingIter.next().getValueVector();
+        TransferPair tp = sourceVV.makeTransferPair(targetVV);
+        if ( outStartIndex == 0 && numRecords == numExpectedRecords ) {
+          // The normal case: The whole column key(s) are transfered as is
+          tp.transfer();
+        } else {
+          // Transfer just the required section
+          logger.debug("Performing partial output of keys, from index {}, num {} (out of {})",
+              outStartIndex,numRecords,numExpectedRecords);
+          tp.splitAndTransfer(outStartIndex, numRecords);
+        }
+      }
+      return true;
+    }
+
+    private void setValueCount() {
+      for (VectorWrapper<?> vw : htContainer) {
+        @SuppressWarnings("resource")
+        ValueVector vv = vw.getValueVector();
+        vv.getMutator().setValueCount(maxOccupiedIdx + 1);
+      }
+    }
+
+    private void clear() {
+      htContainer.clear();
+    }
+
+    // These methods will be code-generated
+
+    @RuntimeOverridden
+    protected void setupInterior(
+        @Named("incomingBuild") RecordBatch incomingBuild,
+        @Named("incomingProbe") RecordBatch incomingProbe,
+        @Named("outgoing") RecordBatch outgoing,
+        @Named("htContainer") VectorContainer htContainer) throws SchemaChangeException {
+    }
+
+    @RuntimeOverridden
+    protected boolean isKeyMatchInternalBuild(
+        @Named("incomingRowIdx") int incomingRowIdx, @Named("htRowIdx") int htRowIdx) throws SchemaChangeException {
+      return false;
+    }
+
+    @RuntimeOverridden
+    protected boolean isKeyMatchInternalProbe(
+        @Named("incomingRowIdx") int incomingRowIdx, @Named("htRowIdx") int htRowIdx) throws SchemaChangeException {
+      return false;
+    }
+
+    @RuntimeOverridden
+    protected void setValue(@Named("incomingRowIdx") int incomingRowIdx, @Named("htRowIdx") int htRowIdx) throws SchemaChangeException {
+    }
+
+    @RuntimeOverridden
+    protected void outputRecordKeys(@Named("htRowIdx") int htRowIdx, @Named("outRowIdx") int outRowIdx) throws SchemaChangeException {
+    }
+
+  } // class BatchHolder
+
+
+  @Override
+  public void setup(HashTableConfig htConfig, BufferAllocator allocator, RecordBatch incomingBuild, RecordBatch incomingProbe, RecordBatch outgoing, VectorContainer htContainerOrig) {
+    float loadf = htConfig.getLoadFactor();
+    int initialCap = htConfig.getInitialCapacity();
+
+    if (loadf <= 0 || Float.isNaN(loadf)) {
+      throw new IllegalArgumentException("Load factor must be a valid number greater than 0");
+    }
+    if (initialCap <= 0) {
+      throw new IllegalArgumentException("The initial capacity must be greater than 0");
+    }
+    if (initialCap > MAXIMUM_CAPACITY) {
+      throw new IllegalArgumentException("The initial capacity must be less than maximum capacity allowed");
+    }
+
+    if (htConfig.getKeyExprsBuild() == null || htConfig.getKeyExprsBuild().size() == 0) {
+      throw new IllegalArgumentException("Hash table must have at least 1 key expression");
+    }
+
+    this.htConfig = htConfig;
+    this.allocator = allocator;
+    this.incomingBuild = incomingBuild;
+    this.incomingProbe = incomingProbe;
+    this.outgoing = outgoing;
+    this.htContainerOrig = htContainerOrig;
+
+    setupInlineKey();
+    slotWidth = inlineKeyWidth == 0 ? SLOT_WIDTH : SLOT_WIDTH_WITH_KEY;
+    maxCapacity = MAXIMUM_CAPACITY / slotWidth;
+    loadFactor = Math.min(loadf, MAX_LOAD_FACTOR);
+
+    // round up the initial capacity to nearest highest power of 2
+    capacity = Math.min(roundUpToPowerOf2(initialCap), maxCapacity);
+    originalCapacity = capacity; // retain original size
+
+    threshold = (int) Math.ceil(capacity * loadFactor);
+
+    slots = allocSlots(capacity);
+
+    // First BatchHolder is created when the first put request is received.
+    batchHolders = new ArrayList<BatchHolder>();
+
+    try {
+      doSetup(incomingBuild, incomingProbe);
+      updateInlineKeyVectors();
+    } catch (SchemaChangeException e) {
+      throw new IllegalStateException("Unexpected schema change", e);
+    }
+  }
+
+  /**
+   * Check whether the (single) key can be stored inline in the slots: A plain column reference of a fixed width
+   * type (INT, BIGINT, DATE) that is not nullable, with the same type on the probe side (i.e., no implicit casts).
+   */
+  private void setupInlineKey() {
+    inlineKeyWidth = 0;
+    List<NamedExpression> buildKeys = htConfig.getKeyExprsBuild();
+    List<NamedExpression> probeKeys = htConfig.getKeyExprsProbe();
+    if (buildKeys.size() != 1) {
+      return;
+    }
+    TypedFieldId buildId = getInlineKeyId(incomingBuild, buildKeys.get(0).getExpr());
+    if (buildId == null) {
+      return;
+    }
+    TypedFieldId probeId = null;
+    if (probeKeys != null) {
+      probeId = getInlineKeyId(incomingProbe, probeKeys.get(0).getExpr());
+      if (probeId == null || !probeId.getFinalType().equals(buildId.getFinalType())) {
+        return;
+      }
+    }
+    switch (buildId.getFinalType().getMinorType()) {
+      case INT:
+        inlineKeyWidth = 4;
+        break;
+      case BIGINT:
+      case DATE:
+        inlineKeyWidth = 8;
+        break;
+      default:
+        return;
+    }
+    inlineBuildKeyId = buildId;
+    inlineProbeKeyId = probeId;
+    logger.debug("Hash table keys of type {} are stored inline", buildId.getFinalType().getMinorType());
+  }
+
+  private static TypedFieldId getInlineKeyId(RecordBatch batch, LogicalExpression expr) {
+    if (batch == null || !(expr instanceof SchemaPath) || !((SchemaPath) expr).isLeaf()) {
+      return null;
+    }
+    TypedFieldId id = batch.getValueVectorId((SchemaPath) expr);
+    if (id == null || id.isHyperReader() || id.getFieldIds().length != 1) {
+      return null;
+    }
+    MajorType type = id.getFinalType();
+    return type.getMode() == DataMode.REQUIRED ? id : null;
+  }
+
+  private void updateInlineKeyVectors() {
+    if (inlineKeyWidth == 0) {
+      return;
+    }
+    inlineBuildKey = getInlineKeyVector(incomingBuild, inlineBuildKeyId);
+    inlineProbeKey = inlineProbeKeyId == null ? null : getInlineKeyVector(incomingProbe, inlineProbeKeyId);
+  }
+
+  private static BaseDataValueVector getInlineKeyVector(RecordBatch batch, TypedFieldId id) {
+    return (BaseDataValueVector) batch.getValueAccessorById(id.getIntermediateClass(), id.getFieldIds()).getValueVector();
+  }
+
+  private long getInlineKey(BaseDataValueVector vector, int incomingRowIdx) {
+    DrillBuf data = vector.getBuffer();
+    return inlineKeyWidth == 4 ? data.getInt(incomingRowIdx << 2) : data.getLong(incomingRowIdx << 3);
+  }
+
+  @Override
+  public void updateBatches() throws SchemaChangeException {
+    doSetup(incomingBuild, incomingProbe);
+    for (BatchHolder batchHolder : batchHolders) {
+      batchHolder.setup();
+    }
+    updateInlineKeyVectors();
+  }
+
+  @Override
+  public void updateIncoming(RecordBatch newIncomingBuild, RecordBatch newIncomingProbe) throws SchemaChangeException {
+    incomingBuild = newIncomingBuild;
+    incomingProbe = newIncomingProbe;
+    updateBatches();
+  }
+
+  public int numBuckets() {
+    return capacity;
+  }
+
+  public int numResizing() {
+    return numResizing;
+  }
+
+  @Override
+  public int size() {
+    return numEntries;
+  }
+
+  @Override
+  public void getStats(HashTableStats stats) {
+    assert stats != null;
+    stats.numBuckets = numBuckets();
+    stats.numEntries = numEntries;
+    stats.numResizing = numResizing;
+    stats.resizingTime = resizingTime;
+    stats.numLookups = numLookups;
+    stats.probeLength = probeLength;
+    stats.maxProbeLength = maxProbeLength;
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return numEntries == 0;
+  }
+
+  @Override
+  public void clear() {
+    if (batchHolders != null) {
+      for (BatchHolder bh : batchHolders) {
+        bh.clear();
+      }
+      batchHolders.clear();
+      batchHolders = null;
+    }
+    if (slots != null) {
+      slots.release();
+      slots = null;
+    }
+    numEntries = 0;
+  }
+
+  private static int roundUpToPowerOf2(int number) {
+    int rounded = number >= MAXIMUM_CAPACITY
+        ? MAXIMUM_CAPACITY
+        : (rounded = Integer.highestOneBit(number)) != 0
+        ? (Integer.bitCount(number) > 1) ? rounded << 1 : rounded
+        : 1;
+
+    return rounded;
+  }
+
+  private void retryAfterOOM(boolean batchAdded) throws RetryAfterSpillException {
+    // If a batch was added then undo; otherwise when retrying this put() we'd miss a NEW_BATCH_ADDED
+    if ( batchAdded ) {
+      logger.trace("OOM - Removing index {} from the batch holders list",batchHolders.size() - 1);
+      BatchHolder bh = batchHolders.remove(batchHolders.size() - 1);
+      bh.clear();
+    }
+    freeIndex--;
+    throw new RetryAfterSpillException();
+  }
+
+  @Override
+  public int getHashCode(int incomingRowIdx) throws SchemaChangeException {
+    return getHashBuild(incomingRowIdx, 0);
+  }
+
+  @Override
+  public int getProbeHashCode(int incomingRowIdx) throws SchemaChangeException {
+    return getHashProbe(incomingRowIdx, 0);
+  }
+
+  /**
+   * Look for the key(s) of the incoming row; if not found, store the key(s) in the next free entry
+   * of the batch holders, and insert a slot (hash value and index of that entry).
+   *
+   * @param incomingRowIdx - position of the incoming row
+   * @param htIdxHolder - to return batch + batch-offset (for caller to manage a matching batch)
+   * @param hashCode - computed over the key(s) by calling getHashCode()
+   * @return Status - the key(s) was ADDED or was already PRESENT
+   */
+  @Override
+  public PutStatus put(int incomingRowIdx, IndexPointer htIdxHolder, int hashCode) throws SchemaChangeException, RetryAfterSpillException {
+
+    int idx = findKey(incomingRowIdx, hashCode, false);
+    if (idx != EMPTY_SLOT) {
+      htIdxHolder.value = idx;
+      return PutStatus.KEY_PRESENT;
+    }
+
+    // no match was found, so insert a new entry
+    int currentIdx = freeIndex++;
+    boolean addedBatch = false;
+    try {  // ADD A BATCH
+      addedBatch = addBatchIfNeeded(currentIdx);
+    } catch (OutOfMemoryException OOME) {
+      retryAfterOOM( currentIdx < batchHolders.size() * BATCH_SIZE );
+    }
+
+    try { // INSERT ENTRY
+      BatchHolder bh = batchHolders.get((currentIdx >>> 16) & BATCH_MASK);
+      bh.insertEntry(incomingRowIdx, currentIdx & BATCH_MASK);
+    } catch (OutOfMemoryException OOME) { retryAfterOOM( addedBatch ); }
+
+    try {  // RESIZE HT
+      // Resize before inserting the slot, so that inserting it can not fail
+      resizeAndRehashIfNeeded();
+    } catch (OutOfMemoryException OOME) {
+      retryAfterOOM( addedBatch );
+    }
+
+    insertSlot(currentIdx, hashCode, inlineKeyWidth == 0 ? 0 : getInlineKey(inlineBuildKey, incomingRowIdx));
+    numEntries++;
+
+    htIdxHolder.value = currentIdx;
+    return  addedBatch ? PutStatus.NEW_BATCH_ADDED :
+        ( freeIndex + 1 > batchHolders.size() * BATCH_SIZE ) ?
+        PutStatus.KEY_ADDED_LAST : // the last key in the batch
+        PutStatus.KEY_ADDED;     // otherwise
+  }
+
+  @Override
+  public PutStatus append(int incomingRowIdx, IndexPointer htIdxHolder) throws SchemaChangeException, RetryAfterSpillException {
+    int currentIdx = freeIndex++;
+    boolean addedBatch = false;
+    try {  // ADD A BATCH
+      addedBatch = addBatchIfNeeded(currentIdx);
+    } catch (OutOfMemoryException OOME) {
+      retryAfterOOM( currentIdx < batchHolders.size() * BATCH_SIZE );
+    }
+
+    try { // INSERT ENTRY (without a slot)
+      BatchHolder bh = batchHolders.get((currentIdx >>> 16) & BATCH_MASK);
+      bh.insertEntry(incomingRowIdx, currentIdx & BATCH_MASK);
+    } catch (OutOfMemoryException OOME) { retryAfterOOM( addedBatch ); }
+
+    htIdxHolder.value = currentIdx;
+    return  addedBatch ? PutStatus.NEW_BATCH_ADDED :
+        ( freeIndex + 1 > batchHolders.size() * BATCH_SIZE ) ?
+        PutStatus.KEY_ADDED_LAST : // the last key in the batch
+        PutStatus.KEY_ADDED;     // otherwise
+  }
+
+  // Return -1 if key is not found in the hash table. Otherwise, return the global index of the key
+  @Override
+  public int containsKey(int incomingRowIdx, boolean isProbe) throws SchemaChangeException {
+    int seedValue = 0;
+    int hash = isProbe ? getHashProbe(incomingRowIdx, seedValue) : getHashBuild(incomingRowIdx, seedValue);
+    return findKey(incomingRowIdx, hash, isProbe);
+  }
+
+  @Override
+  public int probeForKey(int incomingRowIdx, int hashCode) throws SchemaChangeException {
+    return findKey(incomingRowIdx, hashCode, true);
+  }
+
+  private int findKey(int incomingRowIdx, int hashCode, boolean isProbe) throws SchemaChangeException {
+    final int mask = capacity - 1;
+    final long key = inlineKeyWidth == 0 ? 0 : getInlineKey(isProbe ? inlineProbeKey : inlineBuildKey, incomingRowIdx);
+    int pos = hashCode & mask;
+    int distance = 0;
+
+    while (true) {
+      final int offset = pos * slotWidth;
+      final int idx = slots.getInt(offset + INDEX_OFFSET);
+      if (idx == EMPTY_SLOT) {
+        break;
+      }
+      final int slotHash = slots.getInt(offset + HASH_OFFSET);
+      if (((pos - slotHash) & mask) < distance) {
+        break; // with Robin Hood insertion, the key would have been placed before this (closer to home) entry
+      }
+      if (slotHash == hashCode) {
+        final boolean match = inlineKeyWidth != 0 ? slots.getLong(offset + KEY_OFFSET) == key :
+            batchHolders.get((idx >>> 16) & BATCH_MASK).isKeyMatch(incomingRowIdx, idx & BATCH_MASK, isProbe);
+        if (match) {
+          updateProbeStats(distance + 1);
+          return idx;
+        }
+      }
+      pos = (pos + 1) & mask;
+      distance++;
+    }
+    updateProbeStats(distance + 1);
+    return EMPTY_SLOT;
+  }
+
+  private void updateProbeStats(int length) {
+    numLookups++;
+    probeLength += length;
+    if (length > maxProbeLength) {
+      maxProbeLength = length;
+    }
+  }
+
+  /**
+   * Insert a slot, starting at the home slot of the hash value; an entry that is closer to its own
+   * home slot than the entry being inserted gives up its slot, and is pushed further down.
+   */
+  private void insertSlot(int idx, int hashCode, long key) {
+    final int mask = capacity - 1;
+    int pos = hashCode & mask;
+    int distance = 0;
+
+    while (true) {
+      final int offset = pos * slotWidth;
+      final int slotIdx = slots.getInt(offset + INDEX_OFFSET);
+      if (slotIdx == EMPTY_SLOT) {
+        setSlot(offset, idx, hashCode, key);
+        return;
+      }
+      final int slotHash = slots.getInt(offset + HASH_OFFSET);
+      final int slotDistance = (pos - slotHash) & mask;
+      if (slotDistance < distance) {
+        final long slotKey = inlineKeyWidth == 0 ? 0 : slots.getLong(offset + KEY_OFFSET);
+        setSlot(offset, idx, hashCode, key);
+        idx = slotIdx;
+        hashCode = slotHash;
+        key = slotKey;
+        distance = slotDistance;
+      }
+      pos = (pos + 1) & mask;
+      distance++;
+    }
+  }
+
+  private void setSlot(int offset, int idx, int hashCode, long key) {
+    slots.setInt(offset + INDEX_OFFSET, idx);
+    slots.setInt(offset + HASH_OFFSET, hashCode);
+    if (inlineKeyWidth != 0) {
+      slots.setLong(offset + KEY_OFFSET, key);
+    }
+  }
+
+  // Add a new BatchHolder to the list of batch holders if needed. This is based on the supplied
+  // currentIdx; since each BatchHolder can hold up to BATCH_SIZE entries, if the currentIdx exceeds
+  // the capacity, we will add a new BatchHolder. Return true if a new batch was added.
+  private boolean addBatchIfNeeded(int currentIdx) throws SchemaChangeException {
+    int totalBatchSize = batchHolders.size() * BATCH_SIZE;
+
+    if (currentIdx >= totalBatchSize) {
+      BatchHolder bh = newBatchHolder(batchHolders.size());
+      batchHolders.add(bh);
+      bh.setup();
+      return true;
+    }
+    return false;
+  }
+
+  protected BatchHolder newBatchHolder(int index) { // special method to allow debugging of gen code
+    return new BatchHolder(index);
+  }
+
+  // Double the number of slots when the next entry would cross the threshold, and re-insert
+  // all the slots (using their saved hash values). The keys in the BatchHolders are not moved.
+  private void resizeAndRehashIfNeeded() {
+    if (numEntries + 1 <= threshold) {
+      return;
+    }
+
+    // If the table is already at its maximum size, keep filling it (the load factor is below 1)
+    if (capacity == maxCapacity) {
+      if (numEntries + 1 >= capacity) {
+        throw new OutOfMemoryException("Hash table is full");
+      }
+      return;
+    }
+
+    int newCapacity = 2 * capacity;
+
+    // if not enough memory available to allocate the new slots, then OOM
+    if ( (long) newCapacity * slotWidth >= allocator.getLimit() - allocator.getAllocatedMemory()) {
+      throw new OutOfMemoryException("Resize Hash Table");
+    }
+
+    long t0 = System.currentTimeMillis();
+
+    DrillBuf oldSlots = slots;
+    int oldCapacity = capacity;
+    slots = allocSlots(newCapacity);
+    capacity = newCapacity;
+    threshold = (int) Math.ceil(capacity * loadFactor);
+
+    for (int pos = 0; pos < oldCapacity; pos++) {
+      int offset = pos * slotWidth;
+      int idx = oldSlots.getInt(offset + INDEX_OFFSET);
+      if (idx != EMPTY_SLOT) {
+        insertSlot(idx, oldSlots.getInt(offset + HASH_OFFSET),
+            inlineKeyWidth == 0 ? 0 : oldSlots.getLong(offset + KEY_OFFSET));
+      }
+    }
+    oldSlots.release();
+
+    resizingTime += System.currentTimeMillis() - t0;
+    numResizing++;
+  }
+
+  /**
+   * Reinit the hash table to its original size, and clear up all its prior batch holder
+   *
+   */
+  @Override
+  public void reset() {
+    this.clear(); // Clear all current batch holders and hash table (i.e. free their memory)
+
+    freeIndex = 0; // all batch holders are gone
+    // reallocate batch holders, and the hash table to the original size
+    batchHolders = new ArrayList<BatchHolder>();
+    capacity = originalCapacity;
+    threshold = (int) Math.ceil(capacity * loadFactor);
+    slots = allocSlots(capacity);
+  }
+
+  @Override
+  public void reinit(RecordBatch newIncoming) {
+    incomingBuild = newIncoming;
+    reset();
+    try {
+      updateBatches();  // Needed to update the value vectors in the generated code with the new incoming
+    } catch (SchemaChangeException e) {
+      throw new IllegalStateException("Unexpected schema change", e);
+    }
+  }
+
+  @Override
+  public boolean outputKeys(int batchIdx, VectorContainer outContainer, int outStartIndex, int numRecords, int numExpectedRecords) {
+    assert batchIdx < batchHolders.size();
+    return batchHolders.get(batchIdx).outputKeys(outContainer, outStartIndex, numRecords, numExpectedRecords);
+  }
+
+  private DrillBuf allocSlots(int numSlots) {
+    DrillBuf buf = allocator.buffer(numSlots * slotWidth);
+    for (int pos = 0; pos < numSlots; pos++) {
+      buf.setInt(pos * slotWidth + INDEX_OFFSET, EMPTY_SLOT);
+    }
+    return buf;
+  }
+
+  @Override
+  public void setMaxVarcharSize(int size) { maxVarcharSize = size; }
+
+  // These methods will be code-generated in the context of the outer class
+  protected abstract void doSetup(@Named("incomingBuild") RecordBatch incomingBuild, @Named("incomingProbe") RecordBatch incomingProbe) throws SchemaChangeException;
+
+  protected abstract int getHashBuild(@Named("incomingRowIdx") int incomingRowIdx, @Named("seedValue") int seedValue) throws SchemaChangeException;
+
+  protected abstract int getHashProbe(@Named("incomingRowIdx") int incomingRowIdx, @Named("seedValue") int seedValue) throws SchemaChangeException;
+
+}
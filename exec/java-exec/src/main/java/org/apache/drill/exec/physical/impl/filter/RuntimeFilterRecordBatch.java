@@ -0,0 +1,241 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.drill.exec.physical.impl.filter;
+
+import java.io.IOException;
+import java.util.List;
+
+import org.apache.drill.common.expression.LogicalExpression;
+import org.apache.drill.common.expression.SchemaPath;
+import org.apache.drill.common.expression.ValueExpressions;
+import org.apache.drill.common.types.TypeProtos.MinorType;
+import org.apache.drill.common.types.Types;
+import org.apache.drill.exec.ExecConstants;
+import org.apache.drill.exec.exception.ClassTransformationException;
+import org.apache.drill.exec.exception.OutOfMemoryException;
+import org.apache.drill.exec.exception.SchemaChangeException;
+import org.apache.drill.exec.expr.ClassGenerator;
+import org.apache.drill.exec.expr.ClassGenerator.HoldingContainer;
+import org.apache.drill.exec.expr.CodeGenerator;
+import org.apache.drill.exec.expr.ExpressionTreeMaterializer;
+import org.apache.drill.exec.ops.ExecutorFragmentContext;
+import org.apache.drill.exec.ops.MetricDef;
+import org.apache.drill.exec.physical.config.RuntimeFilterPOP;
+import org.apache.drill.exec.planner.physical.HashPrelUtil;
+import org.apache.drill.exec.record.AbstractSingleRecordBatch;
+import org.apache.drill.exec.record.BatchSchema.SelectionVectorMode;
+import org.apache.drill.exec.record.RecordBatch;
+import org.apache.drill.exec.record.TransferPair;
+import org.apache.drill.exec.record.VectorWrapper;
+import org.apache.drill.exec.record.selection.SelectionVector2;
+import org.apache.drill.exec.work.filter.BloomFilter;
+import org.apache.drill.exec.work.filter.RuntimeFilterSink;
+
+import com.google.common.collect.Lists;
+import com.sun.codemodel.JExpr;
+
+/**
+ * Drops the rows of a probe side scan whose join keys are not in the runtime filter of the hash join
+ * (received from the Foreman, see {@link org.apache.drill.exec.work.filter.RuntimeFilterRouter}), before they
+ * are sent to the join. All the rows are passed until the filter is received, or if there is no filter.
+ * <p>
+ * The join reads its first probe batch before its build side, so the first batch is first returned empty
+ * (the exchange then sends the schema to the join) and its rows only on the next call, waiting for the filter
+ * if needed. The time spent waiting for the filter is bounded, over all the batches, by
+ * {@link ExecConstants#HASHJOIN_RUNTIME_FILTER_MAX_WAITING_TIME_KEY}.
+ */
+public class RuntimeFilterRecordBatch extends AbstractSingleRecordBatch<RuntimeFilterPOP> {
+  private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(RuntimeFilterRecordBatch.class);
+
+  public enum Metric implements MetricDef {
+    FILTERED_ROWS;
+
+    @Override
+    public int metricId() {
+      return ordinal();
+    }
+  }
+
+  private final RuntimeFilterSink sink;
+  private SelectionVector2 sv2;
+  private RuntimeFilterer filterer;
+  // False if a join key is not in the incoming schema; all the rows are then passed
+  private boolean keysFound;
+  private boolean firstBatch = true;
+  // The rows of the incoming batch are yet to be filtered (the batch was returned empty)
+  private boolean heldBatch;
+  private boolean filterReceived;
+  private BloomFilter filter;
+  // The time left to wait for the filter (ms)
+  private long waitTimeLeft;
+  private long filteredRows;
+
+  public RuntimeFilterRecordBatch(RuntimeFilterPOP pop, RecordBatch incoming, ExecutorFragmentContext context)
+      throws OutOfMemoryException {
+    super(pop, context, incoming);
+    sink = context.getRuntimeFilterSink();
+    waitTimeLeft = context.getOptions().getOption(ExecConstants.HASHJOIN_RUNTIME_FILTER_MAX_WAITING_TIME_VALIDATOR);
+  }
+
+  @Override
+  public int getRecordCount() {
+    return sv2.getCount();
+  }
+
+  @Override
+  public SelectionVector2 getSelectionVector2() {
+    return sv2;
+  }
+
+  @Override
+  public IterOutcome innerNext() {
+    if (heldBatch) {
+      heldBatch = false;
+      return doWork();
+    }
+    return super.innerNext();
+  }
+
+  @Override
+  protected IterOutcome doWork() {
+    container.zeroVectors();
+    final int recordCount = incoming.getRecordCount();
+    if (firstBatch && recordCount > 0 && !sink.hasFilter(popConfig.getFilterId())) {
+      firstBatch = false;
+      heldBatch = true;
+      sv2.setRecordCount(0);
+      return getFinalOutcome(false);
+    }
+    firstBatch = false;
+    try {
+      filteredRows += filterer.filterBatch(recordCount > 0 && keysFound ? getFilter() : null, recordCount);
+    } catch (SchemaChangeException e) {
+      throw new UnsupportedOperationException(e);
+    }
+
+    return getFinalOutcome(false);
+  }
+
+  /**
+   * @return the runtime filter, or null if it was not received (in time) or there is no filter
+   */
+  private BloomFilter getFilter() {
+    if (filterReceived) {
+      return filter;
+    }
+    final int filterId = popConfig.getFilterId();
+    if (waitTimeLeft > 0) {
+      final long start = System.currentTimeMillis();
+      stats.startWait();
+      try {
+        filterReceived = sink.await(filterId, waitTimeLeft);
+      } catch (InterruptedException e) {
+        // Preserve evidence that the interruption occurred so that code higher up on the call stack can learn of the
+        // interruption and respond to it if it wants to.
+        Thread.currentThread().interrupt();
+        waitTimeLeft = 0;
+      } finally {
+        stats.stopWait();
+        waitTimeLeft -= System.currentTimeMillis() - start;
+      }
+      if (!filterReceived && waitTimeLeft <= 0) {
+        logger.debug("Runtime filter {} not received in time; passing rows until it is", filterId);
+      }
+    } else {
+      filterReceived = sink.hasFilter(filterId);
+    }
+    if (filterReceived) {
+      filter = sink.getFilter(filterId);
+    }
+    return filter;
+  }
+
+  @Override
+  public void close() {
+    if (sv2 != null) {
+      sv2.clear();
+    }
+    stats.setLongStat(Metric.FILTERED_ROWS, filteredRows);
+    super.close();
+  }
+
+  @Override
+  protected boolean setupNewSchema() throws SchemaChangeException {
+    if (sv2 != null) {
+      sv2.clear();
+    }
+
+    switch (incoming.getSchema().getSelectionVectorMode()) {
+      case NONE:
+      case TWO_BYTE:
+        if (sv2 == null) {
+          sv2 = new SelectionVector2(oContext.getAllocator());
+        }
+        this.filterer = generateFilterer();
+        break;
+      default:
+        throw new UnsupportedOperationException();
+    }
+
+    if (container.isSchemaChanged()) {
+      container.buildSchema(SelectionVectorMode.TWO_BYTE);
+      return true;
+    }
+    return false;
+  }
+
+  protected RuntimeFilterer generateFilterer() throws SchemaChangeException {
+    final List<TransferPair> transfers = Lists.newArrayList();
+    final ClassGenerator<RuntimeFilterer> cg = CodeGenerator.getRoot(RuntimeFilterer.TEMPLATE_DEFINITION, context.getOptions());
+
+    // Hash the keys the way the hash table of the join does (see ChainedHashTable): as doubles, each hash value
+    // being the seed of the next one
+    keysFound = true;
+    final String seedValue = "seedValue";
+    final LogicalExpression seed = ValueExpressions.getParameterExpression(seedValue, Types.required(MinorType.INT));
+    for (SchemaPath field : popConfig.getProbeFields()) {
+      if (incoming.getValueVectorId(field) == null) {
+        logger.warn("Runtime filter {} is not used: no column {} in the incoming schema", popConfig.getFilterId(), field);
+        keysFound = false;
+        break;
+      }
+      final LogicalExpression hashExpression = HashPrelUtil.getHashExpression(field, seed, true);
+      final LogicalExpression materializedExpr = ExpressionTreeMaterializer.materializeAndCheckErrors(hashExpression,
+          incoming, context.getFunctionRegistry());
+      final HoldingContainer hash = cg.addExpr(materializedExpr, ClassGenerator.BlkCreateMode.TRUE_IF_BOUND);
+      cg.getEvalBlock().assign(JExpr.ref(seedValue), hash.getValue());
+    }
+    cg.getEvalBlock()._return(JExpr.ref(seedValue));
+
+    for (final VectorWrapper<?> v : incoming) {
+      final TransferPair pair = v.getValueVector().makeTransferPair(container.addOrGet(v.getField(), callBack));
+      transfers.add(pair);
+    }
+
+    try {
+      final TransferPair[] tx = transfers.toArray(new TransferPair[transfers.size()]);
+      CodeGenerator<RuntimeFilterer> codeGen = cg.getCodeGenerator();
+      codeGen.plainJavaCapable(true);
+      final RuntimeFilterer filterer = context.getImplementationClass(codeGen);
+      filterer.setup(context, incoming, this, tx);
+      return filterer;
+    } catch (ClassTransformationException | IOException e) {
+      throw new SchemaChangeException("Failure while attempting to load generated class", e);
+    }
+  }
+}
@@ -0,0 +1,92 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.drill.exec.physical.impl.filter;
+
+import javax.inject.Named;
+
+import org.apache.drill.exec.exception.OutOfMemoryException;
+import org.apache.drill.exec.exception.SchemaChangeException;
+import org.apache.drill.exec.ops.FragmentContext;
+import org.apache.drill.exec.record.BatchSchema.SelectionVectorMode;
+import org.apache.drill.exec.record.RecordBatch;
+import org.apache.drill.exec.record.TransferPair;
+import org.apache.drill.exec.record.selection.SelectionVector2;
+import org.apache.drill.exec.work.filter.BloomFilter;
+
+public abstract class RuntimeFilterTemplate implements RuntimeFilterer {
+  private SelectionVector2 outgoingSelectionVector;
+  private SelectionVector2 incomingSelectionVector;
+  private SelectionVectorMode svMode;
+  private TransferPair[] transfers;
+
+  @Override
+  public void setup(FragmentContext context, RecordBatch incoming, RecordBatch outgoing, TransferPair[] transfers) throws SchemaChangeException {
+    this.transfers = transfers;
+    this.outgoingSelectionVector = outgoing.getSelectionVector2();
+    this.svMode = incoming.getSchema().getSelectionVectorMode();
+
+    switch(svMode){
+    case NONE:
+      break;
+    case TWO_BYTE:
+      this.incomingSelectionVector = incoming.getSelectionVector2();
+      break;
+    default:
+      throw new UnsupportedOperationException();
+    }
+    doSetup(context, incoming, outgoing);
+  }
+
+  private void doTransfers(){
+    for(TransferPair t : transfers){
+      t.transfer();
+    }
+  }
+
+  @Override
+  public int filterBatch(BloomFilter filter, int recordCount) throws SchemaChangeException {
+    if (recordCount == 0) {
+      outgoingSelectionVector.setRecordCount(0);
+      return 0;
+    }
+    if (! outgoingSelectionVector.allocateNewSafe(recordCount)) {
+      throw new OutOfMemoryException("Unable to allocate runtime filter batch");
+    }
+    int svIndex = 0;
+    for (int i = 0; i < recordCount; i++) {
+      final int index = svMode == SelectionVectorMode.NONE ? i : incomingSelectionVector.getIndex(i);
+      // The hash value of the keys, as computed by the hash table of the join
+      if (filter == null || filter.find(BloomFilter.hash64(doEval(index, 0)))) {
+        outgoingSelectionVector.setIndex(svIndex, (char) index);
+        svIndex++;
+      }
+    }
+    outgoingSelectionVector.setRecordCount(svIndex);
+    doTransfers();
+    return recordCount - svIndex;
+  }
+
+  public abstract void doSetup(@Named("context") FragmentContext context,
+                               @Named("incoming") RecordBatch incoming,
+                               @Named("outgoing") RecordBatch outgoing)
+                       throws SchemaChangeException;
+  public abstract int doEval(@Named("inIndex") int inIndex,
+                             @Named("seedValue") int seedValue)
+                      throws SchemaChangeException;
+
+}
@@ -0,0 +1,40 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.drill.exec.physical.impl.filter;
+
+import org.apache.drill.exec.compile.TemplateClassDefinition;
+import org.apache.drill.exec.exception.SchemaChangeException;
+import org.apache.drill.exec.ops.FragmentContext;
+import org.apache.drill.exec.record.RecordBatch;
+import org.apache.drill.exec.record.TransferPair;
+import org.apache.drill.exec.work.filter.BloomFilter;
+
+public interface RuntimeFilterer {
+  TemplateClassDefinition<RuntimeFilterer> TEMPLATE_DEFINITION = new TemplateClassDefinition<RuntimeFilterer>(RuntimeFilterer.class, RuntimeFilterTemplate.class);
+
+  void setup(FragmentContext context, RecordBatch incoming, RecordBatch outgoing, TransferPair[] transfers) throws SchemaChangeException;
+
+  /**
+   * Select the rows of the incoming batch whose join keys may be in the filter.
+   *
+   * @param filter the runtime filter, or null to select all the rows
+   * @param recordCount the number of incoming rows
+   * @return the number of rows dropped
+   */
+  int filterBatch(BloomFilter filter, int recordCount) throws SchemaChangeException;
+}
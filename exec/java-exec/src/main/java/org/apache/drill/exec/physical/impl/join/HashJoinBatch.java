@@ -19,11 +19,14 @@ package org.apache.drill.exec.physical.impl.join;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.LinkedList;
 import java.util.List;
 
 import com.google.common.collect.Lists;
 import org.apache.drill.common.exceptions.RetryAfterSpillException;
+import org.apache.drill.common.exceptions.UserException;
 import org.apache.drill.common.expression.FieldReference;
+import org.apache.drill.common.expression.SchemaPath;
 import org.apache.drill.common.logical.data.JoinCondition;
 import org.apache.drill.common.logical.data.NamedExpression;
 import org.apache.drill.common.types.TypeProtos;
@@ -38,27 +41,37 @@ import org.apache.drill.exec.exception.OutOfMemoryException;
 import org.apache.drill.exec.exception.SchemaChangeException;
 import org.apache.drill.exec.expr.ClassGenerator;
 import org.apache.drill.exec.expr.CodeGenerator;
-import org.apache.drill.exec.ops.FragmentContext;
+import org.apache.drill.exec.memory.BaseAllocator;
+import org.apache.drill.exec.memory.BufferAllocator;
+import org.apache.drill.exec.ops.ExecutorFragmentContext;
 import org.apache.drill.exec.ops.MetricDef;
+import org.apache.drill.exec.physical.base.AbstractBase;
 import org.apache.drill.exec.physical.config.HashJoinPOP;
+import org.apache.drill.exec.physical.impl.aggregate.SpilledRecordbatch;
 import org.apache.drill.exec.physical.impl.common.ChainedHashTable;
 import org.apache.drill.exec.physical.impl.common.HashTable;
 import org.apache.drill.exec.physical.impl.common.HashTableConfig;
 import org.apache.drill.exec.physical.impl.common.HashTableStats;
 import org.apache.drill.exec.physical.impl.common.IndexPointer;
 import org.apache.drill.exec.physical.impl.common.Comparator;
-import org.apache.drill.exec.physical.impl.sort.RecordBatchData;
+import org.apache.drill.exec.physical.impl.spill.SpillSet;
 import org.apache.drill.exec.record.AbstractBinaryRecordBatch;
 import org.apache.drill.exec.record.BatchSchema;
 import org.apache.drill.exec.record.BatchSchema.SelectionVectorMode;
 import org.apache.drill.exec.record.ExpandableHyperContainer;
+import org.apache.drill.exec.record.JoinBatchMemoryManager;
 import org.apache.drill.exec.record.MaterializedField;
 import org.apache.drill.exec.record.RecordBatch;
+import org.apache.drill.exec.record.RecordBatchSizer;
+import org.apache.drill.exec.record.SimpleRecordBatch;
 import org.apache.drill.exec.record.TypedFieldId;
 import org.apache.drill.exec.record.VectorContainer;
 import org.apache.drill.exec.record.VectorWrapper;
+import org.apache.drill.exec.vector.BaseValueVector;
 import org.apache.drill.exec.vector.ValueVector;
 import org.apache.drill.exec.vector.complex.AbstractContainerVector;
+import org.apache.drill.exec.work.filter.BloomFilter;
+import org.apache.drill.exec.work.filter.RuntimeFilterMessage;
 import org.apache.calcite.rel.core.JoinRelType;
 
 import com.sun.codemodel.JExpr;
@@ -66,9 +79,20 @@ import com.sun.codemodel.JExpression;
 import com.sun.codemodel.JVar;
 
 public class HashJoinBatch extends AbstractBinaryRecordBatch<HashJoinPOP> {
+  private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(HashJoinBatch.class);
+
   public static final long ALLOCATOR_INITIAL_RESERVATION = 1 * 1024 * 1024;
   public static final long ALLOCATOR_MAX_RESERVATION = 20L * 1000 * 1000 * 1000;
 
+  // Estimated memory used per build row by the hash table (start indices, links, hash values)
+  // and by the hash join helper; the keys are estimated separately, per join condition
+  private static final int HASH_TABLE_BYTES_PER_ROW = 24;
+  private static final int HASH_TABLE_BYTES_PER_KEY = 8;
+
+  // Number of rows in each partition batch when spilling is not possible (the build side is then kept
+  // whole in memory, so bigger batches mean fewer batches; still must be addressable by the SV4 links)
+  private static final int NO_SPILL_RECORDS_PER_BATCH = 8 * 1024;
+
   // Join type, INNER, LEFT, RIGHT or OUTER
   private final JoinRelType joinType;
 
@@ -80,6 +104,9 @@ public class HashJoinBatch extends AbstractBinaryRecordBatch<HashJoinPOP> {
   // Runtime generated class implementing HashJoinProbe interface
   private HashJoinProbe hashJoinProbe = null;
 
+  // The code generator of the probe class; kept to create a new probe instance for each spilled partition
+  private CodeGenerator<HashJoinProbe> probeCodeGenerator;
+
   /* Helper class
    * Maintains linked list of build side records with the same key
    * Keeps information about which build records have a corresponding
@@ -105,6 +132,58 @@ public class HashJoinBatch extends AbstractBinaryRecordBatch<HashJoinPOP> {
   // Schema of the build side
   private BatchSchema rightSchema = null;
 
+  // Schema of the probe side (null when the probe side had no data)
+  private BatchSchema probeSchema = null;
+
+  // The build and probe sides currently being joined; either the incoming (right and left),
+  // or a spilled partition (and its matching probe rows) being read back from disk
+  private RecordBatch buildIncoming;
+  private RecordBatch probeIncoming;
+
+  /* Spilling related state
+   * The build side rows are split into partitions (by the hash value of their keys). When the memory
+   * is short, whole partitions are spilled to disk, and then the matching probe rows are spilled as well.
+   * After the probe side is exhausted, each spilled pair is read back and joined (in a following "cycle"),
+   * possibly being partitioned (and spilled) again, using different bits of the hash value.
+   */
+  private final BufferAllocator allocator;
+  private final SpillSet spillSet;
+  private long memoryLimit;
+  private boolean canSpill = true;
+  private int numPartitions; // must be 2 to the power of bitsInMask
+  private int partitionMask; // numPartitions - 1
+  private int bitsInMask; // number of bits in the MASK
+  private int recordsPerBatch; // number of rows in each partition batch
+  private int cycleNum = 0; // primary, secondary, tertiary, etc.
+  private HashPartition[] partitions;
+  private boolean hasSpilledPartitions; // in the current cycle
+  private int numSpilledPartitions; // total, for the stats
+  private long estOutgoingBatchSize;
+  private long estProbeBatchSize;
+
+  private static class HashJoinSpilledPartition {
+    int cycleNum;
+    int origPartn;
+    String buildSpillFile;
+    int buildSpilledBatches;
+    String probeSpillFile;
+    int probeSpilledBatches;
+    long probeSpilledRows;
+  }
+
+  private final LinkedList<HashJoinSpilledPartition> spilledPartitionsList = new LinkedList<>();
+
+  // Runtime filter: Hash values of all the build side keys of the cycle; probe rows headed for a spilled
+  // partition that are not found there can not match, hence are dropped rather than spilled (only for joins
+  // that drop unmatched probe rows). The rows of the in-memory partitions are looked up in the hash table anyway.
+  private BloomFilter runtimeFilter;
+  private long runtimeFilteredRows;
+  // The filter of the first cycle is also sent to the Foreman, to be merged with those of the other minor
+  // fragments and handed to the probe side scans (if the planner gave it an id); only if the key types of
+  // both sides match, since the scans hash their own columns
+  private final ExecutorFragmentContext executorContext;
+  private boolean runtimeFilterKeysMatch;
+  private boolean runtimeFilterSent;
 
   // Generator mapping for the build side
   // Generator mapping for the build side : scalar
@@ -147,7 +226,21 @@ public class HashJoinBatch extends AbstractBinaryRecordBatch<HashJoinPOP> {
     NUM_BUCKETS,
     NUM_ENTRIES,
     NUM_RESIZING,
-    RESIZING_TIME_MS;
+    RESIZING_TIME_MS,
+    NUM_PARTITIONS,
+    SPILLED_PARTITIONS, // number of partitions spilled to disk (in all the cycles)
+    SPILL_MB,           // Number of MB of data spilled to disk (build and probe sides)
+    SPILL_CYCLE,        // 0 - no spill, 1 - spill, 2 - SECONDARY, 3 - TERTIARY
+    NUM_LOOKUPS,        // Number of hash table lookups
+    TOTAL_PROBE_LENGTH, // Number of hash table entries visited by all the lookups
+    MAX_PROBE_LENGTH,   // Most hash table entries visited by a single lookup
+    LEFT_AVG_INPUT_ROW_BYTES,  // Average row width of the probe side batches
+    RIGHT_AVG_INPUT_ROW_BYTES, // Average row width of the build side batches
+    OUTPUT_BATCH_COUNT,
+    AVG_OUTPUT_BATCH_BYTES,
+    AVG_OUTPUT_ROW_BYTES,
+    OUTPUT_RECORD_COUNT,
+    RUNTIME_FILTERED_ROWS; // Number of probe rows dropped by the runtime filter instead of being spilled
 
     // duplicate for hash ag
 
@@ -169,18 +262,15 @@ public class HashJoinBatch extends AbstractBinaryRecordBatch<HashJoinPOP> {
     }
 
     // Initialize the hash join helper context
-    hjHelper = new HashJoinHelper(context, oContext.getAllocator());
+    hjHelper = new HashJoinHelper(context, allocator);
     try {
       rightSchema = right.getSchema();
-      final VectorContainer vectors = new VectorContainer(oContext);
-      for (final VectorWrapper<?> w : right) {
-        vectors.addOrGet(w.getField());
+      if (isFurtherProcessingRequired(leftUpstream)) {
+        probeSchema = left.getSchema();
       }
-      vectors.buildSchema(SelectionVectorMode.NONE);
-      vectors.setRecordCount(0);
-      hyperContainer = new ExpandableHyperContainer(vectors);
-      hjHelper.addNewBatch(0);
-      buildBatchIndex++;
+      buildIncoming = right;
+      probeIncoming = left;
+      setupHyperContainer(right);
       if (isFurtherProcessingRequired(rightUpstream) && this.right.getRecordCount() > 0) {
         setupHashTable();
       }
@@ -196,6 +286,23 @@ public class HashJoinBatch extends AbstractBinaryRecordBatch<HashJoinPOP> {
     }
   }
 
+  /**
+   * Create a new hyper container for the build side, with an initial empty batch (index 0)
+   *
+   * @param buildSide the build side (provides the fields)
+   */
+  private void setupHyperContainer(RecordBatch buildSide) throws SchemaChangeException {
+    final VectorContainer vectors = new VectorContainer(oContext);
+    for (final VectorWrapper<?> w : buildSide) {
+      vectors.addOrGet(w.getField());
+    }
+    vectors.buildSchema(SelectionVectorMode.NONE);
+    vectors.setRecordCount(0);
+    hyperContainer = new ExpandableHyperContainer(vectors);
+    hjHelper.addNewBatch(0);
+    buildBatchIndex = 1;
+  }
+
   @Override
   public IterOutcome innerNext() {
     try {
@@ -205,50 +312,65 @@ public class HashJoinBatch extends AbstractBinaryRecordBatch<HashJoinPOP> {
       if (state == BatchState.FIRST) {
         // Build the hash table, using the build side record batches.
         executeBuildPhase();
+        sendRuntimeFilter(true);
+        // Size the outgoing batches from the (first) probe batch and the build side rows
+        if (isFurtherProcessingRequired(leftUpstream) && left.getRecordCount() > 0) {
+          batchMemoryManager.update(JoinBatchMemoryManager.LEFT_INDEX, 0);
+        }
         hashJoinProbe.setupHashJoinProbe(context, hyperContainer, left, left.getRecordCount(), this, hashTable,
             hjHelper, joinType, leftUpstream);
         // Update the hash table related stats for the operator
         updateStats(this.hashTable);
       }
 
-      // Store the number of records projected
-      if ((hashTable != null && !hashTable.isEmpty()) || joinType != JoinRelType.INNER) {
+      while (true) {
+        // Store the number of records projected
+        if ((hashTable != null && !hashTable.isEmpty()) || joinType != JoinRelType.INNER || hasSpilledPartitions) {
 
-        // Allocate the memory for the vectors in the output container
-        allocateVectors();
+          // Allocate the memory for the vectors in the output container
+          allocateVectors();
 
-        outputRecords = hashJoinProbe.probeAndProject();
+          outputRecords = hashJoinProbe.probeAndProject();
 
-        /* We are here because of one the following
-         * 1. Completed processing of all the records and we are done
-         * 2. We've filled up the outgoing batch to the maximum and we need to return upstream
-         * Either case build the output container's schema and return
-         */
-        if (outputRecords > 0 || state == BatchState.FIRST) {
-          if (state == BatchState.FIRST) {
-            state = BatchState.NOT_FIRST;
-          }
+          /* We are here because of one the following
+           * 1. Completed processing of all the records and we are done
+           * 2. We've filled up the outgoing batch to the maximum and we need to return upstream
+           * Either case build the output container's schema and return
+           */
+          if (outputRecords > 0 || state == BatchState.FIRST) {
+            if (state == BatchState.FIRST) {
+              state = BatchState.NOT_FIRST;
+            }
 
-          for (final VectorWrapper<?> v : container) {
-            v.getValueVector().getMutator().setValueCount(outputRecords);
-          }
+            for (final VectorWrapper<?> v : container) {
+              v.getValueVector().getMutator().setValueCount(outputRecords);
+            }
+            batchMemoryManager.updateOutgoingStats(outputRecords);
 
-          return IterOutcome.OK;
-        }
-      } else {
-        // Our build side is empty, we won't have any matches, clear the probe side
-        if (leftUpstream == IterOutcome.OK_NEW_SCHEMA || leftUpstream == IterOutcome.OK) {
-          for (final VectorWrapper<?> wrapper : left) {
-            wrapper.getValueVector().clear();
+            return IterOutcome.OK;
           }
-          left.kill(true);
-          leftUpstream = next(HashJoinHelper.LEFT_INPUT, left);
-          while (leftUpstream == IterOutcome.OK_NEW_SCHEMA || leftUpstream == IterOutcome.OK) {
+        } else if (probeIncoming == left) {
+          // Our build side is empty, we won't have any matches, clear the probe side
+          if (leftUpstream == IterOutcome.OK_NEW_SCHEMA || leftUpstream == IterOutcome.OK) {
             for (final VectorWrapper<?> wrapper : left) {
               wrapper.getValueVector().clear();
             }
+            left.kill(true);
             leftUpstream = next(HashJoinHelper.LEFT_INPUT, left);
+            while (leftUpstream == IterOutcome.OK_NEW_SCHEMA || leftUpstream == IterOutcome.OK) {
+              for (final VectorWrapper<?> wrapper : left) {
+                wrapper.getValueVector().clear();
+              }
+              leftUpstream = next(HashJoinHelper.LEFT_INPUT, left);
+            }
           }
+        } else {
+          probeIncoming.kill(false); // a spilled probe side; just delete its file
+        }
+
+        // Done with the current build side; continue with the next spilled partition, if any
+        if (! startNextCycle()) {
+          break;
         }
       }
 
@@ -346,55 +468,489 @@ public class HashJoinBatch extends AbstractBinaryRecordBatch<HashJoinPOP> {
         }
         // Fall through
       case OK:
-        final int currentRecordCount = right.getRecordCount();
+        if (right.getRecordCount() > 0) {
+          batchMemoryManager.update(JoinBatchMemoryManager.RIGHT_INDEX, 0);
+        }
+        // Copy the rows of this batch into the partitions; the incoming batch is then released
+        partitionBuildBatch();
+        for (final VectorWrapper<?> w : right) {
+          w.clear();
+        }
+        break;
+      }
+      // Get the next record batch
+      rightUpstream = next(HashJoinHelper.RIGHT_INPUT, right);
+    }
 
-                    /* For every new build batch, we store some state in the helper context
-                     * Add new state to the helper context
-                     */
-        hjHelper.addNewBatch(currentRecordCount);
+    buildHashTable();
+  }
 
-        // Holder contains the global index where the key is hashed into using the hash table
-        final IndexPointer htIndex = new IndexPointer();
+  /**
+   * Choose the number of partitions (and the size of their batches) based on the memory available
+   * and the estimated row widths; spilling is disabled if there is not enough memory for two partitions.
+   */
+  private void setupPartitioning() {
+    final int buildRowWidth = new RecordBatchSizer(buildIncoming).stdRowWidth();
+    final int probeRowWidth = probeSchema == null ? 0 : new RecordBatchSizer(probeIncoming).stdRowWidth();
+    estOutgoingBatchSize = (long) BaseValueVector.INITIAL_VALUE_ALLOCATION * (buildRowWidth + probeRowWidth);
+    estProbeBatchSize = (long) recordsPerBatch * probeRowWidth;
+
+    if (numPartitions == 1) {
+      canSpill = false;
+      logger.warn("Spilling is disabled due to configuration setting of num_partitions to 1");
+    }
+    numPartitions = BaseAllocator.nextPowerOfTwo(numPartitions); // in case not a power of 2
+
+    if (canSpill) {
+      // Adjust down the number of partitions if needed - when the memory available can not hold
+      // a build batch and a probe batch for each partition, plus the outgoing batch
+      final long partitionBatchSize = (long) recordsPerBatch * Math.max(buildRowWidth, probeRowWidth);
+      final long memAvail = memoryLimit - allocator.getAllocatedMemory() - estOutgoingBatchSize;
+      while (numPartitions * 2 * partitionBatchSize > memAvail) {
+        numPartitions /= 2;
+        if (numPartitions < 2) {
+          canSpill = false;
+          logger.warn("Spilling is disabled - not enough memory available for internal partitioning. Falling back"
+              + " to use unbounded memory");
+          break;
+        }
+      }
+    }
+
+    if (!canSpill) {
+      // behave like the old code -- practically no memory limit for the hash join
+      numPartitions = 1;
+      memoryLimit = AbstractBase.MAX_ALLOCATION;
+      allocator.setLimit(AbstractBase.MAX_ALLOCATION);  // 10_000_000_000L
+      recordsPerBatch = Math.max(recordsPerBatch, NO_SPILL_RECORDS_PER_BATCH);
+    }
+    logger.debug("Hash Join: Number of partitions chosen: {}. {} spill", numPartitions, canSpill ? "Can" : "Cannot");
+
+    // Based on the number of partitions: Set the mask and bit count
+    partitionMask = numPartitions - 1; // e.g. 32 --> 0x1F
+    bitsInMask = Integer.bitCount(partitionMask); // e.g. 0x1F -> 5
+    stats.setLongStat(Metric.NUM_PARTITIONS, numPartitions);
+  }
+
+  private void createPartitions() {
+    partitions = new HashPartition[numPartitions];
+    for (int part = 0; part < numPartitions; part++) {
+      partitions[part] = new HashPartition(allocator, spillSet, part, cycleNum, recordsPerBatch, rightSchema, probeSchema);
+    }
+    hasSpilledPartitions = false;
+  }
+
+  /**
+   * Can not spill in the current cycle if spilling is disabled, or when all the bits of the hash value
+   * were already used for partitioning in the prior cycles.
+   */
+  private boolean canSpillInCycle() {
+    return canSpill && (cycleNum + 1) * bitsInMask <= Integer.SIZE;
+  }
+
+  /**
+   * The partition matching the given hash value, in the current cycle. The partition is selected by
+   * the high bits of the hash value (the next unused bits in each cycle), as the hash table uses the low bits.
+   *
+   * @param hashCode the hash value of the row's keys
+   * @return the partition this row belongs to
+   */
+  public HashPartition getPartition(int hashCode) {
+    return partitions[(hashCode >>> (Integer.SIZE - (cycleNum + 1) * bitsInMask)) & partitionMask];
+  }
+
+  /**
+   * @return the runtime filter of the build side keys of the current cycle, or null if none
+   */
+  public BloomFilter getRuntimeFilter() {
+    return runtimeFilter;
+  }
+
+  /**
+   * Count a probe row of a spilled partition that was dropped since the runtime filter shows it has no match
+   */
+  public void runtimeFilteredRow() {
+    runtimeFilteredRows++;
+  }
+
+  /**
+   * @return true if some partitions were spilled in the current cycle, hence the matching
+   * probe rows need to be spilled as well
+   */
+  public boolean hasSpilledPartitions() {
+    return hasSpilledPartitions;
+  }
+
+  /**
+   * Copy the rows of the current build batch into their partitions, spilling partitions as needed
+   */
+  private void partitionBuildBatch() throws SchemaChangeException {
+    final int currentRecordCount = buildIncoming.getRecordCount();
+    if (currentRecordCount == 0) {
+      return;
+    }
+    if (partitions == null) {
+      setupPartitioning();
+      // Only the probe rows of spilled partitions are checked against the filter (and the probe side scans,
+      // once the filter is sent)
+      final boolean sendRuntimeFilter = cycleNum == 0 && popConfig.getRuntimeFilterId() > 0;
+      if (sendRuntimeFilter) {
+        runtimeFilterKeysMatch = runtimeFilterKeysMatch();
+      }
+      if (context.getOptions().getOption(ExecConstants.HASHJOIN_ENABLE_RUNTIME_FILTER_VALIDATOR)
+          && (joinType == JoinRelType.INNER || joinType == JoinRelType.RIGHT)
+          && (canSpillInCycle() || sendRuntimeFilter && runtimeFilterKeysMatch)) {
+        runtimeFilter = new BloomFilter(allocator,
+            (int) context.getOptions().getOption(ExecConstants.HASHJOIN_BLOOM_FILTER_MAX_SIZE_VALIDATOR));
+      }
+      createPartitions();
+    }
+
+    final ValueVector[] vectors = new ValueVector[buildIncoming.getSchema().getFieldCount()];
+    int i = 0;
+    for (final VectorWrapper<?> w : buildIncoming) {
+      vectors[i++] = w.getValueVector();
+    }
+
+    // For every record in the build batch, hash the key columns and copy the row into its partition
+    for (int row = 0; row < currentRecordCount; row++) {
+      final int hashCode = hashTable.getHashCode(row);
+      if (runtimeFilter != null) {
+        runtimeFilter.insert(BloomFilter.hash64(hashCode));
+      }
+      if (getPartition(hashCode).appendBuildRow(vectors, row)) {
+        spillIfNeeded(); // a partition batch was completed
+      }
+    }
+  }
+
+  /**
+   * Spill partitions (largest first) while the memory in use, plus the estimated memory needed
+   * for the hash table and the outgoing batch, exceeds the memory limit.
+   */
+  private void spillIfNeeded() {
+    if (! canSpillInCycle()) {
+      return;
+    }
+    while (allocator.getAllocatedMemory() + estimateReservedMemory() > memoryLimit) {
+      if (! spillLargestPartition()) {
+        return; // nothing left to spill
+      }
+    }
+  }
+
+  private long estimateReservedMemory() {
+    long inMemoryRows = 0;
+    int numSpilled = 0;
+    for (HashPartition partition : partitions) {
+      if (partition.isSpilled()) {
+        numSpilled++;
+      } else {
+        inMemoryRows += partition.getNumInMemoryRows();
+      }
+    }
+    final long bytesPerRow = HASH_TABLE_BYTES_PER_ROW + HASH_TABLE_BYTES_PER_KEY * conditions.size();
+    return inMemoryRows * bytesPerRow + estOutgoingBatchSize + numSpilled * estProbeBatchSize;
+  }
+
+  /**
+   * Spill the in-memory partition holding the most rows
+   *
+   * @return false if there is no partition that can be spilled
+   */
+  private boolean spillLargestPartition() {
+    HashPartition victim = null;
+    for (HashPartition partition : partitions) {
+      if (partition.isSpilled() || partition.getNumInMemoryRows() == 0) {
+        continue;
+      }
+      if (victim == null || partition.getNumInMemoryRows() > victim.getNumInMemoryRows()) {
+        victim = partition;
+      }
+    }
+    if (victim == null) {
+      return false;
+    }
+    logger.debug("HashJoin: Spilling partition {} current cycle {} rows {}", victim.getPartitionNum(), cycleNum,
+        victim.getNumInMemoryRows());
+    victim.spill();
+    hasSpilledPartitions = true;
+    numSpilledPartitions++;
+    return true;
+  }
+
+  /**
+   * Insert the rows of all the in-memory partitions into the hash table, and then move their batches
+   * into the hyper container. When running out of memory, spill a partition and start over.
+   */
+  private void buildHashTable() throws SchemaChangeException {
+    if (partitions == null) {
+      return; // the build side was empty
+    }
+    for (HashPartition partition : partitions) {
+      partition.completeBuildSide();
+    }
+
+    while (true) {
+      try {
+        insertInMemoryPartitions();
+        break;
+      } catch (RetryAfterSpillException | OutOfMemoryException e) {
+        // start over, without the largest in-memory partition
+        hashTable.reset();
+        hjHelper.clear();
+        hjHelper = new HashJoinHelper(context, allocator);
+        hjHelper.addNewBatch(0);
+        buildBatchIndex = 1;
+        if (! canSpillInCycle() || ! spillLargestPartition()) {
+          throw UserException.resourceError(e)
+              .message("Not enough memory for the Hash Join to build its hash table (cycle %d)", cycleNum)
+              .build(logger);
+        }
+      }
+    }
+
+    // Completed hashing all the in-memory rows. Transfer their batches to the hyper vector container.
+    // Will be used when we want to retrieve records that have matching keys on the probe side.
+    for (HashPartition partition : partitions) {
+      for (VectorContainer batch : partition.getInMemoryBatches()) {
+        hyperContainer.addBatch(batch);
+      }
+      partition.releaseInMemoryBatches();
+    }
+    hashTable.updateIncoming(buildIncoming, probeIncoming);
+  }
+
+  private void insertInMemoryPartitions() throws SchemaChangeException, RetryAfterSpillException {
+    // Holder contains the global index where the key is hashed into using the hash table
+    final IndexPointer htIndex = new IndexPointer();
+
+    for (HashPartition partition : partitions) {
+      if (partition.isSpilled()) {
+        continue;
+      }
+      for (VectorContainer batch : partition.getInMemoryBatches()) {
+        hashTable.updateIncoming(new SimpleRecordBatch(batch, context), probeIncoming);
+        final int currentRecordCount = batch.getRecordCount();
+
+        /* For every new build batch, we store some state in the helper context
+         * Add new state to the helper context
+         */
+        hjHelper.addNewBatch(currentRecordCount);
 
         // For every record in the build batch , hash the key columns
         for (int i = 0; i < currentRecordCount; i++) {
           int hashCode = hashTable.getHashCode(i);
-          try {
-            hashTable.put(i, htIndex, hashCode);
-          } catch (RetryAfterSpillException RE) { throw new OutOfMemoryException("HT put");} // Hash Join can not retry yet
-                        /* Use the global index returned by the hash table, to store
-                         * the current record index and batch index. This will be used
-                         * later when we probe and find a match.
-                         */
+          hashTable.put(i, htIndex, hashCode);
+          /* Use the global index returned by the hash table, to store
+           * the current record index and batch index. This will be used
+           * later when we probe and find a match.
+           */
           hjHelper.setCurrentIndex(htIndex.value, buildBatchIndex, i);
         }
+        // completed processing a batch, increment batch index
+        buildBatchIndex++;
+      }
+    }
+  }
 
-                    /* Completed hashing all records in this batch. Transfer the batch
-                     * to the hyper vector container. Will be used when we want to retrieve
-                     * records that have matching keys on the probe side.
-                     */
-        final RecordBatchData nextBatch = new RecordBatchData(right, oContext.getAllocator());
-        boolean success = false;
-        try {
-          if (hyperContainer == null) {
-            hyperContainer = new ExpandableHyperContainer(nextBatch.getContainer());
-          } else {
-            hyperContainer.addBatch(nextBatch.getContainer());
+  /**
+   * The probe side of the current cycle was exhausted; complete the spilled partitions (remember
+   * them to be read later) and free the memory used in this cycle.
+   */
+  private void completeCycle() {
+    if (partitions != null) {
+      for (HashPartition partition : partitions) {
+        if (partition.isSpilled()) {
+          if (probeSchema != null) {
+            partition.completeProbeSide();
           }
+          HashJoinSpilledPartition sp = new HashJoinSpilledPartition();
+          sp.cycleNum = cycleNum;
+          sp.origPartn = partition.getPartitionNum();
+          sp.buildSpillFile = partition.getBuildSpillFile();
+          sp.buildSpilledBatches = partition.getBuildSpilledBatches();
+          sp.probeSpillFile = partition.getProbeSpillFile();
+          sp.probeSpilledBatches = partition.getProbeSpilledBatches();
+          sp.probeSpilledRows = partition.getProbeSpilledRows();
+          spilledPartitionsList.add(sp);
+          partition.releaseSpillFiles();
+        }
+        partition.close();
+      }
+      partitions = null;
+    }
+    hasSpilledPartitions = false;
+    closeRuntimeFilter();
 
-          // completed processing a batch, increment batch index
-          buildBatchIndex++;
-          success = true;
-        } finally {
-          if (!success) {
-            nextBatch.clear();
-          }
+    if (hashTable != null) {
+      hashTable.reset();
+    }
+    if (hjHelper != null) {
+      hjHelper.clear();
+      hjHelper = null;
+    }
+    if (hyperContainer != null) {
+      hyperContainer.clear();
+      hyperContainer = null;
+    }
+    closeSpilledIncoming();
+
+    stats.setLongStat(Metric.SPILLED_PARTITIONS, numSpilledPartitions);
+    stats.setLongStat(Metric.SPILL_MB, // update stats - total MB spilled
+        (int) Math.round(spillSet.getWriteBytes() / 1024.0D / 1024.0));
+  }
+
+  /**
+   * Complete the current cycle, and then start the next one - by reading back the next spilled
+   * partition (and its probe rows), building its hash table and setting up a new probe.
+   *
+   * @return false if there are no more spilled partitions to process
+   */
+  private boolean startNextCycle() throws SchemaChangeException, ClassTransformationException, IOException {
+    completeCycle();
+
+    while (! spilledPartitionsList.isEmpty()) {
+      final HashJoinSpilledPartition sp = spilledPartitionsList.removeFirst();
+
+      // Without probe rows, an inner or a left join would have no results from this partition
+      if (sp.probeSpilledRows == 0 && (joinType == JoinRelType.INNER || joinType == JoinRelType.LEFT)) {
+        deleteSpillFiles(sp);
+        continue;
+      }
+
+      if (cycleNum == sp.cycleNum) {
+        cycleNum = 1 + sp.cycleNum;
+        stats.setLongStat(Metric.SPILL_CYCLE, cycleNum); // update stats
+        if (cycleNum == 1) { logger.info("Started reading spilled records "); }
+        if (cycleNum == 2) { logger.info("SECONDARY SPILLING "); }
+        if (cycleNum == 3) { logger.warn("TERTIARY SPILLING "); }
+      }
+      logger.debug("Start reading spilled partition {} (prev cycle {}) with {} batches. More {} spilled partitions left.",
+          sp.origPartn, sp.cycleNum, sp.buildSpilledBatches, spilledPartitionsList.size());
+
+      if (! canSpillInCycle() && canSpill) {
+        logger.warn("Hash Join: Used all the bits of the hash value for partitioning; can not spill again in cycle {}." +
+            " Falling back to use unbounded memory", cycleNum);
+        memoryLimit = AbstractBase.MAX_ALLOCATION;
+        allocator.setLimit(AbstractBase.MAX_ALLOCATION);
+      }
+
+      final IterOutcome probeStartState;
+      buildIncoming = new SpilledRecordbatch(sp.buildSpillFile, sp.buildSpilledBatches, context, rightSchema, oContext, spillSet);
+      if (sp.probeSpillFile != null) {
+        probeIncoming = new SpilledRecordbatch(sp.probeSpillFile, sp.probeSpilledBatches, context, probeSchema, oContext, spillSet);
+        probeStartState = IterOutcome.OK;
+      } else { // the probe side had no data
+        probeIncoming = left;
+        probeStartState = IterOutcome.NONE;
+      }
+      hashTable.updateIncoming(buildIncoming, probeIncoming);
+
+      hjHelper = new HashJoinHelper(context, allocator);
+      setupHyperContainer(buildIncoming);
+      createPartitions();
+
+      // Partition the spilled build rows (the first batch was already read)
+      IterOutcome buildUpstream = IterOutcome.OK;
+      while (buildUpstream == IterOutcome.OK) {
+        partitionBuildBatch();
+        for (final VectorWrapper<?> w : buildIncoming) {
+          w.clear();
         }
-        break;
+        buildUpstream = buildIncoming.next();
       }
-      // Get the next record batch
-      rightUpstream = next(HashJoinHelper.RIGHT_INPUT, right);
+      buildHashTable();
+
+      hashJoinProbe = context.getImplementationClass(probeCodeGenerator);
+      hashJoinProbe.setupHashJoinProbe(context, hyperContainer, probeIncoming, probeIncoming.getRecordCount(), this,
+          hashTable, hjHelper, joinType, probeStartState);
+      return true;
     }
+    return false;
+  }
+
+  /**
+   * @return true if each join key has the same type on the probe side (as of the first probe batch) and
+   * on the build side (as of the current build batch), hence the same hash values for the same keys
+   */
+  private boolean runtimeFilterKeysMatch() {
+    if (!isFurtherProcessingRequired(leftUpstream)) {
+      return false;
+    }
+    for (JoinCondition cond : conditions) {
+      if (!(cond.getLeft() instanceof SchemaPath) || !(cond.getRight() instanceof SchemaPath)) {
+        return false;
+      }
+      final TypedFieldId probeId = left.getValueVectorId((SchemaPath) cond.getLeft());
+      final TypedFieldId buildId = buildIncoming.getValueVectorId((SchemaPath) cond.getRight());
+      if (probeId == null || buildId == null
+          || probeId.getFinalType().getMinorType() != buildId.getFinalType().getMinorType()) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Send the runtime filter of the build side keys to the Foreman (once); an empty filter if there are no
+   * build rows, or no filter at all (i.e. no probe row is to be dropped) if the keys do not match or the
+   * filter was not created.
+   *
+   * @param built whether the build side was read (else there is no filter)
+   */
+  private void sendRuntimeFilter(boolean built) {
+    if (popConfig.getRuntimeFilterId() == 0 || runtimeFilterSent) {
+      return;
+    }
+    runtimeFilterSent = true;
+    byte[] content = null;
+    if (built && partitions == null) {
+      final BloomFilter emptyFilter = new BloomFilter(allocator,
+          (int) context.getOptions().getOption(ExecConstants.HASHJOIN_BLOOM_FILTER_MAX_SIZE_VALIDATOR));
+      content = new byte[emptyFilter.getNumBytes()];
+      emptyFilter.close();
+    } else if (built && runtimeFilter != null && runtimeFilterKeysMatch) {
+      content = new byte[runtimeFilter.getNumBytes()];
+      runtimeFilter.getContent().getBytes(0, content);
+    }
+    new RuntimeFilterMessage(context.getHandle(), popConfig.getRuntimeFilterId()).send(
+        executorContext.getController(), executorContext.getForemanEndpoint(),
+        RuntimeFilterMessage.BUILD_SIDE_FILTER, content);
+  }
+
+  private void closeRuntimeFilter() {
+    if (runtimeFilter != null) {
+      runtimeFilter.close();
+      runtimeFilter = null;
+    }
+  }
+
+  private void deleteSpillFiles(HashJoinSpilledPartition sp) {
+    try {
+      if (sp.buildSpillFile != null) {
+        spillSet.delete(sp.buildSpillFile);
+      }
+      if (sp.probeSpillFile != null) {
+        spillSet.delete(sp.probeSpillFile);
+      }
+    } catch (IOException e) {
+      logger.warn("Cleanup: Failed to delete spill files of partition {}", sp.origPartn, e);
+    }
+  }
+
+  /**
+   * Close the build or probe sides read back from spill files (if any); this also deletes these files
+   */
+  private void closeSpilledIncoming() {
+    if (buildIncoming instanceof SpilledRecordbatch) {
+      ((SpilledRecordbatch) buildIncoming).close();
+    }
+    if (probeIncoming instanceof SpilledRecordbatch) {
+      ((SpilledRecordbatch) probeIncoming).close();
+    }
+    buildIncoming = right;
+    probeIncoming = left;
   }
 
   public HashJoinProbe setupHashJoinProbe() throws ClassTransformationException, IOException {
@@ -476,21 +1032,57 @@ public class HashJoinBatch extends AbstractBinaryRecordBatch<HashJoinPOP> {
       }
     }
 
+    probeCodeGenerator = cg;
     final HashJoinProbe hj = context.getImplementationClass(cg);
     return hj;
   }
 
+  /**
+   * Allocate the outgoing vectors for the target number of rows, using the column widths seen
+   * in the incoming batches (when known).
+   */
   private void allocateVectors() {
-    for (final VectorWrapper<?> v : container) {
-      v.getValueVector().allocateNew();
+    final int outputRowCount = batchMemoryManager.getOutputRowCount();
+    for (final VectorWrapper<?> w : container) {
+      final RecordBatchSizer.ColumnSize colSize = batchMemoryManager.getColumnSize(w.getField().getName());
+      if (colSize == null) {
+        // e.g. a build side column renamed in the output
+        w.getValueVector().allocateNew();
+      } else {
+        colSize.allocateVector(w.getValueVector(), outputRowCount);
+      }
     }
   }
 
-  public HashJoinBatch(HashJoinPOP popConfig, FragmentContext context,
+  /**
+   * Number of rows to put in each outgoing batch (based on the configured output batch size)
+   * @return the target row count
+   */
+  public int getTargetOutputCount() {
+    return batchMemoryManager.getOutputRowCount();
+  }
+
+  /**
+   * Called by the probe when a new probe side batch arrives; adjusts the target row count
+   * of the outgoing batch being filled to the width of the new batch.
+   *
+   * @param outputPosition number of rows already in the current outgoing batch
+   * @return the target row count for the current outgoing batch
+   */
+  public int updateProbeBatchSizing(int outputPosition) {
+    // Rows read back from a spilled partition have the widths already seen
+    if (probeIncoming != left || left.getRecordCount() == 0) {
+      return batchMemoryManager.getOutputRowCount();
+    }
+    return batchMemoryManager.update(JoinBatchMemoryManager.LEFT_INDEX, outputPosition);
+  }
+
+  public HashJoinBatch(HashJoinPOP popConfig, ExecutorFragmentContext context,
       RecordBatch left, /*Probe side record batch*/
       RecordBatch right /*Build side record batch*/
   ) throws OutOfMemoryException {
     super(popConfig, context, true, left, right);
+    executorContext = context;
     joinType = popConfig.getJoinType();
     conditions = popConfig.getConditions();
 
@@ -499,6 +1091,39 @@ public class HashJoinBatch extends AbstractBinaryRecordBatch<HashJoinPOP> {
       JoinCondition cond = conditions.get(i);
       comparators.add(JoinUtils.checkAndReturnSupportedJoinComparator(cond));
     }
+
+    allocator = oContext.getAllocator();
+    spillSet = new SpillSet(context, popConfig);
+
+    // Set the memory limit
+    memoryLimit = allocator.getLimit();
+    // Optional configured memory limit, typically used only for testing.
+    final long configLimit = context.getOptions().getOption(ExecConstants.HASHJOIN_MAX_MEMORY_VALIDATOR);
+    if (configLimit > 0) {
+      logger.warn("Memory limit was changed to {}", configLimit);
+      memoryLimit = Math.min(memoryLimit, configLimit);
+      allocator.setLimit(memoryLimit); // enforce at the allocator
+    }
+    numPartitions = (int) context.getOptions().getOption(ExecConstants.HASHJOIN_NUM_PARTITIONS_VALIDATOR);
+    recordsPerBatch = (int) context.getOptions().getOption(ExecConstants.HASHJOIN_NUM_ROWS_IN_BATCH_VALIDATOR);
+
+    final int configOutputBatchSize = (int) context.getOptions().getOption(ExecConstants.OUTPUT_BATCH_SIZE_VALIDATOR);
+    batchMemoryManager = new JoinBatchMemoryManager(configOutputBatchSize, left, right);
+  }
+
+  private void updateBatchSizingStats() {
+    stats.setLongStat(Metric.LEFT_AVG_INPUT_ROW_BYTES,
+        batchMemoryManager.getAvgInputRowWidth(JoinBatchMemoryManager.LEFT_INDEX));
+    stats.setLongStat(Metric.RIGHT_AVG_INPUT_ROW_BYTES,
+        batchMemoryManager.getAvgInputRowWidth(JoinBatchMemoryManager.RIGHT_INDEX));
+    stats.setLongStat(Metric.OUTPUT_BATCH_COUNT, batchMemoryManager.getNumOutgoingBatches());
+    stats.setLongStat(Metric.AVG_OUTPUT_BATCH_BYTES, batchMemoryManager.getAvgOutputBatchSize());
+    stats.setLongStat(Metric.AVG_OUTPUT_ROW_BYTES, batchMemoryManager.getAvgOutputRowWidth());
+    stats.setLongStat(Metric.OUTPUT_RECORD_COUNT, batchMemoryManager.getTotalOutputRecords());
+
+    logger.debug("output: batch count : {}, avg batch bytes : {},  avg row bytes : {}, record count : {}",
+        batchMemoryManager.getNumOutgoingBatches(), batchMemoryManager.getAvgOutputBatchSize(),
+        batchMemoryManager.getAvgOutputRowWidth(), batchMemoryManager.getTotalOutputRecords());
   }
 
   private void updateStats(HashTable htable) {
@@ -510,6 +1135,11 @@ public class HashJoinBatch extends AbstractBinaryRecordBatch<HashJoinPOP> {
     stats.setLongStat(Metric.NUM_ENTRIES, htStats.numEntries);
     stats.setLongStat(Metric.NUM_RESIZING, htStats.numResizing);
     stats.setLongStat(Metric.RESIZING_TIME_MS, htStats.resizingTime);
+    stats.setLongStat(Metric.NUM_LOOKUPS, htStats.numLookups);
+    stats.setLongStat(Metric.TOTAL_PROBE_LENGTH, htStats.probeLength);
+    stats.setLongStat(Metric.MAX_PROBE_LENGTH, htStats.maxProbeLength);
+    stats.setLongStat(Metric.SPILLED_PARTITIONS, numSpilledPartitions);
+    stats.setLongStat(Metric.SPILL_CYCLE, cycleNum);
   }
 
   @Override
@@ -532,6 +1162,24 @@ public class HashJoinBatch extends AbstractBinaryRecordBatch<HashJoinPOP> {
     if (hashTable != null) {
       hashTable.clear();
     }
+
+    // Free the partitions, and delete all the spill files not yet processed
+    if (partitions != null) {
+      for (HashPartition partition : partitions) {
+        partition.close();
+      }
+    }
+    for (HashJoinSpilledPartition sp : spilledPartitionsList) {
+      deleteSpillFiles(sp);
+    }
+    closeSpilledIncoming();
+    // The probe side scans are not to wait for a filter that will never come
+    sendRuntimeFilter(false);
+    closeRuntimeFilter();
+    spillSet.close();
+    updateBatchSizingStats();
+    stats.setLongStat(Metric.RUNTIME_FILTERED_ROWS, runtimeFilteredRows);
+
     super.close();
   }
 
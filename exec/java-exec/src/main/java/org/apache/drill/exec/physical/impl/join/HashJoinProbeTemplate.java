@@ -31,6 +31,8 @@ import org.apache.drill.exec.record.RecordBatch;
 import org.apache.drill.exec.record.RecordBatch.IterOutcome;
 import org.apache.drill.exec.record.VectorContainer;
 import org.apache.drill.exec.record.VectorWrapper;
+import org.apache.drill.exec.vector.ValueVector;
+import org.apache.drill.exec.work.filter.BloomFilter;
 import org.apache.calcite.rel.core.JoinRelType;
 
 public abstract class HashJoinProbeTemplate implements HashJoinProbe {
@@ -47,7 +49,8 @@ public abstract class HashJoinProbeTemplate implements HashJoinProbe {
 
   private HashJoinBatch outgoingJoinBatch = null;
 
-  private static final int TARGET_RECORDS_PER_BATCH = 4000;
+  // Number of rows to project into the current outgoing batch (set by the outgoing batch memory sizing)
+  private int targetOutputRecords;
 
   /* Helper class
    * Maintains linked list of build side records with the same key
@@ -80,6 +83,15 @@ public abstract class HashJoinProbeTemplate implements HashJoinProbe {
   // For outer or right joins, this is a list of unmatched records that needs to be projected
   private List<Integer> unmatchedBuildIndexes = null;
 
+  // When some build partitions were spilled, the matching probe rows are spilled as well
+  private boolean hasSpilledPartitions;
+
+  // The vectors of the current probe batch (used to copy probe rows into spilled partitions)
+  private ValueVector[] probeVectors;
+
+  // When set, probe rows whose key is not in this filter have no match on the build side, and need not be spilled
+  private BloomFilter runtimeFilter;
+
   @Override
   public void setupHashJoinProbe(FragmentContext context, VectorContainer buildBatch, RecordBatch probeBatch,
                                  int probeRecordCount, HashJoinBatch outgoing, HashTable hashTable,
@@ -93,6 +105,8 @@ public abstract class HashJoinProbeTemplate implements HashJoinProbe {
     this.hashTable = hashTable;
     this.hjHelper = hjHelper;
     this.outgoingJoinBatch = outgoing;
+    this.hasSpilledPartitions = outgoing.hasSpilledPartitions();
+    this.runtimeFilter = outgoing.getRuntimeFilter();
 
     if (leftStartState == IterOutcome.NONE) {
       if (joinRelType == JoinRelType.RIGHT) {
@@ -103,10 +117,21 @@ public abstract class HashJoinProbeTemplate implements HashJoinProbe {
     }
 
     doSetup(context, buildBatch, probeBatch, outgoing);
+    if (hasSpilledPartitions && leftStartState != IterOutcome.NONE) {
+      updateProbeVectors();
+    }
+  }
+
+  private void updateProbeVectors() {
+    probeVectors = new ValueVector[probeSchema.getFieldCount()];
+    int i = 0;
+    for (VectorWrapper<?> wrapper : probeBatch) {
+      probeVectors[i++] = wrapper.getValueVector();
+    }
   }
 
   public void executeProjectRightPhase() {
-    while (outputRecords < TARGET_RECORDS_PER_BATCH && recordsProcessed < recordsToProcess) {
+    while (outputRecords < targetOutputRecords && recordsProcessed < recordsToProcess) {
       projectBuildRecord(unmatchedBuildIndexes.get(recordsProcessed), outputRecords);
       recordsProcessed++;
       outputRecords++;
@@ -114,7 +139,7 @@ public abstract class HashJoinProbeTemplate implements HashJoinProbe {
   }
 
   public void executeProbePhase() throws SchemaChangeException {
-    while (outputRecords < TARGET_RECORDS_PER_BATCH && probeState != ProbeState.DONE && probeState != ProbeState.PROJECT_RIGHT) {
+    while (outputRecords < targetOutputRecords && probeState != ProbeState.DONE && probeState != ProbeState.PROJECT_RIGHT) {
 
       // Check if we have processed all records in this batch we need to invoke next
       if (recordsProcessed == recordsToProcess) {
@@ -155,6 +180,10 @@ public abstract class HashJoinProbeTemplate implements HashJoinProbe {
           case OK:
             recordsToProcess = probeBatch.getRecordCount();
             recordsProcessed = 0;
+            if (hasSpilledPartitions) {
+              updateProbeVectors();
+            }
+            targetOutputRecords = outgoingJoinBatch.updateProbeBatchSizing(outputRecords);
             // If we received an empty batch do nothing
             if (recordsToProcess == 0) {
               continue;
@@ -165,7 +194,22 @@ public abstract class HashJoinProbeTemplate implements HashJoinProbe {
 
       // Check if we need to drain the next row in the probe side
       if (getNextRecord) {
-        if (hashTable != null && !hashTable.isEmpty()) {
+        if (hasSpilledPartitions) {
+          int hashCode = hashTable.getProbeHashCode(recordsProcessed);
+          HashPartition partition = outgoingJoinBatch.getPartition(hashCode);
+          if (partition.isSpilled()) {
+            if (runtimeFilter != null && !runtimeFilter.find(BloomFilter.hash64(hashCode))) {
+              // No build row has this key, and an unmatched probe row is not projected (inner or right join)
+              outgoingJoinBatch.runtimeFilteredRow();
+            } else {
+              // The matching build rows (if any) were spilled; keep this row to be joined with them later
+              partition.appendProbeRow(probeVectors, recordsProcessed);
+            }
+            recordsProcessed++;
+            continue;
+          }
+          probeIndex = hashTable.probeForKey(recordsProcessed, hashCode);
+        } else if (hashTable != null && !hashTable.isEmpty()) {
           probeIndex = hashTable.containsKey(recordsProcessed, true);
         }
 
@@ -230,6 +274,7 @@ public abstract class HashJoinProbeTemplate implements HashJoinProbe {
   public int probeAndProject() throws SchemaChangeException, ClassTransformationException, IOException {
 
     outputRecords = 0;
+    targetOutputRecords = outgoingJoinBatch.getTargetOutputCount();
 
     if (probeState == ProbeState.PROBE_PROJECT) {
       executeProbePhase();
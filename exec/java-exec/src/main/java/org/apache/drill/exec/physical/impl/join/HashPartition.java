@@ -0,0 +1,389 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.drill.exec.physical.impl.join;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.drill.common.exceptions.UserException;
+import org.apache.drill.exec.cache.VectorSerializer.Writer;
+import org.apache.drill.exec.expr.TypeHelper;
+import org.apache.drill.exec.memory.BufferAllocator;
+import org.apache.drill.exec.physical.impl.spill.SpillSet;
+import org.apache.drill.exec.record.BatchSchema;
+import org.apache.drill.exec.record.MaterializedField;
+import org.apache.drill.exec.record.VectorContainer;
+import org.apache.drill.exec.record.VectorWrapper;
+import org.apache.drill.exec.vector.AllocationHelper;
+import org.apache.drill.exec.vector.ValueVector;
+
+/**
+ * One partition of the build side of the hash join (and, once spilled, of the probe side too).
+ * <p>
+ * The build rows that hash into this partition are copied into small batches of
+ * {@link org.apache.drill.exec.ExecConstants#HASHJOIN_NUM_ROWS_IN_BATCH_KEY} rows. As long as the
+ * partition is in memory, the completed batches are kept in a list and are later inserted into the
+ * hash table. Once the partition is spilled, these batches (and any further build batch) are written
+ * to a spill file, and the matching probe rows are copied and written to a second spill file, so the
+ * pair can be joined later on, in a following cycle.
+ */
+public class HashPartition {
+  private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(HashPartition.class);
+
+  // Width used to pre-allocate variable width columns; copyEntry() grows them as needed
+  private static final int VARIABLE_WIDTH_VALUE_SIZE = 50;
+
+  private final BufferAllocator allocator;
+  private final SpillSet spillSet;
+  private final int partitionNum;
+  private final int cycleNum;
+  private final int recordsPerBatch;
+  private final BatchSchema buildSchema;
+  private final BatchSchema probeSchema; // null when the probe side has no schema
+
+  // Completed (full) build batches, while this partition is in memory
+  private List<VectorContainer> buildBatches = new ArrayList<>();
+  private final Side build = new Side();
+  private final Side probe = new Side();
+  private long numInMemoryRows;
+  private boolean isSpilled;
+  private boolean isBuildComplete;
+
+  /**
+   * The state of one side (build or probe) of this partition: the batch currently being filled,
+   * and the spill file (if any) this side is written into.
+   */
+  private static class Side {
+    private VectorContainer currentBatch;
+    private ValueVector[] currentVectors;
+    private int currentRows;
+    private String spillFile;
+    private Writer writer;
+    private int spilledBatches;
+    private long spilledRows;
+  }
+
+  public HashPartition(BufferAllocator allocator, SpillSet spillSet, int partitionNum, int cycleNum,
+                       int recordsPerBatch, BatchSchema buildSchema, BatchSchema probeSchema) {
+    this.allocator = allocator;
+    this.spillSet = spillSet;
+    this.partitionNum = partitionNum;
+    this.cycleNum = cycleNum;
+    this.recordsPerBatch = recordsPerBatch;
+    this.buildSchema = buildSchema;
+    this.probeSchema = probeSchema;
+  }
+
+  /**
+   * Copy a build row into this partition.
+   *
+   * @param from the vectors of the incoming build batch
+   * @param row the index of the row within the incoming build batch
+   * @return true if this row completed a batch (i.e., more memory may be in use)
+   */
+  public boolean appendBuildRow(ValueVector[] from, int row) {
+    if (build.currentBatch == null) {
+      allocateBatch(build, buildSchema);
+    }
+    appendRow(build, from, row);
+    if (! isSpilled) {
+      numInMemoryRows++;
+    }
+    if (build.currentRows == recordsPerBatch) {
+      completeBuildBatch();
+      return true;
+    }
+    return false;
+  }
+
+  /**
+   * Copy a probe row into this (spilled) partition; the row would be joined
+   * once this partition is read back.
+   *
+   * @param from the vectors of the incoming probe batch
+   * @param row the index of the row within the incoming probe batch
+   */
+  public void appendProbeRow(ValueVector[] from, int row) {
+    assert isSpilled;
+    if (probe.currentBatch == null) {
+      allocateBatch(probe, probeSchema);
+    }
+    appendRow(probe, from, row);
+    if (probe.currentRows == recordsPerBatch) {
+      completeBatch(probe, true);
+    }
+  }
+
+  /**
+   * Complete the build batch currently being filled; either keep it in memory, or write it
+   * to the spill file when this partition was spilled.
+   */
+  public void completeBuildBatch() {
+    if (isSpilled) {
+      completeBatch(build, true);
+      return;
+    }
+    VectorContainer batch = completeBatch(build, false);
+    if (batch != null) {
+      buildBatches.add(batch);
+    }
+  }
+
+  /**
+   * Spill this partition: Write all its in-memory build batches to a new spill file
+   * (and release their memory). From now on, further build batches are written there too.
+   */
+  public void spill() {
+    if (isSpilled) {
+      return;
+    }
+    isSpilled = true;
+    numInMemoryRows = 0;
+    openSpillFile(build, "build");
+    for (VectorContainer batch : buildBatches) {
+      writeBatch(build, batch);
+    }
+    buildBatches.clear();
+    if (isBuildComplete) {
+      closeWriter(build); // spilled while building the hash table
+    }
+    // else - the rows of the current (partially filled) build batch would be written once that batch completes
+  }
+
+  /**
+   * Called when the build side is done; flush the (partially filled) current build batch,
+   * and close the build side spill file (if spilled).
+   */
+  public void completeBuildSide() {
+    completeBuildBatch();
+    isBuildComplete = true;
+    if (isSpilled) {
+      closeWriter(build);
+    }
+  }
+
+  /**
+   * Called when the probe side is done; flush the current probe batch, and close the probe side
+   * spill file. When the probe side schema is known, at least one (maybe empty) batch is always
+   * written, so the schema is available when this partition is read back.
+   */
+  public void completeProbeSide() {
+    assert isSpilled;
+    if (probe.writer == null && probeSchema != null && probe.currentBatch == null) {
+      allocateBatch(probe, probeSchema);
+    }
+    completeBatch(probe, true);
+    closeWriter(probe);
+  }
+
+  public boolean isSpilled() {
+    return isSpilled;
+  }
+
+  public int getPartitionNum() {
+    return partitionNum;
+  }
+
+  public int getCycleNum() {
+    return cycleNum;
+  }
+
+  public long getNumInMemoryRows() {
+    return numInMemoryRows;
+  }
+
+  public int getNumInMemoryBatches() {
+    return buildBatches.size();
+  }
+
+  /**
+   * @return the completed in-memory build batches (only valid once the build side is complete)
+   */
+  public List<VectorContainer> getInMemoryBatches() {
+    return buildBatches;
+  }
+
+  /**
+   * The in-memory build batches were handed to a different owner (e.g., the hyper container
+   * of the hash join), so forget about them without freeing their memory.
+   */
+  public void releaseInMemoryBatches() {
+    buildBatches = new ArrayList<>();
+    numInMemoryRows = 0;
+  }
+
+  public String getBuildSpillFile() {
+    return build.spillFile;
+  }
+
+  public int getBuildSpilledBatches() {
+    return build.spilledBatches;
+  }
+
+  public String getProbeSpillFile() {
+    return probe.spillFile;
+  }
+
+  public int getProbeSpilledBatches() {
+    return probe.spilledBatches;
+  }
+
+  public long getProbeSpilledRows() {
+    return probe.spilledRows;
+  }
+
+  /**
+   * The spill files were handed over to be read later; do not delete them on close.
+   */
+  public void releaseSpillFiles() {
+    build.spillFile = null;
+    probe.spillFile = null;
+  }
+
+  /**
+   * Free all the memory used by this partition, and delete any spill file not handed over.
+   */
+  public void close() {
+    for (VectorContainer batch : buildBatches) {
+      batch.clear();
+    }
+    buildBatches.clear();
+    closeSide(build);
+    closeSide(probe);
+  }
+
+  private void closeSide(Side side) {
+    if (side.currentBatch != null) {
+      side.currentBatch.clear();
+      side.currentBatch = null;
+      side.currentVectors = null;
+    }
+    try {
+      if (side.writer != null) {
+        spillSet.close(side.writer);
+        side.writer = null;
+      }
+      if (side.spillFile != null) {
+        spillSet.delete(side.spillFile);
+        side.spillFile = null;
+      }
+    } catch (IOException e) {
+      logger.warn("Cleanup: Failed to delete spill file {}", side.spillFile, e);
+    }
+  }
+
+  private void allocateBatch(Side side, BatchSchema schema) {
+    VectorContainer batch = new VectorContainer(allocator);
+    ValueVector[] vectors = new ValueVector[schema.getFieldCount()];
+    boolean success = false;
+    try {
+      int i = 0;
+      for (MaterializedField field : schema) {
+        @SuppressWarnings("resource")
+        ValueVector vv = TypeHelper.getNewVector(field, allocator);
+        batch.add(vv); // add to container before actual allocation (to allow clearing in case of an OOM)
+        AllocationHelper.allocatePrecomputedChildCount(vv, recordsPerBatch, VARIABLE_WIDTH_VALUE_SIZE, recordsPerBatch);
+        vectors[i++] = vv;
+      }
+      batch.buildSchema(BatchSchema.SelectionVectorMode.NONE);
+      success = true;
+    } finally {
+      if (!success) {
+        batch.clear();
+      }
+    }
+    side.currentBatch = batch;
+    side.currentVectors = vectors;
+    side.currentRows = 0;
+  }
+
+  private static void appendRow(Side side, ValueVector[] from, int row) {
+    for (int i = 0; i < from.length; i++) {
+      side.currentVectors[i].copyEntry(side.currentRows, from[i], row);
+    }
+    side.currentRows++;
+  }
+
+  /**
+   * Complete the current batch of the given side (setting the value counts)
+   *
+   * @param spill when true - write the batch to this side's spill file
+   * @return the completed batch, if not spilled (else null)
+   */
+  private VectorContainer completeBatch(Side side, boolean spill) {
+    VectorContainer batch = side.currentBatch;
+    if (batch == null) {
+      return null;
+    }
+    side.currentBatch = null;
+    side.currentVectors = null;
+    for (VectorWrapper<?> w : batch) {
+      w.getValueVector().getMutator().setValueCount(side.currentRows);
+    }
+    batch.setRecordCount(side.currentRows);
+    side.currentRows = 0;
+    if (! spill) {
+      return batch;
+    }
+    if (side.writer == null) {
+      openSpillFile(side, side == build ? "build" : "probe");
+    }
+    writeBatch(side, batch);
+    return null;
+  }
+
+  private void openSpillFile(Side side, String sideName) {
+    side.spillFile = spillSet.getNextSpillFile(String.format("%s_%d_%d", sideName, cycleNum, partitionNum));
+    try {
+      side.writer = spillSet.writer(side.spillFile);
+    } catch (IOException ioe) {
+      throw UserException.resourceError(ioe)
+          .message("Hash Join failed to open spill file: " + side.spillFile)
+          .build(logger);
+    }
+  }
+
+  private void writeBatch(Side side, VectorContainer batch) {
+    side.spilledRows += batch.getRecordCount();
+    try {
+      side.writer.write(batch); // this also releases the memory of the batch
+    } catch (IOException ioe) {
+      throw UserException.dataWriteError(ioe)
+          .message("Hash Join failed to write to spill file: " + side.spillFile)
+          .build(logger);
+    } finally {
+      batch.clear();
+    }
+    side.spilledBatches++;
+  }
+
+  private void closeWriter(Side side) {
+    if (side.writer == null) {
+      return;
+    }
+    try {
+      spillSet.close(side.writer);
+    } catch (IOException ioe) {
+      throw UserException.resourceError(ioe)
+          .message("IO Error while closing spill file: " + side.spillFile)
+          .build(logger);
+    }
+    side.writer = null;
+  }
+}
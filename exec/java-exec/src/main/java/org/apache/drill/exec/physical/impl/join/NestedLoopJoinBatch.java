@@ -29,6 +29,7 @@ import org.apache.drill.common.expression.ErrorCollectorImpl;
 import org.apache.drill.common.expression.LogicalExpression;
 import org.apache.drill.common.types.TypeProtos;
 import org.apache.drill.common.types.Types;
+import org.apache.drill.exec.ExecConstants;
 import org.apache.drill.exec.compile.sig.GeneratorMapping;
 import org.apache.drill.exec.compile.sig.MappingSet;
 import org.apache.drill.exec.exception.ClassTransformationException;
@@ -45,8 +46,10 @@ import org.apache.drill.exec.physical.impl.sort.RecordBatchData;
 import org.apache.drill.exec.record.AbstractBinaryRecordBatch;
 import org.apache.drill.exec.record.BatchSchema;
 import org.apache.drill.exec.record.ExpandableHyperContainer;
+import org.apache.drill.exec.record.JoinBatchMemoryManager;
 import org.apache.drill.exec.record.MaterializedField;
 import org.apache.drill.exec.record.RecordBatch;
+import org.apache.drill.exec.record.RecordBatchSizer;
 import org.apache.drill.exec.record.TypedFieldId;
 import org.apache.drill.exec.record.VectorAccessible;
 import org.apache.drill.exec.record.VectorWrapper;
@@ -65,9 +68,6 @@ import org.apache.drill.exec.vector.complex.AbstractContainerVector;
 public class NestedLoopJoinBatch extends AbstractBinaryRecordBatch<NestedLoopJoinPOP> {
   private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(NestedLoopJoinBatch.class);
 
-  // Maximum number records in the outgoing batch
-  protected static final int MAX_BATCH_SIZE = 4096;
-
   // Input indexes to correctly update the stats
   protected static final int LEFT_INPUT = 0;
   protected static final int RIGHT_INPUT = 1;
@@ -130,6 +130,8 @@ public class NestedLoopJoinBatch extends AbstractBinaryRecordBatch<NestedLoopJoi
     super(popConfig, context, left, right);
     Preconditions.checkNotNull(left);
     Preconditions.checkNotNull(right);
+    final int configOutputBatchSize = (int) context.getOptions().getOption(ExecConstants.OUTPUT_BATCH_SIZE_VALIDATOR);
+    batchMemoryManager = new JoinBatchMemoryManager(configOutputBatchSize, left, right);
   }
 
   /**
@@ -162,6 +164,7 @@ public class NestedLoopJoinBatch extends AbstractBinaryRecordBatch<NestedLoopJoi
             }
             // fall through
           case OK:
+            updateRightBatchSizing();
             addBatchToHyperContainer(right);
             break;
           case OUT_OF_MEMORY:
@@ -192,6 +195,7 @@ public class NestedLoopJoinBatch extends AbstractBinaryRecordBatch<NestedLoopJoi
     // Set the record count in the container
     container.setRecordCount(outputRecords);
     container.buildSchema(BatchSchema.SelectionVectorMode.NONE);
+    batchMemoryManager.updateOutgoingStats(outputRecords);
 
     logger.debug("Number of records emitted: " + outputRecords);
 
@@ -332,11 +336,46 @@ public class NestedLoopJoinBatch extends AbstractBinaryRecordBatch<NestedLoopJoi
   }
 
   /**
-   * Simple method to allocate space for all the vectors in the container.
+   * Simple method to allocate space for all the vectors in the container, sized for the
+   * target number of output rows.
    */
   private void allocateVectors() {
+    final int outputRowCount = batchMemoryManager.getOutputRowCount();
     for (final VectorWrapper<?> vw : container) {
-      AllocationHelper.allocateNew(vw.getValueVector(), MAX_BATCH_SIZE);
+      final RecordBatchSizer.ColumnSize colSize = batchMemoryManager.getColumnSize(vw.getField().getName());
+      if (colSize == null) {
+        AllocationHelper.allocateNew(vw.getValueVector(), outputRowCount);
+      } else {
+        colSize.allocateVector(vw.getValueVector(), outputRowCount);
+      }
+    }
+  }
+
+  /**
+   * Number of rows to put in each outgoing batch (based on the configured output batch size)
+   * @return the target row count
+   */
+  public int getTargetOutputCount() {
+    return batchMemoryManager.getOutputRowCount();
+  }
+
+  /**
+   * Called by the worker when a new left batch arrives; adjusts the target row count of the
+   * outgoing batch being filled to the width of the new batch.
+   *
+   * @param outputPosition number of rows already in the current outgoing batch
+   * @return the target row count for the current outgoing batch
+   */
+  public int updateLeftBatchSizing(int outputPosition) {
+    if (left.getRecordCount() == 0) {
+      return batchMemoryManager.getOutputRowCount();
+    }
+    return batchMemoryManager.update(JoinBatchMemoryManager.LEFT_INDEX, outputPosition);
+  }
+
+  private void updateRightBatchSizing() {
+    if (right.getRecordCount() > 0) {
+      batchMemoryManager.update(JoinBatchMemoryManager.RIGHT_INDEX, 0);
     }
   }
 
@@ -377,6 +416,7 @@ public class NestedLoopJoinBatch extends AbstractBinaryRecordBatch<NestedLoopJoi
           }
         }
         rightSchema = right.getSchema();
+        updateRightBatchSizing();
         addBatchToHyperContainer(right);
       }
 
@@ -387,6 +427,9 @@ public class NestedLoopJoinBatch extends AbstractBinaryRecordBatch<NestedLoopJoi
       if (leftUpstream != IterOutcome.NONE && left.getRecordCount() == 0) {
         leftUpstream = next(LEFT_INPUT, left);
       }
+      if (leftUpstream != IterOutcome.NONE) {
+        updateLeftBatchSizing(0);
+      }
 
       container.setRecordCount(0);
       container.buildSchema(BatchSchema.SelectionVectorMode.NONE);
@@ -414,6 +457,7 @@ public class NestedLoopJoinBatch extends AbstractBinaryRecordBatch<NestedLoopJoi
   public void close() {
     rightContainer.clear();
     rightCounts.clear();
+    updateBatchMemoryManagerStats();
     super.close();
   }
 
@@ -47,6 +47,9 @@ public abstract class NestedLoopJoinTemplate implements NestedLoopJoin {
   // Output batch
   private NestedLoopJoinBatch outgoing = null;
 
+  // Number of records to produce in the current output batch (set by the output batch memory sizing)
+  private int targetOutputRecords;
+
   // Iteration status tracker
   private IterationStatusTracker tracker = new IterationStatusTracker();
 
@@ -82,13 +85,14 @@ public abstract class NestedLoopJoinTemplate implements NestedLoopJoin {
    */
   public int outputRecords(JoinRelType joinType) {
     int outputIndex = 0;
+    targetOutputRecords = outgoing.getTargetOutputCount();
     while (leftRecordCount != 0) {
       outputIndex = populateOutgoingBatch(joinType, outputIndex);
-      if (outputIndex >= NestedLoopJoinBatch.MAX_BATCH_SIZE) {
+      if (outputIndex >= targetOutputRecords) {
         break;
       }
       // reset state and get next left batch
-      resetAndGetNextLeft();
+      resetAndGetNextLeft(outputIndex);
     }
     return outputIndex;
   }
@@ -128,7 +132,7 @@ public abstract class NestedLoopJoinTemplate implements NestedLoopJoin {
             outputIndex++;
             rightRecordMatched = true;
 
-            if (outputIndex >= NestedLoopJoinBatch.MAX_BATCH_SIZE) {
+            if (outputIndex >= targetOutputRecords) {
               nextRightRecordToProcess++;
 
               // no more space left in the batch, stop processing
@@ -143,7 +147,7 @@ public abstract class NestedLoopJoinTemplate implements NestedLoopJoin {
         // project records from the left side only, records from right will be null
         emitLeft(nextLeftRecordToProcess, outputIndex);
         outputIndex++;
-        if (outputIndex >= NestedLoopJoinBatch.MAX_BATCH_SIZE) {
+        if (outputIndex >= targetOutputRecords) {
           nextLeftRecordToProcess++;
 
           // no more space left in the batch, stop processing
@@ -164,8 +168,10 @@ public abstract class NestedLoopJoinTemplate implements NestedLoopJoin {
    * Utility method to clear the memory in the left input batch once we have completed processing it.
    * Resets some internal state which indicates the next records to process in the left and right batches,
    * also fetches the next left input batch.
+   *
+   * @param outputIndex number of records already in the output batch
    */
-  private void resetAndGetNextLeft() {
+  private void resetAndGetNextLeft(int outputIndex) {
     for (VectorWrapper<?> vw : left) {
       vw.getValueVector().clear();
     }
@@ -182,6 +188,7 @@ public abstract class NestedLoopJoinTemplate implements NestedLoopJoin {
         break;
       case OK:
         leftRecordCount = left.getRecordCount();
+        targetOutputRecords = outgoing.updateLeftBatchSizing(outputIndex);
         break;
     }
   }
@@ -18,10 +18,8 @@
 package org.apache.drill.exec.physical.impl.mergereceiver;
 
 import java.io.IOException;
-import java.util.Comparator;
 import java.util.Iterator;
 import java.util.List;
-import java.util.PriorityQueue;
 import java.util.ArrayList;
 
 import org.apache.calcite.rel.RelFieldCollation.Direction;
@@ -46,6 +44,7 @@ import org.apache.drill.exec.ops.FragmentContext;
 import org.apache.drill.exec.ops.MetricDef;
 import org.apache.drill.exec.physical.MinorFragmentEndpoint;
 import org.apache.drill.exec.physical.config.MergingReceiverPOP;
+import org.apache.drill.exec.physical.impl.sort.LoserTree;
 import org.apache.drill.exec.proto.BitControl.FinishedReceiver;
 import org.apache.drill.exec.proto.BitData;
 import org.apache.drill.exec.proto.ExecProtos.FragmentHandle;
@@ -85,6 +84,7 @@ import com.sun.codemodel.JExpr;
 
 
 import io.netty.buffer.ByteBuf;
+import io.netty.buffer.DrillBuf;
 
 /**
  * The MergingRecordBatch merges pre-sorted record batches from remote senders.
@@ -109,7 +109,8 @@ public class MergingRecordBatch extends AbstractRecordBatch<MergingReceiverPOP>
   private int senderCount = 0;
   private RawFragmentBatch[] incomingBatches;
   private int[] batchOffsets;
-  private PriorityQueue <Node> pqueue;
+  private int[] recordIndexes;
+  private LoserTree tree;
   private RawFragmentBatch[] tempBatchHolder;
   private long[] inputCounts;
   private long[] outputCounts;
@@ -286,7 +287,7 @@ public class MergingRecordBatch extends AbstractRecordBatch<MergingReceiverPOP>
         for (int i = 0; i < p; i++) {
           RawFragmentBatch rawBatch = rawBatches.get(i);
           if (rawBatch == null || rawBatch.getHeader().getDef().getFieldCount() == 0) {
-            rawBatch = new RawFragmentBatch(dummyHeader, null, null);
+            rawBatch = new RawFragmentBatch(dummyHeader, (DrillBuf) null, null);
             rawBatches.set(i, rawBatch);
           }
         }
@@ -310,7 +311,7 @@ public class MergingRecordBatch extends AbstractRecordBatch<MergingReceiverPOP>
         // initialize the incoming batchLoaders
         final UserBitShared.RecordBatchDef rbd = batch.getHeader().getDef();
         try {
-          batchLoaders[i].load(rbd, batch.getBody());
+          batchLoaders[i].load(rbd, batch.getBuffers());
           // TODO:  Clean:  DRILL-2933:  That load(...) no longer throws
           // SchemaChangeException, so check/clean catch clause below.
         } catch(final SchemaChangeException e) {
@@ -355,12 +356,14 @@ public class MergingRecordBatch extends AbstractRecordBatch<MergingReceiverPOP>
         return IterOutcome.STOP;
       }
 
-      // allocate the priority queue with the generated comparator
-      this.pqueue = new PriorityQueue<>(fragProviders.length, new Comparator<Node>() {
+      // allocate the loser tree with the generated comparator; each sender
+      // competes with the current record of its current batch
+      recordIndexes = new int[senderCount];
+      tree = new LoserTree(senderCount, new LoserTree.SourceComparator() {
         @Override
-        public int compare(final Node node1, final Node node2) {
-          final int leftIndex = (node1.batchId << 16) + node1.valueIndex;
-          final int rightIndex = (node2.batchId << 16) + node2.valueIndex;
+        public int compareSources(final int leftSource, final int rightSource) {
+          final int leftIndex = (leftSource << 16) + recordIndexes[leftSource];
+          final int rightIndex = (rightSource << 16) + recordIndexes[rightSource];
           try {
             return merger.doEval(leftIndex, rightIndex);
           } catch (SchemaChangeException e) {
@@ -369,14 +372,14 @@ public class MergingRecordBatch extends AbstractRecordBatch<MergingReceiverPOP>
         }
       });
 
-      // populate the priority queue with initial values
+      // populate the loser tree with initial values
       for (int b = 0; b < senderCount; ++b) {
         while (batchLoaders[b] != null && batchLoaders[b].getRecordCount() == 0) {
           try {
             final RawFragmentBatch batch = getNext(b);
             incomingBatches[b] = batch;
             if (batch != null) {
-              batchLoaders[b].load(batch.getHeader().getDef(), batch.getBody());
+              batchLoaders[b].load(batch.getHeader().getDef(), batch.getBuffers());
             } else {
               batchLoaders[b].clear();
               batchLoaders[b] = null;
@@ -389,35 +392,36 @@ public class MergingRecordBatch extends AbstractRecordBatch<MergingReceiverPOP>
             return IterOutcome.STOP;
           }
         }
-        if (batchLoaders[b] != null) {
-          pqueue.add(new Node(b, 0));
+        if (batchLoaders[b] == null) {
+          tree.exhaust(b);
         }
       }
+      tree.build();
 
       hasRun = true;
       // finished lazy initialization
     }
 
     while (outgoingBatchHasSpace) {
-      // poll next value from pq and copy to outgoing batch
-      final Node node = pqueue.poll();
-      if (node == null) {
+      // take the winning record of the loser tree and copy to outgoing batch
+      final int batchId = tree.winner();
+      if (batchId < 0) {
         break;
       }
-      outgoingBatchHasSpace = copyRecordToOutgoingBatch(node);
+      outgoingBatchHasSpace = copyRecordToOutgoingBatch(batchId);
 
-      if (node.valueIndex == batchLoaders[node.batchId].getRecordCount() - 1) {
+      if (recordIndexes[batchId] == batchLoaders[batchId].getRecordCount() - 1) {
         // reached the end of an incoming record batch
         RawFragmentBatch nextBatch;
         try {
-          nextBatch = getNext(node.batchId);
+          nextBatch = getNext(batchId);
 
           while (nextBatch != null && nextBatch.getHeader().getDef().getRecordCount() == 0) {
-            nextBatch = getNext(node.batchId);
+            nextBatch = getNext(batchId);
           }
 
-          assert nextBatch != null || inputCounts[node.batchId] == outputCounts[node.batchId]
-              : String.format("Stream %d input count: %d output count %d", node.batchId, inputCounts[node.batchId], outputCounts[node.batchId]);
+          assert nextBatch != null || inputCounts[batchId] == outputCounts[batchId]
+              : String.format("Stream %d input count: %d output count %d", batchId, inputCounts[batchId], outputCounts[batchId]);
           if (nextBatch == null && !context.getExecutorState().shouldContinue()) {
             return IterOutcome.STOP;
           }
@@ -426,10 +430,12 @@ public class MergingRecordBatch extends AbstractRecordBatch<MergingReceiverPOP>
           return IterOutcome.STOP;
         }
 
-        incomingBatches[node.batchId] = nextBatch;
+        incomingBatches[batchId] = nextBatch;
 
         if (nextBatch == null) {
-          // batch is empty
+          // batch is empty; the exhausted sender loses every match from now on
+          tree.exhaust(batchId);
+          tree.replay();
           boolean allBatchesEmpty = true;
 
           for (final RawFragmentBatch batch : incomingBatches) {
@@ -445,32 +451,33 @@ public class MergingRecordBatch extends AbstractRecordBatch<MergingReceiverPOP>
             break;
           }
 
-          // this batch is empty; since the pqueue no longer references this batch, it will be
+          // this batch is empty; since the loser tree no longer selects this batch, it will be
           // ignored in subsequent iterations.
           continue;
         }
 
-        final UserBitShared.RecordBatchDef rbd = incomingBatches[node.batchId].getHeader().getDef();
+        final UserBitShared.RecordBatchDef rbd = incomingBatches[batchId].getHeader().getDef();
         try {
-          batchLoaders[node.batchId].load(rbd, incomingBatches[node.batchId].getBody());
+          batchLoaders[batchId].load(rbd, incomingBatches[batchId].getBuffers());
           // TODO:  Clean:  DRILL-2933:  That load(...) no longer throws
           // SchemaChangeException, so check/clean catch clause below.
         } catch(final SchemaChangeException ex) {
           context.getExecutorState().fail(ex);
           return IterOutcome.STOP;
         }
-        incomingBatches[node.batchId].release();
-        batchOffsets[node.batchId] = 0;
+        incomingBatches[batchId].release();
+        batchOffsets[batchId] = 0;
 
-        // add front value from batch[x] to priority queue
-        if (batchLoaders[node.batchId].getRecordCount() != 0) {
-          node.valueIndex = 0;
-          pqueue.add(node);
+        // front value from batch[x] competes in the loser tree
+        recordIndexes[batchId] = 0;
+        if (batchLoaders[batchId].getRecordCount() == 0) {
+          tree.exhaust(batchId);
         }
+        tree.replay();
 
       } else {
-        node.valueIndex++;
-        pqueue.add(node);
+        recordIndexes[batchId]++;
+        tree.replay();
       }
 
     }
@@ -480,7 +487,7 @@ public class MergingRecordBatch extends AbstractRecordBatch<MergingReceiverPOP>
       vw.getValueVector().getMutator().setValueCount(outgoingPosition);
     }
 
-    if (pqueue.isEmpty()) {
+    if (tree.winner() < 0) {
       state = BatchState.DONE;
     }
 
@@ -775,17 +782,17 @@ public class MergingRecordBatch extends AbstractRecordBatch<MergingReceiverPOP>
   }
 
   /**
-   * Copy the record referenced by the supplied node to the next output position.
+   * Copy the current record of the supplied incoming batch to the next output position.
    * Side Effect: increments outgoing position if successful
    *
-   * @param node Reference to the next record to copy from the incoming batches
+   * @param batchId the incoming batch holding the next record to copy
    */
-  private boolean copyRecordToOutgoingBatch(final Node node) {
+  private boolean copyRecordToOutgoingBatch(final int batchId) {
     assert outgoingPosition < OUTGOING_BATCH_SIZE
         : String.format("Outgoing position %d must be less than bath size %d", outgoingPosition, OUTGOING_BATCH_SIZE);
-    assert ++outputCounts[node.batchId] <= inputCounts[node.batchId]
-        : String.format("Stream %d input count: %d output count %d", node.batchId, inputCounts[node.batchId], outputCounts[node.batchId]);
-    final int inIndex = (node.batchId << 16) + node.valueIndex;
+    assert ++outputCounts[batchId] <= inputCounts[batchId]
+        : String.format("Stream %d input count: %d output count %d", batchId, inputCounts[batchId], outputCounts[batchId]);
+    final int inIndex = (batchId << 16) + recordIndexes[batchId];
     try {
       merger.doCopy(inIndex, outgoingPosition);
     } catch (SchemaChangeException e) {
@@ -798,19 +805,6 @@ public class MergingRecordBatch extends AbstractRecordBatch<MergingReceiverPOP>
     return true;
   }
 
-  /**
-   * A Node contains a reference to a single value in a specific incoming batch.  It is used
-   * as a wrapper for the priority queue.
-   */
-  public class Node {
-    public int batchId;      // incoming batch
-    public int valueIndex;   // value within the batch
-    Node(final int batchId, final int valueIndex) {
-      this.batchId = batchId;
-      this.valueIndex = valueIndex;
-    }
-  }
-
   @Override
   public void close() {
     outgoingContainer.clear();
@@ -91,7 +91,10 @@ public class PartitionSenderRootExec extends BaseRootExec {
     N_RECEIVERS,
     BYTES_SENT,
     SENDING_THREADS_COUNT,
-    COST;
+    COST,
+    BYTES_BEFORE_COMPRESSION,
+    BYTES_AFTER_COMPRESSION,
+    DEFERRED_BATCHES;
 
     @Override
     public int metricId() {
@@ -17,13 +17,18 @@
  */
 package org.apache.drill.exec.physical.impl.partitionsender;
 
+import io.netty.buffer.ByteBuf;
+
 import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
 import java.util.Iterator;
 import java.util.List;
 
 import javax.inject.Named;
 
 import org.apache.drill.common.expression.SchemaPath;
+import org.apache.drill.exec.ExecConstants;
 import org.apache.drill.exec.compile.sig.RuntimeOverridden;
 import org.apache.drill.exec.exception.SchemaChangeException;
 import org.apache.drill.exec.expr.TypeHelper;
@@ -48,6 +53,7 @@ import org.apache.drill.exec.record.VectorWrapper;
 import org.apache.drill.exec.record.WritableBatch;
 import org.apache.drill.exec.record.selection.SelectionVector2;
 import org.apache.drill.exec.record.selection.SelectionVector4;
+import org.apache.drill.exec.rpc.data.BatchCompressor;
 import org.apache.drill.exec.vector.ValueVector;
 
 import com.google.common.collect.Lists;
@@ -58,6 +64,9 @@ public abstract class PartitionerTemplate implements Partitioner {
   // Always keep the recordCount as (2^x) - 1 to better utilize the memory allocation in ValueVectors
   private static final int DEFAULT_RECORD_BATCH_SIZE = (1 << 10) - 1;
 
+  // Full batches kept for a receiver that has no credit left, while filling the batches of the other receivers
+  private static final int MAX_DEFERRED_BATCHES = 2;
+
   private SelectionVector2 sv2;
   private SelectionVector4 sv4;
   private RecordBatch incoming;
@@ -204,6 +213,11 @@ public abstract class PartitionerTemplate implements Partitioner {
       default:
         throw new UnsupportedOperationException("Unknown selection vector mode: " + svMode.toString());
     }
+
+    // send what the receivers granted credit for since
+    for (OutgoingRecordBatch outgoingBatch : outgoingBatches) {
+      outgoingBatch.sendDeferredBatches(false);
+    }
   }
 
   /**
@@ -249,6 +263,8 @@ public abstract class PartitionerTemplate implements Partitioner {
     private final VectorContainer vectorContainer = new VectorContainer();
     private final int oppositeMinorFragmentId;
     private final OperatorStats stats;
+    private final BatchCompressor compressor;
+    private final Deque<FragmentWritableBatch> deferredBatches = new ArrayDeque<>();
 
     private boolean isLast = false;
     private boolean dropAll = false;
@@ -263,6 +279,9 @@ public abstract class PartitionerTemplate implements Partitioner {
       this.tunnel = tunnel;
       this.stats = stats;
       this.oppositeMinorFragmentId = oppositeMinorFragmentId;
+      this.compressor = new BatchCompressor(allocator,
+          BatchCompressor.Mode.fromOption(context.getOptions().getString(ExecConstants.DATA_COMPRESSION_KEY)),
+          stats, Metric.BYTES_BEFORE_COMPRESSION, Metric.BYTES_AFTER_COMPRESSION);
     }
 
     protected void copy(int inIndex) throws IOException {
@@ -302,6 +321,7 @@ public abstract class PartitionerTemplate implements Partitioner {
 
         // Reset the count to 0 and use existing buffers for exhausting input where receiver of this batch is terminated
         recordCount = 0;
+        releaseDeferredBatches();
         return;
       }
       final FragmentHandle handle = context.getHandle();
@@ -333,13 +353,27 @@ public abstract class PartitionerTemplate implements Partitioner {
           operator.getOppositeMajorFragmentId(),
           oppositeMinorFragmentId,
           getWritableBatch());
+      if (compressor.isEnabled() && tunnel.isCompressionSupported()) {
+        writableBatch = compressor.compress(writableBatch);
+      }
 
       updateStats(writableBatch);
-      stats.startWait();
-      try {
-        tunnel.sendRecordBatch(writableBatch);
-      } finally {
-        stats.stopWait();
+      sendDeferredBatches(false);
+      if (!isLastBatch && deferredBatches.size() < MAX_DEFERRED_BATCHES
+          && (!deferredBatches.isEmpty()
+              || (tunnel.grantsCredit(oppositeMinorFragmentId) && !tunnel.hasCredit(oppositeMinorFragmentId)))) {
+        // the receiver has no credit left; rather than waiting for it, go on filling the batches of the other receivers.
+        // Receivers that grant no credit share the tunnel's limit, so the batches of the others would wait as well
+        deferredBatches.add(writableBatch);
+        stats.addLongStat(Metric.DEFERRED_BATCHES, 1);
+      } else {
+        stats.startWait();
+        try {
+          sendDeferredBatches(true);
+          tunnel.sendRecordBatch(writableBatch);
+        } finally {
+          stats.stopWait();
+        }
       }
 
       // If the current batch is the last batch, then set a flag to ignore any requests to flush the data
@@ -359,6 +393,25 @@ public abstract class PartitionerTemplate implements Partitioner {
       }
     }
 
+    /**
+     * Send the batches deferred for lack of credit, in order.
+     *
+     * @param wait whether to wait for the receiver to grant credit, or stop at the first batch it has none for
+     */
+    protected void sendDeferredBatches(boolean wait) {
+      while (!deferredBatches.isEmpty() && (wait || tunnel.hasCredit(oppositeMinorFragmentId))) {
+        tunnel.sendRecordBatch(deferredBatches.poll());
+      }
+    }
+
+    private void releaseDeferredBatches() {
+      while (!deferredBatches.isEmpty()) {
+        for (ByteBuf buffer : deferredBatches.poll().getBuffers()) {
+          buffer.release();
+        }
+      }
+    }
+
     private void allocateOutgoingRecordBatch() {
       for (VectorWrapper<?> v : vectorContainer) {
         v.getValueVector().allocateNew();
@@ -446,6 +499,7 @@ public abstract class PartitionerTemplate implements Partitioner {
     }
 
     public void clear(){
+      releaseDeferredBatches();
       vectorContainer.clear();
     }
 
@@ -37,6 +37,7 @@ import org.apache.drill.common.expression.fn.CastFunctions;
 import org.apache.drill.common.logical.data.NamedExpression;
 import org.apache.drill.common.types.TypeProtos.MinorType;
 import org.apache.drill.common.types.Types;
+import org.apache.drill.exec.ExecConstants;
 import org.apache.drill.exec.exception.ClassTransformationException;
 import org.apache.drill.exec.exception.OutOfMemoryException;
 import org.apache.drill.exec.exception.SchemaChangeException;
@@ -48,12 +49,15 @@ import org.apache.drill.exec.expr.ExpressionTreeMaterializer;
 import org.apache.drill.exec.expr.ValueVectorReadExpression;
 import org.apache.drill.exec.expr.ValueVectorWriteExpression;
 import org.apache.drill.exec.ops.FragmentContext;
+import org.apache.drill.exec.ops.MetricDef;
 import org.apache.drill.exec.physical.config.Project;
 import org.apache.drill.exec.planner.StarColumnHelper;
 import org.apache.drill.exec.record.AbstractSingleRecordBatch;
 import org.apache.drill.exec.record.BatchSchema.SelectionVectorMode;
 import org.apache.drill.exec.record.MaterializedField;
 import org.apache.drill.exec.record.RecordBatch;
+import org.apache.drill.exec.record.RecordBatchMemoryManager;
+import org.apache.drill.exec.record.RecordBatchSizer;
 import org.apache.drill.exec.record.SimpleRecordBatch;
 import org.apache.drill.exec.record.TransferPair;
 import org.apache.drill.exec.record.TypedFieldId;
@@ -70,6 +74,7 @@ import org.apache.drill.exec.vector.complex.writer.BaseWriter.ComplexWriter;
 import java.io.IOException;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import static org.apache.drill.exec.record.RecordBatch.IterOutcome.EMIT;
 
@@ -86,6 +91,92 @@ public class ProjectRecordBatch extends AbstractSingleRecordBatch<Project> {
   private static final String EMPTY_STRING = "";
   private boolean first = true;
   private boolean wasNone = false; // whether a NONE iter outcome was already seen
+  private final ProjectMemoryManager memoryManager;
+
+  public enum Metric implements MetricDef {
+    INPUT_BATCH_COUNT,
+    AVG_INPUT_BATCH_BYTES,
+    AVG_INPUT_ROW_BYTES,
+    INPUT_RECORD_COUNT,
+    OUTPUT_BATCH_COUNT,
+    AVG_OUTPUT_BATCH_BYTES,
+    AVG_OUTPUT_ROW_BYTES,
+    OUTPUT_RECORD_COUNT;
+
+    @Override
+    public int metricId() {
+      return ordinal();
+    }
+  }
+
+  /**
+   * Sizes the outgoing batches. The width of an outgoing column copied (or transferred) from an
+   * incoming column is the width of that column in the incoming batch; the width of any other
+   * (evaluated) column is taken from the previous outgoing batch, or is the standard width of its
+   * type before the first outgoing batch.
+   */
+  private class ProjectMemoryManager extends RecordBatchMemoryManager {
+
+    // Outgoing column name -> incoming column it is copied (or transferred) from
+    private final Map<String, String> sourceColumns = Maps.newHashMap();
+
+    // Sizes of the outgoing columns
+    private RecordBatchSizer outgoingSizer;
+
+    ProjectMemoryManager(int outputBatchSize) {
+      super(outputBatchSize);
+    }
+
+    void resetSchema() {
+      sourceColumns.clear();
+      outgoingSizer = null;
+    }
+
+    void addSourceColumn(String outputName, String inputName) {
+      sourceColumns.put(outputName, inputName);
+    }
+
+    /**
+     * Learn the widths of the evaluated columns from the outgoing batch just produced.
+     */
+    void updateOutgoingSizes() {
+      if (recordCount > 0 && sourceColumns.size() < container.getNumberOfColumns()) {
+        outgoingSizer = new RecordBatchSizer(ProjectRecordBatch.this);
+      }
+    }
+
+    @Override
+    public void update() {
+      setRecordBatchSizer(new RecordBatchSizer(incoming));
+      updateIncomingStats();
+      if (outgoingSizer == null) {
+        // No outgoing rows yet, the (empty) outgoing columns give the standard widths
+        outgoingSizer = new RecordBatchSizer(ProjectRecordBatch.this);
+      }
+
+      int rowWidth = 0;
+      for (final VectorWrapper<?> w : container) {
+        final String name = w.getField().getName();
+        final String source = sourceColumns.get(name);
+        RecordBatchSizer.ColumnSize colSize = source == null ? null : getRecordBatchSizer().getColumn(source);
+        if (colSize == null) {
+          colSize = outgoingSizer.getColumn(name);
+        }
+        if (colSize != null) {
+          rowWidth += colSize.getAllocSizePerEntry();
+        }
+      }
+      // Keep the previous row count if nothing is known about the row width
+      if (rowWidth == 0) {
+        return;
+      }
+      setOutputRowCount(getOutputBatchSize(), rowWidth);
+      setOutgoingRowWidth(rowWidth);
+
+      logger.debug("output batch size : {}, avg outgoing rowWidth : {}, output rowCount : {}",
+        getOutputBatchSize(), getOutgoingRowWidth(), getOutputRowCount());
+    }
+  }
 
   private class ClassifierResult {
     public boolean isStar = false;
@@ -108,6 +199,8 @@ public class ProjectRecordBatch extends AbstractSingleRecordBatch<Project> {
 
   public ProjectRecordBatch(final Project pop, final RecordBatch incoming, final FragmentContext context) throws OutOfMemoryException {
     super(pop, context, incoming);
+    final int configuredBatchSize = (int) context.getOptions().getOption(ExecConstants.OUTPUT_BATCH_SIZE_VALIDATOR);
+    memoryManager = new ProjectMemoryManager(configuredBatchSize);
   }
 
   @Override
@@ -204,14 +297,16 @@ public class ProjectRecordBatch extends AbstractSingleRecordBatch<Project> {
     }
 
     first = false;
+    memoryManager.update();
     container.zeroVectors();
 
-    if (!doAlloc(incomingRecordCount)) {
+    final int recordsToProcess = Math.min(incomingRecordCount, memoryManager.getOutputRowCount());
+    if (!doAlloc(recordsToProcess)) {
       outOfMemory = true;
       return IterOutcome.OUT_OF_MEMORY;
     }
 
-    final int outputRecords = projector.projectRecords(0, incomingRecordCount, 0);
+    final int outputRecords = projector.projectRecords(0, recordsToProcess, 0);
     if (outputRecords < incomingRecordCount) {
       setValueCount(outputRecords);
       hasRemainder = true;
@@ -229,6 +324,8 @@ public class ProjectRecordBatch extends AbstractSingleRecordBatch<Project> {
     if (complexWriters != null) {
       container.buildSchema(SelectionVectorMode.NONE);
     }
+    memoryManager.updateOutgoingStats(recordCount);
+    memoryManager.updateOutgoingSizes();
 
     // Get the final outcome based on hasRemainder since that will determine if all the incoming records were
     // consumed in current output batch or not
@@ -237,11 +334,12 @@ public class ProjectRecordBatch extends AbstractSingleRecordBatch<Project> {
 
   private void handleRemainder() {
     final int remainingRecordCount = incoming.getRecordCount() - remainderIndex;
-    if (!doAlloc(remainingRecordCount)) {
+    final int recordsToProcess = Math.min(remainingRecordCount, memoryManager.getOutputRowCount());
+    if (!doAlloc(recordsToProcess)) {
       outOfMemory = true;
       return;
     }
-    final int projRecords = projector.projectRecords(remainderIndex, remainingRecordCount, 0);
+    final int projRecords = projector.projectRecords(remainderIndex, recordsToProcess, 0);
     if (projRecords < remainingRecordCount) {
       setValueCount(projRecords);
       this.recordCount = projRecords;
@@ -260,6 +358,8 @@ public class ProjectRecordBatch extends AbstractSingleRecordBatch<Project> {
     if (complexWriters != null) {
       container.buildSchema(SelectionVectorMode.NONE);
     }
+    memoryManager.updateOutgoingStats(recordCount);
+    memoryManager.updateOutgoingSizes();
   }
 
   public void addComplexWriter(final ComplexWriter writer) {
@@ -328,6 +428,7 @@ public class ProjectRecordBatch extends AbstractSingleRecordBatch<Project> {
       }
     }
     this.allocationVectors = Lists.newArrayList();
+    memoryManager.resetSchema();
 
     if (complexWriters != null) {
       container.clear();
@@ -386,6 +487,7 @@ public class ProjectRecordBatch extends AbstractSingleRecordBatch<Project> {
                 vvIn.getField().getType()), callBack);
               final TransferPair tp = vvIn.makeTransferPair(vvOut);
               transfers.add(tp);
+              memoryManager.addSourceColumn(vvOut.getField().getName(), vvIn.getField().getName());
             }
           } else if (value != null && value > 1) { // subsequent wildcards should do a copy of incoming valuevectors
             int k = 0;
@@ -412,6 +514,7 @@ public class ProjectRecordBatch extends AbstractSingleRecordBatch<Project> {
               final MaterializedField outputField = MaterializedField.create(name, expr.getMajorType());
               final ValueVector vv = container.addOrGet(outputField, callBack);
               allocationVectors.add(vv);
+              memoryManager.addSourceColumn(name, vvIn.getField().getName());
               final TypedFieldId fid = container.getValueVectorId(SchemaPath.getSimplePath(outputField.getName()));
               final ValueVectorWriteExpression write = new ValueVectorWriteExpression(fid, expr, true);
               final HoldingContainer hc = cg.addExpr(write, ClassGenerator.BlkCreateMode.TRUE_IF_BOUND);
@@ -468,6 +571,7 @@ public class ProjectRecordBatch extends AbstractSingleRecordBatch<Project> {
         final TransferPair tp = vvIn.makeTransferPair(vvOut);
         transfers.add(tp);
         transferFieldIds.add(vectorRead.getFieldId().getFieldIds()[0]);
+        memoryManager.addSourceColumn(vvOut.getField().getName(), vvIn.getField().getName());
       } else if (expr instanceof DrillFuncHolderExpr &&
           ((DrillFuncHolderExpr) expr).getHolder().isComplexWriterFuncHolder()) {
         // Need to process ComplexWriter function evaluation.
@@ -505,6 +609,7 @@ public class ProjectRecordBatch extends AbstractSingleRecordBatch<Project> {
             final TypedFieldId id = vectorRead.getFieldId();
             final ValueVector vvIn = incomingBatch.getValueAccessorById(id.getIntermediateClass(), id.getFieldIds()).getValueVector();
             vvIn.makeTransferPair(vector);
+            memoryManager.addSourceColumn(outputField.getName(), vvIn.getField().getName());
           }
         }
         logger.debug("Added eval for project expression.");
@@ -799,6 +904,31 @@ public class ProjectRecordBatch extends AbstractSingleRecordBatch<Project> {
     }
   }
 
+  private void updateStats() {
+    stats.setLongStat(Metric.INPUT_BATCH_COUNT, memoryManager.getNumIncomingBatches());
+    stats.setLongStat(Metric.AVG_INPUT_BATCH_BYTES, memoryManager.getAvgInputBatchSize());
+    stats.setLongStat(Metric.AVG_INPUT_ROW_BYTES, memoryManager.getAvgInputRowWidth());
+    stats.setLongStat(Metric.INPUT_RECORD_COUNT, memoryManager.getTotalInputRecords());
+    stats.setLongStat(Metric.OUTPUT_BATCH_COUNT, memoryManager.getNumOutgoingBatches());
+    stats.setLongStat(Metric.AVG_OUTPUT_BATCH_BYTES, memoryManager.getAvgOutputBatchSize());
+    stats.setLongStat(Metric.AVG_OUTPUT_ROW_BYTES, memoryManager.getAvgOutputRowWidth());
+    stats.setLongStat(Metric.OUTPUT_RECORD_COUNT, memoryManager.getTotalOutputRecords());
+
+    logger.debug("input: batch count : {}, avg batch bytes : {},  avg row bytes : {}, record count : {}",
+      memoryManager.getNumIncomingBatches(), memoryManager.getAvgInputBatchSize(),
+      memoryManager.getAvgInputRowWidth(), memoryManager.getTotalInputRecords());
+
+    logger.debug("output: batch count : {}, avg batch bytes : {},  avg row bytes : {}, record count : {}",
+      memoryManager.getNumOutgoingBatches(), memoryManager.getAvgOutputBatchSize(),
+      memoryManager.getAvgOutputRowWidth(), memoryManager.getTotalOutputRecords());
+  }
+
+  @Override
+  public void close() {
+    updateStats();
+    super.close();
+  }
+
   /**
    * Handle Null input specially when Project operator is for query output. This happens when input return 0 batch
    * (returns a FAST NONE directly).
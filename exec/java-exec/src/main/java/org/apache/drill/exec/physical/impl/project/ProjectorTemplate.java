@@ -38,6 +38,7 @@ public abstract class ProjectorTemplate implements Projector {
   private SelectionVector2 vector2;
   private SelectionVector4 vector4;
   private SelectionVectorMode svMode;
+  private RecordBatch incoming;
 
   public ProjectorTemplate() {
   }
@@ -50,7 +51,7 @@ public abstract class ProjectorTemplate implements Projector {
 
     case TWO_BYTE:
       final int count = recordCount;
-      for (int i = 0; i < count; i++, firstOutputIndex++) {
+      for (int i = startIndex; i < startIndex + count; i++, firstOutputIndex++) {
         try {
           doEval(vector2.getIndex(i), firstOutputIndex);
         } catch (SchemaChangeException e) {
@@ -69,7 +70,8 @@ public abstract class ProjectorTemplate implements Projector {
           throw new UnsupportedOperationException(e);
         }
       }
-      if (i < startIndex + recordCount || startIndex > 0) {
+      // When only a part of the incoming batch fits in the outgoing batch, transfer only that part
+      if (startIndex > 0 || recordCount < incoming.getRecordCount()) {
         for (TransferPair t : transfers) {
           t.splitAndTransfer(startIndex, i - startIndex);
         }
@@ -88,6 +90,7 @@ public abstract class ProjectorTemplate implements Projector {
   @Override
   public final void setup(FragmentContext context, RecordBatch incoming, RecordBatch outgoing, List<TransferPair> transfers)  throws SchemaChangeException{
 
+    this.incoming = incoming;
     this.svMode = incoming.getSchema().getSelectionVectorMode();
     switch (svMode) {
     case FOUR_BYTE:
@@ -0,0 +1,144 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.drill.exec.physical.impl.sort;
+
+/**
+ * Tournament ("loser") tree used to merge k sorted sources. Each internal
+ * node of the tree holds the source that lost the match played at that
+ * node; the overall winner is kept separately. After the caller consumes
+ * the winner's current record and advances (or exhausts) that source,
+ * {@link #replay()} replays only the matches on the path from the winner's
+ * leaf to the root: log2(k) comparisons per record, versus up to
+ * 2 * log2(k) for a binary heap.
+ * <p>
+ * The tree works purely with source indexes held in primitive arrays; it
+ * allocates nothing per record. The caller tracks the current record of
+ * each source and compares two sources by their current records through
+ * a {@link SourceComparator}. Exhausted sources lose every match and are
+ * never passed to the comparator.
+ */
+
+public class LoserTree {
+
+  /**
+   * Compares the current records of two sources.
+   */
+
+  public interface SourceComparator {
+
+    /**
+     * @return negative, zero or positive as the current record of the left
+     * source sorts before, with or after that of the right source
+     */
+
+    int compareSources(int leftSource, int rightSource);
+  }
+
+  private final int sourceCount;
+  private final SourceComparator comparator;
+
+  /**
+   * Loser of the match at each internal node, indexed from 1. The leaf of
+   * source s is at position s + sourceCount.
+   */
+
+  private final int[] losers;
+  private final boolean[] exhausted;
+  private int winner;
+
+  public LoserTree(int sourceCount, SourceComparator comparator) {
+    this.sourceCount = sourceCount;
+    this.comparator = comparator;
+    losers = new int[Math.max(sourceCount, 1)];
+    exhausted = new boolean[sourceCount];
+  }
+
+  /**
+   * Mark a source as having no more records. Call {@link #build()} or
+   * {@link #replay()} afterwards to update the winner.
+   */
+
+  public void exhaust(int source) {
+    exhausted[source] = true;
+  }
+
+  /**
+   * Play the full tournament. Call once the current record of every
+   * source is known and empty sources are marked as exhausted.
+   */
+
+  public void build() {
+    if (sourceCount == 0) {
+      winner = -1;
+      return;
+    }
+    final int[] winners = new int[2 * sourceCount];
+    for (int s = 0; s < sourceCount; s++) {
+      winners[s + sourceCount] = s;
+    }
+    for (int node = sourceCount - 1; node > 0; node--) {
+      final int left = winners[2 * node];
+      final int right = winners[2 * node + 1];
+      if (beats(left, right)) {
+        winners[node] = left;
+        losers[node] = right;
+      } else {
+        winners[node] = right;
+        losers[node] = left;
+      }
+    }
+    winner = winners[1];
+  }
+
+  /**
+   * Replay the matches of the previous winner after its source has been
+   * advanced to its next record or exhausted.
+   */
+
+  public void replay() {
+    int candidate = winner;
+    for (int node = (candidate + sourceCount) >>> 1; node > 0; node >>>= 1) {
+      final int loser = losers[node];
+      if (beats(loser, candidate)) {
+        losers[node] = candidate;
+        candidate = loser;
+      }
+    }
+    winner = candidate;
+  }
+
+  /**
+   * @return the source whose current record sorts first, or -1 if all
+   * sources are exhausted
+   */
+
+  public int winner() {
+    return winner < 0 || exhausted[winner] ? -1 : winner;
+  }
+
+  private boolean beats(int left, int right) {
+    if (exhausted[left]) {
+      return false;
+    }
+    if (exhausted[right]) {
+      return true;
+    }
+    final int result = comparator.compareSources(left, right);
+    return result < 0 || result == 0 && left < right;
+  }
+}
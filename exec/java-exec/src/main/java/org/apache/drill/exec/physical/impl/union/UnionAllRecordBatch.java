@@ -27,6 +27,7 @@ import org.apache.drill.common.expression.LogicalExpression;
 import org.apache.drill.common.expression.SchemaPath;
 import org.apache.drill.common.types.TypeProtos;
 import org.apache.drill.common.types.Types;
+import org.apache.drill.exec.ExecConstants;
 import org.apache.drill.exec.exception.ClassTransformationException;
 import org.apache.drill.exec.exception.OutOfMemoryException;
 import org.apache.drill.exec.exception.SchemaChangeException;
@@ -38,8 +39,11 @@ import org.apache.drill.exec.ops.FragmentContext;
 import org.apache.drill.exec.physical.config.UnionAll;
 import org.apache.drill.exec.record.AbstractBinaryRecordBatch;
 import org.apache.drill.exec.record.BatchSchema;
+import org.apache.drill.exec.record.JoinBatchMemoryManager;
 import org.apache.drill.exec.record.MaterializedField;
 import org.apache.drill.exec.record.RecordBatch;
+import org.apache.drill.exec.record.RecordBatchMemoryManager;
+import org.apache.drill.exec.record.RecordBatchSizer;
 import org.apache.drill.exec.record.TransferPair;
 import org.apache.drill.exec.record.TypedFieldId;
 import org.apache.drill.exec.record.VectorAccessibleUtilities;
@@ -66,8 +70,44 @@ public class UnionAllRecordBatch extends AbstractBinaryRecordBatch<UnionAll> {
   private int recordCount = 0;
   private UnionInputIterator unionInputIterator;
 
+  // The input batch being unioned; when it does not fit in one outgoing batch, the rest
+  // of its rows (starting at remainderIndex) go to the following outgoing batches
+  private RecordBatch currentBatch;
+  private boolean hasRemainder;
+  private int remainderIndex;
+
   public UnionAllRecordBatch(UnionAll config, List<RecordBatch> children, FragmentContext context) throws OutOfMemoryException {
     super(config, context, true, children.get(0), children.get(1));
+    final int configOutputBatchSize = (int) context.getOptions().getOption(ExecConstants.OUTPUT_BATCH_SIZE_VALIDATOR);
+    batchMemoryManager = new UnionAllMemoryManager(configOutputBatchSize);
+  }
+
+  /**
+   * The outgoing rows are the rows of one of the inputs at a time, so the number of rows in
+   * an outgoing batch is based on the row width of the input batch currently being unioned.
+   */
+  private class UnionAllMemoryManager extends RecordBatchMemoryManager {
+
+    UnionAllMemoryManager(int outputBatchSize) {
+      super(2, outputBatchSize);
+    }
+
+    @Override
+    public void update(int inputIndex) {
+      final RecordBatch batch = inputIndex == JoinBatchMemoryManager.LEFT_INDEX ? left : right;
+      setRecordBatchSizer(inputIndex, new RecordBatchSizer(batch));
+      updateIncomingStats(inputIndex);
+
+      final int rowWidth = getRecordBatchSizer(inputIndex).getRowAllocSize();
+      if (rowWidth == 0) {
+        return;
+      }
+      setOutputRowCount(getOutputBatchSize(), rowWidth);
+      setOutgoingRowWidth(rowWidth);
+
+      logger.debug("output batch size : {}, avg outgoing rowWidth : {}, output rowCount : {}",
+          getOutputBatchSize(), getOutgoingRowWidth(), getOutputRowCount());
+    }
   }
 
   @Override
@@ -100,6 +140,9 @@ public class UnionAllRecordBatch extends AbstractBinaryRecordBatch<UnionAll> {
 
   @Override
   public IterOutcome innerNext() {
+    if (hasRemainder) {
+      return unionBatch();
+    }
     try {
       while (true) {
         if (!unionInputIterator.hasNext()) {
@@ -150,10 +193,31 @@ public class UnionAllRecordBatch extends AbstractBinaryRecordBatch<UnionAll> {
       createUnionAller(inputBatch);
     }
 
+    batchMemoryManager.update(inputBatch == left ? JoinBatchMemoryManager.LEFT_INDEX : JoinBatchMemoryManager.RIGHT_INDEX);
+    currentBatch = inputBatch;
+    remainderIndex = 0;
+    return unionBatch();
+  }
+
+  /**
+   * Union the next rows of the current input batch, as many as fit in the outgoing batch.
+   */
+  private IterOutcome unionBatch() {
+    final int inputRecordCount = currentBatch.getRecordCount();
+    final int count = Math.min(inputRecordCount - remainderIndex, batchMemoryManager.getOutputRowCount());
+
     container.zeroVectors();
-    VectorUtil.allocateVectors(allocationVectors, inputBatch.getRecordCount());
-    recordCount = unionall.unionRecords(0, inputBatch.getRecordCount(), 0);
+    VectorUtil.allocateVectors(allocationVectors, count);
+    recordCount = unionall.unionRecords(remainderIndex, count, 0);
     VectorUtil.setValueCount(allocationVectors, recordCount);
+    batchMemoryManager.updateOutgoingStats(recordCount);
+
+    remainderIndex += recordCount;
+    hasRemainder = remainderIndex < inputRecordCount;
+    if (!hasRemainder && recordCount < inputRecordCount) {
+      // The input batch was split; release what is left of it
+      VectorAccessibleUtilities.clear(currentBatch);
+    }
 
     if (callBack.getSchemaChangedAndReset()) {
       return IterOutcome.OK_NEW_SCHEMA;
@@ -162,6 +226,12 @@ public class UnionAllRecordBatch extends AbstractBinaryRecordBatch<UnionAll> {
     }
   }
 
+  @Override
+  public void close() {
+    updateBatchMemoryManagerStats();
+    super.close();
+  }
+
   private void createUnionAller(RecordBatch inputBatch) throws ClassTransformationException, IOException, SchemaChangeException {
     transfers.clear();
     allocationVectors.clear();
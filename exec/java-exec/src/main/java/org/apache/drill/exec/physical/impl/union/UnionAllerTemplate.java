@@ -30,6 +30,7 @@ public abstract class UnionAllerTemplate implements UnionAller {
   static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(UnionAllerTemplate.class);
 
   private ImmutableList<TransferPair> transfers;
+  private RecordBatch incoming;
 
   @Override
   public final int unionRecords(int startIndex, final int recordCount, int firstOutputIndex) {
@@ -41,8 +42,15 @@ public abstract class UnionAllerTemplate implements UnionAller {
       throw new UnsupportedOperationException(e);
     }
 
-    for (TransferPair t : transfers) {
-      t.transfer();
+    if (startIndex == 0 && recordCount == incoming.getRecordCount()) {
+      for (TransferPair t : transfers) {
+        t.transfer();
+      }
+    } else {
+      // Only a part of the incoming batch fits in the outgoing batch
+      for (TransferPair t : transfers) {
+        t.splitAndTransfer(startIndex, recordCount);
+      }
     }
     return recordCount;
   }
@@ -50,6 +58,7 @@ public abstract class UnionAllerTemplate implements UnionAller {
   @Override
   public final void setup(FragmentContext context, RecordBatch incoming, RecordBatch outgoing, List<TransferPair> transfers) throws SchemaChangeException{
     this.transfers = ImmutableList.copyOf(transfers);
+    this.incoming = incoming;
     doSetup(context, incoming, outgoing);
   }
 
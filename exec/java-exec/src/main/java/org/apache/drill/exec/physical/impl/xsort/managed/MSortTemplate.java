@@ -50,6 +50,7 @@ public abstract class MSortTemplate implements MSorter, IndexedSortable {
 
   private Queue<Integer> runStarts = Queues.newLinkedBlockingQueue();
   private FragmentContext context;
+  private BufferAllocator allocator;
 
   /**
    * Controls the maximum size of batches exposed to downstream
@@ -63,6 +64,7 @@ public abstract class MSortTemplate implements MSorter, IndexedSortable {
     Preconditions.checkNotNull(vector4);
     this.vector4 = vector4.createNewWrapperCurrent();
     this.context = context;
+    this.allocator = allocator;
     vector4.clear();
     doSetup(context, hyperBatch, null);
 
@@ -196,6 +198,22 @@ public abstract class MSortTemplate implements MSorter, IndexedSortable {
     aux.clear();
   }
 
+  @Override
+  public boolean sortNormalized(final NormalizedKeySorter keySorter) {
+
+    // A single run is already sorted.
+
+    if (runStarts.size() < 2 || ! keySorter.sort(context, allocator, vector4, this)) {
+      return false;
+    }
+    @SuppressWarnings("resource")
+    final SelectionVector4 tmp = vector4.createNewWrapperCurrent(desiredRecordBatchCount);
+    vector4.clear();
+    vector4 = tmp;
+    aux.clear();
+    return true;
+  }
+
   private void copyRun(final int start, final int end) {
     for (int i = start; i < end; i++) {
       aux.set(i, vector4.get(i));
@@ -221,6 +239,16 @@ public abstract class MSortTemplate implements MSorter, IndexedSortable {
     }
   }
 
+  @Override
+  public int compareRecords(final int leftRecord, final int rightRecord) {
+    compares++;
+    try {
+      return doEval(leftRecord, rightRecord);
+    } catch (SchemaChangeException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
   @Override
   public void clear() {
     if (vector4 != null) {
@@ -33,6 +33,26 @@ public interface MSorter {
   public void setup(FragmentContext context, BufferAllocator allocator, SelectionVector4 vector4,
                     VectorContainer hyperBatch, int outputBatchSize, int desiredBatchSize) throws SchemaChangeException;
   public void sort();
+
+  /**
+   * Sort using normalized keys rather than by merging the sorted runs.
+   *
+   * @param keySorter normalized key sorter built for the hyper-batch
+   * @return true if sorted, false if the caller must use {@link #sort()}
+   */
+
+  public boolean sortNormalized(NormalizedKeySorter keySorter);
+
+  /**
+   * Compare two records using the generated comparison.
+   *
+   * @param leftRecord SV4-encoded batch and offset of the left record
+   * @param rightRecord SV4-encoded batch and offset of the right record
+   * @return negative, zero or positive as the left record sorts before,
+   * with or after the right one
+   */
+
+  public int compareRecords(int leftRecord, int rightRecord);
   public SelectionVector4 getSV4();
 
   public static TemplateClassDefinition<MSorter> TEMPLATE_DEFINITION = new TemplateClassDefinition<MSorter>(MSorter.class, MSortTemplate.class);
@@ -65,7 +65,8 @@ import com.sun.codemodel.JExpr;
  * continues until all records from all batches have an entry in the SV4.
  * <p>
  * The actual implementation uses an iterative merge to perform the above
- * efficiently.
+ * efficiently. If enabled, and the sort keys allow, the SV4 is instead sorted
+ * directly using normalized keys; see {@link NormalizedKeySorter}.
  * <p>
  * A sort can only do a single merge. So, we do not attempt to share the
  * generated class; we just generate it internally and discard it at
@@ -86,10 +87,12 @@ public class MergeSortWrapper extends BaseSortWrapper implements SortResults {
   private int batchCount;
   private State state = State.FIRST;
   private final VectorContainer destContainer;
+  private final SortConfig config;
 
-  public MergeSortWrapper(OperatorContext opContext, VectorContainer destContainer) {
+  public MergeSortWrapper(OperatorContext opContext, VectorContainer destContainer, SortConfig config) {
     super(opContext);
     this.destContainer = destContainer;
+    this.config = config;
   }
 
   /**
@@ -132,7 +135,9 @@ public class MergeSortWrapper extends BaseSortWrapper implements SortResults {
 
     // For testing memory-leaks, inject exception after mSorter finishes setup
     context.injectUnchecked(ExternalSortBatch.INTERRUPTION_AFTER_SETUP);
-    mSorter.sort();
+    if (! sortNormalized()) {
+      mSorter.sort();
+    }
 
     // For testing memory-leak purpose, inject exception after mSorter finishes sorting
     context.injectUnchecked(ExternalSortBatch.INTERRUPTION_AFTER_SORT);
@@ -141,6 +146,27 @@ public class MergeSortWrapper extends BaseSortWrapper implements SortResults {
 //    destContainer.buildSchema(SelectionVectorMode.FOUR_BYTE);
   }
 
+  /**
+   * Sort the SV4 using normalized keys, if enabled and if all the sort
+   * keys can be normalized.
+   *
+   * @return true if the SV4 was sorted, false if the generated merge
+   * must be used instead
+   */
+
+  private boolean sortNormalized() {
+    if (! config.useNormalizedKeys()) {
+      return false;
+    }
+    Sort popConfig = context.getOperatorDefn();
+    NormalizedKeySorter sorter = NormalizedKeySorter.create(popConfig.getOrderings(), destContainer,
+        context.getFragmentContext().getFunctionRegistry(), config.normalizedKeyPrefixWidth());
+    if (sorter == null) {
+      return false;
+    }
+    return mSorter.sortNormalized(sorter);
+  }
+
   private MSorter createNewMSorter(List<Ordering> orderings, MappingSet mainMapping, MappingSet leftMapping, MappingSet rightMapping) {
     CodeGenerator<MSorter> cg = CodeGenerator.get(MSorter.TEMPLATE_DEFINITION, context.getFragmentContext().getOptions());
     cg.plainJavaCapable(true);
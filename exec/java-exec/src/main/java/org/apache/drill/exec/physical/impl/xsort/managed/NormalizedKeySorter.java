@@ -0,0 +1,463 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.drill.exec.physical.impl.xsort.managed;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.calcite.rel.RelFieldCollation.Direction;
+import org.apache.drill.common.expression.ErrorCollector;
+import org.apache.drill.common.expression.ErrorCollectorImpl;
+import org.apache.drill.common.expression.LogicalExpression;
+import org.apache.drill.common.logical.data.Order.Ordering;
+import org.apache.drill.common.types.TypeProtos.DataMode;
+import org.apache.drill.common.types.TypeProtos.MajorType;
+import org.apache.drill.common.types.TypeProtos.MinorType;
+import org.apache.drill.exec.exception.OutOfMemoryException;
+import org.apache.drill.exec.expr.ExpressionTreeMaterializer;
+import org.apache.drill.exec.expr.ValueVectorReadExpression;
+import org.apache.drill.exec.expr.fn.FunctionLookupContext;
+import org.apache.drill.exec.memory.BufferAllocator;
+import org.apache.drill.exec.ops.FragmentContext;
+import org.apache.drill.exec.record.TypedFieldId;
+import org.apache.drill.exec.record.VectorContainer;
+import org.apache.drill.exec.record.VectorWrapper;
+import org.apache.drill.exec.record.selection.SelectionVector4;
+import org.apache.drill.exec.vector.BaseDataValueVector;
+import org.apache.drill.exec.vector.BitVector;
+import org.apache.drill.exec.vector.NullableVector;
+import org.apache.drill.exec.vector.UInt4Vector;
+import org.apache.drill.exec.vector.ValueVector;
+import org.apache.drill.exec.vector.VariableWidthVector;
+import org.apache.hadoop.util.IndexedSortable;
+import org.apache.hadoop.util.QuickSort;
+
+import io.netty.buffer.DrillBuf;
+
+/**
+ * Sorts the SV4 built over the in-memory batches of an external sort using
+ * normalized keys rather than by merging the individually sorted batches with
+ * generated comparisons.
+ * <p>
+ * Each sort key is encoded into a fixed-width, byte-comparable form: an
+ * optional null byte (placed according to the null ordering), followed by
+ * the value in big-endian order with the sign bit flipped (integers), the
+ * IEEE sign transform applied (floating point), or the first few bytes of
+ * the value padded with zeros (strings.) The bytes of descending keys are
+ * inverted. The keys of a record are concatenated and followed by the
+ * record's SV4 entry, and the resulting fixed-width entries are stored
+ * contiguously in a direct memory buffer.
+ * <p>
+ * The entries are then sorted with an MSD radix sort that falls back to
+ * quicksort for small ranges. Two entries with identical normalized keys
+ * are equal unless a string key was truncated to its prefix; in that case
+ * the tie is broken with the generated comparison of the {@link MSorter}.
+ * For the same reason, no keys are encoded after the first string key:
+ * the tie breaker compares them as well.
+ * <p>
+ * Only sort keys that are plain references to top-level columns of
+ * supported types can be normalized. For anything else, {@link #create}
+ * returns null and the caller uses the generated merge instead.
+ */
+
+public class NormalizedKeySorter implements IndexedSortable {
+  private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(NormalizedKeySorter.class);
+
+  /**
+   * Ranges smaller than this are sorted by comparison rather than
+   * by another radix pass.
+   */
+
+  private static final int QUICKSORT_THRESHOLD = 64;
+
+  private static final int SV4_WIDTH = 4;
+
+  /**
+   * Encodes one sort key of a record into its normalized form.
+   */
+
+  private static class KeyColumn {
+    private final MinorType type;
+    private final ValueVector[] vectors;
+    private final ValueVector[] values;
+    private final boolean nullable;
+    private final boolean descending;
+    private final boolean nullsHigh;
+    private final int valueWidth;
+
+    public KeyColumn(MinorType type, ValueVector[] vectors, boolean nullable,
+                     boolean descending, boolean nullsHigh, int valueWidth) {
+      this.type = type;
+      this.vectors = vectors;
+      this.nullable = nullable;
+      this.descending = descending;
+      this.nullsHigh = nullsHigh;
+      this.valueWidth = valueWidth;
+      values = new ValueVector[vectors.length];
+      for (int i = 0; i < vectors.length; i++) {
+        values[i] = nullable ? ((NullableVector) vectors[i]).getValuesVector() : vectors[i];
+      }
+    }
+
+    public int width() { return (nullable ? 1 : 0) + valueWidth; }
+
+    /**
+     * Whether equal normalized keys imply equal values. Only strings
+     * longer than the prefix lose information.
+     */
+
+    public boolean isExact() {
+      return type != MinorType.VARCHAR && type != MinorType.VARBINARY;
+    }
+
+    public void encode(int batch, int index, DrillBuf keys, int offset) {
+      int pos = offset;
+      boolean isNull = false;
+      if (nullable) {
+        isNull = vectors[batch].getAccessor().isNull(index);
+        keys.setByte(pos++, isNull == nullsHigh ? 1 : 0);
+      }
+      if (isNull) {
+        keys.setZero(pos, valueWidth);
+      } else {
+        encodeValue(batch, index, keys, pos);
+      }
+      if (descending) {
+        int end = offset + width();
+        for (int i = offset; i < end; i++) {
+          keys.setByte(i, ~keys.getByte(i));
+        }
+      }
+    }
+
+    private void encodeValue(int batch, int index, DrillBuf keys, int pos) {
+      ValueVector vector = values[batch];
+      switch (type) {
+      case BIT:
+        keys.setByte(pos, ((BitVector) vector).getAccessor().get(index));
+        break;
+      case TINYINT:
+        putBigEndian(keys, pos, buffer(vector).getByte(index) ^ 0x80, 1);
+        break;
+      case SMALLINT:
+        putBigEndian(keys, pos, buffer(vector).getShort(index * 2) ^ 0x8000, 2);
+        break;
+      case INT:
+      case TIME:
+        putBigEndian(keys, pos, buffer(vector).getInt(index * 4) ^ Integer.MIN_VALUE, 4);
+        break;
+      case BIGINT:
+      case DATE:
+      case TIMESTAMP:
+        putBigEndian(keys, pos, buffer(vector).getLong(index * 8) ^ Long.MIN_VALUE, 8);
+        break;
+      case FLOAT4: {
+        // Drill compares -0.0 equal to 0.0 and all NaNs equal to each
+        // other and greater than any other value, so canonicalize both.
+        float value = buffer(vector).getFloat(index * 4);
+        int bits = Float.floatToIntBits(value == 0.0f ? 0.0f : value);
+        putBigEndian(keys, pos, bits ^ ((bits >> 31) | Integer.MIN_VALUE), 4);
+        break;
+      }
+      case FLOAT8: {
+        double value = buffer(vector).getDouble(index * 8);
+        long bits = Double.doubleToLongBits(value == 0.0d ? 0.0d : value);
+        putBigEndian(keys, pos, bits ^ ((bits >> 63) | Long.MIN_VALUE), 8);
+        break;
+      }
+      case VARCHAR:
+      case VARBINARY: {
+        UInt4Vector.Accessor offsets = ((VariableWidthVector) vector).getOffsetVector().getAccessor();
+        int start = offsets.get(index);
+        int length = Math.min(offsets.get(index + 1) - start, valueWidth);
+        keys.setBytes(pos, buffer(vector), start, length);
+        keys.setZero(pos + length, valueWidth - length);
+        break;
+      }
+      default:
+        throw new IllegalStateException("Unsupported normalized key type: " + type);
+      }
+    }
+
+    private static DrillBuf buffer(ValueVector vector) {
+      return ((BaseDataValueVector) vector).getBuffer();
+    }
+
+    private static void putBigEndian(DrillBuf keys, int pos, long value, int width) {
+      for (int i = width - 1; i >= 0; i--) {
+        keys.setByte(pos + i, (int) value);
+        value >>>= 8;
+      }
+    }
+  }
+
+  private final List<KeyColumn> columns;
+  private final int keyWidth;
+  private final int entryWidth;
+  private final boolean exact;
+  private MSorter tieBreaker;
+  private DrillBuf keys;
+  private final byte[] swapBuffer;
+  private long tieBreaks;
+
+  private NormalizedKeySorter(List<KeyColumn> columns) {
+    this.columns = columns;
+    int width = 0;
+    boolean allExact = true;
+    for (KeyColumn column : columns) {
+      width += column.width();
+      allExact &= column.isExact();
+    }
+    keyWidth = width;
+    entryWidth = keyWidth + SV4_WIDTH;
+    exact = allExact;
+    swapBuffer = new byte[entryWidth];
+  }
+
+  /**
+   * Build a normalized key sorter for the given sort orderings over the
+   * hyper-batch of in-memory batches.
+   *
+   * @param orderings the sort orderings of the sort operator
+   * @param hyperBatch the hyper-batch indexed by the SV4 to sort
+   * @param registry function registry used to materialize the sort keys
+   * @param prefixWidth number of bytes of each string key to normalize
+   * @return the sorter, or null if any of the sort keys cannot be
+   * normalized
+   */
+
+  public static NormalizedKeySorter create(List<Ordering> orderings, VectorContainer hyperBatch,
+                                           FunctionLookupContext registry, int prefixWidth) {
+    List<KeyColumn> columns = new ArrayList<>();
+    for (Ordering od : orderings) {
+      ErrorCollector collector = new ErrorCollectorImpl();
+      LogicalExpression expr = ExpressionTreeMaterializer.materialize(od.getExpr(), hyperBatch, collector, registry);
+      if (collector.hasErrors() || ! (expr instanceof ValueVectorReadExpression)) {
+        return null;
+      }
+      TypedFieldId fieldId = ((ValueVectorReadExpression) expr).getFieldId();
+      if (fieldId.hasRemainder() || ! fieldId.isHyperReader() || fieldId.getFieldIds().length != 1) {
+        return null;
+      }
+      MajorType type = fieldId.getFinalType();
+      if (type.getMode() == DataMode.REPEATED) {
+        return null;
+      }
+      int valueWidth = valueWidth(type.getMinorType(), prefixWidth);
+      if (valueWidth == 0) {
+        return null;
+      }
+      VectorWrapper<?> wrapper = hyperBatch.getValueAccessorById(ValueVector.class, fieldId.getFieldIds());
+      KeyColumn column = new KeyColumn(type.getMinorType(), wrapper.getValueVectors(),
+          type.getMode() == DataMode.OPTIONAL, od.getDirection() == Direction.DESCENDING,
+          od.nullsSortHigh(), valueWidth);
+      columns.add(column);
+      if (! column.isExact()) {
+
+        // Keys after a truncated string key must not be encoded: two
+        // strings that tie on their prefix are not known to be equal, so
+        // the following keys cannot order them. Such ties, and with them
+        // the remaining keys, are left to the tie breaker.
+
+        break;
+      }
+    }
+    return columns.isEmpty() ? null : new NormalizedKeySorter(columns);
+  }
+
+  /**
+   * Width of the normalized form of a value of the given type, or 0
+   * if the type cannot be normalized.
+   */
+
+  private static int valueWidth(MinorType type, int prefixWidth) {
+    switch (type) {
+    case BIT:
+    case TINYINT:
+      return 1;
+    case SMALLINT:
+      return 2;
+    case INT:
+    case TIME:
+    case FLOAT4:
+      return 4;
+    case BIGINT:
+    case DATE:
+    case TIMESTAMP:
+    case FLOAT8:
+      return 8;
+    case VARCHAR:
+    case VARBINARY:
+      return prefixWidth;
+    default:
+      return 0;
+    }
+  }
+
+  /**
+   * Sort the SV4 in place.
+   *
+   * @param context fragment context, used to detect cancellation
+   * @param allocator allocator for the normalized key buffers
+   * @param sv4 the SV4 to sort
+   * @param tieBreaker generated sorter used to compare records whose
+   * normalized keys are equal but truncated
+   * @return true if the SV4 was sorted, false if memory for the
+   * normalized keys was not available, in which case the SV4 is
+   * unchanged
+   */
+
+  public boolean sort(FragmentContext context, BufferAllocator allocator, SelectionVector4 sv4, MSorter tieBreaker) {
+    final int count = sv4.getTotalCount();
+    if ((long) count * entryWidth > Integer.MAX_VALUE) {
+      return false;
+    }
+    DrillBuf scratch = null;
+    try {
+      keys = allocator.buffer(count * entryWidth);
+      scratch = allocator.buffer(count * entryWidth);
+    } catch (OutOfMemoryException e) {
+      logger.debug("Not enough memory for normalized keys of {} records, using merge sort", count);
+      release(scratch);
+      return false;
+    }
+    this.tieBreaker = tieBreaker;
+    try {
+      encode(sv4, count);
+      if (! context.getExecutorState().shouldContinue()) {
+        return true;
+      }
+      radixSort(scratch, 0, count, 0);
+      for (int i = 0; i < count; i++) {
+        sv4.set(i, keys.getInt(i * entryWidth + keyWidth));
+      }
+      logger.debug("Sorted {} records with {}-byte normalized keys, {} tie breaks",
+          count, keyWidth, tieBreaks);
+      return true;
+    } finally {
+      release(scratch);
+      this.tieBreaker = null;
+    }
+  }
+
+  private void release(DrillBuf scratch) {
+    if (scratch != null) {
+      scratch.release();
+    }
+    if (keys != null) {
+      keys.release();
+      keys = null;
+    }
+  }
+
+  private void encode(SelectionVector4 sv4, int count) {
+    for (int i = 0; i < count; i++) {
+      final int sv = sv4.get(i);
+      final int batch = sv >>> 16;
+      final int index = sv & 65535;
+      int offset = i * entryWidth;
+      for (KeyColumn column : columns) {
+        column.encode(batch, index, keys, offset);
+        offset += column.width();
+      }
+      keys.setInt(offset, sv);
+    }
+  }
+
+  /**
+   * MSD radix sort of the entries in [lo, hi) which are known to
+   * be equal in the bytes before byteIndex.
+   */
+
+  private void radixSort(DrillBuf scratch, int lo, int hi, int byteIndex) {
+    final int[] counts = new int[257];
+    for (;;) {
+      if (hi - lo < QUICKSORT_THRESHOLD || byteIndex == keyWidth) {
+        if (hi - lo > 1 && (byteIndex < keyWidth || ! exact)) {
+          new QuickSort().sort(this, lo, hi);
+        }
+        return;
+      }
+      for (int i = lo; i < hi; i++) {
+        counts[byteAt(i, byteIndex) + 1]++;
+      }
+      if (counts[byteAt(lo, byteIndex) + 1] != hi - lo) {
+        break;
+      }
+
+      // All entries share this byte: move on to the next one.
+
+      counts[byteAt(lo, byteIndex) + 1] = 0;
+      byteIndex++;
+    }
+
+    // Distribute the entries into buckets by the current byte, then
+    // sort each bucket on the remaining bytes.
+
+    for (int b = 0; b < 256; b++) {
+      counts[b + 1] += counts[b];
+    }
+    final int[] next = new int[256];
+    for (int b = 0; b < 256; b++) {
+      next[b] = lo + counts[b];
+    }
+    for (int i = lo; i < hi; i++) {
+      scratch.setBytes(next[byteAt(i, byteIndex)]++ * entryWidth, keys, i * entryWidth, entryWidth);
+    }
+    keys.setBytes(lo * entryWidth, scratch, lo * entryWidth, (hi - lo) * entryWidth);
+    for (int b = 0; b < 256; b++) {
+      final int start = lo + counts[b];
+      final int end = lo + counts[b + 1];
+      if (end - start > 1) {
+        radixSort(scratch, start, end, byteIndex + 1);
+      }
+    }
+  }
+
+  private int byteAt(int entry, int byteIndex) {
+    return keys.getByte(entry * entryWidth + byteIndex) & 0xFF;
+  }
+
+  @Override
+  public int compare(int i, int j) {
+    final int left = i * entryWidth;
+    final int right = j * entryWidth;
+    for (int k = 0; k < keyWidth; k++) {
+      final int diff = (keys.getByte(left + k) & 0xFF) - (keys.getByte(right + k) & 0xFF);
+      if (diff != 0) {
+        return diff;
+      }
+    }
+    if (exact) {
+      return 0;
+    }
+    tieBreaks++;
+    return tieBreaker.compareRecords(keys.getInt(left + keyWidth), keys.getInt(right + keyWidth));
+  }
+
+  @Override
+  public void swap(int i, int j) {
+    final int left = i * entryWidth;
+    final int right = j * entryWidth;
+    keys.getBytes(left, swapBuffer);
+    keys.setBytes(left, keys, right, entryWidth);
+    keys.setBytes(right, swapBuffer);
+  }
+
+  public int getKeyWidth() { return keyWidth; }
+}
@@ -24,21 +24,23 @@ import javax.inject.Named;
 
 import org.apache.drill.exec.exception.SchemaChangeException;
 import org.apache.drill.exec.memory.BufferAllocator;
+import org.apache.drill.exec.physical.impl.sort.LoserTree;
 import org.apache.drill.exec.record.VectorAccessible;
 import org.apache.drill.exec.record.VectorAccessibleUtilities;
-import org.apache.drill.exec.record.selection.SelectionVector4;
 
-import io.netty.buffer.DrillBuf;
+/**
+ * Merges the batch groups (spilled runs or in-memory batches) using a
+ * {@link LoserTree} over the batch groups' current record indexes.
+ */
 
-public abstract class PriorityQueueCopierTemplate implements PriorityQueueCopier {
+public abstract class PriorityQueueCopierTemplate implements PriorityQueueCopier, LoserTree.SourceComparator {
 //  private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(PriorityQueueCopierTemplate.class);
 
-  private SelectionVector4 vector4;
   private List<BatchGroup> batchGroups;
   private VectorAccessible hyperBatch;
   private VectorAccessible outgoing;
-  private int size;
-  private int queueSize = 0;
+  private int[] currentIndexes;
+  private LoserTree tree;
 
   @Override
   public void setup(BufferAllocator allocator, VectorAccessible hyperBatch, List<BatchGroup> batchGroups,
@@ -46,53 +48,47 @@ public abstract class PriorityQueueCopierTemplate implements PriorityQueueCopier
     this.hyperBatch = hyperBatch;
     this.batchGroups = batchGroups;
     this.outgoing = outgoing;
-    this.size = batchGroups.size();
+    final int size = batchGroups.size();
 
-    @SuppressWarnings("resource")
-    final DrillBuf drillBuf = allocator.buffer(4 * size);
-    vector4 = new SelectionVector4(drillBuf, size, Character.MAX_VALUE);
     doSetup(hyperBatch, outgoing);
 
-    queueSize = 0;
+    currentIndexes = new int[size];
+    tree = new LoserTree(size, this);
     for (int i = 0; i < size; i++) {
       int index = batchGroups.get(i).getNextIndex();
-      vector4.set(i, i, index);
       if (index > -1) {
-        siftUp();
-        queueSize++;
+        currentIndexes[i] = index;
+      } else {
+        tree.exhaust(i);
       }
     }
+    tree.build();
   }
 
   @Override
   public int next(int targetRecordCount) {
     for (int outgoingIndex = 0; outgoingIndex < targetRecordCount; outgoingIndex++) {
-      if (queueSize == 0) {
+      int batch = tree.winner();
+      if (batch < 0) {
         return 0;
       }
-      int compoundIndex = vector4.get(0);
-      int batch = compoundIndex >>> 16;
       assert batch < batchGroups.size() : String.format("batch: %d batchGroups: %d", batch, batchGroups.size());
       try {
-        doCopy(compoundIndex, outgoingIndex);
+        doCopy((batch << 16) | currentIndexes[batch], outgoingIndex);
       } catch (SchemaChangeException e) {
         throw new IllegalStateException(e);
       }
       int nextIndex = batchGroups.get(batch).getNextIndex();
       if (nextIndex < 0) {
-        vector4.set(0, vector4.get(--queueSize));
+        tree.exhaust(batch);
       } else {
-        vector4.set(0, batch, nextIndex);
+        currentIndexes[batch] = nextIndex;
       }
-      if (queueSize == 0) {
+      tree.replay();
+      if (tree.winner() < 0) {
         VectorAccessibleUtilities.setValueCount(outgoing, ++outgoingIndex);
         return outgoingIndex;
       }
-      try {
-        siftDown();
-      } catch (SchemaChangeException e) {
-        throw new IllegalStateException(e);
-      }
     }
     VectorAccessibleUtilities.setValueCount(outgoing, targetRecordCount);
     return targetRecordCount;
@@ -100,58 +96,21 @@ public abstract class PriorityQueueCopierTemplate implements PriorityQueueCopier
 
   @Override
   public void close() throws IOException {
-    vector4.clear();
     VectorAccessibleUtilities.clear(outgoing);
     VectorAccessibleUtilities.clear(hyperBatch);
     BatchGroup.closeAll(batchGroups);
   }
 
-  private void siftUp() throws SchemaChangeException {
-    int p = queueSize;
-    while (p > 0) {
-      if (compare(p, (p - 1) / 2) < 0) {
-        swap(p, (p - 1) / 2);
-        p = (p - 1) / 2;
-      } else {
-        break;
-      }
-    }
-  }
-
-  private void siftDown() throws SchemaChangeException {
-    int p = 0;
-    int next;
-    while (p * 2 + 1 < queueSize) { // While the current node has at least one child
-      if (p * 2 + 2 >= queueSize) { // if current node has only one child, then we only look at it
-        next = p * 2 + 1;
-      } else {
-        if (compare(p * 2 + 1, p * 2 + 2) <= 0) {//if current node has two children, we must first determine which one has higher priority
-          next = p * 2 + 1;
-        } else {
-          next = p * 2 + 2;
-        }
-      }
-      if (compare(p, next) > 0) { // compare current node to highest priority child and swap if necessary
-        swap(p, next);
-        p = next;
-      } else {
-        break;
-      }
+  @Override
+  public int compareSources(int leftSource, int rightSource) {
+    try {
+      return doEval((leftSource << 16) | currentIndexes[leftSource],
+                    (rightSource << 16) | currentIndexes[rightSource]);
+    } catch (SchemaChangeException e) {
+      throw new IllegalStateException(e);
     }
   }
 
-  public void swap(int sv0, int sv1) {
-    int tmp = vector4.get(sv0);
-    vector4.set(sv0, vector4.get(sv1));
-    vector4.set(sv1, tmp);
-  }
-
-  public int compare(int leftIndex, int rightIndex) throws SchemaChangeException {
-    int sv1 = vector4.get(leftIndex);
-    int sv2 = vector4.get(rightIndex);
-    return doEval(sv1, sv2);
-  }
-
   public abstract void doSetup(@Named("incoming") VectorAccessible incoming,
                                @Named("outgoing") VectorAccessible outgoing)
                        throws SchemaChangeException;
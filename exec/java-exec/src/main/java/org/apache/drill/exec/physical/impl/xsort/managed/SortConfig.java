@@ -72,6 +72,15 @@ public class SortConfig {
 
   private final int mSortBatchSize;
 
+  /**
+   * Whether the in-memory sort may use normalized keys, and the number
+   * of bytes of each string key to place in the normalized key.
+   */
+
+  private final boolean useNormalizedKeys;
+
+  private final int normalizedKeyPrefixWidth;
+
   public SortConfig(DrillConfig config, OptionManager options) {
     // Optional configured memory limit, typically used only for testing.
 
@@ -126,15 +135,20 @@ public class SortConfig {
       mSortBatchSize = Character.MAX_VALUE;
     }
 
+    useNormalizedKeys = options.getOption(ExecConstants.EXTERNAL_SORT_NORMALIZED_KEYS_VALIDATOR);
+    normalizedKeyPrefixWidth = (int) options.getOption(ExecConstants.EXTERNAL_SORT_NORMALIZED_KEYS_PREFIX_VALIDATOR);
+
     logConfig();
   }
 
   private void logConfig() {
     logger.debug("Config: " +
                  "spill file size = {}, spill batch size = {}, " +
-                 "merge batch size = {}, mSort batch size = {}",
+                 "merge batch size = {}, mSort batch size = {}, " +
+                 "normalized keys = {}, normalized key prefix = {}",
                   spillFileSize, spillBatchSize,
-                  mergeBatchSize, mSortBatchSize);
+                  mergeBatchSize, mSortBatchSize,
+                  useNormalizedKeys, normalizedKeyPrefixWidth);
   }
 
   public long maxMemory() { return maxMemory; }
@@ -144,4 +158,6 @@ public class SortConfig {
   public int mergeBatchSize() { return mergeBatchSize; }
   public int getBufferedBatchLimit() { return bufferedBatchLimit; }
   public int getMSortBatchSize() { return mSortBatchSize; }
+  public boolean useNormalizedKeys() { return useNormalizedKeys; }
+  public int normalizedKeyPrefixWidth() { return normalizedKeyPrefixWidth; }
 }
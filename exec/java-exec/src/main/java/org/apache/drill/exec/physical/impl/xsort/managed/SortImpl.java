@@ -470,7 +470,7 @@ public class SortImpl {
     // If the sort fails or is empty, clean up here. Otherwise, cleanup is done
     // by closing the resultsIterator after all results are returned downstream.
 
-    MergeSortWrapper memoryMerge = new MergeSortWrapper(context, outputBatch);
+    MergeSortWrapper memoryMerge = new MergeSortWrapper(context, outputBatch, config);
     try {
       memoryMerge.merge(bufferedBatches.removeAll(), config.getMSortBatchSize());
     } catch (Throwable t) {
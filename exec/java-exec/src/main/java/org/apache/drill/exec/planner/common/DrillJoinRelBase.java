@@ -99,9 +99,55 @@ public abstract class DrillJoinRelBase extends Join implements DrillRelNode {
   public double estimateRowCount(RelMetadataQuery mq) {
     if (this.condition.isAlwaysTrue()) {
       return joinRowFactor * this.getLeft().estimateRowCount(mq) * this.getRight().estimateRowCount(mq);
-    } else {
-      return joinRowFactor * Math.max(this.getLeft().estimateRowCount(mq), this.getRight().estimateRowCount(mq));
     }
+    final Double statisticsRowCount = estimateRowCountFromStatistics(mq);
+    if (statisticsRowCount != null) {
+      return joinRowFactor * statisticsRowCount;
+    }
+    return joinRowFactor * Math.max(this.getLeft().estimateRowCount(mq), this.getRight().estimateRowCount(mq));
+  }
+
+  /**
+   * When all the join keys are columns of analyzed tables (see {@link DrillStatsTable}), estimate the row count
+   * of the equi-join as left * right / max(left keys NDV, right keys NDV), i.e. assuming each key value of the side
+   * with fewer distinct values finds a match on the other side.
+   *
+   * @return the estimated row count, or null if the NDVs of the join keys are unknown
+   */
+  private Double estimateRowCountFromStatistics(RelMetadataQuery mq) {
+    if (leftKeys.isEmpty() || leftKeys.size() != rightKeys.size()) {
+      return null;
+    }
+    final double leftRowCount = getLeft().estimateRowCount(mq);
+    final double rightRowCount = getRight().estimateRowCount(mq);
+    final Double leftNdv = getKeysNdv(getLeft(), leftKeys, leftRowCount);
+    final Double rightNdv = leftNdv == null ? null : getKeysNdv(getRight(), rightKeys, rightRowCount);
+    if (rightNdv == null) {
+      return null;
+    }
+    final double rowCount = leftRowCount * rightRowCount / Math.max(1.0, Math.max(leftNdv, rightNdv));
+    switch (joinType) {
+      case LEFT:
+        return Math.max(rowCount, leftRowCount);
+      case RIGHT:
+        return Math.max(rowCount, rightRowCount);
+      case FULL:
+        return Math.max(rowCount, Math.max(leftRowCount, rightRowCount));
+      default:
+        return rowCount;
+    }
+  }
+
+  private static Double getKeysNdv(RelNode input, List<Integer> keys, double rowCount) {
+    double ndv = 1.0;
+    for (int key : keys) {
+      final DrillStatsTable.ColumnStatistics statistics = DrillStatsTable.getColumnStatistics(input, key);
+      if (statistics == null || statistics.getNdv() == null) {
+        return null;
+      }
+      ndv *= statistics.getNdv();
+    }
+    return Math.min(ndv, rowCount);
   }
 
   /**
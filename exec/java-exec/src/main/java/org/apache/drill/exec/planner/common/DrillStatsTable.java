@@ -0,0 +1,303 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.drill.exec.planner.common;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+import org.apache.calcite.plan.hep.HepRelVertex;
+import org.apache.calcite.plan.volcano.RelSubset;
+import org.apache.calcite.rel.RelNode;
+import org.apache.calcite.rel.core.Aggregate;
+import org.apache.calcite.rel.core.Exchange;
+import org.apache.calcite.rel.core.Filter;
+import org.apache.calcite.rel.core.Join;
+import org.apache.calcite.rel.core.Project;
+import org.apache.calcite.rel.core.Sort;
+import org.apache.calcite.rex.RexInputRef;
+import org.apache.calcite.rex.RexNode;
+import org.apache.calcite.sql.SqlKind;
+import org.apache.drill.exec.planner.logical.DrillTable;
+import org.apache.drill.exec.planner.physical.PrelUtil;
+import org.apache.drill.exec.planner.physical.ScanPrel;
+import org.apache.drill.exec.store.dfs.DrillFileSystem;
+import org.apache.drill.exec.store.dfs.FileSystemPlugin;
+import org.apache.drill.exec.store.dfs.FormatSelection;
+import org.apache.drill.exec.util.ImpersonationUtil;
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.Path;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * The statistics of a table, as collected by ANALYZE TABLE: the row count, and for each analyzed column the
+ * number of non null values, the (estimated) number of distinct values and (numeric columns) an equi-depth histogram.
+ * <p>
+ * The statistics are written by the ANALYZE TABLE query into a directory of their own in the table, which
+ * replaces the {@link #STATS_TABLE_NAME} directory once the query has succeeded. They are a JSON table holding a
+ * single row: {@link #ROW_COUNT} and, for each column, the {@link #NON_NULL_COUNT_SUFFIX}, {@link #NDV_SUFFIX} and
+ * {@link #HISTOGRAM_SUFFIX} fields (the column name followed by the suffix). The directory is hidden from queries reading the table, like the parquet metadata cache.
+ */
+public class DrillStatsTable {
+  private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(DrillStatsTable.class);
+
+  public static final String STATS_TABLE_NAME = ".stats.drill";
+
+  public static final String STATS_FORMAT = "json";
+
+  public static final String ROW_COUNT = "rowcount";
+  public static final String NON_NULL_COUNT_SUFFIX = "$nonnull";
+  public static final String NDV_SUFFIX = "$ndv";
+  public static final String HISTOGRAM_SUFFIX = "$histogram";
+
+  private static final ObjectMapper MAPPER = new ObjectMapper();
+
+  private final long rowCount;
+  // column statistics, by lower case column name
+  private final Map<String, ColumnStatistics> columns;
+
+  private DrillStatsTable(long rowCount, Map<String, ColumnStatistics> columns) {
+    this.rowCount = rowCount;
+    this.columns = columns;
+  }
+
+  /**
+   * @return the number of rows of the table when it was analyzed
+   */
+  public long getRowCount() {
+    return rowCount;
+  }
+
+  /**
+   * @param column the column name (case insensitive)
+   * @return the statistics of the column, or null if the column was not analyzed
+   */
+  public ColumnStatistics getColumn(String column) {
+    return columns.get(column.toLowerCase());
+  }
+
+  /**
+   * @param scan a scan (logical or physical)
+   * @return the statistics of the scanned table, or null if there are none (or they should not be used)
+   */
+  public static DrillStatsTable getStatsTable(RelNode scan) {
+    if (!PrelUtil.getPlannerSettings(scan.getCluster()).useStatistics()) {
+      return null;
+    }
+    final DrillTable drillTable = scan instanceof DrillScanRelBase ? ((DrillScanRelBase) scan).getDrillTable()
+        : scan instanceof ScanPrel ? ((ScanPrel) scan).getDrillTable() : null;
+    return drillTable == null ? null : drillTable.getStatsTable();
+  }
+
+  /**
+   * Find the statistics of a column of the output of a relational expression, when the column is a column of an
+   * analyzed table passed through (unchanged) by the expression and its inputs.
+   *
+   * @param rel the relational expression
+   * @param column the index of the column in the output of the expression
+   * @return the statistics of the column, or null if the column can not be traced back to an analyzed column
+   */
+  public static ColumnStatistics getColumnStatistics(RelNode rel, int column) {
+    if (rel instanceof RelSubset) {
+      final RelSubset subset = (RelSubset) rel;
+      return getColumnStatistics(subset.getBest() != null ? subset.getBest() : subset.getOriginal(), column);
+    } else if (rel instanceof HepRelVertex) {
+      return getColumnStatistics(((HepRelVertex) rel).getCurrentRel(), column);
+    } else if (rel instanceof DrillScanRelBase || rel instanceof ScanPrel) {
+      final DrillStatsTable statsTable = getStatsTable(rel);
+      return statsTable == null ? null : statsTable.getColumn(rel.getRowType().getFieldNames().get(column));
+    } else if (rel instanceof Project) {
+      final RexNode expr = ((Project) rel).getProjects().get(column);
+      return expr instanceof RexInputRef ? getColumnStatistics(((Project) rel).getInput(), ((RexInputRef) expr).getIndex()) : null;
+    } else if (rel instanceof Filter || rel instanceof Sort || rel instanceof Exchange || rel instanceof DrillLimitRelBase) {
+      return getColumnStatistics(rel.getInput(0), column);
+    } else if (rel instanceof Join) {
+      final int leftCount = ((Join) rel).getLeft().getRowType().getFieldCount();
+      return column < leftCount ? getColumnStatistics(((Join) rel).getLeft(), column)
+          : getColumnStatistics(((Join) rel).getRight(), column - leftCount);
+    } else if (rel instanceof Aggregate) {
+      final Aggregate aggregate = (Aggregate) rel;
+      return column < aggregate.getGroupCount() ? getColumnStatistics(aggregate.getInput(), aggregate.getGroupSet().nth(column)) : null;
+    }
+    return null;
+  }
+
+  /**
+   * Read the statistics of a file system table (a directory) from its statistics directory.
+   *
+   * @param table the table
+   * @return the statistics of the table, or null if the table was never analyzed (or the statistics can not be read)
+   */
+  public static DrillStatsTable read(DrillTable table) {
+    if (!(table.getPlugin() instanceof FileSystemPlugin) || !(table.getSelection() instanceof FormatSelection)) {
+      return null;
+    }
+    final String selectionRoot = ((FormatSelection) table.getSelection()).getSelection().getSelectionRoot();
+    if (selectionRoot == null) {
+      return null;
+    }
+    final Path statsPath = new Path(selectionRoot, STATS_TABLE_NAME);
+    try {
+      final DrillFileSystem fs = ImpersonationUtil.createFileSystem(
+          ImpersonationUtil.resolveUserName(table.getUserName()), ((FileSystemPlugin) table.getPlugin()).getFsConf());
+      if (!fs.exists(statsPath)) {
+        return null;
+      }
+      for (FileStatus status : fs.listStatus(statsPath)) {
+        if (status.isFile() && status.getPath().getName().endsWith("." + STATS_FORMAT)) {
+          try (InputStream in = fs.open(status.getPath());
+               MappingIterator<JsonNode> rows = MAPPER.reader(JsonNode.class).readValues(in)) {
+            if (rows.hasNext()) {
+              return fromJson(rows.next());
+            }
+          }
+        }
+      }
+    } catch (IOException | RuntimeException e) {
+      logger.warn("Failed to read the statistics of table {} from {}", selectionRoot, statsPath, e);
+    }
+    return null;
+  }
+
+  private static DrillStatsTable fromJson(JsonNode row) throws IOException {
+    final Map<String, ColumnStatistics> columns = new HashMap<>();
+    final Iterator<Map.Entry<String, JsonNode>> fields = row.fields();
+    while (fields.hasNext()) {
+      final Map.Entry<String, JsonNode> field = fields.next();
+      final String name = field.getKey();
+      final int suffixStart = name.lastIndexOf('$');
+      if (suffixStart < 0 || field.getValue().isNull()) {
+        continue;
+      }
+      final String column = name.substring(0, suffixStart).toLowerCase();
+      ColumnStatistics statistics = columns.get(column);
+      if (statistics == null) {
+        statistics = new ColumnStatistics();
+        columns.put(column, statistics);
+      }
+      switch (name.substring(suffixStart)) {
+        case NON_NULL_COUNT_SUFFIX:
+          statistics.nonNullCount = field.getValue().asLong();
+          break;
+        case NDV_SUFFIX:
+          statistics.ndv = field.getValue().asLong();
+          break;
+        case HISTOGRAM_SUFFIX:
+          final JsonNode boundaries = MAPPER.readTree(field.getValue().asText());
+          statistics.histogram = new double[boundaries.size()];
+          for (int i = 0; i < boundaries.size(); i++) {
+            statistics.histogram[i] = boundaries.get(i).asDouble();
+          }
+          break;
+        default:
+          break;
+      }
+    }
+    final long rowCount = row.path(ROW_COUNT).asLong();
+    for (ColumnStatistics statistics : columns.values()) {
+      statistics.rowCount = rowCount;
+    }
+    return new DrillStatsTable(rowCount, columns);
+  }
+
+  /**
+   * The statistics of a single column. Each of them may be missing (e.g. no histogram for a non numeric column).
+   */
+  public static class ColumnStatistics {
+    private long rowCount;
+    private long nonNullCount = -1;
+    private long ndv = -1;
+    // the bucket boundaries (number of buckets + 1)
+    private double[] histogram;
+
+    /**
+     * @return the estimated number of distinct non null values, or null if unknown
+     */
+    public Double getNdv() {
+      return ndv < 0 ? null : (double) Math.max(ndv, 1);
+    }
+
+    /**
+     * @return the fraction of null values, or null if unknown
+     */
+    public Double getNullFraction() {
+      if (nonNullCount < 0 || rowCount <= 0) {
+        return null;
+      }
+      return (double) (rowCount - nonNullCount) / rowCount;
+    }
+
+    /**
+     * The selectivity of an equality condition (column = constant)
+     *
+     * @return the estimated fraction of the rows matching a constant, or null if unknown
+     */
+    public Double getEqualitySelectivity() {
+      final Double ndv = getNdv();
+      if (ndv == null) {
+        return null;
+      }
+      final Double nullFraction = getNullFraction();
+      return (nullFraction == null ? 1.0 : 1.0 - nullFraction) / ndv;
+    }
+
+    /**
+     * The selectivity of a range condition (column &lt; constant, column &gt;= constant, ...), based on the histogram
+     *
+     * @param kind the comparison (with the column as its left operand)
+     * @param value the constant
+     * @return the estimated fraction of the rows matching the condition, or null if unknown
+     */
+    public Double getRangeSelectivity(SqlKind kind, double value) {
+      if (histogram == null || histogram.length < 2) {
+        return null;
+      }
+      final int numBuckets = histogram.length - 1;
+      // fraction of the values below the constant, assuming values are uniformly spread within each bucket
+      double below;
+      if (value <= histogram[0]) {
+        below = 0.0;
+      } else if (value >= histogram[numBuckets]) {
+        below = 1.0;
+      } else {
+        int bucket = 0;
+        while (value >= histogram[bucket + 1]) {
+          bucket++;
+        }
+        final double width = histogram[bucket + 1] - histogram[bucket];
+        below = (bucket + (width > 0 ? (value - histogram[bucket]) / width : 0.0)) / numBuckets;
+      }
+      final double nonNullFraction = getNullFraction() == null ? 1.0 : 1.0 - getNullFraction();
+      switch (kind) {
+        case LESS_THAN:
+        case LESS_THAN_OR_EQUAL:
+          return nonNullFraction * below;
+        case GREATER_THAN:
+        case GREATER_THAN_OR_EQUAL:
+          return nonNullFraction * (1.0 - below);
+        default:
+          return null;
+      }
+    }
+  }
+}
@@ -26,7 +26,10 @@ import org.apache.calcite.rel.metadata.RelMetadataQuery;
 import org.apache.calcite.rex.RexNode;
 import org.apache.calcite.util.BuiltInMethod;
 import org.apache.calcite.util.ImmutableBitSet;
+import org.apache.drill.exec.planner.common.DrillStatsTable;
+import org.apache.drill.exec.planner.common.DrillStatsTable.ColumnStatistics;
 import org.apache.drill.exec.planner.logical.DrillScanRel;
+import org.apache.drill.exec.planner.physical.ScanPrel;
 
 public class DrillRelMdDistinctRowCount extends RelMdDistinctRowCount {
   private static final DrillRelMdDistinctRowCount INSTANCE =
@@ -56,9 +59,47 @@ public class DrillRelMdDistinctRowCount extends RelMdDistinctRowCount {
     return getDistinctRowCount((RelNode) rel, mq, groupKey, predicate);
   }
 
+  public Double getDistinctRowCount(ScanPrel scan, RelMetadataQuery mq,
+      ImmutableBitSet groupKey, RexNode predicate) {
+    final Double statisticsDistinctRowCount = getDistinctRowCountFromStatistics(scan, groupKey);
+    if (statisticsDistinctRowCount != null) {
+      final double rowCount = scan.estimateRowCount(mq) * (predicate == null ? 1.0 : mq.getSelectivity(scan, predicate));
+      return Math.min(statisticsDistinctRowCount, rowCount);
+    }
+    return super.getDistinctRowCount(scan, mq, groupKey, predicate);
+  }
+
   public Double getDistinctRowCount(DrillScanRel scan, RelMetadataQuery mq,
       ImmutableBitSet groupKey, RexNode predicate) {
+    final Double statisticsDistinctRowCount = getDistinctRowCountFromStatistics(scan, groupKey);
+    if (statisticsDistinctRowCount != null) {
+      // up to the number of (selected) rows
+      final double rowCount = scan.estimateRowCount(mq) * (predicate == null ? 1.0 : mq.getSelectivity(scan, predicate));
+      return Math.min(statisticsDistinctRowCount, rowCount);
+    }
     // Consistent with the estimation of Aggregate row count in RelMdRowCount : distinctRowCount = rowCount * 10%.
     return scan.estimateRowCount(mq) * 0.1;
   }
+
+  /**
+   * @return the product of the NDVs of the given columns (see {@link DrillStatsTable}),
+   * or null when not all of them were analyzed
+   */
+  private static Double getDistinctRowCountFromStatistics(RelNode scan, ImmutableBitSet columns) {
+    final DrillStatsTable statsTable = DrillStatsTable.getStatsTable(scan);
+    if (statsTable == null || columns.isEmpty()) {
+      return null;
+    }
+    double distinctRowCount = 1.0;
+    for (int column : columns) {
+      final ColumnStatistics statistics = statsTable.getColumn(scan.getRowType().getFieldNames().get(column));
+      if (statistics == null || statistics.getNdv() == null) {
+        return null;
+      }
+      // null is a distinct value as well
+      final Double nullFraction = statistics.getNullFraction();
+      distinctRowCount *= statistics.getNdv() + (nullFraction != null && nullFraction > 0 ? 1 : 0);
+    }
+    return distinctRowCount;
+  }
 }
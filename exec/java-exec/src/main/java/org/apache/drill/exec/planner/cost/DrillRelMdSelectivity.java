@@ -0,0 +1,148 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.drill.exec.planner.cost;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import org.apache.calcite.plan.RelOptUtil;
+import org.apache.calcite.plan.hep.HepRelVertex;
+import org.apache.calcite.plan.volcano.RelSubset;
+import org.apache.calcite.rel.RelNode;
+import org.apache.calcite.rel.metadata.ReflectiveRelMetadataProvider;
+import org.apache.calcite.rel.metadata.RelMdSelectivity;
+import org.apache.calcite.rel.metadata.RelMdUtil;
+import org.apache.calcite.rel.metadata.RelMetadataProvider;
+import org.apache.calcite.rel.metadata.RelMetadataQuery;
+import org.apache.calcite.rex.RexCall;
+import org.apache.calcite.rex.RexInputRef;
+import org.apache.calcite.rex.RexLiteral;
+import org.apache.calcite.rex.RexNode;
+import org.apache.calcite.sql.SqlKind;
+import org.apache.calcite.util.BuiltInMethod;
+import org.apache.drill.exec.planner.common.DrillScanRelBase;
+import org.apache.drill.exec.planner.common.DrillStatsTable;
+import org.apache.drill.exec.planner.common.DrillStatsTable.ColumnStatistics;
+import org.apache.drill.exec.planner.physical.PrelUtil;
+import org.apache.drill.exec.planner.physical.ScanPrel;
+
+/**
+ * Estimates the selectivity of the conditions over scans of analyzed tables (see {@link DrillStatsTable}):
+ * <ul>
+ *   <li>column = constant : 1 / NDV (of the non null values)</li>
+ *   <li>column &lt; constant (and the other comparisons) : based on the histogram of the column</li>
+ *   <li>column IS [NOT] NULL : based on the null count of the column</li>
+ * </ul>
+ * Other conditions (and all conditions when no statistics are available) use the default guesses.
+ */
+public class DrillRelMdSelectivity extends RelMdSelectivity {
+  private static final DrillRelMdSelectivity INSTANCE = new DrillRelMdSelectivity();
+
+  public static final RelMetadataProvider SOURCE =
+      ReflectiveRelMetadataProvider.reflectiveSource(BuiltInMethod.SELECTIVITY.method, INSTANCE);
+
+  // The planners wrap the inputs of the relational expressions; look through them to reach the scans
+
+  public Double getSelectivity(RelSubset rel, RelMetadataQuery mq, RexNode predicate) {
+    if (!PrelUtil.getPlannerSettings(rel.getCluster()).useStatistics()) {
+      return super.getSelectivity(rel, mq, predicate);
+    }
+    return mq.getSelectivity(rel.getBest() != null ? rel.getBest() : rel.getOriginal(), predicate);
+  }
+
+  public Double getSelectivity(HepRelVertex rel, RelMetadataQuery mq, RexNode predicate) {
+    if (!PrelUtil.getPlannerSettings(rel.getCluster()).useStatistics()) {
+      return super.getSelectivity(rel, mq, predicate);
+    }
+    return mq.getSelectivity(rel.getCurrentRel(), predicate);
+  }
+
+  public Double getSelectivity(DrillScanRelBase scan, RelMetadataQuery mq, RexNode predicate) {
+    return getScanSelectivity(scan, mq, predicate);
+  }
+
+  public Double getSelectivity(ScanPrel scan, RelMetadataQuery mq, RexNode predicate) {
+    return getScanSelectivity(scan, mq, predicate);
+  }
+
+  private Double getScanSelectivity(RelNode scan, RelMetadataQuery mq, RexNode predicate) {
+    final DrillStatsTable statsTable = DrillStatsTable.getStatsTable(scan);
+    if (statsTable == null || predicate == null) {
+      return super.getSelectivity(scan, mq, predicate);
+    }
+    double selectivity = 1.0;
+    for (RexNode conjunct : RelOptUtil.conjunctions(predicate)) {
+      final Double conjunctSelectivity = getSelectivity(scan, statsTable, conjunct);
+      selectivity *= conjunctSelectivity != null ? conjunctSelectivity : RelMdUtil.guessSelectivity(conjunct);
+    }
+    return selectivity;
+  }
+
+  private static Double getSelectivity(RelNode scan, DrillStatsTable statsTable, RexNode condition) {
+    if (!(condition instanceof RexCall)) {
+      return null;
+    }
+    final List<RexNode> operands = ((RexCall) condition).getOperands();
+    SqlKind kind = condition.getKind();
+    switch (kind) {
+      case IS_NULL:
+      case IS_NOT_NULL: {
+        final ColumnStatistics column = getColumn(scan, statsTable, operands.get(0));
+        final Double nullFraction = column == null ? null : column.getNullFraction();
+        if (nullFraction == null) {
+          return null;
+        }
+        return kind == SqlKind.IS_NULL ? nullFraction : 1.0 - nullFraction;
+      }
+      case EQUALS:
+      case LESS_THAN:
+      case LESS_THAN_OR_EQUAL:
+      case GREATER_THAN:
+      case GREATER_THAN_OR_EQUAL: {
+        ColumnStatistics column = getColumn(scan, statsTable, operands.get(0));
+        RexNode constant = operands.get(1);
+        if (column == null) {
+          // constant <op> column
+          column = getColumn(scan, statsTable, operands.get(1));
+          constant = operands.get(0);
+          kind = kind.reverse();
+        }
+        if (column == null || !(constant instanceof RexLiteral)) {
+          return null;
+        }
+        if (kind == SqlKind.EQUALS) {
+          return column.getEqualitySelectivity();
+        }
+        final Comparable value = ((RexLiteral) constant).getValue();
+        return value instanceof BigDecimal ? column.getRangeSelectivity(kind, ((BigDecimal) value).doubleValue()) : null;
+      }
+      default:
+        return null;
+    }
+  }
+
+  private static ColumnStatistics getColumn(RelNode scan, DrillStatsTable statsTable, RexNode operand) {
+    if (operand.getKind() == SqlKind.CAST) {
+      operand = ((RexCall) operand).getOperands().get(0);
+    }
+    if (!(operand instanceof RexInputRef)) {
+      return null;
+    }
+    return statsTable.getColumn(scan.getRowType().getFieldNames().get(((RexInputRef) operand).getIndex()));
+  }
+}
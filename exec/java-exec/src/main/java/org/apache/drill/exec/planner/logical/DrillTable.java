@@ -32,6 +32,7 @@ import org.apache.drill.common.JSONOptions;
 import org.apache.drill.common.logical.StoragePluginConfig;
 import org.apache.drill.exec.physical.base.SchemalessScan;
 import org.apache.drill.exec.physical.base.GroupScan;
+import org.apache.drill.exec.planner.common.DrillStatsTable;
 import org.apache.drill.exec.store.StoragePlugin;
 import org.apache.drill.exec.store.dfs.FileSelection;
 import org.apache.drill.exec.util.ImpersonationUtil;
@@ -45,6 +46,8 @@ public abstract class DrillTable implements Table {
   private final StoragePlugin plugin;
   private final String userName;
   private GroupScan scan;
+  private DrillStatsTable statsTable;
+  private boolean statsTableLoaded;
 
   /**
    * Creates a DrillTable instance for a @{code TableType#Table} table.
@@ -96,6 +99,17 @@ public abstract class DrillTable implements Table {
     return scan;
   }
 
+  /**
+   * @return the statistics collected by ANALYZE TABLE for this table, or null if there are none
+   */
+  public DrillStatsTable getStatsTable() {
+    if (!statsTableLoaded) {
+      statsTable = DrillStatsTable.read(this);
+      statsTableLoaded = true;
+    }
+    return statsTable;
+  }
+
   public StoragePluginConfig getStorageEngineConfig() {
     return storageEngineConfig;
   }
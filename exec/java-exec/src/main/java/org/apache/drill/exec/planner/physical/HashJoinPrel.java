@@ -31,6 +31,7 @@ import org.apache.drill.exec.record.BatchSchema.SelectionVectorMode;
 import org.apache.calcite.rel.InvalidRelException;
 import org.apache.calcite.rel.core.JoinRelType;
 import org.apache.calcite.rel.RelNode;
+import org.apache.calcite.rel.RelWriter;
 import org.apache.calcite.plan.RelOptCluster;
 import org.apache.calcite.plan.RelOptCost;
 import org.apache.calcite.plan.RelOptPlanner;
@@ -42,6 +43,8 @@ import com.google.common.collect.Lists;
 public class HashJoinPrel  extends JoinPrel {
 
   private boolean swapped = false;
+  // Id of the runtime filter built for the probe side scans (see RuntimeFilterPrel); 0 if none
+  private int runtimeFilterId;
 
   public HashJoinPrel(RelOptCluster cluster, RelTraitSet traits, RelNode left, RelNode right, RexNode condition,
                       JoinRelType joinType) throws InvalidRelException {
@@ -58,7 +61,9 @@ public class HashJoinPrel  extends JoinPrel {
   @Override
   public Join copy(RelTraitSet traitSet, RexNode conditionExpr, RelNode left, RelNode right, JoinRelType joinType, boolean semiJoinDone) {
     try {
-      return new HashJoinPrel(this.getCluster(), traitSet, left, right, conditionExpr, joinType, this.swapped);
+      final HashJoinPrel join = new HashJoinPrel(this.getCluster(), traitSet, left, right, conditionExpr, joinType, this.swapped);
+      join.setRuntimeFilterId(runtimeFilterId);
+      return join;
     }catch (InvalidRelException e) {
       throw new AssertionError(e);
     }
@@ -113,7 +118,7 @@ public class HashJoinPrel  extends JoinPrel {
 
     buildJoinConditions(conditions, leftFields, rightFields, leftKeys, rightKeys);
 
-    HashJoinPOP hjoin = new HashJoinPOP(leftPop, rightPop, conditions, jtype);
+    HashJoinPOP hjoin = new HashJoinPOP(leftPop, rightPop, conditions, jtype, runtimeFilterId);
     return creator.addMetadata(this, hjoin);
   }
 
@@ -125,4 +130,17 @@ public class HashJoinPrel  extends JoinPrel {
     return this.swapped;
   }
 
+  public void setRuntimeFilterId(int runtimeFilterId) {
+    this.runtimeFilterId = runtimeFilterId;
+  }
+
+  public int getRuntimeFilterId() {
+    return runtimeFilterId;
+  }
+
+  @Override
+  public RelWriter explainTerms(RelWriter pw) {
+    return super.explainTerms(pw).itemIf("runtimeFilterId", runtimeFilterId, runtimeFilterId > 0);
+  }
+
 }
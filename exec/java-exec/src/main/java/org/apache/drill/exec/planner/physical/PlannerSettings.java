@@ -107,6 +107,14 @@ public class PlannerSettings implements Context{
   public static final String PARQUET_ROWGROUP_FILTER_PUSHDOWN_PLANNING_THRESHOLD_KEY = "planner.store.parquet.rowgroup.filter.pushdown.threshold";
   public static final PositiveLongValidator PARQUET_ROWGROUP_FILTER_PUSHDOWN_PLANNING_THRESHOLD = new PositiveLongValidator(PARQUET_ROWGROUP_FILTER_PUSHDOWN_PLANNING_THRESHOLD_KEY,
       Long.MAX_VALUE);
+  // Prune row groups (that survive the min/max pruning) by checking the predicates against the dictionaries
+  // of the dictionary encoded columns; only dictionaries up to the given size (bytes, uncompressed, 1 MB by default) are read.
+  // Comparisons with string constants are pushed down only when this is enabled.
+  public static final String PARQUET_ROWGROUP_FILTER_PUSHDOWN_DICTIONARY_KEY = "planner.store.parquet.rowgroup.filter.pushdown.dictionary.enabled";
+  public static final BooleanValidator PARQUET_ROWGROUP_FILTER_PUSHDOWN_DICTIONARY = new BooleanValidator(PARQUET_ROWGROUP_FILTER_PUSHDOWN_DICTIONARY_KEY);
+  public static final String PARQUET_ROWGROUP_FILTER_PUSHDOWN_DICTIONARY_MAX_SIZE_KEY = "planner.store.parquet.rowgroup.filter.pushdown.dictionary.max_size";
+  public static final PositiveLongValidator PARQUET_ROWGROUP_FILTER_PUSHDOWN_DICTIONARY_MAX_SIZE = new PositiveLongValidator(PARQUET_ROWGROUP_FILTER_PUSHDOWN_DICTIONARY_MAX_SIZE_KEY,
+      Integer.MAX_VALUE);
 
   public static final String QUOTING_IDENTIFIERS_KEY = "planner.parser.quoting_identifiers";
   public static final EnumeratedStringValidator QUOTING_IDENTIFIERS = new EnumeratedStringValidator(
@@ -141,6 +149,23 @@ public class PlannerSettings implements Context{
      the need to turn off join optimization may go away.
    */
   public static final BooleanValidator JOIN_OPTIMIZATION = new BooleanValidator("planner.enable_join_optimization");
+  /*
+     Enables the use of the statistics collected by ANALYZE TABLE (distinct value counts, null counts, histograms)
+     for the selectivity, join and aggregation estimates of the cost model.
+   */
+  public static final String STATISTICS_USE_KEY = "planner.statistics.use";
+  public static final BooleanValidator STATISTICS_USE = new BooleanValidator(STATISTICS_USE_KEY);
+
+  /*
+     Enables the cache of physical plans for repeated queries, see QueryPlanCache. A cached plan is reused
+     for at most PLAN_CACHE_TTL seconds, which bounds how long changes to tables made outside of Drill
+     can go unnoticed.
+   */
+  public static final String PLAN_CACHE_KEY = "planner.plan_cache.enabled";
+  public static final BooleanValidator PLAN_CACHE = new BooleanValidator(PLAN_CACHE_KEY);
+  public static final String PLAN_CACHE_TTL_KEY = "planner.plan_cache.ttl_secs";
+  public static final RangeLongValidator PLAN_CACHE_TTL = new RangeLongValidator(PLAN_CACHE_TTL_KEY, 0, Integer.MAX_VALUE);
+
   // for testing purpose
   public static final String FORCE_2PHASE_AGGR_KEY = "planner.force_2phase_aggr";
   public static final BooleanValidator FORCE_2PHASE_AGGR = new BooleanValidator(FORCE_2PHASE_AGGR_KEY);
@@ -327,6 +352,10 @@ public class PlannerSettings implements Context{
     return options.getOption(ENABLE_UNNEST_LATERAL);
   }
 
+  public boolean useStatistics() {
+    return options.getOption(STATISTICS_USE);
+  }
+
   @Override
   public <T> T unwrap(Class<T> clazz) {
     if(clazz == PlannerSettings.class){
@@ -0,0 +1,153 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.drill.exec.planner.physical.visitor;
+
+import java.util.List;
+
+import org.apache.calcite.rel.RelNode;
+import org.apache.calcite.rel.core.JoinRelType;
+import org.apache.calcite.rel.type.RelDataType;
+import org.apache.calcite.rex.RexInputRef;
+import org.apache.calcite.rex.RexNode;
+import org.apache.drill.exec.planner.StarColumnHelper;
+import org.apache.drill.exec.planner.physical.ExchangePrel;
+import org.apache.drill.exec.planner.physical.FilterPrel;
+import org.apache.drill.exec.planner.physical.HashJoinPrel;
+import org.apache.drill.exec.planner.physical.JoinPrel;
+import org.apache.drill.exec.planner.physical.Prel;
+import org.apache.drill.exec.planner.physical.ProjectPrel;
+import org.apache.drill.exec.planner.physical.RuntimeFilterPrel;
+import org.apache.drill.exec.planner.physical.ScanPrel;
+import org.apache.drill.exec.planner.physical.SelectionVectorRemoverPrel;
+
+import com.google.common.collect.Lists;
+
+/**
+ * Visit Prel tree. For each INNER or RIGHT HashJoinPrel, look for the scan its probe side rows come from,
+ * through exchanges, filters and projects of plain column references only. If there is one across at
+ * least one exchange, insert a RuntimeFilterPrel on top of that scan and give both the same filter id:
+ * The hash join fragments then build a Bloom filter of their keys, merged by the Foreman and handed to
+ * the scan fragments, which drop the rows that can not match before sending them to the join.
+ * <p>
+ * The scan must be in another major fragment than the join, since the join reads its build side after
+ * the first probe batch, and the scan waits for the filter.
+ *
+ * @see org.apache.drill.exec.physical.config.RuntimeFilterPOP
+ */
+public class RuntimeFilterVisitor extends BasePrelVisitor<Prel, Void, RuntimeException> {
+
+  private int filterId;
+
+  public static Prel addRuntimeFilters(Prel prel) {
+    return prel.accept(new RuntimeFilterVisitor(), null);
+  }
+
+  private RuntimeFilterVisitor() {
+  }
+
+  @Override
+  public Prel visitPrel(Prel prel, Void value) throws RuntimeException {
+    List<RelNode> children = Lists.newArrayList();
+    for (Prel child : prel) {
+      children.add(child.accept(this, value));
+    }
+    return (Prel) prel.copy(prel.getTraitSet(), children);
+  }
+
+  @Override
+  public Prel visitJoin(JoinPrel prel, Void value) throws RuntimeException {
+    final JoinPrel newJoin = (JoinPrel) visitPrel(prel, value);
+    if (!(newJoin instanceof HashJoinPrel)
+        || (newJoin.getJoinType() != JoinRelType.INNER && newJoin.getJoinType() != JoinRelType.RIGHT)) {
+      return newJoin;
+    }
+    final HashJoinPrel join = (HashJoinPrel) newJoin;
+
+    // The probe side is the left input, unless swapped
+    final int probeInput = join.isSwapped() ? 1 : 0;
+    final List<Integer> probeKeys = join.isSwapped() ? join.getRightKeys() : join.getLeftKeys();
+    final List<Integer> buildKeys = join.isSwapped() ? join.getLeftKeys() : join.getRightKeys();
+    final Prel probe = (Prel) join.getInput(probeInput);
+    final Prel build = (Prel) join.getInput(1 - probeInput);
+
+    // The scan computes the hash values of its own columns: the key types must match on both sides
+    for (int i = 0; i < probeKeys.size(); i++) {
+      final RelDataType probeType = probe.getRowType().getFieldList().get(probeKeys.get(i)).getType();
+      final RelDataType buildType = build.getRowType().getFieldList().get(buildKeys.get(i)).getType();
+      if (probeType.getSqlTypeName() != buildType.getSqlTypeName()) {
+        return join;
+      }
+    }
+
+    final Prel newProbe = addRuntimeFilter(probe, probeKeys, filterId + 1, false);
+    if (newProbe == null) {
+      return join;
+    }
+    filterId++;
+    final List<RelNode> inputs = Lists.newArrayList(join.getInputs());
+    inputs.set(probeInput, newProbe);
+    final HashJoinPrel filteredJoin = (HashJoinPrel) join.copy(join.getTraitSet(), inputs);
+    filteredJoin.setRuntimeFilterId(filterId);
+    return filteredJoin;
+  }
+
+  /**
+   * @param prel the probe side input, or one of its descendants
+   * @param keys the indexes of the join keys in the row type of prel
+   * @param id the id of the new filter
+   * @param exchange whether an exchange was crossed on the way from the join
+   * @return prel with a runtime filter on top of its scan, or null if there is no suitable scan
+   */
+  private Prel addRuntimeFilter(Prel prel, List<Integer> keys, int id, boolean exchange) {
+    final Prel input;
+    if (prel instanceof ScanPrel) {
+      if (!exchange) {
+        return null;
+      }
+      final List<String> fields = Lists.newArrayList();
+      for (int key : keys) {
+        final String field = prel.getRowType().getFieldNames().get(key);
+        if (StarColumnHelper.isStarColumn(field)) {
+          return null;
+        }
+        fields.add(field);
+      }
+      return new RuntimeFilterPrel(prel, id, fields);
+    } else if (prel instanceof ExchangePrel) {
+      input = addRuntimeFilter((Prel) prel.getInput(0), keys, id, true);
+    } else if (prel instanceof FilterPrel || prel instanceof SelectionVectorRemoverPrel) {
+      input = addRuntimeFilter((Prel) prel.getInput(0), keys, id, exchange);
+    } else if (prel instanceof ProjectPrel) {
+      final List<Integer> inputKeys = Lists.newArrayList();
+      for (int key : keys) {
+        final RexNode project = ((ProjectPrel) prel).getProjects().get(key);
+        if (!(project instanceof RexInputRef)) {
+          return null;
+        }
+        inputKeys.add(((RexInputRef) project).getIndex());
+      }
+      input = addRuntimeFilter((Prel) prel.getInput(0), inputKeys, id, exchange);
+    } else {
+      return null;
+    }
+    if (input == null) {
+      return null;
+    }
+    return (Prel) prel.copy(prel.getTraitSet(), Lists.<RelNode>newArrayList(input));
+  }
+}
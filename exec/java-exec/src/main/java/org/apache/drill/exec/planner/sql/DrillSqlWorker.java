@@ -36,6 +36,7 @@ import org.apache.drill.exec.planner.sql.handlers.SetOptionHandler;
 import org.apache.drill.exec.planner.sql.handlers.SqlHandlerConfig;
 import org.apache.drill.exec.planner.sql.parser.DrillSqlCall;
 import org.apache.drill.exec.planner.sql.parser.DrillSqlDescribeTable;
+import org.apache.drill.exec.planner.sql.parser.SqlAnalyzeTable;
 import org.apache.drill.exec.planner.sql.parser.SqlCreateTable;
 import org.apache.drill.exec.testing.ControlsInjector;
 import org.apache.drill.exec.testing.ControlsInjectorFactory;
@@ -102,6 +103,15 @@ public class DrillSqlWorker {
   private static PhysicalPlan getQueryPlan(QueryContext context, String sql, Pointer<String> textPlan)
       throws ForemanSetupException {
 
+    final QueryPlanCache planCache = context.getPlanCache();
+    final String cacheKey = planCache == null ? null : planCache.getKey(context, sql);
+    if (cacheKey != null) {
+      final PhysicalPlan cachedPlan = planCache.getPlan(context, cacheKey, textPlan);
+      if (cachedPlan != null) {
+        return cachedPlan;
+      }
+    }
+
     final SqlConverter parser = new SqlConverter(context);
 
     injector.injectChecked(context.getExecutionControls(), "sql-parsing", ForemanSetupException.class);
@@ -127,7 +137,7 @@ public class DrillSqlWorker {
         break;
       }
     case OTHER:
-      if(sqlNode instanceof SqlCreateTable) {
+      if(sqlNode instanceof SqlCreateTable || sqlNode instanceof SqlAnalyzeTable) {
         handler = ((DrillSqlCall)sqlNode).getSqlHandler(config, textPlan);
         break;
       }
@@ -142,7 +152,11 @@ public class DrillSqlWorker {
     }
 
     try {
-      return handler.getPlan(sqlNode);
+      final PhysicalPlan plan = handler.getPlan(sqlNode);
+      if (cacheKey != null && handler.getClass() == DefaultSqlHandler.class) {
+        planCache.putPlan(context, cacheKey, sqlNode, plan, textPlan);
+      }
+      return plan;
     } catch(ValidationException e) {
       String errorMessage = e.getCause() != null ? e.getCause().getMessage() : e.getMessage();
       throw UserException.validationError(e)
@@ -156,6 +170,10 @@ public class DrillSqlWorker {
           .build(logger);
     } catch (IOException | RelConversionException e) {
       throw new QueryInputException("Failure handling SQL.", e);
+    } finally {
+      if (planCache != null && QueryPlanCache.changesMetadata(sqlNode)) {
+        planCache.invalidateAll();
+      }
     }
   }
 }
@@ -0,0 +1,515 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.drill.exec.planner.sql;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.calcite.sql.SqlCall;
+import org.apache.calcite.sql.SqlFunctionCategory;
+import org.apache.calcite.sql.SqlIdentifier;
+import org.apache.calcite.sql.SqlNode;
+import org.apache.calcite.sql.SqlOperator;
+import org.apache.calcite.sql.SqlOperatorTable;
+import org.apache.calcite.sql.SqlSyntax;
+import org.apache.calcite.sql.SqlUnresolvedFunction;
+import org.apache.calcite.sql.util.SqlBasicVisitor;
+import org.apache.drill.common.config.DrillConfig;
+import org.apache.drill.common.config.LogicalPlanPersistence;
+import org.apache.drill.common.exceptions.ExecutionSetupException;
+import org.apache.drill.common.logical.StoragePluginConfig;
+import org.apache.drill.exec.ExecConstants;
+import org.apache.drill.exec.expr.fn.DrillFuncHolder;
+import org.apache.drill.exec.expr.fn.WorkspaceReference;
+import org.apache.drill.exec.ops.ContextInformation;
+import org.apache.drill.exec.ops.QueryContext;
+import org.apache.drill.exec.physical.PhysicalPlan;
+import org.apache.drill.exec.physical.base.GroupScan;
+import org.apache.drill.exec.physical.base.PhysicalOperator;
+import org.apache.drill.exec.planner.PhysicalPlanReader;
+import org.apache.drill.exec.planner.physical.PlannerSettings;
+import org.apache.drill.exec.planner.sql.parser.SqlAnalyzeTable;
+import org.apache.drill.exec.planner.sql.parser.SqlCreateFunction;
+import org.apache.drill.exec.planner.sql.parser.SqlCreateTable;
+import org.apache.drill.exec.planner.sql.parser.SqlCreateView;
+import org.apache.drill.exec.planner.sql.parser.SqlDropFunction;
+import org.apache.drill.exec.planner.sql.parser.SqlDropTable;
+import org.apache.drill.exec.planner.sql.parser.SqlDropView;
+import org.apache.drill.exec.planner.sql.parser.SqlRefreshMetadata;
+import org.apache.drill.exec.rpc.user.UserSession;
+import org.apache.drill.exec.server.options.OptionValue;
+import org.apache.drill.exec.store.StoragePlugin;
+import org.apache.drill.exec.store.dfs.DrillFileSystem;
+import org.apache.drill.exec.store.dfs.FileSystemPlugin;
+import org.apache.drill.exec.store.dfs.easy.EasyGroupScan;
+import org.apache.drill.exec.store.parquet.ParquetGroupScan;
+import org.apache.drill.exec.util.ImpersonationUtil;
+import org.apache.drill.exec.util.Pointer;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.Path;
+
+import com.google.common.base.Charsets;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.Lists;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+
+/**
+ * Drillbit-wide cache of the physical plans of SQL queries, so that a query
+ * which is submitted again with the same text (directly or by executing a
+ * prepared statement) skips parsing, validation and optimization.
+ * <p>
+ * Entries are keyed by a hash of:
+ * <ul>
+ * <li>the SQL text with insignificant white space and a trailing semicolon
+ * removed,</li>
+ * <li>the user, the default schema and, if the session has temporary tables,
+ * the session,</li>
+ * <li>the effective value of every option,</li>
+ * <li>the function registry version and the number of Drillbits.</li>
+ * </ul>
+ * The plan is kept as JSON and read back for each hit, so that the operators
+ * of a plan are never shared between queries.
+ * <p>
+ * A plan holds the files its file system scans selected when it was planned.
+ * For each of these tables the latest modification time of the table root and
+ * of the files and directories under it (including the Parquet metadata cache
+ * files) is kept with the plan as the table version. Every hit checks the
+ * versions again, and a plan whose tables changed (files added, removed or
+ * rewritten, metadata refreshed) is discarded and the query planned again.
+ * Listing the tables is still much cheaper than planning, which lists them too.
+ * <p>
+ * Plans are only cached for plain queries whose functions do not depend on
+ * the query context (such as <tt>now()</tt> or <tt>session_id</tt>), as those
+ * are folded to constants during planning. The cache is emptied when
+ * metadata changes through this Drillbit: DDL statements, REFRESH TABLE
+ * METADATA, ANALYZE TABLE, function registration and storage plugin updates.
+ * Changes which are not tracked (tables of other storage plugins, another
+ * Drillbit updating a plugin) are seen once the entry expires, see
+ * {@link PlannerSettings#PLAN_CACHE_TTL}.
+ */
+public class QueryPlanCache {
+  private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(QueryPlanCache.class);
+
+  /**
+   * A cached plan, serialized as JSON, with the text plan shown in the
+   * query profile.
+   */
+  private static class CachedPlan {
+    private final String jsonPlan;
+    private final String textPlan;
+    private final List<TableVersion> tables;
+    private final long createTimeMillis;
+
+    public CachedPlan(String jsonPlan, String textPlan, List<TableVersion> tables) {
+      this.jsonPlan = jsonPlan;
+      this.textPlan = textPlan;
+      this.tables = tables;
+      this.createTimeMillis = System.currentTimeMillis();
+    }
+  }
+
+  /**
+   * The version of a table read by a cached plan: the latest modification
+   * time of its root and of everything under it.
+   */
+  private static class TableVersion {
+    private final String userName;
+    private final Configuration fsConf;
+    private final Path root;
+    private final long version;
+
+    public TableVersion(String userName, Configuration fsConf, Path root, long version) {
+      this.userName = userName;
+      this.fsConf = fsConf;
+      this.root = root;
+      this.version = version;
+    }
+  }
+
+  // The class path file system reports the current time as the modification
+  // time of every file, and its files do not change anyway.
+  private static final String CLASSPATH_SCHEME = "classpath";
+
+  private final Cache<String, CachedPlan> plans;
+  private final AtomicLong hitCount = new AtomicLong();
+  private final PhysicalPlanReader planReader;
+  private final LogicalPlanPersistence lpPersistence;
+
+  public QueryPlanCache(DrillConfig config, PhysicalPlanReader planReader, LogicalPlanPersistence lpPersistence) {
+    this.planReader = planReader;
+    this.lpPersistence = lpPersistence;
+    plans = CacheBuilder.newBuilder()
+        .maximumSize(config.getInt(ExecConstants.PLAN_CACHE_MAX_ENTRIES))
+        .build();
+  }
+
+  /**
+   * Returns the cache key of a query, or null if plan caching is disabled
+   * for the query.
+   *
+   * @param context query context
+   * @param sql sql query
+   * @return cache key or null
+   */
+  public String getKey(QueryContext context, String sql) {
+    if (!context.getOptions().getOption(PlannerSettings.PLAN_CACHE)) {
+      return null;
+    }
+
+    final UserSession session = context.getSession();
+    final Hasher hasher = Hashing.sha256().newHasher()
+        .putString(normalize(sql), Charsets.UTF_8).putChar('\0')
+        .putString(String.valueOf(context.getQueryUserName()), Charsets.UTF_8).putChar('\0')
+        .putString(String.valueOf(session.getDefaultSchemaPath()), Charsets.UTF_8).putChar('\0')
+        .putString(session.hasTemporaryTables() ? session.getSessionId() : "", Charsets.UTF_8).putChar('\0')
+        .putLong(context.getDrillOperatorTable().getFunctionRegistryVersion())
+        .putInt(context.getOnlineEndpoints().size());
+
+    // The option list holds the query, then the session, then the system
+    // options, so the first value seen for a name is the effective one.
+
+    final Map<String, Object> options = new TreeMap<>();
+    for (OptionValue option : context.getOptions().getOptionList()) {
+      if (!options.containsKey(option.getName())) {
+        options.put(option.getName(), option.getValue());
+      }
+    }
+    for (Map.Entry<String, Object> option : options.entrySet()) {
+      hasher.putString(option.getKey(), Charsets.UTF_8).putChar('=')
+          .putString(String.valueOf(option.getValue()), Charsets.UTF_8).putChar('\0');
+    }
+    return hasher.hash().toString();
+  }
+
+  /**
+   * Returns a new copy of the plan cached for the key, or null if the key is
+   * not cached, its entry has expired or one of the tables it reads changed.
+   *
+   * @param context query context
+   * @param key cache key from {@link #getKey(QueryContext, String)}
+   * @param textPlan receives the text plan of a cached plan, may be null
+   * @return physical plan or null
+   */
+  public PhysicalPlan getPlan(QueryContext context, String key, Pointer<String> textPlan) {
+    final CachedPlan cached = plans.getIfPresent(key);
+    if (cached == null) {
+      return null;
+    }
+    final long ttl = TimeUnit.SECONDS.toMillis(context.getOptions().getOption(PlannerSettings.PLAN_CACHE_TTL));
+    if (System.currentTimeMillis() - cached.createTimeMillis > ttl) {
+      plans.invalidate(key);
+      return null;
+    }
+    if (!isCurrent(cached)) {
+      logger.debug("Tables of the cached plan changed, planning query {} again.", context.getQueryId());
+      plans.invalidate(key);
+      return null;
+    }
+    try {
+      final PhysicalPlan plan = planReader.readPhysicalPlan(cached.jsonPlan);
+      if (textPlan != null) {
+        textPlan.value = cached.textPlan;
+      }
+      hitCount.incrementAndGet();
+      logger.debug("Using cached plan for query {}", context.getQueryId());
+      return plan;
+    } catch (IOException e) {
+      logger.warn("Failed to read cached plan, planning the query again.", e);
+      plans.invalidate(key);
+      return null;
+    }
+  }
+
+  /**
+   * Caches the plan of a query, if it can be reused by later queries with the
+   * same key.
+   *
+   * @param context query context
+   * @param key cache key from {@link #getKey(QueryContext, String)}
+   * @param sqlNode parsed query
+   * @param plan physical plan of the query
+   * @param textPlan text plan of the query, may be null
+   */
+  public void putPlan(QueryContext context, String key, SqlNode sqlNode, PhysicalPlan plan, Pointer<String> textPlan) {
+    if (!isCacheable(sqlNode, context.getDrillOperatorTable())) {
+      return;
+    }
+    final List<TableVersion> tables;
+    try {
+      tables = getTableVersions(context, plan);
+    } catch (IOException | ExecutionSetupException e) {
+      logger.debug("Failed to read the versions of the tables of query {}, not caching its plan.",
+          context.getQueryId(), e);
+      return;
+    }
+    plans.put(key, new CachedPlan(plan.unparse(lpPersistence.getMapper().writer()),
+        textPlan == null ? null : textPlan.value, tables));
+  }
+
+  /**
+   * Removes all cached plans. Called when table, view, function or storage
+   * plugin definitions change.
+   */
+  public void invalidateAll() {
+    plans.invalidateAll();
+  }
+
+  public long size() {
+    return plans.size();
+  }
+
+  /**
+   * @return the number of queries which used a cached plan
+   */
+  public long getHitCount() {
+    return hitCount.get();
+  }
+
+  /**
+   * Reads the versions of the tables read by the file system scans of a plan.
+   *
+   * @param context query context
+   * @param plan physical plan of the query
+   * @return table versions
+   * @throws IOException if a table cannot be listed
+   * @throws ExecutionSetupException if the storage plugin of a scan cannot be found
+   */
+  private static List<TableVersion> getTableVersions(QueryContext context, PhysicalPlan plan)
+      throws IOException, ExecutionSetupException {
+    final List<TableVersion> tables = Lists.newArrayList();
+    for (PhysicalOperator op : plan.getSortedOperators()) {
+      final String selectionRoot;
+      final StoragePluginConfig storageConfig;
+      if (op instanceof EasyGroupScan) {
+        selectionRoot = ((EasyGroupScan) op).getSelectionRoot();
+        storageConfig = ((EasyGroupScan) op).getStorageConfig();
+      } else if (op instanceof ParquetGroupScan) {
+        selectionRoot = ((ParquetGroupScan) op).getSelectionRoot();
+        storageConfig = ((ParquetGroupScan) op).getEngineConfig();
+      } else {
+        continue;
+      }
+      final StoragePlugin plugin = context.getStorage().getPlugin(storageConfig);
+      if (!(plugin instanceof FileSystemPlugin)) {
+        continue;
+      }
+      final Configuration fsConf = ((FileSystemPlugin) plugin).getFsConf();
+      final DrillFileSystem fs = ImpersonationUtil.createFileSystem(op.getUserName(), fsConf);
+      if (CLASSPATH_SCHEME.equals(fs.getUri().getScheme())) {
+        continue;
+      }
+      final Collection<String> roots = selectionRoot != null
+          ? Collections.singletonList(selectionRoot) : ((GroupScan) op).getFiles();
+      for (String root : roots) {
+        final Path path = new Path(root);
+        tables.add(new TableVersion(op.getUserName(), fsConf, path, getVersion(fs, path)));
+      }
+    }
+    return tables;
+  }
+
+  /**
+   * Reports whether none of the tables read by a cached plan changed since
+   * it was planned.
+   *
+   * @param cached cached plan
+   * @return true if the plan may be used
+   */
+  private static boolean isCurrent(CachedPlan cached) {
+    for (TableVersion table : cached.tables) {
+      try {
+        final DrillFileSystem fs = ImpersonationUtil.createFileSystem(table.userName, table.fsConf);
+        if (getVersion(fs, table.root) != table.version) {
+          return false;
+        }
+      } catch (IOException e) {
+        logger.debug("Failed to read the version of table {}.", table.root, e);
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Returns the latest modification time of a file or directory and, for a
+   * directory, of everything under it.
+   *
+   * @param fs file system
+   * @param path file or directory
+   * @return version
+   * @throws IOException if the path cannot be listed
+   */
+  private static long getVersion(DrillFileSystem fs, Path path) throws IOException {
+    final FileStatus status = fs.getFileStatus(path);
+    long version = status.getModificationTime();
+    if (status.isDirectory()) {
+      for (FileStatus child : fs.listStatus(path)) {
+        version = Math.max(version,
+            child.isDirectory() ? getVersion(fs, child.getPath()) : child.getModificationTime());
+      }
+    }
+    return version;
+  }
+
+  /**
+   * Reports whether a statement changes metadata which cached plans may
+   * depend on.
+   *
+   * @param sqlNode parsed statement
+   * @return true if cached plans must be discarded
+   */
+  public static boolean changesMetadata(SqlNode sqlNode) {
+    return sqlNode instanceof SqlCreateTable
+        || sqlNode instanceof SqlDropTable
+        || sqlNode instanceof SqlCreateView
+        || sqlNode instanceof SqlDropView
+        || sqlNode instanceof SqlRefreshMetadata
+        || sqlNode instanceof SqlAnalyzeTable
+        || sqlNode instanceof SqlCreateFunction
+        || sqlNode instanceof SqlDropFunction;
+  }
+
+  /**
+   * Reports whether the plan of a query can be reused: the query must not
+   * call functions which are non-deterministic or depend on the query
+   * context, as planning may fold them to constants.
+   *
+   * @param sqlNode parsed query
+   * @param operatorTable operator table used to resolve function names
+   * @return true if the plan may be cached
+   */
+  static boolean isCacheable(SqlNode sqlNode, SqlOperatorTable operatorTable) {
+    final VolatileFunctionFinder finder = new VolatileFunctionFinder(operatorTable);
+    sqlNode.accept(finder);
+    return !finder.found;
+  }
+
+  /**
+   * Collapses runs of white space outside of quotes into one blank and
+   * removes leading and trailing white space and semicolons.
+   *
+   * @param sql sql query
+   * @return normalized sql query
+   */
+  static String normalize(String sql) {
+    final StringBuilder buf = new StringBuilder(sql.length());
+    char quote = 0;
+    boolean pendingSpace = false;
+    for (int i = 0; i < sql.length(); i++) {
+      final char c = sql.charAt(i);
+      if (quote != 0) {
+        buf.append(c);
+        if (c == quote) {
+          quote = 0;
+        }
+      } else if (Character.isWhitespace(c)) {
+        pendingSpace = buf.length() > 0;
+      } else {
+        if (pendingSpace) {
+          buf.append(' ');
+          pendingSpace = false;
+        }
+        if (c == '\'' || c == '"' || c == '`') {
+          quote = c;
+        }
+        buf.append(c);
+      }
+    }
+    int end = buf.length();
+    while (end > 0 && (buf.charAt(end - 1) == ';' || buf.charAt(end - 1) == ' ')) {
+      end--;
+    }
+    buf.setLength(end);
+    return buf.toString();
+  }
+
+  /**
+   * Looks for calls (or niladic function identifiers) of functions whose
+   * value may differ between two runs of the same query.
+   */
+  private static class VolatileFunctionFinder extends SqlBasicVisitor<Void> {
+    private final SqlOperatorTable operatorTable;
+    private boolean found;
+
+    public VolatileFunctionFinder(SqlOperatorTable operatorTable) {
+      this.operatorTable = operatorTable;
+    }
+
+    @Override
+    public Void visit(SqlCall call) {
+      final SqlOperator operator = call.getOperator();
+      if (operator instanceof SqlUnresolvedFunction) {
+        found |= anyVolatile(((SqlUnresolvedFunction) operator).getNameAsId(), SqlSyntax.FUNCTION);
+      } else {
+        found |= isVolatile(operator);
+      }
+      return found ? null : super.visit(call);
+    }
+
+    @Override
+    public Void visit(SqlIdentifier id) {
+      if (id.isSimple()) {
+        found |= anyVolatile(id, SqlSyntax.FUNCTION_ID);
+      }
+      return null;
+    }
+
+    private boolean anyVolatile(SqlIdentifier name, SqlSyntax syntax) {
+      final List<SqlOperator> operators = Lists.newArrayList();
+      operatorTable.lookupOperatorOverloads(name, SqlFunctionCategory.USER_DEFINED_FUNCTION, syntax, operators);
+      for (SqlOperator operator : operators) {
+        if (isVolatile(operator)) {
+          return true;
+        }
+      }
+      return false;
+    }
+
+    private static boolean isVolatile(SqlOperator operator) {
+      if (operator instanceof DrillCalciteSqlWrapper) {
+        operator = ((DrillCalciteSqlWrapper) operator).getOperator();
+      }
+      if (!operator.isDeterministic() || operator.isDynamicFunction()) {
+        return true;
+      }
+      if (operator instanceof DrillSqlOperator) {
+        final DrillSqlOperator drillOperator = (DrillSqlOperator) operator;
+        if (drillOperator.isNiladic()) {
+          return true;
+        }
+        for (DrillFuncHolder holder : drillOperator.getFunctions()) {
+          for (WorkspaceReference ref : holder.getWorkspaceVars()) {
+            if (ref.isInject() && ref.getType() == ContextInformation.class) {
+              return true;
+            }
+          }
+        }
+      }
+      return false;
+    }
+  }
+}
@@ -0,0 +1,263 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.drill.exec.planner.sql.handlers;
+
+import static org.apache.drill.exec.planner.sql.SchemaUtilites.findSchema;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.calcite.plan.RelTraitSet;
+import org.apache.calcite.rel.type.RelDataType;
+import org.apache.calcite.schema.SchemaPlus;
+import org.apache.calcite.schema.Table;
+import org.apache.calcite.sql.SqlNode;
+import org.apache.calcite.tools.RelConversionException;
+import org.apache.calcite.tools.ValidationException;
+import org.apache.drill.common.expression.SchemaPath;
+import org.apache.drill.common.logical.FormatPluginConfig;
+import org.apache.drill.common.types.TypeProtos.DataMode;
+import org.apache.drill.common.types.TypeProtos.MajorType;
+import org.apache.drill.common.types.TypeProtos.MinorType;
+import org.apache.drill.exec.ExecConstants;
+import org.apache.drill.exec.physical.PhysicalPlan;
+import org.apache.drill.exec.physical.base.GroupScan;
+import org.apache.drill.exec.physical.base.PhysicalOperator;
+import org.apache.drill.exec.planner.common.DrillStatsTable;
+import org.apache.drill.exec.planner.logical.DrillRel;
+import org.apache.drill.exec.planner.logical.DrillScreenRel;
+import org.apache.drill.exec.planner.logical.DrillTable;
+import org.apache.drill.exec.planner.logical.DrillWriterRel;
+import org.apache.drill.exec.planner.physical.PlannerSettings;
+import org.apache.drill.exec.planner.physical.Prel;
+import org.apache.drill.exec.planner.sql.DirectPlan;
+import org.apache.drill.exec.planner.sql.SchemaUtilites;
+import org.apache.drill.exec.planner.sql.parser.SqlAnalyzeTable;
+import org.apache.drill.exec.proto.helper.QueryIdHelper;
+import org.apache.drill.exec.store.AbstractSchema;
+import org.apache.drill.exec.store.StorageStrategy;
+import org.apache.drill.exec.store.dfs.DrillFileSystem;
+import org.apache.drill.exec.store.dfs.FileSystemPlugin;
+import org.apache.drill.exec.store.dfs.FormatSelection;
+import org.apache.drill.exec.store.dfs.NamedFormatPluginConfig;
+import org.apache.drill.exec.store.parquet.AbstractParquetGroupScan;
+import org.apache.drill.exec.store.parquet.ParquetFormatConfig;
+import org.apache.drill.exec.util.ImpersonationUtil;
+import org.apache.drill.exec.util.Pointer;
+import org.apache.drill.exec.work.foreman.ForemanSetupException;
+import org.apache.hadoop.fs.Path;
+
+/**
+ * Handles ANALYZE TABLE: computes the statistics of a table (see {@link DrillStatsTable}) with a query over the
+ * table aggregating, for each column, the number of non null values ({@code COUNT}), the number of distinct values
+ * ({@code hll_ndv}) and (numeric columns) an equi-depth histogram ({@code equi_depth_histogram}), and writes the
+ * single row result into the statistics directory of the table.
+ */
+public class AnalyzeTableHandler extends DefaultSqlHandler {
+  private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(AnalyzeTableHandler.class);
+
+  // types accepted as is by hll_ndv; the values of other types are converted to strings
+  private static final Set<MinorType> NDV_TYPES = EnumSet.of(MinorType.INT, MinorType.BIGINT, MinorType.FLOAT4,
+      MinorType.FLOAT8, MinorType.VARCHAR, MinorType.VARBINARY, MinorType.DATE, MinorType.TIMESTAMP);
+
+  // types accepted as is by equi_depth_histogram; the values of the other numeric types are converted to doubles
+  private static final Set<MinorType> HISTOGRAM_TYPES = EnumSet.of(MinorType.INT, MinorType.BIGINT,
+      MinorType.FLOAT4, MinorType.FLOAT8);
+
+  private static final Set<MinorType> DECIMAL_TYPES = EnumSet.of(MinorType.DECIMAL9, MinorType.DECIMAL18,
+      MinorType.DECIMAL28SPARSE, MinorType.DECIMAL38SPARSE, MinorType.VARDECIMAL);
+
+  public AnalyzeTableHandler(SqlHandlerConfig config, Pointer<String> textPlan) {
+    super(config, textPlan);
+  }
+
+  private PhysicalPlan direct(boolean outcome, String message, Object... values) {
+    return DirectPlan.createDirectPlan(context, outcome, String.format(message, values));
+  }
+
+  private PhysicalPlan notSupported(String tbl) {
+    return direct(false, "Table %s does not support statistics. Support is currently limited to directory-based Parquet tables.", tbl);
+  }
+
+  @Override
+  public PhysicalPlan getPlan(SqlNode sqlNode) throws ValidationException, RelConversionException, IOException, ForemanSetupException {
+    final SqlAnalyzeTable analyzeTable = unwrap(sqlNode, SqlAnalyzeTable.class);
+
+    final SchemaPlus schema = findSchema(config.getConverter().getDefaultSchema(), analyzeTable.getSchemaPath());
+    if (schema == null) {
+      return direct(false, "Storage plugin or workspace does not exist [%s]",
+          SchemaUtilites.SCHEMA_PATH_JOINER.join(analyzeTable.getSchemaPath()));
+    }
+
+    final String tableName = analyzeTable.getName();
+    final Table table = schema.getTable(tableName);
+    if (table == null) {
+      return direct(false, "Table %s does not exist.", tableName);
+    }
+    if (!(table instanceof DrillTable) || !(((DrillTable) table).getSelection() instanceof FormatSelection)) {
+      return notSupported(tableName);
+    }
+
+    final DrillTable drillTable = (DrillTable) table;
+    final FormatSelection formatSelection = (FormatSelection) drillTable.getSelection();
+    final FormatPluginConfig formatConfig = formatSelection.getFormat();
+    if (!((formatConfig instanceof ParquetFormatConfig) ||
+        ((formatConfig instanceof NamedFormatPluginConfig) && ((NamedFormatPluginConfig) formatConfig).name.equals("parquet")))) {
+      return notSupported(tableName);
+    }
+
+    final AbstractSchema drillSchema = SchemaUtilites.unwrapAsDrillSchemaInstance(schema);
+    if (!drillSchema.isMutable()) {
+      return direct(false, "Unable to store the statistics of table %s: schema [%s] is immutable.",
+          tableName, drillSchema.getFullSchemaName());
+    }
+
+    final FileSystemPlugin plugin = (FileSystemPlugin) drillTable.getPlugin();
+    final DrillFileSystem fs = ImpersonationUtil.createFileSystem(
+        ImpersonationUtil.resolveUserName(context.getQueryUserName()), plugin.getFsConf());
+    final String selectionRoot = formatSelection.getSelection().getSelectionRoot();
+    if (!fs.getFileStatus(new Path(selectionRoot)).isDirectory()) {
+      return notSupported(tableName);
+    }
+
+    final GroupScan groupScan = drillTable.getGroupScan();
+    if (!(groupScan instanceof AbstractParquetGroupScan)) {
+      return notSupported(tableName);
+    }
+    final Map<String, MajorType> columns = getColumns((AbstractParquetGroupScan) groupScan);
+    final List<String> analyzedColumns = analyzeTable.getFieldNames().isEmpty() ?
+        new ArrayList<>(columns.keySet()) : analyzeTable.getFieldNames();
+    for (String column : analyzedColumns) {
+      if (!columns.containsKey(column.toLowerCase())) {
+        return direct(false, "Column %s does not exist in table %s.", column, tableName);
+      }
+    }
+
+    // The statistics are written to a folder of their own and replace the previous statistics (if any)
+    // only once the query has succeeded, so a failed ANALYZE keeps them
+    final Path statsPath = new Path(selectionRoot, DrillStatsTable.STATS_TABLE_NAME);
+    final String tmpStatsTableName = DrillStatsTable.STATS_TABLE_NAME + "_" + QueryIdHelper.getQueryId(context.getQueryId());
+    final Path tmpStatsPath = new Path(selectionRoot, tmpStatsTableName);
+    context.addCompletionAction(new AutoCloseable() {
+      @Override
+      public void close() throws IOException {
+        if (fs.exists(statsPath)) {
+          fs.delete(statsPath, true);
+        }
+        if (!fs.rename(tmpStatsPath, statsPath)) {
+          throw new IOException(String.format("Failed to move the statistics of table %s from %s to %s",
+              tableName, tmpStatsPath, statsPath));
+        }
+      }
+    });
+    // whatever a failed or cancelled query wrote is removed
+    context.addCleanupAction(new AutoCloseable() {
+      @Override
+      public void close() throws IOException {
+        if (fs.exists(tmpStatsPath)) {
+          fs.delete(tmpStatsPath, true);
+        }
+      }
+    });
+
+    final String statsQuery = getStatsQuery(analyzeTable, analyzedColumns, columns);
+    logger.debug("Statistics query for table {}: {}", tableName, statsQuery);
+
+    final ConvertedRelNode convertedRelNode = validateAndConvert(config.getConverter().parse(statsQuery));
+    final RelDataType validatedRowType = convertedRelNode.getValidatedRowType();
+
+    final DrillRel convertedDrel = convertToRawDrel(convertedRelNode.getConvertedNode());
+    final DrillRel renamedDrel = addRenamedProject(convertedDrel, validatedRowType);
+    final StorageStrategy storageStrategy =
+        new StorageStrategy(context.getOption(ExecConstants.PERSISTENT_TABLE_UMASK).string_val, false);
+    final RelTraitSet traits = convertedDrel.getCluster().traitSet().plus(DrillRel.DRILL_LOGICAL);
+    final DrillWriterRel writerRel = new DrillWriterRel(convertedDrel.getCluster(), traits, renamedDrel,
+        drillSchema.createStatsTable(tableName, tmpStatsTableName, storageStrategy));
+    final DrillRel drel = new DrillScreenRel(writerRel.getCluster(), writerRel.getTraitSet(), writerRel);
+
+    final Prel prel = convertToPrel(drel, validatedRowType);
+    logAndSetTextPlan("Drill Physical", prel, logger);
+    final PhysicalOperator pop = convertToPop(prel);
+    final PhysicalPlan plan = convertToPlan(pop);
+    log("Drill Plan", plan, logger);
+
+    logger.info("Computing statistics of table [{}].", tableName);
+    return plan;
+  }
+
+  /**
+   * @return the type of each top level column of the table, by lower case column name
+   */
+  private static Map<String, MajorType> getColumns(AbstractParquetGroupScan groupScan) {
+    final Map<String, MajorType> columns = new LinkedHashMap<>();
+    for (Map.Entry<SchemaPath, MajorType> column : groupScan.getColumnTypes().entrySet()) {
+      if (column.getKey().getRootSegment().isLastPath()) {
+        columns.put(column.getKey().getRootSegmentPath().toLowerCase(), column.getValue());
+      }
+    }
+    return columns;
+  }
+
+  /**
+   * Builds the query computing the statistics:
+   * <pre>
+   * SELECT COUNT(*) AS rowcount,
+   *        COUNT(col) AS `col$nonnull`, hll_ndv(col) AS `col$ndv`, equi_depth_histogram(col) AS `col$histogram`,
+   *        ...
+   * FROM table
+   * </pre>
+   */
+  private String getStatsQuery(SqlAnalyzeTable analyzeTable, List<String> analyzedColumns, Map<String, MajorType> columns) {
+    final String quote = context.getOption(PlannerSettings.QUOTING_IDENTIFIERS_KEY).string_val;
+    final StringBuilder query = new StringBuilder("SELECT COUNT(*) AS ")
+        .append(quote(DrillStatsTable.ROW_COUNT, quote));
+    for (String column : analyzedColumns) {
+      final MajorType type = columns.get(column.toLowerCase());
+      if (type.getMode() == DataMode.REPEATED) {
+        continue;
+      }
+      final String quotedColumn = quote(column, quote);
+      final MinorType minorType = type.getMinorType();
+      query.append(", COUNT(").append(quotedColumn).append(") AS ")
+          .append(quote(column + DrillStatsTable.NON_NULL_COUNT_SUFFIX, quote));
+      query.append(", hll_ndv(")
+          .append(NDV_TYPES.contains(minorType) ? quotedColumn : "CAST(" + quotedColumn + " AS VARCHAR)")
+          .append(") AS ").append(quote(column + DrillStatsTable.NDV_SUFFIX, quote));
+      if (HISTOGRAM_TYPES.contains(minorType) || DECIMAL_TYPES.contains(minorType)) {
+        query.append(", equi_depth_histogram(")
+            .append(HISTOGRAM_TYPES.contains(minorType) ? quotedColumn : "CAST(" + quotedColumn + " AS DOUBLE)")
+            .append(") AS ").append(quote(column + DrillStatsTable.HISTOGRAM_SUFFIX, quote));
+      }
+    }
+    query.append(" FROM ");
+    for (String name : analyzeTable.getSchemaPath()) {
+      query.append(quote(name, quote)).append('.');
+    }
+    return query.append(quote(analyzeTable.getName(), quote)).toString();
+  }
+
+  private static String quote(String identifier, String quote) {
+    final String endQuote = "[".equals(quote) ? "]" : quote;
+    return quote + identifier.replace(endQuote, endQuote + endQuote) + endQuote;
+  }
+}
@@ -94,6 +94,7 @@ import org.apache.drill.exec.planner.physical.visitor.JoinPrelRenameVisitor;
 import org.apache.drill.exec.planner.physical.visitor.MemoryEstimationVisitor;
 import org.apache.drill.exec.planner.physical.visitor.RelUniqifier;
 import org.apache.drill.exec.planner.physical.visitor.RewriteProjectToFlatten;
+import org.apache.drill.exec.planner.physical.visitor.RuntimeFilterVisitor;
 import org.apache.drill.exec.planner.physical.visitor.SelectionVectorPrelVisitor;
 import org.apache.drill.exec.planner.physical.visitor.SplitUpComplexExpressions;
 import org.apache.drill.exec.planner.physical.visitor.StarColumnConverter;
@@ -551,6 +552,15 @@ public class DefaultSqlHandler extends AbstractSqlHandler {
      */
     phyRelNode = ExcessiveExchangeIdentifier.removeExcessiveEchanges(phyRelNode, targetSliceSize);
 
+    /*
+     * 4.1)
+     * Filter the probe side scans of hash joins by the runtime filters of the joins, if these scans
+     * are across an exchange
+     */
+    if (context.getOptions().getOption(ExecConstants.HASHJOIN_ENABLE_RUNTIME_FILTER_VALIDATOR)) {
+      phyRelNode = RuntimeFilterVisitor.addRuntimeFilters(phyRelNode);
+    }
+
 
     /* 5.)
      * Add ProducerConsumer after each scan if the option is set
@@ -56,6 +56,22 @@ public class FragmentWritableBatch{
     this.header = builder.build();
   }
 
+  private FragmentWritableBatch(final FragmentRecordBatch header, final ByteBuf... buffers) {
+    this.header = header;
+    this.buffers = buffers;
+  }
+
+  /**
+   * A copy of this batch (same header) whose data is the given compressed body, flagged as compressed.
+   * The buffers of this batch are not released.
+   *
+   * @param body the buffers of this batch, compressed (see {@link org.apache.drill.exec.rpc.data.BatchCompressor})
+   * @return the compressed batch
+   */
+  public FragmentWritableBatch withCompressedBody(final ByteBuf body) {
+    return new FragmentWritableBatch(header.toBuilder().setIsCompressed(true).build(), body);
+  }
+
 
   public static FragmentWritableBatch getEmptyLast(final QueryId queryId, final int sendMajorFragmentId, final int sendMinorFragmentId, final int receiveMajorFragmentId, final int receiveMinorFragmentId){
     return getEmptyLast(queryId, sendMajorFragmentId, sendMinorFragmentId, receiveMajorFragmentId, new int[]{receiveMinorFragmentId});
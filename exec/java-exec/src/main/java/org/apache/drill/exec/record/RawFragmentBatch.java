@@ -19,25 +19,35 @@ package org.apache.drill.exec.record;
 
 import io.netty.buffer.DrillBuf;
 
+import java.util.Arrays;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.apache.drill.exec.proto.BitData.FragmentRecordBatch;
 import org.apache.drill.exec.rpc.data.AckSender;
 
+import com.google.common.base.Preconditions;
+
 public class RawFragmentBatch {
   //private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(RawFragmentBatch.class);
 
   private final FragmentRecordBatch header;
-  private final DrillBuf body;
+  private final DrillBuf[] buffers;
   private final AckSender sender;
   private final AtomicBoolean ackSent = new AtomicBoolean(false);
 
   public RawFragmentBatch(FragmentRecordBatch header, DrillBuf body, AckSender sender) {
+    this(header, body == null ? new DrillBuf[0] : new DrillBuf[] {body}, sender);
+  }
+
+  /**
+   * A batch made of the buffers it was serialized into (handed over by a fragment on the same Drillbit).
+   */
+  public RawFragmentBatch(FragmentRecordBatch header, DrillBuf[] buffers, AckSender sender) {
     this.header = header;
     this.sender = sender;
-    this.body = body;
-    if (body != null) {
-      body.retain(1);
+    this.buffers = buffers;
+    for (DrillBuf buffer : buffers) {
+      buffer.retain(1);
     }
   }
 
@@ -45,18 +55,30 @@ public class RawFragmentBatch {
     return header;
   }
 
+  /**
+   * @return the body of a batch held in a single buffer (received over the network, or read back from
+   *         a spill file); null if the batch has no data
+   */
   public DrillBuf getBody() {
-    return body;
+    Preconditions.checkState(buffers.length <= 1, "The batch is held in %s buffers", buffers.length);
+    return buffers.length == 0 ? null : buffers[0];
+  }
+
+  /**
+   * @return the buffers holding the data of the batch, in order
+   */
+  public DrillBuf[] getBuffers() {
+    return buffers;
   }
 
   @Override
   public String toString() {
-    return "RawFragmentBatch [header=" + header + ", body=" + body + "]";
+    return "RawFragmentBatch [header=" + header + ", buffers=" + Arrays.toString(buffers) + "]";
   }
 
   public void release() {
-    if (body != null) {
-      body.release(1);
+    for (DrillBuf buffer : buffers) {
+      buffer.release(1);
     }
   }
 
@@ -65,13 +87,24 @@ public class RawFragmentBatch {
   }
 
   public synchronized void sendOk() {
+    sendOk(0);
+  }
+
+  /**
+   * Ack the batch, granting the sender the given number of batches in flight (see {@link AckSender#sendOk(int)}).
+   */
+  public synchronized void sendOk(int credit) {
     if (sender != null && ackSent.compareAndSet(false, true)) {
-      sender.sendOk();
+      sender.sendOk(credit);
     }
   }
 
   public long getByteCount() {
-    return body == null ? 0 : body.readableBytes();
+    long byteCount = 0;
+    for (DrillBuf buffer : buffers) {
+      byteCount += buffer.readableBytes();
+    }
+    return byteCount;
   }
 
   public boolean isAckSent() {
@@ -36,6 +36,7 @@ import org.apache.drill.exec.proto.UserBitShared.SerializedField;
 import org.apache.drill.exec.record.selection.SelectionVector2;
 import org.apache.drill.exec.record.selection.SelectionVector4;
 import org.apache.drill.exec.vector.AllocationHelper;
+import org.apache.drill.exec.vector.BatchBuffers;
 import org.apache.drill.exec.vector.ValueVector;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -74,10 +75,30 @@ public class RecordBatchLoader implements VectorAccessible, Iterable<VectorWrapp
    * @throws SchemaChangeException
    *   TODO:  Clean:  DRILL-2933  load(...) never actually throws SchemaChangeException.
    */
-  @SuppressWarnings("resource")
   public boolean load(RecordBatchDef def, DrillBuf buf) throws SchemaChangeException {
+    // the vectors are read at their offset from the start of the buffer
+    return load(def, buf == null ? null : new BatchBuffers(new DrillBuf[] {buf.slice(0, buf.capacity())}, allocator));
+  }
+
+  /**
+   * Load a record batch from the buffers it was serialized into (see {@link WritableBatch#getBuffers()}),
+   * without copying them into a single buffer first.
+   *
+   * @param def
+   *          The definition for the record batch.
+   * @param buffers
+   *          The buffers that hold the data associated with the record batch, in order.
+   * @return Whether the schema changed since the previous load.
+   * @throws SchemaChangeException
+   */
+  public boolean load(RecordBatchDef def, DrillBuf[] buffers) throws SchemaChangeException {
+    return load(def, new BatchBuffers(buffers, allocator));
+  }
+
+  @SuppressWarnings("resource")
+  private boolean load(RecordBatchDef def, BatchBuffers buffers) throws SchemaChangeException {
     if (logger.isTraceEnabled()) {
-      logger.trace("Loading record batch with def {} and data {}", def, buf);
+      logger.trace("Loading record batch with def {} and data {}", def, buffers);
       logger.trace("Load, ThreadID: {}\n{}", Thread.currentThread().getId(), new StackTrace());
     }
     container.zeroVectors();
@@ -98,7 +119,6 @@ public class RecordBatchLoader implements VectorAccessible, Iterable<VectorWrapp
     final VectorContainer newVectors = new VectorContainer();
     try {
       final List<SerializedField> fields = def.getFieldList();
-      int bufOffset = 0;
       for (final SerializedField field : fields) {
         final MaterializedField fieldDef = MaterializedField.create(field);
         ValueVector vector = oldFields.remove(fieldDef.getName());
@@ -127,14 +147,14 @@ public class RecordBatchLoader implements VectorAccessible, Iterable<VectorWrapp
         }
 
         // Load the vector.
-        if (buf == null) {
+        if (buffers == null) {
           // Schema only
         } else if (field.getValueCount() == 0) {
           AllocationHelper.allocate(vector, 0, 0, 0);
+          buffers.skip(field.getBufferLength());
         } else {
-          vector.load(field, buf.slice(bufOffset, field.getBufferLength()));
+          vector.load(field, buffers);
         }
-        bufOffset += field.getBufferLength();
         newVectors.add(vector);
       }
 
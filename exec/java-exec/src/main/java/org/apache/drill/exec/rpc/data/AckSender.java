@@ -19,6 +19,9 @@ package org.apache.drill.exec.rpc.data;
 
 import java.util.concurrent.atomic.AtomicInteger;
 
+import org.apache.drill.exec.proto.BitData.RpcType;
+import org.apache.drill.exec.proto.GeneralRPCProtos.Ack;
+import org.apache.drill.exec.rpc.Response;
 import org.apache.drill.exec.rpc.ResponseSender;
 
 import com.google.common.annotations.VisibleForTesting;
@@ -30,6 +33,8 @@ import com.google.common.annotations.VisibleForTesting;
 public class AckSender {
 
   private AtomicInteger count = new AtomicInteger(0);
+  // the smallest credit granted by the receivers, if any (see ExecConstants.DATA_CREDITS_PER_SENDER_KEY)
+  private AtomicInteger credit = new AtomicInteger(Integer.MAX_VALUE);
   private ResponseSender sender;
 
   @VisibleForTesting
@@ -56,8 +61,29 @@ public class AckSender {
    * response upstream.
    */
   public void sendOk() {
+    sendOk(0);
+  }
+
+  /**
+   * Like {@link #sendOk()}, also granting the sender the given number of batches in flight to this receiver. The ack
+   * carries the smallest credit granted by the receivers of the batch.
+   *
+   * @param credit the number of batches granted, or 0 to grant none
+   */
+  public void sendOk(int credit) {
+    if (credit > 0) {
+      int current;
+      do {
+        current = this.credit.get();
+      } while (credit < current && !this.credit.compareAndSet(current, credit));
+    }
     if (0 == count.decrementAndGet()) {
-      sender.send(DataRpcConfig.OK);
+      final int granted = this.credit.get();
+      if (granted == Integer.MAX_VALUE) {
+        sender.send(DataRpcConfig.OK);
+      } else {
+        sender.send(new Response(RpcType.ACK, Ack.newBuilder().setOk(true).setCredit(granted).build()));
+      }
     }
   }
 }
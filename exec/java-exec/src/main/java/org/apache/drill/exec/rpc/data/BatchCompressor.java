@@ -0,0 +1,224 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.drill.exec.rpc.data;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.DrillBuf;
+
+import java.io.IOException;
+
+import org.apache.drill.exec.memory.BufferAllocator;
+import org.apache.drill.exec.ops.MetricDef;
+import org.apache.drill.exec.ops.OperatorStats;
+import org.apache.drill.exec.record.FragmentWritableBatch;
+import org.xerial.snappy.Snappy;
+
+/**
+ * Compresses the bodies of the record batches sent to other Drillbits (and decompresses them on arrival).
+ * <p>
+ * Each buffer of the batch is compressed separately (using Snappy), and the compressed body is made of
+ * one chunk per (non empty) buffer: the length of the compressed buffer (int) followed by its bytes.
+ * Decompressing all the chunks, one after the other, into a single buffer recreates the original body
+ * (i.e., the concatenation of the buffers), so the receiving side is not aware of the compression.
+ * <p>
+ * The compression mode is set by {@link org.apache.drill.exec.ExecConstants#DATA_COMPRESSION_KEY}:
+ * <ul>
+ *   <li>off - never compress</li>
+ *   <li>on - compress every batch (unless the compressed body is not smaller)</li>
+ *   <li>adaptive - compress only while the batches shrink enough; once a batch does not, stop compressing
+ *   for a while (longer after each such batch), then try again</li>
+ * </ul>
+ * A compressor is used by a single thread; it should only be applied to batches sent over a tunnel which
+ * {@link DataTunnel#isCompressionSupported() supports} compression.
+ */
+public class BatchCompressor {
+  private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(BatchCompressor.class);
+
+  public enum Mode {
+    OFF, ON, ADAPTIVE;
+
+    public static Mode fromOption(String value) {
+      return valueOf(value.toUpperCase());
+    }
+  }
+
+  // In the adaptive mode: Smaller bodies are not worth compressing
+  static final int ADAPTIVE_MIN_BYTES = 4096;
+
+  // In the adaptive mode: The compressed body should be at most this fraction of the original
+  static final double ADAPTIVE_MAX_RATIO = 0.8;
+
+  // In the adaptive mode: The most batches to send uncompressed before trying again
+  static final int ADAPTIVE_MAX_SKIP = 64;
+
+  private final BufferAllocator allocator;
+  private final Mode mode;
+  private final OperatorStats stats;
+  private final MetricDef bytesBeforeMetric;
+  private final MetricDef bytesAfterMetric;
+
+  // Adaptive mode state: the number of batches still to skip, and how many to skip next time
+  private int skipCount;
+  private int nextSkip = 1;
+
+  /**
+   * @param allocator the allocator for the compressed bodies
+   * @param mode the compression mode
+   * @param stats the stats of the sending operator
+   * @param bytesBeforeMetric the operator metric accumulating the sizes of the compressed bodies (before compression)
+   * @param bytesAfterMetric the operator metric accumulating the sizes of the compressed bodies (after compression)
+   */
+  public BatchCompressor(BufferAllocator allocator, Mode mode, OperatorStats stats,
+                         MetricDef bytesBeforeMetric, MetricDef bytesAfterMetric) {
+    this.allocator = allocator;
+    this.mode = mode;
+    this.stats = stats;
+    this.bytesBeforeMetric = bytesBeforeMetric;
+    this.bytesAfterMetric = bytesAfterMetric;
+  }
+
+  public boolean isEnabled() {
+    return mode != Mode.OFF;
+  }
+
+  /**
+   * Compress the body of the given batch, if the compression mode calls for it. When compressed,
+   * the buffers of the given batch are released.
+   *
+   * @param batch the batch to send
+   * @return the compressed batch, or the given batch when not compressed
+   */
+  public FragmentWritableBatch compress(FragmentWritableBatch batch) {
+    final DrillBuf body = compressBody(batch.getBuffers());
+    if (body == null) {
+      return batch;
+    }
+    for (ByteBuf buf : batch.getBuffers()) {
+      buf.release();
+    }
+    return batch.withCompressedBody(body);
+  }
+
+  /**
+   * Compress the given buffers into a single body, if the compression mode calls for it.
+   * The given buffers are not released.
+   *
+   * @param buffers the buffers of a batch
+   * @return the compressed body, or null when not compressed
+   */
+  public DrillBuf compressBody(ByteBuf[] buffers) {
+    if (mode == Mode.OFF) {
+      return null;
+    }
+    long uncompressedSize = 0;
+    long maxCompressedSize = 0;
+    for (ByteBuf buf : buffers) {
+      if (!buf.isDirect() || buf.nioBufferCount() != 1) {
+        return null; // only direct memory can be compressed in place
+      }
+      uncompressedSize += buf.readableBytes();
+      maxCompressedSize += 4 + Snappy.maxCompressedLength(buf.readableBytes());
+    }
+    if (mode == Mode.ADAPTIVE) {
+      if (uncompressedSize < ADAPTIVE_MIN_BYTES) {
+        return null;
+      }
+      if (skipCount > 0) {
+        skipCount--;
+        return null;
+      }
+    }
+    if (uncompressedSize == 0 || maxCompressedSize > Integer.MAX_VALUE) {
+      return null;
+    }
+
+    final DrillBuf body = allocator.buffer((int) maxCompressedSize);
+    int offset = 0;
+    try {
+      for (ByteBuf buf : buffers) {
+        if (buf.readableBytes() == 0) {
+          continue;
+        }
+        final int length = Snappy.compress(buf.nioBuffer(buf.readerIndex(), buf.readableBytes()),
+            body.nioBuffer(offset + 4, body.capacity() - offset - 4));
+        body.setInt(offset, length);
+        offset += 4 + length;
+      }
+    } catch (IOException e) {
+      logger.warn("Failed to compress a record batch; sending it uncompressed", e);
+      body.release();
+      return null;
+    }
+
+    final double maxRatio = mode == Mode.ADAPTIVE ? ADAPTIVE_MAX_RATIO : 1.0;
+    if (offset >= uncompressedSize * maxRatio) {
+      // not worth it; send the original buffers
+      body.release();
+      if (mode == Mode.ADAPTIVE) {
+        skipCount = nextSkip;
+        nextSkip = Math.min(2 * nextSkip, ADAPTIVE_MAX_SKIP);
+      }
+      return null;
+    }
+    nextSkip = 1;
+    body.writerIndex(offset);
+
+    stats.addLongStat(bytesBeforeMetric, uncompressedSize);
+    stats.addLongStat(bytesAfterMetric, offset);
+    DataRpcMetrics.addCompressedBytes(uncompressedSize, offset);
+    return body;
+  }
+
+  /**
+   * Decompress a body created by {@link #compressBody(ByteBuf[])}.
+   *
+   * @param allocator the allocator for the decompressed body
+   * @param body the compressed body (not released)
+   * @return the original body
+   * @throws IOException if the body is corrupt
+   */
+  public static DrillBuf decompress(BufferAllocator allocator, DrillBuf body) throws IOException {
+    final int start = body.readerIndex();
+    final int end = body.writerIndex();
+
+    long size = 0;
+    for (int offset = start; offset < end; offset += 4 + body.getInt(offset)) {
+      size += Snappy.uncompressedLength(body.nioBuffer(offset + 4, body.getInt(offset)));
+    }
+    if (size > Integer.MAX_VALUE) {
+      throw new IOException("Compressed record batch is too large: " + size + " bytes");
+    }
+
+    final DrillBuf result = allocator.buffer((int) size);
+    boolean success = false;
+    try {
+      int resultOffset = 0;
+      for (int offset = start; offset < end; offset += 4 + body.getInt(offset)) {
+        resultOffset += Snappy.uncompress(body.nioBuffer(offset + 4, body.getInt(offset)),
+            result.nioBuffer(resultOffset, (int) size - resultOffset));
+      }
+      result.writerIndex(resultOffset);
+      success = true;
+    } finally {
+      if (!success) {
+        result.release();
+      }
+    }
+    return result;
+  }
+}
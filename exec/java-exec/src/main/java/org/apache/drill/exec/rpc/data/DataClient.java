@@ -102,6 +102,7 @@ public class DataClient extends BasicClient<RpcType, DataClientConnection, BitCl
 
     @Override
     protected List<String> validateHandshake(BitServerHandshake handshake) throws RpcException {
+      connection.setSupportsCompression(handshake.getSupportsCompression());
       return BitRpcUtility.validateHandshake(handshake.getRpcVersion(), handshake.getAuthenticationMechanismsList(),
         DataRpcConfig.RPC_VERSION, connection, config, this);
     }
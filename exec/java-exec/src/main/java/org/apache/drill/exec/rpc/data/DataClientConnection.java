@@ -38,6 +38,9 @@ public class DataClientConnection extends AbstractClientConnection {
   private final DataClient client;
   private final UUID id;
 
+  // Whether the server side accepts compressed record batches (as negotiated in the handshake)
+  private volatile boolean supportsCompression;
+
   public DataClientConnection(SocketChannel channel, DataClient client,
                               EncryptionContext encryptionContextImpl) {
     super(channel, "data client", encryptionContextImpl);
@@ -50,6 +53,14 @@ public class DataClientConnection extends AbstractClientConnection {
     return client.getAllocator();
   }
 
+  public boolean supportsCompression() {
+    return supportsCompression;
+  }
+
+  void setSupportsCompression(boolean supportsCompression) {
+    this.supportsCompression = supportsCompression;
+  }
+
   public <SEND extends MessageLite, RECEIVE extends MessageLite>
   void send(RpcOutcomeListener<RECEIVE> outcomeListener, RpcType rpcType, SEND protobufBody,
             Class<RECEIVE> clazz, ByteBuf... dataBodies) {
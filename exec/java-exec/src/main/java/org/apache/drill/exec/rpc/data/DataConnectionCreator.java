@@ -40,10 +40,17 @@ public class DataConnectionCreator implements AutoCloseable {
   private final ConcurrentMap<DrillbitEndpoint, DataConnectionManager> connectionManager = Maps.newConcurrentMap();
 
   private final DataConnectionConfig config;
+  private final DataServerRequestHandler requestHandler;
+  private final boolean localExchangeEnabled;
+
+  // This Drillbit (once started); tunnels to it bypass the network
+  private volatile DrillbitEndpoint localEndpoint;
 
   public DataConnectionCreator(BootStrapContext context, BufferAllocator allocator, WorkEventBus workBus,
                                WorkerBee bee) throws DrillbitStartupException {
-    config = new DataConnectionConfig(allocator, context, new DataServerRequestHandler(workBus, bee));
+    requestHandler = new DataServerRequestHandler(workBus, bee);
+    config = new DataConnectionConfig(allocator, context, requestHandler);
+    localExchangeEnabled = context.getConfig().getBoolean(ExecConstants.BIT_LOCAL_EXCHANGE_ENABLED);
 
     // Initialize the singleton instance of DataRpcMetrics.
     ((DataRpcMetrics) DataRpcMetrics.getInstance()).initialize(config.isEncryptionEnabled(), allocator);
@@ -56,10 +63,14 @@ public class DataConnectionCreator implements AutoCloseable {
       port = config.getBootstrapContext().getConfig().getInt(ExecConstants.INITIAL_DATA_PORT);
     }
     port = server.bind(port, allowPortHunting);
-    return partialEndpoint.toBuilder().setDataPort(port).build();
+    localEndpoint = partialEndpoint.toBuilder().setDataPort(port).build();
+    return localEndpoint;
   }
 
   public DataTunnel getTunnel(DrillbitEndpoint endpoint) {
+    if (isLocal(endpoint)) {
+      return new DataTunnel(requestHandler);
+    }
     DataConnectionManager newManager = new DataConnectionManager(endpoint, config);
     DataConnectionManager oldManager = connectionManager.putIfAbsent(endpoint, newManager);
     if (oldManager != null) {
@@ -68,6 +79,13 @@ public class DataConnectionCreator implements AutoCloseable {
     return new DataTunnel(newManager);
   }
 
+  private boolean isLocal(DrillbitEndpoint endpoint) {
+    final DrillbitEndpoint local = localEndpoint;
+    return localExchangeEnabled && local != null
+        && local.getAddress().equals(endpoint.getAddress())
+        && local.getDataPort() == endpoint.getDataPort();
+  }
+
   @Override
   public void close() throws Exception {
     AutoCloseables.close(server, config.getAllocator());
@@ -31,12 +31,21 @@ public class DataRpcMetrics extends AbstractRpcMetrics {
 
   // Total number of data connection's as client and server for a DrillBit.
   // i.e. Sum of incoming and outgoing data connections.
+  private static final String DATA_COMPRESSION_COUNTER_PREFIX = "drill.data.compression.";
+
   private static final Counter encryptedConnections = DrillMetrics.getRegistry()
       .counter(CONNECTION_COUNTER_PREFIX + "data.encrypted");
 
   private static final Counter unencryptedConnection = DrillMetrics.getRegistry()
       .counter(CONNECTION_COUNTER_PREFIX + "data.unencrypted");
 
+  // Total size of the record batches compressed by the data senders, before and after the compression
+  private static final Counter bytesBeforeCompression = DrillMetrics.getRegistry()
+      .counter(DATA_COMPRESSION_COUNTER_PREFIX + "bytes_before");
+
+  private static final Counter bytesAfterCompression = DrillMetrics.getRegistry()
+      .counter(DATA_COMPRESSION_COUNTER_PREFIX + "bytes_after");
+
   private static final RpcMetrics INSTANCE = new DataRpcMetrics();
 
   // prevent instantiation
@@ -89,6 +98,25 @@ public class DataRpcMetrics extends AbstractRpcMetrics {
     return unencryptedConnection.getCount();
   }
 
+  /**
+   * Account for a record batch body that was compressed before being sent
+   *
+   * @param before the size of the body (bytes)
+   * @param after the size of the compressed body (bytes)
+   */
+  public static void addCompressedBytes(long before, long after) {
+    bytesBeforeCompression.inc(before);
+    bytesAfterCompression.inc(after);
+  }
+
+  public static long getBytesBeforeCompression() {
+    return bytesBeforeCompression.getCount();
+  }
+
+  public static long getBytesAfterCompression() {
+    return bytesAfterCompression.getCount();
+  }
+
   private void registerAllocatorMetrics(final BufferAllocator allocator) {
     registerAllocatorMetrics(allocator, ALLOCATOR_METRICS_PREFIX + "bit.data.");
   }
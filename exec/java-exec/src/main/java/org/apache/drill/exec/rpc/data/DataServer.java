@@ -85,6 +85,8 @@ public class DataServer extends BasicServer<RpcType, DataServerConnection> {
 
         final BitServerHandshake.Builder builder = BitServerHandshake.newBuilder();
         builder.setRpcVersion(DataRpcConfig.RPC_VERSION);
+        // this server can decompress incoming record batches (see BatchCompressor)
+        builder.setSupportsCompression(true);
         if (config.getAuthMechanismToUse() != null) {
           builder.addAllAuthenticationMechanisms(config.getAuthProvider().getAllFactoryNames());
         }
@@ -55,13 +55,58 @@ class DataServerRequestHandler implements RequestHandler<DataServerConnection> {
     assert rpcType == BitData.RpcType.REQ_RECORD_BATCH_VALUE;
 
     final FragmentRecordBatch fragmentBatch = RpcBus.get(pBody, FragmentRecordBatch.PARSER);
+    if (!fragmentBatch.getIsCompressed() || dBody == null) {
+      handle(fragmentBatch, (DrillBuf) dBody, sender);
+      return;
+    }
+
+    // a compressed body is replaced by its decompressed copy, which is released once handed to the fragments
+    final DrillBuf body;
+    try {
+      body = BatchCompressor.decompress(connection.getAllocator(), (DrillBuf) dBody);
+    } catch (IOException e) {
+      logger.error("Failure while decompressing a record batch. {}",
+          QueryIdHelper.getQueryIdentifiers(fragmentBatch.getQueryId(),
+              fragmentBatch.getReceivingMajorFragmentId(),
+              fragmentBatch.getReceivingMinorFragmentIdList()), e);
+      sender.send(new Response(BitData.RpcType.ACK, Acks.FAIL));
+      return;
+    }
+    try {
+      handle(fragmentBatch, body, sender);
+    } finally {
+      body.release();
+    }
+  }
+
+  /**
+   * Hand a record batch to its receiving fragments (on this Drillbit). Used for the batches arriving over
+   * the network, as well as for the batches sent by local fragments (see {@link DataTunnel}).
+   *
+   * @param fragmentBatch the batch header
+   * @param body the batch data (could be null); not released, the receiving fragments take their own references
+   * @param sender where to send the ack, once all the receiving fragments consumed the batch
+   */
+  void handle(FragmentRecordBatch fragmentBatch, DrillBuf body, ResponseSender sender) {
+    handle(fragmentBatch, body == null ? new DrillBuf[0] : new DrillBuf[] {body}, sender);
+  }
+
+  /**
+   * Hand a record batch made of several buffers to its receiving fragments (on this Drillbit), see
+   * {@link #handle(FragmentRecordBatch, DrillBuf, ResponseSender)}.
+   *
+   * @param fragmentBatch the batch header
+   * @param buffers the batch data, in order; not released, the receiving fragments take their own references
+   * @param sender where to send the ack, once all the receiving fragments consumed the batch
+   */
+  void handle(FragmentRecordBatch fragmentBatch, DrillBuf[] buffers, ResponseSender sender) {
     final AckSender ack = new AckSender(sender);
 
     // increment so we don't get false returns.
     ack.increment();
 
     try {
-      final IncomingDataBatch batch = new IncomingDataBatch(fragmentBatch, (DrillBuf) dBody, ack);
+      final IncomingDataBatch batch = new IncomingDataBatch(fragmentBatch, buffers, ack);
       final int targetCount = fragmentBatch.getReceivingMinorFragmentIdCount();
 
       // randomize who gets first transfer (and thus ownership) so memory usage is balanced when we're sharing amongst
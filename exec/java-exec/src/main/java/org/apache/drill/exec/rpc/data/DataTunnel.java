@@ -18,13 +18,20 @@
 package org.apache.drill.exec.rpc.data;
 
 import io.netty.buffer.ByteBuf;
+import io.netty.buffer.DrillBuf;
 
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.Semaphore;
 
 import org.apache.drill.exec.proto.BitData.RpcType;
 import org.apache.drill.exec.proto.GeneralRPCProtos.Ack;
 import org.apache.drill.exec.record.FragmentWritableBatch;
 import org.apache.drill.exec.rpc.ListeningCommand;
+import org.apache.drill.exec.rpc.Response;
+import org.apache.drill.exec.rpc.ResponseSender;
 import org.apache.drill.exec.rpc.RpcException;
 import org.apache.drill.exec.rpc.RpcOutcomeListener;
 import org.apache.drill.exec.testing.ControlsInjector;
@@ -35,7 +42,17 @@ public class DataTunnel {
   static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(DataTunnel.class);
 
   private final DataConnectionManager manager;
+  // Limits the batches in flight through the tunnel to the receivers that do not grant credits
   private final Semaphore sendingSemaphore = new Semaphore(3);
+  // Once a receiver (keyed by the receiving minor fragments of the batches) grants a credit in an ack, the batches
+  // in flight to it are limited to the credit of its last ack instead (see ExecConstants.DATA_CREDITS_PER_SENDER_KEY)
+  private final ConcurrentMap<List<Integer>, CreditWindow> creditWindows = new ConcurrentHashMap<>();
+
+  // Set for a tunnel to this Drillbit: the batches are handed directly to the receiving fragments
+  private final DataServerRequestHandler localHandler;
+
+  // Learned from the connection once the first batch is sent; until then, batches are sent uncompressed
+  private volatile boolean compressionSupported;
 
   // Needed for injecting a test pause
   private boolean isInjectionControlSet;
@@ -46,6 +63,17 @@ public class DataTunnel {
 
   public DataTunnel(DataConnectionManager manager) {
     this.manager = manager;
+    this.localHandler = null;
+  }
+
+  /**
+   * A tunnel to the fragments of this Drillbit, which bypasses the network stack.
+   *
+   * @param localHandler the handler of the batches arriving at this Drillbit
+   */
+  DataTunnel(DataServerRequestHandler localHandler) {
+    this.manager = null;
+    this.localHandler = localHandler;
   }
 
   /**
@@ -68,7 +96,6 @@ public class DataTunnel {
   }
 
   public void sendRecordBatch(RpcOutcomeListener<Ack> outcomeListener, FragmentWritableBatch batch) {
-    SendBatchAsyncListen b = new SendBatchAsyncListen(outcomeListener, batch);
     try{
       if (isInjectionControlSet) {
         // Wait for interruption if set. Used to simulate the fragment interruption while the fragment is waiting for
@@ -76,8 +103,14 @@ public class DataTunnel {
         testInjector.injectInterruptiblePause(testControls, "data-tunnel-send-batch-wait-for-interrupt", testLogger);
       }
 
-      sendingSemaphore.acquire();
-      manager.runCommand(b);
+      final List<Integer> receivers = batch.getHeader().getReceivingMinorFragmentIdList();
+      final Semaphore permits = getSendingPermits(receivers);
+      permits.acquire();
+      if (localHandler != null) {
+        sendLocal(new ThrottlingOutcomeListener(outcomeListener, receivers, permits), batch);
+      } else {
+        manager.runCommand(new SendBatchAsyncListen(outcomeListener, batch, receivers, permits));
+      }
     }catch(final InterruptedException e){
       // Release the buffers first before informing the listener about the interrupt.
       for(ByteBuf buffer : batch.getBuffers()) {
@@ -92,44 +125,162 @@ public class DataTunnel {
     }
   }
 
+  /**
+   * @return true if a batch can be sent to the given receiving minor fragment without waiting for an ack
+   */
+  public boolean hasCredit(int receivingMinorFragmentId) {
+    return getSendingPermits(Collections.singletonList(receivingMinorFragmentId)).availablePermits() > 0;
+  }
+
+  /**
+   * @return true if the given receiving minor fragment granted a credit, so that the batches in flight to it
+   *         no longer hold up the batches to the other receivers of the tunnel
+   */
+  public boolean grantsCredit(int receivingMinorFragmentId) {
+    return creditWindows.containsKey(Collections.singletonList(receivingMinorFragmentId));
+  }
+
+  private Semaphore getSendingPermits(List<Integer> receivingMinorFragmentIds) {
+    final CreditWindow window = creditWindows.get(receivingMinorFragmentIds);
+    return window != null ? window : sendingSemaphore;
+  }
+
+  private void grantCredit(List<Integer> receivingMinorFragmentIds, int credit) {
+    CreditWindow window = creditWindows.get(receivingMinorFragmentIds);
+    if (window == null) {
+      final CreditWindow newWindow = new CreditWindow(credit);
+      window = creditWindows.putIfAbsent(receivingMinorFragmentIds, newWindow);
+      if (window == null) {
+        return;
+      }
+    }
+    window.grant(credit);
+  }
+
+  /**
+   * The batches that can still be sent to a receiver before it acks one of them
+   */
+  @SuppressWarnings("serial")
+  private static class CreditWindow extends Semaphore {
+    private int credit;
+
+    // The batches already in flight to the receiver hold permits of the tunnel, not of the window
+    CreditWindow(int credit) {
+      super(credit);
+      this.credit = credit;
+    }
+
+    /**
+     * Resize the window to the credit granted by the receiver.
+     */
+    synchronized void grant(int granted) {
+      if (granted > credit) {
+        release(granted - credit);
+      } else if (granted < credit) {
+        reducePermits(credit - granted);
+      }
+      credit = granted;
+    }
+  }
+
+  /**
+   * Hand the batch directly to the receiving fragments, as if it arrived over the network (but with no
+   * serialization, and no copy into and out of the socket). The buffers of the batch are handed over as they are,
+   * their ownership is later transferred to the receiving fragments, which load their vectors from them
+   * (see {@link org.apache.drill.exec.vector.BatchBuffers}).
+   */
+  private void sendLocal(RpcOutcomeListener<Ack> outcomeListener, FragmentWritableBatch batch) {
+    final ByteBuf[] buffers = batch.getBuffers();
+    final DrillBuf[] body = new DrillBuf[buffers.length];
+    for (int i = 0; i < buffers.length; i++) {
+      body[i] = (DrillBuf) buffers[i];
+    }
+
+    try {
+      localHandler.handle(batch.getHeader(), body, new LocalResponseSender(outcomeListener));
+    } finally {
+      for (DrillBuf buffer : body) {
+        buffer.release();
+      }
+    }
+  }
+
+  /**
+   * Passes the ack of a batch sent to this Drillbit to the listener of the sender
+   */
+  private static class LocalResponseSender implements ResponseSender {
+    private final RpcOutcomeListener<Ack> outcomeListener;
+
+    LocalResponseSender(RpcOutcomeListener<Ack> outcomeListener) {
+      this.outcomeListener = outcomeListener;
+    }
+
+    @Override
+    public void send(Response r) {
+      outcomeListener.success((Ack) r.pBody, null);
+    }
+  }
+
+  /**
+   * @return true if the receiving Drillbit is known to accept compressed record batches
+   *         (see {@link org.apache.drill.exec.proto.BitData.FragmentRecordBatch#getIsCompressed()})
+   */
+  public boolean isCompressionSupported() {
+    return compressionSupported;
+  }
+
   private class ThrottlingOutcomeListener implements RpcOutcomeListener<Ack>{
     RpcOutcomeListener<Ack> inner;
+    private final List<Integer> receivers;
+    // The tunnel's or the receiver's permits the batch was sent with
+    private final Semaphore permits;
 
-    public ThrottlingOutcomeListener(RpcOutcomeListener<Ack> inner) {
+    public ThrottlingOutcomeListener(RpcOutcomeListener<Ack> inner, List<Integer> receivers, Semaphore permits) {
       super();
       this.inner = inner;
+      this.receivers = receivers;
+      this.permits = permits;
     }
 
     @Override
     public void failed(RpcException ex) {
-      sendingSemaphore.release();
+      permits.release();
       inner.failed(ex);
     }
 
     @Override
     public void success(Ack value, ByteBuf buffer) {
-      sendingSemaphore.release();
+      if (value.hasCredit()) {
+        grantCredit(receivers, value.getCredit());
+      }
+      permits.release();
       inner.success(value, buffer);
     }
 
     @Override
     public void interrupted(InterruptedException e) {
-      sendingSemaphore.release();
+      permits.release();
       inner.interrupted(e);
     }
   }
 
   private class SendBatchAsyncListen extends ListeningCommand<Ack, DataClientConnection> {
     final FragmentWritableBatch batch;
+    final List<Integer> receivers;
+    final Semaphore permits;
 
-    public SendBatchAsyncListen(RpcOutcomeListener<Ack> listener, FragmentWritableBatch batch) {
+    public SendBatchAsyncListen(RpcOutcomeListener<Ack> listener, FragmentWritableBatch batch,
+        List<Integer> receivers, Semaphore permits) {
       super(listener);
       this.batch = batch;
+      this.receivers = receivers;
+      this.permits = permits;
     }
 
     @Override
     public void doRpcCall(RpcOutcomeListener<Ack> outcomeListener, DataClientConnection connection) {
-      connection.send(new ThrottlingOutcomeListener(outcomeListener), RpcType.REQ_RECORD_BATCH, batch.getHeader(), Ack.class, batch.getBuffers());
+      compressionSupported = connection.supportsCompression();
+      connection.send(new ThrottlingOutcomeListener(outcomeListener, receivers, permits), RpcType.REQ_RECORD_BATCH, batch.getHeader(), Ack.class, batch.getBuffers());
     }
 
     @Override
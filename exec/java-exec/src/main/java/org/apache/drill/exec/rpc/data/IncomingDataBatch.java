@@ -32,7 +32,7 @@ import com.google.common.base.Preconditions;
 public class IncomingDataBatch {
 
   private final FragmentRecordBatch header;
-  private final DrillBuf body;
+  private final DrillBuf[] buffers;
   private final AckSender sender;
 
   /**
@@ -46,10 +46,25 @@ public class IncomingDataBatch {
    *          AckSender to use for underlying RawFragmentBatches.
    */
   public IncomingDataBatch(FragmentRecordBatch header, DrillBuf body, AckSender sender) {
+    this(header, body == null ? new DrillBuf[0] : new DrillBuf[] {body}, sender);
+  }
+
+  /**
+   * Create a new batch made of the buffers it was serialized into. Does not impact reference counts of the buffers.
+   *
+   * @param header
+   *          Batch header
+   * @param buffers
+   *          Data buffers, in order. Could be empty.
+   * @param sender
+   *          AckSender to use for underlying RawFragmentBatches.
+   */
+  public IncomingDataBatch(FragmentRecordBatch header, DrillBuf[] buffers, AckSender sender) {
     Preconditions.checkNotNull(header);
+    Preconditions.checkNotNull(buffers);
     Preconditions.checkNotNull(sender);
     this.header = header;
-    this.body = body;
+    this.buffers = buffers;
     this.sender = sender;
   }
 
@@ -62,9 +77,12 @@ public class IncomingDataBatch {
    * @return The newly created RawFragmentBatch
    */
   public RawFragmentBatch newRawFragmentBatch(final BufferAllocator allocator) {
-    final DrillBuf transferredBuffer = body == null ? null : body.transferOwnership(allocator).buffer;
+    final DrillBuf[] transferredBuffers = new DrillBuf[buffers.length];
+    for (int i = 0; i < buffers.length; i++) {
+      transferredBuffers[i] = buffers[i].transferOwnership(allocator).buffer;
+    }
     sender.increment();
-    return new RawFragmentBatch(header, transferredBuffer, sender);
+    return new RawFragmentBatch(header, transferredBuffers, sender);
   }
 
   public FragmentRecordBatch getHeader() {
@@ -30,6 +30,7 @@ import org.apache.drill.exec.memory.BufferAllocator;
 import org.apache.drill.exec.physical.impl.OperatorCreatorRegistry;
 import org.apache.drill.exec.planner.PhysicalPlanReader;
 import org.apache.drill.exec.planner.sql.DrillOperatorTable;
+import org.apache.drill.exec.planner.sql.QueryPlanCache;
 import org.apache.drill.exec.proto.CoordinationProtos.DrillbitEndpoint;
 import org.apache.drill.exec.rpc.control.Controller;
 import org.apache.drill.exec.rpc.control.WorkEventBus;
@@ -74,6 +75,8 @@ public class DrillbitContext implements AutoCloseable {
   private final DrillOperatorTable table;
   private final QueryProfileStoreContext profileStoreContext;
   private ResourceManager resourceManager;
+  // physical plans of repeated queries
+  private final QueryPlanCache planCache;
 
   public DrillbitContext(
       DrillbitEndpoint endpoint,
@@ -111,6 +114,7 @@ public class DrillbitContext implements AutoCloseable {
         .getInstance(StoragePluginRegistry.STORAGE_PLUGIN_REGISTRY_IMPL, StoragePluginRegistry.class, this);
 
     reader = new PhysicalPlanReader(config, classpathScan, lpPersistence, endpoint, storagePlugins);
+    planCache = new QueryPlanCache(config, reader, lpPersistence);
     operatorCreatorRegistry = new OperatorCreatorRegistry(classpathScan);
     systemOptions = new SystemOptionManager(lpPersistence, provider, config, context.getDefinitions());
     functionRegistry = new FunctionImplementationRegistry(config, classpathScan, systemOptions);
@@ -227,6 +231,10 @@ public class DrillbitContext implements AutoCloseable {
     return reader;
   }
 
+  public QueryPlanCache getPlanCache() {
+    return planCache;
+  }
+
   public PersistentStoreProvider getStoreProvider() {
     return provider;
   }
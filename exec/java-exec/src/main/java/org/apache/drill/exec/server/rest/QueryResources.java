@@ -20,6 +20,7 @@ package org.apache.drill.exec.server.rest;
 import com.google.common.base.CharMatcher;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Lists;
+import org.apache.drill.exec.ExecConstants;
 import org.apache.drill.exec.server.rest.DrillRestServer.UserAuthEnabled;
 import org.apache.drill.exec.server.rest.auth.DrillUserPrincipal;
 import org.apache.drill.exec.server.rest.QueryWrapper.QueryResult;
@@ -29,13 +30,16 @@ import org.glassfish.jersey.server.mvc.Viewable;
 import javax.annotation.security.RolesAllowed;
 import javax.inject.Inject;
 import javax.ws.rs.Consumes;
+import javax.ws.rs.DefaultValue;
 import javax.ws.rs.FormParam;
 import javax.ws.rs.GET;
 import javax.ws.rs.POST;
 import javax.ws.rs.Path;
 import javax.ws.rs.Produces;
+import javax.ws.rs.QueryParam;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.SecurityContext;
+import javax.ws.rs.core.StreamingOutput;
 import java.util.List;
 import java.util.Map;
 
@@ -76,6 +80,30 @@ public class QueryResources {
     }
   }
 
+  /**
+   * Runs the query like {@link #submitQueryJSON(QueryWrapper)}, but writes the rows to the response as they
+   * are produced instead of collecting them all first; see {@link StreamingQueryResult} for the format.
+   *
+   * @param layout "rows" (one JSON object per row) or "columns" (the values of each batch, column by column)
+   */
+  @POST
+  @Path("/query.stream.json")
+  @Consumes(MediaType.APPLICATION_JSON)
+  @Produces(MediaType.APPLICATION_JSON)
+  public StreamingOutput submitQueryStreamingJSON(QueryWrapper query,
+                                                  @QueryParam("layout") @DefaultValue("rows") String layout) {
+    final StreamingQueryResult.Layout resultLayout;
+    try {
+      resultLayout = StreamingQueryResult.Layout.fromString(layout);
+    } catch (IllegalArgumentException e) {
+      webUserConnection.cleanupSession();
+      throw new IllegalArgumentException("Unknown result layout: " + layout, e);
+    }
+    // The session is cleaned up once the results are written
+    return new StreamingQueryResult(query, work, webUserConnection, resultLayout,
+        work.getContext().getConfig().getInt(ExecConstants.HTTP_STREAM_MAX_QUEUED_BATCHES));
+  }
+
   @POST
   @Path("/query")
   @Consumes(MediaType.APPLICATION_FORM_URLENCODED)
@@ -59,13 +59,7 @@ public class QueryWrapper {
 
   public QueryResult run(final WorkManager workManager, final WebUserConnection webUserConnection) throws Exception {
 
-    final RunQuery runQuery = RunQuery.newBuilder().setType(getType())
-        .setPlan(getQuery())
-        .setResultsMode(QueryResultsMode.STREAM_FULL)
-        .build();
-
-    // Submit user query to Drillbit work queue.
-    final QueryId queryId = workManager.getUserWorker().submitWork(webUserConnection, runQuery);
+    final QueryId queryId = submit(workManager, webUserConnection);
 
     // Wait until the query execution is complete or there is error submitting the query
     webUserConnection.await();
@@ -82,6 +76,20 @@ public class QueryWrapper {
     return new QueryResult(webUserConnection.columns, webUserConnection.results);
   }
 
+  /**
+   * Submit the query to the Drillbit work queue, without waiting for its results.
+   *
+   * @return the id of the query
+   */
+  public QueryId submit(final WorkManager workManager, final WebUserConnection webUserConnection) {
+    final RunQuery runQuery = RunQuery.newBuilder().setType(getType())
+        .setPlan(getQuery())
+        .setResultsMode(QueryResultsMode.STREAM_FULL)
+        .build();
+
+    return workManager.getUserWorker().submitWork(webUserConnection, runQuery);
+  }
+
   public static class QueryResult {
     public final Collection<String> columns;
 
@@ -0,0 +1,219 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.drill.exec.server.rest;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.google.common.collect.Lists;
+import org.apache.drill.common.exceptions.UserException;
+import org.apache.drill.exec.exception.SchemaChangeException;
+import org.apache.drill.exec.proto.UserBitShared.QueryId;
+import org.apache.drill.exec.proto.UserBitShared.QueryResult.QueryState;
+import org.apache.drill.exec.proto.helper.QueryIdHelper;
+import org.apache.drill.exec.record.RecordBatchLoader;
+import org.apache.drill.exec.record.VectorWrapper;
+import org.apache.drill.exec.server.rest.WebUserConnection.StreamedBatch;
+import org.apache.drill.exec.vector.ValueVector.Accessor;
+import org.apache.drill.exec.work.WorkManager;
+
+import javax.ws.rs.core.StreamingOutput;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+
+/**
+ * Runs a REST query and writes its results to the response as the batches arrive, rather than collecting
+ * all the rows first (see {@link WebUserConnection#enableStreaming(int)}). The response is a JSON object:
+ * <pre>
+ * {"queryId": "...", "columns": ["a", "b"], "rows": [{"a": "1", "b": "x"}, ...], "queryState": "COMPLETED"}
+ * </pre>
+ * or, with the {@link Layout#COLUMNS columns} layout, one entry per batch holding the values column by column:
+ * <pre>
+ * {"queryId": "...", "columns": ["a", "b"], "batches": [{"rowCount": 2, "values": [["1", "2"], ["x", "y"]]}, ...],
+ *  "queryState": "COMPLETED"}
+ * </pre>
+ * "columns" lists the columns of the first batch; a batch whose columns differ from the previous one carries
+ * its own "columns" in the columns layout. As the response is already under way when the query fails, the
+ * failure is reported by the "queryState" (and "errorMessage") at the end of the object.
+ */
+public class StreamingQueryResult implements StreamingOutput {
+  private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(StreamingQueryResult.class);
+
+  private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+  public enum Layout {
+    ROWS, COLUMNS;
+
+    public static Layout fromString(String value) {
+      return valueOf(value.toUpperCase());
+    }
+  }
+
+  private final QueryWrapper query;
+  private final WorkManager workManager;
+  private final WebUserConnection connection;
+  private final Layout layout;
+  private final int maxQueuedBatches;
+
+  private List<String> lastColumns;
+
+  public StreamingQueryResult(QueryWrapper query, WorkManager workManager, WebUserConnection connection,
+                              Layout layout, int maxQueuedBatches) {
+    this.query = query;
+    this.workManager = workManager;
+    this.connection = connection;
+    this.layout = layout;
+    this.maxQueuedBatches = maxQueuedBatches;
+  }
+
+  @Override
+  public void write(OutputStream output) throws IOException {
+    QueryId queryId = null;
+    try {
+      connection.enableStreaming(maxQueuedBatches);
+      queryId = query.submit(workManager, connection);
+
+      final JsonGenerator generator = JSON_FACTORY.createGenerator(output);
+      generator.writeStartObject();
+      generator.writeStringField("queryId", QueryIdHelper.getQueryId(queryId));
+
+      StreamedBatch batch;
+      while ((batch = connection.nextBatch()) != null) {
+        try {
+          writeBatch(generator, batch);
+        } finally {
+          batch.release();
+        }
+        // push the batch to the client; blocks while the client is not reading
+        generator.flush();
+      }
+
+      if (lastColumns == null) {
+        generator.writeArrayFieldStart("columns");
+        generator.writeEndArray();
+        generator.writeArrayFieldStart(layout == Layout.ROWS ? "rows" : "batches");
+      }
+      generator.writeEndArray();
+      writeQueryState(generator);
+      generator.writeEndObject();
+      generator.flush();
+      queryId = null;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException("Interrupted while streaming the query results", e);
+    } finally {
+      connection.closeStream();
+      if (queryId != null) {
+        // the client went away (or the results could not be written): no reason to keep running the query
+        logger.debug("Canceling query {} after failing to stream its results", QueryIdHelper.getQueryId(queryId));
+        workManager.getUserWorker().cancelQuery(queryId);
+        awaitQuietly();
+      }
+      // no-op for authenticated user
+      connection.cleanupSession();
+    }
+  }
+
+  private void writeBatch(JsonGenerator generator, StreamedBatch batch) throws IOException {
+    final RecordBatchLoader loader = new RecordBatchLoader(connection.getAllocator());
+    try {
+      loader.load(batch.getDef(), batch.getData());
+      final List<String> columns = Lists.newArrayList();
+      for (int i = 0; i < loader.getSchema().getFieldCount(); ++i) {
+        columns.add(loader.getSchema().getColumn(i).getName());
+      }
+
+      boolean newColumns = !columns.equals(lastColumns);
+      if (lastColumns == null) {
+        writeColumns(generator, columns);
+        generator.writeArrayFieldStart(layout == Layout.ROWS ? "rows" : "batches");
+        newColumns = false;
+      }
+      lastColumns = columns;
+
+      if (layout == Layout.ROWS) {
+        for (int i = 0; i < batch.getRowCount(); ++i) {
+          generator.writeStartObject();
+          for (VectorWrapper<?> vw : loader) {
+            generator.writeFieldName(vw.getValueVector().getMetadata().getNamePart().getName());
+            writeValue(generator, vw.getValueVector().getAccessor(), i);
+          }
+          generator.writeEndObject();
+        }
+      } else {
+        generator.writeStartObject();
+        if (newColumns) {
+          writeColumns(generator, columns);
+        }
+        generator.writeNumberField("rowCount", batch.getRowCount());
+        generator.writeArrayFieldStart("values");
+        for (VectorWrapper<?> vw : loader) {
+          final Accessor accessor = vw.getValueVector().getAccessor();
+          generator.writeStartArray();
+          for (int i = 0; i < batch.getRowCount(); ++i) {
+            writeValue(generator, accessor, i);
+          }
+          generator.writeEndArray();
+        }
+        generator.writeEndArray();
+        generator.writeEndObject();
+      }
+    } catch (SchemaChangeException e) {
+      throw UserException.systemError(e).build(logger);
+    } finally {
+      loader.clear();
+    }
+  }
+
+  private static void writeColumns(JsonGenerator generator, List<String> columns) throws IOException {
+    generator.writeArrayFieldStart("columns");
+    for (String column : columns) {
+      generator.writeString(column);
+    }
+    generator.writeEndArray();
+  }
+
+  // Values are written as strings, as in the (non streamed) query results
+  private static void writeValue(JsonGenerator generator, Accessor accessor, int index) throws IOException {
+    final Object value = index < accessor.getValueCount() ? accessor.getObject(index) : null;
+    if (value == null) {
+      generator.writeNull();
+    } else {
+      generator.writeString(value.toString());
+    }
+  }
+
+  private void writeQueryState(JsonGenerator generator) throws IOException {
+    try {
+      connection.await();
+      final QueryState state = connection.getQueryState();
+      generator.writeStringField("queryState", state == null ? QueryState.COMPLETED.name() : state.name());
+    } catch (Exception e) {
+      generator.writeStringField("queryState", QueryState.FAILED.name());
+      generator.writeStringField("errorMessage", e.getMessage());
+    }
+  }
+
+  private void awaitQuietly() {
+    try {
+      connection.await();
+    } catch (Exception e) {
+      logger.trace("Canceled query ended with an error", e);
+    }
+  }
+}
@@ -27,6 +27,9 @@ import org.apache.drill.common.exceptions.UserException;
 import org.apache.drill.exec.memory.BufferAllocator;
 import org.apache.drill.exec.physical.impl.materialize.QueryWritableBatch;
 import org.apache.drill.exec.proto.GeneralRPCProtos.Ack;
+import org.apache.drill.exec.proto.UserBitShared.QueryResult;
+import org.apache.drill.exec.proto.UserBitShared.QueryResult.QueryState;
+import org.apache.drill.exec.proto.UserBitShared.RecordBatchDef;
 import org.apache.drill.exec.record.RecordBatchLoader;
 import org.apache.drill.exec.record.VectorWrapper;
 import org.apache.drill.exec.rpc.AbstractDisposableUserClientConnection;
@@ -40,6 +43,9 @@ import java.net.SocketAddress;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
 
 /**
  * WebUserConnectionWrapper which represents the UserClientConnection between WebServer and Foreman, for the WebUser
@@ -50,6 +56,11 @@ import java.util.Set;
  * EventExecutor out of BitServer EventLoopGroup. Since there is no actual connection established using this class,
  * hence the close event will never be fired by underlying layer and close future is set only when the
  * {@link WebSessionResources} are closed.
+ *
+ * By default the rows of the result are collected into {@link #results}. Once {@link #enableStreaming(int)} is called,
+ * the batches are instead queued (as they arrive) for the request thread to {@link #nextBatch() take} and write to
+ * the client; when the queue is full, the thread sending the data waits, so the query progresses no faster than the
+ * client reads its results.
  */
 
 public class WebUserConnection extends AbstractDisposableUserClientConnection implements ConnectionThrottle {
@@ -62,6 +73,16 @@ public class WebUserConnection extends AbstractDisposableUserClientConnection im
 
   public final Set<String> columns = Sets.newLinkedHashSet();
 
+  // How long to wait on the stream queue before checking again whether the query or stream is done
+  private static final long STREAM_POLL_MILLIS = 100;
+
+  // The batches received but not yet taken by the request thread; null unless streaming
+  private BlockingQueue<StreamedBatch> streamQueue;
+
+  private volatile boolean streamClosed;
+
+  private volatile QueryState queryState;
+
   WebUserConnection(WebSessionResources webSessionResources) {
     this.webSessionResources = webSessionResources;
   }
@@ -86,6 +107,11 @@ public class WebUserConnection extends AbstractDisposableUserClientConnection im
       return;
     }
 
+    if (streamQueue != null) {
+      queueBatch(listener, result, dataByteCount);
+      return;
+    }
+
     // If here that means there is some data for sure. Create a ByteBuf with all the data in it.
     final int rows = result.getHeader().getRowCount();
     final BufferAllocator allocator = webSessionResources.getAllocator();
@@ -129,6 +155,103 @@ public class WebUserConnection extends AbstractDisposableUserClientConnection im
     }
   }
 
+  private void queueBatch(RpcOutcomeListener<Ack> listener, QueryWritableBatch result, int dataByteCount) {
+    final DrillBuf bufferWithData;
+    try {
+      bufferWithData = webSessionResources.getAllocator().buffer(dataByteCount);
+    } catch (Exception e) {
+      exception = UserException.systemError(e).build(logger);
+      for (final ByteBuf buffer : result.getBuffers()) {
+        buffer.release();
+      }
+      listener.success(Acks.OK, null);
+      return;
+    }
+    for (final ByteBuf buffer : result.getBuffers()) {
+      bufferWithData.writeBytes(buffer);
+      buffer.release();
+    }
+
+    final StreamedBatch batch = new StreamedBatch(result.getHeader().getDef(), result.getHeader().getRowCount(),
+        bufferWithData, listener);
+    try {
+      while (!streamClosed) {
+        if (streamQueue.offer(batch, STREAM_POLL_MILLIS, TimeUnit.MILLISECONDS)) {
+          if (streamClosed) {
+            // the request thread may have stopped taking batches just before this one was queued
+            drainStream();
+          }
+          return;
+        }
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    batch.release();
+  }
+
+  /**
+   * Queue the result batches for {@link #nextBatch()} instead of collecting the rows into {@link #results}.
+   * Must be called before the query is submitted.
+   *
+   * @param maxQueuedBatches the most batches to hold before the sender has to wait
+   */
+  public void enableStreaming(int maxQueuedBatches) {
+    streamQueue = new ArrayBlockingQueue<>(maxQueuedBatches);
+  }
+
+  /**
+   * Wait for the next result batch of a streamed query. The caller must {@link StreamedBatch#release() release}
+   * the batch once done with it.
+   *
+   * @return the next batch, or null once the query has completed and all its batches were taken
+   * @throws InterruptedException if interrupted while waiting
+   */
+  public StreamedBatch nextBatch() throws InterruptedException {
+    while (true) {
+      final StreamedBatch batch = streamQueue.poll(STREAM_POLL_MILLIS, TimeUnit.MILLISECONDS);
+      if (batch != null) {
+        return batch;
+      }
+      if (latch.getCount() == 0) {
+        // the query is done, so nothing can be added anymore
+        return streamQueue.poll();
+      }
+    }
+  }
+
+  /**
+   * Stop streaming: release the queued batches, and any batch received from now on.
+   */
+  public void closeStream() {
+    streamClosed = true;
+    drainStream();
+  }
+
+  private void drainStream() {
+    StreamedBatch batch;
+    while ((batch = streamQueue.poll()) != null) {
+      batch.release();
+    }
+  }
+
+  @Override
+  public void sendResult(RpcOutcomeListener<Ack> listener, QueryResult result) {
+    queryState = result.getQueryState();
+    super.sendResult(listener, result);
+  }
+
+  /**
+   * @return the final state of the query, or null if it has not completed yet
+   */
+  public QueryState getQueryState() {
+    return queryState;
+  }
+
+  public BufferAllocator getAllocator() {
+    return webSessionResources.getAllocator();
+  }
+
   @Override
   public ChannelFuture getChannelClosureFuture() {
     return webSessionResources.getCloseFuture();
@@ -152,6 +275,40 @@ public class WebUserConnection extends AbstractDisposableUserClientConnection im
     // no-op
   }
 
+  /**
+   * A result batch of a streamed query. Releasing the batch frees its data and acknowledges it to the sender.
+   */
+  public static class StreamedBatch {
+    private final RecordBatchDef def;
+    private final int rowCount;
+    private final DrillBuf data;
+    private final RpcOutcomeListener<Ack> listener;
+
+    StreamedBatch(RecordBatchDef def, int rowCount, DrillBuf data, RpcOutcomeListener<Ack> listener) {
+      this.def = def;
+      this.rowCount = rowCount;
+      this.data = data;
+      this.listener = listener;
+    }
+
+    public RecordBatchDef getDef() {
+      return def;
+    }
+
+    public int getRowCount() {
+      return rowCount;
+    }
+
+    public DrillBuf getData() {
+      return data;
+    }
+
+    public void release() {
+      data.release();
+      listener.success(Acks.OK, null);
+    }
+  }
+
   public static class AnonWebUserConnection extends WebUserConnection {
 
     AnonWebUserConnection(WebSessionResources webSessionResources) {
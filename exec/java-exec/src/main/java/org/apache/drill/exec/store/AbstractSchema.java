@@ -143,6 +143,21 @@ public abstract class AbstractSchema implements Schema, SchemaPartitionExplorer,
     return createNewTable(tableName, partitionColumns, StorageStrategy.DEFAULT);
   }
 
+  /**
+   * Creates the entry of the table holding the statistics of the given table (see ANALYZE TABLE),
+   * stored alongside the table.
+   *
+   * @param tableName : name of the analyzed table.
+   * @param statsTableName : name of the statistics folder, inside the folder of the table.
+   * @param storageStrategy : storage strategy used to create the statistics folder and files
+   * @return create table entry
+   */
+  public CreateTableEntry createStatsTable(String tableName, String statsTableName, StorageStrategy storageStrategy) {
+    throw UserException.unsupportedError()
+        .message("Storing table statistics is not supported in schema [%s]", getSchemaPath())
+        .build(logger);
+  }
+
   /**
    * Reports whether to show items from this schema in INFORMATION_SCHEMA
    * tables.
@@ -215,6 +215,17 @@ public class StoragePluginRegistryImpl implements StoragePluginRegistry {
     StoragePlugin plugin = plugins.remove(name);
     closePlugin(plugin);
     pluginSystemTable.delete(name);
+    invalidatePlanCache();
+  }
+
+  /**
+   * Cached query plans may refer to the configuration of a plugin, so
+   * they are discarded when a plugin changes.
+   */
+  private void invalidatePlanCache() {
+    if (context.getPlanCache() != null) {
+      context.getPlanCache().invalidateAll();
+    }
   }
 
   private void closePlugin(StoragePlugin plugin) {
@@ -262,6 +273,7 @@ public class StoragePluginRegistryImpl implements StoragePluginRegistry {
         if (persist) {
           pluginSystemTable.put(name, config);
         }
+        invalidatePlanCache();
 
         return newPlugin;
       }
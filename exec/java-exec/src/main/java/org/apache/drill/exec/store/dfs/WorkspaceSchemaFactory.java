@@ -55,6 +55,7 @@ import org.apache.drill.exec.dotdrill.DotDrillType;
 import org.apache.drill.exec.dotdrill.DotDrillUtil;
 import org.apache.drill.exec.dotdrill.View;
 import org.apache.drill.exec.store.StorageStrategy;
+import org.apache.drill.exec.planner.common.DrillStatsTable;
 import org.apache.drill.exec.planner.logical.CreateTableEntry;
 import org.apache.drill.exec.planner.logical.DrillTable;
 import org.apache.drill.exec.planner.logical.DrillTranslatableTable;
@@ -592,6 +593,23 @@ public class WorkspaceSchemaFactory {
           storageStrategy);
     }
 
+    @Override
+    public CreateTableEntry createStatsTable(String tableName, String statsTableName, StorageStrategy storageStrategy) {
+      FormatPlugin formatPlugin = plugin.getFormatPlugin(DrillStatsTable.STATS_FORMAT);
+      if (formatPlugin == null) {
+        throw new UnsupportedOperationException(
+          String.format("Unsupported format '%s' in workspace '%s'", DrillStatsTable.STATS_FORMAT,
+              Joiner.on(".").join(getSchemaPath())));
+      }
+
+      return new FileSystemCreateTableEntry(
+          (FileSystemConfig) plugin.getConfig(),
+          formatPlugin,
+          config.getLocation() + Path.SEPARATOR + tableName + Path.SEPARATOR + statsTableName,
+          Collections.<String>emptyList(),
+          storageStrategy);
+    }
+
     @Override
     public String getTypeName() {
       return FileSystemConfig.NAME;
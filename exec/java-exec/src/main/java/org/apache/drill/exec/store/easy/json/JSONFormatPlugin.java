@@ -62,7 +62,16 @@ public class JSONFormatPlugin extends EasyFormatPlugin<JSONFormatConfig> {
   @Override
   public RecordReader getRecordReader(FragmentContext context, DrillFileSystem dfs, FileWork fileWork,
       List<SchemaPath> columns, String userName) throws ExecutionSetupException {
-    return new JSONRecordReader(context, fileWork.getPath(), dfs, columns);
+    return new JSONRecordReader(context, fileWork.getPath(), fileWork.getStart(), fileWork.getLength(), dfs, columns);
+  }
+
+  /**
+   * Files are split at block boundaries only if they are known to hold one
+   * record per line, as splits resynchronize at the next newline.
+   */
+  @Override
+  public boolean isBlockSplittable() {
+    return getContext().getOptionManager().getOption(ExecConstants.JSON_READER_SPLIT_NDJSON_VALIDATOR);
   }
 
   @Override
@@ -37,6 +37,7 @@ import org.apache.drill.exec.vector.BaseValueVector;
 import org.apache.drill.exec.vector.complex.fn.JsonReader;
 import org.apache.drill.exec.vector.complex.impl.VectorContainerWriter;
 import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.io.compress.CompressionInputStream;
 
 import com.fasterxml.jackson.core.JsonParseException;
 import com.fasterxml.jackson.databind.JsonNode;
@@ -52,6 +53,8 @@ public class JSONRecordReader extends AbstractRecordReader {
 
   // Data we're consuming
   private Path hadoopPath;
+  private long splitStart;
+  private long splitEnd = Long.MAX_VALUE;
   private JsonNode embeddedContent;
   private InputStream stream;
   private final DrillFileSystem fileSystem;
@@ -66,6 +69,7 @@ public class JSONRecordReader extends AbstractRecordReader {
   private long parseErrorCount;
   private final boolean skipMalformedJSONRecords;
   private final boolean printSkippedMalformedJSONRecordLineNumber;
+  private final boolean splitNdjson;
   ReadState write = null;
 
   /**
@@ -81,6 +85,24 @@ public class JSONRecordReader extends AbstractRecordReader {
     this(fragmentContext, inputPath, null, fileSystem, columns);
   }
 
+  /**
+   * Create a JSON Record Reader that reads the records of one block split of
+   * a newline-delimited JSON file.
+   * @param fragmentContext
+   * @param inputPath
+   * @param start offset of the split within the file
+   * @param length length of the split
+   * @param fileSystem
+   * @param columns  pathnames of columns/subfields to read
+   * @throws OutOfMemoryException
+   */
+  public JSONRecordReader(final FragmentContext fragmentContext, final String inputPath, final long start,
+      final long length, final DrillFileSystem fileSystem, final List<SchemaPath> columns) throws OutOfMemoryException {
+    this(fragmentContext, inputPath, null, fileSystem, columns);
+    this.splitStart = start;
+    this.splitEnd = start + length;
+  }
+
   /**
    * Create a new JSON Record Reader that uses a in memory materialized JSON stream.
    * @param fragmentContext
@@ -119,6 +141,7 @@ public class JSONRecordReader extends AbstractRecordReader {
     this.unionEnabled = embeddedContent == null && fragmentContext.getOptions().getBoolean(ExecConstants.ENABLE_UNION_TYPE_KEY);
     this.skipMalformedJSONRecords = fragmentContext.getOptions().getOption(ExecConstants.JSON_SKIP_MALFORMED_RECORDS_VALIDATOR);
     this.printSkippedMalformedJSONRecordLineNumber = fragmentContext.getOptions().getOption(ExecConstants.JSON_READER_PRINT_INVALID_RECORDS_LINE_NOS_FLAG_VALIDATOR);
+    this.splitNdjson = fragmentContext.getOptions().getOption(ExecConstants.JSON_READER_SPLIT_NDJSON_VALIDATOR);
     setColumns(columns);
   }
 
@@ -126,6 +149,7 @@ public class JSONRecordReader extends AbstractRecordReader {
   public String toString() {
     return super.toString()
         + "[hadoopPath = " + hadoopPath
+        + ", splitStart = " + splitStart
         + ", recordCount = " + recordCount
         + ", parseErrorCount = " + parseErrorCount
          + ", runningRecordCount = " + runningRecordCount + ", ...]";
@@ -136,6 +160,13 @@ public class JSONRecordReader extends AbstractRecordReader {
     try{
       if (hadoopPath != null) {
         this.stream = fileSystem.openPossiblyCompressedStream(hadoopPath);
+
+        // Only a block split of a file is read within its boundaries. Compressed
+        // files are never split, and their split length is the compressed size,
+        // so read them whole.
+        if (splitNdjson && ! (stream instanceof CompressionInputStream) && ! isWholeFile()) {
+          this.stream = new JsonSplitInputStream(stream, splitStart, splitEnd);
+        }
       }
 
       this.writer = new VectorContainerWriter(output, unionEnabled);
@@ -156,6 +187,15 @@ public class JSONRecordReader extends AbstractRecordReader {
     }
   }
 
+  /**
+   * @return true if this reader reads the whole file (the file was not split
+   *         at block boundaries)
+   */
+  private boolean isWholeFile() throws IOException {
+    return splitStart == 0 &&
+        (splitEnd == Long.MAX_VALUE || splitEnd >= fileSystem.getFileStatus(hadoopPath).getLen());
+  }
+
   @Override
   protected List<SchemaPath> getDefaultColumnsToRead() {
     return ImmutableList.of();
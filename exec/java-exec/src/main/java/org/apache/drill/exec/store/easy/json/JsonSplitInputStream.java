@@ -0,0 +1,134 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.drill.exec.store.easy.json;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import org.apache.hadoop.fs.Seekable;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * Reads the records of one block split of a newline-delimited JSON file.
+ * A record belongs to the split which holds its first byte: a split which
+ * does not start the file skips everything up to and including the first
+ * newline, the tail of a record owned by the split before it, and each
+ * split reads past its end up to the newline which ends its last record.
+ * <p>
+ * This works only if records never span lines, which is why splitting JSON
+ * files is enabled by the <tt>store.json.reader.split_ndjson</tt> option.
+ */
+public class JsonSplitInputStream extends InputStream {
+
+  private static final int BUFFER_SIZE = 64 * 1024;
+
+  private final InputStream input;
+  private final long end;
+
+  /**
+   * File offset of the next byte to read.
+   */
+  private long pos;
+
+  /**
+   * True if the next byte starts a record (or a blank line.)
+   */
+  private boolean atLineStart = true;
+  private boolean done;
+
+  /**
+   * @param input stream over the whole file, must be {@link Seekable}
+   * @param start file offset at which the split starts
+   * @param end file offset just past the end of the split
+   */
+  public JsonSplitInputStream(InputStream input, long start, long end) throws IOException {
+    Preconditions.checkArgument(input instanceof Seekable, "Splits need a Seekable input stream.");
+    pos = start;
+    if (start > 0) {
+      // Start one byte early: if it is a newline, the split starts a record.
+      ((Seekable) input).seek(start - 1);
+      pos = start - 1;
+    }
+    this.input = new BufferedInputStream(input, BUFFER_SIZE);
+    this.end = end;
+    if (start > 0) {
+      skipToLineStart();
+    }
+  }
+
+  private void skipToLineStart() throws IOException {
+    for (;;) {
+      int b = input.read();
+      if (b == -1) {
+        done = true;
+        return;
+      }
+      pos++;
+      if (b == '\n') {
+        return;
+      }
+    }
+  }
+
+  @Override
+  public int read() throws IOException {
+    if (done || atLineStart && pos >= end) {
+      done = true;
+      return -1;
+    }
+    int b = input.read();
+    if (b == -1) {
+      done = true;
+      return -1;
+    }
+    pos++;
+    atLineStart = b == '\n';
+    return b;
+  }
+
+  @Override
+  public int read(byte[] b, int off, int len) throws IOException {
+    if (len == 0) {
+      return 0;
+    }
+    if (pos >= end) {
+      // Past the split: finish the last record a byte at a time.
+      int c = read();
+      if (c == -1) {
+        return -1;
+      }
+      b[off] = (byte) c;
+      return 1;
+    }
+    int n = input.read(b, off, (int) Math.min(len, end - pos));
+    if (n == -1) {
+      done = true;
+      return -1;
+    }
+    pos += n;
+    atLineStart = b[off + n - 1] == '\n';
+    return n;
+  }
+
+  @Override
+  public void close() throws IOException {
+    input.close();
+  }
+}
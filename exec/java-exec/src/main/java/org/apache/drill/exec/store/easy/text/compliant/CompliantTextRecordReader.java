@@ -19,18 +19,31 @@ package org.apache.drill.exec.store.easy.text.compliant;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 import javax.annotation.Nullable;
 
 import org.apache.drill.common.exceptions.ExecutionSetupException;
 import org.apache.drill.common.exceptions.UserException;
 import org.apache.drill.common.expression.SchemaPath;
+import org.apache.drill.exec.ExecConstants;
+import org.apache.drill.exec.exception.OutOfMemoryException;
 import org.apache.drill.exec.exception.SchemaChangeException;
+import org.apache.drill.exec.expr.BasicTypeHelper;
 import org.apache.drill.exec.ops.OperatorContext;
 import org.apache.drill.exec.physical.impl.OutputMutator;
+import org.apache.drill.exec.physical.rowSet.ResultSetLoader;
+import org.apache.drill.exec.physical.rowSet.RowSetLoader;
+import org.apache.drill.exec.physical.rowSet.impl.OptionBuilder;
+import org.apache.drill.exec.physical.rowSet.impl.ResultSetLoaderImpl;
+import org.apache.drill.exec.record.MaterializedField;
+import org.apache.drill.exec.record.VectorContainer;
+import org.apache.drill.exec.record.metadata.TupleMetadata;
 import org.apache.drill.exec.store.AbstractRecordReader;
 import org.apache.drill.exec.store.dfs.DrillFileSystem;
+import org.apache.drill.exec.vector.ValueVector;
 import org.apache.hadoop.mapred.FileSplit;
 
 import com.google.common.base.Predicate;
@@ -40,11 +53,19 @@ import com.univocity.parsers.common.TextParsingException;
 
 import io.netty.buffer.DrillBuf;
 
-// New text reader, complies with the RFC 4180 standard for text/csv files
+/**
+ * New text reader, complies with the RFC 4180 standard for text/csv files.
+ * <p>
+ * Rows are written through a {@link ResultSetLoader}: a batch ends when it
+ * reaches {@link ExecConstants#TEXT_LINE_READER_BATCH_SIZE} rows, when it reaches the
+ * configured output batch size, or when a vector would exceed the maximum
+ * vector size. In the last case the overflowing row is carried over to the
+ * next batch. The harvested vectors are transferred into the vectors
+ * registered with the scan's {@link OutputMutator}.
+ */
 public class CompliantTextRecordReader extends AbstractRecordReader {
   static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(CompliantTextRecordReader.class);
 
-  private static final int MAX_RECORDS_PER_BATCH = 8096;
   private static final int READ_BUFFER = 1024*1024;
   private static final int WHITE_SPACE_BUFFER = 64*1024;
   // When no named column is required, ask SCAN to return a DEFAULT column.
@@ -65,6 +86,10 @@ public class CompliantTextRecordReader extends AbstractRecordReader {
   private DrillFileSystem dfs;
   // operator context for OutputMutator
   private OperatorContext oContext;
+  // loader which writes and sizes the record batches
+  private ResultSetLoader rsLoader;
+  // vectors of the scan batch, in the order of the loader's columns
+  private final List<ValueVector> outputVectors = new ArrayList<>();
 
   public CompliantTextRecordReader(FileSplit split, DrillFileSystem dfs, TextParsingSettings settings, List<SchemaPath> columns) {
     this.split = split;
@@ -133,15 +158,21 @@ public class CompliantTextRecordReader extends AbstractRecordReader {
       TextInput input = null;
       InputStream stream = null;
 
-      // setup Output using OutputMutator
+      // setup Output using a result set loader
+      rsLoader = new ResultSetLoaderImpl(context.getAllocator(), new OptionBuilder()
+          .setRowCountLimit(context.getFragmentContext().getConfig().getInt(ExecConstants.TEXT_LINE_READER_BATCH_SIZE))
+          .setBatchSizeLimit((int) context.getFragmentContext().getOptions().getOption(ExecConstants.OUTPUT_BATCH_SIZE_VALIDATOR))
+          .build());
+      RowSetLoader writer = rsLoader.writer();
       if (settings.isHeaderExtractionEnabled()){
-        //extract header and use that to setup a set of VarCharVectors
+        //extract header and use that to setup a set of VarChar columns
         String [] fieldNames = extractHeader();
-        output = new FieldVarCharOutput(outputMutator, fieldNames, getColumns(), isStarQuery());
+        output = new FieldVarCharOutput(writer, fieldNames, getColumns(), isStarQuery());
       } else {
-        //simply use RepeatedVarCharVector
-        output = new RepeatedVarCharOutput(outputMutator, getColumns(), isStarQuery());
+        //simply use a repeated VarChar column
+        output = new RepeatedVarCharOutput(writer, getColumns(), isStarQuery());
       }
+      registerOutputVectors(outputMutator, writer.tupleSchema());
 
       // setup Input using InputStream
       logger.trace("Opening file {}", split.getPath());
@@ -159,6 +190,32 @@ public class CompliantTextRecordReader extends AbstractRecordReader {
     }
   }
 
+  /**
+   * Adds the loader's columns to the scan batch so that the schema is
+   * known even if the file has no records.
+   */
+  private void registerOutputVectors(OutputMutator outputMutator, TupleMetadata schema) throws SchemaChangeException {
+    for (int i = 0; i < schema.size(); i++) {
+      MaterializedField field = schema.column(i);
+      outputVectors.add(outputMutator.addField(field,
+          BasicTypeHelper.getValueVectorClass(field.getType().getMinorType(), field.getDataMode())));
+    }
+  }
+
+  /**
+   * Vectors of this reader are allocated by the result set loader and
+   * receive the loader's buffers in {@link #next()}; only vectors left
+   * over from other readers of the scan are allocated here.
+   */
+  @Override
+  public void allocate(Map<String, ValueVector> vectorMap) throws OutOfMemoryException {
+    for (ValueVector vector : vectorMap.values()) {
+      if (!outputVectors.contains(vector)) {
+        vector.allocateNew();
+      }
+    }
+  }
+
   /**
    * This method is responsible to implement logic for extracting header from text file
    * Currently it is assumed to be first line if headerExtractionEnabled is set to true
@@ -204,15 +261,16 @@ public class CompliantTextRecordReader extends AbstractRecordReader {
    */
   @Override
   public int next() {
+    rsLoader.startBatch();
     reader.resetForNextBatch();
-    int cnt = 0;
+    RowSetLoader writer = rsLoader.writer();
 
     try{
-      while(cnt < MAX_RECORDS_PER_BATCH && reader.parseNext()){
-        cnt++;
+      while(!writer.isFull() && reader.parseNext()){
+        // the output writes each record to the loader
       }
       reader.finishBatch();
-      return cnt;
+      return transferBatch(rsLoader.harvest());
     } catch (IOException | TextParsingException e) {
       throw UserException.dataReadError(e)
           .addContext("Failure while reading file %s. Happened at or shortly before byte position %d.",
@@ -221,6 +279,19 @@ public class CompliantTextRecordReader extends AbstractRecordReader {
     }
   }
 
+  /**
+   * Moves the buffers of a harvested batch into the scan batch vectors.
+   * The loader allocates fresh vectors (or restores the overflow row)
+   * when the next batch starts.
+   * @return number of records in the batch
+   */
+  private int transferBatch(VectorContainer harvested) {
+    for (int i = 0; i < outputVectors.size(); i++) {
+      harvested.getValueVector(i).getValueVector().makeTransferPair(outputVectors.get(i)).transfer();
+    }
+    return harvested.getRecordCount();
+  }
+
   /**
    * Cleanup state once we are finished processing all the records.
    * This would internally close the input stream we are reading from.
@@ -247,5 +318,9 @@ public class CompliantTextRecordReader extends AbstractRecordReader {
     } catch (IOException e) {
       logger.warn("Exception while closing stream.", e);
     }
+    if (rsLoader != null) {
+      rsLoader.close();
+      rsLoader = null;
+    }
   }
 }
@@ -29,27 +29,33 @@ import org.apache.drill.common.expression.SchemaPath;
 import org.apache.drill.common.map.CaseInsensitiveMap;
 import org.apache.drill.common.types.TypeProtos;
 import org.apache.drill.common.types.Types;
-import org.apache.drill.exec.exception.SchemaChangeException;
-import org.apache.drill.exec.physical.impl.OutputMutator;
+import org.apache.drill.exec.physical.rowSet.RowSetLoader;
 import org.apache.drill.exec.record.MaterializedField;
-import org.apache.drill.exec.vector.VarCharVector;
+import org.apache.drill.exec.vector.accessor.ScalarWriter;
 
 /**
  * Class is responsible for generating record batches for text file inputs. We generate
  * a record batch with a set of varchar vectors. A varchar vector contains all the field
  * values for a given column. Each record is a single value within each vector of the set.
+ * <p>
+ * Values are written through a {@link RowSetLoader}, which limits the batch by
+ * memory as well as by row count and moves a row that overflows a vector into
+ * the next batch. Only projected fields are given a column; the bytes of other
+ * fields are parsed but never copied.
  */
 class FieldVarCharOutput extends TextOutput {
 
   static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(FieldVarCharOutput.class);
   static final String COL_NAME = "columns";
 
-  // array of output vector
-  private final VarCharVector [] vectors;
+  // row writer of the result set loader
+  private final RowSetLoader writer;
+  // array of column writers, null for fields which are not selected
+  private final ScalarWriter [] writers;
   // boolean array indicating which fields are selected (if star query entire array is set to true)
   private final boolean[] selectedFields;
-  // current vector to which field will be added
-  private VarCharVector currentVector;
+  // current column writer to which field will be added
+  private ScalarWriter currentWriter;
   // track which field is getting appended
   private int currentFieldIndex = -1;
   // track chars within field
@@ -61,26 +67,26 @@ class FieldVarCharOutput extends TextOutput {
 
   private boolean collect = true;
   private boolean rowHasData= false;
+  // true once the loader has been told a row has started
+  private boolean rowStarted;
   private static final int MAX_FIELD_LENGTH = 1024 * 64;
   private int recordCount = 0;
   private int maxField = 0;
-  private int[] nullCols;
-  private byte nullValue[] = new byte[0];
 
   /**
-   * We initialize and add the varchar vector for each incoming field in this
+   * We initialize and add the varchar column for each selected field in this
    * constructor.
-   * @param outputMutator  Used to create/modify schema
+   * @param writer  row writer of the loader used to create the schema and write rows
    * @param fieldNames Incoming field names
    * @param columns  List of columns selected in the query
    * @param isStarQuery  boolean to indicate if all fields are selected or not
    * @throws SchemaChangeException
    */
-  public FieldVarCharOutput(OutputMutator outputMutator, String [] fieldNames, Collection<SchemaPath> columns, boolean isStarQuery) throws SchemaChangeException {
+  public FieldVarCharOutput(RowSetLoader writer, String [] fieldNames, Collection<SchemaPath> columns, boolean isStarQuery) {
 
+    this.writer = writer;
     int totalFields = fieldNames.length;
     List<String> outputColumns = new ArrayList<>(Arrays.asList(fieldNames));
-    List<Integer> nullColumns = new ArrayList<>();
 
     if (isStarQuery) {
       maxField = totalFields - 1;
@@ -108,10 +114,11 @@ class FieldVarCharOutput extends TextOutput {
           Integer value = headers.get(pathStr);
           if (value == null) {
             // found col that is not a part of fieldNames, add it
-            // this col might be part of some another scanner
+            // this col might be part of some another scanner.
+            // It is never written, so the loader fills it with empty values.
             index = totalFields++;
             outputColumns.add(pathStr);
-            nullColumns.add(index);
+            headers.put(pathStr, index);
           } else {
             index = value;
           }
@@ -127,23 +134,20 @@ class FieldVarCharOutput extends TextOutput {
       }
     }
 
-    this.vectors = new VarCharVector[totalFields];
+    this.writers = new ScalarWriter[totalFields];
 
-    for (int i = 0; i <= maxField; i++) {
+    for (int i = 0; i < totalFields; i++) {
       if (selectedFields[i]) {
         MaterializedField field = MaterializedField.create(outputColumns.get(i), Types.required(TypeProtos.MinorType.VARCHAR));
-        this.vectors[i] = outputMutator.addField(field, VarCharVector.class);
+        this.writers[i] = writer.scalar(writer.addColumn(field));
       }
     }
 
-    this.fieldBytes = new byte[MAX_FIELD_LENGTH];
-
-    // Keep track of the null columns to be filled in.
+    // Fields past the last header field (including null columns) are never
+    // parsed, so only the header fields can be selected during parsing.
+    maxField = Math.min(maxField, fieldNames.length - 1);
 
-    nullCols = new int[nullColumns.size()];
-    for (int i = 0; i < nullCols.length; i++) {
-      nullCols[i] = nullColumns.get(i);
-    }
+    this.fieldBytes = new byte[MAX_FIELD_LENGTH];
   }
 
   /**
@@ -159,11 +163,15 @@ class FieldVarCharOutput extends TextOutput {
 
   @Override
   public void startField(int index) {
+    if (!rowStarted) {
+      writer.start();
+      rowStarted = true;
+    }
     currentFieldIndex = index;
     currentDataPointer = 0;
     fieldOpen = true;
     collect = selectedFields[index];
-    currentVector = vectors[index];
+    currentWriter = writers[index];
   }
 
   @Override
@@ -189,8 +197,8 @@ class FieldVarCharOutput extends TextOutput {
     fieldOpen = false;
 
     if (collect) {
-      assert currentVector != null;
-      currentVector.getMutator().setSafe(recordCount, fieldBytes, 0, currentDataPointer);
+      assert currentWriter != null;
+      currentWriter.setBytes(fieldBytes, currentDataPointer);
     }
 
     if (currentDataPointer > 0) {
@@ -207,15 +215,18 @@ class FieldVarCharOutput extends TextOutput {
 
  @Override
   public void finishRecord() {
+    if (!rowStarted) {
+      writer.start();
+    }
     if (fieldOpen){
       endField();
     }
 
-    // Fill in null (really empty) values.
+    // Columns not written in this row (including null columns) are
+    // filled with empty values by the loader.
 
-    for (int i = 0; i < nullCols.length; i++) {
-      vectors[nullCols[i]].getMutator().setSafe(recordCount, nullValue, 0, 0);
-    }
+    writer.save();
+    rowStarted = false;
     recordCount++;
   }
 
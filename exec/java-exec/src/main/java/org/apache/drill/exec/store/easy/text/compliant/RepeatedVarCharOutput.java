@@ -17,23 +17,18 @@
  */
 package org.apache.drill.exec.store.easy.text.compliant;
 
-import io.netty.buffer.DrillBuf;
-import io.netty.util.internal.PlatformDependent;
-
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 
-import org.apache.drill.common.exceptions.ExecutionSetupException;
 import org.apache.drill.common.expression.SchemaPath;
 import org.apache.drill.common.types.TypeProtos;
 import org.apache.drill.common.types.Types;
-import org.apache.drill.exec.exception.SchemaChangeException;
-import org.apache.drill.exec.physical.impl.OutputMutator;
+import org.apache.drill.exec.physical.rowSet.RowSetLoader;
 import org.apache.drill.exec.record.MaterializedField;
-import org.apache.drill.exec.vector.RepeatedVarCharVector;
+import org.apache.drill.exec.vector.accessor.ScalarWriter;
 
 import com.google.common.base.Preconditions;
 
@@ -41,6 +36,11 @@ import com.google.common.base.Preconditions;
  * Class is responsible for generating record batches for text file inputs. We generate
  * a record batch with a single vector of type repeated varchar vector. Each record is a single
  * value within the vector containing all the fields in the record as individual array elements.
+ * <p>
+ * Values are written through a {@link RowSetLoader}, which limits the batch by
+ * memory as well as by row count and moves a row that overflows a vector into
+ * the next batch. Fields which are not selected are written as empty elements
+ * without copying their bytes.
  */
 class RepeatedVarCharOutput extends TextOutput {
   static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(RepeatedVarCharOutput.class);
@@ -48,58 +48,37 @@ class RepeatedVarCharOutput extends TextOutput {
   static final String COL_NAME = "columns";
   static final SchemaPath COLUMNS = SchemaPath.getSimplePath("columns");
   public static final int MAXIMUM_NUMBER_COLUMNS = 64 * 1024;
+  private static final int INITIAL_FIELD_LENGTH = 1024;
 
-  // output vector
-  private final RepeatedVarCharVector vector;
+  // row writer of the result set loader
+  private final RowSetLoader writer;
 
-  // mutator for the output vector
-  private final RepeatedVarCharVector.Mutator mutator;
+  // writer for the elements of the "columns" array
+  private final ScalarWriter elementWriter;
 
   // boolean array indicating which fields are selected (if star query entire array is set to true)
   private final boolean[] collectedFields;
 
-  // pointer to keep track of the offsets per record
-  private long repeatedOffset;
-
-  // pointer to keep track of the original offsets per record
-  private long repeatedOffsetOriginal;
-
-  // pointer to end of the offset buffer
-  private long repeatedOffsetMax;
-
-  // pointer to the start of the actual data buffer
-  private long characterDataOriginal;
-
-  // pointer to the current location of the data buffer
-  private long characterData;
-
-  // pointer to the end of the data buffer
-  private long characterDataMax;
+  // holds the bytes of the field being appended
+  private byte[] fieldBytes = new byte[INITIAL_FIELD_LENGTH];
 
-  // current pointer into the buffer that keeps track of the length of individual fields
-  private long charLengthOffset;
+  // number of bytes of the current field
+  private int currentDataPointer;
 
-  // pointer to the start of the length buffer
-  private long charLengthOffsetOriginal;
+  // true if any non-empty field was appended to the current record
+  private boolean rowHasData;
 
-  // pointer to the end of length buffer
-  private long charLengthOffsetMax;
-
-  // pointer to the beginning of the record
-  private long recordStart;
+  // true once the loader has been told a record has started
+  private boolean rowStarted;
 
   // total number of records processed (across batches)
   private long recordCount;
 
-  // number of records processed in this current batch
-  private int batchIndex;
-
   // current index of the field being processed within the record
   private int fieldIndex = -1;
 
   /* boolean to indicate if we are currently appending data to the output vector
-   * Its set to false when we have hit out of memory or we are not interested in
-   * the particular field
+   * Its set to false when we are not interested in the particular field
    */
   private boolean collect;
 
@@ -110,21 +89,18 @@ class RepeatedVarCharOutput extends TextOutput {
   private final int maxField;
 
   /**
-   * We initialize and add the repeated varchar vector to the record batch in this
+   * We initialize and add the repeated varchar column to the loader in this
    * constructor. Perform some sanity checks if the selected columns are valid or not.
-   * @param outputMutator  Used to create/modify schema in the record batch
+   * @param writer  row writer of the loader used to create the schema and write rows
    * @param columns  List of columns selected in the query
    * @param isStarQuery  boolean to indicate if all fields are selected or not
-   * @throws SchemaChangeException
    */
-  public RepeatedVarCharOutput(OutputMutator outputMutator, Collection<SchemaPath> columns, boolean isStarQuery) throws SchemaChangeException {
+  public RepeatedVarCharOutput(RowSetLoader writer, Collection<SchemaPath> columns, boolean isStarQuery) {
     super();
 
+    this.writer = writer;
     MaterializedField field = MaterializedField.create(COL_NAME, Types.repeated(TypeProtos.MinorType.VARCHAR));
-    this.vector = outputMutator.addField(field, RepeatedVarCharVector.class);
-
-    this.mutator = vector.getMutator();
-
+    this.elementWriter = writer.array(writer.addColumn(field)).scalar();
 
     { // setup fields
       List<Integer> columnIds = new ArrayList<>();
@@ -168,85 +144,26 @@ class RepeatedVarCharOutput extends TextOutput {
   }
 
   /**
-   * Start a new record batch. Resets all the offsets and pointers that
-   * store buffer addresses
+   * Start a new record batch. Resets the per-record state; the loader
+   * itself is started by the reader.
    */
   @Override
   public void startBatch() {
-    this.recordStart = characterDataOriginal;
     this.fieldOpen = false;
-    this.batchIndex = 0;
     this.fieldIndex = -1;
     this.collect = true;
-
-    loadRepeatedOffsetAddress();
-    loadVarCharOffsetAddress();
-    loadVarCharDataAddress();
-  }
-
-  private void loadRepeatedOffsetAddress(){
-    @SuppressWarnings("resource")
-    DrillBuf buf = vector.getOffsetVector().getBuffer();
-    checkBuf(buf);
-    this.repeatedOffset = buf.memoryAddress() + 4;
-    this.repeatedOffsetOriginal = buf.memoryAddress() + 4;
-    this.repeatedOffsetMax = buf.memoryAddress() + buf.capacity();
-  }
-
-  private void loadVarCharDataAddress(){
-    @SuppressWarnings("resource")
-    DrillBuf buf = vector.getDataVector().getBuffer();
-    checkBuf(buf);
-    this.characterData = buf.memoryAddress();
-    this.characterDataOriginal = buf.memoryAddress();
-    this.characterDataMax = buf.memoryAddress() + buf.capacity();
-  }
-
-  private void loadVarCharOffsetAddress(){
-    @SuppressWarnings("resource")
-    DrillBuf buf = vector.getDataVector().getOffsetVector().getBuffer();
-    checkBuf(buf);
-    this.charLengthOffset = buf.memoryAddress() + 4;
-    this.charLengthOffsetOriginal = buf.memoryAddress() + 4; // add four as offsets conceptually start at 1. (first item is 0..1)
-    this.charLengthOffsetMax = buf.memoryAddress() + buf.capacity();
-  }
-
-  private void expandVarCharOffsets(){
-    vector.getDataVector().getOffsetVector().reAlloc();
-    long diff = charLengthOffset - charLengthOffsetOriginal;
-    loadVarCharOffsetAddress();
-    charLengthOffset += diff;
-  }
-
-  private void expandVarCharData(){
-    vector.getDataVector().reAlloc();
-    long diff = characterData - characterDataOriginal;
-    loadVarCharDataAddress();
-    characterData += diff;
-  }
-
-  private void expandRepeatedOffsets(){
-    vector.getOffsetVector().reAlloc();
-    long diff = repeatedOffset - repeatedOffsetOriginal;
-    loadRepeatedOffsetAddress();
-    repeatedOffset += diff;
-  }
-
-  /**
-   * Helper method to check if the buffer we are accessing
-   * has a minimum reference count and has not been deallocated
-   * @param b  working drill buffer
-   */
-  private void checkBuf(DrillBuf b){
-    if(b.refCnt() < 1){
-      throw new IllegalStateException("Cannot access a dereferenced buffer.");
-    }
   }
 
   @Override
   public void startField(int index) {
+    if (!rowStarted) {
+      writer.start();
+      rowStarted = true;
+      rowHasData = false;
+    }
     fieldIndex = index;
     collect = collectedFields[index];
+    currentDataPointer = 0;
     fieldOpen = true;
   }
 
@@ -254,13 +171,10 @@ class RepeatedVarCharOutput extends TextOutput {
   public boolean endField() {
     fieldOpen = false;
 
-    if(charLengthOffset >= charLengthOffsetMax){
-      expandVarCharOffsets();
-    }
+    // Unselected fields are kept as empty elements so that the remaining
+    // fields keep their array index.
 
-    int newOffset = (int) (characterData - characterDataOriginal);
-    PlatformDependent.putInt(charLengthOffset, newOffset);
-    charLengthOffset += 4;
+    elementWriter.setBytes(fieldBytes, currentDataPointer);
     return fieldIndex < maxField;
   }
 
@@ -275,13 +189,12 @@ class RepeatedVarCharOutput extends TextOutput {
       return;
     }
 
-    if(characterData >= characterDataMax){
-      expandVarCharData();
+    if(currentDataPointer == fieldBytes.length){
+      fieldBytes = Arrays.copyOf(fieldBytes, fieldBytes.length * 2);
     }
 
-    PlatformDependent.putByte(characterData, data);
-    characterData++;
-
+    fieldBytes[currentDataPointer++] = data;
+    rowHasData = true;
   }
 
   @Override
@@ -291,57 +204,26 @@ class RepeatedVarCharOutput extends TextOutput {
 
   @Override
   public boolean rowHasData() {
-    return this.recordStart < characterData;
+    return rowStarted && rowHasData;
   }
 
   @Override
   public void finishRecord() {
-    this.recordStart = characterData;
+    if (!rowStarted) {
+      writer.start();
+    }
 
     if(fieldOpen){
       endField();
     }
 
-    if(repeatedOffset >= repeatedOffsetMax){
-      expandRepeatedOffsets();
-    }
-
-    int newOffset = ((int) (charLengthOffset - charLengthOffsetOriginal))/4;
-    PlatformDependent.putInt(repeatedOffset, newOffset);
-    repeatedOffset += 4;
+    writer.save();
+    rowStarted = false;
 
     // if there were no defined fields, skip.
     if(fieldIndex > -1){
-      batchIndex++;
       recordCount++;
     }
-
-
-  }
-
-  /**
-   * This method is a helper method added for DRILL-951
-   * TextRecordReader to call this method to get field names out
-   * @return array of field data strings
-   */
-  public String [] getTextOutput () throws ExecutionSetupException {
-    if (recordCount == 0 || fieldIndex == -1) {
-      return null;
-    }
-
-    if (this.recordStart != characterData) {
-      throw new ExecutionSetupException("record text was requested before finishing record");
-    }
-
-    //Currently only first line header is supported. Return only first record.
-    int retSize = fieldIndex+1;
-    String [] out = new String [retSize];
-
-    RepeatedVarCharVector.Accessor a = this.vector.getAccessor();
-    for (int i=0; i<retSize; i++){
-      out[i] = a.getSingleObject(0,i).toString();
-    }
-    return out;
   }
 
   @Override
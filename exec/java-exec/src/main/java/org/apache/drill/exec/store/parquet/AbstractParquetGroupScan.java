@@ -51,6 +51,7 @@ import org.apache.drill.exec.store.schedule.AffinityCreator;
 import org.apache.drill.exec.store.schedule.AssignmentCreator;
 import org.apache.drill.exec.store.schedule.EndpointByteMap;
 import org.apache.drill.exec.store.schedule.EndpointByteMapImpl;
+import org.apache.hadoop.conf.Configuration;
 
 import java.io.IOException;
 import java.util.ArrayList;
@@ -84,6 +85,11 @@ public abstract class AbstractParquetGroupScan extends AbstractFileGroupScan {
   private List<EndpointAffinity> endpointAffinities;
   private ParquetGroupScanStatistics parquetGroupScanStatistics;
 
+  // Row groups checked and pruned by the dictionaries of the filter columns while planning this scan,
+  // reported in the metrics of the scan operator (see ParquetDictionaryPruner)
+  protected long rowGroupsDictChecked;
+  protected long rowGroupsDictPruned;
+
   protected AbstractParquetGroupScan(String userName, List<SchemaPath> columns, List<ReadEntryWithPath> entries, LogicalExpression filter) {
     super(userName);
     this.columns = columns;
@@ -103,6 +109,8 @@ public abstract class AbstractParquetGroupScan extends AbstractFileGroupScan {
     this.parquetGroupScanStatistics = that.parquetGroupScanStatistics == null ? null : new ParquetGroupScanStatistics(that.parquetGroupScanStatistics);
     this.fileSet = that.fileSet == null ? null : new HashSet<>(that.fileSet);
     this.entries = that.entries == null ? null : new ArrayList<>(that.entries);
+    this.rowGroupsDictChecked = that.rowGroupsDictChecked;
+    this.rowGroupsDictPruned = that.rowGroupsDictPruned;
   }
 
   @JsonProperty
@@ -230,6 +238,12 @@ public abstract class AbstractParquetGroupScan extends AbstractFileGroupScan {
 
     ParquetFilterPredicate filterPredicate = null;
 
+    // the pruner holds no resources until it reads a dictionary (once the filter predicate is built),
+    // so the early returns below need not close it
+    final ParquetDictionaryPruner dictionaryPruner = createDictionaryPruner(optionManager);
+    // comparisons with strings can only be decided for the single values of the dictionaries
+    final boolean stringConstants = dictionaryPruner != null;
+
     for (RowGroupInfo rowGroup : rowGroupInfos) {
       final ColumnExplorer columnExplorer = new ColumnExplorer(optionManager, columns);
       List<String> partitionValues = getPartitionValues(rowGroup);
@@ -256,20 +270,27 @@ public abstract class AbstractParquetGroupScan extends AbstractFileGroupScan {
 
         Set<LogicalExpression> constantBoundaries = ConstantExpressionIdentifier.getConstantExpressionSet(materializedFilter);
         filterPredicate = (ParquetFilterPredicate) ParquetFilterBuilder.buildParquetFilterPredicate(
-            materializedFilter, constantBoundaries, udfUtilities);
+            materializedFilter, constantBoundaries, udfUtilities, stringConstants);
 
         if (filterPredicate == null) {
           return null;
         }
       }
 
-      if (ParquetRGFilterEvaluator.canDrop(filterPredicate, columnStatisticsMap, rowGroup.getRowCount())) {
+      if (ParquetRGFilterEvaluator.canDrop(filterPredicate, columnStatisticsMap, rowGroup.getRowCount(), stringConstants)) {
+        continue;
+      }
+
+      if (dictionaryPruner != null && dictionaryPruner.canDrop(rowGroup, filterPredicate, columnStatisticsMap)) {
         continue;
       }
 
       qualifiedRGs.add(rowGroup);
       qualifiedFilePath.add(rowGroup.getPath());  // TODO : optimize when 1 file contains m row groups.
     }
+    if (dictionaryPruner != null) {
+      dictionaryPruner.close();
+    }
 
     if (qualifiedRGs.size() == rowGroupInfos.size() ) {
       // There is no reduction of rowGroups. Return the original groupScan.
@@ -288,6 +309,10 @@ public abstract class AbstractParquetGroupScan extends AbstractFileGroupScan {
     try {
       AbstractParquetGroupScan cloneGroupScan = cloneWithFileSelection(qualifiedFilePath);
       cloneGroupScan.rowGroupInfos = qualifiedRGs;
+      if (dictionaryPruner != null) {
+        cloneGroupScan.rowGroupsDictChecked = dictionaryPruner.getStats().numRowGroupsDictChecked.get();
+        cloneGroupScan.rowGroupsDictPruned = dictionaryPruner.getStats().numRowGroupsDictPruned.get();
+      }
       cloneGroupScan.parquetGroupScanStatistics.collect(cloneGroupScan.rowGroupInfos, cloneGroupScan.parquetTableMetadata);
       return cloneGroupScan;
 
@@ -348,6 +373,11 @@ public abstract class AbstractParquetGroupScan extends AbstractFileGroupScan {
     return parquetGroupScanStatistics.getTypeForColumn(schemaPath);
   }
 
+  @JsonIgnore
+  public Map<SchemaPath, TypeProtos.MajorType> getColumnTypes() {
+    return parquetGroupScanStatistics.getColumnTypes();
+  }
+
   @JsonIgnore
   public <T> T getPartitionValue(String path, SchemaPath column, Class<T> clazz) {
     return clazz.cast(parquetGroupScanStatistics.getPartitionValue(path, column));
@@ -423,6 +453,23 @@ public abstract class AbstractParquetGroupScan extends AbstractFileGroupScan {
         "" : ExpressionStringBuilder.toString(this.filter);
   }
 
+  /**
+   * @return the configuration of the file system holding the parquet files, used to read the dictionaries
+   * of the filtered columns when pruning row groups; null if this scan does not support dictionary pruning
+   */
+  protected Configuration getFsConf() {
+    return null;
+  }
+
+  private ParquetDictionaryPruner createDictionaryPruner(OptionManager optionManager) {
+    final Configuration conf = getFsConf();
+    if (conf == null || !optionManager.getOption(PlannerSettings.PARQUET_ROWGROUP_FILTER_PUSHDOWN_DICTIONARY)) {
+      return null;
+    }
+    return new ParquetDictionaryPruner(conf,
+        optionManager.getOption(PlannerSettings.PARQUET_ROWGROUP_FILTER_PUSHDOWN_DICTIONARY_MAX_SIZE));
+  }
+
   // abstract methods block start
   protected abstract void initInternal() throws IOException;
   protected abstract Collection<CoordinationProtos.DrillbitEndpoint> getDrillbits();
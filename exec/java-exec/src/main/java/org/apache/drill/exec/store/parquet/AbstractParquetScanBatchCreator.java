@@ -104,6 +104,8 @@ public abstract class AbstractParquetScanBatchCreator {
         logger.debug("Contains corrupt dates: {}", containsCorruptDates);
 
         if (!context.getOptions().getBoolean(ExecConstants.PARQUET_NEW_RECORD_READER) && !isComplex(footer)) {
+          boolean filterInReader = context.getOptions().getBoolean(ExecConstants.PARQUET_READER_LATE_MATERIALIZATION)
+              || context.getOptions().getBoolean(ExecConstants.PARQUET_READER_PAGE_PRUNING);
           readers.add(new ParquetRecordReader(context,
               rowGroup.getPath(),
               rowGroup.getRowGroupIndex(),
@@ -112,7 +114,8 @@ public abstract class AbstractParquetScanBatchCreator {
               CodecFactory.createDirectCodecFactory(fs.getConf(), new ParquetDirectByteBufferAllocator(oContext.getAllocator()), 0),
               footer,
               rowGroupScan.getColumns(),
-              containsCorruptDates));
+              containsCorruptDates,
+              filterInReader ? rowGroupScan.getFilter() : null));
         } else {
           readers.add(new DrillParquetReader(context,
               footer,
@@ -0,0 +1,329 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.drill.exec.store.parquet;
+
+import java.io.IOException;
+import java.security.PrivilegedExceptionAction;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.drill.common.expression.SchemaPath;
+import org.apache.drill.exec.expr.stat.ParquetFilterPredicate;
+import org.apache.drill.exec.store.parquet.stat.ColumnStatistics;
+import org.apache.drill.exec.util.ImpersonationUtil;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FSDataInputStream;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.parquet.bytes.BytesInput;
+import org.apache.parquet.column.ColumnDescriptor;
+import org.apache.parquet.column.Dictionary;
+import org.apache.parquet.column.Encoding;
+import org.apache.parquet.column.page.DictionaryPage;
+import org.apache.parquet.column.statistics.BinaryStatistics;
+import org.apache.parquet.column.statistics.DoubleStatistics;
+import org.apache.parquet.column.statistics.FloatStatistics;
+import org.apache.parquet.column.statistics.IntStatistics;
+import org.apache.parquet.column.statistics.LongStatistics;
+import org.apache.parquet.column.statistics.Statistics;
+import org.apache.parquet.format.PageHeader;
+import org.apache.parquet.format.PageType;
+import org.apache.parquet.format.Util;
+import org.apache.parquet.format.converter.ParquetMetadataConverter;
+import org.apache.parquet.hadoop.CodecFactory;
+import org.apache.parquet.hadoop.ParquetFileReader;
+import org.apache.parquet.hadoop.metadata.BlockMetaData;
+import org.apache.parquet.hadoop.metadata.ColumnChunkMetaData;
+import org.apache.parquet.hadoop.metadata.CompressionCodecName;
+import org.apache.parquet.hadoop.metadata.ParquetMetadata;
+import org.apache.parquet.schema.PrimitiveType.PrimitiveTypeName;
+import org.joda.time.DateTimeConstants;
+
+import com.google.common.base.Stopwatch;
+
+/**
+ * Prunes row groups using the dictionaries of dictionary encoded columns. Used when planning,
+ * for the row groups which could not be pruned using the min/max statistics of the metadata
+ * (e.g. string columns, which have no min/max in the metadata, or values that fall within
+ * the min/max range but are not in the row group).
+ * <p>
+ * For each column of the filter whose values, in the row group, are all dictionary encoded,
+ * the dictionary page is read, and the filter predicate is evaluated against each dictionary
+ * value (as min/max statistics made of that single value, along with the original statistics
+ * of the other columns). If the predicate can drop the row group for every value, no row of the
+ * row group can match, and the row group is dropped. Only dictionaries up to a given size are read.
+ * <p>
+ * Files are read as the process user (as when reading the footers for the metadata). Any failure
+ * to read a dictionary just keeps the row group.
+ */
+public class ParquetDictionaryPruner implements AutoCloseable {
+  private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(ParquetDictionaryPruner.class);
+
+  // Encodings which may be used by the data pages of a column chunk whose values are all dictionary
+  // encoded (RLE and BIT_PACKED are used for the repetition/definition levels)
+  private static final Set<Encoding> DICTIONARY_ONLY_ENCODINGS =
+      EnumSet.of(Encoding.PLAIN_DICTIONARY, Encoding.RLE_DICTIONARY, Encoding.RLE, Encoding.BIT_PACKED);
+
+  private final Configuration conf;
+  private final long maxDictionarySize;
+  private final CodecFactory codecFactory;
+  private final ParquetReaderStats stats = new ParquetReaderStats();
+
+  // The footers read so far, by file
+  private final Map<String, ParquetMetadata> footers = new HashMap<>();
+
+  /**
+   * @param conf the configuration of the file system holding the parquet files
+   * @param maxDictionarySize the largest dictionary to read (bytes, uncompressed)
+   */
+  public ParquetDictionaryPruner(Configuration conf, long maxDictionarySize) {
+    this.conf = conf;
+    this.maxDictionarySize = maxDictionarySize;
+    codecFactory = new CodecFactory(conf, 0);
+  }
+
+  /**
+   * @param rowGroup the row group (which could not be pruned using the min/max statistics)
+   * @param filterPredicate the filter predicate
+   * @param columnStatisticsMap the (min/max) statistics of the filter columns in this row group
+   * @return true if no row of the row group can satisfy the filter
+   */
+  public boolean canDrop(RowGroupInfo rowGroup, ParquetFilterPredicate filterPredicate,
+                         Map<SchemaPath, ColumnStatistics> columnStatisticsMap) {
+    stats.numRowGroupsDictChecked.incrementAndGet();
+    final BlockMetaData block;
+    final ParquetMetadata footer;
+    try {
+      footer = getFooter(rowGroup.getPath());
+      block = footer.getBlocks().get(rowGroup.getRowGroupIndex());
+    } catch (Exception e) {
+      logger.warn("Unable to read the footer of {}; skipping dictionary pruning", rowGroup.getPath(), e);
+      return false;
+    }
+
+    for (Map.Entry<SchemaPath, ColumnStatistics> entry : columnStatisticsMap.entrySet()) {
+      final SchemaPath field = entry.getKey();
+      final ColumnChunkMetaData column = findColumn(block, field);
+      if (column == null || !isDictionaryEncoded(column)) {
+        continue;
+      }
+      final ColumnDescriptor descriptor = footer.getFileMetaData().getSchema().getColumnDescription(column.getPath().toArray());
+      final Dictionary dictionary;
+      try {
+        dictionary = readDictionary(rowGroup.getPath(), column, descriptor);
+      } catch (Exception e) {
+        logger.warn("Unable to read the dictionary of column {} in {}", field, rowGroup.getPath(), e);
+        continue;
+      }
+      if (dictionary != null && canDrop(dictionary, descriptor.getType(), field, filterPredicate,
+          columnStatisticsMap, rowGroup.getRowCount())) {
+        logger.debug("Row group {} of {} pruned by the dictionary of column {}",
+            rowGroup.getRowGroupIndex(), rowGroup.getPath(), field);
+        stats.numRowGroupsDictPruned.incrementAndGet();
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Check the predicate against each value of the dictionary of a column
+   *
+   * @return true if the predicate can drop the row group for every value of the dictionary
+   */
+  private boolean canDrop(Dictionary dictionary, PrimitiveTypeName primitiveType, SchemaPath field,
+                          ParquetFilterPredicate filterPredicate, Map<SchemaPath, ColumnStatistics> columnStatisticsMap,
+                          long rowCount) {
+    if (dictionary.getMaxId() < 0) {
+      // no value to check the predicate against (e.g. a column chunk of nulls only)
+      return false;
+    }
+    final ColumnStatistics columnStatistics = columnStatisticsMap.get(field);
+    final Map<SchemaPath, ColumnStatistics> valueStatisticsMap = new HashMap<>(columnStatisticsMap);
+    for (int id = 0; id <= dictionary.getMaxId(); id++) {
+      final Statistics<?> valueStatistics = getValueStatistics(dictionary, id, primitiveType, columnStatistics);
+      if (valueStatistics == null) {
+        return false;
+      }
+      valueStatisticsMap.put(field, new ColumnStatistics(valueStatistics, columnStatistics.getMajorType()));
+      if (!ParquetRGFilterEvaluator.canDrop(filterPredicate, valueStatisticsMap, rowCount, true)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Build statistics whose min and max are a single dictionary value, of the same kind as the
+   * statistics built from the metadata (see {@link org.apache.drill.exec.store.parquet.stat.ParquetMetaStatCollector})
+   *
+   * @return the statistics, or null if the column type is not supported
+   */
+  private static Statistics<?> getValueStatistics(Dictionary dictionary, int id, PrimitiveTypeName primitiveType,
+                                                  ColumnStatistics columnStatistics) {
+    final Statistics<?> statistics;
+    switch (columnStatistics.getMajorType().getMinorType()) {
+      case INT:
+      case TIME:
+        if (primitiveType != PrimitiveTypeName.INT32) {
+          return null;
+        }
+        final int intValue = dictionary.decodeToInt(id);
+        statistics = new IntStatistics();
+        ((IntStatistics) statistics).setMinMax(intValue, intValue);
+        break;
+      case BIGINT:
+      case TIMESTAMP:
+        if (primitiveType != PrimitiveTypeName.INT64) {
+          return null;
+        }
+        final long longValue = dictionary.decodeToLong(id);
+        statistics = new LongStatistics();
+        ((LongStatistics) statistics).setMinMax(longValue, longValue);
+        break;
+      case DATE:
+        if (primitiveType != PrimitiveTypeName.INT32) {
+          return null;
+        }
+        final long dateValue = dictionary.decodeToInt(id) * (long) DateTimeConstants.MILLIS_PER_DAY;
+        statistics = new LongStatistics();
+        ((LongStatistics) statistics).setMinMax(dateValue, dateValue);
+        break;
+      case FLOAT4:
+        if (primitiveType != PrimitiveTypeName.FLOAT) {
+          return null;
+        }
+        final float floatValue = dictionary.decodeToFloat(id);
+        statistics = new FloatStatistics();
+        ((FloatStatistics) statistics).setMinMax(floatValue, floatValue);
+        break;
+      case FLOAT8:
+        if (primitiveType != PrimitiveTypeName.DOUBLE) {
+          return null;
+        }
+        final double doubleValue = dictionary.decodeToDouble(id);
+        statistics = new DoubleStatistics();
+        ((DoubleStatistics) statistics).setMinMax(doubleValue, doubleValue);
+        break;
+      case VARCHAR:
+      case VARBINARY:
+        if (primitiveType != PrimitiveTypeName.BINARY) {
+          return null;
+        }
+        statistics = new BinaryStatistics();
+        ((BinaryStatistics) statistics).setMinMax(dictionary.decodeToBinary(id), dictionary.decodeToBinary(id));
+        break;
+      default:
+        return null;
+    }
+    // the row group may also hold nulls
+    statistics.setNumNulls(columnStatistics.getStatistics().getNumNulls());
+    return statistics;
+  }
+
+  private static ColumnChunkMetaData findColumn(BlockMetaData block, SchemaPath field) {
+    if (!field.getRootSegment().isLastPath()) {
+      return null; // only top level columns
+    }
+    for (ColumnChunkMetaData column : block.getColumns()) {
+      final String[] path = column.getPath().toArray();
+      if (path.length == 1 && path[0].equalsIgnoreCase(field.getRootSegment().getPath())) {
+        return column;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * @return true if all the values of the column chunk are dictionary encoded (i.e. the
+   * dictionary did not overflow, falling back to plain encoding)
+   */
+  private static boolean isDictionaryEncoded(ColumnChunkMetaData column) {
+    final Set<Encoding> encodings = column.getEncodings();
+    return (encodings.contains(Encoding.PLAIN_DICTIONARY) || encodings.contains(Encoding.RLE_DICTIONARY)) &&
+        DICTIONARY_ONLY_ENCODINGS.containsAll(encodings) &&
+        column.getDictionaryPageOffset() > 0;
+  }
+
+  private ParquetMetadata getFooter(String path) throws Exception {
+    ParquetMetadata footer = footers.get(path);
+    if (footer == null) {
+      footer = ImpersonationUtil.getProcessUserUGI().doAs((PrivilegedExceptionAction<ParquetMetadata>)
+          () -> ParquetFileReader.readFooter(conf, new Path(path), ParquetMetadataConverter.NO_FILTER));
+      footers.put(path, footer);
+    }
+    return footer;
+  }
+
+  /**
+   * @return the dictionary of the column chunk, or null if larger than the maximum size
+   */
+  private Dictionary readDictionary(String path, ColumnChunkMetaData column, ColumnDescriptor descriptor) throws Exception {
+    final Stopwatch timer = Stopwatch.createStarted();
+    try {
+      return ImpersonationUtil.getProcessUserUGI().doAs((PrivilegedExceptionAction<Dictionary>)
+          () -> readDictionary(new Path(path), column, descriptor));
+    } finally {
+      stats.timeDictPageLoads.addAndGet(timer.elapsed(TimeUnit.NANOSECONDS));
+    }
+  }
+
+  private Dictionary readDictionary(Path path, ColumnChunkMetaData column, ColumnDescriptor descriptor) throws IOException {
+    final FileSystem fs = path.getFileSystem(conf);
+    try (FSDataInputStream in = fs.open(path)) {
+      in.seek(column.getDictionaryPageOffset());
+      final PageHeader pageHeader = Util.readPageHeader(in);
+      if (pageHeader.getType() != PageType.DICTIONARY_PAGE) {
+        return null;
+      }
+      final int compressedSize = pageHeader.getCompressed_page_size();
+      final int uncompressedSize = pageHeader.getUncompressed_page_size();
+      if (uncompressedSize > maxDictionarySize) {
+        return null;
+      }
+      final byte[] data = new byte[compressedSize];
+      in.readFully(data);
+      stats.numDictPageLoads.incrementAndGet();
+      stats.totalDictPageReadBytes.addAndGet(compressedSize);
+
+      BytesInput bytes = BytesInput.from(data);
+      if (column.getCodec() != CompressionCodecName.UNCOMPRESSED) {
+        bytes = BytesInput.copy(codecFactory.getDecompressor(column.getCodec()).decompress(bytes, uncompressedSize));
+        stats.numDictPagesDecompressed.incrementAndGet();
+        stats.totalDictDecompressedBytes.addAndGet(uncompressedSize);
+      }
+      final DictionaryPage page = new DictionaryPage(bytes, uncompressedSize,
+          pageHeader.getDictionary_page_header().getNum_values(),
+          Encoding.valueOf(pageHeader.getDictionary_page_header().getEncoding().name()));
+      return page.getEncoding().initDictionary(descriptor, page);
+    }
+  }
+
+  public ParquetReaderStats getStats() {
+    return stats;
+  }
+
+  @Override
+  public void close() {
+    stats.logDictionaryPruningStats(logger);
+    codecFactory.release();
+  }
+}
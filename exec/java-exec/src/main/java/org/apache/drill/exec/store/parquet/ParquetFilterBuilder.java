@@ -60,6 +60,7 @@ public class ParquetFilterBuilder extends AbstractExprVisitor<LogicalExpression,
   static final Logger logger = LoggerFactory.getLogger(ParquetFilterBuilder.class);
 
   private final UdfUtilities udfUtilities;
+  private final boolean stringConstants;
 
   /**
    * @param expr materialized filter expression
@@ -69,11 +70,26 @@ public class ParquetFilterBuilder extends AbstractExprVisitor<LogicalExpression,
    * @return logical expression
    */
   public static LogicalExpression buildParquetFilterPredicate(LogicalExpression expr, final Set<LogicalExpression> constantBoundaries, UdfUtilities udfUtilities) {
-    return expr.accept(new ParquetFilterBuilder(udfUtilities), constantBoundaries);
+    return buildParquetFilterPredicate(expr, constantBoundaries, udfUtilities, false);
   }
 
-  private ParquetFilterBuilder(UdfUtilities udfUtilities) {
+  /**
+   * @param expr materialized filter expression
+   * @param constantBoundaries set of constant expressions
+   * @param udfUtilities udf utilities
+   * @param stringConstants whether comparisons with string constants are pushed down (only used when
+   *                        row groups are pruned by their dictionaries, see ParquetDictionaryPruner)
+   *
+   * @return logical expression
+   */
+  public static LogicalExpression buildParquetFilterPredicate(LogicalExpression expr, final Set<LogicalExpression> constantBoundaries,
+      UdfUtilities udfUtilities, boolean stringConstants) {
+    return expr.accept(new ParquetFilterBuilder(udfUtilities, stringConstants), constantBoundaries);
+  }
+
+  private ParquetFilterBuilder(UdfUtilities udfUtilities, boolean stringConstants) {
     this.udfUtilities = udfUtilities;
+    this.stringConstants = stringConstants;
   }
 
   @Override
@@ -132,6 +148,11 @@ public class ParquetFilterBuilder extends AbstractExprVisitor<LogicalExpression,
     return timeExpr;
   }
 
+  @Override
+  public LogicalExpression visitQuotedStringConstant(ValueExpressions.QuotedString strExpr, Set<LogicalExpression> value) throws RuntimeException {
+    return stringConstants ? strExpr : null;
+  }
+
   @Override
   public LogicalExpression visitBooleanConstant(ValueExpressions.BooleanExpression booleanExpression, Set<LogicalExpression> value) throws RuntimeException {
     return booleanExpression;
@@ -47,6 +47,7 @@ import org.apache.drill.exec.store.dfs.ReadEntryWithPath;
 import org.apache.drill.exec.store.parquet.metadata.MetadataBase.ParquetFileMetadata;
 import org.apache.drill.exec.store.parquet.metadata.MetadataBase.ParquetTableMetadataBase;
 import org.apache.drill.exec.util.ImpersonationUtil;
+import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.fs.FileStatus;
 import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.fs.Path;
@@ -178,7 +179,9 @@ public class ParquetGroupScan extends AbstractParquetGroupScan {
 
   @Override
   public ParquetRowGroupScan getSpecificScan(int minorFragmentId) {
-    return new ParquetRowGroupScan(getUserName(), formatPlugin, getReadEntries(minorFragmentId), columns, selectionRoot, filter);
+    // the row groups pruned while planning are reported by the first minor fragment only
+    return new ParquetRowGroupScan(getUserName(), formatPlugin, getReadEntries(minorFragmentId), columns, selectionRoot, filter,
+        minorFragmentId == 0 ? rowGroupsDictChecked : 0, minorFragmentId == 0 ? rowGroupsDictPruned : 0);
   }
 
   @Override
@@ -304,6 +307,11 @@ public class ParquetGroupScan extends AbstractParquetGroupScan {
     return selectionRoot != null;
   }
 
+  @Override
+  protected Configuration getFsConf() {
+    return fs.getConf();
+  }
+
   @Override
   protected List<String> getPartitionValues(RowGroupInfo rowGroupInfo) {
     return ColumnExplorer.listPartitionValues(rowGroupInfo.getPath(), selectionRoot);
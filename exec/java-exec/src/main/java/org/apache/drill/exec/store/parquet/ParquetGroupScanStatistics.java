@@ -24,6 +24,7 @@ import org.apache.parquet.schema.OriginalType;
 import org.apache.parquet.schema.PrimitiveType;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -45,6 +46,8 @@ public class ParquetGroupScanStatistics {
   private Map<SchemaPath, TypeProtos.MajorType> partitionColTypeMap;
   // total number of non-null value for each column in parquet files
   private Map<SchemaPath, Long> columnValueCounts;
+  // type of each column (as seen in the first row group containing the column)
+  private Map<SchemaPath, TypeProtos.MajorType> columnTypeMap;
   // total number of rows (obtained from parquet footer)
   private long rowCount;
 
@@ -57,6 +60,7 @@ public class ParquetGroupScanStatistics {
     this.partitionValueMap = new HashMap<>(that.partitionValueMap);
     this.partitionColTypeMap = new HashMap<>(that.partitionColTypeMap);
     this.columnValueCounts = new HashMap<>(that.columnValueCounts);
+    this.columnTypeMap = new HashMap<>(that.columnTypeMap);
     this.rowCount = that.rowCount;
   }
 
@@ -72,6 +76,13 @@ public class ParquetGroupScanStatistics {
     return partitionColTypeMap.get(schemaPath);
   }
 
+  /**
+   * @return the type of every column of the scanned row groups
+   */
+  public Map<SchemaPath, TypeProtos.MajorType> getColumnTypes() {
+    return Collections.unmodifiableMap(columnTypeMap);
+  }
+
   public long getRowCount() {
     return rowCount;
   }
@@ -87,6 +98,9 @@ public class ParquetGroupScanStatistics {
       long rowCount = rowGroup.getRowCount();
       for (ColumnMetadata column : rowGroup.getColumns()) {
         SchemaPath schemaPath = SchemaPath.getCompoundPath(column.getName());
+        if (!columnTypeMap.containsKey(schemaPath)) {
+          columnTypeMap.put(schemaPath, getType(column, parquetTableMetadata));
+        }
         Long previousCount = columnValueCounts.get(schemaPath);
         if (previousCount != null) {
           if (previousCount != GroupScan.NO_COLUMN_STATS && column.getNulls() != null) {
@@ -135,6 +149,7 @@ public class ParquetGroupScanStatistics {
     this.partitionValueMap = new HashMap<>();
     this.partitionColTypeMap = new HashMap<>();
     this.columnValueCounts = new HashMap<>();
+    this.columnTypeMap = new HashMap<>();
     this.rowCount = 0;
   }
 
@@ -156,27 +171,10 @@ public class ParquetGroupScanStatistics {
                                           long rowCount,
                                           ParquetTableMetadataBase parquetTableMetadata) {
     SchemaPath schemaPath = SchemaPath.getCompoundPath(columnMetadata.getName());
-    final PrimitiveType.PrimitiveTypeName primitiveType;
-    final OriginalType originalType;
-    int precision = 0;
-    int scale = 0;
-    if (parquetTableMetadata.hasColumnMetadata()) {
-      // only ColumnTypeMetadata_v3 stores information about scale and precision
-      if (parquetTableMetadata instanceof ParquetTableMetadata_v3) {
-        ColumnTypeMetadata_v3 columnTypeInfo = ((ParquetTableMetadata_v3) parquetTableMetadata)
-            .getColumnTypeInfo(columnMetadata.getName());
-        scale = columnTypeInfo.scale;
-        precision = columnTypeInfo.precision;
-      }
-      primitiveType = parquetTableMetadata.getPrimitiveType(columnMetadata.getName());
-      originalType = parquetTableMetadata.getOriginalType(columnMetadata.getName());
-    } else {
-      primitiveType = columnMetadata.getPrimitiveType();
-      originalType = columnMetadata.getOriginalType();
-    }
+    final TypeProtos.MajorType type = getType(columnMetadata, parquetTableMetadata);
     if (first) {
       if (hasSingleValue(columnMetadata, rowCount)) {
-        partitionColTypeMap.put(schemaPath, ParquetReaderUtility.getType(primitiveType, originalType, scale, precision));
+        partitionColTypeMap.put(schemaPath, type);
         return true;
       } else {
         return false;
@@ -189,7 +187,7 @@ public class ParquetGroupScanStatistics {
           partitionColTypeMap.remove(schemaPath);
           return false;
         }
-        if (!ParquetReaderUtility.getType(primitiveType, originalType, scale, precision).equals(partitionColTypeMap.get(schemaPath))) {
+        if (!type.equals(partitionColTypeMap.get(schemaPath))) {
           partitionColTypeMap.remove(schemaPath);
           return false;
         }
@@ -198,6 +196,37 @@ public class ParquetGroupScanStatistics {
     return true;
   }
 
+  /**
+   * Builds the Drill type of the column, based on the parquet types taken either from the table metadata
+   * (when available) or from the column metadata.
+   *
+   * @param columnMetadata column metadata
+   * @param parquetTableMetadata parquet table metadata
+   *
+   * @return the type of the column
+   */
+  private TypeProtos.MajorType getType(ColumnMetadata columnMetadata, ParquetTableMetadataBase parquetTableMetadata) {
+    final PrimitiveType.PrimitiveTypeName primitiveType;
+    final OriginalType originalType;
+    int precision = 0;
+    int scale = 0;
+    if (parquetTableMetadata.hasColumnMetadata()) {
+      // only ColumnTypeMetadata_v3 stores information about scale and precision
+      if (parquetTableMetadata instanceof ParquetTableMetadata_v3) {
+        ColumnTypeMetadata_v3 columnTypeInfo = ((ParquetTableMetadata_v3) parquetTableMetadata)
+            .getColumnTypeInfo(columnMetadata.getName());
+        scale = columnTypeInfo.scale;
+        precision = columnTypeInfo.precision;
+      }
+      primitiveType = parquetTableMetadata.getPrimitiveType(columnMetadata.getName());
+      originalType = parquetTableMetadata.getOriginalType(columnMetadata.getName());
+    } else {
+      primitiveType = columnMetadata.getPrimitiveType();
+      originalType = columnMetadata.getOriginalType();
+    }
+    return ParquetReaderUtility.getType(primitiveType, originalType, scale, precision);
+  }
+
   /**
    * Checks that the column chunk has a single value.
    * ColumnMetadata will have a non-null value iff the minValue and
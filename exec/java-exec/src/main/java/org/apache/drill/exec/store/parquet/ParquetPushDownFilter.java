@@ -29,6 +29,7 @@ import org.apache.calcite.rex.RexNode;
 import org.apache.calcite.rex.RexUtil;
 import org.apache.drill.common.expression.LogicalExpression;
 import org.apache.drill.common.expression.ValueExpressions;
+import org.apache.drill.exec.ExecConstants;
 import org.apache.drill.exec.ops.OptimizerRulesContext;
 import org.apache.drill.exec.physical.base.GroupScan;
 import org.apache.drill.exec.planner.common.DrillRelOptUtil;
@@ -39,6 +40,7 @@ import org.apache.drill.exec.planner.physical.FilterPrel;
 import org.apache.drill.exec.planner.physical.PrelUtil;
 import org.apache.drill.exec.planner.physical.ProjectPrel;
 import org.apache.drill.exec.planner.physical.ScanPrel;
+import org.apache.drill.exec.server.options.OptionManager;
 import org.apache.drill.exec.store.StoragePluginOptimizerRule;
 
 import java.util.ArrayList;
@@ -154,17 +156,30 @@ public abstract class ParquetPushDownFilter extends StoragePluginOptimizerRule {
 
 
     Stopwatch timer = logger.isDebugEnabled() ? Stopwatch.createStarted() : null;
-    final GroupScan newGroupScan = groupScan.applyFilter(conditionExp,optimizerContext,
+    GroupScan newGroupScan = groupScan.applyFilter(conditionExp,optimizerContext,
         optimizerContext.getFunctionRegistry(), optimizerContext.getPlannerSettings().getOptions());
     if (timer != null) {
       logger.debug("Took {} ms to apply filter on parquet row groups. ", timer.elapsed(TimeUnit.MILLISECONDS));
       timer.stop();
     }
 
+    // with late materialization or page pruning the scan uses the filter to skip rows which cannot
+    // match, so hand it over even if no row group was pruned
+    OptionManager options = optimizerContext.getPlannerSettings().getOptions();
+    boolean filterInReader = options.getBoolean(ExecConstants.PARQUET_READER_LATE_MATERIALIZATION)
+        || options.getBoolean(ExecConstants.PARQUET_READER_PAGE_PRUNING);
+    if (newGroupScan == null && filterInReader) {
+      newGroupScan = groupScan.clone(groupScan.getColumns());
+    }
+
     if (newGroupScan == null ) {
       return;
     }
 
+    if (filterInReader) {
+      ((AbstractParquetGroupScan) newGroupScan).setFilter(conditionExp);
+    }
+
 
     RelNode newScan = ScanPrel.create(scan, scan.getTraitSet(), newGroupScan, scan.getRowType());;
 
@@ -64,9 +64,18 @@ public class ParquetRGFilterEvaluator {
 
   public static boolean canDrop(ParquetFilterPredicate parquetPredicate, Map<SchemaPath,
       ColumnStatistics> columnStatisticsMap, long rowCount) {
+    return canDrop(parquetPredicate, columnStatisticsMap, rowCount, false);
+  }
+
+  /**
+   * @param stringConstants whether string constants are compared with the statistics
+   *                        (see {@link ParquetFilterBuilder#buildParquetFilterPredicate(LogicalExpression, Set, UdfUtilities, boolean)})
+   */
+  public static boolean canDrop(ParquetFilterPredicate parquetPredicate, Map<SchemaPath,
+      ColumnStatistics> columnStatisticsMap, long rowCount, boolean stringConstants) {
     boolean canDrop = false;
     if (parquetPredicate != null) {
-      RangeExprEvaluator rangeExprEvaluator = new RangeExprEvaluator(columnStatisticsMap, rowCount);
+      RangeExprEvaluator rangeExprEvaluator = new RangeExprEvaluator(columnStatisticsMap, rowCount, stringConstants);
       canDrop = parquetPredicate.canDrop(rangeExprEvaluator);
     }
     return canDrop;
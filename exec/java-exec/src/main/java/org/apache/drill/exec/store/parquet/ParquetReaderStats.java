@@ -49,6 +49,16 @@ public class ParquetReaderStats {
   public AtomicLong timeVarColumnRead = new AtomicLong();
   public AtomicLong timeProcess = new AtomicLong();
 
+  // Row group pruning by the dictionaries of the filtered columns, done while planning (see ParquetDictionaryPruner)
+  public AtomicLong numRowGroupsDictChecked = new AtomicLong();
+  public AtomicLong numRowGroupsDictPruned = new AtomicLong();
+
+  // Late materialization and page pruning: data pages skipped without being decompressed or decoded, records skipped
+  public AtomicLong numDataPagesSkipped = new AtomicLong();
+  public AtomicLong numRecordsSkipped = new AtomicLong();
+  // Page pruning: data pages of the filter columns whose statistics rule out the filter
+  public AtomicLong numDataPagesPruned = new AtomicLong();
+
   public ParquetReaderStats() {
   }
 
@@ -78,6 +88,19 @@ public class ParquetReaderStats {
     );
   }
 
+  public void logDictionaryPruningStats(org.slf4j.Logger logger) {
+    logger.debug(
+        "Dictionary pruning: row groups checked: {}, pruned: {}, dictionaries read: {}, read bytes: {}, " +
+        "decompressed bytes: {}, time (ms): {}",
+        numRowGroupsDictChecked,
+        numRowGroupsDictPruned,
+        numDictPageLoads,
+        totalDictPageReadBytes,
+        totalDictDecompressedBytes,
+        timeDictPageLoads.longValue() / 1_000_000
+    );
+  }
+
   public void update(OperatorStats stats){
     stats.addLongStat(Metric.NUM_DICT_PAGE_LOADS,
         numDictPageLoads.longValue());
@@ -113,5 +136,8 @@ public class ParquetReaderStats {
     stats.addLongStat(Metric.TIME_FIXEDCOLUMN_READ, timeFixedColumnRead.longValue());
     stats.addLongStat(Metric.TIME_VARCOLUMN_READ, timeVarColumnRead.longValue());
     stats.addLongStat(Metric.TIME_PROCESS, timeProcess.longValue());
+    stats.addLongStat(Metric.NUM_DATA_PAGES_SKIPPED, numDataPagesSkipped.longValue());
+    stats.addLongStat(Metric.NUM_RECORDS_SKIPPED, numRecordsSkipped.longValue());
+    stats.addLongStat(Metric.NUM_DATA_PAGES_PRUNED, numDataPagesPruned.longValue());
   }
 }
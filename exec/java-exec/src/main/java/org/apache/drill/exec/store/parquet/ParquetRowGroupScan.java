@@ -46,6 +46,9 @@ public class ParquetRowGroupScan extends AbstractParquetRowGroupScan {
   private final ParquetFormatPlugin formatPlugin;
   private final ParquetFormatConfig formatConfig;
   private final String selectionRoot;
+  // Row groups checked and pruned by their dictionaries while planning (see ParquetDictionaryPruner)
+  private final long rowGroupsDictChecked;
+  private final long rowGroupsDictPruned;
 
   @JsonCreator
   public ParquetRowGroupScan(@JacksonInject StoragePluginRegistry registry,
@@ -55,13 +58,17 @@ public class ParquetRowGroupScan extends AbstractParquetRowGroupScan {
                              @JsonProperty("rowGroupReadEntries") LinkedList<RowGroupReadEntry> rowGroupReadEntries,
                              @JsonProperty("columns") List<SchemaPath> columns,
                              @JsonProperty("selectionRoot") String selectionRoot,
-                             @JsonProperty("filter") LogicalExpression filter) throws ExecutionSetupException {
+                             @JsonProperty("filter") LogicalExpression filter,
+                             @JsonProperty("rowGroupsDictChecked") long rowGroupsDictChecked,
+                             @JsonProperty("rowGroupsDictPruned") long rowGroupsDictPruned) throws ExecutionSetupException {
     this(userName,
         (ParquetFormatPlugin) registry.getFormatPlugin(Preconditions.checkNotNull(storageConfig), Preconditions.checkNotNull(formatConfig)),
         rowGroupReadEntries,
         columns,
         selectionRoot,
-        filter);
+        filter,
+        rowGroupsDictChecked,
+        rowGroupsDictPruned);
   }
 
   public ParquetRowGroupScan(String userName,
@@ -69,11 +76,15 @@ public class ParquetRowGroupScan extends AbstractParquetRowGroupScan {
                              List<RowGroupReadEntry> rowGroupReadEntries,
                              List<SchemaPath> columns,
                              String selectionRoot,
-                             LogicalExpression filter) {
+                             LogicalExpression filter,
+                             long rowGroupsDictChecked,
+                             long rowGroupsDictPruned) {
     super(userName, rowGroupReadEntries, columns, filter);
     this.formatPlugin = Preconditions.checkNotNull(formatPlugin, "Could not find format config for the given configuration");
     this.formatConfig = formatPlugin.getConfig();
     this.selectionRoot = selectionRoot;
+    this.rowGroupsDictChecked = rowGroupsDictChecked;
+    this.rowGroupsDictPruned = rowGroupsDictPruned;
   }
 
   @JsonProperty
@@ -91,6 +102,16 @@ public class ParquetRowGroupScan extends AbstractParquetRowGroupScan {
     return selectionRoot;
   }
 
+  @JsonProperty
+  public long getRowGroupsDictChecked() {
+    return rowGroupsDictChecked;
+  }
+
+  @JsonProperty
+  public long getRowGroupsDictPruned() {
+    return rowGroupsDictPruned;
+  }
+
   @JsonIgnore
   public ParquetFormatPlugin getStorageEngine() {
     return formatPlugin;
@@ -99,7 +120,8 @@ public class ParquetRowGroupScan extends AbstractParquetRowGroupScan {
   @Override
   public PhysicalOperator getNewWithChildren(List<PhysicalOperator> children) {
     Preconditions.checkArgument(children.isEmpty());
-    return new ParquetRowGroupScan(getUserName(), formatPlugin, rowGroupReadEntries, columns, selectionRoot, filter);
+    return new ParquetRowGroupScan(getUserName(), formatPlugin, rowGroupReadEntries, columns, selectionRoot, filter,
+        rowGroupsDictChecked, rowGroupsDictPruned);
   }
 
   @Override
@@ -109,7 +131,8 @@ public class ParquetRowGroupScan extends AbstractParquetRowGroupScan {
 
   @Override
   public AbstractParquetRowGroupScan copy(List<SchemaPath> columns) {
-    return new ParquetRowGroupScan(getUserName(), formatPlugin, rowGroupReadEntries, columns, selectionRoot, filter);
+    return new ParquetRowGroupScan(getUserName(), formatPlugin, rowGroupReadEntries, columns, selectionRoot, filter,
+        rowGroupsDictChecked, rowGroupsDictPruned);
   }
 
   @Override
@@ -27,6 +27,7 @@ import org.apache.drill.exec.physical.impl.ScanBatch;
 import org.apache.drill.exec.record.RecordBatch;
 import org.apache.drill.exec.server.options.OptionManager;
 import org.apache.drill.exec.store.dfs.DrillFileSystem;
+import org.apache.drill.exec.store.parquet.columnreaders.ParquetRecordReader;
 import org.apache.hadoop.conf.Configuration;
 
 import java.io.IOException;
@@ -38,6 +39,10 @@ public class ParquetScanBatchCreator extends AbstractParquetScanBatchCreator imp
   public ScanBatch getBatch(ExecutorFragmentContext context, ParquetRowGroupScan rowGroupScan, List<RecordBatch> children) throws ExecutionSetupException {
     Preconditions.checkArgument(children.isEmpty());
     OperatorContext oContext = context.newOperatorContext(rowGroupScan);
+    if (rowGroupScan.getRowGroupsDictChecked() > 0) {
+      oContext.getStats().setLongStat(ParquetRecordReader.Metric.NUM_ROWGROUPS_DICT_CHECKED, rowGroupScan.getRowGroupsDictChecked());
+      oContext.getStats().setLongStat(ParquetRecordReader.Metric.NUM_ROWGROUPS_DICT_PRUNED, rowGroupScan.getRowGroupsDictPruned());
+    }
     return getBatch(context, rowGroupScan, oContext);
   }
 
@@ -88,6 +88,8 @@ class AsyncPageReader extends PageReader {
   private LinkedBlockingQueue<ReadStatus> pageQueue;
   private ConcurrentLinkedQueue<Future<Void>> asyncPageRead;
   private long totalPageValuesRead = 0;
+  // the page whose header has been read but whose data has not been decompressed yet
+  private ReadStatus pendingPage;
   private Object pageQueueSyncronize = new Object(); // Object to use to synchronize access to the page Queue.
                                                      // FindBugs complains if we synchronize on a Concurrent Queue
 
@@ -214,7 +216,7 @@ class AsyncPageReader extends PageReader {
   }
 
   @Override
-  protected void nextInternal() throws IOException {
+  protected void nextPageHeader() throws IOException {
     ReadStatus readStatus = null;
     try {
       Stopwatch timer = Stopwatch.createStarted();
@@ -272,8 +274,7 @@ class AsyncPageReader extends PageReader {
       } while (pageHeader.getType() == PageType.DICTIONARY_PAGE);
 
       pageHeader = readStatus.getPageHeader();
-      pageData = getDecompressedPageData(readStatus);
-      assert (pageData != null);
+      pendingPage = readStatus;
     } catch (InterruptedException e) {
       Thread.currentThread().interrupt();
     } catch (RuntimeException e) { // Catch this explicitly to satisfy findbugs
@@ -284,6 +285,38 @@ class AsyncPageReader extends PageReader {
 
   }
 
+  @Override
+  protected void loadPageData() throws IOException {
+    try {
+      pageData = getDecompressedPageData(pendingPage);
+      assert (pageData != null);
+    } catch (RuntimeException e) { // Catch this explicitly to satisfy findbugs
+      handleAndThrowException(e, "Error reading page data");
+    } finally {
+      pendingPage = null;
+    }
+  }
+
+  @Override
+  protected void skipPageData() {
+    // the page has already been read from disk (the pages are read ahead), but it need not be decompressed or decoded
+    releasePendingPage();
+  }
+
+  private void releasePendingPage() {
+    if (pendingPage != null) {
+      DrillBuf data;
+      synchronized (this) {
+        data = pendingPage.getPageData();
+        pendingPage.setPageData(null);
+      }
+      if (data != null) {
+        data.release();
+      }
+      pendingPage = null;
+    }
+  }
+
   private void waitForExecutionResult() throws InterruptedException, ExecutionException {
     // Get the execution result but don't remove the Future object from the "asyncPageRead" queue yet;
     // this will ensure that cleanup will happen properly in case of an exception being thrown
@@ -327,6 +360,7 @@ class AsyncPageReader extends PageReader {
         }
       }
     }
+    releasePendingPage();
     super.clear();
   }
 
@@ -19,9 +19,13 @@ package org.apache.drill.exec.store.parquet.columnreaders;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 
+import org.apache.drill.exec.expr.stat.RowFilterEvaluator;
+import org.apache.drill.exec.vector.AllocationHelper;
+
 import com.google.common.base.Stopwatch;
 import com.google.common.collect.Lists;
 
@@ -49,24 +53,28 @@ public abstract class BatchReader {
   protected abstract int readRecords(ColumnReader<?> firstColumnStatus, long recordsToRead) throws Exception;
 
   protected void readAllFixedFields(long recordsToRead) throws Exception {
+    readFixedFields(readState.getColumnReaders(), recordsToRead);
+  }
+
+  protected void readFixedFields(List<ColumnReader<?>> columnReaders, long recordsToRead) throws Exception {
     Stopwatch timer = Stopwatch.createStarted();
     if(readState.useAsyncColReader()){
-      readAllFixedFieldsParallel(recordsToRead);
+      readFixedFieldsParallel(columnReaders, recordsToRead);
     } else {
-      readAllFixedFieldsSerial(recordsToRead);
+      readFixedFieldsSerial(columnReaders, recordsToRead);
     }
     readState.parquetReaderStats().timeFixedColumnRead.addAndGet(timer.elapsed(TimeUnit.NANOSECONDS));
   }
 
-  protected void readAllFixedFieldsSerial(long recordsToRead) throws IOException {
-    for (ColumnReader<?> crs : readState.getColumnReaders()) {
+  protected void readFixedFieldsSerial(List<ColumnReader<?>> columnReaders, long recordsToRead) throws IOException {
+    for (ColumnReader<?> crs : columnReaders) {
       crs.processPages(recordsToRead);
     }
   }
 
-  protected void readAllFixedFieldsParallel(long recordsToRead) throws Exception {
+  protected void readFixedFieldsParallel(List<ColumnReader<?>> columnReaders, long recordsToRead) throws Exception {
     ArrayList<Future<Long>> futures = Lists.newArrayList();
-    for (ColumnReader<?> crs : readState.getColumnReaders()) {
+    for (ColumnReader<?> crs : columnReaders) {
       Future<Long> f = crs.processPagesAsync(recordsToRead);
       if (f != null) {
         futures.add(f);
@@ -145,6 +153,107 @@ public abstract class BatchReader {
     }
   }
 
+  /**
+   * Strategy for reading a record batch when all columns are fixed-width
+   * and a filter has been pushed into the scan.
+   * <p>
+   * With page pruning, before a batch is read the pages about to be started
+   * in the columns the filter refers to are checked against the statistics in
+   * their headers, and the rows of a page none of which can satisfy the filter
+   * are skipped in all columns.
+   * <p>
+   * With late materialization, the columns the filter refers to are read
+   * first. If the filter can tell that none of the rows read matches, the
+   * other columns skip those rows and the reader moves on to the next rows.
+   * Otherwise the other columns are read as usual and the batch is returned.
+   * <p>
+   * Late materialization thus works a whole batch of rows at a time: the
+   * other columns are skipped only for a batch none of whose rows matches,
+   * and a batch with a single matching row is read in full. It applies only
+   * to row groups whose projected columns are all fixed-width, as does page
+   * pruning (see {@link ParquetRecordReader}).
+   * <p>
+   * Skipping passes over whole pages without decompressing them where
+   * possible. The rows that do not match are left to the Filter operator,
+   * which still applies the complete condition.
+   */
+
+  public static class FilteringReader extends FixedWidthReader {
+
+    private final ParquetPagePruner pagePruner;
+    private final RowFilterEvaluator filter;
+    private final List<ColumnReader<?>> filterColumnReaders;
+    private final List<ColumnReader<?>> otherColumnReaders;
+
+    /**
+     * @param pagePruner the pruner of the pages of the filter columns, or null
+     * @param filter the evaluator of the filter on the rows of the filter columns, or null
+     * @param filterColumnReaders the readers of the columns the filter is evaluated on, read first;
+     * all the readers if there is no filter evaluator
+     * @param otherColumnReaders the readers of the other columns
+     */
+    public FilteringReader(ReadState readState, ParquetPagePruner pagePruner, RowFilterEvaluator filter,
+        List<ColumnReader<?>> filterColumnReaders, List<ColumnReader<?>> otherColumnReaders) {
+      super(readState);
+      this.pagePruner = pagePruner;
+      this.filter = filter;
+      this.filterColumnReaders = filterColumnReaders;
+      this.otherColumnReaders = otherColumnReaders;
+    }
+
+    @Override
+    public int readBatch() throws Exception {
+      ColumnReader<?> firstFilterColumn = filterColumnReaders.get(0);
+      boolean reallocate = false;
+      while (true) {
+        if (pagePruner != null) {
+          reallocate |= skipPrunedPages();
+        }
+        if (reallocate) {
+          // the skipped rows may have been decoded into the vectors, start over with empty ones
+          readState.resetBatch();
+          for (ColumnReader<?> columnReader : readState.getColumnReaders()) {
+            AllocationHelper.allocate(columnReader.valueVec, readState.schema().getRecordsPerBatch(), 50, 10);
+          }
+          reallocate = false;
+        }
+        long recordsToRead = Math.min(getReadCount(firstFilterColumn), readState.getRecordsToRead());
+        readFixedFields(filterColumnReaders, recordsToRead);
+        int readCount = firstFilterColumn.getRecordsReadInCurrentPass();
+        if (readCount == 0 || filter == null || !filter.canDrop(readCount)) {
+          readFixedFields(otherColumnReaders, readCount);
+          readState.fillNullVectors(readCount);
+          return readCount;
+        }
+        skipRows(otherColumnReaders, readCount);
+        reallocate = true;
+      }
+    }
+
+    /**
+     * @return true if any rows were skipped
+     */
+    private boolean skipPrunedPages() throws IOException {
+      boolean skipped = false;
+      long rowCount;
+      while ((rowCount = pagePruner.rowsToSkip()) > 0) {
+        skipRows(readState.getColumnReaders(), rowCount);
+        readState.parquetReaderStats().numDataPagesPruned.incrementAndGet();
+        skipped = true;
+      }
+      return skipped;
+    }
+
+    private void skipRows(List<ColumnReader<?>> columnReaders, long rowCount) throws IOException {
+      Stopwatch timer = Stopwatch.createStarted();
+      for (ColumnReader<?> columnReader : columnReaders) {
+        columnReader.skipValues(rowCount);
+      }
+      readState.parquetReaderStats().timeFixedColumnRead.addAndGet(timer.elapsed(TimeUnit.NANOSECONDS));
+      readState.parquetReaderStats().numRecordsSkipped.addAndGet(rowCount);
+    }
+  }
+
   /**
    * Strategy for reading a record batch when at last one column is
    * variable width.
@@ -30,6 +30,7 @@ import org.apache.drill.exec.vector.BaseDataValueVector;
 import org.apache.drill.exec.vector.ValueVector;
 
 import org.apache.parquet.column.ColumnDescriptor;
+import org.apache.parquet.format.PageHeader;
 import org.apache.parquet.format.SchemaElement;
 import org.apache.parquet.hadoop.metadata.ColumnChunkMetaData;
 import org.apache.parquet.schema.PrimitiveType;
@@ -144,6 +145,86 @@ public abstract class ColumnReader<V extends ValueVector> {
     valueVec.getMutator().setValueCount(valuesReadInCurrentPass);
   }
 
+  /**
+   * Advance this column by the given number of values without keeping them. Pages made up only of
+   * skipped values are passed over without being decompressed or decoded; skipped values sharing a
+   * page with values still to be read are decoded into the value vector as usual, at most a vector's
+   * worth at a time, so its contents are overwritten and it must be reallocated before the next
+   * batch is read into it.
+   *
+   * @param valuesToSkip the number of values to pass over
+   * @throws IOException
+   */
+  public void skipValues(long valuesToSkip) throws IOException {
+    long remaining = valuesToSkip;
+    while (remaining > 0) {
+      int leftInPage = valuesLeftInPage();
+      long count = remaining;
+      if (leftInPage > 0) {
+        // finish the current page the usual way
+        count = Math.min(remaining, leftInPage);
+      } else {
+        leavePage();
+        int skipped = pageReader.skipPage(remaining);
+        if (skipped > 0) {
+          totalValuesRead += skipped;
+          remaining -= skipped;
+          continue;
+        }
+        // the next page also holds values to keep, decode it up to them
+      }
+      // the page may hold many more values than the vector has room for
+      count = Math.min(count, valueVec.getValueCapacity());
+      if (count == 0) {
+        throw new IllegalStateException("No room in the value vector to skip values of column " + schemaElement.getName());
+      }
+      // start each chunk at the beginning of the vector, whose contents are thrown away
+      ((BaseDataValueVector) valueVec).getBuffer().writerIndex(0);
+      valuesReadInCurrentPass = 0;
+      processPages(count);
+      if (valuesReadInCurrentPass != count) {
+        throw new IllegalStateException(String.format("Skipped %d instead of %d values of column %s",
+            valuesReadInCurrentPass, count, schemaElement.getName()));
+      }
+      remaining -= count;
+    }
+    valuesReadInCurrentPass = 0;
+  }
+
+  /**
+   * Read the header of the next page ahead of its data, provided all the values of the current
+   * page have been read.
+   *
+   * @return the header of the next page, or null if the current page has values left or
+   * there are no more pages
+   * @throws IOException
+   */
+  PageHeader peekNextPageHeader() throws IOException {
+    if (valuesLeftInPage() > 0) {
+      return null;
+    }
+    leavePage();
+    return pageReader.peekPageHeader();
+  }
+
+  /**
+   * @return the number of values of the current page not read yet, 0 if there is no current page
+   */
+  protected int valuesLeftInPage() {
+    return pageReader.hasPage() ? pageReader.currentPageCount - pageReader.valuesRead : 0;
+  }
+
+  /**
+   * Account for the current page, all of whose values have been read, before moving past it
+   * other than through {@link #readPage()}.
+   */
+  protected void leavePage() {
+    if (pageReader.hasPage()) {
+      totalValuesRead += pageReader.currentPageCount;
+      pageReader.currentPageCount = -1;
+    }
+  }
+
   public void clear() {
     //State to indicate no more tasks to be scheduled
     isShuttingDown = true;
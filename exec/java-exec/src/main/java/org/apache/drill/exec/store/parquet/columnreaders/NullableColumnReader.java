@@ -19,8 +19,10 @@ package org.apache.drill.exec.store.parquet.columnreaders;
 
 import java.io.IOException;
 
+import io.netty.buffer.DrillBuf;
 import org.apache.drill.common.exceptions.ExecutionSetupException;
 import org.apache.drill.exec.vector.BaseDataValueVector;
+import org.apache.drill.exec.vector.NullableVector;
 import org.apache.drill.exec.vector.NullableVectorDefinitionSetter;
 import org.apache.drill.exec.vector.ValueVector;
 
@@ -33,12 +35,16 @@ abstract class NullableColumnReader<V extends ValueVector> extends ColumnReader<
   protected BaseDataValueVector castedBaseVector;
   protected NullableVectorDefinitionSetter castedVectorMutator;
   private long definitionLevelsRead = 0;
+  private final BaseDataValueVector bitsVector;
+  // the definition levels decoded for the current pass
+  private int[] decodedDefinitionLevels = new int[0];
 
   NullableColumnReader(ParquetRecordReader parentReader, int allocateSize, ColumnDescriptor descriptor, ColumnChunkMetaData columnChunkMetaData,
                boolean fixedLength, V v, SchemaElement schemaElement) throws ExecutionSetupException {
     super(parentReader, allocateSize, descriptor, columnChunkMetaData, fixedLength, v, schemaElement);
     castedBaseVector = (BaseDataValueVector) v;
     castedVectorMutator = (NullableVectorDefinitionSetter) v.getMutator();
+    bitsVector = (BaseDataValueVector) ((NullableVector) v).getBitsVector();
   }
 
   @Override public void processPages(long recordsToReadInThisPass)
@@ -53,14 +59,14 @@ abstract class NullableColumnReader<V extends ValueVector> extends ColumnReader<
     // leaving blank space for nulls allows for random access to values
     // to optimize copying data out of the buffered disk stream, runs of defined values
     // are located and copied together, rather than copying individual values
+    // the definition levels are decoded a batch at a time, and the runs are then located in the batch
 
+    final int maxDefinitionLevel = columnDescriptor.getMaxDefinitionLevel();
     int runLength = -1;     // number of non-null records in this pass.
     int nullRunLength = -1; // number of consecutive null records that we read.
-    int currentDefinitionLevel = -1;
     int readCount = 0; // the record number we last read.
     int writeCount = 0; // the record number we last wrote to the value vector.
                         // This was previously the indexInOutputVector variable
-    boolean haveMoreData; // true if we have more data and have not filled the vector
 
     while (readCount < recordsToReadInThisPass && writeCount < valueVec.getValueCapacity()) {
       // read a page if needed
@@ -69,113 +75,137 @@ abstract class NullableColumnReader<V extends ValueVector> extends ColumnReader<
         if (!pageReader.next()) {
           break;
         }
-        //New page. Reset the definition level.
-        currentDefinitionLevel = -1;
+        //New page. Reset the count of definition levels read.
         definitionLevelsRead = 0;
         recordsReadInThisIteration = 0;
         readStartInBytes = 0;
       }
 
-      nullRunLength = 0;
-      runLength = 0;
-
-      //
-      // Let's skip the next run of nulls if any ...
-      //
-
-      // If we are reentering this loop, the currentDefinitionLevel has already been read
-      if (currentDefinitionLevel < 0) {
-        currentDefinitionLevel = pageReader.definitionLevels.readInteger();
-      }
-      haveMoreData = readCount < recordsToReadInThisPass
-          && writeCount + nullRunLength < valueVec.getValueCapacity()
-          && definitionLevelsRead < pageReader.currentPageCount;
-      while (haveMoreData && currentDefinitionLevel < columnDescriptor
-          .getMaxDefinitionLevel()) {
-        readCount++;
-        nullRunLength++;
-        definitionLevelsRead++;
-        haveMoreData = readCount < recordsToReadInThisPass
-            && writeCount + nullRunLength < valueVec.getValueCapacity()
-            && definitionLevelsRead < pageReader.currentPageCount;
-        if (haveMoreData) {
-          currentDefinitionLevel = pageReader.definitionLevels.readInteger();
+      // decode the levels of all the values of the page this pass has room for
+      final int levelCount = (int) Math.min(
+          Math.min(recordsToReadInThisPass - readCount, valueVec.getValueCapacity() - writeCount),
+          pageReader.currentPageCount - definitionLevelsRead);
+      final int[] levels = readDefinitionLevels(levelCount);
+      int level = 0;
+
+      while (level < levelCount) {
+        //
+        // Let's skip the next run of nulls if any ...
+        //
+        nullRunLength = 0;
+        while (level < levelCount && levels[level] < maxDefinitionLevel) {
+          level++;
+          nullRunLength++;
+        }
+        //
+        // Write the nulls if any
+        //
+        if (nullRunLength > 0) {
+          int writerIndex =
+              ((BaseDataValueVector) valueVec).getBuffer().writerIndex();
+          castedBaseVector.getBuffer().setIndex(0, writerIndex + (int) Math
+              .ceil(nullRunLength * dataTypeLengthInBits / 8.0));
+          writeCount += nullRunLength;
+          valuesReadInCurrentPass += nullRunLength;
+          recordsReadInThisIteration += nullRunLength;
         }
-      }
-      //
-      // Write the nulls if any
-      //
-      if (nullRunLength > 0) {
-        int writerIndex =
-            ((BaseDataValueVector) valueVec).getBuffer().writerIndex();
-        castedBaseVector.getBuffer().setIndex(0, writerIndex + (int) Math
-            .ceil(nullRunLength * dataTypeLengthInBits / 8.0));
-        writeCount += nullRunLength;
-        valuesReadInCurrentPass += nullRunLength;
-        recordsReadInThisIteration += nullRunLength;
-      }
 
-      //
-      // Handle the run of non-null values
-      //
-      haveMoreData = readCount < recordsToReadInThisPass
-          && writeCount + runLength < valueVec.getValueCapacity()
-          // note: writeCount+runLength
-          && definitionLevelsRead < pageReader.currentPageCount;
-      while (haveMoreData && currentDefinitionLevel >= columnDescriptor
-          .getMaxDefinitionLevel()) {
-        readCount++;
-        runLength++;
-        definitionLevelsRead++;
-        castedVectorMutator.setIndexDefined(writeCount + runLength
-            - 1); //set the nullable bit to indicate a non-null value
-        haveMoreData = readCount < recordsToReadInThisPass
-            && writeCount + runLength < valueVec.getValueCapacity()
-            && definitionLevelsRead < pageReader.currentPageCount;
-        if (haveMoreData) {
-          currentDefinitionLevel = pageReader.definitionLevels.readInteger();
+        //
+        // Handle the run of non-null values
+        //
+        runLength = 0;
+        while (level < levelCount && levels[level] >= maxDefinitionLevel) {
+          level++;
+          runLength++;
         }
-      }
 
-      //
-      // Write the non-null values
-      //
-      if (runLength > 0) {
-        // set up metadata
+        //
+        // Write the non-null values
+        //
+        if (runLength > 0) {
+          setDefined(writeCount, runLength); //set the nullable bits to indicate non-null values
 
-        // This _must_ be set so that the call to readField works correctly for all datatypes
-        this.recordsReadInThisIteration += runLength;
+          // set up metadata
 
-        this.readStartInBytes = pageReader.readPosInBytes;
-        this.readLengthInBits = runLength * dataTypeLengthInBits;
-        this.readLength = (int) Math.ceil(readLengthInBits / 8.0);
+          // This _must_ be set so that the call to readField works correctly for all datatypes
+          this.recordsReadInThisIteration += runLength;
 
-        readField(runLength);
+          this.readStartInBytes = pageReader.readPosInBytes;
+          this.readLengthInBits = runLength * dataTypeLengthInBits;
+          this.readLength = (int) Math.ceil(readLengthInBits / 8.0);
 
-        writeCount += runLength;
-        valuesReadInCurrentPass += runLength;
-        pageReader.readPosInBytes = readStartInBytes + readLength;
-      }
+          readField(runLength);
+
+          writeCount += runLength;
+          valuesReadInCurrentPass += runLength;
+          pageReader.readPosInBytes = readStartInBytes + readLength;
+        }
 
-      pageReader.valuesRead += recordsReadInThisIteration;
+        readCount += nullRunLength + runLength;
+        definitionLevelsRead += nullRunLength + runLength;
 
-      totalValuesRead += runLength + nullRunLength;
+        pageReader.valuesRead += recordsReadInThisIteration;
 
-      logger.trace("" + "recordsToReadInThisPass: {} \t "
-              + "Run Length: {} \t Null Run Length: {} \t readCount: {} \t writeCount: {} \t "
-              + "recordsReadInThisIteration: {} \t valuesReadInCurrentPass: {} \t "
-              + "totalValuesRead: {} \t readStartInBytes: {} \t readLength: {} \t pageReader.byteLength: {} \t "
-              + "definitionLevelsRead: {} \t pageReader.currentPageCount: {}",
-          recordsToReadInThisPass, runLength, nullRunLength, readCount,
-          writeCount, recordsReadInThisIteration, valuesReadInCurrentPass,
-          totalValuesRead, readStartInBytes, readLength, pageReader.byteLength,
-          definitionLevelsRead, pageReader.currentPageCount);
+        totalValuesRead += runLength + nullRunLength;
 
+        logger.trace("" + "recordsToReadInThisPass: {} \t "
+                + "Run Length: {} \t Null Run Length: {} \t readCount: {} \t writeCount: {} \t "
+                + "recordsReadInThisIteration: {} \t valuesReadInCurrentPass: {} \t "
+                + "totalValuesRead: {} \t readStartInBytes: {} \t readLength: {} \t pageReader.byteLength: {} \t "
+                + "definitionLevelsRead: {} \t pageReader.currentPageCount: {}",
+            recordsToReadInThisPass, runLength, nullRunLength, readCount,
+            writeCount, recordsReadInThisIteration, valuesReadInCurrentPass,
+            totalValuesRead, readStartInBytes, readLength, pageReader.byteLength,
+            definitionLevelsRead, pageReader.currentPageCount);
+      }
     }
 
     valueVec.getMutator().setValueCount(valuesReadInCurrentPass);
   }
 
+  /**
+   * Decode the next definition levels of the current page, with the page reader's batch
+   * decoder if it has one.
+   *
+   * @param count number of levels to decode
+   * @return an array holding the levels at its first count indexes, reused by the next call
+   */
+  private int[] readDefinitionLevels(int count) {
+    if (decodedDefinitionLevels.length < count) {
+      decodedDefinitionLevels = new int[count];
+    }
+    if (pageReader.definitionLevelDecoder != null) {
+      pageReader.definitionLevelDecoder.readInts(decodedDefinitionLevels, 0, count);
+    } else {
+      for (int i = 0; i < count; i++) {
+        decodedDefinitionLevels[i] = pageReader.definitionLevels.readInteger();
+      }
+    }
+    return decodedDefinitionLevels;
+  }
+
+  /**
+   * Mark a run of values as defined by writing straight to the bits vector, which is known
+   * to have room for them.
+   */
+  private void setDefined(int index, int count) {
+    final DrillBuf bits = bitsVector.getBuffer();
+    for (int i = index, end = index + count; i < end; i++) {
+      bits.setByte(i, 1);
+    }
+  }
+
+  @Override
+  protected int valuesLeftInPage() {
+    return pageReader.hasPage() ? (int) (pageReader.currentPageCount - definitionLevelsRead) : 0;
+  }
+
+  @Override
+  protected void leavePage() {
+    // totalValuesRead is kept up to date value by value
+    pageReader.currentPageCount = -1;
+  }
+
     @Override
   protected abstract void readField(long recordsToRead);
 }
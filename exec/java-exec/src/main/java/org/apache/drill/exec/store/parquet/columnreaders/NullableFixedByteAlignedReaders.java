@@ -145,8 +145,13 @@ public class NullableFixedByteAlignedReaders {
     @Override
     protected void readField(long recordsToReadInThisPass) {
       if (usingDictionary) {
-        for (int i = 0; i < recordsToReadInThisPass; i++){
-          valueVec.getMutator().setSafe(valuesReadInCurrentPass + i, pageReader.dictionaryValueReader.readInteger());
+        if (pageReader.dictionaryIdDecoder != null) {
+          // the nullable bits have been set already
+          pageReader.readDictionaryInts(castedBaseVector.getBuffer(), valuesReadInCurrentPass, (int) recordsToReadInThisPass);
+        } else {
+          for (int i = 0; i < recordsToReadInThisPass; i++){
+            valueVec.getMutator().setSafe(valuesReadInCurrentPass + i, pageReader.dictionaryValueReader.readInteger());
+          }
         }
         int writerIndex = castedBaseVector.getBuffer().writerIndex();
         castedBaseVector.getBuffer().setIndex(0, writerIndex + (int)readLength);
@@ -171,8 +176,13 @@ public class NullableFixedByteAlignedReaders {
     @Override
     protected void readField(long recordsToReadInThisPass) {
       if (usingDictionary) {
-        for (int i = 0; i < recordsToReadInThisPass; i++){
-          valueVec.getMutator().setSafe(valuesReadInCurrentPass + i, pageReader.dictionaryValueReader.readInteger());
+        if (pageReader.dictionaryIdDecoder != null) {
+          // the nullable bits have been set already
+          pageReader.readDictionaryInts(castedBaseVector.getBuffer(), valuesReadInCurrentPass, (int) recordsToReadInThisPass);
+        } else {
+          for (int i = 0; i < recordsToReadInThisPass; i++){
+            valueVec.getMutator().setSafe(valuesReadInCurrentPass + i, pageReader.dictionaryValueReader.readInteger());
+          }
         }
       } else {
         for (int i = 0; i < recordsToReadInThisPass; i++){
@@ -194,8 +204,13 @@ public class NullableFixedByteAlignedReaders {
     @Override
     protected void readField(long recordsToReadInThisPass) {
       if (usingDictionary) {
-        for (int i = 0; i < recordsToReadInThisPass; i++){
-          valueVec.getMutator().setSafe(valuesReadInCurrentPass + i, pageReader.dictionaryValueReader.readLong());
+        if (pageReader.dictionaryIdDecoder != null) {
+          // the nullable bits have been set already
+          pageReader.readDictionaryLongs(castedBaseVector.getBuffer(), valuesReadInCurrentPass, (int) recordsToReadInThisPass);
+        } else {
+          for (int i = 0; i < recordsToReadInThisPass; i++){
+            valueVec.getMutator().setSafe(valuesReadInCurrentPass + i, pageReader.dictionaryValueReader.readLong());
+          }
         }
       } else {
         for (int i = 0; i < recordsToReadInThisPass; i++){
@@ -217,8 +232,13 @@ public class NullableFixedByteAlignedReaders {
     @Override
     protected void readField(long recordsToReadInThisPass) {
       if (usingDictionary) {
-        for (int i = 0; i < recordsToReadInThisPass; i++){
-          valueVec.getMutator().setSafe(valuesReadInCurrentPass + i, pageReader.dictionaryValueReader.readLong());
+        if (pageReader.dictionaryIdDecoder != null) {
+          // the nullable bits have been set already
+          pageReader.readDictionaryLongs(castedBaseVector.getBuffer(), valuesReadInCurrentPass, (int) recordsToReadInThisPass);
+        } else {
+          for (int i = 0; i < recordsToReadInThisPass; i++){
+            valueVec.getMutator().setSafe(valuesReadInCurrentPass + i, pageReader.dictionaryValueReader.readLong());
+          }
         }
       } else {
         for (int i = 0; i < recordsToReadInThisPass; i++){
@@ -286,8 +306,13 @@ public class NullableFixedByteAlignedReaders {
     @Override
     protected void readField(long recordsToReadInThisPass) {
       if (usingDictionary) {
-        for (int i = 0; i < recordsToReadInThisPass; i++){
-          valueVec.getMutator().setSafe(valuesReadInCurrentPass + i, pageReader.dictionaryValueReader.readFloat());
+        if (pageReader.dictionaryIdDecoder != null) {
+          // the nullable bits have been set already
+          pageReader.readDictionaryFloats(castedBaseVector.getBuffer(), valuesReadInCurrentPass, (int) recordsToReadInThisPass);
+        } else {
+          for (int i = 0; i < recordsToReadInThisPass; i++){
+            valueVec.getMutator().setSafe(valuesReadInCurrentPass + i, pageReader.dictionaryValueReader.readFloat());
+          }
         }
       } else {
         for (int i = 0; i < recordsToReadInThisPass; i++){
@@ -309,8 +334,13 @@ public class NullableFixedByteAlignedReaders {
     @Override
     protected void readField(long recordsToReadInThisPass) {
       if (usingDictionary) {
-        for (int i = 0; i < recordsToReadInThisPass; i++){
-          valueVec.getMutator().setSafe(valuesReadInCurrentPass + i, pageReader.dictionaryValueReader.readDouble());
+        if (pageReader.dictionaryIdDecoder != null) {
+          // the nullable bits have been set already
+          pageReader.readDictionaryDoubles(castedBaseVector.getBuffer(), valuesReadInCurrentPass, (int) recordsToReadInThisPass);
+        } else {
+          for (int i = 0; i < recordsToReadInThisPass; i++){
+            valueVec.getMutator().setSafe(valuesReadInCurrentPass + i, pageReader.dictionaryValueReader.readDouble());
+          }
         }
       } else {
         for (int i = 0; i < recordsToReadInThisPass; i++){
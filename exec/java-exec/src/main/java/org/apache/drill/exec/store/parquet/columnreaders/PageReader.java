@@ -96,8 +96,26 @@ class PageReader {
   Dictionary dictionary;
   PageHeader pageHeader = null;
 
+  // Batch decoders of the definition levels and the dictionary ids of the current page, null when
+  // batch decoding is disabled or the page uses an encoding they do not handle
+  RleBitPackedDecoder definitionLevelDecoder;
+  RleBitPackedDecoder dictionaryIdDecoder;
+  private final RleBitPackedDecoder levelDecoder = new RleBitPackedDecoder();
+  private final RleBitPackedDecoder idDecoder = new RleBitPackedDecoder();
+  private int[] dictionaryIds = new int[0];
+
+  // the values of the dictionary as primitive arrays, materialized on first use by batch decoding
+  private Dictionary materializedDictionary;
+  private int[] intDictionary;
+  private long[] longDictionary;
+  private float[] floatDictionary;
+  private double[] doubleDictionary;
+
   int currentPageCount = -1;
 
+  // true when the header of the next data page has been read but its data has not (see skipPage())
+  private boolean pageHeaderPending;
+
   protected FSDataInputStream inputStream;
 
   // These need to be held throughout reading of the entire column chunk
@@ -160,23 +178,7 @@ class PageReader {
       final ColumnChunkMetaData columnChunkMetaData, final DirectBufInputStream f) throws IOException {
     Stopwatch timer = Stopwatch.createUnstarted();
     if (columnChunkMetaData.getDictionaryPageOffset() > 0) {
-      long bytesToSkip = columnChunkMetaData.getDictionaryPageOffset() - dataReader.getPos();
-      while (bytesToSkip > 0) {
-        long skipped = dataReader.skip(bytesToSkip);
-        if (skipped > 0) {
-          bytesToSkip -= skipped;
-        } else {
-          // no good way to handle this. Guava uses InputStream.available to check
-          // if EOF is reached and because available is not reliable,
-          // tries to read the rest of the data.
-          DrillBuf skipBuf = dataReader.getNext((int) bytesToSkip);
-          if (skipBuf != null) {
-            skipBuf.release();
-          } else {
-            throw new EOFException("End of File reachecd.");
-          }
-        }
-      }
+      skipBytes(columnChunkMetaData.getDictionaryPageOffset() - dataReader.getPos());
 
       long start=dataReader.getPos();
       timer.start();
@@ -206,6 +208,26 @@ class PageReader {
     this.dictionary = page.getEncoding().initDictionary(parentStatus.columnDescriptor, page);
   }
 
+  private void skipBytes(long bytesToSkip) throws IOException {
+    while (bytesToSkip > 0) {
+      long skipped = dataReader.skip(bytesToSkip);
+      if (skipped > 0) {
+        bytesToSkip -= skipped;
+      } else {
+        // no good way to handle this. Guava uses InputStream.available to check
+        // if EOF is reached and because available is not reliable,
+        // tries to read the rest of the data.
+        DrillBuf skipBuf = dataReader.getNext((int) bytesToSkip);
+        if (skipBuf != null) {
+          skipBuf.release();
+          bytesToSkip = 0;
+        } else {
+          throw new EOFException("End of File reachecd.");
+        }
+      }
+    }
+  }
+
   private DrillBuf readPage(PageHeader pageHeader, int compressedSize, int uncompressedSize) throws IOException {
     DrillBuf pageDataBuf = null;
     Stopwatch timer = Stopwatch.createUnstarted();
@@ -258,8 +280,17 @@ class PageReader {
    * Get the page header and the pageData (uncompressed) for the next page
    */
   protected void nextInternal() throws IOException{
+    nextPageHeader();
+    loadPageData();
+  }
+
+  /**
+   * Get the header of the next data page, loading any dictionary page found before it.
+   * The page data is left in the stream, to be read by {@link #loadPageData()} or
+   * passed over by {@link #skipPageData()}.
+   */
+  protected void nextPageHeader() throws IOException {
     Stopwatch timer = Stopwatch.createUnstarted();
-    // next, we need to decompress the bytes
     // TODO - figure out if we need multiple dictionary pages, I believe it may be limited to one
     // I think we are clobbering parts of the dictionary if there can be multiple pages of dictionary
     do {
@@ -277,11 +308,22 @@ class PageReader {
         readDictionaryPage(pageHeader, parentColumnReader);
       }
     } while (pageHeader.getType() == PageType.DICTIONARY_PAGE);
+  }
 
+  /**
+   * Read and decompress the data of the page whose header was read last.
+   */
+  protected void loadPageData() throws IOException {
     int compressedSize = pageHeader.getCompressed_page_size();
     int uncompressedSize = pageHeader.getUncompressed_page_size();
     pageData = readPage(pageHeader, compressedSize, uncompressedSize);
+  }
 
+  /**
+   * Pass over the data of the page whose header was read last, without decompressing it.
+   */
+  protected void skipPageData() throws IOException {
+    skipBytes(pageHeader.getCompressed_page_size());
   }
 
   /**
@@ -304,7 +346,12 @@ class PageReader {
     }
     clearBuffers();
 
-    nextInternal();
+    if (pageHeaderPending) {
+      pageHeaderPending = false;
+      loadPageData();
+    } else {
+      nextInternal();
+    }
     if(pageData == null || pageHeader == null){
       //TODO: Is this an error condition or a normal condition??
       return false;
@@ -333,10 +380,18 @@ class PageReader {
       readPosInBytes = repetitionLevels.getNextOffset();
       repetitionLevels.readInteger();
     }
+    final boolean batchDecoding = parentColumnReader.parentReader.useBatchDecoding;
+    definitionLevelDecoder = null;
+    dictionaryIdDecoder = null;
     if (parentColumnReader.columnDescriptor.getMaxDefinitionLevel() != 0){
       parentColumnReader.currDefLevel = -1;
       definitionLevels = dlEncoding.getValuesReader(parentColumnReader.columnDescriptor, ValuesType.DEFINITION_LEVEL);
       definitionLevels.initFromPage(currentPageCount, pageDataBuffer, (int) readPosInBytes);
+      if (batchDecoding && dlEncoding == Encoding.RLE) {
+        int bitWidth = 32 - Integer.numberOfLeadingZeros(parentColumnReader.columnDescriptor.getMaxDefinitionLevel());
+        levelDecoder.initWithLength(pageDataBuffer, (int) readPosInBytes, bitWidth);
+        definitionLevelDecoder = levelDecoder;
+      }
       readPosInBytes = definitionLevels.getNextOffset();
       if (!valueEncoding.usesDictionary()) {
         valueReader = valueEncoding.getValuesReader(parentColumnReader.columnDescriptor, ValuesType.VALUES);
@@ -354,6 +409,12 @@ class PageReader {
       dictionaryLengthDeterminingReader.initFromPage(currentPageCount, pageDataBuffer, (int) readPosInBytes);
       dictionaryValueReader = new DictionaryValuesReader(dictionary);
       dictionaryValueReader.initFromPage(currentPageCount, pageDataBuffer, (int) readPosInBytes);
+      if (batchDecoding && readPosInBytes < pageDataBuffer.limit()) {
+        // the ids are preceded by their bit width, stored in one byte
+        int bitWidth = pageDataBuffer.get((int) readPosInBytes) & 0xFF;
+        idDecoder.init(pageDataBuffer, (int) readPosInBytes + 1, pageDataBuffer.limit(), bitWidth);
+        dictionaryIdDecoder = idDecoder;
+      }
       parentColumnReader.usingDictionary = true;
     } else {
       parentColumnReader.usingDictionary = false;
@@ -369,6 +430,174 @@ class PageReader {
     return true;
   }
 
+  /**
+   * Decode the next dictionary ids of the current page in one go. Only valid if
+   * {@link #dictionaryIdDecoder} is set.
+   *
+   * @param count number of ids to decode
+   * @return an array holding the ids at its first count indexes, reused by the next call
+   */
+  int[] readDictionaryIds(int count) {
+    if (dictionaryIds.length < count) {
+      dictionaryIds = new int[count];
+    }
+    dictionaryIdDecoder.readInts(dictionaryIds, 0, count);
+    return dictionaryIds;
+  }
+
+  /**
+   * Write the next count dictionary encoded 4 byte integers of the current page to the given
+   * buffer of a fixed width vector, starting at the given value index. The caller makes sure
+   * the buffer is large enough.
+   */
+  void readDictionaryInts(DrillBuf target, int index, int count) {
+    final int[] ids = readDictionaryIds(count);
+    final int[] values = intDictionary();
+    for (int i = 0; i < count; i++) {
+      target.setInt((index + i) * 4, values[ids[i]]);
+    }
+  }
+
+  /**
+   * As {@link #readDictionaryInts(DrillBuf, int, int)}, for 8 byte integers.
+   */
+  void readDictionaryLongs(DrillBuf target, int index, int count) {
+    final int[] ids = readDictionaryIds(count);
+    final long[] values = longDictionary();
+    for (int i = 0; i < count; i++) {
+      target.setLong((index + i) * 8, values[ids[i]]);
+    }
+  }
+
+  /**
+   * As {@link #readDictionaryInts(DrillBuf, int, int)}, for 4 byte floating point numbers.
+   */
+  void readDictionaryFloats(DrillBuf target, int index, int count) {
+    final int[] ids = readDictionaryIds(count);
+    final float[] values = floatDictionary();
+    for (int i = 0; i < count; i++) {
+      target.setFloat((index + i) * 4, values[ids[i]]);
+    }
+  }
+
+  /**
+   * As {@link #readDictionaryInts(DrillBuf, int, int)}, for 8 byte floating point numbers.
+   */
+  void readDictionaryDoubles(DrillBuf target, int index, int count) {
+    final int[] ids = readDictionaryIds(count);
+    final double[] values = doubleDictionary();
+    for (int i = 0; i < count; i++) {
+      target.setDouble((index + i) * 8, values[ids[i]]);
+    }
+  }
+
+  private void checkMaterializedDictionary() {
+    if (materializedDictionary != dictionary) {
+      materializedDictionary = dictionary;
+      intDictionary = null;
+      longDictionary = null;
+      floatDictionary = null;
+      doubleDictionary = null;
+    }
+  }
+
+  private int[] intDictionary() {
+    checkMaterializedDictionary();
+    if (intDictionary == null) {
+      intDictionary = new int[dictionary.getMaxId() + 1];
+      for (int id = 0; id < intDictionary.length; id++) {
+        intDictionary[id] = dictionary.decodeToInt(id);
+      }
+    }
+    return intDictionary;
+  }
+
+  private long[] longDictionary() {
+    checkMaterializedDictionary();
+    if (longDictionary == null) {
+      longDictionary = new long[dictionary.getMaxId() + 1];
+      for (int id = 0; id < longDictionary.length; id++) {
+        longDictionary[id] = dictionary.decodeToLong(id);
+      }
+    }
+    return longDictionary;
+  }
+
+  private float[] floatDictionary() {
+    checkMaterializedDictionary();
+    if (floatDictionary == null) {
+      floatDictionary = new float[dictionary.getMaxId() + 1];
+      for (int id = 0; id < floatDictionary.length; id++) {
+        floatDictionary[id] = dictionary.decodeToFloat(id);
+      }
+    }
+    return floatDictionary;
+  }
+
+  private double[] doubleDictionary() {
+    checkMaterializedDictionary();
+    if (doubleDictionary == null) {
+      doubleDictionary = new double[dictionary.getMaxId() + 1];
+      for (int id = 0; id < doubleDictionary.length; id++) {
+        doubleDictionary[id] = dictionary.decodeToDouble(id);
+      }
+    }
+    return doubleDictionary;
+  }
+
+  /**
+   * Read the header of the next data page, unless it has been read already, leaving the page data
+   * to the next call to {@link #next()} or {@link #skipPage(long)}. Must only be called once the
+   * values of the current page, if any, have all been consumed.
+   *
+   * @return the header of the next data page, or null if there are no more pages
+   * @throws IOException
+   */
+  public PageHeader peekPageHeader() throws IOException {
+    if (!pageHeaderPending) {
+      if (parentColumnReader.totalValuesRead >= parentColumnReader.columnChunkMetaData.getValueCount()) {
+        return null;
+      }
+      clearBuffers();
+      nextPageHeader();
+      pageHeaderPending = true;
+    }
+    return pageHeader;
+  }
+
+  /**
+   * Skip the next data page without decompressing or decoding it, provided it holds no more than
+   * the given number of values. The data of the page may still have been read from the file:
+   * the async page reader reads the pages ahead, and the buffered reader reads past the page. Must only be called once the
+   * values of the current page, if any, have all been consumed. A page that is not skipped
+   * is read as usual by the next call to {@link #next()}.
+   *
+   * @param maxValues the number of values the caller wants to pass over
+   * @return the number of values in the skipped page, or 0 if the next page holds more values
+   * than requested or there are no more pages
+   * @throws IOException
+   */
+  public int skipPage(long maxValues) throws IOException {
+    if (peekPageHeader() == null) {
+      return 0;
+    }
+    if (pageHeader.getType() != PageType.DATA_PAGE) {
+      // only version 1 data pages carry their value count where it is looked for; leave others to next()
+      return 0;
+    }
+    int valueCount = pageHeader.data_page_header.num_values;
+    if (valueCount > maxValues) {
+      return 0;
+    }
+    skipPageData();
+    pageHeaderPending = false;
+    currentPageCount = -1;
+    valuesRead = 0;
+    valuesReadyToRead = 0;
+    stats.numDataPagesSkipped.incrementAndGet();
+    return valueCount;
+  }
+
   /**
    * Allocate a buffer which the user should release immediately. The reader does not manage release of these buffers.
    */
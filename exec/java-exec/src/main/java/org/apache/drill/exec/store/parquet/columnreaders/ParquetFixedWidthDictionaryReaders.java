@@ -56,8 +56,12 @@ public class ParquetFixedWidthDictionaryReaders {
           - pageReader.valuesRead, recordsToReadInThisPass - valuesReadInCurrentPass);
 
       if (usingDictionary) {
-        for (int i = 0; i < recordsReadInThisIteration; i++){
-          valueVec.getMutator().setSafe(valuesReadInCurrentPass + i, pageReader.dictionaryValueReader.readInteger());
+        if (pageReader.dictionaryIdDecoder != null) {
+          pageReader.readDictionaryInts(valueVec.getBuffer(), valuesReadInCurrentPass, (int) recordsReadInThisIteration);
+        } else {
+          for (int i = 0; i < recordsReadInThisIteration; i++){
+            valueVec.getMutator().setSafe(valuesReadInCurrentPass + i, pageReader.dictionaryValueReader.readInteger());
+          }
         }
       }
     }
@@ -81,9 +85,13 @@ public class ParquetFixedWidthDictionaryReaders {
         - pageReader.valuesRead, recordsToReadInThisPass - valuesReadInCurrentPass);
 
       if (usingDictionary) {
-        UInt4Vector.Mutator mutator = valueVec.getMutator();
-        for (int i = 0; i < recordsReadInThisIteration; i++) {
-          mutator.setSafe(valuesReadInCurrentPass + i, pageReader.dictionaryValueReader.readInteger());
+        if (pageReader.dictionaryIdDecoder != null) {
+          pageReader.readDictionaryInts(valueVec.getBuffer(), valuesReadInCurrentPass, (int) recordsReadInThisIteration);
+        } else {
+          UInt4Vector.Mutator mutator = valueVec.getMutator();
+          for (int i = 0; i < recordsReadInThisIteration; i++) {
+            mutator.setSafe(valuesReadInCurrentPass + i, pageReader.dictionaryValueReader.readInteger());
+          }
         }
         // Set the write Index. The next page that gets read might be a page that does not use dictionary encoding
         // and we will go into the else condition below. The readField method of the parent class requires the
@@ -155,8 +163,12 @@ public class ParquetFixedWidthDictionaryReaders {
         - pageReader.valuesRead, recordsToReadInThisPass - valuesReadInCurrentPass);
 
       if (usingDictionary) {
-        for (int i = 0; i < recordsReadInThisIteration; i++){
-          valueVec.getMutator().setSafe(valuesReadInCurrentPass + i, pageReader.dictionaryValueReader.readInteger());
+        if (pageReader.dictionaryIdDecoder != null) {
+          pageReader.readDictionaryInts(valueVec.getBuffer(), valuesReadInCurrentPass, (int) recordsReadInThisIteration);
+        } else {
+          for (int i = 0; i < recordsReadInThisIteration; i++){
+            valueVec.getMutator().setSafe(valuesReadInCurrentPass + i, pageReader.dictionaryValueReader.readInteger());
+          }
         }
       }
     }
@@ -177,9 +189,13 @@ public class ParquetFixedWidthDictionaryReaders {
           - pageReader.valuesRead, recordsToReadInThisPass - valuesReadInCurrentPass);
 
       if (usingDictionary) {
-        BigIntVector.Mutator mutator =  valueVec.getMutator();
-        for (int i = 0; i < recordsReadInThisIteration; i++){
-          mutator.setSafe(valuesReadInCurrentPass + i,  pageReader.dictionaryValueReader.readLong());
+        if (pageReader.dictionaryIdDecoder != null) {
+          pageReader.readDictionaryLongs(valueVec.getBuffer(), valuesReadInCurrentPass, (int) recordsReadInThisIteration);
+        } else {
+          BigIntVector.Mutator mutator =  valueVec.getMutator();
+          for (int i = 0; i < recordsReadInThisIteration; i++){
+            mutator.setSafe(valuesReadInCurrentPass + i,  pageReader.dictionaryValueReader.readLong());
+          }
         }
         // Set the write Index. The next page that gets read might be a page that does not use dictionary encoding
         // and we will go into the else condition below. The readField method of the parent class requires the
@@ -212,9 +228,13 @@ public class ParquetFixedWidthDictionaryReaders {
         - pageReader.valuesRead, recordsToReadInThisPass - valuesReadInCurrentPass);
 
       if (usingDictionary) {
-        UInt8Vector.Mutator mutator = valueVec.getMutator();
-        for (int i = 0; i < recordsReadInThisIteration; i++) {
-          mutator.setSafe(valuesReadInCurrentPass + i, pageReader.dictionaryValueReader.readLong());
+        if (pageReader.dictionaryIdDecoder != null) {
+          pageReader.readDictionaryLongs(valueVec.getBuffer(), valuesReadInCurrentPass, (int) recordsReadInThisIteration);
+        } else {
+          UInt8Vector.Mutator mutator = valueVec.getMutator();
+          for (int i = 0; i < recordsReadInThisIteration; i++) {
+            mutator.setSafe(valuesReadInCurrentPass + i, pageReader.dictionaryValueReader.readLong());
+          }
         }
         // Set the write Index. The next page that gets read might be a page that does not use dictionary encoding
         // and we will go into the else condition below. The readField method of the parent class requires the
@@ -301,6 +321,10 @@ public class ParquetFixedWidthDictionaryReaders {
       recordsReadInThisIteration = Math.min(pageReader.currentPageCount
         - pageReader.valuesRead, recordsToReadInThisPass - valuesReadInCurrentPass);
 
+      if (pageReader.dictionaryIdDecoder != null) {
+        pageReader.readDictionaryLongs(valueVec.getBuffer(), valuesReadInCurrentPass, (int) recordsReadInThisIteration);
+        return;
+      }
       for (int i = 0; i < recordsReadInThisIteration; i++){
         try {
           valueVec.getMutator().setSafe(valuesReadInCurrentPass + i, pageReader.dictionaryValueReader.readLong());
@@ -349,6 +373,10 @@ public class ParquetFixedWidthDictionaryReaders {
       recordsReadInThisIteration = Math.min(pageReader.currentPageCount
           - pageReader.valuesRead, recordsToReadInThisPass - valuesReadInCurrentPass);
 
+      if (pageReader.dictionaryIdDecoder != null) {
+        pageReader.readDictionaryFloats(valueVec.getBuffer(), valuesReadInCurrentPass, (int) recordsReadInThisIteration);
+        return;
+      }
       for (int i = 0; i < recordsReadInThisIteration; i++){
         valueVec.getMutator().setSafe(valuesReadInCurrentPass + i, pageReader.dictionaryValueReader.readFloat());
       }
@@ -368,6 +396,10 @@ public class ParquetFixedWidthDictionaryReaders {
       recordsReadInThisIteration = Math.min(pageReader.currentPageCount
           - pageReader.valuesRead, recordsToReadInThisPass - valuesReadInCurrentPass);
 
+      if (pageReader.dictionaryIdDecoder != null) {
+        pageReader.readDictionaryDoubles(valueVec.getBuffer(), valuesReadInCurrentPass, (int) recordsReadInThisIteration);
+        return;
+      }
       for (int i = 0; i < recordsReadInThisIteration; i++){
         valueVec.getMutator().setSafe(valuesReadInCurrentPass + i, pageReader.dictionaryValueReader.readDouble());
       }
@@ -0,0 +1,203 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.drill.exec.store.parquet.columnreaders;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.drill.common.expression.LogicalExpression;
+import org.apache.drill.common.expression.SchemaPath;
+import org.apache.drill.common.expression.TypedFieldExpr;
+import org.apache.drill.common.expression.visitors.AbstractExprVisitor;
+import org.apache.drill.common.types.TypeProtos.MajorType;
+import org.apache.drill.common.types.TypeProtos.MinorType;
+import org.apache.drill.exec.expr.stat.ParquetFilterPredicate;
+import org.apache.drill.exec.expr.stat.RangeExprEvaluator;
+import org.apache.drill.exec.store.parquet.ParquetReaderUtility;
+import org.apache.drill.exec.store.parquet.stat.ColumnStatistics;
+import org.apache.drill.exec.store.parquet.stat.ParquetFooterStatCollector;
+import org.apache.parquet.column.statistics.Statistics;
+import org.apache.parquet.format.PageHeader;
+import org.apache.parquet.format.PageType;
+import org.apache.parquet.format.converter.ParquetMetadataConverter;
+
+/**
+ * Prunes the data pages of a row group by the min/max statistics in their headers, the way
+ * {@link org.apache.drill.exec.store.parquet.ParquetRGFilterEvaluator} prunes row groups by the
+ * statistics in the footer. Whenever a column the filter refers to is about to start a new page,
+ * the header of that page is read ahead of its data and the filter is evaluated against the
+ * page statistics of that column, the other columns being left unknown. If no row of the page
+ * can satisfy the filter, its rows are skipped in all the columns of the row group.
+ * <p>
+ * Pruning saves decompressing and decoding the pages, not reading them: the async page reader
+ * (the default) has read a page from the file by the time its header is looked at.
+ * <p>
+ * Only non-repeated columns of numeric, date and time types are looked at, for which a page
+ * holds exactly one value per row.
+ */
+class ParquetPagePruner {
+  private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(ParquetPagePruner.class);
+
+  private final ParquetFilterPredicate predicate;
+  private final List<ColumnReader<?>> columnReaders;
+  private final List<SchemaPath> paths;
+  private final Map<SchemaPath, ColumnStatistics> columnStatistics;
+  private final String createdBy;
+  private final ParquetReaderUtility.DateCorruptionStatus dateCorruptionStatus;
+
+  private ParquetPagePruner(ParquetFilterPredicate predicate, List<ColumnReader<?>> columnReaders,
+      List<SchemaPath> paths, Map<SchemaPath, ColumnStatistics> columnStatistics, String createdBy,
+      ParquetReaderUtility.DateCorruptionStatus dateCorruptionStatus) {
+    this.predicate = predicate;
+    this.columnReaders = columnReaders;
+    this.paths = paths;
+    this.columnStatistics = columnStatistics;
+    this.createdBy = createdBy;
+    this.dateCorruptionStatus = dateCorruptionStatus;
+  }
+
+  /**
+   * @param predicate the filter, materialized against the types of the columns read
+   * @param columnReaders the readers of the columns of the row group
+   * @param columnTypes the types of the columns read, with no statistics
+   * @param createdBy the application which wrote the file, which tells whether its statistics are valid
+   * @param dateCorruptionStatus whether the dates in the file are corrupted, see DRILL-4203
+   * @return a pruner, or null if the filter refers to none of the columns whose pages can be pruned
+   */
+  static ParquetPagePruner create(ParquetFilterPredicate predicate, List<ColumnReader<?>> columnReaders,
+      Map<SchemaPath, ColumnStatistics> columnTypes, String createdBy,
+      ParquetReaderUtility.DateCorruptionStatus dateCorruptionStatus) {
+    Set<SchemaPath> filterColumns = new HashSet<>();
+    ((LogicalExpression) predicate).accept(new FieldExprFinder(), filterColumns);
+
+    List<ColumnReader<?>> prunedColumnReaders = new ArrayList<>();
+    List<SchemaPath> paths = new ArrayList<>();
+    for (ColumnReader<?> columnReader : columnReaders) {
+      SchemaPath path = SchemaPath.getSimplePath(columnReader.valueVec.getField().getName());
+      if (filterColumns.contains(path) && canPrune(columnReader, dateCorruptionStatus)) {
+        prunedColumnReaders.add(columnReader);
+        paths.add(path);
+      }
+    }
+    if (prunedColumnReaders.isEmpty()) {
+      return null;
+    }
+
+    // the columns other than the one whose page is looked at are known to exist, but their values are not
+    return new ParquetPagePruner(predicate, prunedColumnReaders, paths, new HashMap<>(columnTypes), createdBy,
+        dateCorruptionStatus);
+  }
+
+  private static boolean canPrune(ColumnReader<?> columnReader,
+      ParquetReaderUtility.DateCorruptionStatus dateCorruptionStatus) {
+    if (columnReader.columnDescriptor.getMaxRepetitionLevel() > 0) {
+      return false;
+    }
+    switch (columnReader.valueVec.getField().getType().getMinorType()) {
+    case DATE:
+      // when it is not known whether the dates are corrupted, the reader decides value by value
+      if (dateCorruptionStatus == ParquetReaderUtility.DateCorruptionStatus.META_UNCLEAR_TEST_VALUES) {
+        return false;
+      }
+      break;
+    case INT:
+    case BIGINT:
+    case FLOAT4:
+    case FLOAT8:
+    case TIME:
+    case TIMESTAMP:
+      break;
+    default:
+      return false;
+    }
+    switch (columnReader.columnDescriptor.getType()) {
+    case INT32:
+    case INT64:
+    case FLOAT:
+    case DOUBLE:
+      return true;
+    default:
+      // INT96 timestamps have no usable statistics
+      return false;
+    }
+  }
+
+  /**
+   * Looks at the next page of each column the filter refers to whose current page has been read
+   * to the end.
+   *
+   * @return the number of rows, starting with the next row to be read, none of which can satisfy
+   * the filter; 0 if there are none such
+   * @throws IOException if a page header cannot be read
+   */
+  long rowsToSkip() throws IOException {
+    for (int i = 0; i < columnReaders.size(); i++) {
+      ColumnReader<?> columnReader = columnReaders.get(i);
+      PageHeader pageHeader = columnReader.peekNextPageHeader();
+      if (pageHeader == null
+          || pageHeader.getType() != PageType.DATA_PAGE
+          || !pageHeader.data_page_header.isSetStatistics()
+          || !pageHeader.data_page_header.statistics.isSetNull_count()) {
+        continue;
+      }
+      int rowCount = pageHeader.data_page_header.num_values;
+      Statistics statistics = ParquetMetadataConverter.fromParquetStatistics(createdBy,
+          pageHeader.data_page_header.statistics, columnReader.columnDescriptor.getType());
+      SchemaPath path = paths.get(i);
+      ColumnStatistics unknown = columnStatistics.get(path);
+      MajorType type = unknown.getMajorType();
+      if (type.getMinorType() == MinorType.DATE) {
+        statistics = ParquetFooterStatCollector.convertDateStatIfNecessary(statistics, dateCorruptionStatus);
+      }
+      columnStatistics.put(path, new ColumnStatistics(statistics, type));
+      try {
+        if (predicate.canDrop(new RangeExprEvaluator(columnStatistics, rowCount))) {
+          logger.trace("Pruning a page of {} rows of column {}", rowCount, path);
+          return rowCount;
+        }
+      } finally {
+        columnStatistics.put(path, unknown);
+      }
+    }
+    return 0;
+  }
+
+  /**
+   * Collects the columns of a materialized expression.
+   */
+  private static class FieldExprFinder extends AbstractExprVisitor<Void, Set<SchemaPath>, RuntimeException> {
+    @Override
+    public Void visitTypedFieldExpr(TypedFieldExpr e, Set<SchemaPath> columns) {
+      columns.add(e.getPath());
+      return null;
+    }
+
+    @Override
+    public Void visitUnknown(LogicalExpression e, Set<SchemaPath> columns) {
+      for (LogicalExpression child : e) {
+        child.accept(this, columns);
+      }
+      return null;
+    }
+  }
+}
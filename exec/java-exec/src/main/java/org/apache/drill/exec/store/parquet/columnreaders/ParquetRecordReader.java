@@ -17,22 +17,34 @@
  */
 package org.apache.drill.exec.store.parquet.columnreaders;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.TimeUnit;
 
 import org.apache.drill.common.exceptions.DrillRuntimeException;
 import org.apache.drill.common.exceptions.ExecutionSetupException;
+import org.apache.drill.common.expression.ErrorCollector;
+import org.apache.drill.common.expression.ErrorCollectorImpl;
+import org.apache.drill.common.expression.ExpressionStringBuilder;
+import org.apache.drill.common.expression.LogicalExpression;
 import org.apache.drill.common.expression.SchemaPath;
 import org.apache.drill.exec.ExecConstants;
+import org.apache.drill.exec.compile.sig.ConstantExpressionIdentifier;
 import org.apache.drill.exec.exception.OutOfMemoryException;
+import org.apache.drill.exec.expr.ExpressionTreeMaterializer;
+import org.apache.drill.exec.expr.stat.ParquetFilterPredicate;
+import org.apache.drill.exec.expr.stat.RowFilterEvaluator;
 import org.apache.drill.exec.ops.FragmentContext;
 import org.apache.drill.exec.ops.MetricDef;
 import org.apache.drill.exec.ops.OperatorContext;
 import org.apache.drill.exec.physical.impl.OutputMutator;
 import org.apache.drill.exec.store.AbstractRecordReader;
+import org.apache.drill.exec.store.parquet.ParquetFilterBuilder;
 import org.apache.drill.exec.store.parquet.ParquetReaderStats;
 import org.apache.drill.exec.store.parquet.ParquetReaderUtility;
+import org.apache.drill.exec.store.parquet.stat.ColumnStatistics;
 import org.apache.drill.exec.vector.AllocationHelper;
 import org.apache.drill.exec.vector.ValueVector;
 import org.apache.hadoop.fs.FileSystem;
@@ -90,12 +102,16 @@ public class ParquetRecordReader extends AbstractRecordReader {
   public boolean useFadvise;
   public boolean enforceTotalSize;
   public long readQueueSize;
+  public boolean useLateMaterialization;
+  public boolean usePagePruning;
+  public boolean useBatchDecoding;
 
   @SuppressWarnings("unused")
   private String name;
 
   public ParquetReaderStats parquetReaderStats = new ParquetReaderStats();
   private BatchReader batchReader;
+  private LogicalExpression filter;
 
   public enum Metric implements MetricDef {
     NUM_DICT_PAGE_LOADS,         // Number of dictionary pages read
@@ -117,7 +133,12 @@ public class ParquetRecordReader extends AbstractRecordReader {
     TIME_DISK_SCAN,                // Time in nanos spent in reading data from disk.
     TIME_FIXEDCOLUMN_READ,         // Time in nanos spent in converting fixed width data to value vectors
     TIME_VARCOLUMN_READ,           // Time in nanos spent in converting varwidth data to value vectors
-    TIME_PROCESS;                  // Time in nanos spent in processing
+    TIME_PROCESS,                  // Time in nanos spent in processing
+    NUM_DATA_PAGES_SKIPPED,        // Number of data pages skipped without being decompressed or decoded (late materialization, page pruning)
+    NUM_RECORDS_SKIPPED,           // Number of records skipped in some columns (late materialization, page pruning)
+    NUM_DATA_PAGES_PRUNED,         // Number of data pages of filter columns pruned by their statistics
+    NUM_ROWGROUPS_DICT_CHECKED,    // Number of row groups checked against the dictionaries of filter columns while planning
+    NUM_ROWGROUPS_DICT_PRUNED;     // Number of row groups pruned by the dictionaries of filter columns while planning
 
     @Override public int metricId() {
       return ordinal();
@@ -137,6 +158,25 @@ public class ParquetRecordReader extends AbstractRecordReader {
          path, rowGroupIndex, fs, codecFactory, footer, columns, dateCorruptionStatus);
   }
 
+  /**
+   * @param filter the condition of the Filter operator above the scan, used to skip reading rows
+   * which cannot satisfy it (see {@link BatchReader.FilteringReader}), or null
+   */
+  public ParquetRecordReader(FragmentContext fragmentContext,
+      String path,
+      int rowGroupIndex,
+      long numRecordsToRead,
+      FileSystem fs,
+      CodecFactory codecFactory,
+      ParquetMetadata footer,
+      List<SchemaPath> columns,
+      ParquetReaderUtility.DateCorruptionStatus dateCorruptionStatus,
+      LogicalExpression filter) throws ExecutionSetupException {
+    this(fragmentContext, DEFAULT_BATCH_LENGTH_IN_BITS, numRecordsToRead,
+         path, rowGroupIndex, fs, codecFactory, footer, columns, dateCorruptionStatus);
+    this.filter = filter;
+  }
+
   public ParquetRecordReader(FragmentContext fragmentContext,
       String path,
       int rowGroupIndex,
@@ -185,6 +225,12 @@ public class ParquetRecordReader extends AbstractRecordReader {
         fragmentContext.getOptions().getOption(ExecConstants.PARQUET_PAGEREADER_QUEUE_SIZE).num_val;
     enforceTotalSize =
         fragmentContext.getOptions().getOption(ExecConstants.PARQUET_PAGEREADER_ENFORCETOTALSIZE).bool_val;
+    useLateMaterialization =
+        fragmentContext.getOptions().getOption(ExecConstants.PARQUET_READER_LATE_MATERIALIZATION).bool_val;
+    usePagePruning =
+        fragmentContext.getOptions().getOption(ExecConstants.PARQUET_READER_PAGE_PRUNING).bool_val;
+    useBatchDecoding =
+        fragmentContext.getOptions().getOption(ExecConstants.PARQUET_READER_BATCH_DECODING).bool_val;
 
     setColumns(columns);
   }
@@ -260,12 +306,78 @@ public class ParquetRecordReader extends AbstractRecordReader {
     if (firstColumnStatus == null) {
       batchReader = new BatchReader.MockBatchReader(readState);
     } else if (schema.allFieldsFixedLength()) {
-      batchReader = new BatchReader.FixedWidthReader(readState);
+      batchReader = filter == null ? null : createFilteringReader();
+      if (batchReader == null) {
+        batchReader = new BatchReader.FixedWidthReader(readState);
+      }
     } else {
       batchReader = new BatchReader.VariableWidthReader(readState);
     }
   }
 
+  /**
+   * Sets up the use of the filter by page pruning and late materialization, as far as the
+   * options allow and the filter can be evaluated on the columns read.
+   *
+   * @return a reader which skips rows that cannot satisfy the filter, or null if neither
+   * technique applies
+   */
+  private BatchReader createFilteringReader() {
+    Map<SchemaPath, ColumnStatistics> columnTypes = new HashMap<>();
+    Map<SchemaPath, ValueVector> vectors = new HashMap<>();
+    for (ColumnReader<?> columnReader : readState.getColumnReaders()) {
+      SchemaPath path = SchemaPath.getSimplePath(columnReader.valueVec.getField().getName());
+      columnTypes.put(path, new ColumnStatistics(null, columnReader.valueVec.getField().getType()));
+      vectors.put(path, columnReader.valueVec);
+    }
+    ErrorCollector errorCollector = new ErrorCollectorImpl();
+    LogicalExpression materializedFilter = ExpressionTreeMaterializer.materializeFilterExpr(
+        filter, columnTypes, errorCollector, fragmentContext.getFunctionRegistry());
+    if (errorCollector.hasErrors()) {
+      logger.debug("Filter {} cannot be materialized against the columns of row group({}) in file {}: {}",
+          ExpressionStringBuilder.toString(filter), rowGroupIndex, hadoopPath.toUri().getPath(), errorCollector.toErrorString());
+      return null;
+    }
+    LogicalExpression predicate = ParquetFilterBuilder.buildParquetFilterPredicate(materializedFilter,
+        ConstantExpressionIdentifier.getConstantExpressionSet(materializedFilter), fragmentContext);
+    if (!(predicate instanceof ParquetFilterPredicate)) {
+      return null;
+    }
+
+    ParquetPagePruner pagePruner = null;
+    if (usePagePruning) {
+      pagePruner = ParquetPagePruner.create((ParquetFilterPredicate) predicate, readState.getColumnReaders(),
+          columnTypes, footer.getFileMetaData().getCreatedBy(), dateCorruptionStatus);
+    }
+
+    RowFilterEvaluator evaluator = null;
+    List<ColumnReader<?>> filterColumnReaders = new ArrayList<>();
+    List<ColumnReader<?>> otherColumnReaders = new ArrayList<>();
+    if (useLateMaterialization) {
+      evaluator = RowFilterEvaluator.create((ParquetFilterPredicate) predicate, vectors);
+    }
+    if (evaluator != null) {
+      for (ColumnReader<?> columnReader : readState.getColumnReaders()) {
+        SchemaPath path = SchemaPath.getSimplePath(columnReader.valueVec.getField().getName());
+        (evaluator.getColumns().contains(path) ? filterColumnReaders : otherColumnReaders).add(columnReader);
+      }
+      // late materialization needs columns to read first and columns to skip
+      if (filterColumnReaders.isEmpty() || otherColumnReaders.isEmpty()) {
+        evaluator = null;
+      }
+    }
+    if (evaluator == null) {
+      if (pagePruner == null) {
+        return null;
+      }
+      filterColumnReaders = readState.getColumnReaders();
+      otherColumnReaders = new ArrayList<>();
+    }
+    logger.debug("Reading row group({}) in file {} with page pruning {} and late materialization of {} column(s).",
+        rowGroupIndex, hadoopPath.toUri().getPath(), pagePruner == null ? "off" : "on", otherColumnReaders.size());
+    return new BatchReader.FilteringReader(readState, pagePruner, evaluator, filterColumnReaders, otherColumnReaders);
+  }
+
   protected DrillRuntimeException handleException(String s, Exception e) {
     String message = "Error in parquet record reader.\nMessage: " + s +
       "\nParquet Metadata: " + footer;
@@ -0,0 +1,179 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.drill.exec.store.parquet.columnreaders;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Decodes the RLE / bit-packing hybrid encoding Parquet uses for definition levels and
+ * dictionary ids a batch of values at a time.
+ * <p>
+ * The encoded data is a sequence of runs, each starting with a varint header. If the lowest
+ * bit of the header is 0, the run repeats a single value (header >>> 1) times; the value is
+ * stored little endian in the fewest whole bytes that hold the bit width. Otherwise the run
+ * holds (header >>> 1) groups of 8 values packed at the bit width, least significant bit first.
+ * <p>
+ * Unlike parquet-mr's decoder, which hands out one value per call, {@link #readInts(int[], int, int)}
+ * fills repeated runs and unpacks bit-packed runs straight into the caller's array.
+ */
+final class RleBitPackedDecoder {
+
+  private ByteBuffer buffer;
+  private int position;
+  private int end;
+  private int bitWidth;
+  private long valueMask;
+
+  // values left in the current run
+  private int valuesLeftInRun;
+  // true if the current run is bit-packed, false if it repeats a single value
+  private boolean packed;
+  private int repeatedValue;
+  // bits read from the current bit-packed run but not handed out yet
+  private long packedBits;
+  private int packedBitCount;
+
+  /**
+   * Start decoding the given range of the buffer.
+   *
+   * @param buffer the page data
+   * @param start offset of the first run
+   * @param end offset just past the last run
+   * @param bitWidth number of bits of each value, 0 to 32
+   */
+  void init(ByteBuffer buffer, int start, int end, int bitWidth) {
+    this.buffer = buffer;
+    this.position = start;
+    this.end = end;
+    this.bitWidth = bitWidth;
+    valueMask = (1L << bitWidth) - 1;
+    valuesLeftInRun = 0;
+    packedBits = 0;
+    packedBitCount = 0;
+  }
+
+  /**
+   * Start decoding runs that are preceded by their total length in bytes, stored as
+   * a 4 byte little endian integer, as are the levels of version 1 data pages.
+   *
+   * @return the offset just past the encoded runs
+   */
+  int initWithLength(ByteBuffer buffer, int start, int bitWidth) {
+    int length = (buffer.get(start) & 0xFF)
+        | (buffer.get(start + 1) & 0xFF) << 8
+        | (buffer.get(start + 2) & 0xFF) << 16
+        | (buffer.get(start + 3) & 0xFF) << 24;
+    int runsStart = start + 4;
+    init(buffer, runsStart, runsStart + length, bitWidth);
+    return runsStart + length;
+  }
+
+  int readInt() {
+    if (valuesLeftInRun == 0) {
+      readRunHeader();
+    }
+    valuesLeftInRun--;
+    return packed ? unpackOne() : repeatedValue;
+  }
+
+  /**
+   * Decode the next values into the given array.
+   *
+   * @param dest array to fill
+   * @param offset index of dest to write the first value to
+   * @param count number of values to decode
+   */
+  void readInts(int[] dest, int offset, int count) {
+    while (count > 0) {
+      if (valuesLeftInRun == 0) {
+        readRunHeader();
+      }
+      int n = Math.min(count, valuesLeftInRun);
+      if (packed) {
+        unpack(dest, offset, n);
+      } else {
+        Arrays.fill(dest, offset, offset + n, repeatedValue);
+      }
+      valuesLeftInRun -= n;
+      offset += n;
+      count -= n;
+    }
+  }
+
+  private void readRunHeader() {
+    if (position >= end) {
+      throw new IllegalStateException("Read past the end of RLE/bit-packed data at offset " + end);
+    }
+    int header = 0;
+    int shift = 0;
+    int b;
+    do {
+      b = buffer.get(position++) & 0xFF;
+      header |= (b & 0x7F) << shift;
+      shift += 7;
+    } while ((b & 0x80) != 0);
+
+    if ((header & 1) == 0) {
+      packed = false;
+      valuesLeftInRun = header >>> 1;
+      int value = 0;
+      for (int i = 0, bytes = (bitWidth + 7) / 8; i < bytes; i++) {
+        value |= (buffer.get(position++) & 0xFF) << (8 * i);
+      }
+      repeatedValue = value;
+    } else {
+      packed = true;
+      valuesLeftInRun = (header >>> 1) * 8;
+      // runs start on a byte boundary, so the padding bits of the previous run are dropped
+      packedBits = 0;
+      packedBitCount = 0;
+    }
+  }
+
+  // Bytes are only read once a value needs them, so the padding of a last run that was cut short
+  // by the writer is never looked at.
+  private void unpack(int[] dest, int offset, int count) {
+    final int width = bitWidth;
+    final long mask = valueMask;
+    long bits = packedBits;
+    int bitCount = packedBitCount;
+    for (int i = offset, last = offset + count; i < last; i++) {
+      while (bitCount < width) {
+        bits |= (long) (buffer.get(position++) & 0xFF) << bitCount;
+        bitCount += 8;
+      }
+      dest[i] = (int) (bits & mask);
+      bits >>>= width;
+      bitCount -= width;
+    }
+    packedBits = bits;
+    packedBitCount = bitCount;
+  }
+
+  private int unpackOne() {
+    while (packedBitCount < bitWidth) {
+      packedBits |= (long) (buffer.get(position++) & 0xFF) << packedBitCount;
+      packedBitCount += 8;
+    }
+    int value = (int) (packedBits & valueMask);
+    packedBits >>>= bitWidth;
+    packedBitCount -= bitWidth;
+    return value;
+  }
+}
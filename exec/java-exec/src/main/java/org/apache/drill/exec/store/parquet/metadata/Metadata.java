@@ -59,9 +59,13 @@ import org.apache.parquet.schema.PrimitiveType;
 import org.apache.parquet.schema.Type;
 
 import javax.annotation.Nullable;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
 import java.io.IOException;
 import java.security.PrivilegedExceptionAction;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
@@ -88,6 +92,8 @@ public class Metadata {
   public static final String METADATA_FILENAME = ".drill.parquet_metadata";
   public static final String METADATA_DIRECTORIES_FILENAME = ".drill.parquet_metadata_directories";
 
+  private static final int BUFFER_SIZE = 64 * 1024;
+
   private final ParquetFormatConfig formatConfig;
 
   private ParquetTableMetadataBase parquetTableMetadata;
@@ -228,9 +234,32 @@ public class Metadata {
     }
     ParquetTableMetadata_v3 parquetTableMetadata = new ParquetTableMetadata_v3(SUPPORTED_VERSIONS.last().toString(),
                                                                                 DrillVersionInfo.getVersion());
+    parquetTableMetadata.columnTypeInfo = new ConcurrentHashMap<>();
     if (childFiles.size() > 0) {
-      List<ParquetFileMetadata_v3 > childFilesMetadata = getParquetFileMetadata_v3(parquetTableMetadata, childFiles);
-      metaDataList.addAll(childFilesMetadata);
+      // footers are read only for the files, which are new or were changed since the previous metadata cache file
+      // was written, the metadata of the other files is taken from the previous cache file
+      Map<String, ParquetFileMetadata_v3> unchangedFiles =
+          getUnchangedFilesMetadata(p, childFiles.keySet(), parquetTableMetadata.columnTypeInfo, fs);
+      Map<FileStatus, FileSystem> changedFiles = new LinkedHashMap<>();
+      for (Map.Entry<FileStatus, FileSystem> entry : childFiles.entrySet()) {
+        if (!unchangedFiles.containsKey(getFilePath(entry.getKey()))) {
+          changedFiles.put(entry.getKey(), entry.getValue());
+        }
+      }
+      Map<String, ParquetFileMetadata_v3> changedFilesMetadata = new HashMap<>();
+      if (changedFiles.size() > 0) {
+        for (ParquetFileMetadata_v3 fileMetadata : getParquetFileMetadata_v3(parquetTableMetadata, changedFiles)) {
+          changedFilesMetadata.put(fileMetadata.getPath(), fileMetadata);
+        }
+      }
+      logger.debug("Reused metadata of {} unchanged files and read footers of {} files in {} directory",
+          unchangedFiles.size(), changedFiles.size(), path);
+      // keep the order of the files in the directory listing
+      for (FileStatus file : childFiles.keySet()) {
+        String filePath = getFilePath(file);
+        ParquetFileMetadata_v3 fileMetadata = unchangedFiles.get(filePath);
+        metaDataList.add(fileMetadata != null ? fileMetadata : changedFilesMetadata.get(filePath));
+      }
       // Note that we do not need to merge the columnInfo at this point. The columnInfo is already added
       // to the parquetTableMetadata.
     }
@@ -269,6 +298,78 @@ public class Metadata {
     return Pair.of(parquetTableMetadata, new ParquetTableMetadataDirs(emptyDirList));
   }
 
+  /**
+   * Get the metadata of the files, which weren't changed since the previous metadata cache file of the directory
+   * was written. The file is considered unchanged if it has the same length and its modification time is older
+   * than the modification time of the cache file. Only binary metadata cache files are used, the metadata from
+   * the cache files of the older versions is always collected again.
+   *
+   * @param dir directory of the parquet table
+   * @param files files from the directory
+   * @param columnTypeInfo column types of the unchanged files are added to this map
+   * @param fs file system
+   * @return map of the file paths to the metadata of the unchanged files with absolute paths
+   */
+  private Map<String, ParquetFileMetadata_v3> getUnchangedFilesMetadata(Path dir, Collection<FileStatus> files,
+      Map<ColumnTypeMetadata_v3.Key, ColumnTypeMetadata_v3> columnTypeInfo, FileSystem fs) {
+    Map<String, ParquetFileMetadata_v3> unchangedFiles = new HashMap<>();
+    Path metadataPath = new Path(dir, METADATA_FILENAME);
+    ParquetTableMetadata_v3 previousMetadata;
+    long metadataModificationTime;
+    try {
+      if (!fs.exists(metadataPath)) {
+        return unchangedFiles;
+      }
+      metadataModificationTime = fs.getFileStatus(metadataPath).getModificationTime();
+      try (FSDataInputStream is = fs.open(metadataPath)) {
+        if (!isBinaryMetadata(is)) {
+          return unchangedFiles;
+        }
+        previousMetadata = Metadata_V4.read(new BufferedInputStream(is, BUFFER_SIZE));
+      }
+    } catch (IOException | RuntimeException e) {
+      logger.warn("Failed to read previous '{}' metadata file, metadata of all files will be collected", metadataPath, e);
+      return unchangedFiles;
+    }
+    previousMetadata.updateRelativePaths(Path.getPathWithoutSchemeAndAuthority(dir).toUri().getPath());
+
+    Map<String, ParquetFileMetadata_v3> previousFiles = new HashMap<>();
+    for (ParquetFileMetadata_v3 file : previousMetadata.files) {
+      previousFiles.put(file.getPath(), file);
+    }
+    for (FileStatus file : files) {
+      String filePath = getFilePath(file);
+      ParquetFileMetadata_v3 previousFile = previousFiles.get(filePath);
+      if (previousFile != null && previousFile.getLength() == file.getLen()
+          && file.getModificationTime() < metadataModificationTime) {
+        unchangedFiles.put(filePath, previousFile);
+        for (RowGroupMetadata_v3 rowGroup : previousFile.rowGroups) {
+          for (ColumnMetadata_v3 column : rowGroup.columns) {
+            ColumnTypeMetadata_v3.Key key = new ColumnTypeMetadata_v3.Key(column.name);
+            ColumnTypeMetadata_v3 columnType = previousMetadata.columnTypeInfo.get(key);
+            if (columnType != null) {
+              columnTypeInfo.put(key, columnType);
+            }
+          }
+        }
+      }
+    }
+    return unchangedFiles;
+  }
+
+  private static String getFilePath(FileStatus file) {
+    return Path.getPathWithoutSchemeAndAuthority(file.getPath()).toUri().getPath();
+  }
+
+  /**
+   * Checks whether the metadata cache file is written in the binary format of {@link Metadata_V4}.
+   * The position of the stream is not changed.
+   */
+  private static boolean isBinaryMetadata(FSDataInputStream is) throws IOException {
+    byte[] header = new byte[Metadata_V4.MAGIC.length];
+    return is.read(0, header, 0, header.length) == header.length && Metadata_V4.isBinaryMetadata(header);
+  }
+
   /**
    * Get the parquet metadata for the parquet files in a directory.
    *
@@ -529,23 +630,15 @@ public class Metadata {
   }
 
   /**
-   * Serialize parquet metadata to json and write to a file.
+   * Serialize parquet metadata to the binary format and write to a file.
    *
    * @param parquetTableMetadata parquet table metadata
    * @param p file path
    */
   private void writeFile(ParquetTableMetadata_v3 parquetTableMetadata, Path p, FileSystem fs) throws IOException {
-    JsonFactory jsonFactory = new JsonFactory();
-    jsonFactory.configure(Feature.AUTO_CLOSE_TARGET, false);
-    jsonFactory.configure(JsonParser.Feature.AUTO_CLOSE_SOURCE, false);
-    ObjectMapper mapper = new ObjectMapper(jsonFactory);
-    SimpleModule module = new SimpleModule();
-    module.addSerializer(ColumnMetadata_v3.class, new ColumnMetadata_v3.Serializer());
-    mapper.registerModule(module);
-    FSDataOutputStream os = fs.create(p);
-    mapper.writerWithDefaultPrettyPrinter().writeValue(os, parquetTableMetadata);
-    os.flush();
-    os.close();
+    try (FSDataOutputStream os = fs.create(p)) {
+      Metadata_V4.write(parquetTableMetadata, new BufferedOutputStream(os, BUFFER_SIZE));
+    }
   }
 
   private void writeFile(ParquetTableMetadataDirs parquetTableMetadataDirs, Path p, FileSystem fs) throws IOException {
@@ -604,7 +697,11 @@ public class Metadata {
           newMetadata = true;
         }
       } else {
-        parquetTableMetadata = mapper.readValue(is, ParquetTableMetadataBase.class);
+        if (isBinaryMetadata(is)) {
+          parquetTableMetadata = Metadata_V4.read(new BufferedInputStream(is, BUFFER_SIZE));
+        } else {
+          parquetTableMetadata = mapper.readValue(is, ParquetTableMetadataBase.class);
+        }
         if (timer != null) {
           logger.debug("Took {} ms to read metadata from cache file", timer.elapsed(TimeUnit.MILLISECONDS));
           timer.stop();
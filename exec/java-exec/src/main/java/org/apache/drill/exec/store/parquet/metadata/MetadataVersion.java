@@ -145,6 +145,13 @@ public class MetadataVersion implements Comparable<MetadataVersion> {
      */
     public static final String V3_3 = "3.3";
 
+    /**
+     * Version 4: Metadata cache files are written in a compact binary encoding instead of json, see
+     * {@link Metadata_V4}. The structure of the metadata is the same as for v3. REFRESH TABLE METADATA command
+     * reuses the metadata of the unchanged files from the previous binary cache files.
+     */
+    public static final String V4 = "4";
+
     /**
      * All historical versions of the Drill metadata cache files. In case of introducing a new parquet metadata version
      * please follow the {@link MetadataVersion#FORMAT}.
@@ -155,7 +162,8 @@ public class MetadataVersion implements Comparable<MetadataVersion> {
         new MetadataVersion(V3),
         new MetadataVersion(V3_1),
         new MetadataVersion(V3_2),
-        new MetadataVersion(V3_3)
+        new MetadataVersion(V3_3),
+        new MetadataVersion(V4)
     );
 
     /**
@@ -0,0 +1,444 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.drill.exec.store.parquet.metadata;
+
+import org.apache.parquet.io.api.Binary;
+import org.apache.parquet.schema.OriginalType;
+import org.apache.parquet.schema.PrimitiveType;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.apache.drill.exec.store.parquet.metadata.Metadata_V3.ColumnMetadata_v3;
+import static org.apache.drill.exec.store.parquet.metadata.Metadata_V3.ColumnTypeMetadata_v3;
+import static org.apache.drill.exec.store.parquet.metadata.Metadata_V3.ParquetFileMetadata_v3;
+import static org.apache.drill.exec.store.parquet.metadata.Metadata_V3.ParquetTableMetadata_v3;
+import static org.apache.drill.exec.store.parquet.metadata.Metadata_V3.RowGroupMetadata_v3;
+
+/**
+ * Compact binary encoding of the {@link ParquetTableMetadata_v3} structure, used for the metadata cache files
+ * starting from {@link MetadataVersion.Constants#V4}.
+ * <p>
+ * The file starts with {@link #MAGIC}, followed by the metadata version and a dictionary of all strings (paths,
+ * directories, host names, column name segments and type names), so every repeated string is stored once and is
+ * referenced by its index afterwards. Numbers are written as variable length integers and min/max statistics are
+ * prefixed with a one byte tag of the value type, so the file can be decoded without a schema and without any
+ * reflection, which is considerably faster than parsing the pretty-printed json of the previous versions.
+ */
+public class Metadata_V4 {
+
+  public static final byte[] MAGIC = {'D', 'P', 'Q', 'M'};
+
+  private static final byte VALUE_NULL = 0;
+  private static final byte VALUE_BOOLEAN = 1;
+  private static final byte VALUE_INT = 2;
+  private static final byte VALUE_LONG = 3;
+  private static final byte VALUE_FLOAT = 4;
+  private static final byte VALUE_DOUBLE = 5;
+  private static final byte VALUE_BINARY = 6;
+  private static final byte VALUE_STRING = 7;
+
+  /**
+   * @param header first bytes of the metadata cache file
+   * @return true if the header is a header of the binary metadata cache file
+   */
+  public static boolean isBinaryMetadata(byte[] header) {
+    return header.length >= MAGIC.length && Arrays.equals(Arrays.copyOf(header, MAGIC.length), MAGIC);
+  }
+
+  /**
+   * Writes the table metadata to the stream. The stream is not closed.
+   *
+   * @param tableMetadata parquet table metadata
+   * @param os output stream
+   * @throws IOException in case of problems while writing to the stream
+   */
+  public static void write(ParquetTableMetadata_v3 tableMetadata, OutputStream os) throws IOException {
+    new Writer(tableMetadata).write(os);
+  }
+
+  /**
+   * Reads the table metadata written by {@link #write(ParquetTableMetadata_v3, OutputStream)}.
+   * The stream is not closed.
+   *
+   * @param is input stream positioned at the beginning of the metadata cache file
+   * @return parquet table metadata
+   * @throws IOException if the stream doesn't contain binary metadata or is truncated
+   */
+  public static ParquetTableMetadata_v3 read(InputStream is) throws IOException {
+    return new Reader(new DataInputStream(is)).read();
+  }
+
+  private static class Writer {
+    private final ParquetTableMetadata_v3 tableMetadata;
+    private final Map<String, Integer> strings = new HashMap<>();
+    private final List<String> stringList = new ArrayList<>();
+    private final Map<List<String>, Integer> names = new HashMap<>();
+    private final List<String[]> nameList = new ArrayList<>();
+    private final Collection<ColumnTypeMetadata_v3> columnTypes;
+
+    Writer(ParquetTableMetadata_v3 tableMetadata) {
+      this.tableMetadata = tableMetadata;
+      this.columnTypes = tableMetadata.columnTypeInfo == null
+          ? Collections.emptyList() : tableMetadata.columnTypeInfo.values();
+    }
+
+    void write(OutputStream os) throws IOException {
+      collectStrings();
+      DataOutputStream out = new DataOutputStream(os);
+      out.write(MAGIC);
+      writeString(out, tableMetadata.getMetadataVersion());
+      writeVarInt(out, stringList.size());
+      for (String value : stringList) {
+        writeString(out, value);
+      }
+      writeNullableString(out, tableMetadata.drillVersion);
+
+      writeVarInt(out, nameList.size());
+      for (String[] name : nameList) {
+        writeVarInt(out, name.length);
+        for (String segment : name) {
+          writeVarInt(out, strings.get(segment));
+        }
+      }
+
+      writeVarInt(out, columnTypes.size());
+      for (ColumnTypeMetadata_v3 columnType : columnTypes) {
+        writeVarInt(out, names.get(Arrays.asList(columnType.name)));
+        writeNullableString(out, columnType.primitiveType == null ? null : columnType.primitiveType.name());
+        writeNullableString(out, columnType.originalType == null ? null : columnType.originalType.name());
+        writeVarInt(out, columnType.precision);
+        writeVarInt(out, columnType.scale);
+        writeVarInt(out, columnType.repetitionLevel);
+        writeVarInt(out, columnType.definitionLevel);
+      }
+
+      writeVarInt(out, tableMetadata.directories.size());
+      for (String directory : tableMetadata.directories) {
+        writeVarInt(out, strings.get(directory));
+      }
+
+      writeVarInt(out, tableMetadata.files.size());
+      for (ParquetFileMetadata_v3 file : tableMetadata.files) {
+        writeVarInt(out, strings.get(file.path));
+        writeVarLong(out, file.length);
+        writeVarInt(out, file.rowGroups.size());
+        for (RowGroupMetadata_v3 rowGroup : file.rowGroups) {
+          writeVarLong(out, rowGroup.start);
+          writeVarLong(out, rowGroup.length);
+          writeVarLong(out, rowGroup.rowCount);
+          Map<String, Float> hostAffinity = rowGroup.hostAffinity == null ? new HashMap<>() : rowGroup.hostAffinity;
+          writeVarInt(out, hostAffinity.size());
+          for (Map.Entry<String, Float> entry : hostAffinity.entrySet()) {
+            writeVarInt(out, strings.get(entry.getKey()));
+            out.writeFloat(entry.getValue());
+          }
+          writeVarInt(out, rowGroup.columns.size());
+          for (ColumnMetadata_v3 column : rowGroup.columns) {
+            writeVarInt(out, names.get(Arrays.asList(column.name)));
+            if (column.nulls == null) {
+              out.writeBoolean(false);
+            } else {
+              out.writeBoolean(true);
+              writeVarLong(out, column.nulls);
+            }
+            writeValue(out, column.minValue);
+            writeValue(out, column.maxValue);
+          }
+        }
+      }
+      out.flush();
+    }
+
+    private void collectStrings() {
+      if (tableMetadata.drillVersion != null) {
+        addString(tableMetadata.drillVersion);
+      }
+      for (ColumnTypeMetadata_v3 columnType : columnTypes) {
+        addName(columnType.name);
+        if (columnType.primitiveType != null) {
+          addString(columnType.primitiveType.name());
+        }
+        if (columnType.originalType != null) {
+          addString(columnType.originalType.name());
+        }
+      }
+      for (String directory : tableMetadata.directories) {
+        addString(directory);
+      }
+      for (ParquetFileMetadata_v3 file : tableMetadata.files) {
+        addString(file.path);
+        for (RowGroupMetadata_v3 rowGroup : file.rowGroups) {
+          if (rowGroup.hostAffinity != null) {
+            for (String host : rowGroup.hostAffinity.keySet()) {
+              addString(host);
+            }
+          }
+          for (ColumnMetadata_v3 column : rowGroup.columns) {
+            addName(column.name);
+          }
+        }
+      }
+    }
+
+    private void addString(String value) {
+      if (!strings.containsKey(value)) {
+        strings.put(value, stringList.size());
+        stringList.add(value);
+      }
+    }
+
+    private void addName(String[] name) {
+      List<String> key = Arrays.asList(name);
+      if (!names.containsKey(key)) {
+        names.put(key, nameList.size());
+        nameList.add(name);
+        for (String segment : name) {
+          addString(segment);
+        }
+      }
+    }
+
+    private void writeNullableString(DataOutputStream out, String value) throws IOException {
+      // index in the dictionary is shifted by one, zero stands for null
+      writeVarInt(out, value == null ? 0 : strings.get(value) + 1);
+    }
+
+    private void writeValue(DataOutputStream out, Object value) throws IOException {
+      if (value == null) {
+        out.writeByte(VALUE_NULL);
+      } else if (value instanceof Boolean) {
+        out.writeByte(VALUE_BOOLEAN);
+        out.writeBoolean((Boolean) value);
+      } else if (value instanceof Integer) {
+        out.writeByte(VALUE_INT);
+        writeVarLong(out, zigZag((Integer) value));
+      } else if (value instanceof Long) {
+        out.writeByte(VALUE_LONG);
+        writeVarLong(out, zigZag((Long) value));
+      } else if (value instanceof Float) {
+        out.writeByte(VALUE_FLOAT);
+        out.writeFloat((Float) value);
+      } else if (value instanceof Double) {
+        out.writeByte(VALUE_DOUBLE);
+        out.writeDouble((Double) value);
+      } else if (value instanceof Binary || value instanceof byte[]) {
+        byte[] bytes = value instanceof Binary ? ((Binary) value).getBytes() : (byte[]) value;
+        out.writeByte(VALUE_BINARY);
+        writeVarInt(out, bytes.length);
+        out.write(bytes);
+      } else if (value instanceof String) {
+        out.writeByte(VALUE_STRING);
+        writeString(out, (String) value);
+      } else {
+        throw new IllegalArgumentException(String.format("Unsupported type of the min/max value: %s",
+            value.getClass().getName()));
+      }
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+      byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+      writeVarInt(out, bytes.length);
+      out.write(bytes);
+    }
+
+    private static void writeVarInt(DataOutputStream out, int value) throws IOException {
+      writeVarLong(out, value);
+    }
+
+    private static void writeVarLong(DataOutputStream out, long value) throws IOException {
+      while ((value & ~0x7FL) != 0) {
+        out.writeByte((int) ((value & 0x7F) | 0x80));
+        value >>>= 7;
+      }
+      out.writeByte((int) value);
+    }
+
+    private static long zigZag(long value) {
+      return (value << 1) ^ (value >> 63);
+    }
+  }
+
+  private static class Reader {
+    private final DataInputStream in;
+    private String[] strings;
+    private String[][] names;
+
+    Reader(DataInputStream in) {
+      this.in = in;
+    }
+
+    ParquetTableMetadata_v3 read() throws IOException {
+      byte[] header = new byte[MAGIC.length];
+      in.readFully(header);
+      if (!isBinaryMetadata(header)) {
+        throw new IOException("Metadata cache file doesn't contain binary parquet metadata");
+      }
+      String metadataVersion = readString();
+      if (!MetadataVersion.Constants.isVersionSupported(metadataVersion)) {
+        throw new IOException(String.format("Unsupported metadata version '%s'", metadataVersion));
+      }
+
+      strings = new String[readVarInt()];
+      for (int i = 0; i < strings.length; i++) {
+        strings[i] = readString();
+      }
+      String drillVersion = readNullableString();
+
+      names = new String[readVarInt()][];
+      for (int i = 0; i < names.length; i++) {
+        String[] name = new String[readVarInt()];
+        for (int j = 0; j < name.length; j++) {
+          name[j] = strings[readVarInt()];
+        }
+        names[i] = name;
+      }
+
+      int columnTypeCount = readVarInt();
+      ConcurrentHashMap<ColumnTypeMetadata_v3.Key, ColumnTypeMetadata_v3> columnTypeInfo =
+          new ConcurrentHashMap<>(columnTypeCount);
+      for (int i = 0; i < columnTypeCount; i++) {
+        String[] name = names[readVarInt()];
+        String primitiveType = readNullableString();
+        String originalType = readNullableString();
+        ColumnTypeMetadata_v3 columnType = new ColumnTypeMetadata_v3(name,
+            primitiveType == null ? null : PrimitiveType.PrimitiveTypeName.valueOf(primitiveType),
+            originalType == null ? null : OriginalType.valueOf(originalType),
+            readVarInt(), readVarInt(), readVarInt(), readVarInt());
+        columnTypeInfo.put(new ColumnTypeMetadata_v3.Key(name), columnType);
+      }
+
+      int directoryCount = readVarInt();
+      List<String> directories = new ArrayList<>(directoryCount);
+      for (int i = 0; i < directoryCount; i++) {
+        directories.add(strings[readVarInt()]);
+      }
+
+      // primitive types are resolved once per column name rather than once per column chunk
+      PrimitiveType.PrimitiveTypeName[] primitiveTypes = new PrimitiveType.PrimitiveTypeName[names.length];
+      for (int i = 0; i < names.length; i++) {
+        ColumnTypeMetadata_v3 columnType = columnTypeInfo.get(new ColumnTypeMetadata_v3.Key(names[i]));
+        primitiveTypes[i] = columnType == null ? null : columnType.primitiveType;
+      }
+
+      int fileCount = readVarInt();
+      List<ParquetFileMetadata_v3> files = new ArrayList<>(fileCount);
+      for (int i = 0; i < fileCount; i++) {
+        String path = strings[readVarInt()];
+        long length = readVarLong();
+        int rowGroupCount = readVarInt();
+        List<RowGroupMetadata_v3> rowGroups = new ArrayList<>(rowGroupCount);
+        for (int j = 0; j < rowGroupCount; j++) {
+          long start = readVarLong();
+          long rowGroupLength = readVarLong();
+          long rowCount = readVarLong();
+          int hostCount = readVarInt();
+          Map<String, Float> hostAffinity = new HashMap<>(hostCount);
+          for (int k = 0; k < hostCount; k++) {
+            hostAffinity.put(strings[readVarInt()], in.readFloat());
+          }
+          int columnCount = readVarInt();
+          List<ColumnMetadata_v3> columns = new ArrayList<>(columnCount);
+          for (int k = 0; k < columnCount; k++) {
+            int nameIndex = readVarInt();
+            Long nulls = in.readBoolean() ? readVarLong() : null;
+            Object minValue = readValue();
+            Object maxValue = readValue();
+            columns.add(new ColumnMetadata_v3(names[nameIndex], primitiveTypes[nameIndex], minValue, maxValue, nulls));
+          }
+          rowGroups.add(new RowGroupMetadata_v3(start, rowGroupLength, rowCount, hostAffinity, columns));
+        }
+        files.add(new ParquetFileMetadata_v3(path, length, rowGroups));
+      }
+      return new ParquetTableMetadata_v3(metadataVersion, files, directories, columnTypeInfo, drillVersion);
+    }
+
+    private Object readValue() throws IOException {
+      byte type = in.readByte();
+      switch (type) {
+        case VALUE_NULL:
+          return null;
+        case VALUE_BOOLEAN:
+          return in.readBoolean();
+        case VALUE_INT:
+          return (int) unZigZag(readVarLong());
+        case VALUE_LONG:
+          return unZigZag(readVarLong());
+        case VALUE_FLOAT:
+          return in.readFloat();
+        case VALUE_DOUBLE:
+          return in.readDouble();
+        case VALUE_BINARY:
+          byte[] bytes = new byte[readVarInt()];
+          in.readFully(bytes);
+          return Binary.fromConstantByteArray(bytes);
+        case VALUE_STRING:
+          return readString();
+        default:
+          throw new IOException(String.format("Unknown type %d of the min/max value", type));
+      }
+    }
+
+    private String readNullableString() throws IOException {
+      int index = readVarInt();
+      return index == 0 ? null : strings[index - 1];
+    }
+
+    private String readString() throws IOException {
+      byte[] bytes = new byte[readVarInt()];
+      in.readFully(bytes);
+      return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private int readVarInt() throws IOException {
+      long value = readVarLong();
+      if (value < 0 || value > Integer.MAX_VALUE) {
+        throw new IOException(String.format("Invalid length or index %d in the metadata cache file", value));
+      }
+      return (int) value;
+    }
+
+    private long readVarLong() throws IOException {
+      long value = 0;
+      for (int shift = 0; shift < 64; shift += 7) {
+        byte b = in.readByte();
+        value |= (long) (b & 0x7F) << shift;
+        if ((b & 0x80) == 0) {
+          return value;
+        }
+      }
+      throw new IOException("Malformed variable length integer in the metadata cache file");
+    }
+
+    private static long unZigZag(long value) {
+      return (value >>> 1) ^ -(value & 1);
+    }
+  }
+}
@@ -37,6 +37,8 @@ public class FieldSelection {
   public static final FieldSelection INVALID_NODE = new FieldSelection(null, ValidityMode.NEVER_VALID);
   public static final FieldSelection ALL_VALID = new FieldSelection(null, ValidityMode.ALWAYS_VALID);
 
+  private static final int MAX_CACHED_NAMES = 10_000;
+
   private enum ValidityMode {CHECK_CHILDREN, NEVER_VALID, ALWAYS_VALID}
 
   private final Map<String, FieldSelection> children;
@@ -103,6 +105,14 @@ public class FieldSelection {
       if (!lastPath && !child.isAlwaysValid()) {
         child.add(segment.getChild());
       }
+    } else if (segment.isArray()) {
+      // a[0] needs whole elements, a[0].b needs only field b of the
+      // elements, whatever their index.
+      if (segment.isLastPath()) {
+        setAlwaysValid();
+      } else if (!isAlwaysValid()) {
+        add(segment.getChild());
+      }
     }
   }
 
@@ -126,17 +136,18 @@ public class FieldSelection {
       FieldSelection n = children.get(name);
 
       // if we don't find, check to see if the lower case version of this path is available, if so, we'll add it with the new case to the original map.
+      // Unprojected names are remembered too, so that skipping a field costs a single hash lookup rather than
+      // a case insensitive search, up to a limit in case field names are data.
       if(n == null){
         n = childrenInsensitive.get(name);
-        if(n != null){
+        if(n == null){
+          n = INVALID_NODE;
+        }
+        if(children.size() < MAX_CACHED_NAMES){
           children.put(name, n);
         }
       }
-      if(n == null){
-        return INVALID_NODE;
-      }else{
-        return n;
-      }
+      return n;
     case NEVER_VALID:
       return INVALID_NODE;
     default:
@@ -316,9 +316,9 @@ public class JsonReader extends BaseJsonProcessor {
 
   private void writeDataSwitch(ListWriter w) throws IOException {
     if (this.allTextMode) {
-      writeDataAllText(w);
+      writeDataAllText(w, FieldSelection.ALL_VALID);
     } else {
-      writeData(w);
+      writeData(w, FieldSelection.ALL_VALID);
     }
   }
 
@@ -376,7 +376,7 @@ public class JsonReader extends BaseJsonProcessor {
 
         switch (parser.nextToken()) {
         case START_ARRAY:
-          writeData(map.list(fieldName));
+          writeData(map.list(fieldName), childSelection);
           break;
         case START_OBJECT:
           if (!writeMapDataIfTyped(map, fieldName)) {
@@ -455,7 +455,7 @@ public class JsonReader extends BaseJsonProcessor {
 
       switch (parser.nextToken()) {
       case START_ARRAY:
-        writeDataAllText(map.list(fieldName));
+        writeDataAllText(map.list(fieldName), childSelection);
         break;
       case START_OBJECT:
         if (!writeMapDataIfTyped(map, fieldName)) {
@@ -537,17 +537,25 @@ public class JsonReader extends BaseJsonProcessor {
         workingBuffer.getBuf());
   }
 
-  private void writeData(ListWriter list) throws IOException {
+  /**
+   * Writes an array. Maps within the array, at any depth of nested arrays,
+   * are projected by the selection of the array itself.
+   *
+   * @param list
+   * @param selection
+   * @throws IOException
+   */
+  private void writeData(ListWriter list, FieldSelection selection) throws IOException {
     list.startList();
     outside: while (true) {
       try {
         switch (parser.nextToken()) {
         case START_ARRAY:
-          writeData(list.list());
+          writeData(list.list(), selection);
           break;
         case START_OBJECT:
           if (!writeListDataIfTyped(list)) {
-            writeData(list.map(), FieldSelection.ALL_VALID, false);
+            writeData(list.map(), selection, false);
           }
           break;
         case END_ARRAY:
@@ -609,17 +617,17 @@ public class JsonReader extends BaseJsonProcessor {
     }
   }
 
-  private void writeDataAllText(ListWriter list) throws IOException {
+  private void writeDataAllText(ListWriter list, FieldSelection selection) throws IOException {
     list.startList();
     outside: while (true) {
 
       switch (parser.nextToken()) {
       case START_ARRAY:
-        writeDataAllText(list.list());
+        writeDataAllText(list.list(), selection);
         break;
       case START_OBJECT:
         if (!writeListDataIfTyped(list)) {
-          writeDataAllText(list.map(), FieldSelection.ALL_VALID, false);
+          writeDataAllText(list.map(), selection, false);
         }
         break;
       case END_ARRAY:
@@ -43,6 +43,7 @@ import org.apache.drill.exec.store.sys.PersistentStoreProvider;
 import org.apache.drill.exec.work.batch.ControlMessageHandler;
 import org.apache.drill.exec.work.foreman.Foreman;
 import org.apache.drill.exec.work.fragment.FragmentExecutor;
+import org.apache.drill.exec.work.fragment.FragmentScheduler;
 import org.apache.drill.exec.work.fragment.FragmentManager;
 import org.apache.drill.exec.work.user.UserWorker;
 
@@ -82,6 +83,7 @@ public class WorkManager implements AutoCloseable {
   private final WorkerBee bee;
   private final WorkEventBus workBus;
   private final Executor executor;
+  private final FragmentScheduler fragmentScheduler;
   private final StatusThread statusThread;
   private final Lock isEmptyLock = new ReentrantLock();
   private Condition isEmptyCondition;
@@ -96,6 +98,7 @@ public class WorkManager implements AutoCloseable {
     bee = new WorkerBee(); // TODO should this just be an interface?
     workBus = new WorkEventBus(); // TODO should this just be an interface?
     executor = context.getExecutor();
+    fragmentScheduler = new FragmentScheduler(context.getConfig());
 
     // TODO references to this escape here (via WorkerBee) before construction is done
     controlMessageWorker = new ControlMessageHandler(bee); // TODO getFragmentRunner(), getForemanForQueryId()
@@ -120,6 +123,14 @@ public class WorkManager implements AutoCloseable {
             return runningFragments.size();
           }
         });
+
+    DrillMetrics.register("drill.fragments.waiting_for_slot",
+        new Gauge<Integer>() {
+          @Override
+          public Integer getValue() {
+            return fragmentScheduler.getWaitingCount();
+          }
+        });
   }
 
   public Executor getExecutor() {
@@ -336,6 +347,7 @@ public class WorkManager implements AutoCloseable {
      */
     public void addFragmentRunner(final FragmentExecutor fragmentExecutor) {
       final FragmentHandle fragmentHandle = fragmentExecutor.getContext().getHandle();
+      fragmentExecutor.setFragmentScheduler(fragmentScheduler);
       runningFragments.put(fragmentHandle, fragmentExecutor);
       executor.execute(new SelfCleaningRunnable(fragmentExecutor) {
         @Override
@@ -359,6 +371,7 @@ public class WorkManager implements AutoCloseable {
         // the fragment was most likely cancelled
         return;
       }
+      fragmentExecutor.setFragmentScheduler(fragmentScheduler);
       runningFragments.put(fragmentHandle, fragmentExecutor);
       executor.execute(new SelfCleaningRunnable(fragmentExecutor) {
         @Override
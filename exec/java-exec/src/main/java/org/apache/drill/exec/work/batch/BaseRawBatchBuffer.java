@@ -136,9 +136,7 @@ public abstract class BaseRawBatchBuffer<T> implements RawBatchBuffer {
         context.getExecutorState().fail(e);
         continue;
       }
-      if (batch.getBody() != null) {
-        batch.getBody().release();
-      }
+      batch.release();
     }
   }
 
@@ -167,7 +165,12 @@ public abstract class BaseRawBatchBuffer<T> implements RawBatchBuffer {
 
       // if we didn't get a batch, block on waiting for queue.
       if (b == null && (!isTerminated() || !bufferQueue.isEmpty())) {
-        b = bufferQueue.take();
+        context.getExecutorState().beginBlocking();
+        try {
+          b = bufferQueue.take();
+        } finally {
+          context.getExecutorState().endBlocking();
+        }
       }
     } catch (final InterruptedException e) {
 
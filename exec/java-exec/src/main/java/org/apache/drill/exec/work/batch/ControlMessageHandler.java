@@ -44,6 +44,7 @@ import org.apache.drill.exec.rpc.control.ControlRpcConfig;
 import org.apache.drill.exec.rpc.control.CustomHandlerRegistry;
 import org.apache.drill.exec.server.DrillbitContext;
 import org.apache.drill.exec.work.WorkManager.WorkerBee;
+import org.apache.drill.exec.work.filter.RuntimeFilterHandler;
 import org.apache.drill.exec.work.foreman.Foreman;
 import org.apache.drill.exec.work.fragment.FragmentExecutor;
 import org.apache.drill.exec.work.fragment.FragmentManager;
@@ -59,6 +60,7 @@ public class ControlMessageHandler implements RequestHandler<ControlConnection>
 
   public ControlMessageHandler(final WorkerBee bee) {
     this.bee = bee;
+    RuntimeFilterHandler.register(handlerRegistry, bee);
   }
 
   @Override
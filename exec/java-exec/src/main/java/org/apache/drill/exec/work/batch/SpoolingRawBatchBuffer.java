@@ -17,7 +17,6 @@
  */
 package org.apache.drill.exec.work.batch;
 
-import io.netty.buffer.ByteBuf;
 import io.netty.buffer.DrillBuf;
 
 import java.io.EOFException;
@@ -227,10 +226,7 @@ public class SpoolingRawBatchBuffer extends BaseRawBatchBuffer<SpoolingRawBatchB
       outOfMemory.set(true);
     }
 
-    DrillBuf body = batch.getBody();
-    if (body != null) {
-      currentSizeInMemory -= body.capacity();
-    }
+    currentSizeInMemory -= batch.getByteCount();
     if (isCurrentlySpooling() && currentSizeInMemory < threshold * STOP_SPOOLING_FRACTION) {
       logger.debug("buffer size {} less than {}x threshold. Stop spooling.", currentSizeInMemory, STOP_SPOOLING_FRACTION);
       pauseSpooling();
@@ -366,11 +362,7 @@ public class SpoolingRawBatchBuffer extends BaseRawBatchBuffer<SpoolingRawBatchB
     }
 
     public long getBodySize() {
-      if (batch.getBody() == null) {
-        return 0;
-      }
-      assert batch.getBody().readableBytes() >= 0;
-      return batch.getBody().readableBytes();
+      return batch.getByteCount();
     }
 
     public void writeToStream(FSDataOutputStream stream) throws IOException {
@@ -381,14 +373,10 @@ public class SpoolingRawBatchBuffer extends BaseRawBatchBuffer<SpoolingRawBatchB
       logger.debug("Writing check value {} at position {}", check, start);
       stream.writeLong(check);
       batch.getHeader().writeDelimitedTo(stream);
-      ByteBuf buf = batch.getBody();
-      if (buf != null) {
-        bodyLength = buf.capacity();
-      } else {
-        bodyLength = 0;
-      }
-      if (bodyLength > 0) {
-        buf.getBytes(0, stream, bodyLength);
+      // the buffers of the batch are written as a single body, read back into a single buffer
+      bodyLength = (int) batch.getByteCount();
+      for (DrillBuf buffer : batch.getBuffers()) {
+        buffer.getBytes(buffer.readerIndex(), stream, buffer.readableBytes());
       }
       stream.hsync();
       FileStatus status = fs.getFileStatus(path);
@@ -398,9 +386,7 @@ public class SpoolingRawBatchBuffer extends BaseRawBatchBuffer<SpoolingRawBatchB
       latch.countDown();
       long t = watch.elapsed(TimeUnit.MICROSECONDS);
       logger.debug("Took {} us to spool {} to disk. Rate {} mb/s", t, bodyLength, bodyLength / t);
-      if (buf != null) {
-        buf.release();
-      }
+      batch.release();
     }
 
     public void readFromStream() throws IOException, InterruptedException {
@@ -445,7 +431,7 @@ public class SpoolingRawBatchBuffer extends BaseRawBatchBuffer<SpoolingRawBatchB
           if (tryAgain) {
             // we had a premature exit, release batch memory so we don't leak it.
             if (batch != null) {
-              batch.getBody().release();
+              batch.release();
             }
           }
         }
@@ -20,6 +20,7 @@ package org.apache.drill.exec.work.batch;
 import java.io.IOException;
 import java.util.concurrent.LinkedBlockingDeque;
 
+import org.apache.drill.exec.ExecConstants;
 import org.apache.drill.exec.ops.FragmentContext;
 import org.apache.drill.exec.record.RawFragmentBatch;
 
@@ -30,12 +31,15 @@ public class UnlimitedRawBatchBuffer extends BaseRawBatchBuffer<RawFragmentBatch
 
   private final int softlimit;
   private final int startlimit;
+  // batches in flight granted to each sender, 0 if not using credit-based flow control
+  private final int credit;
 
   public UnlimitedRawBatchBuffer(FragmentContext context, int fragmentCount) {
     super(context, fragmentCount);
     this.softlimit = bufferSizePerSocket * fragmentCount;
     this.startlimit = Math.max(softlimit/2, 1);
-    logger.trace("softLimit: {}, startLimit: {}", softlimit, startlimit);
+    this.credit = (int) context.getOptions().getOption(ExecConstants.DATA_CREDITS_PER_SENDER_VALIDATOR);
+    logger.trace("softLimit: {}, startLimit: {}, credit: {}", softlimit, startlimit, credit);
     this.bufferQueue = new UnlimitedBufferQueue();
   }
 
@@ -51,7 +55,7 @@ public class UnlimitedRawBatchBuffer extends BaseRawBatchBuffer<RawFragmentBatch
     public RawFragmentBatch poll() throws IOException {
       RawFragmentBatch batch = buffer.poll();
       if (batch != null) {
-        batch.sendOk();
+        batch.sendOk(credit);
       }
       return batch;
     }
@@ -59,7 +63,7 @@ public class UnlimitedRawBatchBuffer extends BaseRawBatchBuffer<RawFragmentBatch
     @Override
     public RawFragmentBatch take() throws IOException, InterruptedException {
       RawFragmentBatch batch = buffer.take();
-      batch.sendOk();
+      batch.sendOk(credit);
       return batch;
     }
 
@@ -84,8 +88,12 @@ public class UnlimitedRawBatchBuffer extends BaseRawBatchBuffer<RawFragmentBatch
     }
   }
 
+  /**
+   * Without credits, the batch is acked on arrival while the buffer is below its soft limit. With credits, the ack
+   * is sent once the batch is consumed, so that each sender has at most its credit of batches buffered here.
+   */
   protected void enqueueInner(final RawFragmentBatch batch) throws IOException {
-    if (bufferQueue.size() < softlimit) {
+    if (credit == 0 && bufferQueue.size() < softlimit) {
       batch.sendOk();
     }
     bufferQueue.add(batch);
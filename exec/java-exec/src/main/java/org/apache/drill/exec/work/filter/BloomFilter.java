@@ -0,0 +1,153 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.drill.exec.work.filter;
+
+import com.google.common.base.Preconditions;
+import io.netty.buffer.DrillBuf;
+import org.apache.drill.exec.expr.fn.impl.XXHash;
+import org.apache.drill.exec.memory.BufferAllocator;
+
+/**
+ * A Bloom filter over the hash values of join keys, used as a runtime filter: The build side
+ * of the hash join inserts the hash value of each of its keys, and probe rows whose key hash
+ * was never inserted can be dropped early.
+ * <p>
+ * This is a "split block" Bloom filter: the filter is made of 32 byte blocks, and each
+ * hash value sets (or tests) 8 bits, all within a single block, so every operation touches
+ * a single cache line. Filters of the same size can be merged (see {@link #or(BloomFilter)}),
+ * e.g. to combine the filters built by several minor fragments.
+ */
+public class BloomFilter implements AutoCloseable {
+  // Bytes in each block; each block is made of 8 words of 32 bits
+  private static final int BYTES_PER_BLOCK = 32;
+
+  private static final int MIN_NUM_BYTES = BYTES_PER_BLOCK;
+
+  // Largest filter size (bytes); must be a power of 2
+  public static final int MAX_NUM_BYTES = 1 << 30;
+
+  // Odd constants used to derive 8 bit positions (one per word) from a single hash value
+  private static final int[] SALT = {0x47b6137b, 0x44974d91, 0x8824ad5b, 0xa2b7289d,
+      0x705495c7, 0x2df1424b, 0x9efc4947, 0x5c6bfb31};
+
+  private final DrillBuf content;
+
+  private final int numBytes;
+
+  // The number of blocks - 1 (the number of blocks is a power of 2)
+  private final int blockMask;
+
+  /**
+   * @param allocator the allocator for the filter's memory
+   * @param numBytes the size of the filter; rounded up to a power of 2, at least 32 bytes
+   */
+  public BloomFilter(BufferAllocator allocator, int numBytes) {
+    Preconditions.checkArgument(numBytes > 0 && numBytes <= MAX_NUM_BYTES, "Illegal Bloom filter size: %s", numBytes);
+    this.numBytes = Math.max(MIN_NUM_BYTES, Integer.highestOneBit(numBytes - 1) << 1);
+    blockMask = this.numBytes / BYTES_PER_BLOCK - 1;
+    content = allocator.buffer(this.numBytes);
+    content.setZero(0, this.numBytes);
+  }
+
+  /**
+   * The filter size (bytes) needed for the given number of distinct values and false positive probability
+   *
+   * @param ndv the expected number of distinct values to be inserted
+   * @param fpp the desired false positive probability
+   * @return the filter size, a power of 2 (not above {@link #MAX_NUM_BYTES})
+   */
+  public static int optimalNumOfBytes(long ndv, double fpp) {
+    Preconditions.checkArgument(fpp > 0.0 && fpp < 1.0, "Illegal false positive probability: %s", fpp);
+    final double bits = -8 * Math.max(ndv, 1) / Math.log(1 - Math.pow(fpp, 1.0 / 8));
+    final long bytes = (long) Math.ceil(bits / 8);
+    if (bytes >= MAX_NUM_BYTES) {
+      return MAX_NUM_BYTES;
+    }
+    return Math.max(MIN_NUM_BYTES, Integer.highestOneBit((int) bytes - 1) << 1);
+  }
+
+  /**
+   * Extend the 32 bit hash value of a join key (as computed by the hash table) into
+   * a well mixed 64 bit value, to be used with {@link #insert(long)} and {@link #find(long)}
+   *
+   * @param hash32 a 32 bit hash value
+   * @return a 64 bit hash value
+   */
+  public static long hash64(int hash32) {
+    return XXHash.hash64Internal(hash32, 0);
+  }
+
+  public void insert(long hash64) {
+    final int blockOffset = ((int) (hash64 >>> 32) & blockMask) * BYTES_PER_BLOCK;
+    final int key = (int) hash64;
+    for (int i = 0; i < SALT.length; i++) {
+      final int offset = blockOffset + i * 4;
+      content.setInt(offset, content.getInt(offset) | bitMask(key, i));
+    }
+  }
+
+  /**
+   * @param hash64 the hash value to look for
+   * @return false if this hash value was definitely never inserted; true if it may have been
+   */
+  public boolean find(long hash64) {
+    final int blockOffset = ((int) (hash64 >>> 32) & blockMask) * BYTES_PER_BLOCK;
+    final int key = (int) hash64;
+    for (int i = 0; i < SALT.length; i++) {
+      final int mask = bitMask(key, i);
+      if ((content.getInt(blockOffset + i * 4) & mask) != mask) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static int bitMask(int key, int i) {
+    return 1 << ((key * SALT[i]) >>> 27);
+  }
+
+  /**
+   * Merge another filter (of the same size) into this one; the result contains the values
+   * inserted into either of the two filters.
+   *
+   * @param other the other filter
+   */
+  public void or(BloomFilter other) {
+    Preconditions.checkArgument(numBytes == other.numBytes,
+        "Can not merge Bloom filters of different sizes: %s and %s", numBytes, other.numBytes);
+    for (int offset = 0; offset < numBytes; offset += 8) {
+      content.setLong(offset, content.getLong(offset) | other.content.getLong(offset));
+    }
+  }
+
+  public int getNumBytes() {
+    return numBytes;
+  }
+
+  /**
+   * @return the buffer holding the filter bits (e.g. to send the filter to another fragment)
+   */
+  public DrillBuf getContent() {
+    return content;
+  }
+
+  @Override
+  public void close() {
+    content.release();
+  }
+}
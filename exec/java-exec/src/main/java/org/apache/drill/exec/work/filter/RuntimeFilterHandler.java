@@ -0,0 +1,102 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.drill.exec.work.filter;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.DrillBuf;
+
+import org.apache.drill.exec.ops.ExecutorFragmentContext;
+import org.apache.drill.exec.ops.FragmentContext;
+import org.apache.drill.exec.proto.ExecProtos.FragmentHandle;
+import org.apache.drill.exec.rpc.UserRpcException;
+import org.apache.drill.exec.rpc.control.Controller.CustomMessageHandler;
+import org.apache.drill.exec.rpc.control.Controller.CustomResponse;
+import org.apache.drill.exec.rpc.control.CustomHandlerRegistry;
+import org.apache.drill.exec.work.WorkManager.WorkerBee;
+import org.apache.drill.exec.work.foreman.Foreman;
+import org.apache.drill.exec.work.fragment.FragmentExecutor;
+import org.apache.drill.exec.work.fragment.FragmentManager;
+
+/**
+ * Handles the runtime filter messages received by a Drillbit: hands the filters of the hash join fragments
+ * to the {@link RuntimeFilterRouter} of their Foreman, and the merged filters to the
+ * {@link RuntimeFilterSink} of their probe side scan fragments.
+ */
+public class RuntimeFilterHandler {
+  private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(RuntimeFilterHandler.class);
+
+  private static final CustomResponse<Boolean> OK = new CustomResponse<Boolean>() {
+    @Override
+    public Boolean getMessage() {
+      return Boolean.TRUE;
+    }
+
+    @Override
+    public ByteBuf[] getBodies() {
+      return null;
+    }
+  };
+
+  public static void register(CustomHandlerRegistry registry, final WorkerBee bee) {
+    registry.registerCustomHandler(RuntimeFilterMessage.BUILD_SIDE_FILTER,
+        new CustomMessageHandler<RuntimeFilterMessage, Boolean>() {
+          @Override
+          public CustomResponse<Boolean> onMessage(RuntimeFilterMessage message, DrillBuf dBody)
+              throws UserRpcException {
+            final Foreman foreman = bee.getForemanForQueryId(message.getQueryId());
+            if (foreman != null && foreman.getRuntimeFilterRouter() != null) {
+              foreman.getRuntimeFilterRouter().add(message, dBody);
+            } else {
+              logger.debug("Dropping {}: query not running on this node", message);
+            }
+            return OK;
+          }
+        }, RuntimeFilterMessage.MESSAGE_SERDE, RuntimeFilterMessage.RESPONSE_SERDE);
+
+    registry.registerCustomHandler(RuntimeFilterMessage.PROBE_SIDE_FILTER,
+        new CustomMessageHandler<RuntimeFilterMessage, Boolean>() {
+          @Override
+          public CustomResponse<Boolean> onMessage(RuntimeFilterMessage message, DrillBuf dBody)
+              throws UserRpcException {
+            final ExecutorFragmentContext context = getFragmentContext(bee, message.getHandle());
+            if (context != null) {
+              context.getRuntimeFilterSink().add(message.getFilterId(), dBody);
+            } else {
+              logger.debug("Dropping {}: fragment not running on this node", message);
+            }
+            return OK;
+          }
+        }, RuntimeFilterMessage.MESSAGE_SERDE, RuntimeFilterMessage.RESPONSE_SERDE);
+  }
+
+  private static ExecutorFragmentContext getFragmentContext(WorkerBee bee, FragmentHandle handle) {
+    final FragmentExecutor runner = bee.getFragmentRunner(handle);
+    if (runner != null) {
+      return runner.getContext();
+    }
+    // An intermediate fragment not yet running
+    final FragmentManager manager = bee.getContext().getWorkBus().getFragmentManager(handle);
+    if (manager != null) {
+      final FragmentContext context = manager.getFragmentContext();
+      if (context instanceof ExecutorFragmentContext) {
+        return (ExecutorFragmentContext) context;
+      }
+    }
+    return null;
+  }
+}
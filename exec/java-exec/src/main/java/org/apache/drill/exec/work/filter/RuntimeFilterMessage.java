@@ -0,0 +1,153 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.drill.exec.work.filter;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+
+import org.apache.drill.exec.proto.CoordinationProtos.DrillbitEndpoint;
+import org.apache.drill.exec.proto.ExecProtos.FragmentHandle;
+import org.apache.drill.exec.proto.UserBitShared.QueryId;
+import org.apache.drill.exec.proto.helper.QueryIdHelper;
+import org.apache.drill.exec.rpc.RpcException;
+import org.apache.drill.exec.rpc.RpcOutcomeListener;
+import org.apache.drill.exec.rpc.control.ControlTunnel.JacksonSerDe;
+import org.apache.drill.exec.rpc.control.Controller;
+import org.apache.drill.exec.rpc.control.Controller.CustomSerDe;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * A runtime filter sent between Drillbits as a custom control message: The filter bits (if any) are the
+ * body of the message. The fragment is the sender for a {@link #BUILD_SIDE_FILTER} and the receiver for a
+ * {@link #PROBE_SIDE_FILTER}. A message with no body tells there is no filter, so no row is to be dropped.
+ */
+public class RuntimeFilterMessage {
+  private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(RuntimeFilterMessage.class);
+
+  // Custom message type: the filter of a hash join minor fragment, sent to the Foreman
+  public static final int BUILD_SIDE_FILTER = 1;
+  // Custom message type: the filter merged by the Foreman, sent to each probe side scan minor fragment
+  public static final int PROBE_SIDE_FILTER = 2;
+
+  static final CustomSerDe<RuntimeFilterMessage> MESSAGE_SERDE = new JacksonSerDe<>(RuntimeFilterMessage.class);
+  static final CustomSerDe<Boolean> RESPONSE_SERDE = new JacksonSerDe<>(Boolean.class);
+
+  private final long queryIdPart1;
+  private final long queryIdPart2;
+  private final int majorFragmentId;
+  private final int minorFragmentId;
+  private final int filterId;
+
+  @JsonCreator
+  public RuntimeFilterMessage(@JsonProperty("queryIdPart1") long queryIdPart1,
+                              @JsonProperty("queryIdPart2") long queryIdPart2,
+                              @JsonProperty("majorFragmentId") int majorFragmentId,
+                              @JsonProperty("minorFragmentId") int minorFragmentId,
+                              @JsonProperty("filterId") int filterId) {
+    this.queryIdPart1 = queryIdPart1;
+    this.queryIdPart2 = queryIdPart2;
+    this.majorFragmentId = majorFragmentId;
+    this.minorFragmentId = minorFragmentId;
+    this.filterId = filterId;
+  }
+
+  public RuntimeFilterMessage(FragmentHandle handle, int filterId) {
+    this(handle.getQueryId().getPart1(), handle.getQueryId().getPart2(), handle.getMajorFragmentId(),
+        handle.getMinorFragmentId(), filterId);
+  }
+
+  public long getQueryIdPart1() {
+    return queryIdPart1;
+  }
+
+  public long getQueryIdPart2() {
+    return queryIdPart2;
+  }
+
+  public int getMajorFragmentId() {
+    return majorFragmentId;
+  }
+
+  public int getMinorFragmentId() {
+    return minorFragmentId;
+  }
+
+  public int getFilterId() {
+    return filterId;
+  }
+
+  @JsonIgnore
+  public QueryId getQueryId() {
+    return QueryId.newBuilder().setPart1(queryIdPart1).setPart2(queryIdPart2).build();
+  }
+
+  @JsonIgnore
+  public FragmentHandle getHandle() {
+    return FragmentHandle.newBuilder()
+        .setQueryId(getQueryId())
+        .setMajorFragmentId(majorFragmentId)
+        .setMinorFragmentId(minorFragmentId)
+        .build();
+  }
+
+  /**
+   * Send this message; a failure is only logged, as the receiving fragments then pass all their rows
+   * once done waiting.
+   *
+   * @param controller the controller of this Drillbit
+   * @param endpoint the receiving Drillbit
+   * @param messageType {@link #BUILD_SIDE_FILTER} or {@link #PROBE_SIDE_FILTER}
+   * @param content the filter bits, or null if there is no filter
+   */
+  public void send(Controller controller, DrillbitEndpoint endpoint, int messageType, byte[] content) {
+    final RpcOutcomeListener<Boolean> listener = new RpcOutcomeListener<Boolean>() {
+      @Override
+      public void failed(RpcException ex) {
+        logger.warn("Failure while sending runtime filter {} of fragment {}", filterId,
+            QueryIdHelper.getQueryIdentifier(getHandle()), ex);
+      }
+
+      @Override
+      public void success(Boolean value, ByteBuf buffer) {
+      }
+
+      @Override
+      public void interrupted(InterruptedException e) {
+        logger.warn("Interrupted while sending runtime filter {} of fragment {}", filterId,
+            QueryIdHelper.getQueryIdentifier(getHandle()), e);
+      }
+    };
+    // The bits are sent from a heap buffer, held by no allocator, so that the sender may be closed before the send completes
+    if (content == null) {
+      controller.getTunnel(endpoint).getCustomTunnel(messageType, MESSAGE_SERDE, RESPONSE_SERDE)
+          .send(listener, this);
+    } else {
+      controller.getTunnel(endpoint).getCustomTunnel(messageType, MESSAGE_SERDE, RESPONSE_SERDE)
+          .send(listener, this, Unpooled.wrappedBuffer(content));
+    }
+  }
+
+  @Override
+  public String toString() {
+    return "RuntimeFilterMessage [fragment=" + QueryIdHelper.getQueryIdentifier(getHandle())
+        + ", filterId=" + filterId + "]";
+  }
+}
@@ -0,0 +1,156 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.drill.exec.work.filter;
+
+import io.netty.buffer.DrillBuf;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.drill.exec.physical.PhysicalPlan;
+import org.apache.drill.exec.physical.base.PhysicalOperator;
+import org.apache.drill.exec.physical.config.HashJoinPOP;
+import org.apache.drill.exec.physical.config.RuntimeFilterPOP;
+import org.apache.drill.exec.proto.BitControl.PlanFragment;
+import org.apache.drill.exec.rpc.control.Controller;
+
+import com.google.common.collect.Lists;
+
+/**
+ * Merges the runtime filters of a query at the Foreman: Each minor fragment of a hash join with a runtime
+ * filter sends the filter of its build side keys; once all of them are received, their union is sent to
+ * every minor fragment of the probe side scan. If any of them has no filter (e.g. its key types do not
+ * match) the probe side scans are told at once there is no filter.
+ */
+public class RuntimeFilterRouter {
+  private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(RuntimeFilterRouter.class);
+
+  private static class Filter {
+    private final int filterId;
+    private final int buildMajorFragmentId;
+    private final int buildFragmentCount;
+    private final List<PlanFragment> probeFragments;
+    // The minor fragments of the hash join received from so far
+    private final Set<Integer> received = new HashSet<>();
+    // The union of the filters received so far
+    private byte[] content;
+    private boolean sent;
+
+    private Filter(int filterId, int buildMajorFragmentId, int buildFragmentCount, List<PlanFragment> probeFragments) {
+      this.filterId = filterId;
+      this.buildMajorFragmentId = buildMajorFragmentId;
+      this.buildFragmentCount = buildFragmentCount;
+      this.probeFragments = probeFragments;
+    }
+  }
+
+  private final Controller controller;
+  private final Map<Integer, Filter> filters;
+
+  private RuntimeFilterRouter(Controller controller, Map<Integer, Filter> filters) {
+    this.controller = controller;
+    this.filters = filters;
+  }
+
+  /**
+   * @param controller the controller of the Foreman's Drillbit
+   * @param plan the physical plan of the query
+   * @param fragments all the minor fragments of the query
+   * @return the router for the runtime filters of the plan, or null if it has none
+   */
+  public static RuntimeFilterRouter create(Controller controller, PhysicalPlan plan, List<PlanFragment> fragments) {
+    // The major fragment of an operator is the upper half of its id
+    final Map<Integer, Integer> buildMajorFragments = new HashMap<>();
+    final Map<Integer, Integer> probeMajorFragments = new HashMap<>();
+    for (PhysicalOperator op : plan.getSortedOperators()) {
+      if (op instanceof HashJoinPOP && ((HashJoinPOP) op).getRuntimeFilterId() > 0) {
+        buildMajorFragments.put(((HashJoinPOP) op).getRuntimeFilterId(), op.getOperatorId() >> 16);
+      } else if (op instanceof RuntimeFilterPOP) {
+        probeMajorFragments.put(((RuntimeFilterPOP) op).getFilterId(), op.getOperatorId() >> 16);
+      }
+    }
+
+    final Map<Integer, Filter> filters = new HashMap<>();
+    for (Map.Entry<Integer, Integer> build : buildMajorFragments.entrySet()) {
+      final Integer probeMajorFragmentId = probeMajorFragments.get(build.getKey());
+      if (probeMajorFragmentId == null) {
+        continue;
+      }
+      int buildFragmentCount = 0;
+      final List<PlanFragment> probeFragments = Lists.newArrayList();
+      for (PlanFragment fragment : fragments) {
+        if (fragment.getHandle().getMajorFragmentId() == build.getValue()) {
+          buildFragmentCount++;
+        } else if (fragment.getHandle().getMajorFragmentId() == probeMajorFragmentId) {
+          probeFragments.add(fragment);
+        }
+      }
+      filters.put(build.getKey(), new Filter(build.getKey(), build.getValue(), buildFragmentCount, probeFragments));
+    }
+    return filters.isEmpty() ? null : new RuntimeFilterRouter(controller, filters);
+  }
+
+  /**
+   * Add the filter of a hash join minor fragment.
+   *
+   * @param message the sender and filter id
+   * @param content the filter bits, or null if there is no filter
+   */
+  public synchronized void add(RuntimeFilterMessage message, DrillBuf content) {
+    final Filter filter = filters.get(message.getFilterId());
+    if (filter == null || filter.sent || message.getMajorFragmentId() != filter.buildMajorFragmentId
+        || !filter.received.add(message.getMinorFragmentId())) {
+      logger.debug("Dropping {}", message);
+      return;
+    }
+    if (content == null || content.readableBytes() == 0) {
+      send(filter, null);
+      return;
+    }
+
+    final byte[] bytes = new byte[content.readableBytes()];
+    content.getBytes(content.readerIndex(), bytes);
+    if (filter.content == null) {
+      filter.content = bytes;
+    } else if (filter.content.length != bytes.length) {
+      logger.warn("Runtime filter {} is not used: filters of different sizes {} and {}", filter.filterId,
+          filter.content.length, bytes.length);
+      send(filter, null);
+      return;
+    } else {
+      for (int i = 0; i < bytes.length; i++) {
+        filter.content[i] |= bytes[i];
+      }
+    }
+    if (filter.received.size() == filter.buildFragmentCount) {
+      send(filter, filter.content);
+    }
+  }
+
+  private void send(Filter filter, byte[] content) {
+    filter.sent = true;
+    filter.content = null;
+    for (PlanFragment fragment : filter.probeFragments) {
+      new RuntimeFilterMessage(fragment.getHandle(), filter.filterId)
+          .send(controller, fragment.getAssignment(), RuntimeFilterMessage.PROBE_SIDE_FILTER, content);
+    }
+  }
+}
@@ -0,0 +1,125 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.drill.exec.work.filter;
+
+import io.netty.buffer.DrillBuf;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.drill.exec.exception.OutOfMemoryException;
+import org.apache.drill.exec.memory.BufferAllocator;
+
+/**
+ * The runtime filters received by a fragment (from the Foreman, see {@link RuntimeFilterRouter}), to be used
+ * by its runtime filter operators. Filters arrive on an RPC thread, while the operators wait for them on the
+ * fragment thread.
+ */
+public class RuntimeFilterSink implements AutoCloseable {
+  private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(RuntimeFilterSink.class);
+
+  private final BufferAllocator allocator;
+  // The filters received, by filter id; null if there is no filter (nothing is to be dropped)
+  private final Map<Integer, BloomFilter> filters = new HashMap<>();
+  private boolean closed;
+
+  /**
+   * @param allocator the allocator for the filters (the fragment's)
+   */
+  public RuntimeFilterSink(BufferAllocator allocator) {
+    this.allocator = allocator;
+  }
+
+  /**
+   * Add a filter received; only the first one with a given id is kept.
+   *
+   * @param filterId the filter id
+   * @param content the filter bits (copied), or null if there is no filter
+   */
+  public synchronized void add(int filterId, DrillBuf content) {
+    if (closed || filters.containsKey(filterId)) {
+      return;
+    }
+    BloomFilter filter = null;
+    if (content != null && content.readableBytes() > 0) {
+      try {
+        filter = new BloomFilter(allocator, content.readableBytes());
+      } catch (OutOfMemoryException | IllegalArgumentException e) {
+        logger.warn("Runtime filter {} of {} bytes is dropped", filterId, content.readableBytes(), e);
+      }
+      if (filter != null && filter.getNumBytes() != content.readableBytes()) {
+        logger.warn("Runtime filter {} is dropped: illegal size {}", filterId, content.readableBytes());
+        filter.close();
+        filter = null;
+      }
+      if (filter != null) {
+        filter.getContent().setBytes(0, content, content.readerIndex(), filter.getNumBytes());
+      }
+    }
+    filters.put(filterId, filter);
+    notifyAll();
+  }
+
+  /**
+   * Wait until the filter with the given id is received (or this sink is closed).
+   *
+   * @param filterId the filter id
+   * @param timeout the most time to wait (ms)
+   * @return true if the filter was received
+   * @throws InterruptedException if interrupted while waiting
+   */
+  public synchronized boolean await(int filterId, long timeout) throws InterruptedException {
+    final long end = System.currentTimeMillis() + timeout;
+    while (!closed && !filters.containsKey(filterId)) {
+      final long remaining = end - System.currentTimeMillis();
+      if (remaining <= 0) {
+        return false;
+      }
+      wait(remaining);
+    }
+    return filters.containsKey(filterId);
+  }
+
+  /**
+   * @param filterId the filter id
+   * @return true if the filter with this id was received
+   */
+  public synchronized boolean hasFilter(int filterId) {
+    return filters.containsKey(filterId);
+  }
+
+  /**
+   * @param filterId the filter id
+   * @return the filter with this id, or null if it was not received or there is no filter
+   */
+  public synchronized BloomFilter getFilter(int filterId) {
+    return filters.get(filterId);
+  }
+
+  @Override
+  public synchronized void close() {
+    closed = true;
+    for (BloomFilter filter : filters.values()) {
+      if (filter != null) {
+        filter.close();
+      }
+    }
+    filters.clear();
+    notifyAll();
+  }
+}
@@ -61,6 +61,7 @@ import org.apache.drill.exec.testing.ControlsInjectorFactory;
 import org.apache.drill.exec.util.Pointer;
 import org.apache.drill.exec.work.QueryWorkUnit;
 import org.apache.drill.exec.work.WorkManager.WorkerBee;
+import org.apache.drill.exec.work.filter.RuntimeFilterRouter;
 import org.apache.drill.exec.work.foreman.rm.QueryQueue.QueueTimeoutException;
 import org.apache.drill.exec.work.foreman.rm.QueryQueue.QueryQueueException;
 import org.apache.drill.exec.work.foreman.rm.QueryResourceManager;
@@ -116,6 +117,7 @@ public class Foreman implements Runnable {
   private final ChannelFuture closeFuture;
   private final FragmentsRunner fragmentsRunner;
   private final QueryStateProcessor queryStateProcessor;
+  private volatile RuntimeFilterRouter runtimeFilterRouter; // null if the plan has no runtime filters
 
   private String queryText;
 
@@ -188,6 +190,15 @@ public class Foreman implements Runnable {
     return queryManager;
   }
 
+  /**
+   * Get the router merging the runtime filters of the query.
+   *
+   * @return the router, or null if the query has no runtime filters
+   */
+  public RuntimeFilterRouter getRuntimeFilterRouter() {
+    return runtimeFilterRouter;
+  }
+
   /**
    * Cancel the query (move query in cancellation requested state).
    * Query execution will be canceled once possible.
@@ -405,6 +416,10 @@ public class Foreman implements Runnable {
     work.applyPlan(drillbitContext.getPlanReader());
     logWorkUnit(work);
 
+    final List<PlanFragment> fragments = Lists.newArrayList(work.getFragments());
+    fragments.add(work.getRootFragment());
+    runtimeFilterRouter = RuntimeFilterRouter.create(drillbitContext.getController(), plan, fragments);
+
     fragmentsRunner.setFragmentsInfo(work.getFragments(), work.getRootFragment(), work.getRootOperator());
 
     startQueryProcessing();
@@ -722,6 +737,20 @@ public class Foreman implements Runnable {
       // remove the channel disconnected listener (doesn't throw)
       closeFuture.removeListener(closeListener);
 
+      // finish the work of a successful query, e.g. move its output in place; a failure fails the query
+      for (AutoCloseable action : queryContext.getCompletionActions()) {
+        if (resultState == QueryState.COMPLETED) {
+          suppressingClose(action);
+        }
+      }
+      for (AutoCloseable action : queryContext.getCleanupActions()) {
+        try {
+          action.close();
+        } catch (Exception e) {
+          logger.warn("Failure while cleaning up after query {}", queryIdString, e);
+        }
+      }
+
       // log the query summary
       logQuerySummary();
 
@@ -0,0 +1,535 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.drill.exec.work.foreman.rm;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.apache.drill.common.config.DrillConfig;
+import org.apache.drill.exec.ExecConstants;
+import org.apache.drill.exec.coord.ClusterCoordinator;
+import org.apache.drill.exec.coord.DistributedSemaphore;
+import org.apache.drill.exec.coord.DistributedSemaphore.DistributedLease;
+import org.apache.drill.exec.proto.UserBitShared.QueryId;
+import org.apache.drill.exec.proto.helper.QueryIdHelper;
+import org.apache.drill.exec.server.DrillbitContext;
+import org.apache.drill.exec.server.options.OptionSet;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.typesafe.config.Config;
+
+/**
+ * Query queue which admits queries by the memory they were planned with
+ * rather than by a small/large split on plan cost. Each node's query memory
+ * (less the reserve) is divided into units of <tt>unit_size</tt> bytes and
+ * shared among any number of named queues by weight. A query waits until
+ * its queue has enough units free for the memory the query will use on its
+ * busiest node.
+ * <p>
+ * Each named queue is backed by a cluster-wide semaphore with one lease per
+ * unit. Rather than going to Zookeeper for every query, a Drillbit takes
+ * <tt>lease_batch</tt> units at a time and keeps units released by its own
+ * queries for later queries. Idle units go back to the cluster after
+ * <tt>lease_idle_ms</tt>, or immediately when some local query is waiting
+ * for units, so that no Drillbit holds on to memory others need.
+ * <p>
+ * Configuration is via config parameters, the queue to run on is chosen
+ * per session with the <tt>exec.queue.name</tt> option:
+ * <dl>
+ * <dt><tt>drill.exec.queue.memory.enable</tt></dt>
+ * <dd>Set to true to use this queue in place of the embedded or
+ * distributed queue.</dd>
+ * <dt><tt>drill.exec.queue.memory.queues</tt></dt>
+ * <dd>List of queues, each with a <tt>name</tt>, a <tt>weight</tt> giving
+ * its share of memory and a <tt>max_queries_per_user</tt> limit
+ * (0 for no limit.) The first queue is used when no queue is named.</dd>
+ * <dt><tt>drill.exec.queue.memory.max_query_share</tt></dt>
+ * <dd>Fraction of node memory planned for a large query. Small queries,
+ * as given by <tt>exec.queue.threshold</tt>, get the share divided by
+ * <tt>exec.queue.memory_ratio</tt>.</dd>
+ * <dt><tt>drill.exec.queue.memory.timeout_ms</tt></dt>
+ * <dd>The maximum time a query will wait in the queue before failing.</dd>
+ * </dl>
+ */
+
+public class MemoryQueryQueue implements QueryQueue {
+  private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(MemoryQueryQueue.class);
+
+  public static final String MEMORY_QUEUE = "drill.exec.queue.memory";
+  public static final String ENABLED = MEMORY_QUEUE + ".enable";
+  public static final String QUEUES = MEMORY_QUEUE + ".queues";
+  public static final String UNIT_SIZE = MEMORY_QUEUE + ".unit_size";
+  public static final String MAX_QUERY_SHARE = MEMORY_QUEUE + ".max_query_share";
+  public static final String LEASE_BATCH = MEMORY_QUEUE + ".lease_batch";
+  public static final String LEASE_IDLE_MS = MEMORY_QUEUE + ".lease_idle_ms";
+  public static final String TIMEOUT_MS = MEMORY_QUEUE + ".timeout_ms";
+
+  public class MemoryQueueLease implements QueueLease {
+
+    private final QueryId queryId;
+    private final NamedQueue queue;
+    private final String userName;
+    private final List<DistributedLease> units;
+    private final long queryMemory;
+    private final boolean localAdmit;
+    private boolean released;
+
+    public MemoryQueueLease(QueryId queryId, NamedQueue queue, String userName,
+        List<DistributedLease> units, long queryMemory, boolean localAdmit) {
+      this.queryId = queryId;
+      this.queue = queue;
+      this.userName = userName;
+      this.units = units;
+      this.queryMemory = queryMemory;
+      this.localAdmit = localAdmit;
+    }
+
+    @Override
+    public String toString() {
+      return String.format("Lease for %s queue to query %s",
+          queue.name, QueryIdHelper.getQueryId(queryId));
+    }
+
+    @Override
+    public long queryMemoryPerNode() { return queryMemory; }
+
+    @Override
+    public void release() {
+      if (released) {
+        return;
+      }
+      released = true;
+      queue.release(userName, units);
+    }
+
+    /**
+     * The queue name as recorded in the query profile: the queue along with
+     * the admission decision.
+     */
+
+    @Override
+    public String queueName() {
+      return String.format("%s (%,d MB per node, %d of %d units, %s)",
+          queue.name, queryMemory / ONE_MB, units.size(), queue.capacity,
+          localAdmit ? "local lease" : "cluster lease");
+    }
+
+    @VisibleForTesting
+    String plainQueueName() { return queue.name; }
+
+    @VisibleForTesting
+    int unitCount() { return units.size(); }
+
+    @VisibleForTesting
+    boolean isLocalAdmit() { return localAdmit; }
+  }
+
+  /**
+   * One named queue: its share of the memory budget, the units this
+   * Drillbit holds but does not use, and the running queries per user.
+   */
+
+  @VisibleForTesting
+  class NamedQueue {
+    private final String name;
+    private final double weight;
+    private final int maxQueriesPerUser;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition userDone = lock.newCondition();
+    // Only one query of this Drillbit at a time takes units from the cluster,
+    // so that two queries do not each hold part of the units the other needs
+    private final ReentrantLock clusterLock = new ReentrantLock(true);
+    private final Deque<DistributedLease> idleUnits = new ArrayDeque<>();
+    private final Map<String, Integer> userQueries = new HashMap<>();
+    private DistributedSemaphore semaphore;
+    private int capacity;
+    private int clusterWaiters;
+    private long lastRelease;
+
+    private NamedQueue(String name, double weight, int maxQueriesPerUser) {
+      this.name = name;
+      this.weight = weight;
+      this.maxQueriesPerUser = maxQueriesPerUser;
+    }
+
+    private MemoryQueueLease admit(QueryId queryId, String userName,
+        long queryMemory, long deadline) throws QueueTimeoutException, QueryQueueException {
+      final int unitCount = (int) Math.max(1, Math.min(capacity,
+          (queryMemory + unitSize - 1) / unitSize));
+      final List<DistributedLease> units = new ArrayList<>(unitCount);
+      lock.lock();
+      try {
+        while (maxQueriesPerUser > 0 && runningQueries(userName) >= maxQueriesPerUser) {
+          long remaining = deadline - System.currentTimeMillis();
+          if (remaining <= 0 || ! userDone.await(remaining, TimeUnit.MILLISECONDS)) {
+            logger.warn("Query {} timed out waiting for user {} to have fewer than {} queries in the {} queue",
+                QueryIdHelper.getQueryId(queryId), userName, maxQueriesPerUser, name);
+            throw new QueueTimeoutException(queryId, name, timeoutMs);
+          }
+        }
+        userQueries.put(userName, runningQueries(userName) + 1);
+        while (units.size() < unitCount && ! idleUnits.isEmpty()) {
+          units.add(idleUnits.pop());
+        }
+        if (units.size() < unitCount) {
+          clusterWaiters++;
+        }
+      } catch (InterruptedException e) {
+        throw new QueryQueueException("Interrupted", e);
+      } finally {
+        lock.unlock();
+      }
+
+      // Only a shortfall of locally held units costs a Zookeeper round-trip.
+
+      final boolean localAdmit = units.size() == unitCount;
+      if (! localAdmit) {
+        try {
+          acquireFromCluster(queryId, units, unitCount, deadline);
+        } catch (QueueTimeoutException | QueryQueueException | RuntimeException e) {
+          release(userName, units);
+          throw e;
+        } finally {
+          lock.lock();
+          try {
+            clusterWaiters--;
+          } finally {
+            lock.unlock();
+          }
+        }
+        prefetch(leaseBatch - unitCount);
+      }
+      logger.debug("Query {} admitted to the {} queue with {} bytes per node, {} of {} units, {}",
+          QueryIdHelper.getQueryId(queryId), name, queryMemory, unitCount, capacity,
+          localAdmit ? "from local leases" : "from the cluster");
+      return new MemoryQueueLease(queryId, this, userName, units,
+          Math.min(queryMemory, capacity * unitSize), localAdmit);
+    }
+
+    /**
+     * Take the units the query lacks from the cluster. Queries of other
+     * Drillbits take units at the same time, so when a unit does not become
+     * free within {@link #CLUSTER_ATTEMPT_MS}, all the units are given back
+     * and taken again after a random backoff, rather than holding on to
+     * them while waiting for units another waiting query holds.
+     */
+
+    private void acquireFromCluster(QueryId queryId, List<DistributedLease> units,
+        int unitCount, long deadline) throws QueueTimeoutException, QueryQueueException {
+      try {
+        long remaining = deadline - System.currentTimeMillis();
+        if (remaining <= 0 || ! clusterLock.tryLock(remaining, TimeUnit.MILLISECONDS)) {
+          throw queueTimeout(queryId);
+        }
+        try {
+          long backoff = CLUSTER_BACKOFF_MS;
+          while (! tryAcquireFromCluster(units, unitCount, deadline)) {
+            closeAll(units);
+            units.clear();
+            remaining = deadline - System.currentTimeMillis();
+            if (remaining <= 0) {
+              throw queueTimeout(queryId);
+            }
+            logger.debug("Query {} gave back its units of the {} queue, retrying",
+                QueryIdHelper.getQueryId(queryId), name);
+            Thread.sleep(Math.min(remaining, ThreadLocalRandom.current().nextLong(backoff) + 1));
+            backoff = Math.min(backoff * 2, CLUSTER_ATTEMPT_MS);
+          }
+        } finally {
+          clusterLock.unlock();
+        }
+      } catch (QueueTimeoutException e) {
+        throw e;
+      } catch (Exception e) {
+        logger.error("Unable to acquire slot for query " + QueryIdHelper.getQueryId(queryId), e);
+        throw new QueryQueueException("Unable to acquire slot for query.", e);
+      }
+    }
+
+    /**
+     * @return true if all the units were taken, false if a unit did not
+     * become free in time
+     */
+
+    private boolean tryAcquireFromCluster(List<DistributedLease> units,
+        int unitCount, long deadline) throws Exception {
+      while (units.size() < unitCount) {
+        long remaining = deadline - System.currentTimeMillis();
+        DistributedLease unit = remaining <= 0 ? null
+            : semaphore.acquire(Math.min(remaining, CLUSTER_ATTEMPT_MS), TimeUnit.MILLISECONDS);
+        if (unit == null) {
+          return false;
+        }
+        units.add(unit);
+      }
+      return true;
+    }
+
+    private QueueTimeoutException queueTimeout(QueryId queryId) {
+      logger.warn("Queue timeout: {} after {} ms. ({} seconds)", name,
+          String.format("%,d", timeoutMs), (int) Math.round(timeoutMs / 1000.0));
+      return new QueueTimeoutException(queryId, name, timeoutMs);
+    }
+
+    /**
+     * Having paid for a round-trip, take a few more units for the queries
+     * that follow, but only those that are free right now.
+     *
+     * @param count the number of units to take
+     */
+
+    private void prefetch(int count) {
+      List<DistributedLease> spare = new ArrayList<>();
+      try {
+        for (int i = 0; i < count; i++) {
+          DistributedLease unit = semaphore.acquire(0, TimeUnit.MILLISECONDS);
+          if (unit == null) {
+            break;
+          }
+          spare.add(unit);
+        }
+      } catch (Exception e) {
+        logger.warn("Failure while acquiring spare leases.", e);
+      }
+      if (! spare.isEmpty()) {
+        release(null, spare);
+      }
+    }
+
+    /**
+     * Return units to the local pool, or to the cluster if another query on
+     * this Drillbit waits for the cluster or the pool is full.
+     *
+     * @param userName user whose query completes, null if the units
+     * did not belong to a query
+     * @param units the units to give up
+     */
+
+    private void release(String userName, List<DistributedLease> units) {
+      List<DistributedLease> toClose = new ArrayList<>();
+      lock.lock();
+      try {
+        if (userName != null) {
+          int running = runningQueries(userName) - 1;
+          if (running > 0) {
+            userQueries.put(userName, running);
+          } else {
+            userQueries.remove(userName);
+          }
+          userDone.signalAll();
+        }
+        for (DistributedLease unit : units) {
+          if (clusterWaiters > 0 || idleUnits.size() >= leaseBatch) {
+            toClose.add(unit);
+          } else {
+            idleUnits.push(unit);
+          }
+        }
+        lastRelease = System.currentTimeMillis();
+      } finally {
+        lock.unlock();
+      }
+      closeAll(toClose);
+    }
+
+    /**
+     * Give idle units back to the cluster once no query has returned units
+     * for the idle period.
+     *
+     * @param force true to return idle units regardless of the idle period
+     */
+
+    private void trimIdle(boolean force) {
+      List<DistributedLease> toClose = new ArrayList<>();
+      lock.lock();
+      try {
+        if (force || System.currentTimeMillis() - lastRelease >= leaseIdleMs) {
+          toClose.addAll(idleUnits);
+          idleUnits.clear();
+        }
+      } finally {
+        lock.unlock();
+      }
+      closeAll(toClose);
+    }
+
+    private int runningQueries(String userName) {
+      Integer running = userQueries.get(userName);
+      return running == null ? 0 : running;
+    }
+
+    @VisibleForTesting
+    int idleUnitCount() {
+      lock.lock();
+      try {
+        return idleUnits.size();
+      } finally {
+        lock.unlock();
+      }
+    }
+
+    @VisibleForTesting
+    int capacity() { return capacity; }
+  }
+
+  private static final long ONE_MB = 1024 * 1024;
+  // Longest wait for a unit before the units taken from the cluster are given back
+  private static final long CLUSTER_ATTEMPT_MS = 1000;
+  // Initial (smallest) backoff before taking the units again, doubled on each retry up to CLUSTER_ATTEMPT_MS
+  private static final long CLUSTER_BACKOFF_MS = 50;
+
+  private final ClusterCoordinator clusterCoordinator;
+  private final OptionSet optionManager;
+  private final Map<String, NamedQueue> queues = new LinkedHashMap<>();
+  private final NamedQueue defaultQueue;
+  private final long unitSize;
+  private final double maxQueryShare;
+  private final int leaseBatch;
+  private final long leaseIdleMs;
+  private final int timeoutMs;
+  private final ScheduledExecutorService idleTrimmer;
+  private long queryMemoryBudget;
+
+  public MemoryQueryQueue(DrillbitContext context) {
+    this(context.getClusterCoordinator(), context.getConfig(), context.getOptionManager());
+  }
+
+  @VisibleForTesting
+  MemoryQueryQueue(ClusterCoordinator clusterCoordinator, DrillConfig config, OptionSet optionManager) {
+    this.clusterCoordinator = clusterCoordinator;
+    this.optionManager = optionManager;
+    unitSize = config.getBytes(UNIT_SIZE);
+    maxQueryShare = config.getDouble(MAX_QUERY_SHARE);
+    leaseBatch = config.getInt(LEASE_BATCH);
+    leaseIdleMs = config.getLong(LEASE_IDLE_MS);
+    timeoutMs = config.getInt(TIMEOUT_MS);
+    for (Config queueConfig : config.getConfigList(QUEUES)) {
+      NamedQueue queue = new NamedQueue(queueConfig.getString("name"),
+          queueConfig.getDouble("weight"), queueConfig.getInt("max_queries_per_user"));
+      queues.put(queue.name.toLowerCase(), queue);
+    }
+    if (queues.isEmpty()) {
+      throw new IllegalStateException("At least one queue must be configured in " + QUEUES);
+    }
+    defaultQueue = queues.values().iterator().next();
+    idleTrimmer = Executors.newSingleThreadScheduledExecutor(
+        new ThreadFactoryBuilder().setNameFormat("memory-queue-idle-%d").setDaemon(true).build());
+    long trimPeriod = Math.max(1, leaseIdleMs / 2);
+    idleTrimmer.scheduleWithFixedDelay(new Runnable() {
+      @Override
+      public void run() {
+        for (NamedQueue queue : queues.values()) {
+          queue.trimIdle(false);
+        }
+      }
+    }, trimPeriod, trimPeriod, TimeUnit.MILLISECONDS);
+  }
+
+  @Override
+  public void setMemoryPerNode(long memoryPerNode) {
+    queryMemoryBudget = Math.round(memoryPerNode *
+        (1.0 - optionManager.getOption(ExecConstants.QUEUE_MEMORY_RESERVE)));
+    double totalWeight = 0;
+    for (NamedQueue queue : queues.values()) {
+      totalWeight += queue.weight;
+    }
+    for (NamedQueue queue : queues.values()) {
+      if (queue.semaphore != null) {
+        continue;
+      }
+      queue.capacity = (int) Math.max(1,
+          Math.min(Integer.MAX_VALUE, queryMemoryBudget * (queue.weight / totalWeight) / unitSize));
+      queue.semaphore = clusterCoordinator.getSemaphore("query.memory." + queue.name, queue.capacity);
+      logger.debug("Queue {}: weight {}, {} units of {} bytes, at most {} queries per user",
+          queue.name, queue.weight, queue.capacity, unitSize, queue.maxQueriesPerUser);
+    }
+  }
+
+  @Override
+  public long defaultQueryMemoryPerNode(double cost) {
+    long largeQueryMemory = Math.round(queryMemoryBudget * maxQueryShare);
+    if (cost < optionManager.getOption(ExecConstants.QUEUE_THRESHOLD_SIZE)) {
+      return Math.round(largeQueryMemory / optionManager.getOption(ExecConstants.QUEUE_MEMORY_RATIO));
+    }
+    return largeQueryMemory;
+  }
+
+  @Override
+  public long minimumOperatorMemory() {
+    return optionManager.getOption(ExecConstants.MIN_MEMORY_PER_BUFFERED_OP);
+  }
+
+  @Override
+  public boolean enabled() { return true; }
+
+  @Override
+  public QueueLease enqueue(QueryId queryId, double cost)
+      throws QueueTimeoutException, QueryQueueException {
+    return enqueue(queryId, null, null, defaultQueryMemoryPerNode(cost), cost);
+  }
+
+  @Override
+  public QueueLease enqueue(QueryId queryId, String queueName, String userName,
+      long memoryPerNode, double cost) throws QueueTimeoutException, QueryQueueException {
+    NamedQueue queue = getQueue(queueName);
+    if (queue == null) {
+      throw new QueryQueueException(String.format(
+          "Query queue %s is not defined in %s", queueName, QUEUES), null);
+    }
+    long deadline = System.currentTimeMillis() + timeoutMs;
+    return queue.admit(queryId, userName == null ? "" : userName, memoryPerNode, deadline);
+  }
+
+  @VisibleForTesting
+  NamedQueue getQueue(String queueName) {
+    if (queueName == null || queueName.isEmpty()) {
+      return defaultQueue;
+    }
+    return queues.get(queueName.toLowerCase());
+  }
+
+  private static void closeAll(List<DistributedLease> units) {
+    for (DistributedLease unit : units) {
+      try {
+        unit.close();
+      } catch (Exception e) {
+        logger.warn("Failure while releasing lease.", e);
+      }
+    }
+  }
+
+  @Override
+  public void close() {
+    idleTrimmer.shutdownNow();
+    for (NamedQueue queue : queues.values()) {
+      queue.trimIdle(true);
+    }
+  }
+}
@@ -136,5 +136,27 @@ public interface QueryQueue {
 
   QueueLease enqueue(QueryId queryId, double cost) throws QueueTimeoutException, QueryQueueException;
 
+  /**
+   * Queue a query on a named queue on behalf of a user. Queues which admit
+   * queries by cost alone ignore the queue name, user and memory.
+   * @param queryId the query ID
+   * @param queueName the queue requested for the query, null or empty
+   * for the default queue
+   * @param userName the user who runs the query
+   * @param memoryPerNode the memory, in bytes, the query was planned to
+   * use on its busiest node
+   * @param cost the cost of the query used for cost-based queueing
+   * @return the query lease which must be passed to {@link #release(QueueLease)}
+   * upon query completion
+   * @throws QueueTimeoutException if the query times out waiting to be
+   * admitted.
+   * @throws QueryQueueException for any other error condition.
+   */
+
+  default QueueLease enqueue(QueryId queryId, String queueName, String userName,
+      long memoryPerNode, double cost) throws QueueTimeoutException, QueryQueueException {
+    return enqueue(queryId, cost);
+  }
+
   void close();
 }
@@ -27,6 +27,8 @@ import org.apache.drill.exec.server.DrillbitContext;
  * system options.
  * <p>
  * <ul>
+ * <li>If the memory-based queue is enabled, then the admission-controlled
+ * resource manager with that queue, embedded or in a cluster.</li>
  * <li>If the Drillbit is embedded<ul>
  * <li>If queues are enabled, then the admission-controlled resource manager
  * with the local query queue.</li>
@@ -43,6 +45,8 @@ import org.apache.drill.exec.server.DrillbitContext;
  * <dt>Cluster coordinator instance</dt>
  * <dd>If an instance of <tt>LocalClusterCoordinator</tt>, the Drillbit is
  * embedded, else it is in a cluster.</dd>
+ * <dt><tt>drill.exec.queue.memory.enable</tt> boot config<dt>
+ * <dd>If enabled, use the memory-based queue.</dd>
  * <dt><tt>drill.exec.queue.embedded.enable</tt> boot config<dt>
  * <dd>If enabled, and if embedded, then use the local queue.</dd>
  * <dt><tt>exec.queue.enable</tt> system option</dt>
@@ -63,7 +67,10 @@ public class ResourceManagerBuilder {
   public ResourceManager build() {
     ClusterCoordinator coord = context.getClusterCoordinator();
     DrillConfig config = context.getConfig();
-    if (coord instanceof LocalClusterCoordinator) {
+    if (config.getBoolean(MemoryQueryQueue.ENABLED)) {
+      logger.debug("Enabling memory-based query queue.");
+      return new ThrottledResourceManager(context, new MemoryQueryQueue(context));
+    } else if (coord instanceof LocalClusterCoordinator) {
       if (config.getBoolean(EmbeddedQueryQueue.ENABLED)) {
         logger.debug("Enabling embedded, local query queue.");
         return new ThrottledResourceManager(context, new EmbeddedQueryQueue(context));
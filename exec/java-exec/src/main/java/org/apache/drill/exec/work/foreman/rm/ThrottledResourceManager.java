@@ -23,6 +23,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 
+import org.apache.drill.exec.ExecConstants;
 import org.apache.drill.exec.ops.QueryContext;
 import org.apache.drill.exec.physical.PhysicalPlan;
 import org.apache.drill.exec.physical.base.AbstractPhysicalVisitor;
@@ -71,6 +72,12 @@ public class ThrottledResourceManager extends AbstractResourceManager {
     protected QueryWorkUnit work;
     protected double queryCost;
 
+    /**
+     * Memory, in bytes, given to the buffered operators on the busiest
+     * node, or -1 if memory was not planned here.
+     */
+    protected long plannedMemoryPerNode = -1;
+
     protected QueuedResourceAllocator(final ThrottledResourceManager rm,
         QueryContext queryContext) {
       this.rm = rm;
@@ -111,9 +118,12 @@ public class ThrottledResourceManager extends AbstractResourceManager {
       // screen),
       // which is never parallelized.
 
+      long maxNodeMemory = 0;
       for (Entry<String, Collection<PhysicalOperator>> entry : nodeMap.entrySet()) {
-        planNodeMemory(entry.getKey(), entry.getValue(), width);
+        maxNodeMemory = Math.max(maxNodeMemory,
+            planNodeMemory(entry.getKey(), entry.getValue(), width));
       }
+      plannedMemoryPerNode = maxNodeMemory;
     }
 
     private int countBufferingOperators(
@@ -133,15 +143,16 @@ public class ThrottledResourceManager extends AbstractResourceManager {
      * @param nodeAddr
      * @param bufferedOps
      * @param width
+     * @return the memory given to the operators on the node
      */
 
-    private void planNodeMemory(String nodeAddr,
+    private long planNodeMemory(String nodeAddr,
         Collection<PhysicalOperator> bufferedOps, int width) {
 
       // If no buffering operators, nothing to plan.
 
       if (bufferedOps.isEmpty()) {
-        return;
+        return 0;
       }
 
       // Divide node memory evenly among the set of operators, in any minor
@@ -168,6 +179,7 @@ public class ThrottledResourceManager extends AbstractResourceManager {
           QueryIdHelper.getQueryId(queryContext.getQueryId()), nodeAddr,
           perOpMemory, width);
 
+      long nodeTotal = 0;
       for (PhysicalOperator op : bufferedOps) {
 
         // Limit the memory to the maximum in the plan. Doing so is
@@ -195,7 +207,9 @@ public class ThrottledResourceManager extends AbstractResourceManager {
               alloc, op.getClass().getSimpleName(), preferredOpMemory);
         }
         op.setMaxAllocation(alloc);
+        nodeTotal += alloc;
       }
+      return nodeTotal;
     }
 
     protected long queryMemoryPerNode() {
@@ -288,7 +302,12 @@ public class ThrottledResourceManager extends AbstractResourceManager {
 
     @Override
     public void admit() throws QueueTimeoutException, QueryQueueException {
-      lease = rm.queue().enqueue(foreman.getQueryId(), queryCost);
+      long memoryPerNode = plannedMemoryPerNode >= 0
+          ? plannedMemoryPerNode
+          : rm.defaultQueryMemoryPerNode(queryCost);
+      lease = rm.queue().enqueue(foreman.getQueryId(),
+          queryContext.getOptions().getOption(ExecConstants.QUEUE_NAME),
+          queryContext.getQueryUserName(), memoryPerNode, queryCost);
     }
 
     @Override
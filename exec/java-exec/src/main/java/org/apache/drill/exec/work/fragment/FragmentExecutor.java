@@ -29,6 +29,7 @@ import org.apache.drill.common.CatastrophicFailure;
 import org.apache.drill.common.DeferredException;
 import org.apache.drill.common.EventProcessor;
 import org.apache.drill.common.exceptions.UserException;
+import org.apache.drill.exec.ExecConstants;
 import org.apache.drill.exec.coord.ClusterCoordinator;
 import org.apache.drill.exec.exception.OutOfMemoryException;
 import org.apache.drill.exec.ops.ExecutorFragmentContext;
@@ -121,6 +122,10 @@ public class FragmentExecutor implements Runnable {
   // Thread that is currently executing the Fragment. Value is null if the fragment hasn't started running or finished
   private final AtomicReference<Thread> myThreadRef = new AtomicReference<>(null);
 
+  private volatile FragmentScheduler fragmentScheduler;
+  // Run slot of the fragment, set by the thread executing the fragment; the fragment may block in other threads too
+  private volatile FragmentScheduler.Slot schedulerSlot;
+
   /**
    * Create a FragmentExecutor where we need to parse and materialize the root operator.
    *
@@ -223,6 +228,16 @@ public class FragmentExecutor implements Runnable {
     fragmentContext.getExecutionControls().unpauseAll();
   }
 
+  /**
+   * Sets the scheduler which shares the run slots of the Drillbit between fragments. Must be called before the
+   * fragment is started, otherwise the fragment runs without time slicing.
+   *
+   * @param fragmentScheduler fragment scheduler of the Drillbit
+   */
+  public void setFragmentScheduler(final FragmentScheduler fragmentScheduler) {
+    this.fragmentScheduler = fragmentScheduler;
+  }
+
   /**
    * Inform this fragment that one of its downstream partners no longer needs additional records. This is most commonly
    * called in the case that a limit query is executed.
@@ -281,6 +296,12 @@ public class FragmentExecutor implements Runnable {
         public Void run() throws Exception {
           injector.injectChecked(fragmentContext.getExecutionControls(), "fragment-execution", IOException.class);
 
+          if (fragmentScheduler != null) {
+            schedulerSlot = fragmentScheduler.register(fragmentHandle.getQueryId(),
+                (int) fragmentContext.getOptions().getOption(ExecConstants.QUERY_PRIORITY));
+            schedulerSlot.acquire();
+          }
+
           while (shouldContinue()) {
             // Fragment is not cancelled
 
@@ -293,6 +314,11 @@ public class FragmentExecutor implements Runnable {
               // Fragment has processed all of its data
               break;
             }
+
+            if (schedulerSlot != null) {
+              // batch boundary, let fragments of other queries run if the time slice is used up
+              schedulerSlot.yieldIfNeeded();
+            }
           }
 
           return null;
@@ -313,6 +339,11 @@ public class FragmentExecutor implements Runnable {
       fail(t);
     } finally {
 
+      if (schedulerSlot != null) {
+        schedulerSlot.close();
+        schedulerSlot = null;
+      }
+
       // Don't process any more termination requests, we are done.
       eventProcessor.terminate();
       // Clear the interrupt flag if it is set.
@@ -491,6 +522,22 @@ public class FragmentExecutor implements Runnable {
     public Throwable getFailureCause(){
       return deferredException.getException();
     }
+
+    @Override
+    public void beginBlocking() {
+      final FragmentScheduler.Slot slot = schedulerSlot;
+      if (slot != null) {
+        slot.beginBlocking();
+      }
+    }
+
+    @Override
+    public void endBlocking() {
+      final FragmentScheduler.Slot slot = schedulerSlot;
+      if (slot != null) {
+        slot.endBlocking();
+      }
+    }
   }
 
   private class FragmentDrillbitStatusListener implements DrillbitStatusListener {
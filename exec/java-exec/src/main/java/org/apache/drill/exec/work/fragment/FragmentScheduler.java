@@ -0,0 +1,378 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.drill.exec.work.fragment;
+
+import com.google.common.annotations.VisibleForTesting;
+import org.apache.drill.common.config.DrillConfig;
+import org.apache.drill.exec.ExecConstants;
+import org.apache.drill.exec.proto.UserBitShared.QueryId;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Shares the CPU of the Drillbit between the running queries.
+ * <p>
+ * Fragments keep running in their own threads, since operators block inside {@code RootExec.next()} while waiting
+ * for incoming batches or for the downstream receivers, but a fragment may do work only while it holds one of a
+ * bounded number of run slots (the number of cores by default). A fragment gives its slot back:
+ * <ul>
+ *   <li>at a batch boundary once it has used up its time slice and other fragments are waiting for a slot,</li>
+ *   <li>while it is blocked waiting for data or for credit from the receivers, so blocked fragments are parked
+ *   without holding a slot,</li>
+ *   <li>when it finishes.</li>
+ * </ul>
+ * Free slots are granted to the waiting fragment of the query with the least weighted run time, where the run time
+ * of all fragments of a query is accumulated and divided by the query priority. A new query starts with the least
+ * weighted run time of the running queries, so short interactive queries get slots right after they arrive instead
+ * of waiting behind long running scans.
+ * <p>
+ * A fragment that can't get a slot within the maximum wait time runs without a slot, which guarantees progress
+ * if a fragment blocks somewhere other than in the receivers or the data tunnels while holding its slot.
+ */
+public class FragmentScheduler {
+  private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(FragmentScheduler.class);
+
+  public static final int DEFAULT_PRIORITY = 5;
+
+  private final boolean enabled;
+  private final int slots;
+  private final long sliceNanos;
+  private final long maxWaitNanos;
+
+  private final ReentrantLock lock = new ReentrantLock();
+  private final PriorityQueue<Waiter> waiters = new PriorityQueue<>();
+  private final Map<QueryId, QueryShare> queries = new HashMap<>();
+  private int freeSlots;
+  private long sequence;
+
+  public FragmentScheduler(DrillConfig config) {
+    this(config.getBoolean(ExecConstants.FRAGMENT_SCHEDULER_ENABLED),
+        config.getInt(ExecConstants.FRAGMENT_SCHEDULER_SLOTS),
+        config.getLong(ExecConstants.FRAGMENT_SCHEDULER_SLICE_MS),
+        config.getLong(ExecConstants.FRAGMENT_SCHEDULER_MAX_WAIT_MS));
+  }
+
+  @VisibleForTesting
+  FragmentScheduler(boolean enabled, int slots, long sliceMillis, long maxWaitMillis) {
+    this.enabled = enabled;
+    this.slots = slots > 0 ? slots : Runtime.getRuntime().availableProcessors();
+    this.sliceNanos = TimeUnit.MILLISECONDS.toNanos(sliceMillis);
+    this.maxWaitNanos = TimeUnit.MILLISECONDS.toNanos(maxWaitMillis);
+    this.freeSlots = this.slots;
+    if (enabled) {
+      logger.info("Fragment scheduler is enabled with {} run slots and {} ms time slices", this.slots, sliceMillis);
+    }
+  }
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  public int getSlots() {
+    return slots;
+  }
+
+  /**
+   * @return number of fragments waiting for a run slot
+   */
+  public int getWaitingCount() {
+    lock.lock();
+    try {
+      return waiters.size();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @VisibleForTesting
+  int getFreeSlots() {
+    lock.lock();
+    try {
+      return freeSlots;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Registers a fragment of the query. The returned slot must be closed once the fragment is finished.
+   *
+   * @param queryId id of the query the fragment belongs to
+   * @param priority priority of the query, queries with higher priority get proportionally more run time
+   * @return run slot of the fragment
+   */
+  public Slot register(QueryId queryId, int priority) {
+    if (!enabled) {
+      return new Slot(null);
+    }
+    lock.lock();
+    try {
+      QueryShare share = queries.get(queryId);
+      if (share == null) {
+        long weightedRunTime = Long.MAX_VALUE;
+        for (QueryShare running : queries.values()) {
+          weightedRunTime = Math.min(weightedRunTime, running.weightedRunTime);
+        }
+        share = new QueryShare(queryId, Math.max(priority, 1), weightedRunTime == Long.MAX_VALUE ? 0 : weightedRunTime);
+        queries.put(queryId, share);
+      }
+      share.fragments++;
+      return new Slot(share);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Run slot of a single fragment. The fragment runs in its own thread, but may block in other threads as well
+   * (e.g. the threads sending the batches of a partition sender), so the state of the slot is guarded by the lock
+   * of the scheduler. {@link #beginBlocking()} and {@link #endBlocking()} nest: the fragment gets a slot again
+   * only once none of its threads is blocked.
+   */
+  public class Slot {
+    private final QueryShare share;
+    private boolean running;
+    private boolean holdsSlot;
+    private long runningSince;
+    // number of threads of the fragment that are blocked
+    private int blockingDepth;
+    // true while a thread of the fragment waits for a slot
+    private boolean waiting;
+
+    private Slot(QueryShare share) {
+      this.share = share;
+    }
+
+    /**
+     * Waits until the fragment may run. Returns without a slot if the maximum wait time elapsed
+     * or if the thread was interrupted, the interrupted status is preserved in the latter case.
+     */
+    public void acquire() {
+      if (share == null) {
+        return;
+      }
+      lock.lock();
+      try {
+        acquireSlot();
+      } finally {
+        lock.unlock();
+      }
+    }
+
+    private void acquireSlot() {
+      if (running || waiting) {
+        return;
+      }
+      boolean granted;
+      if (freeSlots > 0 && waiters.isEmpty()) {
+        freeSlots--;
+        granted = true;
+      } else {
+        waiting = true;
+        try {
+          granted = await(new Waiter(share.weightedRunTime, sequence++, lock.newCondition()));
+        } finally {
+          waiting = false;
+        }
+      }
+      if (blockingDepth > 0) {
+        // another thread of the fragment blocked in the meantime
+        if (granted) {
+          freeSlots++;
+          grantFreeSlots();
+        }
+        return;
+      }
+      holdsSlot = granted;
+      running = true;
+      runningSince = System.nanoTime();
+    }
+
+    private boolean await(Waiter waiter) {
+      waiters.add(waiter);
+      long remaining = maxWaitNanos;
+      try {
+        while (!waiter.granted && remaining > 0) {
+          remaining = waiter.condition.awaitNanos(remaining);
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      if (!waiter.granted) {
+        waiters.remove(waiter);
+        logger.debug("Fragment of query {} runs without a slot after waiting for {} ms",
+            share.queryId, TimeUnit.NANOSECONDS.toMillis(maxWaitNanos - remaining));
+      }
+      return waiter.granted;
+    }
+
+    /**
+     * Gives the slot back, the run time since {@link #acquire()} is charged to the query.
+     */
+    public void release() {
+      if (share == null) {
+        return;
+      }
+      lock.lock();
+      try {
+        releaseSlot();
+      } finally {
+        lock.unlock();
+      }
+    }
+
+    private void releaseSlot() {
+      if (!running) {
+        return;
+      }
+      share.weightedRunTime += (System.nanoTime() - runningSince) * DEFAULT_PRIORITY / share.priority;
+      running = false;
+      if (holdsSlot) {
+        holdsSlot = false;
+        freeSlots++;
+        grantFreeSlots();
+      }
+    }
+
+    /**
+     * Called when a thread of the fragment is about to block. The first blocked thread gives the slot back.
+     * Must be followed by {@link #endBlocking()}.
+     */
+    public void beginBlocking() {
+      if (share == null) {
+        return;
+      }
+      lock.lock();
+      try {
+        if (blockingDepth++ == 0) {
+          releaseSlot();
+        }
+      } finally {
+        lock.unlock();
+      }
+    }
+
+    /**
+     * Called when a thread of the fragment continues after {@link #beginBlocking()}. The last one to continue
+     * waits until the fragment may run again.
+     */
+    public void endBlocking() {
+      if (share == null) {
+        return;
+      }
+      lock.lock();
+      try {
+        if (--blockingDepth == 0) {
+          acquireSlot();
+        }
+      } finally {
+        lock.unlock();
+      }
+    }
+
+    /**
+     * Called at batch boundaries. Gives the slot to another fragment if this one has used up its time slice
+     * and there are waiting fragments.
+     */
+    public void yieldIfNeeded() {
+      if (share == null) {
+        return;
+      }
+      lock.lock();
+      try {
+        if (!running || blockingDepth > 0 || System.nanoTime() - runningSince < sliceNanos) {
+          return;
+        }
+        if (waiters.isEmpty()) {
+          // nobody waits, start a new time slice
+          share.weightedRunTime += (System.nanoTime() - runningSince) * DEFAULT_PRIORITY / share.priority;
+          runningSince = System.nanoTime();
+          return;
+        }
+        releaseSlot();
+        acquireSlot();
+      } finally {
+        lock.unlock();
+      }
+    }
+
+    /**
+     * Gives the slot back and unregisters the fragment.
+     */
+    public void close() {
+      if (share == null) {
+        return;
+      }
+      lock.lock();
+      try {
+        releaseSlot();
+        if (--share.fragments == 0) {
+          queries.remove(share.queryId);
+        }
+      } finally {
+        lock.unlock();
+      }
+    }
+  }
+
+  private void grantFreeSlots() {
+    while (freeSlots > 0 && !waiters.isEmpty()) {
+      Waiter waiter = waiters.poll();
+      waiter.granted = true;
+      freeSlots--;
+      waiter.condition.signal();
+    }
+  }
+
+  private static class QueryShare {
+    private final QueryId queryId;
+    private final int priority;
+    private long weightedRunTime;
+    private int fragments;
+
+    QueryShare(QueryId queryId, int priority, long weightedRunTime) {
+      this.queryId = queryId;
+      this.priority = priority;
+      this.weightedRunTime = weightedRunTime;
+    }
+  }
+
+  private static class Waiter implements Comparable<Waiter> {
+    private final long weightedRunTime;
+    private final long sequence;
+    private final Condition condition;
+    private boolean granted;
+
+    Waiter(long weightedRunTime, long sequence, Condition condition) {
+      this.weightedRunTime = weightedRunTime;
+      this.sequence = sequence;
+      this.condition = condition;
+    }
+
+    @Override
+    public int compareTo(Waiter o) {
+      int result = Long.compare(weightedRunTime, o.weightedRunTime);
+      return result != 0 ? result : Long.compare(sequence, o.sequence);
+    }
+  }
+}
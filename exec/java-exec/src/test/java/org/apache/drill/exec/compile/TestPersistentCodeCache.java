@@ -0,0 +1,127 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.drill.exec.compile;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+
+import java.io.File;
+import java.nio.file.Paths;
+
+import org.apache.drill.exec.compile.sig.GeneratorMapping;
+import org.apache.drill.exec.compile.sig.MappingSet;
+import org.apache.drill.exec.expr.ClassGenerator;
+import org.apache.drill.exec.expr.CodeGenerator;
+import org.apache.drill.test.BaseTestQuery;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FSDataOutputStream;
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TestPersistentCodeCache extends BaseTestQuery {
+
+  private FileSystem fs;
+  private Path dir;
+
+  @Before
+  public void setup() throws Exception {
+    fs = FileSystem.getLocal(new Configuration());
+    File cacheDir = dirTestWatcher.makeTestTmpSubDir(Paths.get("codegen-cache-" + System.nanoTime()));
+    dir = new Path(cacheDir.getAbsolutePath());
+  }
+
+  @Test
+  public void testMergedClass() throws Exception {
+    testRoundTrip(false);
+  }
+
+  @Test
+  public void testPlainJavaClass() throws Exception {
+    testRoundTrip(true);
+  }
+
+  private void testRoundTrip(boolean asPoj) throws Exception {
+    CodeCompiler.CodeGenCompiler compiler = new CodeCompiler.CodeGenCompiler(config, getDrillbitContext().getOptionManager());
+    CodeGenerator<ExampleInner> cg = newCodeGenerator("inside", asPoj);
+    Class<?> compiled = compiler.generateAndCompile(cg);
+
+    PersistentCodeCache cache = new PersistentCodeCache(fs, dir);
+    assertNull(cache.get(cg));
+    cache.put(cg, compiled);
+    assertEquals(1, fs.listStatus(dir).length);
+
+    // Same code, new generated class name: found by a new cache (as after a restart)
+    CodeGenerator<ExampleInner> sameCg = newCodeGenerator("inside", asPoj);
+    sameCg.generate();
+    Class<?> loaded = new PersistentCodeCache(fs, dir).get(sameCg);
+    assertNotNull(loaded);
+    assertEquals(compiled.getName(), loaded.getName());
+    assertNotSame(compiled, loaded);
+    ExampleInner instance = (ExampleInner) loaded.newInstance();
+    instance.doOutside();
+    instance.doInsideOutside();
+
+    // Different code, or different code generation mechanism: not found
+    CodeGenerator<ExampleInner> otherCg = newCodeGenerator("other", asPoj);
+    otherCg.generate();
+    assertNull(cache.get(otherCg));
+    CodeGenerator<ExampleInner> otherMechanismCg = newCodeGenerator("inside", !asPoj);
+    otherMechanismCg.generate();
+    assertNull(cache.get(otherMechanismCg));
+  }
+
+  @Test
+  public void testCorruptEntry() throws Exception {
+    CodeCompiler.CodeGenCompiler compiler = new CodeCompiler.CodeGenCompiler(config, getDrillbitContext().getOptionManager());
+    CodeGenerator<ExampleInner> cg = newCodeGenerator("inside", false);
+    PersistentCodeCache cache = new PersistentCodeCache(fs, dir);
+    cache.put(cg, compiler.generateAndCompile(cg));
+
+    FileStatus[] entries = fs.listStatus(dir);
+    assertEquals(1, entries.length);
+    try (FSDataOutputStream out = fs.create(entries[0].getPath(), true)) {
+      out.writeInt(42);
+    }
+    assertNull(cache.get(cg));
+  }
+
+  private CodeGenerator<ExampleInner> newCodeGenerator(String message, boolean asPoj) {
+    final TemplateClassDefinition<ExampleInner> template = new TemplateClassDefinition<>(ExampleInner.class, ExampleTemplateWithInner.class);
+    CodeGenerator<ExampleInner> cg = CodeGenerator.get(template, getDrillbitContext().getOptionManager());
+    cg.plainJavaCapable(true);
+    cg.preferPlainJava(asPoj);
+
+    ClassGenerator<ExampleInner> root = cg.getRoot();
+    root.setMappingSet(new MappingSet(new GeneratorMapping("doOutside", null, null, null)));
+    root.getSetupBlock().directStatement("System.out.println(\"outside\");");
+
+    ClassGenerator<ExampleInner> inner = root.getInnerGenerator("TheInnerClass");
+    inner.setMappingSet(new MappingSet(new GeneratorMapping("doInside", null, null, null)));
+    inner.getSetupBlock().directStatement("System.out.println(\"" + message + "\");");
+
+    ClassGenerator<ExampleInner> doubleInner = inner.getInnerGenerator("DoubleInner");
+    doubleInner.setMappingSet(new MappingSet(new GeneratorMapping("doDouble", null, null, null)));
+    doubleInner.getSetupBlock().directStatement("System.out.println(\"double\");");
+    return cg;
+  }
+}
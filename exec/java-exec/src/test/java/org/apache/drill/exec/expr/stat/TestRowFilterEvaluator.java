@@ -0,0 +1,177 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.drill.exec.expr.stat;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.drill.common.expression.ExpressionPosition;
+import org.apache.drill.common.expression.LogicalExpression;
+import org.apache.drill.common.expression.SchemaPath;
+import org.apache.drill.common.expression.TypedFieldExpr;
+import org.apache.drill.common.expression.ValueExpressions;
+import org.apache.drill.common.types.TypeProtos.MinorType;
+import org.apache.drill.common.types.Types;
+import org.apache.drill.exec.record.MaterializedField;
+import org.apache.drill.exec.vector.Float8Vector;
+import org.apache.drill.exec.vector.NullableIntVector;
+import org.apache.drill.exec.vector.ValueVector;
+import org.apache.drill.test.SubOperatorTest;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableSet;
+
+public class TestRowFilterEvaluator extends SubOperatorTest {
+
+  private static final SchemaPath A = SchemaPath.getSimplePath("a");
+  private static final SchemaPath B = SchemaPath.getSimplePath("b");
+
+  private NullableIntVector a;
+  private Float8Vector b;
+  private Map<SchemaPath, ValueVector> vectors;
+
+  /**
+   * Column a holds 10, null, 30 and column b holds 1.5, NaN, -0.0.
+   */
+  @Before
+  public void setup() {
+    a = new NullableIntVector(MaterializedField.create("a", Types.optional(MinorType.INT)), fixture.allocator());
+    a.allocateNew(3);
+    a.getMutator().setSafe(0, 10);
+    a.getMutator().setNull(1);
+    a.getMutator().setSafe(2, 30);
+    a.getMutator().setValueCount(3);
+
+    b = new Float8Vector(MaterializedField.create("b", Types.required(MinorType.FLOAT8)), fixture.allocator());
+    b.allocateNew(3);
+    b.getMutator().setSafe(0, 1.5);
+    b.getMutator().setSafe(1, Double.NaN);
+    b.getMutator().setSafe(2, -0.0);
+    b.getMutator().setValueCount(3);
+
+    vectors = new HashMap<>();
+    vectors.put(A, a);
+    vectors.put(B, b);
+  }
+
+  @After
+  public void cleanup() {
+    a.clear();
+    b.clear();
+  }
+
+  private static LogicalExpression a() {
+    return new TypedFieldExpr(A, Types.optional(MinorType.INT));
+  }
+
+  private static LogicalExpression b() {
+    return new TypedFieldExpr(B, Types.required(MinorType.FLOAT8));
+  }
+
+  private static LogicalExpression intValue(int value) {
+    return ValueExpressions.getInt(value);
+  }
+
+  private static LogicalExpression doubleValue(double value) {
+    return ValueExpressions.getFloat8(value);
+  }
+
+  private static ParquetFilterPredicate and(LogicalExpression... args) {
+    return new ParquetBooleanPredicates.AndPredicate("booleanAnd", Arrays.asList(args), ExpressionPosition.UNKNOWN);
+  }
+
+  private static ParquetFilterPredicate or(LogicalExpression... args) {
+    return new ParquetBooleanPredicates.OrPredicate("booleanOr", Arrays.asList(args), ExpressionPosition.UNKNOWN);
+  }
+
+  private RowFilterEvaluator evaluator(ParquetFilterPredicate predicate) {
+    return RowFilterEvaluator.create(predicate, vectors);
+  }
+
+  @Test
+  public void testComparison() {
+    // a > 20 holds for the last row only
+    RowFilterEvaluator evaluator = evaluator(new ParquetComparisonPredicates.GTPredicate(a(), intValue(20)));
+    assertEquals(ImmutableSet.of(A), evaluator.getColumns());
+    assertTrue(evaluator.canDrop(2));
+    assertFalse(evaluator.canDrop(3));
+
+    // null never satisfies a comparison
+    assertTrue(evaluator(new ParquetComparisonPredicates.NEPredicate(a(), intValue(10))).canDrop(2));
+    assertTrue(evaluator(new ParquetComparisonPredicates.LTPredicate(intValue(40), a())).canDrop(3));
+    assertFalse(evaluator(new ParquetComparisonPredicates.LEPredicate(a(), intValue(10))).canDrop(1));
+  }
+
+  @Test
+  public void testFloatingPoint() {
+    // -0.0 = 0.0, and rows holding NaN are kept
+    assertFalse(evaluator(new ParquetComparisonPredicates.EqualPredicate(b(), doubleValue(0.0))).canDrop(3));
+    assertTrue(evaluator(new ParquetComparisonPredicates.EqualPredicate(b(), doubleValue(0.0))).canDrop(1));
+    assertFalse(evaluator(new ParquetComparisonPredicates.GTPredicate(b(), doubleValue(100))).canDrop(2));
+
+    // an int column against a double constant
+    assertFalse(evaluator(new ParquetComparisonPredicates.GEPredicate(a(), doubleValue(29.5))).canDrop(3));
+    assertTrue(evaluator(new ParquetComparisonPredicates.GEPredicate(a(), doubleValue(30.5))).canDrop(3));
+  }
+
+  @Test
+  public void testIsNull() {
+    assertTrue(evaluator(new ParquetIsPredicates.IsNullPredicate(a())).canDrop(1));
+    assertFalse(evaluator(new ParquetIsPredicates.IsNullPredicate(a())).canDrop(2));
+    assertFalse(evaluator(new ParquetIsPredicates.IsNotNullPredicate(a())).canDrop(1));
+    assertTrue(evaluator(new ParquetIsPredicates.IsNullPredicate(b())).canDrop(3));
+  }
+
+  @Test
+  public void testBooleanOperators() {
+    LogicalExpression aAbove20 = new ParquetComparisonPredicates.GTPredicate(a(), intValue(20));
+    LogicalExpression bPositive = new ParquetComparisonPredicates.GTPredicate(b(), doubleValue(0));
+    ParquetIsPredicates.IsTruePredicate unsupported = new ParquetIsPredicates.IsTruePredicate(a());
+
+    // a > 20 and b > 0 holds for no row, a > 20 or b > 0 for the first and the last
+    assertTrue(evaluator(and(aAbove20, bPositive)).canDrop(3));
+    assertFalse(evaluator(or(aAbove20, bPositive)).canDrop(3));
+    // a > 40 or b < 0 holds for no row, but NaN in the second one is left to the filter
+    RowFilterEvaluator negative = evaluator(or(new ParquetComparisonPredicates.GTPredicate(a(), intValue(40)),
+        new ParquetComparisonPredicates.LTPredicate(b(), doubleValue(0))));
+    assertEquals(ImmutableSet.of(A, B), negative.getColumns());
+    assertTrue(negative.canDrop(1));
+    assertFalse(negative.canDrop(2));
+
+    // conjuncts that cannot be evaluated are left out, disjunctions holding one are left out as a whole
+    RowFilterEvaluator evaluator = evaluator(and(aAbove20, unsupported));
+    assertEquals(ImmutableSet.of(A), evaluator.getColumns());
+    assertTrue(evaluator.canDrop(2));
+    assertNull(evaluator(or(aAbove20, unsupported)));
+    assertNull(evaluator(unsupported));
+  }
+
+  @Test
+  public void testMissingColumn() {
+    LogicalExpression c = new TypedFieldExpr(SchemaPath.getSimplePath("c"), Types.optional(MinorType.INT));
+    assertNull(evaluator(new ParquetComparisonPredicates.GTPredicate(c, intValue(20))));
+  }
+}
@@ -17,12 +17,28 @@
  */
 package org.apache.drill.exec.physical.impl.agg;
 
+import org.apache.drill.exec.ExecConstants;
+import org.apache.drill.exec.physical.impl.aggregate.HashAggTemplate;
+import org.apache.drill.exec.planner.physical.PlannerSettings;
+import org.apache.drill.exec.proto.UserBitShared.CoreOperatorType;
+import org.apache.drill.exec.proto.UserBitShared.MajorFragmentProfile;
+import org.apache.drill.exec.proto.UserBitShared.MetricValue;
+import org.apache.drill.exec.proto.UserBitShared.MinorFragmentProfile;
+import org.apache.drill.exec.proto.UserBitShared.OperatorProfile;
+import org.apache.drill.exec.proto.UserBitShared.QueryId;
+import org.apache.drill.exec.proto.UserBitShared.QueryProfile;
+import org.apache.drill.exec.proto.helper.QueryIdHelper;
+import org.apache.drill.exec.rpc.user.QueryDataBatch;
 import org.apache.drill.test.BaseTestQuery;
 import org.apache.drill.categories.OperatorTest;
 import org.junit.Ignore;
 import org.junit.Test;
 import org.junit.experimental.categories.Category;
 
+import java.util.List;
+
+import static org.junit.Assert.assertTrue;
+
 @Category(OperatorTest.class)
 public class TestHashAggr extends BaseTestQuery{
 
@@ -58,4 +74,91 @@ public class TestHashAggr extends BaseTestQuery{
     testPhysicalFromFile("agg/hashagg/q8.json");
   }
 
+  @Test
+  public void testOpenAddressingHashTable() throws Exception {
+    // a single integer key (may be stored inline in the hash table), and several keys of other types
+    final String[] queries = {
+        "select l_orderkey, count(*) cnt, sum(l_quantity) qty from cp.`tpch/lineitem.parquet` group by l_orderkey",
+        "select l_returnflag, l_linestatus, l_shipdate, count(*) cnt from cp.`tpch/lineitem.parquet` " +
+            "group by l_returnflag, l_linestatus, l_shipdate"
+    };
+    for (String query : queries) {
+      testBuilder()
+          .sqlQuery(query)
+          .optionSettingQueriesForTestQuery("alter session set `%s` = true; alter session set `%s` = false",
+              ExecConstants.HASHTABLE_USE_OPEN_ADDRESSING_KEY, PlannerSettings.STREAMAGG.getOptionName())
+          .unOrdered()
+          .sqlBaselineQuery(query)
+          .optionSettingQueriesForBaseline("alter session set `%s` = false; alter session set `%s` = false",
+              ExecConstants.HASHTABLE_USE_OPEN_ADDRESSING_KEY, PlannerSettings.STREAMAGG.getOptionName())
+          .go();
+    }
+  }
+
+  @Test
+  public void testPhase1PassThrough() throws Exception {
+    // ratio 0 makes the 1st phase pass through all the rows after the first batch; the results must not change
+    final String query = "select l_orderkey, l_returnflag, count(*) cnt, sum(l_quantity) qty, min(l_shipdate) d, " +
+        "max(l_comment) c from cp.`tpch/lineitem.parquet` group by l_orderkey, l_returnflag";
+    final String settings = "alter session set `%s` = true; alter session set `%s` = true; alter session set `%s` = false; " +
+        "alter session set `%s` = %s; alter session set `%s` = 1; alter session set `%s` = 0";
+    try {
+      for (boolean openAddressing : new boolean[] {false, true}) {
+        testBuilder()
+            .sqlQuery(query)
+            .optionSettingQueriesForTestQuery(settings, ExecConstants.HASHAGG_PASS_THROUGH_ENABLED_KEY,
+                PlannerSettings.FORCE_2PHASE_AGGR_KEY, PlannerSettings.STREAMAGG.getOptionName(),
+                ExecConstants.HASHTABLE_USE_OPEN_ADDRESSING_KEY, openAddressing,
+                ExecConstants.HASHAGG_PASS_THROUGH_MIN_ROWS_KEY, ExecConstants.HASHAGG_PASS_THROUGH_RATIO_KEY)
+            .unOrdered()
+            .sqlBaselineQuery(query)
+            .optionSettingQueriesForBaseline("alter session set `%s` = false; alter session set `%s` = false",
+                ExecConstants.HASHAGG_PASS_THROUGH_ENABLED_KEY, PlannerSettings.STREAMAGG.getOptionName())
+            .go();
+      }
+
+      // the rows must really have been passed through by the 1st phase; the profile is written before the query returns
+      alterSession(ExecConstants.QUERY_PROFILE_DEBUG_OPTION, true);
+      test(settings, ExecConstants.HASHAGG_PASS_THROUGH_ENABLED_KEY,
+          PlannerSettings.FORCE_2PHASE_AGGR_KEY, PlannerSettings.STREAMAGG.getOptionName(),
+          ExecConstants.HASHTABLE_USE_OPEN_ADDRESSING_KEY, false,
+          ExecConstants.HASHAGG_PASS_THROUGH_MIN_ROWS_KEY, ExecConstants.HASHAGG_PASS_THROUGH_RATIO_KEY);
+      final List<QueryDataBatch> results = testSqlWithResults(query);
+      final QueryId queryId = results.get(0).getHeader().getQueryId();
+      for (QueryDataBatch result : results) {
+        result.release();
+      }
+      final QueryProfile profile = getDrillbitContext().getProfileStoreContext().getCompletedProfileStore()
+          .get(QueryIdHelper.getQueryId(queryId));
+      assertTrue("Rows passed through by the 1st phase", getPassThroughRows(profile) > 0);
+    } finally {
+      resetSessionOption(PlannerSettings.FORCE_2PHASE_AGGR_KEY);
+      resetSessionOption(PlannerSettings.STREAMAGG.getOptionName());
+      resetSessionOption(ExecConstants.HASHTABLE_USE_OPEN_ADDRESSING_KEY);
+      resetSessionOption(ExecConstants.HASHAGG_PASS_THROUGH_MIN_ROWS_KEY);
+      resetSessionOption(ExecConstants.HASHAGG_PASS_THROUGH_RATIO_KEY);
+      resetSessionOption(ExecConstants.HASHAGG_PASS_THROUGH_ENABLED_KEY);
+      resetSessionOption(ExecConstants.QUERY_PROFILE_DEBUG_OPTION);
+    }
+  }
+
+  private static long getPassThroughRows(QueryProfile profile) {
+    long rows = 0;
+    for (MajorFragmentProfile major : profile.getFragmentProfileList()) {
+      for (MinorFragmentProfile minor : major.getMinorFragmentProfileList()) {
+        for (OperatorProfile op : minor.getOperatorProfileList()) {
+          if (op.getOperatorType() != CoreOperatorType.HASH_AGGREGATE_VALUE) {
+            continue;
+          }
+          for (MetricValue metric : op.getMetricList()) {
+            if (metric.getMetricId() == HashAggTemplate.Metric.PASS_THROUGH_ROWS.ordinal()) {
+              rows += metric.getLongValue();
+            }
+          }
+        }
+      }
+    }
+    return rows;
+  }
+
 }
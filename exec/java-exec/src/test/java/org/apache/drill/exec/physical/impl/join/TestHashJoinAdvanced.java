@@ -206,4 +206,24 @@ public class TestHashJoinAdvanced extends JoinTestBase {
     final Pattern sortHashJoinPattern = Pattern.compile(".*Sort.*HashJoin", Pattern.DOTALL);
     testPlanMatchingPatterns(query, new Pattern[]{sortHashJoinPattern}, null);
   }
+
+  @Test
+  public void testJoinWithOpenAddressingHashTable() throws Exception {
+    // a single integer key (may be stored inline in the hash table), and a (nullable) key of another type
+    final String[] queries = {
+        "select l.l_orderkey, l.l_linenumber, o.o_custkey from cp.`tpch/lineitem.parquet` l, " +
+            "cp.`tpch/orders.parquet` o where l.l_orderkey = o.o_orderkey",
+        "select t1.full_name, t2.department_description from cp.`employee.json` t1, " +
+            "cp.`department.json` t2 where t1.department_id = t2.department_id"
+    };
+    for (String query : queries) {
+      testBuilder()
+          .sqlQuery(query)
+          .optionSettingQueriesForTestQuery("alter session set `%s` = true", ExecConstants.HASHTABLE_USE_OPEN_ADDRESSING_KEY)
+          .unOrdered()
+          .sqlBaselineQuery(query)
+          .optionSettingQueriesForBaseline("alter session set `%s` = false", ExecConstants.HASHTABLE_USE_OPEN_ADDRESSING_KEY)
+          .go();
+    }
+  }
 }
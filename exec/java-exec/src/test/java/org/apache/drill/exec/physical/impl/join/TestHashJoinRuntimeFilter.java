@@ -0,0 +1,99 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.drill.exec.physical.impl.join;
+
+import org.apache.drill.categories.OperatorTest;
+import org.apache.drill.exec.ExecConstants;
+import org.apache.drill.exec.physical.impl.filter.RuntimeFilterRecordBatch;
+import org.apache.drill.exec.planner.physical.PlannerSettings;
+import org.apache.drill.exec.proto.UserBitShared;
+import org.apache.drill.test.BaseDirTestWatcher;
+import org.apache.drill.test.ClientFixture;
+import org.apache.drill.test.ClusterFixture;
+import org.apache.drill.test.ClusterFixtureBuilder;
+import org.apache.drill.test.DrillTest;
+import org.apache.drill.test.ProfileParser;
+import org.apache.drill.test.QueryBuilder;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test the runtime filters of the Hash Join operator pushed down to the probe side scans
+ */
+@Category(OperatorTest.class)
+public class TestHashJoinRuntimeFilter extends DrillTest {
+
+  @Rule
+  public final BaseDirTestWatcher dirTestWatcher = new BaseDirTestWatcher();
+
+  // Few orders are on the build side, so most of the lineitems have no match (the filter is not on the join
+  // key, so it is not pushed to the lineitems by the planner)
+  private static final String JOIN_SQL = "SELECT l.l_orderkey, l.l_comment, o.o_custkey, o.o_clerk " +
+      "FROM cp.`tpch/lineitem.parquet` l JOIN cp.`tpch/orders.parquet` o ON l.l_orderkey = o.o_orderkey " +
+      "WHERE o.o_custkey < 50";
+  private static final long LINEITEM_ROWS = 60_175;
+
+  /**
+   * The merged filter of the hash join fragments is used by the lineitem scan fragments: fewer rows
+   * are sent from the scan to the join, and the join results are the same
+   */
+  @Test
+  public void testProbeSideScanFilter() throws Exception {
+    ClusterFixtureBuilder builder = ClusterFixture.builder(dirTestWatcher)
+        .sessionOption(ExecConstants.SLICE_TARGET, 1)
+        .sessionOption(PlannerSettings.BROADCAST.getOptionName(), false)
+        .sessionOption(PlannerSettings.MERGEJOIN.getOptionName(), false)
+        .sessionOption(PlannerSettings.HASH_JOIN_SWAP.getOptionName(), false)
+        // Long enough for the filter to be received before the lineitems are sent
+        .sessionOption(ExecConstants.HASHJOIN_RUNTIME_FILTER_MAX_WAITING_TIME_KEY, 60_000)
+        .configProperty(ExecConstants.SYS_STORE_PROVIDER_LOCAL_ENABLE_WRITE, false)
+        .maxParallelization(2)
+        .saveProfiles();
+
+    try (ClusterFixture cluster = builder.build();
+         ClientFixture client = cluster.clientFixture()) {
+      QueryBuilder.QuerySummary expected = client.queryBuilder().sql(JOIN_SQL).run();
+      assertTrue(expected.recordCount() < LINEITEM_ROWS / 10);
+
+      client.alterSession(ExecConstants.HASHJOIN_ENABLE_RUNTIME_FILTER_KEY, true);
+      String plan = client.queryBuilder().sql(JOIN_SQL).explainText();
+      assertTrue(plan, plan.contains("RuntimeFilter"));
+
+      QueryBuilder.QuerySummary summary = client.queryBuilder().sql(JOIN_SQL).run();
+      assertEquals(expected.recordCount(), summary.recordCount());
+
+      ProfileParser profile = client.parseProfile(summary.queryIdString());
+      List<ProfileParser.OperatorProfile> ops = profile.getOpsOfType(UserBitShared.CoreOperatorType.RUNTIME_FILTER_VALUE);
+      assertFalse(ops.isEmpty());
+      long filteredRows = 0;
+      for (ProfileParser.OperatorProfile op : ops) {
+        filteredRows += op.getMetric(RuntimeFilterRecordBatch.Metric.FILTERED_ROWS.ordinal());
+      }
+      // All the lineitems without a matching order, but for the false positives of the filter
+      assertTrue(filteredRows > LINEITEM_ROWS / 2);
+      assertTrue(filteredRows <= LINEITEM_ROWS - summary.recordCount());
+    }
+  }
+}
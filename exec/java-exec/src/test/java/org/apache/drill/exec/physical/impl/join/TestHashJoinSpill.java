@@ -0,0 +1,141 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.drill.exec.physical.impl.join;
+
+import org.apache.drill.categories.OperatorTest;
+import org.apache.drill.categories.SlowTest;
+import org.apache.drill.exec.ExecConstants;
+import org.apache.drill.exec.planner.physical.PlannerSettings;
+import org.apache.drill.exec.proto.UserBitShared;
+import org.apache.drill.test.BaseDirTestWatcher;
+import org.apache.drill.test.ClientFixture;
+import org.apache.drill.test.ClusterFixture;
+import org.apache.drill.test.ClusterFixtureBuilder;
+import org.apache.drill.test.DrillTest;
+import org.apache.drill.test.ProfileParser;
+import org.apache.drill.test.QueryBuilder;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test spilling for the Hash Join operator
+ */
+@Category({SlowTest.class, OperatorTest.class})
+public class TestHashJoinSpill extends DrillTest {
+
+  @Rule
+  public final BaseDirTestWatcher dirTestWatcher = new BaseDirTestWatcher();
+
+  // Every lineitem has a matching order
+  private static final String JOIN_SQL = "SELECT l.l_orderkey, l.l_comment, o.o_custkey, o.o_clerk, o.o_comment " +
+      "FROM cp.`tpch/lineitem.parquet` l %s JOIN cp.`tpch/orders.parquet` o ON l.l_orderkey = o.o_orderkey";
+  private static final long LINEITEM_ROWS = 60_175;
+
+  /**
+   * A template for Hash Join spilling tests
+   */
+  private void testSpill(long maxMem, long numPartitions, long rowsInBatch, String joinType,
+                         long expectedRows, long fromCycle, long minSpilledPartitions) throws Exception {
+    ClusterFixtureBuilder builder = ClusterFixture.builder(dirTestWatcher)
+        .sessionOption(ExecConstants.HASHJOIN_MAX_MEMORY_KEY, maxMem)
+        .sessionOption(ExecConstants.HASHJOIN_NUM_PARTITIONS_KEY, numPartitions)
+        .sessionOption(ExecConstants.HASHJOIN_NUM_ROWS_IN_BATCH_KEY, rowsInBatch)
+        .sessionOption(PlannerSettings.MERGEJOIN.getOptionName(), false)
+        .configProperty(ExecConstants.SYS_STORE_PROVIDER_LOCAL_ENABLE_WRITE, false)
+        .maxParallelization(1)
+        .saveProfiles();
+
+    try (ClusterFixture cluster = builder.build();
+         ClientFixture client = cluster.clientFixture()) {
+      String sql = String.format(JOIN_SQL, joinType);
+      QueryBuilder.QuerySummary summary = client.queryBuilder().sql(sql).run();
+      assertEquals(expectedRows, summary.recordCount());
+
+      ProfileParser profile = client.parseProfile(summary.queryIdString());
+      List<ProfileParser.OperatorProfile> ops = profile.getOpsOfType(UserBitShared.CoreOperatorType.HASH_JOIN_VALUE);
+      assertTrue(!ops.isEmpty());
+      ProfileParser.OperatorProfile hj0 = ops.get(0);
+      long opCycle = hj0.getMetric(HashJoinBatch.Metric.SPILL_CYCLE.ordinal());
+      assertTrue(opCycle >= fromCycle);
+      long opSpilledPartitions = hj0.getMetric(HashJoinBatch.Metric.SPILLED_PARTITIONS.ordinal());
+      assertTrue(opSpilledPartitions >= minSpilledPartitions);
+      if (fromCycle == 0) {
+        assertEquals(0, opSpilledPartitions);
+      }
+    }
+  }
+
+  @Test
+  public void testSimpleHashJoinSpill() throws Exception {
+    testSpill(3_000_000, 16, 256, "INNER", LINEITEM_ROWS, 1, 1);
+  }
+
+  @Test
+  public void testLeftHashJoinSpill() throws Exception {
+    testSpill(3_000_000, 16, 256, "LEFT", LINEITEM_ROWS, 1, 1);
+  }
+
+  /**
+   * Probe rows headed for a spilled partition whose key is not in the runtime filter of the build keys
+   * are dropped rather than spilled
+   */
+  @Test
+  public void testRuntimeFilterOfSpilledProbeRows() throws Exception {
+    ClusterFixtureBuilder builder = ClusterFixture.builder(dirTestWatcher)
+        .sessionOption(ExecConstants.HASHJOIN_MAX_MEMORY_KEY, 3_000_000)
+        .sessionOption(ExecConstants.HASHJOIN_NUM_PARTITIONS_KEY, 16)
+        .sessionOption(ExecConstants.HASHJOIN_NUM_ROWS_IN_BATCH_KEY, 256)
+        .sessionOption(ExecConstants.HASHJOIN_ENABLE_RUNTIME_FILTER_KEY, true)
+        .sessionOption(PlannerSettings.MERGEJOIN.getOptionName(), false)
+        .configProperty(ExecConstants.SYS_STORE_PROVIDER_LOCAL_ENABLE_WRITE, false)
+        .maxParallelization(1)
+        .saveProfiles();
+
+    try (ClusterFixture cluster = builder.build();
+         ClientFixture client = cluster.clientFixture()) {
+      // Only the orders with an even key are on the build side, so about half of the lineitems have no match
+      long expectedRows = client.queryBuilder()
+          .sql("SELECT COUNT(*) FROM cp.`tpch/lineitem.parquet` WHERE MOD(l_orderkey, 2) = 0")
+          .singletonLong();
+      String sql = String.format(JOIN_SQL, "INNER") + " WHERE MOD(o.o_orderkey, 2) = 0";
+      QueryBuilder.QuerySummary summary = client.queryBuilder().sql(sql).run();
+      assertEquals(expectedRows, summary.recordCount());
+
+      ProfileParser profile = client.parseProfile(summary.queryIdString());
+      List<ProfileParser.OperatorProfile> ops = profile.getOpsOfType(UserBitShared.CoreOperatorType.HASH_JOIN_VALUE);
+      assertTrue(!ops.isEmpty());
+      ProfileParser.OperatorProfile hj0 = ops.get(0);
+      assertTrue(hj0.getMetric(HashJoinBatch.Metric.SPILLED_PARTITIONS.ordinal()) >= 1);
+      assertTrue(hj0.getMetric(HashJoinBatch.Metric.RUNTIME_FILTERED_ROWS.ordinal()) > 0);
+    }
+  }
+
+  /**
+   * With a single partition spilling is disabled; the join should then use unbounded memory
+   */
+  @Test
+  public void testHashJoinNoSpillSinglePartition() throws Exception {
+    testSpill(3_000_000, 1, 256, "INNER", LINEITEM_ROWS, 0, 0);
+  }
+}
@@ -24,6 +24,7 @@ import org.apache.drill.common.types.TypeProtos;
 import org.apache.drill.common.types.Types;
 import org.apache.drill.exec.ExecConstants;
 import org.apache.drill.exec.rpc.RpcException;
+import org.apache.drill.exec.rpc.user.QueryDataBatch;
 import org.apache.drill.test.TestBuilder;
 import org.junit.BeforeClass;
 import org.junit.Test;
@@ -31,10 +32,12 @@ import org.junit.experimental.categories.Category;
 
 import java.nio.file.Paths;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import static junit.framework.TestCase.fail;
 import static org.hamcrest.CoreMatchers.containsString;
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
 
@@ -410,6 +413,35 @@ public class TestNestedLoopJoin extends JoinTestBase {
     }
   }
 
+  @Test
+  public void testNlJoinOutputBatchSize() throws Exception {
+    // 100 rows of about 150 bytes; an output batch size of 1KB makes the join return them in many batches
+    final String query = "select n.n_nationkey, n.n_comment, r.r_regionkey, r.r_name from cp.`tpch/nation.parquet` n " +
+        "inner join cp.`tpch/region.parquet` r on n.n_regionkey <> r.r_regionkey";
+    final String orderedQuery = query + " order by n.n_nationkey, r.r_regionkey";
+    final String expected = getResultString(testSqlWithResults(orderedQuery), ",");
+    try {
+      test("alter system set `%s` = 1024", ExecConstants.OUTPUT_BATCH_SIZE);
+
+      final List<QueryDataBatch> results = testSqlWithResults(query);
+      int batchCount = 0;
+      int rowCount = 0;
+      for (QueryDataBatch result : results) {
+        if (result.getHeader().getRowCount() > 0) {
+          batchCount++;
+          rowCount += result.getHeader().getRowCount();
+        }
+        result.release();
+      }
+      assertEquals(100, rowCount);
+      assertTrue("Expected several output batches, got " + batchCount, batchCount > 1);
+
+      assertEquals(expected, getResultString(testSqlWithResults(orderedQuery), ","));
+    } finally {
+      test("alter system reset `%s`", ExecConstants.OUTPUT_BATCH_SIZE);
+    }
+  }
+
   @Test
   public void testNlJoinWithStringsInCondition() throws Exception {
     try {
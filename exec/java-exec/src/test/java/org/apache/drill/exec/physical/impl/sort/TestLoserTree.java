@@ -0,0 +1,117 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.drill.exec.physical.impl.sort;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.apache.drill.categories.OperatorTest;
+import org.apache.drill.test.DrillTest;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+@Category(OperatorTest.class)
+public class TestLoserTree extends DrillTest {
+
+  /**
+   * Merges sorted int arrays with a loser tree, in the same way as the
+   * merging receiver and the external sort copier drive it.
+   */
+
+  private static int[] merge(final int[][] sources) {
+    final int[] positions = new int[sources.length];
+    LoserTree tree = new LoserTree(sources.length, new LoserTree.SourceComparator() {
+      @Override
+      public int compareSources(int leftSource, int rightSource) {
+        return Integer.compare(sources[leftSource][positions[leftSource]],
+                               sources[rightSource][positions[rightSource]]);
+      }
+    });
+    int total = 0;
+    for (int i = 0; i < sources.length; i++) {
+      total += sources[i].length;
+      if (sources[i].length == 0) {
+        tree.exhaust(i);
+      }
+    }
+    tree.build();
+    int[] result = new int[total];
+    int count = 0;
+    int source;
+    while ((source = tree.winner()) >= 0) {
+      result[count++] = sources[source][positions[source]];
+      if (++positions[source] == sources[source].length) {
+        tree.exhaust(source);
+      }
+      tree.replay();
+    }
+    assertEquals(total, count);
+    return result;
+  }
+
+  private static void verify(int[][] sources) {
+    List<Integer> all = new ArrayList<>();
+    for (int[] source : sources) {
+      for (int value : source) {
+        all.add(value);
+      }
+    }
+    int[] expected = new int[all.size()];
+    for (int i = 0; i < expected.length; i++) {
+      expected[i] = all.get(i);
+    }
+    Arrays.sort(expected);
+    assertEquals(Arrays.toString(expected), Arrays.toString(merge(sources)));
+  }
+
+  @Test
+  public void testNoSources() {
+    verify(new int[][] { });
+  }
+
+  @Test
+  public void testSingleSource() {
+    verify(new int[][] { { 1, 2, 2, 5 } });
+  }
+
+  @Test
+  public void testEmptySources() {
+    verify(new int[][] { { }, { 3, 4 }, { }, { 1, 5 }, { } });
+    verify(new int[][] { { }, { } });
+  }
+
+  @Test
+  public void testRandomSources() {
+    Random random = new Random(42);
+    for (int sourceCount : new int[] { 2, 3, 7, 8, 200, 257 }) {
+      int[][] sources = new int[sourceCount][];
+      for (int i = 0; i < sourceCount; i++) {
+        sources[i] = new int[random.nextInt(50)];
+        for (int j = 0; j < sources[i].length; j++) {
+          sources[i][j] = random.nextInt(100);
+        }
+        Arrays.sort(sources[i]);
+      }
+      verify(sources);
+    }
+  }
+}
@@ -83,7 +83,13 @@ public class TestSortImpl extends DrillTest {
                                VectorContainer outputBatch) {
     FieldReference expr = FieldReference.getWithQuotedRef("key");
     Ordering ordering = new Ordering(sortOrder, expr, nullOrder);
-    Sort popConfig = new Sort(null, Lists.newArrayList(ordering), false);
+    return makeSortImpl(fixture, Lists.newArrayList(ordering), outputBatch);
+  }
+
+  public static SortImpl makeSortImpl(OperatorFixture fixture,
+                               List<Ordering> orderings,
+                               VectorContainer outputBatch) {
+    Sort popConfig = new Sort(null, orderings, false);
     OperatorContext opContext = fixture.newOperatorContext(popConfig);
     QueryId queryId = QueryId.newBuilder()
         .setPart1(1234)
@@ -115,11 +121,17 @@ public class TestSortImpl extends DrillTest {
     private final List<RowSet> expected = new ArrayList<>();
     String sortOrder = Ordering.ORDER_ASC;
     String nullOrder = Ordering.NULLS_UNSPECIFIED;
+    List<Ordering> orderings;
 
     public SortTestFixture(OperatorFixture fixture) {
       this.fixture = fixture;
     }
 
+    public SortTestFixture(OperatorFixture fixture, List<Ordering> orderings) {
+      this.fixture = fixture;
+      this.orderings = orderings;
+    }
+
     public SortTestFixture(OperatorFixture fixture, String sortOrder, String nullOrder) {
       this.fixture = fixture;
       this.sortOrder = sortOrder;
@@ -136,7 +148,9 @@ public class TestSortImpl extends DrillTest {
 
     public void run() {
       VectorContainer dest = new VectorContainer();
-      SortImpl sort = makeSortImpl(fixture, sortOrder, nullOrder, dest);
+      SortImpl sort = orderings == null
+          ? makeSortImpl(fixture, sortOrder, nullOrder, dest)
+          : makeSortImpl(fixture, orderings, dest);
 
       // Simulates a NEW_SCHEMA event
 
@@ -491,6 +505,109 @@ public class TestSortImpl extends DrillTest {
     }
   }
 
+  /**
+   * Sort multiple batches with normalized keys. The batches are large
+   * enough to exercise the radix passes as well as the quicksort used for
+   * small ranges.
+   *
+   * @throws Exception
+   */
+
+  @Test
+  public void testNormalizedKeys() throws Exception {
+    OperatorFixture.Builder builder = OperatorFixture.builder();
+    builder.systemOption(ExecConstants.EXTERNAL_SORT_NORMALIZED_KEYS_KEY, true);
+    try (OperatorFixture fixture = builder.build()) {
+      int rowCount = 20000;
+      DataGenerator dataGen = new DataGenerator(fixture, rowCount, 1000);
+      DataValidator validator = new DataValidator(rowCount, ValueVector.MAX_ROW_COUNT);
+      runLargeSortTest(fixture, dataGen, validator);
+    }
+  }
+
+  /**
+   * Normalized keys for a nullable, descending string key with a prefix
+   * short enough that some keys tie on the prefix and must be ordered
+   * by the generated comparison.
+   *
+   * @throws Exception
+   */
+
+  @Test
+  public void testNormalizedStringKeys() throws Exception {
+    OperatorFixture.Builder builder = OperatorFixture.builder();
+    builder.systemOption(ExecConstants.EXTERNAL_SORT_NORMALIZED_KEYS_KEY, true);
+    builder.systemOption(ExecConstants.EXTERNAL_SORT_NORMALIZED_KEYS_PREFIX_KEY, 2);
+    try (OperatorFixture fixture = builder.build()) {
+      BatchSchema schema = SortTestUtilities.makeSchema(MinorType.VARCHAR, true);
+      SortTestFixture sortTest = new SortTestFixture(fixture, Ordering.ORDER_DESC, Ordering.NULLS_FIRST);
+      sortTest.addInput(fixture.rowSetBuilder(schema)
+          .addRow("abc", "third")
+          .addRow(null, "null")
+          .addRow("b", "first")
+          .build());
+      sortTest.addInput(fixture.rowSetBuilder(schema)
+          .addRow("ab", "fifth")
+          .addRow("abd", "second")
+          .addRow(null, "null")
+          .addRow("abca", "fourth")
+          .build());
+      sortTest.addOutput(fixture.rowSetBuilder(schema)
+          .addRow(null, "null")
+          .addRow(null, "null")
+          .addRow("b", "first")
+          .addRow("abd", "second")
+          .addRow("abca", "fourth")
+          .addRow("abc", "third")
+          .addRow("ab", "fifth")
+          .build());
+      sortTest.run();
+    }
+  }
+
+  /**
+   * Normalized keys for a string key followed by a second key. The string
+   * keys tie on their truncated prefixes, so the second key must not decide
+   * the order: the generated comparison has to look at the whole strings
+   * first.
+   *
+   * @throws Exception
+   */
+
+  @Test
+  public void testNormalizedStringKeyTiesWithSecondKey() throws Exception {
+    OperatorFixture.Builder builder = OperatorFixture.builder();
+    builder.systemOption(ExecConstants.EXTERNAL_SORT_NORMALIZED_KEYS_KEY, true);
+    builder.systemOption(ExecConstants.EXTERNAL_SORT_NORMALIZED_KEYS_PREFIX_KEY, 2);
+    try (OperatorFixture fixture = builder.build()) {
+      BatchSchema schema = new SchemaBuilder()
+          .add("s", MinorType.VARCHAR)
+          .add("x", MinorType.INT)
+          .build();
+      List<Ordering> orderings = Lists.newArrayList(
+          new Ordering(Ordering.ORDER_ASC, FieldReference.getWithQuotedRef("s"), Ordering.NULLS_UNSPECIFIED),
+          new Ordering(Ordering.ORDER_ASC, FieldReference.getWithQuotedRef("x"), Ordering.NULLS_UNSPECIFIED));
+      SortTestFixture sortTest = new SortTestFixture(fixture, orderings);
+      sortTest.addInput(fixture.rowSetBuilder(schema)
+          .addRow("abY", 1)
+          .addRow("b", 0)
+          .build());
+      sortTest.addInput(fixture.rowSetBuilder(schema)
+          .addRow("abX", 2)
+          .addRow("ab", 3)
+          .addRow("abX", 1)
+          .build());
+      sortTest.addOutput(fixture.rowSetBuilder(schema)
+          .addRow("ab", 3)
+          .addRow("abX", 1)
+          .addRow("abX", 2)
+          .addRow("abY", 1)
+          .addRow("b", 0)
+          .build());
+      sortTest.run();
+    }
+  }
+
   /**
    * Use this function to pre-load Netty's free list with a large
    * number of "dirty" blocks. This will often catch error due to
@@ -42,6 +42,7 @@ import org.apache.drill.exec.server.QueryProfileStoreContext;
 import org.apache.drill.exec.store.dfs.DrillFileSystem;
 import org.apache.drill.exec.store.easy.json.JSONRecordReader;
 import org.apache.drill.exec.work.batch.IncomingBuffers;
+import org.apache.drill.exec.work.filter.RuntimeFilterSink;
 import org.apache.drill.test.DrillTestWrapper;
 import org.apache.drill.common.config.DrillConfig;
 import org.apache.drill.common.exceptions.ExecutionSetupException;
@@ -437,6 +438,11 @@ public class PhysicalOpUnitTestBase extends ExecTest {
     public boolean isUserAuthenticationEnabled() {
       return false;
     }
+
+    @Override
+    public RuntimeFilterSink getRuntimeFilterSink() {
+      return null;
+    }
   }
 
   /**
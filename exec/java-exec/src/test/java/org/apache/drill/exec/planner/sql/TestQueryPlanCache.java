@@ -0,0 +1,140 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.drill.exec.planner.sql;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.drill.categories.SqlTest;
+import org.apache.drill.exec.ExecConstants;
+import org.apache.drill.exec.planner.physical.PlannerSettings;
+import org.apache.drill.test.ClusterFixture;
+import org.apache.drill.test.ClusterTest;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+@Category(SqlTest.class)
+public class TestQueryPlanCache extends ClusterTest {
+
+  private static QueryPlanCache planCache;
+
+  @BeforeClass
+  public static void setup() throws Exception {
+    startCluster(ClusterFixture.builder(dirTestWatcher)
+        .sessionOption(PlannerSettings.PLAN_CACHE_KEY, true));
+    planCache = cluster.drillbit().getContext().getPlanCache();
+  }
+
+  @Before
+  public void clearCache() {
+    planCache.invalidateAll();
+  }
+
+  @Test
+  public void testNormalize() {
+    assertEquals("select a from t", QueryPlanCache.normalize("  select  a\n\tfrom t ;; "));
+    assertEquals("select 'a  b' from `t  1`", QueryPlanCache.normalize("select 'a  b'\nfrom `t  1`"));
+  }
+
+  @Test
+  public void testRepeatedQuery() throws Exception {
+    String sql = "select employee_id from cp.`employee.json` where employee_id = 1";
+    final long hits = planCache.getHitCount();
+    assertEquals(1L, client.queryBuilder().sql(sql).singletonLong());
+    assertEquals(1, planCache.size());
+    assertEquals(hits, planCache.getHitCount());
+
+    // Same query with different white space uses the cached plan.
+
+    sql = "select employee_id\nfrom  cp.`employee.json`\nwhere employee_id = 1;";
+    assertEquals(1L, client.queryBuilder().sql(sql).singletonLong());
+    assertEquals(1, planCache.size());
+    assertEquals(hits + 1, planCache.getHitCount());
+  }
+
+  @Test
+  public void testTableChange() throws Exception {
+    final File table = new File(dirTestWatcher.getDfsTestTmpDir(), "plan_cache_table");
+    try {
+      // Date the table back, so that the file added below is seen as a change
+      // even on file systems with a coarse modification time.
+
+      final long past = System.currentTimeMillis() - TimeUnit.HOURS.toMillis(1);
+      final File first = new File(table, "a.json");
+      FileUtils.writeStringToFile(first, "{\"id\": 1}\n{\"id\": 2}\n", StandardCharsets.UTF_8);
+      first.setLastModified(past);
+      table.setLastModified(past);
+
+      final String sql = "select count(*) from dfs.tmp.plan_cache_table";
+      final long hits = planCache.getHitCount();
+      assertEquals(2L, client.queryBuilder().sql(sql).singletonLong());
+      assertEquals(2L, client.queryBuilder().sql(sql).singletonLong());
+      assertEquals(hits + 1, planCache.getHitCount());
+
+      // A new file changes the table version: the query is planned again and
+      // reads the new file.
+
+      FileUtils.writeStringToFile(new File(table, "b.json"), "{\"id\": 3}\n", StandardCharsets.UTF_8);
+      assertEquals(3L, client.queryBuilder().sql(sql).singletonLong());
+      assertEquals(hits + 1, planCache.getHitCount());
+      assertEquals(3L, client.queryBuilder().sql(sql).singletonLong());
+      assertEquals(hits + 2, planCache.getHitCount());
+    } finally {
+      FileUtils.deleteQuietly(table);
+    }
+  }
+
+  @Test
+  public void testOptionChange() throws Exception {
+    String sql = "select count(*) from cp.`employee.json`";
+    assertEquals(1155L, client.queryBuilder().sql(sql).singletonLong());
+    try {
+      client.alterSession(ExecConstants.SLICE_TARGET, 10);
+      assertEquals(1155L, client.queryBuilder().sql(sql).singletonLong());
+      assertEquals(2, planCache.size());
+    } finally {
+      client.resetSession(ExecConstants.SLICE_TARGET);
+    }
+  }
+
+  @Test
+  public void testContextFunctionsNotCached() throws Exception {
+    client.queryBuilder().sql("select now() from cp.`employee.json` limit 1").run();
+    client.queryBuilder().sql("select session_id from cp.`employee.json` limit 1").run();
+    client.queryBuilder().sql("select random() from cp.`employee.json` limit 1").run();
+    assertEquals(0, planCache.size());
+  }
+
+  @Test
+  public void testDdlInvalidatesCache() throws Exception {
+    client.queryBuilder().sql("select employee_id from cp.`employee.json` limit 1").run();
+    assertEquals(1, planCache.size());
+    try {
+      client.queryBuilder().sql("create view dfs.tmp.plan_cache_view as select employee_id from cp.`employee.json`").run();
+      assertEquals(0, planCache.size());
+    } finally {
+      client.queryBuilder().sql("drop view if exists dfs.tmp.plan_cache_view").run();
+    }
+  }
+}
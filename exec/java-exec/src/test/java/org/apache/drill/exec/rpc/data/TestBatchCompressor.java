@@ -0,0 +1,164 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.drill.exec.rpc.data;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.DrillBuf;
+
+import java.util.Random;
+
+import org.apache.drill.exec.ExecConstants;
+import org.apache.drill.exec.ops.OperatorStats;
+import org.apache.drill.exec.physical.impl.partitionsender.PartitionSenderRootExec.Metric;
+import org.apache.drill.exec.planner.physical.PlannerSettings;
+import org.apache.drill.test.BaseDirTestWatcher;
+import org.apache.drill.test.ClientFixture;
+import org.apache.drill.test.ClusterFixture;
+import org.apache.drill.test.ClusterFixtureBuilder;
+import org.apache.drill.test.SubOperatorTest;
+import org.junit.Rule;
+import org.junit.Test;
+
+public class TestBatchCompressor extends SubOperatorTest {
+
+  @Rule
+  public final BaseDirTestWatcher dirTestWatcher = new BaseDirTestWatcher();
+
+  private DrillBuf newBuffer(int size, boolean compressible) {
+    DrillBuf buf = fixture.allocator().buffer(size);
+    Random random = new Random(size);
+    for (int i = 0; i < size; i++) {
+      buf.setByte(i, compressible ? i % 7 : random.nextInt());
+    }
+    buf.writerIndex(size);
+    return buf;
+  }
+
+  private BatchCompressor newCompressor(BatchCompressor.Mode mode, OperatorStats stats) {
+    return new BatchCompressor(fixture.allocator(), mode, stats,
+        Metric.BYTES_BEFORE_COMPRESSION, Metric.BYTES_AFTER_COMPRESSION);
+  }
+
+  private static void release(ByteBuf[] buffers) {
+    for (ByteBuf buf : buffers) {
+      buf.release();
+    }
+  }
+
+  @Test
+  public void testRoundTrip() throws Exception {
+    OperatorStats stats = new OperatorStats(0, 0, 0, fixture.allocator());
+    BatchCompressor compressor = newCompressor(BatchCompressor.Mode.ON, stats);
+    ByteBuf[] buffers = {newBuffer(10_000, true), newBuffer(0, true), newBuffer(3_000, false), newBuffer(1, true)};
+    try {
+      DrillBuf body = compressor.compressBody(buffers);
+      assertNotNull(body);
+      assertTrue(body.readableBytes() < 13_001);
+      assertEquals(13_001, stats.getLongStat(Metric.BYTES_BEFORE_COMPRESSION));
+      assertEquals(body.readableBytes(), stats.getLongStat(Metric.BYTES_AFTER_COMPRESSION));
+
+      DrillBuf result = BatchCompressor.decompress(fixture.allocator(), body);
+      body.release();
+      try {
+        assertEquals(13_001, result.readableBytes());
+        int offset = 0;
+        for (ByteBuf buf : buffers) {
+          for (int i = 0; i < buf.readableBytes(); i++) {
+            assertEquals(buf.getByte(i), result.getByte(offset++));
+          }
+        }
+      } finally {
+        result.release();
+      }
+    } finally {
+      release(buffers);
+    }
+  }
+
+  @Test
+  public void testIncompressible() {
+    OperatorStats stats = new OperatorStats(0, 0, 0, fixture.allocator());
+    ByteBuf[] buffers = {newBuffer(10_000, false)};
+    try {
+      assertNull(newCompressor(BatchCompressor.Mode.ON, stats).compressBody(buffers));
+      assertNull(newCompressor(BatchCompressor.Mode.OFF, stats).compressBody(buffers));
+      assertEquals(0, stats.getLongStat(Metric.BYTES_BEFORE_COMPRESSION));
+    } finally {
+      release(buffers);
+    }
+  }
+
+  @Test
+  public void testAdaptive() {
+    OperatorStats stats = new OperatorStats(0, 0, 0, fixture.allocator());
+    BatchCompressor compressor = newCompressor(BatchCompressor.Mode.ADAPTIVE, stats);
+    ByteBuf[] small = {newBuffer(BatchCompressor.ADAPTIVE_MIN_BYTES - 1, true)};
+    ByteBuf[] good = {newBuffer(10_000, true)};
+    ByteBuf[] bad = {newBuffer(10_000, false)};
+    try {
+      assertNull(compressor.compressBody(small));
+      DrillBuf body = compressor.compressBody(good);
+      assertNotNull(body);
+      body.release();
+
+      // an incompressible batch causes the next batch to be skipped, then the next two, and so on
+      assertNull(compressor.compressBody(bad));
+      assertNull(compressor.compressBody(good));
+      assertNull(compressor.compressBody(bad));
+      assertNull(compressor.compressBody(good));
+      assertNull(compressor.compressBody(good));
+      body = compressor.compressBody(good);
+      assertNotNull(body);
+      body.release();
+    } finally {
+      release(small);
+      release(good);
+      release(bad);
+    }
+  }
+
+  /**
+   * Run a query with a hash exchange between two Drillbits, with and without compression
+   */
+  @Test
+  public void testCompressedExchange() throws Exception {
+    ClusterFixtureBuilder builder = ClusterFixture.builder(dirTestWatcher)
+        .clusterSize(2)
+        .sessionOption(ExecConstants.SLICE_TARGET, 1)
+        .sessionOption(PlannerSettings.STREAMAGG.getOptionName(), false);
+    String sql = "SELECT SUM(c) FROM (SELECT l_comment, COUNT(*) c FROM cp.`tpch/lineitem.parquet` GROUP BY l_comment)";
+
+    try (ClusterFixture cluster = builder.build();
+         ClientFixture client = cluster.clientFixture()) {
+      long expected = client.queryBuilder().sql(sql).singletonLong();
+
+      long compressedBytes = DataRpcMetrics.getBytesBeforeCompression();
+      client.alterSession(ExecConstants.DATA_COMPRESSION_KEY, "on");
+      assertEquals(expected, client.queryBuilder().sql(sql).singletonLong());
+      assertTrue(DataRpcMetrics.getBytesBeforeCompression() > compressedBytes);
+
+      client.alterSession(ExecConstants.DATA_COMPRESSION_KEY, "adaptive");
+      assertEquals(expected, client.queryBuilder().sql(sql).singletonLong());
+    }
+  }
+}
@@ -0,0 +1,200 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.drill.exec.rpc.data;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.drill.exec.ExecConstants;
+import org.apache.drill.exec.planner.physical.PlannerSettings;
+import org.apache.drill.exec.proto.BitData.FragmentRecordBatch;
+import org.apache.drill.exec.proto.GeneralRPCProtos.Ack;
+import org.apache.drill.exec.proto.UserBitShared.QueryId;
+import org.apache.drill.exec.record.FragmentWritableBatch;
+import org.apache.drill.exec.record.WritableBatch;
+import org.apache.drill.exec.rpc.Response;
+import org.apache.drill.exec.rpc.ResponseSender;
+import org.apache.drill.exec.rpc.RpcException;
+import org.apache.drill.exec.rpc.RpcOutcomeListener;
+import org.apache.drill.exec.vector.ValueVector;
+import org.apache.drill.test.BaseDirTestWatcher;
+import org.apache.drill.test.ClientFixture;
+import org.apache.drill.test.ClusterFixture;
+import org.apache.drill.test.ClusterFixtureBuilder;
+import org.apache.drill.test.DrillTest;
+import org.junit.Rule;
+import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.DrillBuf;
+
+public class TestDataTunnelCredit extends DrillTest {
+
+  @Rule
+  public final BaseDirTestWatcher dirTestWatcher = new BaseDirTestWatcher();
+
+  private static final RpcOutcomeListener<Ack> IGNORE = new RpcOutcomeListener<Ack>() {
+    @Override
+    public void failed(RpcException ex) { }
+
+    @Override
+    public void success(Ack value, ByteBuf buffer) { }
+
+    @Override
+    public void interrupted(InterruptedException e) { }
+  };
+
+  private static FragmentWritableBatch newBatch(int receivingMinorFragmentId) {
+    return new FragmentWritableBatch(false, QueryId.getDefaultInstance(), 0, 0, 1, receivingMinorFragmentId,
+        WritableBatch.getBatchNoHV(0, Collections.<ValueVector>emptyList(), false));
+  }
+
+  private static Response ack(int credit) {
+    return new Response(DataRpcConfig.OK.rpcType, Ack.newBuilder().setOk(true).setCredit(credit).build());
+  }
+
+  @Test
+  public void testCreditWindow() {
+    final List<ResponseSender> pending = new ArrayList<>();
+    DataServerRequestHandler handler = mock(DataServerRequestHandler.class);
+    doAnswer(new Answer<Void>() {
+      @Override
+      public Void answer(InvocationOnMock invocation) {
+        pending.add(invocation.<ResponseSender>getArgument(2));
+        return null;
+      }
+    }).when(handler).handle(any(FragmentRecordBatch.class), any(DrillBuf[].class), any(ResponseSender.class));
+    DataTunnel tunnel = new DataTunnel(handler);
+
+    // until a receiver grants a credit, the tunnel as a whole has three batches in flight
+    for (int i = 0; i < 3; i++) {
+      assertTrue(tunnel.hasCredit(0));
+      tunnel.sendRecordBatch(IGNORE, newBatch(0));
+    }
+    assertFalse(tunnel.hasCredit(0));
+    assertFalse(tunnel.hasCredit(1));
+    assertFalse(tunnel.grantsCredit(0));
+
+    // an ack without a credit frees a batch of the tunnel
+    pending.remove(0).send(DataRpcConfig.OK);
+    assertFalse(tunnel.grantsCredit(0));
+    assertTrue(tunnel.hasCredit(1));
+    tunnel.sendRecordBatch(IGNORE, newBatch(1));
+    assertFalse(tunnel.hasCredit(0));
+    assertFalse(tunnel.hasCredit(1));
+
+    // a credit gives the receiver a window of its own
+    pending.remove(0).send(ack(2));
+    assertTrue(tunnel.grantsCredit(0));
+    assertFalse(tunnel.grantsCredit(1));
+    assertTrue(tunnel.hasCredit(0));
+    assertTrue(tunnel.hasCredit(1));
+    tunnel.sendRecordBatch(IGNORE, newBatch(0));
+    tunnel.sendRecordBatch(IGNORE, newBatch(0));
+    assertFalse(tunnel.hasCredit(0));
+    assertTrue(tunnel.hasCredit(1));
+
+    // a larger credit opens the window
+    pending.remove(0).send(ack(5));
+    assertTrue(tunnel.hasCredit(0));
+    tunnel.sendRecordBatch(IGNORE, newBatch(0));
+    tunnel.sendRecordBatch(IGNORE, newBatch(0));
+    tunnel.sendRecordBatch(IGNORE, newBatch(0));
+    assertFalse(tunnel.hasCredit(0));
+
+    // the batch to the other receiver was sent with a permit of the tunnel
+    pending.remove(0).send(DataRpcConfig.OK);
+    assertFalse(tunnel.hasCredit(0));
+    assertTrue(tunnel.hasCredit(1));
+
+    // a smaller credit closes it until enough batches are acked
+    pending.remove(0).send(ack(2));
+    assertFalse(tunnel.hasCredit(0));
+    pending.remove(0).send(ack(2));
+    pending.remove(0).send(ack(2));
+    assertFalse(tunnel.hasCredit(0));
+    pending.remove(0).send(ack(2));
+    assertTrue(tunnel.hasCredit(0));
+
+    // acks without a credit leave the window as is
+    pending.remove(0).send(DataRpcConfig.OK);
+    tunnel.sendRecordBatch(IGNORE, newBatch(0));
+    assertTrue(tunnel.hasCredit(0));
+    tunnel.sendRecordBatch(IGNORE, newBatch(0));
+    assertFalse(tunnel.hasCredit(0));
+  }
+
+  @Test
+  public void testAckCredit() {
+    final List<Response> responses = new ArrayList<>();
+    ResponseSender sender = new ResponseSender() {
+      @Override
+      public void send(Response r) {
+        responses.add(r);
+      }
+    };
+
+    // a batch for two receivers is acked once both consumed it, with the smaller credit
+    AckSender ackSender = new AckSender(sender);
+    ackSender.increment();
+    ackSender.increment();
+    ackSender.sendOk(4);
+    assertTrue(responses.isEmpty());
+    ackSender.sendOk(2);
+    assertEquals(1, responses.size());
+    assertEquals(2, ((Ack) responses.get(0).pBody).getCredit());
+
+    ackSender = new AckSender(sender);
+    ackSender.increment();
+    ackSender.sendOk();
+    assertFalse(((Ack) responses.get(1).pBody).hasCredit());
+  }
+
+  /**
+   * Run a query with hash exchanges between two Drillbits, with and without credits
+   */
+  @Test
+  public void testCreditedExchange() throws Exception {
+    ClusterFixtureBuilder builder = ClusterFixture.builder(dirTestWatcher)
+        .clusterSize(2)
+        .sessionOption(ExecConstants.SLICE_TARGET, 1)
+        .sessionOption(PlannerSettings.STREAMAGG.getOptionName(), false);
+    String sql = "SELECT SUM(c) FROM (SELECT l_comment, COUNT(*) c FROM cp.`tpch/lineitem.parquet` GROUP BY l_comment)";
+
+    try (ClusterFixture cluster = builder.build();
+         ClientFixture client = cluster.clientFixture()) {
+      long expected = client.queryBuilder().sql(sql).singletonLong();
+
+      client.alterSession(ExecConstants.DATA_CREDITS_PER_SENDER_KEY, 1);
+      assertEquals(expected, client.queryBuilder().sql(sql).singletonLong());
+
+      client.alterSession(ExecConstants.DATA_CREDITS_PER_SENDER_KEY, 4);
+      assertEquals(expected, client.queryBuilder().sql(sql).singletonLong());
+    }
+  }
+}
@@ -0,0 +1,97 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.drill.exec.server.rest;
+
+import org.apache.drill.exec.ExecConstants;
+import org.apache.drill.test.BaseDirTestWatcher;
+import org.apache.drill.test.ClusterFixture;
+import org.apache.drill.test.ClusterFixtureBuilder;
+import org.apache.drill.test.RestClientFixture;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+public class TestStreamingQueryResult {
+  @Rule
+  public final BaseDirTestWatcher dirTestWatcher = new BaseDirTestWatcher();
+
+  private ClusterFixtureBuilder clusterBuilder() {
+    return ClusterFixture.builder(dirTestWatcher).
+      configProperty(ExecConstants.HTTP_ENABLE, true).
+      configProperty(ExecConstants.HTTP_PORT_HUNT, true).
+      configProperty(ExecConstants.SYS_STORE_PROVIDER_LOCAL_ENABLE_WRITE, false).
+      // make the query wait for the client after each batch
+      configProperty(ExecConstants.HTTP_STREAM_MAX_QUEUED_BATCHES, 1);
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void testRowsLayout() throws Exception {
+    try (ClusterFixture cluster = clusterBuilder().build();
+         RestClientFixture restClientFixture = cluster.restClientFixture()) {
+      Map<String, Object> result = restClientFixture.streamQuery(
+        "select n_nationkey, n_name from cp.`tpch/nation.parquet` order by n_nationkey", "rows");
+
+      Assert.assertEquals("COMPLETED", result.get("queryState"));
+      Assert.assertNotNull(result.get("queryId"));
+      Assert.assertEquals(Arrays.asList("n_nationkey", "n_name"), result.get("columns"));
+      List<Map<String, String>> rows = (List<Map<String, String>>) result.get("rows");
+      Assert.assertEquals(25, rows.size());
+      Assert.assertEquals("0", rows.get(0).get("n_nationkey"));
+      Assert.assertEquals("ALGERIA", rows.get(0).get("n_name"));
+    }
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void testColumnsLayout() throws Exception {
+    try (ClusterFixture cluster = clusterBuilder().build();
+         RestClientFixture restClientFixture = cluster.restClientFixture()) {
+      Map<String, Object> result = restClientFixture.streamQuery(
+        "select l_orderkey from cp.`tpch/lineitem.parquet`", "columns");
+
+      Assert.assertEquals("COMPLETED", result.get("queryState"));
+      Assert.assertEquals(Arrays.asList("l_orderkey"), result.get("columns"));
+      int rowCount = 0;
+      for (Map<String, Object> batch : (List<Map<String, Object>>) result.get("batches")) {
+        List<List<String>> values = (List<List<String>>) batch.get("values");
+        Assert.assertEquals(1, values.size());
+        Assert.assertEquals(batch.get("rowCount"), values.get(0).size());
+        rowCount += values.get(0).size();
+      }
+      Assert.assertEquals(60175, rowCount);
+    }
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void testFailedQuery() throws Exception {
+    try (ClusterFixture cluster = clusterBuilder().build();
+         RestClientFixture restClientFixture = cluster.restClientFixture()) {
+      Map<String, Object> result = restClientFixture.streamQuery("select * from cp.`no_such_file.json`", "rows");
+
+      Assert.assertEquals("FAILED", result.get("queryState"));
+      Assert.assertNotNull(result.get("errorMessage"));
+      Assert.assertTrue(((List<Object>) result.get("rows")).isEmpty());
+    }
+  }
+}
@@ -0,0 +1,124 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.drill.exec.sql;
+
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+
+import org.apache.drill.PlanTestBase;
+import org.apache.drill.categories.SqlTest;
+import org.apache.drill.exec.planner.common.DrillStatsTable;
+import org.apache.drill.exec.planner.physical.PlannerSettings;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+@Category(SqlTest.class)
+public class TestAnalyze extends PlanTestBase {
+
+  @BeforeClass
+  public static void createTable() throws Exception {
+    test("CREATE TABLE dfs.tmp.analyze_nation AS SELECT * FROM cp.`tpch/nation.parquet`");
+  }
+
+  @Test
+  public void testAnalyzeTable() throws Exception {
+    test("ANALYZE TABLE dfs.tmp.analyze_nation COMPUTE STATISTICS");
+
+    File statsDir = new File(dirTestWatcher.getDfsTestTmpDir(), "analyze_nation/" + DrillStatsTable.STATS_TABLE_NAME);
+    File[] statsFiles = statsDir.listFiles((dir, name) -> name.endsWith("." + DrillStatsTable.STATS_FORMAT));
+    assertTrue(statsFiles != null && statsFiles.length == 1);
+
+    // analyzing the table again replaces the statistics, without leaving the directory they were written to
+    test("ANALYZE TABLE dfs.tmp.analyze_nation COMPUTE STATISTICS");
+    File[] statsDirs = statsDir.getParentFile().listFiles((dir, name) -> name.startsWith(DrillStatsTable.STATS_TABLE_NAME));
+    assertTrue(statsDirs != null && statsDirs.length == 1);
+    statsFiles = statsDir.listFiles((dir, name) -> name.endsWith("." + DrillStatsTable.STATS_FORMAT));
+    assertTrue(statsFiles != null && statsFiles.length == 1);
+
+    // the statistics are hidden from queries over the table
+    testBuilder()
+        .sqlQuery("SELECT COUNT(*) AS cnt FROM dfs.tmp.analyze_nation")
+        .unOrdered()
+        .baselineColumns("cnt")
+        .baselineValues(25L)
+        .go();
+
+    // 25 rows, 5 distinct regions
+    String query = "SELECT n_name FROM dfs.tmp.analyze_nation WHERE n_regionkey = 1";
+    try {
+      alterSession(PlannerSettings.STATISTICS_USE_KEY, true);
+      testPlanMatchingPatterns(query, new String[] {"Filter.*rowcount = 5.0"}, null);
+    } finally {
+      resetSessionOption(PlannerSettings.STATISTICS_USE_KEY);
+    }
+    testPlanMatchingPatterns(query, null, new String[] {"Filter.*rowcount = 5.0"});
+  }
+
+  @Test
+  public void testAnalyzeColumns() throws Exception {
+    test("ANALYZE TABLE dfs.tmp.analyze_nation COMPUTE STATISTICS (n_nationkey, n_regionkey)");
+
+    testBuilder()
+        .sqlQuery("ANALYZE TABLE dfs.tmp.analyze_nation COMPUTE STATISTICS (n_missing)")
+        .unOrdered()
+        .baselineColumns("ok", "summary")
+        .baselineValues(false, "Column n_missing does not exist in table analyze_nation.")
+        .go();
+  }
+
+  @Test
+  public void testAnalyzeNotSupported() throws Exception {
+    testBuilder()
+        .sqlQuery("ANALYZE TABLE cp.`employee.json` COMPUTE STATISTICS")
+        .unOrdered()
+        .baselineColumns("ok", "summary")
+        .baselineValues(false, "Table employee.json does not support statistics. " +
+            "Support is currently limited to directory-based Parquet tables.")
+        .go();
+  }
+
+  @Test
+  public void testNdv() throws Exception {
+    testBuilder()
+        .sqlQuery("SELECT hll_ndv(n_name) AS ndv_name, hll_ndv(n_regionkey) AS ndv_region FROM cp.`tpch/nation.parquet`")
+        .unOrdered()
+        .baselineColumns("ndv_name", "ndv_region")
+        .baselineValues(25L, 5L)
+        .go();
+
+    // 15000 distinct orders; the estimate should be within a few percents
+    testBuilder()
+        .sqlQuery("SELECT ABS(hll_ndv(l_orderkey) - 15000) < 450 AS accurate FROM cp.`tpch/lineitem.parquet`")
+        .unOrdered()
+        .baselineColumns("accurate")
+        .baselineValues(true)
+        .go();
+  }
+
+  @Test
+  public void testHistogram() throws Exception {
+    testBuilder()
+        .sqlQuery("SELECT equi_depth_histogram(n_nationkey) AS histogram FROM cp.`tpch/nation.parquet`")
+        .unOrdered()
+        .baselineColumns("histogram")
+        .baselineValues("[0.0,2.0,4.0,7.0,9.0,12.0,14.0,16.0,19.0,21.0,24.0]")
+        .go();
+  }
+}
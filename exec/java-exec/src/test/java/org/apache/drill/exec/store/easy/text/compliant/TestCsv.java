@@ -17,6 +17,7 @@
  */
 package org.apache.drill.exec.store.easy.text.compliant;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
@@ -26,13 +27,18 @@ import java.io.IOException;
 import java.io.PrintWriter;
 
 import org.apache.drill.common.types.TypeProtos.MinorType;
+import org.apache.drill.exec.ExecConstants;
 import org.apache.drill.exec.record.BatchSchema;
 import org.apache.drill.exec.store.easy.text.TextFormatPlugin.TextFormatConfig;
 import org.apache.drill.test.ClusterFixture;
 import org.apache.drill.test.ClusterTest;
+import org.apache.drill.test.QueryBuilder.QuerySummary;
+import org.apache.drill.test.QueryRowSetIterator;
+import org.apache.drill.test.rowSet.DirectRowSet;
 import org.apache.drill.test.rowSet.RowSet;
 import org.apache.drill.test.rowSet.RowSetBuilder;
 import org.apache.drill.test.rowSet.RowSetComparison;
+import org.apache.drill.test.rowSet.RowSetReader;
 import org.apache.drill.test.rowSet.schema.SchemaBuilder;
 import org.junit.BeforeClass;
 import org.junit.Test;
@@ -150,6 +156,54 @@ public class TestCsv extends ClusterTest {
       .verifyAndClearAll(actual);
   }
 
+  /**
+   * Verify that the reader ends a batch when the output batch size is
+   * reached, well before the row count limit, that the row that did not
+   * fit is carried over whole to the next batch, and that projecting a
+   * subset of the columns still returns every record.
+   */
+  @Test
+  public void testBatchSizeLimit() throws Exception {
+    String fileName = "wide.csv";
+    int rowCount = 5000;
+    String value = new String(new char[100]).replace('\0', 'x');
+    try(PrintWriter out = new PrintWriter(new FileWriter(new File(testDir, fileName)))) {
+      out.println("a,b,c");
+      for (int i = 0; i < rowCount; i++) {
+        out.println(i + "," + value + "," + value);
+      }
+    }
+
+    try {
+      // about 300 rows of 200 bytes per batch, far below the 4000 rows limit
+      client.alterSystem(ExecConstants.OUTPUT_BATCH_SIZE, 64 * 1024);
+      QuerySummary summary = client.queryBuilder().sql(makeStatement(fileName)).run();
+      assertEquals(rowCount, summary.recordCount());
+      assertTrue(summary.batchCount() > 5);
+
+      // the rows come back whole and in order across the batch boundaries
+      QueryRowSetIterator batches = client.queryBuilder().sql(makeStatement(fileName)).rowSetIterator();
+      int expectedA = 0;
+      for (DirectRowSet batch : batches) {
+        RowSetReader reader = batch.reader();
+        while (reader.next()) {
+          assertEquals(Integer.toString(expectedA++), reader.scalar("a").getString());
+          assertEquals(value, reader.scalar("b").getString());
+          assertEquals(value, reader.scalar("c").getString());
+        }
+        batch.clear();
+      }
+      assertEquals(rowCount, expectedA);
+      assertTrue(batches.batchCount() > 5);
+
+      String sql = "SELECT a FROM `dfs.data`.`%s`";
+      summary = client.queryBuilder().sql(sql, fileName).run();
+      assertEquals(rowCount, summary.recordCount());
+    } finally {
+      client.resetSystem(ExecConstants.OUTPUT_BATCH_SIZE);
+    }
+  }
+
   private String makeStatement(String fileName) {
     return "SELECT * FROM `dfs.data`.`" + fileName + "`";
   }
@@ -22,13 +22,28 @@ import org.apache.drill.categories.UnlikelyTest;
 import org.apache.drill.common.exceptions.UserException;
 import org.apache.drill.exec.proto.UserBitShared;
 import org.apache.drill.exec.ExecConstants;
+import org.apache.drill.exec.store.StoragePluginRegistry;
+import org.apache.drill.exec.store.dfs.FileSystemConfig;
+import org.apache.hadoop.fs.BlockLocation;
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.LocalFileSystem;
 import org.junit.BeforeClass;
 import org.junit.Test;
 import org.junit.Assert;
 import org.junit.experimental.categories.Category;
 
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
 import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
 
+import com.google.common.base.Strings;
+import com.google.common.collect.ImmutableMap;
+
+import static org.apache.drill.exec.util.StoragePluginTestUtils.DFS_PLUGIN_NAME;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
@@ -261,4 +276,65 @@ public class TestJsonRecordReader extends BaseTestQuery {
     }
     throw new Exception("testNotCountingQueryNotSkippingInvalidJSONRecords");
   }
+
+  @Test
+  public void testSplitNdjson() throws Exception {
+    final int recordCount = 2000;
+    final File table = dirTestWatcher.makeRootSubDir(Paths.get("ndjson_splits"));
+    final File file = new File(table, "records.json");
+    try (PrintWriter writer = new PrintWriter(new FileWriter(file))) {
+      for (int i = 0; i < recordCount; i++) {
+        // records of varying length, so that the block boundaries fall anywhere within a record
+        writer.println(String.format("{\"id\": %d, \"s\": \"%s\"}", i, Strings.repeat("x", i % 37)));
+      }
+    }
+    // the file spans many (1 KB) blocks
+    assertTrue(file.length() > 10 * 1024);
+
+    final StoragePluginRegistry pluginRegistry = getDrillbitContext().getStorage();
+    final FileSystemConfig dfsConfig = (FileSystemConfig) pluginRegistry.getPlugin(DFS_PLUGIN_NAME).getConfig();
+    final FileSystemConfig pluginConfig = new FileSystemConfig();
+    pluginConfig.connection = dfsConfig.connection;
+    pluginConfig.workspaces = dfsConfig.workspaces;
+    pluginConfig.formats = dfsConfig.formats;
+    pluginConfig.config = ImmutableMap.of(
+        "fs.file.impl", BlockSplittingLocalFileSystem.class.getName(),
+        "fs.file.impl.disable.cache", "true",
+        "fs.local.block.size", "1024");
+    pluginRegistry.createOrUpdate("dfs_split", pluginConfig, false);
+
+    try {
+      test("alter system set `%s` = true", ExecConstants.JSON_READER_SPLIT_NDJSON);
+      // each record is read by exactly one of the splits
+      testBuilder()
+          .sqlQuery("select count(*) as cnt, count(distinct id) as ids, min(id) as min_id, max(id) as max_id " +
+              "from dfs_split.`ndjson_splits`")
+          .unOrdered()
+          .baselineColumns("cnt", "ids", "min_id", "max_id")
+          .baselineValues((long) recordCount, (long) recordCount, 0L, (long) recordCount - 1)
+          .go();
+    } finally {
+      test("alter system reset `%s`", ExecConstants.JSON_READER_SPLIT_NDJSON);
+      pluginRegistry.deletePlugin("dfs_split");
+    }
+  }
+
+  /**
+   * A local file system that reports the blocks of a file as the local block size
+   * (<tt>fs.local.block.size</tt>) implies, so that the files are split as they would be on HDFS.
+   */
+  public static class BlockSplittingLocalFileSystem extends LocalFileSystem {
+
+    @Override
+    public BlockLocation[] getFileBlockLocations(FileStatus file, long start, long len) throws IOException {
+      final long blockSize = file.getBlockSize();
+      final long end = Math.min(start + len, file.getLen());
+      final List<BlockLocation> blocks = new ArrayList<>();
+      for (long offset = start - start % blockSize; offset < end; offset += blockSize) {
+        blocks.add(new BlockLocation(new String[] {"localhost:50010"}, new String[] {"localhost"},
+            offset, Math.min(blockSize, file.getLen() - offset)));
+      }
+      return blocks.toArray(new BlockLocation[blocks.size()]);
+    }
+  }
 }
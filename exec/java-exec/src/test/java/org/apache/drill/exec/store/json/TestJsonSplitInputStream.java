@@ -0,0 +1,97 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.drill.exec.store.json;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import org.apache.drill.exec.store.easy.json.JsonSplitInputStream;
+import org.apache.drill.test.DrillTest;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class TestJsonSplitInputStream extends DrillTest {
+
+  private static final String DATA =
+      "{\"a\": 1}\n" +
+      "{\"a\": 22, \"b\": \"some text\"}\n" +
+      "\n" +
+      "{\"a\": 333}\n" +
+      "{\"a\": 4444, \"b\": {\"c\": [1, 2, 3]}}\n" +
+      "{\"a\": 5}";
+
+  @Test
+  public void testSplitsReadEachRecordOnce() throws Exception {
+    File file = File.createTempFile("split", ".json");
+    try {
+      Files.write(file.toPath(), DATA.getBytes(StandardCharsets.UTF_8));
+      FileSystem fs = FileSystem.getLocal(new Configuration());
+      Path path = new Path(file.toURI());
+      int length = DATA.length();
+      for (int splitSize = 1; splitSize <= length + 1; splitSize++) {
+        StringBuilder all = new StringBuilder();
+        for (int start = 0; start < length; start += splitSize) {
+          String split = read(fs, path, start, Math.min(start + splitSize, length));
+
+          // Every split holds whole records, or blank lines, only.
+          String records = split.replaceFirst("^\n+", "");
+          if (! records.isEmpty()) {
+            assertEquals("{", records.substring(0, 1));
+          }
+          all.append(split);
+        }
+        assertEquals("Split size " + splitSize, DATA, all.toString());
+      }
+    } finally {
+      file.delete();
+    }
+  }
+
+  @Test
+  public void testWholeFile() throws Exception {
+    File file = File.createTempFile("split", ".json");
+    try {
+      Files.write(file.toPath(), DATA.getBytes(StandardCharsets.UTF_8));
+      FileSystem fs = FileSystem.getLocal(new Configuration());
+      assertEquals(DATA, read(fs, new Path(file.toURI()), 0, DATA.length()));
+      assertEquals(DATA, read(fs, new Path(file.toURI()), 0, Long.MAX_VALUE));
+    } finally {
+      file.delete();
+    }
+  }
+
+  private static String read(FileSystem fs, Path path, long start, long end) throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    try (InputStream in = new JsonSplitInputStream(fs.open(path), start, end)) {
+      byte[] buf = new byte[7];
+      int n;
+      while ((n = in.read(buf, 0, buf.length)) != -1) {
+        out.write(buf, 0, n);
+      }
+    }
+    return new String(out.toByteArray(), StandardCharsets.UTF_8);
+  }
+}
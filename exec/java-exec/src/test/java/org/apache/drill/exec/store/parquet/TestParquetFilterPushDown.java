@@ -20,9 +20,20 @@ package org.apache.drill.exec.store.parquet;
 import org.apache.commons.io.FileUtils;
 import org.apache.drill.PlanTestBase;
 import org.apache.drill.common.expression.LogicalExpression;
+import org.apache.drill.exec.ExecConstants;
 import org.apache.drill.exec.ops.FragmentContextImpl;
 import org.apache.drill.exec.planner.physical.PlannerSettings;
 import org.apache.drill.exec.proto.BitControl;
+import org.apache.drill.exec.proto.UserBitShared.CoreOperatorType;
+import org.apache.drill.exec.proto.UserBitShared.MajorFragmentProfile;
+import org.apache.drill.exec.proto.UserBitShared.MetricValue;
+import org.apache.drill.exec.proto.UserBitShared.MinorFragmentProfile;
+import org.apache.drill.exec.proto.UserBitShared.OperatorProfile;
+import org.apache.drill.exec.proto.UserBitShared.QueryId;
+import org.apache.drill.exec.proto.UserBitShared.QueryProfile;
+import org.apache.drill.exec.proto.helper.QueryIdHelper;
+import org.apache.drill.exec.rpc.user.QueryDataBatch;
+import org.apache.drill.exec.store.parquet.columnreaders.ParquetRecordReader.Metric;
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.fs.Path;
@@ -39,8 +50,10 @@ import org.junit.runner.Description;
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.Paths;
+import java.util.List;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 public class TestParquetFilterPushDown extends PlanTestBase {
   private static final String CTAS_TABLE = "order_ctas";
@@ -342,6 +355,128 @@ public class TestParquetFilterPushDown extends PlanTestBase {
     }
   }
 
+  @Test
+  public void testDictionaryPruning() throws Exception {
+    try {
+      test("alter session set `%s` = true", ExecConstants.PARQUET_WRITER_ENABLE_DICTIONARY_ENCODING);
+
+      test("use dfs.tmp");
+      // t1 has the regions 0 and 2, t2 has the region 1; min/max statistics can not tell them apart
+      test("create table `%s/t1` as select n_name, n_regionkey from cp.`tpch/nation.parquet` where n_regionkey in (0, 2)", CTAS_TABLE);
+      test("create table `%s/t2` as select n_name, n_regionkey from cp.`tpch/nation.parquet` where n_regionkey = 1", CTAS_TABLE);
+
+      final String query1 = "select n_name from dfs.tmp.order_ctas where n_regionkey = 1";
+      final String query2 = "select n_regionkey from dfs.tmp.order_ctas where n_name = 'KENYA'";
+      testParquetFilterPD(query1, 5, 2, false);
+      testParquetFilterPD(query2, 1, 2, false);
+
+      test("alter session set `%s` = true", PlannerSettings.PARQUET_ROWGROUP_FILTER_PUSHDOWN_DICTIONARY_KEY);
+      testParquetFilterPD(query1, 5, 1, false);
+      testParquetFilterPD(query2, 1, 1, false);
+
+      // a dictionary larger than the limit is not read
+      test("alter session set `%s` = 1", PlannerSettings.PARQUET_ROWGROUP_FILTER_PUSHDOWN_DICTIONARY_MAX_SIZE_KEY);
+      testParquetFilterPD(query1, 5, 2, false);
+    } finally {
+      resetSessionOption(ExecConstants.PARQUET_WRITER_ENABLE_DICTIONARY_ENCODING);
+      resetSessionOption(PlannerSettings.PARQUET_ROWGROUP_FILTER_PUSHDOWN_DICTIONARY_KEY);
+      resetSessionOption(PlannerSettings.PARQUET_ROWGROUP_FILTER_PUSHDOWN_DICTIONARY_MAX_SIZE_KEY);
+    }
+  }
+
+  @Test
+  public void testLateMaterialization() throws Exception {
+    try {
+      test("alter session set `%s` = 4096", ExecConstants.PARQUET_PAGE_SIZE);
+      test("use dfs.tmp");
+      test("create table `%s/t1` as select o_orderkey, o_custkey, o_totalprice from cp.`tpch/orders.parquet`", CTAS_TABLE);
+
+      final String query1 = "select o_orderkey, o_totalprice from dfs.tmp.order_ctas where o_custkey = 370";
+      final String query2 = "select o_orderkey, o_totalprice from dfs.tmp.order_ctas where o_totalprice < 0 or o_custkey > 1000000";
+      final String query3 = "select o_orderkey from dfs.tmp.order_ctas where o_custkey < 100 and o_totalprice > 100000";
+      final int expectedRowCount1 = testSql(query1);
+      final int expectedRowCount3 = testSql(query3);
+
+      test("alter session set `%s` = true", ExecConstants.PARQUET_READER_LATE_MATERIALIZATION);
+      // the filter is kept in the scan even though no row group is pruned, and the results are unchanged
+      testPlanMatchingPatterns(query1, new String[] {"filter="}, new String[] {});
+      assertEquals(expectedRowCount1, testSql(query1));
+      assertEquals(0, testSql(query2));
+      assertEquals(expectedRowCount3, testSql(query3));
+
+      // no row matches, which the statistics of the row group cannot tell (the prices have two decimals):
+      // the other columns of every batch are skipped
+      final String query4 = "select o_orderkey, o_custkey from dfs.tmp.order_ctas where o_totalprice = 100000.001";
+      assertEquals(0, testSql(query4));
+      assertTrue("Records skipped", getParquetScanMetric(query4, Metric.NUM_RECORDS_SKIPPED) > 0);
+    } finally {
+      resetSessionOption(ExecConstants.PARQUET_PAGE_SIZE);
+      resetSessionOption(ExecConstants.PARQUET_READER_LATE_MATERIALIZATION);
+    }
+  }
+
+  @Test
+  public void testPagePruning() throws Exception {
+    try {
+      test("alter session set `%s` = 4096", ExecConstants.PARQUET_PAGE_SIZE);
+      test("use dfs.tmp");
+      // sorted by the filter columns, so that most pages of o_orderkey and o_orderdate can be pruned
+      test("create table `%s/t1` as select o_orderkey, o_custkey, cast(o_orderdate as date) as o_orderdate " +
+          "from cp.`tpch/orders.parquet` order by o_orderkey", CTAS_TABLE);
+
+      final String query1 = "select o_orderkey, o_custkey from dfs.tmp.order_ctas where o_orderkey between 10000 and 10100";
+      final String query2 = "select o_custkey from dfs.tmp.order_ctas where o_orderkey > 1000000 or o_orderkey < 0";
+      final String query3 = "select o_orderkey, o_orderdate from dfs.tmp.order_ctas " +
+          "where o_orderdate = date '1995-06-01' and o_orderkey < 30000";
+      final int expectedRowCount1 = testSql(query1);
+      final int expectedRowCount3 = testSql(query3);
+
+      test("alter session set `%s` = true", ExecConstants.PARQUET_READER_PAGE_PRUNING);
+      assertEquals(expectedRowCount1, testSql(query1));
+      assertEquals(0, testSql(query2));
+      assertEquals(expectedRowCount3, testSql(query3));
+      assertTrue("Pages pruned", getParquetScanMetric(query1, Metric.NUM_DATA_PAGES_PRUNED) > 0);
+
+      // along with late materialization
+      test("alter session set `%s` = true", ExecConstants.PARQUET_READER_LATE_MATERIALIZATION);
+      assertEquals(expectedRowCount1, testSql(query1));
+      assertEquals(expectedRowCount3, testSql(query3));
+    } finally {
+      resetSessionOption(ExecConstants.PARQUET_PAGE_SIZE);
+      resetSessionOption(ExecConstants.PARQUET_READER_PAGE_PRUNING);
+      resetSessionOption(ExecConstants.PARQUET_READER_LATE_MATERIALIZATION);
+    }
+  }
+
+  @Test
+  public void testPagePruningWithMisalignedPages() throws Exception {
+    try {
+      test("alter session set `%s` = %d", ExecConstants.PARQUET_PAGE_SIZE, 128 * 1024);
+      test("use dfs.tmp");
+      // the 8 byte filter column has twice as many pages as the 4 byte columns, and the pages of
+      // both hold many more values than the few thousand rows of a batch of these wide rows
+      test("create table `%s/t1` as select cast(l_orderkey as bigint) as k, l_partkey, l_suppkey, l_linenumber, " +
+          "l_quantity, l_extendedprice, l_discount, l_tax, l_shipdate " +
+          "from cp.`tpch/lineitem.parquet` order by l_orderkey", CTAS_TABLE);
+
+      final String query = "select k, l_partkey, l_suppkey, l_linenumber, l_quantity, l_extendedprice, l_discount, " +
+          "l_tax, l_shipdate from dfs.tmp.order_ctas where k between 30000 and 30100";
+      testBuilder()
+          .sqlQuery(query)
+          .unOrdered()
+          .optionSettingQueriesForTestQuery("alter session set `%s` = true", ExecConstants.PARQUET_READER_PAGE_PRUNING)
+          .sqlBaselineQuery(query)
+          .optionSettingQueriesForBaseline("alter session set `%s` = false", ExecConstants.PARQUET_READER_PAGE_PRUNING)
+          .go();
+
+      test("alter session set `%s` = true", ExecConstants.PARQUET_READER_PAGE_PRUNING);
+      assertTrue("Pages pruned", getParquetScanMetric(query, Metric.NUM_DATA_PAGES_PRUNED) > 0);
+    } finally {
+      resetSessionOption(ExecConstants.PARQUET_PAGE_SIZE);
+      resetSessionOption(ExecConstants.PARQUET_READER_PAGE_PRUNING);
+    }
+  }
+
   @Test
   public void testDatePredicateAgainstCorruptedDateCol() throws Exception {
     // Table dateTblCorrupted is created by CTAS in drill 1.8.0. Per DRILL-4203, the date column is shifted by some value.
@@ -480,4 +615,40 @@ public class TestParquetFilterPushDown extends PlanTestBase {
   private ParquetMetadata getParquetMetaData(File file) throws IOException{
     return ParquetFileReader.readFooter(new Configuration(fs.getConf()), new Path(file.toURI()));
   }
+
+  /**
+   * Runs the query and sums the given metric over the Parquet scans of its profile.
+   */
+  private static long getParquetScanMetric(String query, Metric metric) throws Exception {
+    // the profile is written before the query returns
+    alterSession(ExecConstants.QUERY_PROFILE_DEBUG_OPTION, true);
+    try {
+      final List<QueryDataBatch> results = testSqlWithResults(query);
+      final QueryId queryId = results.get(0).getHeader().getQueryId();
+      for (QueryDataBatch result : results) {
+        result.release();
+      }
+      final QueryProfile profile = getDrillbitContext().getProfileStoreContext().getCompletedProfileStore()
+          .get(QueryIdHelper.getQueryId(queryId));
+
+      long value = 0;
+      for (MajorFragmentProfile major : profile.getFragmentProfileList()) {
+        for (MinorFragmentProfile minor : major.getMinorFragmentProfileList()) {
+          for (OperatorProfile op : minor.getOperatorProfileList()) {
+            if (op.getOperatorType() != CoreOperatorType.PARQUET_ROW_GROUP_SCAN_VALUE) {
+              continue;
+            }
+            for (MetricValue metricValue : op.getMetricList()) {
+              if (metricValue.getMetricId() == metric.ordinal()) {
+                value += metricValue.getLongValue();
+              }
+            }
+          }
+        }
+      }
+      return value;
+    } finally {
+      resetSessionOption(ExecConstants.QUERY_PROFILE_DEBUG_OPTION);
+    }
+  }
 }
@@ -26,6 +26,7 @@ import org.apache.commons.io.FileUtils;
 import org.apache.drill.exec.record.BatchSchema;
 import org.apache.drill.exec.store.parquet.metadata.Metadata;
 import org.apache.drill.exec.store.parquet.metadata.MetadataVersion;
+import org.apache.drill.exec.store.parquet.metadata.Metadata_V4;
 import org.apache.drill.test.rowSet.schema.SchemaBuilder;
 import org.apache.drill.exec.planner.physical.PlannerSettings;
 import org.junit.Assert;
@@ -687,6 +688,84 @@ public class TestParquetMetadataCache extends PlanTestBase {
     }
   }
 
+  @Test
+  public void testBinaryMetadataCacheFile() throws Exception {
+    final String binaryMetadataTable = "binary_metadata_table";
+    File dataDir = dirTestWatcher.copyResourceToRoot(
+      Paths.get("multilevel", "parquet"),
+      Paths.get(binaryMetadataTable));
+
+    try {
+      test("refresh table metadata dfs.`%s`", binaryMetadataTable);
+      checkForMetadataFile(binaryMetadataTable);
+      for (File metadataFile : new File[] {FileUtils.getFile(dataDir, Metadata.METADATA_FILENAME),
+          FileUtils.getFile(dataDir, "1995", Metadata.METADATA_FILENAME),
+          FileUtils.getFile(dataDir, "1995", "Q2", Metadata.METADATA_FILENAME)}) {
+        assertTrue(String.format("Metadata cache file '%s' isn't written in binary format", metadataFile.getPath()),
+            Metadata_V4.isBinaryMetadata(Files.readAllBytes(metadataFile.toPath())));
+      }
+
+      String query = String.format("select dir0, dir1, o_custkey, o_orderdate from dfs.`%s` " +
+          " where dir0=1995 and dir1='Q2'", binaryMetadataTable);
+      int expectedRowCount = 10;
+      int expectedNumFiles = 1;
+      int actualRowCount = testSql(query);
+      assertEquals(expectedRowCount, actualRowCount);
+      String numFilesPattern = "numFiles=" + expectedNumFiles;
+      String usedMetaPattern = "usedMetadataFile=true";
+      String cacheFileRootPattern = String.format("cacheFileRoot=%s/%s/1995/Q2",
+          dirTestWatcher.getRootDir().getCanonicalPath(), binaryMetadataTable);
+      PlanTestBase.testPlanMatchingPatterns(query, new String[]{numFilesPattern, usedMetaPattern, cacheFileRootPattern},
+          new String[] {});
+    } finally {
+      FileUtils.deleteQuietly(dataDir);
+    }
+  }
+
+  @Test
+  public void testIncrementalMetadataRefresh() throws Exception {
+    final String incrementalRefreshTable = "incremental_refresh_table";
+    File dataDir = dirTestWatcher.copyResourceToRoot(
+      Paths.get("multilevel", "parquet"),
+      Paths.get(incrementalRefreshTable));
+
+    try {
+      test("refresh table metadata dfs.`%s`", incrementalRefreshTable);
+      checkForMetadataFile(incrementalRefreshTable);
+
+      // replaces one file with the file of another length and adds the new file to another directory,
+      // metadata of both files should be collected again, but the metadata of the other files is reused
+      File sourceFile = FileUtils.getFile(dataDir, "1995", "Q1", "orders_95_q1.parquet");
+      FileUtils.copyFile(sourceFile, FileUtils.getFile(dataDir, "1994", "Q1", "orders_94_q1.parquet"));
+      FileUtils.copyFile(sourceFile, FileUtils.getFile(dataDir, "1994", "Q2", "orders_95_q1.parquet"));
+      test("refresh table metadata dfs.`%s`", incrementalRefreshTable);
+
+      String query = String.format("select dir0, dir1, o_custkey, o_orderdate from dfs.`%s` " +
+          " where dir0=1994 and dir1 in ('Q1', 'Q2')", incrementalRefreshTable);
+      int expectedRowCount = 30;
+      int expectedNumFiles = 3;
+      int actualRowCount = testSql(query);
+      assertEquals(expectedRowCount, actualRowCount);
+      String numFilesPattern = "numFiles=" + expectedNumFiles;
+      String usedMetaPattern = "usedMetadataFile=true";
+      PlanTestBase.testPlanMatchingPatterns(query, new String[]{numFilesPattern, usedMetaPattern},
+          new String[] {});
+
+      // statistics of the replaced file are taken from the new footer
+      query = String.format("select dir0, dir1, o_custkey, o_orderdate from dfs.`%s` " +
+          " where dir0=1994 and o_orderdate >= date '1995-01-01'", incrementalRefreshTable);
+      expectedRowCount = 20;
+      expectedNumFiles = 2;
+      actualRowCount = testSql(query);
+      assertEquals(expectedRowCount, actualRowCount);
+      numFilesPattern = "numFiles=" + expectedNumFiles;
+      PlanTestBase.testPlanMatchingPatterns(query, new String[]{numFilesPattern, usedMetaPattern},
+          new String[] {});
+    } finally {
+      FileUtils.deleteQuietly(dataDir);
+    }
+  }
+
   @Test // DRILL-4264
   @Category(UnlikelyTest.class)
   public void testMetadataCacheFieldWithDots() throws Exception {
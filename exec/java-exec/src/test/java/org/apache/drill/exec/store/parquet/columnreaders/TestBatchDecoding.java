@@ -0,0 +1,109 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.drill.exec.store.parquet.columnreaders;
+
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+
+import org.apache.drill.exec.ExecConstants;
+import org.apache.drill.test.BaseTestQuery;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.Path;
+import org.apache.parquet.column.Encoding;
+import org.apache.parquet.hadoop.ParquetFileReader;
+import org.apache.parquet.hadoop.metadata.ColumnChunkMetaData;
+import org.apache.parquet.hadoop.metadata.ParquetMetadata;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ * Checks that the batch decoding of definition levels and dictionary ids
+ * reads the same values as the value by value decoding.
+ */
+public class TestBatchDecoding extends BaseTestQuery {
+
+  private static final String TABLE = "batch_decoding";
+  private static final int PAGE_SIZE = 1024;
+
+  @BeforeClass
+  public static void createTable() throws Exception {
+    // Small dictionary encoded pages of nullable columns, with runs of nulls
+    // (whole blocks of order keys) longer than a page and single nulls in
+    // between. Each column has its own null pattern, so that the pages of the
+    // columns end at different rows.
+    try {
+      test("alter session set `%s` = %d", ExecConstants.PARQUET_PAGE_SIZE, PAGE_SIZE);
+      test("alter session set `%s` = true", ExecConstants.PARQUET_WRITER_ENABLE_DICTIONARY_ENCODING);
+      test("create table dfs.tmp.`%s` as select o_orderkey, " +
+          "case when mod(o_orderkey / 4000, 3) = 1 or mod(o_orderkey, 5) = 0 then null " +
+          "else cast(mod(o_custkey, 10) as int) end as int_col, " +
+          "case when mod(o_orderkey / 6000, 2) = 1 or mod(o_orderkey, 7) = 0 then null " +
+          "else cast(mod(o_custkey, 20) as bigint) * 1000000000000 end as bigint_col, " +
+          "case when mod(o_orderkey / 5000, 3) = 2 or mod(o_orderkey, 3) = 0 then null " +
+          "else cast(mod(o_custkey, 8) as float) end as float_col, " +
+          "case when mod(o_orderkey / 9000, 2) = 0 or mod(o_orderkey, 11) = 0 then null " +
+          "else cast(mod(o_custkey, 16) as double) end as double_col, " +
+          "cast(mod(o_custkey, 12) as int) as required_int_col " +
+          "from cp.`tpch/orders.parquet`", TABLE);
+    } finally {
+      resetSessionOption(ExecConstants.PARQUET_PAGE_SIZE);
+      resetSessionOption(ExecConstants.PARQUET_WRITER_ENABLE_DICTIONARY_ENCODING);
+    }
+  }
+
+  @AfterClass
+  public static void dropTable() throws Exception {
+    test("drop table if exists dfs.tmp.`%s`", TABLE);
+  }
+
+  @Test
+  public void testTableLayout() throws Exception {
+    // the columns really are dictionary encoded and span several pages
+    final File table = new File(dirTestWatcher.getDfsTestTmpDir(), TABLE);
+    final File[] files = table.listFiles((dir, name) -> name.endsWith(".parquet"));
+    assertTrue("Parquet files written", files != null && files.length > 0);
+    for (File file : files) {
+      final ParquetMetadata footer = ParquetFileReader.readFooter(new Configuration(), new Path(file.toURI()));
+      for (ColumnChunkMetaData column : footer.getBlocks().get(0).getColumns()) {
+        if (column.getPath().toDotString().equals("o_orderkey")) {
+          continue;
+        }
+        assertTrue(column.getPath() + " is dictionary encoded", column.getEncodings().contains(Encoding.PLAIN_DICTIONARY));
+        assertTrue(column.getPath() + " has several pages", column.getTotalSize() > 2 * PAGE_SIZE);
+      }
+    }
+  }
+
+  @Test
+  public void testSameResults() throws Exception {
+    final String query = String.format("select * from dfs.tmp.`%s`", TABLE);
+    try {
+      testBuilder()
+          .sqlQuery(query)
+          .optionSettingQueriesForTestQuery("alter session set `%s` = true", ExecConstants.PARQUET_READER_BATCH_DECODING)
+          .unOrdered()
+          .sqlBaselineQuery(query)
+          .optionSettingQueriesForBaseline("alter session set `%s` = false", ExecConstants.PARQUET_READER_BATCH_DECODING)
+          .go();
+    } finally {
+      resetSessionOption(ExecConstants.PARQUET_READER_BATCH_DECODING);
+    }
+  }
+}
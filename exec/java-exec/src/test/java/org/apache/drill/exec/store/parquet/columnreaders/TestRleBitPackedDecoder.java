@@ -0,0 +1,129 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.drill.exec.store.parquet.columnreaders;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+import org.junit.Test;
+
+public class TestRleBitPackedDecoder {
+
+  private static ByteBuffer bytes(int... values) {
+    byte[] bytes = new byte[values.length];
+    for (int i = 0; i < values.length; i++) {
+      bytes[i] = (byte) values[i];
+    }
+    return ByteBuffer.wrap(bytes);
+  }
+
+  private static RleBitPackedDecoder decoder(int bitWidth, int... values) {
+    ByteBuffer buffer = bytes(values);
+    RleBitPackedDecoder decoder = new RleBitPackedDecoder();
+    decoder.init(buffer, 0, buffer.limit(), bitWidth);
+    return decoder;
+  }
+
+  @Test
+  public void testRepeatedAndPackedRuns() {
+    // 5 ones repeated, then one group of 8 bit-packed values 1, 0, 1, 1, 0, 0, 0, 1
+    RleBitPackedDecoder decoder = decoder(1, 0x0A, 0x01, 0x03, 0x8D);
+    int[] values = new int[13];
+    // read across the boundary between the runs
+    decoder.readInts(values, 0, 3);
+    decoder.readInts(values, 3, 10);
+    assertArrayEquals(new int[] {1, 1, 1, 1, 1, 1, 0, 1, 1, 0, 0, 0, 1}, values);
+  }
+
+  @Test
+  public void testPackedValuesCrossingBytes() {
+    // the values 0 to 7 packed at 3 bits, as in the example of the Parquet format specification
+    RleBitPackedDecoder decoder = decoder(3, 0x03, 0x88, 0xC6, 0xFA);
+    int[] values = new int[8];
+    decoder.readInts(values, 0, 8);
+    assertArrayEquals(new int[] {0, 1, 2, 3, 4, 5, 6, 7}, values);
+  }
+
+  @Test
+  public void testLongRepeatedRunOfWideValue() {
+    // 300 repetitions, a header that takes two bytes, of the 10 bit value 341, stored in two bytes
+    RleBitPackedDecoder decoder = decoder(10, 0xD8, 0x04, 0x55, 0x01);
+    int[] values = new int[300];
+    decoder.readInts(values, 0, 300);
+    int[] expected = new int[300];
+    Arrays.fill(expected, 341);
+    assertArrayEquals(expected, values);
+  }
+
+  @Test
+  public void testFullWidthValues() {
+    // 8 values packed at 32 bits are just the little endian values
+    ByteBuffer buffer = ByteBuffer.allocate(33).order(ByteOrder.LITTLE_ENDIAN);
+    buffer.put((byte) 0x03);
+    int[] expected = {-1, 0, 0x12345678, Integer.MIN_VALUE, Integer.MAX_VALUE, 7, 256, -2};
+    for (int value : expected) {
+      buffer.putInt(value);
+    }
+    RleBitPackedDecoder decoder = new RleBitPackedDecoder();
+    decoder.init(buffer, 0, buffer.limit(), 32);
+    int[] values = new int[8];
+    decoder.readInts(values, 0, 8);
+    assertArrayEquals(expected, values);
+  }
+
+  @Test
+  public void testSingleValueReads() {
+    RleBitPackedDecoder decoder = decoder(3, 0x04, 0x05, 0x03, 0x88, 0xC6, 0xFA);
+    assertEquals(5, decoder.readInt());
+    int[] values = new int[4];
+    decoder.readInts(values, 0, 4);
+    assertArrayEquals(new int[] {5, 0, 1, 2}, values);
+    assertEquals(3, decoder.readInt());
+    assertEquals(4, decoder.readInt());
+  }
+
+  @Test
+  public void testLengthPrefixedRuns() {
+    // two bytes of other data, the length, 2 bytes of runs, and the data that follows
+    ByteBuffer buffer = bytes(0x7F, 0x7F, 0x02, 0x00, 0x00, 0x00, 0x08, 0x01, 0x2A);
+    RleBitPackedDecoder decoder = new RleBitPackedDecoder();
+    assertEquals(8, decoder.initWithLength(buffer, 2, 1));
+    int[] values = new int[4];
+    decoder.readInts(values, 0, 4);
+    assertArrayEquals(new int[] {1, 1, 1, 1}, values);
+  }
+
+  @Test
+  public void testLastGroupCutShort() {
+    // 10 values of 4 bits in two groups, of which the writer left out the unused bytes
+    RleBitPackedDecoder decoder = decoder(4, 0x05, 0x21, 0x43, 0x65, 0x87, 0xA9);
+    int[] values = new int[10];
+    decoder.readInts(values, 0, 10);
+    assertArrayEquals(new int[] {1, 2, 3, 4, 5, 6, 7, 8, 9, 10}, values);
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testReadPastEnd() {
+    RleBitPackedDecoder decoder = decoder(1, 0x04, 0x01);
+    decoder.readInts(new int[3], 0, 3);
+  }
+}
@@ -748,4 +748,30 @@ public class TestJsonReader extends BaseTestQuery {
       testNoResult("alter session reset `exec.enable_union_type`");
     }
   }
+
+  @Test
+  public void testProjectionIntoArrayOfMaps() throws Exception {
+    String fileName = "array_of_maps.json";
+    try (BufferedWriter writer = new BufferedWriter(new FileWriter(new File(dirTestWatcher.getRootDir(), fileName)))) {
+      writer.write("{\"id\": 1, \"a\": [{\"b\": 1, \"c\": \"x\", \"d\": {\"e\": [1, 2]}}, {\"b\": 2, \"c\": \"y\"}]}\n");
+      writer.write("{\"id\": 2, \"a\": [{\"c\": \"z\"}, {\"b\": 4, \"d\": [[1], [2]]}]}\n");
+    }
+
+    // d is a map in one element and a list in another, which is only readable because it is not projected
+    testBuilder()
+      .sqlQuery("select t.id as id, t.a[1].b as b from dfs.`%s` t", fileName)
+      .unOrdered()
+      .baselineColumns("id", "b")
+      .baselineValues(1L, 2L)
+      .baselineValues(2L, 4L)
+      .go();
+
+    testBuilder()
+      .sqlQuery("select t.a[0].c as c, t.a[1].b as b from dfs.`%s` t", fileName)
+      .unOrdered()
+      .baselineColumns("c", "b")
+      .baselineValues("x", 2L)
+      .baselineValues("z", 4L)
+      .go();
+  }
 }
@@ -0,0 +1,74 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.drill.exec.work.filter;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.apache.drill.test.SubOperatorTest;
+import org.junit.Test;
+
+public class TestBloomFilter extends SubOperatorTest {
+
+  @Test
+  public void testSize() {
+    try (BloomFilter filter = new BloomFilter(fixture.allocator(), 1000)) {
+      assertEquals(1024, filter.getNumBytes());
+    }
+    try (BloomFilter filter = new BloomFilter(fixture.allocator(), 1)) {
+      assertEquals(32, filter.getNumBytes());
+    }
+    int size = BloomFilter.optimalNumOfBytes(1_000_000, 0.01);
+    assertEquals(Integer.bitCount(size), 1);
+    assertTrue(size >= 1_000_000);
+  }
+
+  @Test
+  public void testNoFalseNegatives() {
+    try (BloomFilter filter = new BloomFilter(fixture.allocator(), BloomFilter.optimalNumOfBytes(10_000, 0.01))) {
+      for (int i = 0; i < 10_000; i++) {
+        filter.insert(BloomFilter.hash64(i));
+      }
+      for (int i = 0; i < 10_000; i++) {
+        assertTrue(filter.find(BloomFilter.hash64(i)));
+      }
+      // the false positive rate should be near the requested one
+      int falsePositives = 0;
+      for (int i = 10_000; i < 110_000; i++) {
+        if (filter.find(BloomFilter.hash64(i))) {
+          falsePositives++;
+        }
+      }
+      assertTrue("False positives: " + falsePositives, falsePositives < 3_000);
+    }
+  }
+
+  @Test
+  public void testMerge() {
+    try (BloomFilter filter1 = new BloomFilter(fixture.allocator(), 4096);
+         BloomFilter filter2 = new BloomFilter(fixture.allocator(), 4096)) {
+      filter1.insert(BloomFilter.hash64(1));
+      filter2.insert(BloomFilter.hash64(2));
+      assertFalse(filter1.find(BloomFilter.hash64(2)));
+      filter1.or(filter2);
+      assertTrue(filter1.find(BloomFilter.hash64(1)));
+      assertTrue(filter1.find(BloomFilter.hash64(2)));
+    }
+  }
+}
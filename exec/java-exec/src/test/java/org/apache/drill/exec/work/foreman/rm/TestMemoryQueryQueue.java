@@ -0,0 +1,201 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.drill.exec.work.foreman.rm;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.apache.drill.common.config.DrillConfig;
+import org.apache.drill.exec.coord.local.LocalClusterCoordinator;
+import org.apache.drill.exec.proto.UserBitShared.QueryId;
+import org.apache.drill.exec.server.options.SystemOptionManager;
+import org.apache.drill.exec.work.foreman.rm.MemoryQueryQueue.MemoryQueueLease;
+import org.apache.drill.exec.work.foreman.rm.QueryQueue.QueryQueueException;
+import org.apache.drill.exec.work.foreman.rm.QueryQueue.QueueTimeoutException;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.typesafe.config.ConfigFactory;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class TestMemoryQueryQueue {
+
+  private static final long MB = 1024 * 1024;
+  private static final QueryId QUERY_1 = QueryId.newBuilder().setPart1(1).setPart2(1).build();
+  private static final QueryId QUERY_2 = QueryId.newBuilder().setPart1(2).setPart2(2).build();
+  private static final QueryId QUERY_3 = QueryId.newBuilder().setPart1(3).setPart2(3).build();
+
+  private LocalClusterCoordinator coordinator;
+  private MemoryQueryQueue queue;
+
+  @Before
+  public void setup() throws Exception {
+    coordinator = new LocalClusterCoordinator();
+    queue = newQueue(500);
+  }
+
+  private MemoryQueryQueue newQueue(int timeoutMs) throws Exception {
+    DrillConfig config = new DrillConfig(ConfigFactory.parseString(
+        "drill.exec.queue.memory: {" +
+        "  queues: [" +
+        "    { name: \"etl\", weight: 3, max_queries_per_user: 0 }," +
+        "    { name: \"adhoc\", weight: 1, max_queries_per_user: 1 }" +
+        "  ]," +
+        "  unit_size: 64M," +
+        "  lease_batch: 4," +
+        "  timeout_ms: " + timeoutMs +
+        "}").withFallback(DrillConfig.create().root()));
+    MemoryQueryQueue queue = new MemoryQueryQueue(coordinator, config, new SystemOptionManager(config).init());
+
+    // 1 GB less the default 20% reserve, shared 3:1 in 64 MB units.
+    queue.setMemoryPerNode(1024 * MB);
+    return queue;
+  }
+
+  @After
+  public void cleanup() throws Exception {
+    queue.close();
+    coordinator.close();
+  }
+
+  @Test
+  public void testQueuesByWeight() throws Exception {
+    assertEquals(9, queue.getQueue("etl").capacity());
+    assertEquals(3, queue.getQueue("ADHOC").capacity());
+
+    // The first queue is the default one.
+    MemoryQueueLease lease = (MemoryQueueLease) queue.enqueue(QUERY_1, "", "alice", 10 * MB, 0);
+    assertEquals("etl", lease.plainQueueName());
+    lease.release();
+
+    try {
+      queue.enqueue(QUERY_2, "missing", "alice", 10 * MB, 0);
+      fail();
+    } catch (QueryQueueException e) {
+      // expected
+    }
+  }
+
+  @Test
+  public void testLocalLeases() throws Exception {
+    MemoryQueueLease first = (MemoryQueueLease) queue.enqueue(QUERY_1, "etl", "alice", 10 * MB, 0);
+    assertFalse(first.isLocalAdmit());
+    assertEquals(1, first.unitCount());
+    // The remaining units of the batch are kept for the next queries.
+    assertEquals(3, queue.getQueue("etl").idleUnitCount());
+
+    MemoryQueueLease second = (MemoryQueueLease) queue.enqueue(QUERY_2, "etl", "bob", 100 * MB, 0);
+    assertTrue(second.isLocalAdmit());
+    assertEquals(2, second.unitCount());
+    assertEquals(1, queue.getQueue("etl").idleUnitCount());
+
+    first.release();
+    second.release();
+    assertEquals(4, queue.getQueue("etl").idleUnitCount());
+    assertTrue(second.queueName().startsWith("etl (100 MB per node, 2 of 9 units"));
+  }
+
+  @Test
+  public void testAdmissionByMemory() throws Exception {
+    // Asks for more than the queue has, gets all of it.
+    MemoryQueueLease large = (MemoryQueueLease) queue.enqueue(QUERY_1, "etl", "alice", 10_000 * MB, 0);
+    assertEquals(9, large.unitCount());
+    assertEquals(9 * 64 * MB, large.queryMemoryPerNode());
+
+    try {
+      queue.enqueue(QUERY_2, "etl", "bob", 10 * MB, 0);
+      fail();
+    } catch (QueueTimeoutException e) {
+      assertEquals("etl", e.queueName());
+    }
+
+    // The other queue has its own memory.
+    queue.enqueue(QUERY_3, "adhoc", "bob", 10 * MB, 0).release();
+
+    large.release();
+    queue.enqueue(QUERY_2, "etl", "bob", 10 * MB, 0).release();
+  }
+
+  @Test
+  public void testQueriesPerUser() throws Exception {
+    QueryQueue.QueueLease first = queue.enqueue(QUERY_1, "adhoc", "alice", 10 * MB, 0);
+    try {
+      queue.enqueue(QUERY_2, "adhoc", "alice", 10 * MB, 0);
+      fail();
+    } catch (QueueTimeoutException e) {
+      // expected
+    }
+    QueryQueue.QueueLease other = queue.enqueue(QUERY_3, "adhoc", "bob", 10 * MB, 0);
+
+    first.release();
+    queue.enqueue(QUERY_2, "adhoc", "alice", 10 * MB, 0).release();
+    other.release();
+  }
+
+  /**
+   * Queries that each need more than half of the units wait for one another
+   * rather than each holding part of the units the other needs.
+   */
+  @Test
+  public void testConcurrentLargeQueries() throws Exception {
+    final MemoryQueryQueue slowQueue = newQueue(20_000);
+    final AtomicReference<Throwable> error = new AtomicReference<>();
+    try {
+      QueryQueue.QueueLease running = slowQueue.enqueue(QUERY_1, "etl", "alice", 5 * 64 * MB, 0);
+      List<Thread> threads = new ArrayList<>();
+      for (int i = 0; i < 4; i++) {
+        final int user = i;
+        Thread thread = new Thread() {
+          @Override
+          public void run() {
+            try {
+              for (int j = 0; j < 5; j++) {
+                QueryId queryId = QueryId.newBuilder().setPart1(10 + user).setPart2(j).build();
+                MemoryQueueLease lease = (MemoryQueueLease) slowQueue.enqueue(queryId, "etl", "user" + user, 6 * 64 * MB, 0);
+                assertEquals(6, lease.unitCount());
+                Thread.sleep(5);
+                lease.release();
+              }
+            } catch (Throwable e) {
+              error.compareAndSet(null, e);
+            }
+          }
+        };
+        threads.add(thread);
+        thread.start();
+      }
+      // Let the queries take the free units before the running one gives back its own
+      Thread.sleep(100);
+      running.release();
+      for (Thread thread : threads) {
+        thread.join();
+      }
+    } finally {
+      slowQueue.close();
+    }
+    if (error.get() != null) {
+      throw new AssertionError("Query failed to be admitted", error.get());
+    }
+  }
+}
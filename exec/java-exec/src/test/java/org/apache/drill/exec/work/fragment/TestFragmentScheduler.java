@@ -0,0 +1,187 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.drill.exec.work.fragment;
+
+import org.apache.drill.exec.proto.UserBitShared.QueryId;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class TestFragmentScheduler {
+
+  private static final QueryId QUERY_1 = QueryId.newBuilder().setPart1(1).setPart2(1).build();
+  private static final QueryId QUERY_2 = QueryId.newBuilder().setPart1(2).setPart2(2).build();
+
+  @Test
+  public void testDisabledScheduler() {
+    FragmentScheduler scheduler = new FragmentScheduler(false, 1, 0, 10_000);
+    FragmentScheduler.Slot first = scheduler.register(QUERY_1, FragmentScheduler.DEFAULT_PRIORITY);
+    FragmentScheduler.Slot second = scheduler.register(QUERY_2, FragmentScheduler.DEFAULT_PRIORITY);
+    first.acquire();
+    // doesn't wait although the only slot is taken
+    second.acquire();
+    assertEquals(0, scheduler.getWaitingCount());
+    first.close();
+    second.close();
+  }
+
+  @Test
+  public void testYieldAfterTimeSlice() throws Exception {
+    FragmentScheduler scheduler = new FragmentScheduler(true, 1, 0, 10_000);
+    FragmentScheduler.Slot first = scheduler.register(QUERY_1, FragmentScheduler.DEFAULT_PRIORITY);
+    FragmentScheduler.Slot second = scheduler.register(QUERY_2, FragmentScheduler.DEFAULT_PRIORITY);
+    List<String> events = new CopyOnWriteArrayList<>();
+
+    first.acquire();
+    Thread thread = new Thread(() -> {
+      second.acquire();
+      events.add("second");
+      second.close();
+    });
+    thread.start();
+    waitForWaitingCount(scheduler, 1);
+    assertTrue(events.isEmpty());
+
+    // the time slice is used up and the second fragment waits, so the first one gives the slot away
+    first.yieldIfNeeded();
+    events.add("first");
+    thread.join();
+    first.close();
+
+    assertEquals("second", events.get(0));
+    assertEquals("first", events.get(1));
+  }
+
+  @Test
+  public void testFairShareBetweenQueries() throws Exception {
+    FragmentScheduler scheduler = new FragmentScheduler(true, 1, 100, 10_000);
+    FragmentScheduler.Slot busy = scheduler.register(QUERY_1, FragmentScheduler.DEFAULT_PRIORITY);
+    FragmentScheduler.Slot interactive = scheduler.register(QUERY_2, FragmentScheduler.DEFAULT_PRIORITY);
+
+    // the first query accumulates run time
+    busy.acquire();
+    Thread.sleep(20);
+    busy.release();
+    busy.acquire();
+
+    List<String> events = new CopyOnWriteArrayList<>();
+    FragmentScheduler.Slot busySecond = scheduler.register(QUERY_1, FragmentScheduler.DEFAULT_PRIORITY);
+    Thread busyThread = startFragment(busySecond, "busy", events);
+    waitForWaitingCount(scheduler, 1);
+    Thread interactiveThread = startFragment(interactive, "interactive", events);
+    waitForWaitingCount(scheduler, 2);
+
+    busy.close();
+    busyThread.join();
+    interactiveThread.join();
+
+    // the query with less run time gets the slot first, although its fragment came later
+    assertEquals("interactive", events.get(0));
+    assertEquals("busy", events.get(1));
+  }
+
+  @Test
+  public void testMaxWait() {
+    FragmentScheduler scheduler = new FragmentScheduler(true, 1, 100, 50);
+    FragmentScheduler.Slot first = scheduler.register(QUERY_1, FragmentScheduler.DEFAULT_PRIORITY);
+    FragmentScheduler.Slot second = scheduler.register(QUERY_2, FragmentScheduler.DEFAULT_PRIORITY);
+    first.acquire();
+    // runs without a slot after the maximum wait time
+    second.acquire();
+    assertEquals(0, scheduler.getWaitingCount());
+    second.close();
+
+    // the slot is still held by the first fragment
+    FragmentScheduler.Slot third = scheduler.register(QUERY_2, FragmentScheduler.DEFAULT_PRIORITY);
+    long start = System.nanoTime();
+    third.acquire();
+    assertFalse(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 50);
+    third.close();
+    first.close();
+  }
+
+  @Test
+  public void testBlockingInSeveralThreads() throws Exception {
+    FragmentScheduler scheduler = new FragmentScheduler(true, 2, 100, 10_000);
+    FragmentScheduler.Slot slot = scheduler.register(QUERY_1, FragmentScheduler.DEFAULT_PRIORITY);
+    slot.acquire();
+    assertEquals(1, scheduler.getFreeSlots());
+
+    // the threads sending the batches of a partition sender block and continue at the same time
+    CyclicBarrier barrier = new CyclicBarrier(4);
+    List<Thread> threads = new ArrayList<>();
+    for (int i = 0; i < 4; i++) {
+      Thread thread = new Thread(() -> {
+        try {
+          barrier.await();
+        } catch (Exception e) {
+          throw new RuntimeException(e);
+        }
+        for (int j = 0; j < 10_000; j++) {
+          slot.beginBlocking();
+          slot.endBlocking();
+        }
+      });
+      threads.add(thread);
+      thread.start();
+    }
+    for (Thread thread : threads) {
+      thread.join();
+    }
+    // the fragment holds a single slot again
+    assertEquals(1, scheduler.getFreeSlots());
+
+    // the slot is taken again only once no thread is blocked
+    slot.beginBlocking();
+    slot.beginBlocking();
+    assertEquals(2, scheduler.getFreeSlots());
+    slot.endBlocking();
+    assertEquals(2, scheduler.getFreeSlots());
+    slot.yieldIfNeeded();
+    assertEquals(2, scheduler.getFreeSlots());
+    slot.endBlocking();
+    assertEquals(1, scheduler.getFreeSlots());
+
+    slot.close();
+    assertEquals(2, scheduler.getFreeSlots());
+  }
+
+  private static Thread startFragment(FragmentScheduler.Slot slot, String name, List<String> events) {
+    Thread thread = new Thread(() -> {
+      slot.acquire();
+      events.add(name);
+      slot.close();
+    });
+    thread.start();
+    return thread;
+  }
+
+  private static void waitForWaitingCount(FragmentScheduler scheduler, int count) throws InterruptedException {
+    while (scheduler.getWaitingCount() < count) {
+      Thread.sleep(1);
+    }
+  }
+}
@@ -19,17 +19,20 @@ package org.apache.drill.test;
 
 import com.fasterxml.jackson.jaxrs.json.JacksonJsonProvider;
 import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableMap;
 import org.apache.drill.exec.server.rest.StatusResources;
 import org.glassfish.jersey.client.ClientConfig;
 import org.glassfish.jersey.client.JerseyClientBuilder;
 
 import javax.annotation.Nullable;
 import javax.ws.rs.client.Client;
+import javax.ws.rs.client.Entity;
 import javax.ws.rs.client.WebTarget;
 import javax.ws.rs.core.GenericType;
 import javax.ws.rs.core.MediaType;
 
 import java.util.List;
+import java.util.Map;
 
 /**
  * Represents a client for the Drill Rest API.
@@ -100,6 +103,20 @@ public class RestClientFixture implements AutoCloseable {
     return getStatusOptionHelper(getStatusInternalOptions(), name);
   }
 
+  /**
+   * Runs a SQL query through the streaming query api.
+   * @param sql The query to run.
+   * @param layout The layout of the results ("rows" or "columns").
+   * @return The parsed JSON response.
+   */
+  public Map<String, Object> streamQuery(String sql, String layout) {
+    return baseTarget.path("query.stream.json")
+      .queryParam("layout", layout)
+      .request(MediaType.APPLICATION_JSON)
+      .post(Entity.json(ImmutableMap.of("queryType", "SQL", "query", sql)),
+        new GenericType<Map<String, Object>>() {});
+  }
+
   private StatusResources.OptionWrapper getStatusOptionHelper(List<StatusResources.OptionWrapper> options,
                                                               String name) {
     for (StatusResources.OptionWrapper option: options) {
@@ -80,6 +80,28 @@ public class Accountant implements AutoCloseable {
       ? ! AssertionUtil.isAssertionsEnabled()
       : Boolean.parseBoolean(System.getProperty(ALLOW_LENIENT_ALLOCATION));
 
+  // Allocators obtain memory from their parent in chunks of at least this
+  // size, then satisfy later allocations from the unused part of the chunk
+  // without updating the counters of every allocator up to the root, which
+  // are shared by all the threads of a query (and, for the root, of all
+  // queries.) At most one unused chunk is held per allocator; it is returned
+  // to the parent once the allocator holds no memory beyond its initial
+  // reservation, and when the allocator closes. Parent limits are thus exact
+  // to within one chunk per child allocator. Chunks are used only while the
+  // parent is below half its limit; beyond that, allocators again take
+  // exactly what they need so that siblings are not starved by unused chunks.
+  //
+  // Request exactly the allocated amount from the parent on each allocation:
+  //
+  // -Ddrill.memory.allocator.chunk_size=0
+
+  public static final String ALLOCATION_CHUNK_SIZE = "drill.memory.allocator.chunk_size";
+
+  public static final long DEFAULT_ALLOCATION_CHUNK_SIZE = 256 * 1024;
+
+  public static final long PARENT_CHUNK_SIZE = Math.max(0,
+      Long.getLong(ALLOCATION_CHUNK_SIZE, DEFAULT_ALLOCATION_CHUNK_SIZE));
+
   // Whether leniency has been requested, and granted for this allocator.
 
   private boolean lenient = false;
@@ -95,6 +117,20 @@ public class Accountant implements AutoCloseable {
    */
   protected final long reservation;
 
+  /**
+   * Size of the chunks in which memory beyond the reservation is obtained
+   * from the parent Accountant, or 0 to obtain exactly the memory allocated.
+   */
+  protected final long chunkSize;
+
+  /**
+   * Memory obtained from the parent beyond the initial reservation. Changed
+   * only while holding parentLock.
+   */
+  private volatile long heldFromParent;
+
+  private final Object parentLock = new Object();
+
   private final AtomicLong peakAllocation = new AtomicLong();
 
   /**
@@ -109,14 +145,20 @@ public class Accountant implements AutoCloseable {
   private final AtomicLong locallyHeldMemory = new AtomicLong();
 
   public Accountant(Accountant parent, long reservation, long maxAllocation) {
+    this(parent, reservation, maxAllocation, 0);
+  }
+
+  public Accountant(Accountant parent, long reservation, long maxAllocation, long chunkSize) {
     Preconditions.checkArgument(reservation >= 0, "The initial reservation size must be non-negative.");
     Preconditions.checkArgument(maxAllocation >= 0, "The maximum allocation limit must be non-negative.");
     Preconditions.checkArgument(reservation <= maxAllocation,
         "The initial reservation size must be <= the maximum allocation.");
     Preconditions.checkArgument(reservation == 0 || parent != null, "The root accountant can't reserve memory.");
+    Preconditions.checkArgument(chunkSize >= 0, "The allocation chunk size must be non-negative.");
 
     this.parent = parent;
     this.reservation = reservation;
+    this.chunkSize = chunkSize;
     this.allocationLimit.set(maxAllocation);
 
     if (reservation != 0) {
@@ -241,7 +283,15 @@ public class Accountant implements AutoCloseable {
     final boolean updatePeak = forceAllocation || (incomingUpdatePeak && !beyondLimit);
 
     AllocationOutcome parentOutcome = AllocationOutcome.SUCCESS;
-    if (beyondReservation > 0 && parent != null) {
+    if (beyondReservation > 0 && parent != null && chunkSize > 0) {
+      // take the memory from what we already hold from our parent, reserving
+      // another chunk when needed. Nothing to reserve if we failed locally.
+      // What we hold is checked under parentLock, together with the top-up, so
+      // that a concurrent release to the parent can't slip in between.
+      if (forceAllocation || !beyondLimit) {
+        parentOutcome = reserveFromParent(beyondReservation, forceAllocation);
+      }
+    } else if (beyondReservation > 0 && parent != null) {
       // we need to get memory from our parent.
       final long parentRequest = Math.min(beyondReservation, size);
       parentOutcome = parent.allocate(parentRequest, updatePeak, forceAllocation);
@@ -257,6 +307,76 @@ public class Accountant implements AutoCloseable {
     return finalOutcome;
   }
 
+  /**
+   * Whether the parent can spare the given amount beyond what it needs to
+   * satisfy allocations exactly.
+   */
+  private boolean parentHasRoom(final long extra) {
+    return parent.getAllocatedMemory() + extra <= parent.getLimit() / 2;
+  }
+
+  /**
+   * Obtain memory from the parent so that we hold at least the given amount
+   * beyond our reservation. Asks for whole chunks (within our own limit) if the
+   * parent has room for them, then for just the missing amount if the parent
+   * can't provide the chunks. On
+   * failure, the parent's accounting is left unchanged unless the allocation
+   * is forced.
+   *
+   * @param needed memory in use beyond the reservation
+   * @param forceAllocation whether the allocation must be accounted even if
+   * it exceeds the parent's limits
+   * @return the outcome of the parent allocation
+   */
+  private AllocationOutcome reserveFromParent(final long needed, final boolean forceAllocation) {
+    synchronized (parentLock) {
+      final long shortfall = needed - heldFromParent;
+      if (shortfall <= 0) {
+        return AllocationOutcome.SUCCESS;
+      }
+      if (forceAllocation) {
+        final AllocationOutcome outcome = parent.allocate(shortfall, true, true);
+        heldFromParent += shortfall;
+        return outcome;
+      }
+      final long chunks = (shortfall + chunkSize - 1) / chunkSize * chunkSize;
+      long request = shortfall;
+      if (parentHasRoom(chunks)) {
+        request = Math.max(shortfall, Math.min(chunks, allocationLimit.get() - reservation - heldFromParent));
+      }
+      AllocationOutcome outcome = parent.allocateBytes(request);
+      if (!outcome.isOk() && request > shortfall) {
+        request = shortfall;
+        outcome = parent.allocateBytes(request);
+      }
+      if (outcome.isOk()) {
+        heldFromParent += request;
+      }
+      return outcome;
+    }
+  }
+
+  /**
+   * Return memory we hold from the parent beyond one chunk more than what
+   * is in use, or all of it if nothing beyond the reservation is in use or
+   * the parent is short of memory.
+   */
+  private void releaseToParent(final long allocated) {
+    final long inUse = Math.max(0, allocated - reservation);
+    if (heldFromParent <= (inUse == 0 ? 0 : inUse + chunkSize) && (heldFromParent == inUse || parentHasRoom(0))) {
+      return;
+    }
+    synchronized (parentLock) {
+      final long current = Math.max(0, locallyHeldMemory.get() - reservation);
+      final long keep = current == 0 ? 0 : current + (parentHasRoom(0) ? chunkSize : 0);
+      final long surplus = heldFromParent - keep;
+      if (surplus > 0) {
+        heldFromParent -= surplus;
+        parent.releaseBytes(surplus);
+      }
+    }
+  }
+
   public void releaseBytes(long size) {
     // reduce local memory. all memory released above reservation should be released up the tree.
     final long newSize = locallyHeldMemory.addAndGet(-size);
@@ -264,7 +384,9 @@ public class Accountant implements AutoCloseable {
     Preconditions.checkArgument(newSize >= 0, "Accounted size went negative.");
 
     final long originalSize = newSize + size;
-    if(originalSize > reservation && parent != null){
+    if (parent != null && chunkSize > 0) {
+      releaseToParent(newSize);
+    } else if(originalSize > reservation && parent != null){
       // we deallocated memory that we should release to our parent.
       final long possibleAmountToReleaseToParent = originalSize - reservation;
       final long actualToReleaseToParent = Math.min(size, possibleAmountToReleaseToParent);
@@ -292,9 +414,12 @@ public class Accountant implements AutoCloseable {
    */
   @Override
   public void close() {
-    // return memory reservation to parent allocator.
+    // return memory reservation, and any memory held beyond it, to parent allocator.
     if (parent != null) {
-      parent.releaseBytes(reservation);
+      synchronized (parentLock) {
+        parent.releaseBytes(reservation + heldFromParent);
+        heldFromParent = 0;
+      }
     }
   }
 
@@ -317,6 +442,16 @@ public class Accountant implements AutoCloseable {
     return locallyHeldMemory.get();
   }
 
+  /**
+   * Return the memory this Accountant has taken from its parent: the
+   * reservation plus whatever is held beyond it.
+   *
+   * @return Memory accounted to the parent in bytes.
+   */
+  public long getMemoryHeldFromParent() {
+    return chunkSize > 0 ? reservation + heldFromParent : Math.max(getAllocatedMemory(), reservation);
+  }
+
   /**
    * The peak memory allocated by this Accountant.
    *
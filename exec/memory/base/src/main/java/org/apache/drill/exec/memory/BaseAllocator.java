@@ -91,7 +91,7 @@ public abstract class BaseAllocator extends Accountant implements BufferAllocato
       final String name,
       final long initReservation,
       final long maxAllocation) throws OutOfMemoryException {
-    super(parentAllocator, initReservation, maxAllocation);
+    super(parentAllocator, initReservation, maxAllocation, PARENT_CHUNK_SIZE);
 
     if (parentAllocator != null) {
       this.root = parentAllocator.root;
@@ -624,7 +624,7 @@ public abstract class BaseAllocator extends Accountant implements BufferAllocato
        */
       long childTotal = 0;
       for (final BaseAllocator childAllocator : childSet) {
-        childTotal += Math.max(childAllocator.getAllocatedMemory(), childAllocator.reservation);
+        childTotal += childAllocator.getMemoryHeldFromParent();
       }
       if (childTotal > getAllocatedMemory()) {
         historicalLog.logHistory(logger);
@@ -0,0 +1,123 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.drill.exec.memory;
+
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Measures the allocation throughput of the accountant hierarchy with and
+ * without chunked parent reservations. Each thread plays one operator of
+ * its own fragment; all fragments belong to one query under a shared root,
+ * as in a Drillbit running many scan and exchange threads. Each thread
+ * repeatedly accounts for a small set of vector-sized buffers, then
+ * releases them.
+ * <p>
+ * Not a unit test: run the main method, ideally on an otherwise idle
+ * machine.
+ */
+
+public class AccountantBenchmark {
+
+  private static final int WARMUP_ROUNDS = 2;
+  private static final int ROUNDS = 5;
+  private static final int ITERATIONS = 1_000_000;
+  private static final int BUFFERS = 4;
+  private static final long BUFFER_SIZE = 8 * 1024;
+
+  private final long chunkSize;
+  private final int threadCount;
+
+  public AccountantBenchmark(long chunkSize, int threadCount) {
+    this.chunkSize = chunkSize;
+    this.threadCount = threadCount;
+  }
+
+  /**
+   * Run one round of the benchmark.
+   *
+   * @return allocations per second, across all threads
+   */
+
+  public double run() throws InterruptedException {
+    final Accountant root = new Accountant(null, 0, Long.MAX_VALUE);
+    final Accountant query = new Accountant(root, 0, Long.MAX_VALUE, chunkSize);
+    final CountDownLatch start = new CountDownLatch(1);
+    final Thread[] threads = new Thread[threadCount];
+    for (int i = 0; i < threadCount; i++) {
+      final Accountant fragment = new Accountant(query, 0, Long.MAX_VALUE, chunkSize);
+      final Accountant operator = new Accountant(fragment, 0, Long.MAX_VALUE, chunkSize);
+      threads[i] = new Thread() {
+        @Override
+        public void run() {
+          try {
+            start.await();
+          } catch (InterruptedException e) {
+            return;
+          }
+          for (int n = 0; n < ITERATIONS; n++) {
+            for (int b = 0; b < BUFFERS; b++) {
+              if (! operator.allocateBytes(BUFFER_SIZE).isOk()) {
+                throw new IllegalStateException("Allocation failed");
+              }
+            }
+            for (int b = 0; b < BUFFERS; b++) {
+              operator.releaseBytes(BUFFER_SIZE);
+            }
+          }
+          operator.close();
+          fragment.close();
+        }
+      };
+      threads[i].start();
+    }
+    final long startTime = System.nanoTime();
+    start.countDown();
+    for (Thread thread : threads) {
+      thread.join();
+    }
+    final long elapsed = System.nanoTime() - startTime;
+    query.close();
+    if (root.getAllocatedMemory() != 0) {
+      throw new IllegalStateException("Accounting leaked " + root.getAllocatedMemory() + " bytes");
+    }
+    root.close();
+    return (double) threadCount * ITERATIONS * BUFFERS / elapsed * 1e9;
+  }
+
+  public double measure() throws InterruptedException {
+    for (int i = 0; i < WARMUP_ROUNDS; i++) {
+      run();
+    }
+    double best = 0;
+    for (int i = 0; i < ROUNDS; i++) {
+      best = Math.max(best, run());
+    }
+    return best;
+  }
+
+  public static void main(String[] args) throws InterruptedException {
+    final long[] chunkSizes = { 0, Accountant.DEFAULT_ALLOCATION_CHUNK_SIZE };
+    for (int threadCount : new int[] { 1, 8, 32 }) {
+      for (long chunkSize : chunkSizes) {
+        final double rate = new AccountantBenchmark(chunkSize, threadCount).measure();
+        System.out.println(String.format("threads = %2d, chunk size = %7d: %,.0f allocations/s",
+            threadCount, chunkSize, rate));
+      }
+    }
+  }
+}
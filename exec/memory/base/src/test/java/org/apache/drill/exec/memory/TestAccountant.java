@@ -163,4 +163,81 @@ public class TestAccountant {
     child.close();
     parent.close();
   }
+
+  @Test
+  public void chunkedParentReservation() {
+    final Accountant parent = new Accountant(null, 0, Long.MAX_VALUE);
+    final Accountant child = new Accountant(parent, 0, Long.MAX_VALUE, 16);
+
+    // first allocation takes a whole chunk from the parent
+    assertEquals(AllocationOutcome.SUCCESS, child.allocateBytes(1));
+    assertEquals(1, child.getAllocatedMemory());
+    assertEquals(16, parent.getAllocatedMemory());
+
+    // satisfied from the chunk
+    assertEquals(AllocationOutcome.SUCCESS, child.allocateBytes(10));
+    assertEquals(11, child.getAllocatedMemory());
+    assertEquals(16, parent.getAllocatedMemory());
+
+    // needs another chunk
+    assertEquals(AllocationOutcome.SUCCESS, child.allocateBytes(10));
+    assertEquals(21, child.getAllocatedMemory());
+    assertEquals(32, parent.getAllocatedMemory());
+    assertEquals(32, child.getMemoryHeldFromParent());
+
+    // keep no more than one chunk beyond what is in use
+    child.releaseBytes(19);
+    assertEquals(2, child.getAllocatedMemory());
+    assertEquals(18, parent.getAllocatedMemory());
+
+    // give everything back once idle
+    child.releaseBytes(2);
+    assertEquals(0, child.getAllocatedMemory());
+    assertEquals(0, parent.getAllocatedMemory());
+
+    child.close();
+    parent.close();
+  }
+
+  @Test
+  public void chunkedParentReservationLimits() {
+    final Accountant parent = new Accountant(null, 0, 64);
+    final Accountant child = new Accountant(parent, 0, 100, 16);
+
+    assertEquals(AllocationOutcome.SUCCESS, child.allocateBytes(10));
+    assertEquals(16, parent.getAllocatedMemory());
+
+    assertEquals(AllocationOutcome.SUCCESS, child.allocateBytes(10));
+    assertEquals(32, parent.getAllocatedMemory());
+
+    // past half the parent limit, take just what is needed
+    assertEquals(AllocationOutcome.SUCCESS, child.allocateBytes(20));
+    assertEquals(40, child.getAllocatedMemory());
+    assertEquals(40, parent.getAllocatedMemory());
+
+    // beyond the parent limit fails and leaves the accounting unchanged
+    assertEquals(AllocationOutcome.FAILED_PARENT, child.allocateBytes(30));
+    assertEquals(40, child.getAllocatedMemory());
+    assertEquals(40, parent.getAllocatedMemory());
+
+    // forced allocations are accounted all the way up
+    assertEquals(false, child.forceAllocate(30));
+    assertEquals(70, child.getAllocatedMemory());
+    assertEquals(70, parent.getAllocatedMemory());
+
+    child.releaseBytes(70);
+    assertEquals(0, parent.getAllocatedMemory());
+    child.close();
+
+    // chunks never take more than the child's own limit
+    final Accountant limited = new Accountant(parent, 0, 12, 16);
+    assertEquals(AllocationOutcome.SUCCESS, limited.allocateBytes(10));
+    assertEquals(12, parent.getAllocatedMemory());
+
+    // memory held from the parent is returned on close
+    limited.releaseBytes(10);
+    limited.close();
+    assertEquals(0, parent.getAllocatedMemory());
+    parent.close();
+  }
 }
@@ -292,6 +292,14 @@ public final class ${className} extends BaseDataValueVector implements <#if type
     values.load(valuesField, buffer.slice(bitsLength, capacity - bitsLength));
   }
 
+  @Override
+  public void load(SerializedField metadata, BatchBuffers buffers) {
+    clear();
+    // the bits and the values are read separately, each may be a slice of a different buffer of the batch
+    bits.load(metadata.getChild(0), buffers);
+    values.load(metadata.getChild(1), buffers);
+  }
+
   @Override
   public TransferPair getTransferPair(BufferAllocator allocator){
     return new TransferImpl(getField(), allocator);
@@ -154,6 +154,14 @@ public final class ${minor.class}Vector extends BaseDataValueVector implements V
     data.retain();
   }
 
+  @Override
+  public void load(SerializedField metadata, BatchBuffers buffers) {
+    // the offsets and the data are read separately, each may be a slice of a different buffer of the batch
+    final SerializedField offsetField = metadata.getChild(0);
+    offsetVector.load(offsetField, buffers);
+    data = buffers.next(metadata.getBufferLength() - offsetField.getBufferLength());
+  }
+
   @Override
   public void clear() {
     super.clear();
@@ -0,0 +1,119 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.drill.exec.vector;
+
+import io.netty.buffer.DrillBuf;
+
+import java.util.Arrays;
+
+import org.apache.drill.exec.memory.BufferAllocator;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * The data of a serialized record batch, held in one or more buffers (as returned by
+ * {@link ValueVector#getBuffers(boolean)} for each vector of the batch, in order). The readable bytes of the
+ * buffers are read in sequence, as if they were a single body, to load the vectors of the batch (see
+ * {@link ValueVector#load(org.apache.drill.exec.proto.UserBitShared.SerializedField, BatchBuffers)}).
+ * <p>
+ * A vector buffer that lies within a single buffer of the batch is a slice of that buffer (no copy); only one
+ * that spans several buffers is copied into a new buffer.
+ */
+public class BatchBuffers {
+
+  private final DrillBuf[] buffers;
+  private final BufferAllocator allocator;
+  // the buffer being read, and the position within its readable bytes
+  private int index;
+  private int position;
+
+  /**
+   * @param buffers the buffers of the batch; their reference counts are not changed
+   * @param allocator the allocator for the buffers to copy
+   */
+  public BatchBuffers(DrillBuf[] buffers, BufferAllocator allocator) {
+    this.buffers = Preconditions.checkNotNull(buffers);
+    this.allocator = Preconditions.checkNotNull(allocator);
+  }
+
+  /**
+   * Read the next bytes of the batch.
+   *
+   * @param length the number of bytes to read
+   * @return a buffer with the bytes, holding a reference the caller is responsible for
+   */
+  public DrillBuf next(int length) {
+    if (length == 0) {
+      return allocator.getEmpty();
+    }
+    skipReadBuffers();
+    Preconditions.checkState(index < buffers.length, "Read %s bytes beyond the end of the batch", length);
+
+    final DrillBuf current = buffers[index];
+    if (current.readableBytes() - position >= length) {
+      final DrillBuf slice = current.slice(current.readerIndex() + position, length);
+      slice.retain(1);
+      position += length;
+      return slice;
+    }
+
+    final DrillBuf copy = allocator.buffer(length);
+    try {
+      while (copy.writableBytes() > 0) {
+        skipReadBuffers();
+        Preconditions.checkState(index < buffers.length, "Read %s bytes beyond the end of the batch", length);
+        final DrillBuf buffer = buffers[index];
+        final int count = Math.min(copy.writableBytes(), buffer.readableBytes() - position);
+        copy.writeBytes(buffer, buffer.readerIndex() + position, count);
+        position += count;
+      }
+    } catch (RuntimeException e) {
+      copy.release();
+      throw e;
+    }
+    return copy;
+  }
+
+  /**
+   * Skip the next bytes of the batch.
+   *
+   * @param length the number of bytes to skip
+   */
+  public void skip(int length) {
+    int remaining = length;
+    while (remaining > 0) {
+      skipReadBuffers();
+      Preconditions.checkState(index < buffers.length, "Skipped %s bytes beyond the end of the batch", length);
+      final int count = Math.min(remaining, buffers[index].readableBytes() - position);
+      position += count;
+      remaining -= count;
+    }
+  }
+
+  @Override
+  public String toString() {
+    return "BatchBuffers [buffers=" + Arrays.toString(buffers) + ", index=" + index + ", position=" + position + "]";
+  }
+
+  private void skipReadBuffers() {
+    while (index < buffers.length && position == buffers[index].readableBytes()) {
+      index++;
+      position = 0;
+    }
+  }
+}
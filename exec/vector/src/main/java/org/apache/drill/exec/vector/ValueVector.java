@@ -228,6 +228,25 @@ public interface ValueVector extends Closeable, Iterable<ValueVector> {
    */
   void load(SerializedField metadata, DrillBuf buffer);
 
+  /**
+   * Load the data provided in the next bytes of the (possibly multi-buffer) batch. Typically used when the
+   * batch is handed over by a fragment on the same Drillbit. The vectors made of several buffers load each of
+   * them separately, so that the buffers of the batch are not copied.
+   *
+   * @param metadata
+   *          Metadata used to decode the incoming buffer.
+   * @param buffers
+   *          The buffers of the batch, positioned at the start of this ValueVector.
+   */
+  default void load(SerializedField metadata, BatchBuffers buffers) {
+    final DrillBuf buffer = buffers.next(metadata.getBufferLength());
+    try {
+      load(metadata, buffer);
+    } finally {
+      buffer.release();
+    }
+  }
+
   void copyEntry(int toIndex, ValueVector from, int fromIndex);
 
   /**
@@ -33,6 +33,7 @@ import org.apache.drill.exec.proto.UserBitShared;
 import org.apache.drill.exec.record.MaterializedField;
 import org.apache.drill.exec.vector.AddOrGetResult;
 import org.apache.drill.exec.vector.BaseValueVector;
+import org.apache.drill.exec.vector.BatchBuffers;
 import org.apache.drill.exec.vector.UInt4Vector;
 import org.apache.drill.exec.vector.ValueVector;
 import org.apache.drill.exec.vector.VectorDescriptor;
@@ -174,6 +175,17 @@ public abstract class BaseRepeatedValueVector extends BaseValueVector implements
     vector.load(vectorMetadata, buffer.slice(offsetLength, vectorLength));
   }
 
+  @Override
+  public void load(UserBitShared.SerializedField metadata, BatchBuffers buffers) {
+    offsets.load(metadata.getChild(0), buffers);
+
+    final UserBitShared.SerializedField vectorMetadata = metadata.getChild(1);
+    if (getDataVector() == DEFAULT_DATA_VECTOR) {
+      addOrGetVector(VectorDescriptor.create(vectorMetadata.getMajorType()));
+    }
+    vector.load(vectorMetadata, buffers);
+  }
+
   /**
    * Returns 1 if inner vector is explicitly set via #addOrGetVector else 0
    *
@@ -30,6 +30,7 @@ import org.apache.drill.exec.record.TransferPair;
 import org.apache.drill.exec.util.CallBack;
 import org.apache.drill.exec.util.JsonStringArrayList;
 import org.apache.drill.exec.vector.AddOrGetResult;
+import org.apache.drill.exec.vector.BatchBuffers;
 import org.apache.drill.exec.vector.UInt1Vector;
 import org.apache.drill.exec.vector.UInt4Vector;
 import org.apache.drill.exec.vector.ValueVector;
@@ -258,6 +259,18 @@ public class ListVector extends BaseRepeatedValueVector {
     vector.load(vectorMetadata, buffer.slice(offsetLength + bitLength, vectorLength));
   }
 
+  @Override
+  public void load(UserBitShared.SerializedField metadata, BatchBuffers buffers) {
+    offsets.load(metadata.getChild(0), buffers);
+    bits.load(metadata.getChild(1), buffers);
+
+    final UserBitShared.SerializedField vectorMetadata = metadata.getChild(2);
+    if (getDataVector() == DEFAULT_DATA_VECTOR) {
+      addOrGetVector(VectorDescriptor.create(vectorMetadata.getMajorType()));
+    }
+    vector.load(vectorMetadata, buffers);
+  }
+
   public UnionVector promoteToUnion() {
     MaterializedField newField = MaterializedField.create(getField().getName(), Types.optional(MinorType.UNION));
     UnionVector vector = new UnionVector(newField, allocator, null);
@@ -38,6 +38,7 @@ import org.apache.drill.exec.record.TransferPair;
 import org.apache.drill.exec.util.CallBack;
 import org.apache.drill.exec.util.JsonStringHashMap;
 import org.apache.drill.exec.vector.BaseValueVector;
+import org.apache.drill.exec.vector.BatchBuffers;
 import org.apache.drill.exec.vector.SchemaChangeCallBack;
 import org.apache.drill.exec.vector.ValueVector;
 import org.apache.drill.exec.vector.complex.RepeatedMapVector.MapSingleCopier;
@@ -288,6 +289,29 @@ public class MapVector extends AbstractMapVector {
     assert bufOffset == buf.writerIndex();
   }
 
+  @Override
+  public void load(SerializedField metadata, BatchBuffers buffers) {
+    final List<SerializedField> fields = metadata.getChildList();
+    valueCount = metadata.getValueCount();
+
+    for (final SerializedField child : fields) {
+      final MaterializedField fieldDef = MaterializedField.create(child);
+
+      ValueVector vector = getChild(fieldDef.getName());
+      if (vector == null) {
+        // if we arrive here, we didn't have a matching vector.
+        vector = BasicTypeHelper.getNewVector(fieldDef, allocator);
+        putChild(fieldDef.getName(), vector);
+      }
+      if (child.getValueCount() == 0) {
+        vector.clear();
+        buffers.skip(child.getBufferLength());
+      } else {
+        vector.load(child, buffers);
+      }
+    }
+  }
+
   @Override
   public SerializedField getMetadata() {
     SerializedField.Builder b = getField()
@@ -38,6 +38,7 @@ import org.apache.drill.exec.record.MaterializedField;
 import org.apache.drill.exec.record.TransferPair;
 import org.apache.drill.exec.util.JsonStringArrayList;
 import org.apache.drill.exec.vector.AddOrGetResult;
+import org.apache.drill.exec.vector.BatchBuffers;
 import org.apache.drill.exec.util.CallBack;
 import org.apache.drill.exec.vector.UInt4Vector;
 import org.apache.drill.exec.vector.ValueVector;
@@ -378,6 +379,11 @@ public class RepeatedListVector extends AbstractContainerVector
     delegate.load(metadata, buf);
   }
 
+  @Override
+  public void load(SerializedField metadata, BatchBuffers buffers) {
+    delegate.load(metadata, buffers);
+  }
+
   @Override
   public SerializedField getMetadata() {
     return delegate.getMetadata();
@@ -41,6 +41,7 @@ import org.apache.drill.exec.record.TransferPair;
 import org.apache.drill.exec.util.CallBack;
 import org.apache.drill.exec.util.JsonStringArrayList;
 import org.apache.drill.exec.vector.AddOrGetResult;
+import org.apache.drill.exec.vector.BatchBuffers;
 import org.apache.drill.exec.vector.AllocationHelper;
 import org.apache.drill.exec.vector.UInt4Vector;
 import org.apache.drill.exec.vector.ValueVector;
@@ -455,6 +456,24 @@ public class RepeatedMapVector extends AbstractMapVector
     assert bufOffset == buffer.writerIndex();
   }
 
+  @Override
+  public void load(SerializedField metadata, BatchBuffers buffers) {
+    final List<SerializedField> children = metadata.getChildList();
+    offsets.load(children.get(0), buffers);
+
+    for (int i = 1; i < children.size(); i++) {
+      final SerializedField child = children.get(i);
+      final MaterializedField fieldDef = MaterializedField.create(child);
+      ValueVector vector = getChild(fieldDef.getName());
+      if (vector == null) {
+        // if we arrive here, we didn't have a matching vector.
+        vector = BasicTypeHelper.getNewVector(fieldDef, allocator);
+        putChild(fieldDef.getName(), vector);
+      }
+      vector.load(child, buffers);
+    }
+  }
+
   @Override
   public SerializedField getMetadata() {
     SerializedField.Builder builder = getField()
@@ -668,6 +668,16 @@ public final class BitData {
      */
     com.google.protobuf.ByteString
         getAuthenticationMechanismsBytes(int index);
+
+    // optional bool supports_compression = 3;
+    /**
+     * <code>optional bool supports_compression = 3;</code>
+     */
+    boolean hasSupportsCompression();
+    /**
+     * <code>optional bool supports_compression = 3;</code>
+     */
+    boolean getSupportsCompression();
   }
   /**
    * Protobuf type {@code exec.bit.data.BitServerHandshake}
@@ -733,6 +743,11 @@ public final class BitData {
               authenticationMechanisms_.add(input.readBytes());
               break;
             }
+            case 24: {
+              bitField0_ |= 0x00000002;
+              supportsCompression_ = input.readBool();
+              break;
+            }
           }
         }
       } catch (com.google.protobuf.InvalidProtocolBufferException e) {
@@ -822,9 +837,26 @@ public final class BitData {
       return authenticationMechanisms_.getByteString(index);
     }
 
+    // optional bool supports_compression = 3;
+    public static final int SUPPORTS_COMPRESSION_FIELD_NUMBER = 3;
+    private boolean supportsCompression_;
+    /**
+     * <code>optional bool supports_compression = 3;</code>
+     */
+    public boolean hasSupportsCompression() {
+      return ((bitField0_ & 0x00000002) == 0x00000002);
+    }
+    /**
+     * <code>optional bool supports_compression = 3;</code>
+     */
+    public boolean getSupportsCompression() {
+      return supportsCompression_;
+    }
+
     private void initFields() {
       rpcVersion_ = 0;
       authenticationMechanisms_ = com.google.protobuf.LazyStringArrayList.EMPTY;
+      supportsCompression_ = false;
     }
     private byte memoizedIsInitialized = -1;
     public final boolean isInitialized() {
@@ -844,6 +876,9 @@ public final class BitData {
       for (int i = 0; i < authenticationMechanisms_.size(); i++) {
         output.writeBytes(2, authenticationMechanisms_.getByteString(i));
       }
+      if (((bitField0_ & 0x00000002) == 0x00000002)) {
+        output.writeBool(3, supportsCompression_);
+      }
       getUnknownFields().writeTo(output);
     }
 
@@ -866,6 +901,10 @@ public final class BitData {
         size += dataSize;
         size += 1 * getAuthenticationMechanismsList().size();
       }
+      if (((bitField0_ & 0x00000002) == 0x00000002)) {
+        size += com.google.protobuf.CodedOutputStream
+          .computeBoolSize(3, supportsCompression_);
+      }
       size += getUnknownFields().getSerializedSize();
       memoizedSerializedSize = size;
       return size;
@@ -986,6 +1025,8 @@ public final class BitData {
         bitField0_ = (bitField0_ & ~0x00000001);
         authenticationMechanisms_ = com.google.protobuf.LazyStringArrayList.EMPTY;
         bitField0_ = (bitField0_ & ~0x00000002);
+        supportsCompression_ = false;
+        bitField0_ = (bitField0_ & ~0x00000004);
         return this;
       }
 
@@ -1024,6 +1065,10 @@ public final class BitData {
           bitField0_ = (bitField0_ & ~0x00000002);
         }
         result.authenticationMechanisms_ = authenticationMechanisms_;
+        if (((from_bitField0_ & 0x00000004) == 0x00000004)) {
+          to_bitField0_ |= 0x00000002;
+        }
+        result.supportsCompression_ = supportsCompression_;
         result.bitField0_ = to_bitField0_;
         onBuilt();
         return result;
@@ -1053,6 +1098,9 @@ public final class BitData {
           }
           onChanged();
         }
+        if (other.hasSupportsCompression()) {
+          setSupportsCompression(other.getSupportsCompression());
+        }
         this.mergeUnknownFields(other.getUnknownFields());
         return this;
       }
@@ -1206,6 +1254,39 @@ public final class BitData {
         return this;
       }
 
+      // optional bool supports_compression = 3;
+      private boolean supportsCompression_ ;
+      /**
+       * <code>optional bool supports_compression = 3;</code>
+       */
+      public boolean hasSupportsCompression() {
+        return ((bitField0_ & 0x00000004) == 0x00000004);
+      }
+      /**
+       * <code>optional bool supports_compression = 3;</code>
+       */
+      public boolean getSupportsCompression() {
+        return supportsCompression_;
+      }
+      /**
+       * <code>optional bool supports_compression = 3;</code>
+       */
+      public Builder setSupportsCompression(boolean value) {
+        bitField0_ |= 0x00000004;
+        supportsCompression_ = value;
+        onChanged();
+        return this;
+      }
+      /**
+       * <code>optional bool supports_compression = 3;</code>
+       */
+      public Builder clearSupportsCompression() {
+        bitField0_ = (bitField0_ & ~0x00000004);
+        supportsCompression_ = false;
+        onChanged();
+        return this;
+      }
+
       // @@protoc_insertion_point(builder_scope:exec.bit.data.BitServerHandshake)
     }
 
@@ -1301,6 +1382,16 @@ public final class BitData {
      * <code>optional bool isLastBatch = 7;</code>
      */
     boolean getIsLastBatch();
+
+    // optional bool is_compressed = 8;
+    /**
+     * <code>optional bool is_compressed = 8;</code>
+     */
+    boolean hasIsCompressed();
+    /**
+     * <code>optional bool is_compressed = 8;</code>
+     */
+    boolean getIsCompressed();
   }
   /**
    * Protobuf type {@code exec.bit.data.FragmentRecordBatch}
@@ -1420,6 +1511,11 @@ public final class BitData {
               isLastBatch_ = input.readBool();
               break;
             }
+            case 64: {
+              bitField0_ |= 0x00000040;
+              isCompressed_ = input.readBool();
+              break;
+            }
           }
         }
       } catch (com.google.protobuf.InvalidProtocolBufferException e) {
@@ -1594,6 +1690,22 @@ public final class BitData {
       return isLastBatch_;
     }
 
+    // optional bool is_compressed = 8;
+    public static final int IS_COMPRESSED_FIELD_NUMBER = 8;
+    private boolean isCompressed_;
+    /**
+     * <code>optional bool is_compressed = 8;</code>
+     */
+    public boolean hasIsCompressed() {
+      return ((bitField0_ & 0x00000040) == 0x00000040);
+    }
+    /**
+     * <code>optional bool is_compressed = 8;</code>
+     */
+    public boolean getIsCompressed() {
+      return isCompressed_;
+    }
+
     private void initFields() {
       queryId_ = org.apache.drill.exec.proto.UserBitShared.QueryId.getDefaultInstance();
       receivingMajorFragmentId_ = 0;
@@ -1602,6 +1714,7 @@ public final class BitData {
       sendingMinorFragmentId_ = 0;
       def_ = org.apache.drill.exec.proto.UserBitShared.RecordBatchDef.getDefaultInstance();
       isLastBatch_ = false;
+      isCompressed_ = false;
     }
     private byte memoizedIsInitialized = -1;
     public final boolean isInitialized() {
@@ -1636,6 +1749,9 @@ public final class BitData {
       if (((bitField0_ & 0x00000020) == 0x00000020)) {
         output.writeBool(7, isLastBatch_);
       }
+      if (((bitField0_ & 0x00000040) == 0x00000040)) {
+        output.writeBool(8, isCompressed_);
+      }
       getUnknownFields().writeTo(output);
     }
 
@@ -1678,6 +1794,10 @@ public final class BitData {
         size += com.google.protobuf.CodedOutputStream
           .computeBoolSize(7, isLastBatch_);
       }
+      if (((bitField0_ & 0x00000040) == 0x00000040)) {
+        size += com.google.protobuf.CodedOutputStream
+          .computeBoolSize(8, isCompressed_);
+      }
       size += getUnknownFields().getSerializedSize();
       memoizedSerializedSize = size;
       return size;
@@ -1818,6 +1938,8 @@ public final class BitData {
         bitField0_ = (bitField0_ & ~0x00000020);
         isLastBatch_ = false;
         bitField0_ = (bitField0_ & ~0x00000040);
+        isCompressed_ = false;
+        bitField0_ = (bitField0_ & ~0x00000080);
         return this;
       }
 
@@ -1883,6 +2005,10 @@ public final class BitData {
           to_bitField0_ |= 0x00000020;
         }
         result.isLastBatch_ = isLastBatch_;
+        if (((from_bitField0_ & 0x00000080) == 0x00000080)) {
+          to_bitField0_ |= 0x00000040;
+        }
+        result.isCompressed_ = isCompressed_;
         result.bitField0_ = to_bitField0_;
         onBuilt();
         return result;
@@ -1927,6 +2053,9 @@ public final class BitData {
         if (other.hasIsLastBatch()) {
           setIsLastBatch(other.getIsLastBatch());
         }
+        if (other.hasIsCompressed()) {
+          setIsCompressed(other.getIsCompressed());
+        }
         this.mergeUnknownFields(other.getUnknownFields());
         return this;
       }
@@ -2386,6 +2515,39 @@ public final class BitData {
         return this;
       }
 
+      // optional bool is_compressed = 8;
+      private boolean isCompressed_ ;
+      /**
+       * <code>optional bool is_compressed = 8;</code>
+       */
+      public boolean hasIsCompressed() {
+        return ((bitField0_ & 0x00000080) == 0x00000080);
+      }
+      /**
+       * <code>optional bool is_compressed = 8;</code>
+       */
+      public boolean getIsCompressed() {
+        return isCompressed_;
+      }
+      /**
+       * <code>optional bool is_compressed = 8;</code>
+       */
+      public Builder setIsCompressed(boolean value) {
+        bitField0_ |= 0x00000080;
+        isCompressed_ = value;
+        onChanged();
+        return this;
+      }
+      /**
+       * <code>optional bool is_compressed = 8;</code>
+       */
+      public Builder clearIsCompressed() {
+        bitField0_ = (bitField0_ & ~0x00000080);
+        isCompressed_ = false;
+        onChanged();
+        return this;
+      }
+
       // @@protoc_insertion_point(builder_scope:exec.bit.data.FragmentRecordBatch)
     }
 
@@ -2425,19 +2587,20 @@ public final class BitData {
       "nProtos.proto\032\022Coordination.proto\032\023UserB" +
       "itShared.proto\"]\n\022BitClientHandshake\022\023\n\013" +
       "rpc_version\030\001 \001(\005\0222\n\007channel\030\002 \001(\0162\027.exe" +
-      "c.shared.RpcChannel:\010BIT_DATA\"K\n\022BitServ" +
+      "c.shared.RpcChannel:\010BIT_DATA\"i\n\022BitServ" +
       "erHandshake\022\023\n\013rpc_version\030\001 \001(\005\022 \n\030auth" +
-      "enticationMechanisms\030\002 \003(\t\"\214\002\n\023FragmentR" +
-      "ecordBatch\022&\n\010query_id\030\001 \001(\0132\024.exec.shar" +
-      "ed.QueryId\022#\n\033receiving_major_fragment_i" +
-      "d\030\002 \001(\005\022#\n\033receiving_minor_fragment_id\030\003",
-      " \003(\005\022!\n\031sending_major_fragment_id\030\004 \001(\005\022" +
-      "!\n\031sending_minor_fragment_id\030\005 \001(\005\022(\n\003de" +
-      "f\030\006 \001(\0132\033.exec.shared.RecordBatchDef\022\023\n\013" +
-      "isLastBatch\030\007 \001(\010*V\n\007RpcType\022\r\n\tHANDSHAK" +
-      "E\020\000\022\007\n\003ACK\020\001\022\013\n\007GOODBYE\020\002\022\024\n\020REQ_RECORD_" +
-      "BATCH\020\003\022\020\n\014SASL_MESSAGE\020\004B(\n\033org.apache." +
-      "drill.exec.protoB\007BitDataH\001"
+      "enticationMechanisms\030\002 \003(\t\022\034\n\024supports_c" +
+      "ompression\030\003 \001(\010\"\243\002\n\023FragmentRecordBatch" +
+      "\022&\n\010query_id\030\001 \001(\0132\024.exec.shared.QueryId" +
+      "\022#\n\033receiving_major_fragment_id\030\002 \001(\005\022#\n",
+      "\033receiving_minor_fragment_id\030\003 \003(\005\022!\n\031se" +
+      "nding_major_fragment_id\030\004 \001(\005\022!\n\031sending" +
+      "_minor_fragment_id\030\005 \001(\005\022(\n\003def\030\006 \001(\0132\033." +
+      "exec.shared.RecordBatchDef\022\023\n\013isLastBatc" +
+      "h\030\007 \001(\010\022\025\n\ris_compressed\030\010 \001(\010*V\n\007RpcTyp" +
+      "e\022\r\n\tHANDSHAKE\020\000\022\007\n\003ACK\020\001\022\013\n\007GOODBYE\020\002\022\024" +
+      "\n\020REQ_RECORD_BATCH\020\003\022\020\n\014SASL_MESSAGE\020\004B(" +
+      "\n\033org.apache.drill.exec.protoB\007BitDataH\001"
     };
     com.google.protobuf.Descriptors.FileDescriptor.InternalDescriptorAssigner assigner =
       new com.google.protobuf.Descriptors.FileDescriptor.InternalDescriptorAssigner() {
@@ -2455,13 +2618,13 @@ public final class BitData {
           internal_static_exec_bit_data_BitServerHandshake_fieldAccessorTable = new
             com.google.protobuf.GeneratedMessage.FieldAccessorTable(
               internal_static_exec_bit_data_BitServerHandshake_descriptor,
-              new java.lang.String[] { "RpcVersion", "AuthenticationMechanisms", });
+              new java.lang.String[] { "RpcVersion", "AuthenticationMechanisms", "SupportsCompression", });
           internal_static_exec_bit_data_FragmentRecordBatch_descriptor =
             getDescriptor().getMessageTypes().get(2);
           internal_static_exec_bit_data_FragmentRecordBatch_fieldAccessorTable = new
             com.google.protobuf.GeneratedMessage.FieldAccessorTable(
               internal_static_exec_bit_data_FragmentRecordBatch_descriptor,
-              new java.lang.String[] { "QueryId", "ReceivingMajorFragmentId", "ReceivingMinorFragmentId", "SendingMajorFragmentId", "SendingMinorFragmentId", "Def", "IsLastBatch", });
+              new java.lang.String[] { "QueryId", "ReceivingMajorFragmentId", "ReceivingMinorFragmentId", "SendingMajorFragmentId", "SendingMinorFragmentId", "Def", "IsLastBatch", "IsCompressed", });
           return null;
         }
       };
@@ -146,6 +146,16 @@ public final class GeneralRPCProtos {
      * <code>optional bool ok = 1;</code>
      */
     boolean getOk();
+
+    // optional int32 credit = 2;
+    /**
+     * <code>optional int32 credit = 2;</code>
+     */
+    boolean hasCredit();
+    /**
+     * <code>optional int32 credit = 2;</code>
+     */
+    int getCredit();
   }
   /**
    * Protobuf type {@code exec.rpc.Ack}
@@ -203,6 +213,11 @@ public final class GeneralRPCProtos {
               ok_ = input.readBool();
               break;
             }
+            case 16: {
+              bitField0_ |= 0x00000002;
+              credit_ = input.readInt32();
+              break;
+            }
           }
         }
       } catch (com.google.protobuf.InvalidProtocolBufferException e) {
@@ -259,8 +274,25 @@ public final class GeneralRPCProtos {
       return ok_;
     }
 
+    // optional int32 credit = 2;
+    public static final int CREDIT_FIELD_NUMBER = 2;
+    private int credit_;
+    /**
+     * <code>optional int32 credit = 2;</code>
+     */
+    public boolean hasCredit() {
+      return ((bitField0_ & 0x00000002) == 0x00000002);
+    }
+    /**
+     * <code>optional int32 credit = 2;</code>
+     */
+    public int getCredit() {
+      return credit_;
+    }
+
     private void initFields() {
       ok_ = false;
+      credit_ = 0;
     }
     private byte memoizedIsInitialized = -1;
     public final boolean isInitialized() {
@@ -277,6 +309,9 @@ public final class GeneralRPCProtos {
       if (((bitField0_ & 0x00000001) == 0x00000001)) {
         output.writeBool(1, ok_);
       }
+      if (((bitField0_ & 0x00000002) == 0x00000002)) {
+        output.writeInt32(2, credit_);
+      }
       getUnknownFields().writeTo(output);
     }
 
@@ -290,6 +325,10 @@ public final class GeneralRPCProtos {
         size += com.google.protobuf.CodedOutputStream
           .computeBoolSize(1, ok_);
       }
+      if (((bitField0_ & 0x00000002) == 0x00000002)) {
+        size += com.google.protobuf.CodedOutputStream
+          .computeInt32Size(2, credit_);
+      }
       size += getUnknownFields().getSerializedSize();
       memoizedSerializedSize = size;
       return size;
@@ -408,6 +447,8 @@ public final class GeneralRPCProtos {
         super.clear();
         ok_ = false;
         bitField0_ = (bitField0_ & ~0x00000001);
+        credit_ = 0;
+        bitField0_ = (bitField0_ & ~0x00000002);
         return this;
       }
 
@@ -440,6 +481,10 @@ public final class GeneralRPCProtos {
           to_bitField0_ |= 0x00000001;
         }
         result.ok_ = ok_;
+        if (((from_bitField0_ & 0x00000002) == 0x00000002)) {
+          to_bitField0_ |= 0x00000002;
+        }
+        result.credit_ = credit_;
         result.bitField0_ = to_bitField0_;
         onBuilt();
         return result;
@@ -459,6 +504,9 @@ public final class GeneralRPCProtos {
         if (other.hasOk()) {
           setOk(other.getOk());
         }
+        if (other.hasCredit()) {
+          setCredit(other.getCredit());
+        }
         this.mergeUnknownFields(other.getUnknownFields());
         return this;
       }
@@ -519,6 +567,39 @@ public final class GeneralRPCProtos {
         return this;
       }
 
+      // optional int32 credit = 2;
+      private int credit_ ;
+      /**
+       * <code>optional int32 credit = 2;</code>
+       */
+      public boolean hasCredit() {
+        return ((bitField0_ & 0x00000002) == 0x00000002);
+      }
+      /**
+       * <code>optional int32 credit = 2;</code>
+       */
+      public int getCredit() {
+        return credit_;
+      }
+      /**
+       * <code>optional int32 credit = 2;</code>
+       */
+      public Builder setCredit(int value) {
+        bitField0_ |= 0x00000002;
+        credit_ = value;
+        onChanged();
+        return this;
+      }
+      /**
+       * <code>optional int32 credit = 2;</code>
+       */
+      public Builder clearCredit() {
+        bitField0_ = (bitField0_ & ~0x00000002);
+        credit_ = 0;
+        onChanged();
+        return this;
+      }
+
       // @@protoc_insertion_point(builder_scope:exec.rpc.Ack)
     }
 
@@ -1985,7 +2066,8 @@ public final class GeneralRPCProtos {
   static {
     java.lang.String[] descriptorData = {
       "\n\020GeneralRPC.proto\022\010exec.rpc\032\022Coordinati" +
-      "on.proto\"\021\n\003Ack\022\n\n\002ok\030\001 \001(\010\"W\n\tRpcHeader" +
+      "on.proto\"!\n\003Ack\022\n\n\002ok\030\001 \001(\010\022\016\n\006credit\030\002" +
+      " \001(\005\"W\n\tRpcHeader" +
       "\022\037\n\004mode\030\001 \001(\0162\021.exec.rpc.RpcMode\022\027\n\017coo" +
       "rdination_id\030\002 \001(\005\022\020\n\010rpc_type\030\003 \001(\005\"b\n\022" +
       "CompleteRpcMessage\022#\n\006header\030\001 \001(\0132\023.exe" +
@@ -2005,7 +2087,7 @@ public final class GeneralRPCProtos {
           internal_static_exec_rpc_Ack_fieldAccessorTable = new
             com.google.protobuf.GeneratedMessage.FieldAccessorTable(
               internal_static_exec_rpc_Ack_descriptor,
-              new java.lang.String[] { "Ok", });
+              new java.lang.String[] { "Ok", "Credit", });
           internal_static_exec_rpc_RpcHeader_descriptor =
             getDescriptor().getMessageTypes().get(1);
           internal_static_exec_rpc_RpcHeader_fieldAccessorTable = new
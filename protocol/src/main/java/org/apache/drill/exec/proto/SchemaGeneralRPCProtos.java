@@ -37,6 +37,8 @@ public final class SchemaGeneralRPCProtos
             {
                 if(message.hasOk())
                     output.writeBool(1, message.getOk(), false);
+                if(message.hasCredit())
+                    output.writeInt32(2, message.getCredit(), false);
             }
             public boolean isInitialized(org.apache.drill.exec.proto.GeneralRPCProtos.Ack message)
             {
@@ -79,6 +81,9 @@ public final class SchemaGeneralRPCProtos
                         case 1:
                             builder.setOk(input.readBool());
                             break;
+                        case 2:
+                            builder.setCredit(input.readInt32());
+                            break;
                         default:
                             input.handleUnknownField(number, this);
                     }
@@ -120,6 +125,7 @@ public final class SchemaGeneralRPCProtos
             switch(number)
             {
                 case 1: return "ok";
+                case 2: return "credit";
                 default: return null;
             }
         }
@@ -132,6 +138,7 @@ public final class SchemaGeneralRPCProtos
         static
         {
             fieldMap.put("ok", 1);
+            fieldMap.put("credit", 2);
         }
     }
 
@@ -48,6 +48,7 @@ public final class Ack implements Externalizable, Message<Ack>, Schema<Ack>
 
     
     private Boolean ok;
+    private int credit;
 
     public Ack()
     {
@@ -69,6 +70,19 @@ public final class Ack implements Externalizable, Message<Ack>, Schema<Ack>
         return this;
     }
 
+    // credit
+
+    public int getCredit()
+    {
+        return credit;
+    }
+
+    public Ack setCredit(int credit)
+    {
+        this.credit = credit;
+        return this;
+    }
+
     // java serialization
 
     public void readExternal(ObjectInput in) throws IOException
@@ -126,6 +140,9 @@ public final class Ack implements Externalizable, Message<Ack>, Schema<Ack>
                 case 1:
                     message.ok = input.readBool();
                     break;
+                case 2:
+                    message.credit = input.readInt32();
+                    break;
                 default:
                     input.handleUnknownField(number, this);
             }   
@@ -137,6 +154,9 @@ public final class Ack implements Externalizable, Message<Ack>, Schema<Ack>
     {
         if(message.ok != null)
             output.writeBool(1, message.ok, false);
+
+        if(message.credit != 0)
+            output.writeInt32(2, message.credit, false);
     }
 
     public String getFieldName(int number)
@@ -144,6 +164,7 @@ public final class Ack implements Externalizable, Message<Ack>, Schema<Ack>
         switch(number)
         {
             case 1: return "ok";
+            case 2: return "credit";
             default: return null;
         }
     }
@@ -158,6 +179,7 @@ public final class Ack implements Externalizable, Message<Ack>, Schema<Ack>
     static
     {
         __fieldMap.put("ok", 1);
+        __fieldMap.put("credit", 2);
     }
     
 }
@@ -56,6 +56,7 @@ public final class FragmentRecordBatch implements Externalizable, Message<Fragme
     private int sendingMinorFragmentId;
     private RecordBatchDef def;
     private Boolean isLastBatch;
+    private Boolean isCompressed;
 
     public FragmentRecordBatch()
     {
@@ -155,6 +156,19 @@ public final class FragmentRecordBatch implements Externalizable, Message<Fragme
         return this;
     }
 
+    // isCompressed
+
+    public Boolean getIsCompressed()
+    {
+        return isCompressed;
+    }
+
+    public FragmentRecordBatch setIsCompressed(Boolean isCompressed)
+    {
+        this.isCompressed = isCompressed;
+        return this;
+    }
+
     // java serialization
 
     public void readExternal(ObjectInput in) throws IOException
@@ -234,6 +248,9 @@ public final class FragmentRecordBatch implements Externalizable, Message<Fragme
                 case 7:
                     message.isLastBatch = input.readBool();
                     break;
+                case 8:
+                    message.isCompressed = input.readBool();
+                    break;
                 default:
                     input.handleUnknownField(number, this);
             }   
@@ -271,6 +288,9 @@ public final class FragmentRecordBatch implements Externalizable, Message<Fragme
 
         if(message.isLastBatch != null)
             output.writeBool(7, message.isLastBatch, false);
+
+        if(message.isCompressed != null)
+            output.writeBool(8, message.isCompressed, false);
     }
 
     public String getFieldName(int number)
@@ -284,6 +304,7 @@ public final class FragmentRecordBatch implements Externalizable, Message<Fragme
             case 5: return "sendingMinorFragmentId";
             case 6: return "def";
             case 7: return "isLastBatch";
+            case 8: return "isCompressed";
             default: return null;
         }
     }
@@ -304,6 +325,7 @@ public final class FragmentRecordBatch implements Externalizable, Message<Fragme
         __fieldMap.put("sendingMinorFragmentId", 5);
         __fieldMap.put("def", 6);
         __fieldMap.put("isLastBatch", 7);
+        __fieldMap.put("isCompressed", 8);
     }
     
 }